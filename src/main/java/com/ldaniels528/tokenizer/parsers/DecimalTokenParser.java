@@ -0,0 +1,64 @@
+package com.ldaniels528.tokenizer.parsers;
+
+import com.ldaniels528.tokenizer.SimpleToken;
+import com.ldaniels528.tokenizer.Token;
+import com.ldaniels528.tokenizer.TokenParser;
+import com.ldaniels528.tokenizer.TokenizerContext;
+
+/**
+ * Parses (unsigned) decimal number tokens, including fractions and
+ * exponents (e.g. '5', '.5', '2.5e-3'); unlike the {@link NumericTokenParser
+ * numeric token parser}, a number is not run together with the letters that
+ * follow it (e.g. '5x' is parsed as '5' and 'x').
+ * @author lawrence.daniels@gmail.com
+ */
+public class DecimalTokenParser implements TokenParser {
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.tokenizer.TokenParser#getToken(com.ldaniels528.tokenizer.TokenizerContext)
+	 */
+	public Token getToken( final TokenizerContext ctx ) {
+		final char[] exprCh = ctx.exprCh;
+
+		// a number starts with a digit, or a decimal point followed by a digit
+		if( !isDigit( exprCh, ctx.position ) &&
+			!( ( exprCh[ ctx.position ] == '.' ) && isDigit( exprCh, ctx.position + 1 ) ) ) {
+			return null;
+		}
+
+		// get the starting position
+		final int start = ctx.position;
+
+		// get the whole and fractional parts
+		while( isDigit( exprCh, ctx.position ) ) ctx.position++;
+		if( ( ctx.position < exprCh.length ) && ( exprCh[ ctx.position ] == '.' ) ) {
+			ctx.position++;
+			while( isDigit( exprCh, ctx.position ) ) ctx.position++;
+		}
+
+		// get the exponent (if any)
+		if( ( ctx.position < exprCh.length ) && ( ( exprCh[ ctx.position ] == 'e' ) || ( exprCh[ ctx.position ] == 'E' ) ) ) {
+			int position = ctx.position + 1;
+			if( ( position < exprCh.length ) && ( ( exprCh[ position ] == '+' ) || ( exprCh[ position ] == '-' ) ) ) position++;
+			if( isDigit( exprCh, position ) ) {
+				while( isDigit( exprCh, position ) ) position++;
+				ctx.position = position;
+			}
+		}
+
+		// return the token
+		return new SimpleToken( ctx.expr.substring( start, ctx.position ), Token.NUMERIC, start, ctx.position, ctx.lineNo );
+	}
+
+	/**
+	 * Indicates whether the character at the given position is a digit
+	 * @param exprCh the given characters
+	 * @param position the given position
+	 * @return true, if the character at the given position is a digit
+	 */
+	private static boolean isDigit( final char[] exprCh, final int position ) {
+		return ( position < exprCh.length ) && Character.isDigit( exprCh[ position ] );
+	}
+
+}
@@ -26,6 +26,7 @@ import constellation.app.ui.DrawingPane;
 import constellation.app.ui.UserInterfaceUtil;
 import constellation.app.ui.statusbar.EventManager;
 import constellation.drawing.Camera;
+import constellation.drawing.elements.ModelElement;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.RectangleXY;
 import constellation.functions.Function;
@@ -34,6 +35,7 @@ import constellation.math.MatrixWCStoSCS;
 import constellation.model.DefaultGeometricModel;
 import constellation.model.Filter;
 import constellation.model.GeometricModel;
+import constellation.model.ModelHistory;
 import constellation.preferences.SystemPreferences;
 
 /**
@@ -44,6 +46,7 @@ import constellation.preferences.SystemPreferences;
 public class CxApplicationController implements ApplicationController {
 	// get the application version
 	private static final String VERSION = Constellation.class.getAnnotation(CxVersion.class).value();
+	private static final long MEGABYTE = 1024L * 1024L;
 	
 	// logger instance
 	private final Logger logger = Logger.getLogger( getClass() );
@@ -80,6 +83,7 @@ public class CxApplicationController implements ApplicationController {
 		
 		// initialize the model instance
 		this.model 				= DefaultGeometricModel.newModel();
+		attachHistory( model );
 		
 		// update the matrix with the model units
 		matrix.setScale( 0.5d );
@@ -457,8 +461,10 @@ public class CxApplicationController implements ApplicationController {
 			model.addFilter( filter );
 		}
 		
-		// merge the geometry from the model
-		model.addPhysicalElements( mergeModel.getPhysicalElements() );
+		// merge the geometry from the model (relabeling the elements whose labels are in use)
+		final Collection<ModelElement> elements = mergeModel.getPhysicalElements();
+		model.resolveLabelConflicts( elements );
+		model.addPhysicalElements( elements );
 		
 		// redraw needed
 		requestRedraw();
@@ -468,6 +474,12 @@ public class CxApplicationController implements ApplicationController {
 	 * {@inheritDoc}
 	 */
 	public void setModel( final GeometricModel model ) {
+		// discard the history of the previous model
+		final ModelHistory history = ModelHistory.lookup( this.model );
+		if( ( history != null ) && ( history != attachHistory( model ) ) ) {
+			history.clear();
+		}
+		
 		// point to the new model
 		this.model = model;
 		
@@ -485,6 +497,15 @@ public class CxApplicationController implements ApplicationController {
 		requestRedraw();
 	}
 	
+	/**
+	 * Records the changes made to the given model (from this point onwards), so that they may be undone
+	 * @param model the given {@link GeometricModel model}
+	 * @return the model's {@link ModelHistory history}
+	 */
+	private ModelHistory attachHistory( final GeometricModel model ) {
+		return ModelHistory.attach( model, systemPreferences.getUndoMemoryLimit() * MEGABYTE );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
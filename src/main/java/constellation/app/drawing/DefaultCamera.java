@@ -1,47 +1,78 @@
 package constellation.app.drawing;
 
 import static constellation.drawing.LinePatternDefs.SOLID_STROKE;
+import static java.lang.Math.max;
 
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Stroke;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
 import javax.swing.JComponent;
 
 import constellation.ApplicationController;
+import constellation.SelectionMode;
 import constellation.app.drawing.entity.AxisXY;
 import constellation.app.drawing.entity.CanvasXY;
 import constellation.app.preferences.CxSystemPreferences;
 import constellation.drawing.Camera;
 import constellation.drawing.EntityRepresentationUtil;
+import constellation.drawing.ImagePyramid;
+import constellation.drawing.RenderContext;
 import constellation.drawing.RenderableElement;
 import constellation.drawing.elements.ModelElement;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.RectangleXY;
 import constellation.math.MatrixWCStoSCS;
+import constellation.model.Filter;
 import constellation.model.GeometricModel;
+import constellation.model.ModelChangeType;
+import constellation.model.SnapPoint;
 import constellation.preferences.SystemPreferences;
 
 /**
- * Constellation Default Camera 
+ * Constellation Default Camera. When retained rendering is enabled, the
+ * static scene (canvas, axis, physical and phantom elements) is cached in
+ * an off-screen layer which is only redrawn when the model, view or 
+ * preferences change; the highlighted, selected, temporary and picked
+ * elements (and the object snap glyph) are composited on top of it on 
+ * every frame. For large models, the static layer is rasterized in 
+ * parallel tiles, and - when rendering for the drawing pane - in the 
+ * background, while the previous layer is re-projected onto the screen 
+ * until the new one is ready. Static elements
+ * are drawn with a {@link LevelOfDetail level of detail} suited to their 
+ * projected size.
  * @author lawrence.daniels@gmail.com
  */
 public class DefaultCamera implements Camera { 		
+	private static final int LARGE_SCENE_THRESHOLD = 5000;
+	private static final int SNAP_GLYPH_SIZE = 5;
 	private final List<RenderableElement> renderables;
 	private final List<ModelElement> scratch;
+	private final TileRenderer tileRenderer;
 	private final MatrixWCStoSCS matrix;
 	private final CanvasXY canvas;
 	private final AxisXY axis;
 	private Rectangle clipper; 
+	private RenderContext context;
 	private boolean isDebug;
 	
+	// retained (static) layer fields
+	private BufferedImage staticLayer;
+	private BufferedImage spareLayer;
+	private MatrixWCStoSCS staticMatrix;
+	private SceneState staticState;
+	private SceneState pendingState;
+	
 	/**
 	 * Creates a new default camera instance
 	 * @param matrix the given {@link MatrixWCStoSCS matrix}
@@ -50,6 +81,7 @@ public class DefaultCamera implements Camera {
 		this.matrix			= matrix;
 		this.canvas			= new CanvasXY();
 		this.axis			= new AxisXY();
+		this.tileRenderer	= new TileRenderer();
 		this.scratch		= new ArrayList<ModelElement>( 1000 );
 		this.renderables	= new ArrayList<RenderableElement>( 250 );
 	}
@@ -72,6 +104,7 @@ public class DefaultCamera implements Camera {
 		
 		// create the clipping plane
 		clipper = new Rectangle( dimension );
+		context = new RenderContext( matrix, clipper );
 		
 		// set the center of the screen
 		final double cx = dimension.getWidth() / 2.0d;
@@ -101,7 +134,18 @@ public class DefaultCamera implements Camera {
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model, 
-						final Image surface ) {		
+						final Image surface ) {
+		render( controller, model, surface, null );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.drawing.Camera#render(constellation.ApplicationController, constellation.model.GeometricModel, java.awt.Image, java.lang.Runnable)
+	 */
+	public void render( final ApplicationController controller, 
+						final GeometricModel model, 
+						final Image surface,
+						final Runnable frameReadyCallBack ) {		
 		synchronized( scratch ) {
 			// get the system preferences
 			final SystemPreferences preferences = controller.getSystemPreferences();
@@ -112,70 +156,318 @@ public class DefaultCamera implements Camera {
 			// get the graphics context of the rendering surface
 			final Graphics2D g = (Graphics2D)surface.getGraphics();
 			
-			// set some rendering hints
-			if( preferences.isAntiAliasing() ) {
-				g.setRenderingHint( RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON );
-				g.setRenderingHint( RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY );
-			}
-			
-			// draw the canvas + grid
-			drawRenderable( controller, model, canvas, g, preferences.getGridColor() );
-
-			// draw the axis
-			drawRenderable( controller, model, axis, g, preferences.getAxisColor() );
-			
-			// display the physical & phantom elements
-			switch( controller.getSelectionMode() ) {
-				case PHANTOM_ELEMENTS:
-					// draw the "physical" elements (as inactive)
-					model.getVisibleElements( scratch );
-					drawElements( controller, model, scratch, g, preferences.getPhantomColor() );
-				
-					// draw the "phantom" elements (as active)
-					model.getPhantomElements( scratch );
-					drawElements( controller, model, scratch, g );	
-					break;
+			// draw the static scene (directly, or via the retained layer)
+			if( preferences.isRetainedRendering() ) {
+				// is the retained layer out of date?
+				final SceneState state = new SceneState( controller, model, preferences, matrix, clipper, isDebug );
+				if( !state.equals( staticState ) ) {
+					final boolean largeScene = model.getPhysicalElementCount() >= LARGE_SCENE_THRESHOLD;
+					
+					// rasterize large scenes in the background; meanwhile, re-project the previous layer 
+					if( largeScene && ( frameReadyCallBack != null ) ) {
+						if( !state.equals( pendingState ) ) {
+							pendingState = state;
+							tileRenderer.submit( createFrame( controller, model, preferences, state, frameReadyCallBack ) );
+						}
+						drawProvisionalScene( controller, model, preferences, g );
+					}
 					
-				case PHYSICAL_ELEMENTS:			
-					// draw the "phantom" elements (as active)
-					if( preferences.showPhantoms() ) {
-						model.getPhantomElements( scratch );
-						drawElements( controller, model, scratch, g, preferences.getPhantomColor() );	
+					// otherwise, rebuild the layer before compositing it
+					else {
+						tileRenderer.cancel();
+						pendingState = null;
+						
+						final StaticFrame frame = createFrame( controller, model, preferences, state, null );
+						if( largeScene ) {
+							tileRenderer.render( frame );
+						}
+						else {
+							final Graphics2D gs = frame.getImage().createGraphics();
+							drawStaticScene( controller, model, preferences, gs, new RenderContext( frame.matrix, frame.clipper ), null );
+							gs.dispose();
+							frame.completed();
+						}
+						g.drawImage( staticLayer, 0, 0, null );
 					}
+				}
 				
-					// draw the "physical" elements (as inactive)
-					model.getVisibleElements( scratch );
-					drawElements( controller, model, scratch, g );
-					break;
-			}
-	
-			// draw the "highlighted" elements
-			if( controller.showHighlights() ) {
-				final Collection<ModelElement> highlightedGeometry = model.getHighlightedGeometry();
-				if( highlightedGeometry != null && !highlightedGeometry.isEmpty() ) {
-					drawElements( controller, model, highlightedGeometry, g, preferences.getHighlightedGeometryColor() );
+				// composite the retained layer
+				else {
+					g.drawImage( staticLayer, 0, 0, null );
 				}
 			}
+			else {
+				tileRenderer.cancel();
+				staticLayer = null;
+				staticState = pendingState = null;
+				drawStaticScene( controller, model, preferences, g, context, null );
+			}
 			
-			// draw the "selected" elements
-			renderables.clear();
-			model.getSelectedGeometry( renderables );
-			if( !renderables.isEmpty() ) {
-				drawRenderables( controller, model, renderables, g, preferences.getSelectedGeometryColor() );
+			// draw the dynamic overlay (highlighted, selected, temporary and picked elements)
+			drawOverlay( controller, model, preferences, g );
+		}
+	}
+	
+	/**
+	 * Creates a frame for re-building the static layer
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param model the given {@link GeometricModel geometric model}
+	 * @param preferences the given {@link SystemPreferences system preferences}
+	 * @param state the {@link SceneState state} of the scene the frame will reflect
+	 * @param frameReadyCallBack the optional call-back to invoke once the frame has been published
+	 * @return the {@link StaticFrame frame}
+	 */
+	private StaticFrame createFrame( final ApplicationController controller, 
+									 final GeometricModel model, 
+									 final SystemPreferences preferences,
+									 final SceneState state,
+									 final Runnable frameReadyCallBack ) {
+		// re-use the spare layer if possible
+		final int width  = max( clipper.width, 1 );
+		final int height = max( clipper.height, 1 );
+		BufferedImage image = spareLayer;
+		spareLayer = null;
+		if( ( image == null ) || ( image.getWidth() != width ) || ( image.getHeight() != height ) ) {
+			image = new BufferedImage( width, height, BufferedImage.TYPE_INT_RGB );
+		}
+		return new StaticFrame( controller, model, preferences, state, image, new Rectangle( clipper ), frameReadyCallBack );
+	}
+	
+	/**
+	 * Draws a provisional static scene, while the retained layer is being 
+	 * re-built in the background: the previous layer is re-projected from
+	 * the view it was drawn with onto the current view.
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param model the given {@link GeometricModel geometric model}
+	 * @param preferences the given {@link SystemPreferences system preferences}
+	 * @param g the given {@link Graphics2D graphics context}
+	 */
+	private void drawProvisionalScene( final ApplicationController controller, 
+									   final GeometricModel model, 
+									   final SystemPreferences preferences,
+									   final Graphics2D g ) {
+		// draw the canvas + grid, and the axis
+		drawRenderable( controller, model, canvas, g, context, preferences.getGridColor() );
+		drawRenderable( controller, model, axis, g, context, preferences.getAxisColor() );
+		
+		// re-project the previous layer
+		if( staticLayer != null ) {
+			final int width  = staticLayer.getWidth();
+			final int height = staticLayer.getHeight();
+			
+			// determine where the corners of the previous layer are now on screen
+			final Point p1 = new Point();
+			final Point p2 = new Point();
+			matrix.transform( staticMatrix.untransform( new Point( 0, 0 ) ), p1 );
+			matrix.transform( staticMatrix.untransform( new Point( width, height ) ), p2 );
+			g.drawImage( staticLayer, p1.x, p1.y, p2.x, p2.y, 0, 0, width, height, null );
+		}
+	}
+	
+	/**
+	 * Publishes the given completed frame as the retained layer
+	 * @param frame the given {@link StaticFrame frame}
+	 * @return true, if the frame was published
+	 */
+	private boolean publish( final StaticFrame frame ) {
+		synchronized( scratch ) {
+			// has the frame been superseded?
+			if( frame.isCancelled() ) {
+				return false;
 			}
 			
-			// draw the "temporary" elements
-			final RenderableElement temporaryGeometry = model.getTemporaryElement();
-			if( temporaryGeometry != null ) {
-				drawRenderable( controller, model, temporaryGeometry, g, preferences.getTemporaryElementColor() );
+			// swap the layers
+			spareLayer		= staticLayer;
+			staticLayer		= frame.getImage();
+			staticMatrix	= frame.matrix;
+			staticState		= frame.state;
+			if( frame.state.equals( pendingState ) ) {
+				pendingState = null;
 			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Draws the static scene: the canvas, the axis, and the physical & phantom elements
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param model the given {@link GeometricModel geometric model}
+	 * @param preferences the given {@link SystemPreferences system preferences}
+	 * @param g the given {@link Graphics2D graphics context}
+	 * @param context the given {@link RenderContext render context}
+	 * @param frame the {@link TileRenderer.Frame frame} being rendered, or <tt>null</tt> if not cancellable
+	 */
+	private void drawStaticScene( final ApplicationController controller, 
+								  final GeometricModel model, 
+								  final SystemPreferences preferences,
+								  final Graphics2D g,
+								  final RenderContext context,
+								  final TileRenderer.Frame frame ) {
+		// set some rendering hints
+		setRenderingHints( preferences, g );
+		
+		// draw the canvas + grid
+		drawRenderable( controller, model, canvas, g, context, preferences.getGridColor() );
+
+		// draw the axis
+		drawRenderable( controller, model, axis, g, context, preferences.getAxisColor() );
+		
+		// display the physical & phantom elements
+		drawStaticElements( controller, model, preferences, g, context, context.getClipper(), scratch, frame );
+	}
+	
+	/**
+	 * Draws the physical & phantom elements that are visible within the given region
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param model the given {@link GeometricModel geometric model}
+	 * @param preferences the given {@link SystemPreferences system preferences}
+	 * @param g the given {@link Graphics2D graphics context}
+	 * @param context the given {@link RenderContext render context}
+	 * @param region the given screen {@link Rectangle region}
+	 * @param container the given scratch {@link Collection container}
+	 * @param frame the {@link TileRenderer.Frame frame} being rendered, or <tt>null</tt> if not cancellable
+	 */
+	private void drawStaticElements( final ApplicationController controller, 
+									 final GeometricModel model, 
+									 final SystemPreferences preferences,
+									 final Graphics2D g,
+									 final RenderContext context,
+									 final Rectangle region,
+									 final List<ModelElement> container,
+									 final TileRenderer.Frame frame ) {
+		// determine the model space region that is visible on screen
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final RectangleXY viewPort = matrix.untransform( region );
+		
+		// elements are drawn with a level of detail that suits their projected size
+		final LevelOfDetail lod = new LevelOfDetail( matrix, region, preferences.getDetailThreshold() );
+		
+		// display the physical & phantom elements
+		switch( controller.getSelectionMode() ) {
+			case PHANTOM_ELEMENTS:
+				// draw the "physical" elements (as inactive)
+				model.getVisibleElements( container, viewPort );
+				drawElements( controller, model, container, g, context, preferences.getPhantomColor(), lod, frame );
+			
+				// draw the "phantom" elements (as active)
+				model.getPhantomElements( container );
+				drawElements( controller, model, container, g, context, null, lod, frame );	
+				break;
+				
+			case PHYSICAL_ELEMENTS:			
+				// draw the "phantom" elements (as active)
+				if( preferences.showPhantoms() ) {
+					model.getPhantomElements( container );
+					drawElements( controller, model, container, g, context, preferences.getPhantomColor(), lod, frame );	
+				}
 			
-			// draw the "picked" elements
-			final ModelElement pickedGeometry = model.getPickedElement();
-			if( pickedGeometry != null ) {
-				drawElement( controller, model, pickedGeometry, g, preferences.getPickedElementColor(), SOLID_STROKE );
+				// draw the "physical" elements (as inactive)
+				model.getVisibleElements( container, viewPort );
+				drawElements( controller, model, container, g, context, null, lod, frame );
+				break;
+		}
+	}
+	/**
+	 * Draws the dynamic overlay: the highlighted, selected, temporary and picked elements
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param model the given {@link GeometricModel geometric model}
+	 * @param preferences the given {@link SystemPreferences system preferences}
+	 * @param g the given {@link Graphics2D graphics context}
+	 */
+	private void drawOverlay( final ApplicationController controller, 
+							  final GeometricModel model, 
+							  final SystemPreferences preferences,
+							  final Graphics2D g ) {
+		// set some rendering hints
+		setRenderingHints( preferences, g );
+		
+		// draw the "highlighted" elements
+		if( controller.showHighlights() ) {
+			final Collection<ModelElement> highlightedGeometry = model.getHighlightedGeometry();
+			if( highlightedGeometry != null && !highlightedGeometry.isEmpty() ) {
+				drawElements( controller, model, highlightedGeometry, g, context, preferences.getHighlightedGeometryColor(), null, null );
 			}
 		}
+		
+		// draw the "selected" elements
+		renderables.clear();
+		model.getSelectedGeometry( renderables );
+		if( !renderables.isEmpty() ) {
+			drawRenderables( controller, model, renderables, g, preferences.getSelectedGeometryColor() );
+		}
+		
+		// draw the "temporary" elements
+		final RenderableElement temporaryGeometry = model.getTemporaryElement();
+		if( temporaryGeometry != null ) {
+			drawRenderable( controller, model, temporaryGeometry, g, context, preferences.getTemporaryElementColor() );
+		}
+		
+		// draw the "picked" elements
+		final ModelElement pickedGeometry = model.getPickedElement();
+		if( pickedGeometry != null ) {
+			drawElement( controller, model, pickedGeometry, g, context, preferences.getPickedElementColor(), SOLID_STROKE );
+		}
+		
+		// draw the "snap" glyph
+		final SnapPoint snapPoint = model.getSnapPoint();
+		if( snapPoint != null ) {
+			drawSnapGlyph( snapPoint, g, context, preferences.getPickedElementColor() );
+		}
+	}
+	
+	/**
+	 * Draws the glyph of the given snap point; the shape of the glyph
+	 * indicates the type of the snap point.
+	 * @param snapPoint the given {@link SnapPoint snap point}
+	 * @param g the given {@link Graphics2D graphics context}
+	 * @param context the given {@link RenderContext render context}
+	 * @param color the given {@link Color color}
+	 */
+	private void drawSnapGlyph( final SnapPoint snapPoint, 
+								final Graphics2D g, 
+								final RenderContext context,
+								final Color color ) {
+		// determine the screen position of the snap point
+		final Point p = new Point();
+		context.getMatrix().transform( snapPoint.getPoint(), p );
+		final int s = SNAP_GLYPH_SIZE;
+		
+		// draw the glyph
+		context.setStroke( g, SOLID_STROKE );
+		g.setColor( color );
+		switch( snapPoint.getType() ) {
+			case CENTER:
+				g.drawOval( p.x - s, p.y - s, 2 * s, 2 * s );
+				break;
+				
+			case INTERSECTION:
+				g.drawLine( p.x - s, p.y - s, p.x + s, p.y + s );
+				g.drawLine( p.x - s, p.y + s, p.x + s, p.y - s );
+				break;
+				
+			case MID_POINT:
+				g.drawPolygon( new int[] { p.x - s, p.x + s, p.x }, new int[] { p.y + s, p.y + s, p.y - s }, 3 );
+				break;
+				
+			case QUADRANT:
+				g.drawPolygon( new int[] { p.x - s, p.x, p.x + s, p.x }, new int[] { p.y, p.y - s, p.y, p.y + s }, 4 );
+				break;
+				
+			default:
+				g.drawRect( p.x - s, p.y - s, 2 * s, 2 * s );
+		}
+	}
+	
+	/**
+	 * Sets the rendering hints of the given graphics context
+	 * @param preferences the given {@link SystemPreferences system preferences}
+	 * @param g the given {@link Graphics2D graphics context}
+	 */
+	private static void setRenderingHints( final SystemPreferences preferences, final Graphics2D g ) {
+		if( preferences.isAntiAliasing() ) {
+			g.setRenderingHint( RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON );
+			g.setRenderingHint( RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY );
+		}
 	}
 
 	/* 
@@ -208,14 +500,16 @@ public class DefaultCamera implements Camera {
 	 * @param model the given {@link GeometricModel geometric model}
 	 * @param element the given {@link RenderableElement element}
 	 * @param g the given {@link Graphics2D graphics context}
+	 * @param context the given {@link RenderContext render context}
 	 * @param color the given {@link Color color}
 	 */
 	private void drawRenderable( final ApplicationController controller, 
 							  	 final GeometricModel model, 
 							  	 final RenderableElement element, 
 							  	 final Graphics2D g, 
+							  	 final RenderContext context,
 							  	 final Color color ) {
-		element.render( controller, model, matrix, clipper, g, color );
+		element.render( controller, model, context, g, color );
 	}
 	
 	/**
@@ -232,7 +526,7 @@ public class DefaultCamera implements Camera {
 							  	  final Graphics2D g, 
 							  	  final Color color ) {
 		for( final RenderableElement element : elements ) {
-			element.render( controller, model, matrix, clipper, g, color );
+			element.render( controller, model, context, g, color );
 		}
 	}
 	
@@ -242,6 +536,7 @@ public class DefaultCamera implements Camera {
 	 * @param model the given {@link GeometricModel geometric model}
 	 * @param element the given {@link RenderableElement element}
 	 * @param g the given {@link Graphics2D graphics context}
+	 * @param context the given {@link RenderContext render context}
 	 * @param color the given {@link Color color}
 	 * @param stroke the given {@link Stroke stroke}
 	 */
@@ -249,10 +544,11 @@ public class DefaultCamera implements Camera {
 							  final GeometricModel model, 
 							  final ModelElement element, 
 							  final Graphics2D g, 
+							  final RenderContext context,
 							  final Color color, 
 							  final Stroke stroke ) {
 		// set the line stroke
-		g.setStroke( stroke );
+		context.setStroke( g, stroke );
 		
 		// get the preferences instance
 		final SystemPreferences preferences = controller.getSystemPreferences();
@@ -263,22 +559,22 @@ public class DefaultCamera implements Camera {
 			case POINT:
 				final PointXY point = EntityRepresentationUtil.getPoint( element );
 				if( preferences.showPointLabels() ) {
-					point.renderLabel( controller, model, matrix, clipper, g, color, element.getLabel() );
+					point.renderLabel( controller, model, context, g, color, element.getLabel() );
 				} else {
-					point.render( controller, model, matrix, clipper, g, color );
+					point.render( controller, model, context, g, color );
 				}
 				break;
 				
 			// draw anything else
 			default:
 				// render the element
-				element.render( controller, model, matrix, clipper, g, color );
+				element.render( controller, model, context, g, color );
 				
 				// if in debug mode, draw the boundary 
 				if( isDebug ) {
-					final RectangleXY rectM = element.getBounds( matrix );
-					final Rectangle rectS = matrix.transform( rectM );
-					if( clipper.intersects( rectS ) ) {
+					final RectangleXY rectM = element.getBounds( context.getMatrix() );
+					final Rectangle rectS = context.getMatrix().transform( rectM );
+					if( context.getClipper().intersects( rectS ) ) {
 						g.setColor( Color.ORANGE );
 						g.draw( rectS );
 					}
@@ -288,48 +584,203 @@ public class DefaultCamera implements Camera {
 	}
 
 	/**
-	 * Draws the set of elements in the specified color onto the screen
+	 * Draws the set of elements onto the screen
 	 * @param controller the given {@link ApplicationController controller}
 	 * @param model the given {@link GeometricModel geometric model}
-	 * @param elements the set of {@link RenderableElement elements}
+	 * @param elements the collection of {@link ModelElement elements}
 	 * @param g the given {@link Graphics2D graphics context}
-	 * @param color the color to render the geometry
+	 * @param context the given {@link RenderContext render context}
+	 * @param color the color to render the geometry, or <tt>null</tt> to use each element's own color
+	 * @param lod the {@link LevelOfDetail level-of-detail stage}, or <tt>null</tt> to draw in full detail
+	 * @param frame the {@link TileRenderer.Frame frame} being rendered, or <tt>null</tt> if not cancellable
 	 */
 	private void drawElements( final ApplicationController controller, 
 							   final GeometricModel model, 
 							   final Collection<ModelElement> elements, 
 							   final Graphics2D g, 
-							   final Color color ) {
+							   final RenderContext context,
+							   final Color color,
+							   final LevelOfDetail lod,
+							   final TileRenderer.Frame frame ) {
 		for( final ModelElement element : elements ) {
+			// stop drawing, if the frame has been superseded
+			if( ( frame != null ) && frame.isCancelled() ) {
+				return;
+			}
+			
+			// determine the element's color
+			final Color elementColor = ( color != null ) ? color : element.getColor();
+			
+			// draw the element with reduced detail?
+			if( ( lod != null ) && lod.drawReduced( element, g, elementColor ) ) {
+				continue;
+			}
+			
 			// determine the element's stroke
 			final Stroke stroke = EntityRepresentationUtil.getStroke( element );
 			
 			// draw the element
-			drawElement( controller, model, element, g, color, stroke );
+			drawElement( controller, model, element, g, context, elementColor, stroke );
 		}
 	}
+	
+	/**
+	 * Represents a frame of the static layer
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class StaticFrame extends TileRenderer.Frame {
+		private final ApplicationController controller;
+		private final GeometricModel model;
+		private final SystemPreferences preferences;
+		private final SceneState state;
+		private final MatrixWCStoSCS matrix;
+		private final Rectangle clipper;
+		private final CanvasXY canvas;
+		private final AxisXY axis;
+		private final Runnable frameReadyCallBack;
+		
+		/**
+		 * Creates a new static layer frame
+		 * @param controller the given {@link ApplicationController controller}
+		 * @param model the given {@link GeometricModel geometric model}
+		 * @param preferences the given {@link SystemPreferences system preferences}
+		 * @param state the {@link SceneState state} of the scene the frame reflects
+		 * @param image the given {@link BufferedImage image} to render into
+		 * @param clipper the given {@link Rectangle clipping boundary}
+		 * @param frameReadyCallBack the optional call-back to invoke once the frame has been published
+		 */
+		public StaticFrame( final ApplicationController controller, 
+							final GeometricModel model, 
+							final SystemPreferences preferences,
+							final SceneState state,
+							final BufferedImage image, 
+							final Rectangle clipper,
+							final Runnable frameReadyCallBack ) {
+			super( image );
+			this.controller			= controller;
+			this.model				= model;
+			this.preferences		= preferences;
+			this.state				= state;
+			this.matrix				= new MatrixWCStoSCS( DefaultCamera.this.matrix );
+			this.clipper			= clipper;
+			this.canvas				= new CanvasXY();
+			this.axis				= new AxisXY();
+			this.frameReadyCallBack	= frameReadyCallBack;
+		}
 
+		/* 
+		 * (non-Javadoc)
+		 * @see constellation.app.drawing.TileRenderer.Frame#paintBackground(java.awt.Graphics2D)
+		 */
+		protected void paintBackground( final Graphics2D g ) {
+			final RenderContext context = new RenderContext( matrix, clipper );
+			setRenderingHints( preferences, g );
+			drawRenderable( controller, model, canvas, g, context, preferences.getGridColor() );
+			drawRenderable( controller, model, axis, g, context, preferences.getAxisColor() );
+		}
+
+		/* 
+		 * (non-Javadoc)
+		 * @see constellation.app.drawing.TileRenderer.Frame#paintTile(java.awt.Graphics2D, java.awt.Rectangle)
+		 */
+		protected void paintTile( final Graphics2D g, final Rectangle tile ) {
+			setRenderingHints( preferences, g );
+			drawStaticElements( controller, model, preferences, g, new RenderContext( matrix, clipper ), tile, new ArrayList<ModelElement>(), this );
+		}
+
+		/* 
+		 * (non-Javadoc)
+		 * @see constellation.app.drawing.TileRenderer.Frame#completed()
+		 */
+		protected void completed() {
+			if( publish( this ) && ( frameReadyCallBack != null ) ) {
+				frameReadyCallBack.run();
+			}
+		}
+	}
+	
 	/**
-	 * Draws the set of elements onto the screen
-	 * @param controller the given {@link ApplicationController controller}
-	 * @param model the given {@link GeometricModel geometric model}
-	 * @param elements the collection of {@link ModelElement elements}
-	 * @param g the given {@link Graphics2D graphics context}
+	 * Captures the state of the scene which is reflected by the static layer;
+	 * i.e. the model, the matrix, the view port, the selection mode, the 
+	 * active filter, the preferences and the image levels available.
+	 * @author lawrence.daniels@gmail.com
 	 */
-	private void drawElements( final ApplicationController controller, 
-							   final GeometricModel model, 
-							   final Collection<ModelElement> elements, 
-							   final Graphics2D g ) {
-		for( final ModelElement element : elements ) {
-			// get the element's color
-			final Color color = element.getColor();
+	private static class SceneState {
+		private final GeometricModel model;
+		private final SelectionMode mode;
+		private final Filter filter;
+		private final boolean[] layerStates;
+		private final long visualTime;
+		private final long physicalTime;
+		private final long matrixRevision;
+		private final long preferencesTime;
+		private final long imageRevision;
+		private final boolean debug;
+		private final int width;
+		private final int height;
+		
+		/**
+		 * Captures the current state of the scene
+		 * @param controller the given {@link ApplicationController controller}
+		 * @param model the given {@link GeometricModel geometric model}
+		 * @param preferences the given {@link SystemPreferences system preferences}
+		 * @param matrix the given {@link MatrixWCStoSCS matrix}
+		 * @param clipper the given {@link Rectangle clipping boundary}
+		 * @param debug indicates whether the camera is in debug mode
+		 */
+		public SceneState( final ApplicationController controller, 
+						   final GeometricModel model, 
+						   final SystemPreferences preferences,
+						   final MatrixWCStoSCS matrix,
+						   final Rectangle clipper,
+						   final boolean debug ) {
+			final Filter filter		= model.getFilter();
+			final boolean[] states	= ( filter != null ) ? filter.getLayerStates() : null;
+			this.model				= model;
+			this.mode				= controller.getSelectionMode();
+			this.filter				= filter;
+			this.layerStates		= ( states != null ) ? states.clone() : null;
+			this.visualTime			= model.getLastChangeTime( ModelChangeType.VISUAL );
+			this.physicalTime		= model.getLastChangeTime( ModelChangeType.PHYSICAL );
+			this.matrixRevision		= matrix.getRevision();
+			this.preferencesTime	= preferences.getLastModifiedTime();
+			this.imageRevision		= ImagePyramid.getRevision();
+			this.debug				= debug;
+			this.width				= clipper.width;
+			this.height				= clipper.height;
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		public boolean equals( final Object o ) {
+			if( !( o instanceof SceneState ) ) {
+				return false;
+			}
 			
-			// determine the element's stroke
-			final Stroke stroke = EntityRepresentationUtil.getStroke( element );
-
-			// draw the element
-			drawElement( controller, model, element, g, color, stroke );
+			final SceneState that = (SceneState)o;
+			return ( model == that.model ) &&
+				   ( visualTime == that.visualTime ) &&
+				   ( physicalTime == that.physicalTime ) &&
+				   ( matrixRevision == that.matrixRevision ) &&
+				   ( preferencesTime == that.preferencesTime ) &&
+				   ( imageRevision == that.imageRevision ) &&
+				   ( debug == that.debug ) &&
+				   ( mode == that.mode ) &&
+				   ( filter == that.filter ) &&
+				   ( width == that.width ) &&
+				   ( height == that.height ) &&
+				   Arrays.equals( layerStates, that.layerStates );
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		public int hashCode() {
+			return (int)( matrixRevision ^ physicalTime ^ visualTime );
 		}
 	}
 	
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+package constellation.app.drawing;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.BitSet;
+
+import constellation.drawing.EntityCategoryTypes;
+import constellation.drawing.EntityTypes;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.PointXY;
+import constellation.drawing.entities.RectangleXY;
+import constellation.math.MatrixWCStoSCS;
+
+/**
+ * Constellation Level-of-Detail (LOD) Stage. Decides how much detail an
+ * element is drawn with, given its projected size within a screen region:
+ * <ul>
+ * <li>elements smaller than the detail threshold are coalesced into
+ * single-pixel coverage dots; once a pixel is covered, further elements
+ * falling into it are skipped;</li>
+ * <li>text whose box overlaps text that has already been drawn is illegible
+ * anyway, so only its bounding box is drawn.</li>
+ * </ul>
+ * An instance is used for a single pass over a region, and is not thread-safe.
+ * @author lawrence.daniels@gmail.com
+ */
+class LevelOfDetail {
+	private static final int LABEL_CELL_SIZE = 8;
+	private final MatrixWCStoSCS matrix;
+	private final Rectangle region;
+	private final double threshold;
+	private final double scale;
+	private final BitSet coverage;
+	private final BitSet labelCells;
+	private final int labelColumns;
+	private final PointXY centerPt;
+	private final Point screenPt;
+
+	/**
+	 * Creates a new level-of-detail stage
+	 * @param matrix the given {@link MatrixWCStoSCS matrix}
+	 * @param region the given screen {@link Rectangle region} being drawn
+	 * @param threshold the given detail threshold (in pixels)
+	 */
+	public LevelOfDetail( final MatrixWCStoSCS matrix, final Rectangle region, final int threshold ) {
+		this.matrix			= matrix;
+		this.region			= region;
+		this.threshold		= threshold;
+		this.scale			= abs( matrix.getScale() * matrix.getUnitScale() );
+		this.coverage		= new BitSet();
+		this.labelCells		= new BitSet();
+		this.labelColumns	= region.width / LABEL_CELL_SIZE + 1;
+		this.centerPt		= new PointXY();
+		this.screenPt		= new Point();
+	}
+
+	/**
+	 * Draws the given element with reduced detail, if its projected size warrants it
+	 * @param element the given {@link ModelElement element}
+	 * @param g the given {@link Graphics2D graphics context}
+	 * @param color the given {@link Color color}
+	 * @return true, if the element has been dealt with (drawn reduced or skipped);
+	 * false, if it must be drawn in full
+	 */
+	public boolean drawReduced( final ModelElement element, final Graphics2D g, final Color color ) {
+		// is LOD disabled? points are always drawn in full
+		if( ( threshold <= 0 ) || ( element.getType() == EntityTypes.POINT ) ) {
+			return false;
+		}
+
+		// get the element's bounds
+		final RectangleXY bounds = element.getBounds( matrix );
+		if( bounds == null ) {
+			return false;
+		}
+
+		// text is drawn at a fixed size; reduce it only if it overlaps other text
+		if( element.getCategoryType() == EntityCategoryTypes.TEXT ) {
+			return drawReducedText( bounds, g, color );
+		}
+
+		// is the element smaller than the threshold? (unbounded elements never are)
+		final double pixels = max( abs( bounds.getWidth() ), abs( bounds.getHeight() ) ) * scale;
+		if( !( pixels < threshold ) ) {
+			return false;
+		}
+
+		// determine the pixel at the center of the element
+		centerPt.x = bounds.getX() + bounds.getWidth() / 2d;
+		centerPt.y = bounds.getY() + bounds.getHeight() / 2d;
+		matrix.transform( centerPt, screenPt );
+
+		// draw a dot, unless the pixel is already covered
+		if( region.contains( screenPt ) ) {
+			final int index = ( screenPt.x - region.x ) + ( screenPt.y - region.y ) * region.width;
+			if( !coverage.get( index ) ) {
+				coverage.set( index );
+				g.setColor( color );
+				g.fillRect( screenPt.x, screenPt.y, 1, 1 );
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Draws the bounding box of the given text, if the text overlaps text that has
+	 * already been drawn; otherwise, the area of the text is reserved.
+	 * @param bounds the given text {@link RectangleXY bounds}
+	 * @param g the given {@link Graphics2D graphics context}
+	 * @param color the given {@link Color color}
+	 * @return true, if the bounding box was drawn
+	 */
+	private boolean drawReducedText( final RectangleXY bounds, final Graphics2D g, final Color color ) {
+		// determine the text's screen box
+		final Rectangle box = normalize( matrix.transform( bounds ) );
+		final Rectangle visible = box.intersection( region );
+		if( visible.isEmpty() ) {
+			return false;
+		}
+
+		// determine the label cells covered by the text
+		final int col0 = ( visible.x - region.x ) / LABEL_CELL_SIZE;
+		final int row0 = ( visible.y - region.y ) / LABEL_CELL_SIZE;
+		final int col1 = ( visible.x + visible.width - 1 - region.x ) / LABEL_CELL_SIZE;
+		final int row1 = ( visible.y + visible.height - 1 - region.y ) / LABEL_CELL_SIZE;
+
+		// does the text overlap previously drawn text?
+		for( int row = row0; row <= row1; row++ ) {
+			final int index = row * labelColumns;
+			final int next = labelCells.nextSetBit( index + col0 );
+			if( ( next != -1 ) && ( next <= index + col1 ) ) {
+				g.setColor( color );
+				g.drawRect( box.x, box.y, box.width, box.height );
+				return true;
+			}
+		}
+
+		// reserve the cells
+		for( int row = row0; row <= row1; row++ ) {
+			final int index = row * labelColumns;
+			labelCells.set( index + col0, index + col1 + 1 );
+		}
+		return false;
+	}
+
+	/**
+	 * Normalizes the given rectangle, such that its width and height are positive
+	 * @param rect the given {@link Rectangle rectangle}
+	 * @return the normalized {@link Rectangle rectangle}
+	 */
+	private static Rectangle normalize( final Rectangle rect ) {
+		final int x = min( rect.x, rect.x + rect.width );
+		final int y = min( rect.y, rect.y + rect.height );
+		rect.setBounds( x, y, abs( rect.width ), abs( rect.height ) );
+		return rect;
+	}
+
+}
@@ -0,0 +1,219 @@
+package constellation.app.drawing;
+
+import static java.lang.Math.min;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Constellation Tile Renderer. Rasterizes a frame by splitting it into
+ * square tiles, which are drawn in parallel on a fork-join pool. Frames
+ * may be rendered synchronously, or submitted for rendering in the
+ * background; submitting a new frame cancels the frame in progress.
+ * @author lawrence.daniels@gmail.com
+ */
+class TileRenderer {
+	private static final Logger logger = Logger.getLogger( TileRenderer.class );
+	private static final int TILE_SIZE = 256;
+	private final ForkJoinPool pool;
+	private Frame pending;
+
+	/**
+	 * Default constructor
+	 */
+	public TileRenderer() {
+		this.pool = new ForkJoinPool( Runtime.getRuntime().availableProcessors() );
+	}
+
+	/**
+	 * Renders the given frame, and blocks until it has been completed
+	 * @param frame the given {@link Frame frame}
+	 */
+	public void render( final Frame frame ) {
+		pool.invoke( new FrameTask( frame, false ) );
+		if( !frame.isCancelled() ) {
+			frame.completed();
+		}
+	}
+
+	/**
+	 * Submits the given frame for rendering in the background; the
+	 * frame currently in progress (if any) is cancelled.
+	 * @param frame the given {@link Frame frame}
+	 */
+	public synchronized void submit( final Frame frame ) {
+		cancel();
+		pending = frame;
+		pool.execute( new FrameTask( frame, true ) );
+	}
+
+	/**
+	 * Cancels the frame currently being rendered in the background (if any)
+	 */
+	public synchronized void cancel() {
+		if( pending != null ) {
+			pending.cancel();
+			pending = null;
+		}
+	}
+
+	/**
+	 * Represents a single frame to be rendered
+	 * @author lawrence.daniels@gmail.com
+	 */
+	static abstract class Frame {
+		private final BufferedImage image;
+		private volatile boolean cancelled;
+
+		/**
+		 * Creates a new frame
+		 * @param image the given {@link BufferedImage image} to render into
+		 */
+		public Frame( final BufferedImage image ) {
+			this.image = image;
+		}
+
+		/**
+		 * Returns the image the frame is rendered into
+		 * @return the {@link BufferedImage image}
+		 */
+		public BufferedImage getImage() {
+			return image;
+		}
+
+		/**
+		 * Cancels the frame
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/**
+		 * Indicates whether the frame has been cancelled
+		 * @return true, if the frame has been cancelled
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Draws the content which spans the entire frame (e.g. the canvas);
+		 * this method is called once, before any of the tiles are drawn.
+		 * @param g the given {@link Graphics2D graphics context}
+		 */
+		protected abstract void paintBackground( Graphics2D g );
+
+		/**
+		 * Draws the content of the given tile; this method is called
+		 * concurrently for the tiles of the frame.
+		 * @param g the given {@link Graphics2D graphics context}, which is clipped to the tile
+		 * @param tile the given {@link Rectangle tile} in screen coordinates
+		 */
+		protected abstract void paintTile( Graphics2D g, Rectangle tile );
+
+		/**
+		 * Called once all of the frame's tiles have been drawn, unless the 
+		 * frame was cancelled; background frames are notified on a pool 
+		 * thread, whereas synchronous frames are notified on the caller's thread.
+		 */
+		protected abstract void completed();
+	}
+
+	/**
+	 * Renders all of the tiles of a frame
+	 * @author lawrence.daniels@gmail.com
+	 */
+	@SuppressWarnings("serial")
+	private static class FrameTask extends RecursiveAction {
+		private final Frame frame;
+		private final boolean notify;
+
+		/**
+		 * Creates a new frame task
+		 * @param frame the given {@link Frame frame}
+		 * @param notify indicates whether the frame is to be notified of its completion
+		 */
+		public FrameTask( final Frame frame, final boolean notify ) {
+			this.frame	= frame;
+			this.notify	= notify;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		protected void compute() {
+			try {
+				// draw the background
+				final BufferedImage image = frame.getImage();
+				final Graphics2D g = image.createGraphics();
+				frame.paintBackground( g );
+				g.dispose();
+
+				// draw the tiles in parallel
+				final List<TileTask> tasks = new ArrayList<TileTask>();
+				for( int y = 0; y < image.getHeight(); y += TILE_SIZE ) {
+					for( int x = 0; x < image.getWidth(); x += TILE_SIZE ) {
+						final int width  = min( TILE_SIZE, image.getWidth() - x );
+						final int height = min( TILE_SIZE, image.getHeight() - y );
+						tasks.add( new TileTask( frame, new Rectangle( x, y, width, height ) ) );
+					}
+				}
+				invokeAll( tasks );
+
+				// notify the frame of its completion
+				if( notify && !frame.isCancelled() ) {
+					frame.completed();
+				}
+			}
+			catch( final RuntimeException e ) {
+				frame.cancel();
+				logger.error( "Failed to render frame", e );
+			}
+		}
+	}
+
+	/**
+	 * Renders a single tile of a frame
+	 * @author lawrence.daniels@gmail.com
+	 */
+	@SuppressWarnings("serial")
+	private static class TileTask extends RecursiveAction {
+		private final Frame frame;
+		private final Rectangle tile;
+
+		/**
+		 * Creates a new tile task
+		 * @param frame the given {@link Frame frame}
+		 * @param tile the given {@link Rectangle tile}
+		 */
+		public TileTask( final Frame frame, final Rectangle tile ) {
+			this.frame	= frame;
+			this.tile	= tile;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		protected void compute() {
+			if( !frame.isCancelled() ) {
+				// each tile draws into its own (disjoint) region of the frame
+				final BufferedImage region = frame.getImage().getSubimage( tile.x, tile.y, tile.width, tile.height );
+				final Graphics2D g = region.createGraphics();
+				g.translate( -tile.x, -tile.y );
+				g.clip( tile );
+				frame.paintTile( g, tile );
+				g.dispose();
+			}
+		}
+	}
+
+}
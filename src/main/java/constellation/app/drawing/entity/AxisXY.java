@@ -9,7 +9,7 @@ import java.awt.Rectangle;
 
 import constellation.ApplicationController;
 import constellation.drawing.RenderableElement;
-import constellation.drawing.ScratchPad;
+import constellation.drawing.RenderContext;
 import constellation.drawing.entities.PointXY;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
@@ -33,21 +33,24 @@ public class AxisXY implements RenderableElement {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix,
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
 		// get the preferences instance
 		final SystemPreferences preferences = controller.getSystemPreferences();
 		
 		// if the grid is shown ...
 		if( preferences.showGrids() ) {
-			// get a screen point from the scratch pad
-			final Point screenPoint = ScratchPad.getProjectionPoint();
+			// get a scratch point
+			final Point screenPoint = context.getProjectionPoint();
 			
 			// translate the point to screen coordinates
 			matrix.transform( originPt, screenPoint );
@@ -11,7 +11,7 @@ import java.awt.Rectangle;
 
 import constellation.ApplicationController;
 import constellation.drawing.RenderableElement;
-import constellation.drawing.ScratchPad;
+import constellation.drawing.RenderContext;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.RectangleXY;
 import constellation.math.MatrixWCStoSCS;
@@ -34,14 +34,16 @@ public class CanvasXY implements RenderableElement {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color)
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix,
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
+		// get the clipping boundary of the view
+		final Rectangle clipper = context.getClipper();
+		
 		// get the preferences instance
 		final SystemPreferences preferences = controller.getSystemPreferences();
 		
@@ -59,7 +61,7 @@ public class CanvasXY implements RenderableElement {
 		
 		// if grids are visible, display them
 		if( preferences.showGrids() ) {
-			renderGrid( controller, model, matrix, clipper, g, color );
+			renderGrid( controller, model, context, g, color );
 		}
 	}
 	
@@ -89,16 +91,18 @@ public class CanvasXY implements RenderableElement {
 	 * Renders the geometry onto the given graphics context
 	 * @param controller the given {@link ApplicationController controller}
 	 * @param model the given {@link GeometricModel geometric model}
-	 * @param matrix the given {@link MatrixWCStoSCS transformational matrix}
-	 * @param clipper the given {@link Rectangle clipping boundary}
+	 * @param context the given {@link RenderContext render context}
 	 * @param g the given {@link Graphics2D graphics context}
 	 * @param color the rendering {@link Color color} for the grid
 	 */
 	private void renderGrid( final ApplicationController controller,
 							 final GeometricModel model,
-							 final MatrixWCStoSCS matrix,
-							 final Rectangle clipper, 
+							 final RenderContext context,
 							 final Graphics2D g, final Color color ) {
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
 		// determine the space coordinates
 		final RectangleXY rx = matrix.untransform( clipper );
 		
@@ -111,8 +115,8 @@ public class CanvasXY implements RenderableElement {
 		final double endX	= rx.getX() + rx.getWidth();
 		final double endY	= rx.getY() + rx.getHeight();
 		
-		// get a screen point from the scratch pad
-		final Point screenPt = ScratchPad.getProjectionPoint();
+		// get a scratch point
+		final Point screenPt = context.getProjectionPoint();
 		
 		// is the grid spacing wide enough?
 		if( isGridWideEnough( matrix, spacing ) ) {	
@@ -144,9 +148,7 @@ public class CanvasXY implements RenderableElement {
 		// get the space position of the next grid line
 		final PointXY nextSpacePt	= new PointXY( originPt.x + spacing, originPt.y + spacing );
 		final Point nextScreenPt	= new Point();
-		
-		// get a screen point from the scratch pad
-		final Point screenPt = ScratchPad.getProjectionPoint();
+		final Point screenPt		= new Point();
 		
 		// transform the points
 		matrix.transform( originPt, screenPt );
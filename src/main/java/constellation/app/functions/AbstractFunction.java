@@ -1,18 +1,11 @@
 package constellation.app.functions;
 
-import static constellation.app.math.ElementDetectionUtil.lookupElementsByRegion;
-import static constellation.app.math.ElementDetectionUtil.lookupPhantomElementsByRegion;
 import static constellation.drawing.EntityRepresentationUtil.getTypeName;
 import static java.lang.String.format;
 
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
 
 import javax.swing.Icon;
 import javax.swing.JDialog;
@@ -24,7 +17,6 @@ import constellation.ApplicationController;
 import constellation.CxContentManager;
 import constellation.drawing.RenderableElement;
 import constellation.drawing.elements.ModelElement;
-import constellation.drawing.entities.RectangleXY;
 import constellation.functions.Function;
 import constellation.functions.FunctionDialogPlugIn;
 import constellation.functions.MouseClick;
@@ -37,7 +29,6 @@ import constellation.ui.components.CxDialog;
  */
 public abstract class AbstractFunction implements Function {
 	// constants
-	private static final Collection<ModelElement> NO_GEOMETRY = new ArrayList<ModelElement>(0);
 	private static final CxContentManager contentManager = CxContentManager.getInstance();
 	
 	// logger instance
@@ -177,6 +168,7 @@ public abstract class AbstractFunction implements Function {
 		model.clearPickedElement();
 		model.clearTemporaryElement();
 		model.clearSelectedElements();
+		model.clearSnapPoint();
 	}
 	
 	/* 
@@ -203,19 +195,19 @@ public abstract class AbstractFunction implements Function {
 	 * @see constellation.functions.Function#processMouseMovement(constellation.functions.ApplicationController, int, int)
 	 */
 	public void processMouseMovement( final ApplicationController controller, final Point mousePos ) {
-		// get the model
-		final GeometricModel model = controller.getModel();
+		// determine the highlighted geometry in the background
+		if( supportsSelection() ) {
+			HoverHighlightService.getInstance().submit( controller, this );
+		}
 		
-		// determine if any geometry should be highlighted
-		final Collection<ModelElement> highlightedGeometry = getHighlightedGeometry( controller );
-		if( !highlightedGeometry.isEmpty() || 
-				( model.getHighlightedGeometry() != null && 
-						!model.getHighlightedGeometry().isEmpty() ) ) {
-			// set the highlighted geometry
-			model.setHighlightedGeometry( highlightedGeometry );
-			
-			// a redraw will be necessary
-			controller.requestRedraw();
+		// otherwise, clear any highlighted geometry
+		else {
+			HoverHighlightService.getInstance().cancel( controller );
+		}
+		
+		// snap the cursor to the nearest point of interest in the background
+		if( supportsSnap() ) {
+			SnapPointService.getInstance().submit( controller, this, mousePos );
 		}
 	}
 	
@@ -242,6 +234,15 @@ public abstract class AbstractFunction implements Function {
 	public boolean supportsSelection() {
 		return false;
 	}
+	
+	/**
+	 * Indicates whether the function snaps the cursor to the nearest 
+	 * point of interest (e.g. end point, midpoint, center or intersection)
+	 * @return true, if the function supports object snapping
+	 */
+	protected boolean supportsSnap() {
+		return false;
+	}
 
 	/* 
 	 * (non-Javadoc)
@@ -347,36 +348,5 @@ public abstract class AbstractFunction implements Function {
 		}
 		return null;
 	}
-
-	/** 
-	 * Returns the highlighted geometric elements
-	 * @return the highlighted {@link ModelElement model elements}
-	 */
-	private Collection<ModelElement> getHighlightedGeometry( final ApplicationController controller ) {
-		if( supportsSelection() ) {
-			// get the on-screen selection boundary
-			final Rectangle bounds = controller.getSelectionBoundary();
-			
-			// create a collection for returning the elements
-			final List<ModelElement> returnSet = new LinkedList<ModelElement>();	
-			
-			// get the two-dimensional boundary
-			final RectangleXY boundary = controller.untransform( bounds );
-			
-			// find the elements within the boundary
-			switch( controller.getSelectionMode() ) {
-				case PHYSICAL_ELEMENTS:
-					lookupElementsByRegion( controller, boundary, returnSet );
-					break;
-					
-				case PHANTOM_ELEMENTS:
-					lookupPhantomElementsByRegion( controller, boundary, returnSet );
-					break;
-			}
-			
- 			return returnSet;
-		}
-		return NO_GEOMETRY;
-	}
 	
 }
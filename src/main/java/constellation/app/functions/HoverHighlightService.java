@@ -0,0 +1,354 @@
+package constellation.app.functions;
+
+import static java.lang.System.currentTimeMillis;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.log4j.Logger;
+
+import constellation.ApplicationController;
+import constellation.SelectionMode;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.RectangleXY;
+import constellation.functions.Function;
+import constellation.math.MatrixWCStoSCS;
+import constellation.model.Filter;
+import constellation.model.GeometricModel;
+import constellation.model.ModelChangeType;
+
+/**
+ * Constellation Hover Highlight Service. Determines the geometry beneath the
+ * cursor off the event dispatch thread: mouse movements are coalesced to the
+ * latest position, the pick is performed against a short-lived cache of the
+ * elements in the neighbourhood of the cursor, and the highlighted geometry
+ * is only published (and the scene re-drawn) when it has actually changed.
+ * @author lawrence.daniels@gmail.com
+ */
+public class HoverHighlightService {
+	private static final HoverHighlightService instance = new HoverHighlightService();
+	private static final Logger logger = Logger.getLogger( HoverHighlightService.class );
+	private static final long CANDIDATE_TTL = 250;
+	private static final int NEIGHBOURHOOD = 8;
+
+	// internal fields
+	private final AtomicReference<HoverRequest> latest;
+	private final ExecutorService executor;
+	private final Runnable worker;
+	private volatile long sequence;
+	private CandidateCache cache;
+
+	/**
+	 * Private constructor
+	 */
+	private HoverHighlightService() {
+		this.latest		= new AtomicReference<HoverRequest>();
+		this.executor	= Executors.newSingleThreadExecutor( new ThreadFactory() {
+			public Thread newThread( final Runnable task ) {
+				final Thread thread = new Thread( task, "HoverHighlight" );
+				thread.setDaemon( true );
+				return thread;
+			}
+		});
+		this.worker		= new Runnable() {
+			public void run() {
+				processRequests();
+			}
+		};
+	}
+
+	/**
+	 * Returns the singleton instance of the service
+	 * @return the {@link HoverHighlightService hover highlight service}
+	 */
+	public static HoverHighlightService getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Submits a request to highlight the geometry at the current mouse position;
+	 * any request that has not yet been processed is superseded.
+	 * <i>Note: this method must be called from the event dispatch thread.</i>
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param function the {@link Function function} on behalf of which the geometry is highlighted
+	 */
+	public void submit( final ApplicationController controller, final Function function ) {
+		// capture the state of the view
+		final HoverRequest request = new HoverRequest(
+				controller, function, ++sequence,
+				controller.getSelectionBoundary(),
+				new MatrixWCStoSCS( controller.getMatrix() ) );
+
+		// if the worker is idle, wake it up
+		if( latest.getAndSet( request ) == null ) {
+			executor.execute( worker );
+		}
+	}
+
+	/**
+	 * Cancels any outstanding request; functions which highlight geometry 
+	 * themselves should call this method beforehand.
+	 * <i>Note: this method must be called from the event dispatch thread.</i>
+	 */
+	public void cancel() {
+		sequence++;
+		latest.set( null );
+	}
+
+	/**
+	 * Cancels any outstanding request, and clears the highlighted geometry
+	 * <i>Note: this method must be called from the event dispatch thread.</i>
+	 * @param controller the given {@link ApplicationController controller}
+	 */
+	public void cancel( final ApplicationController controller ) {
+		// supersede any outstanding request
+		cancel();
+
+		// clear the highlighted geometry
+		final GeometricModel model = controller.getModel();
+		final Collection<ModelElement> highlighted = model.getHighlightedGeometry();
+		if( ( highlighted != null ) && !highlighted.isEmpty() ) {
+			model.clearHighlightedGeometry();
+			controller.requestRedraw();
+		}
+	}
+
+	/**
+	 * Processes requests until no more are outstanding; only
+	 * the result of the latest request is published.
+	 */
+	private void processRequests() {
+		HoverRequest request;
+		while( ( request = latest.get() ) != null ) {
+			try {
+				// determine the geometry beneath the cursor
+				final List<ModelElement> elements = pick( request );
+
+				// if the request has not been superseded, publish the result
+				if( latest.compareAndSet( request, null ) ) {
+					SwingUtilities.invokeLater( new PublishTask( request, elements ) );
+				}
+			}
+			catch( final Exception e ) {
+				logger.error( "Error determining the highlighted geometry", e );
+				latest.compareAndSet( request, null );
+			}
+		}
+	}
+
+	/**
+	 * Determines the geometry beneath the cursor
+	 * @param request the given {@link HoverRequest request}
+	 * @return the list of {@link ModelElement elements} beneath the cursor
+	 */
+	private List<ModelElement> pick( final HoverRequest request ) {
+		// get the model-space selection boundary
+		final MatrixWCStoSCS matrix = request.matrix;
+		final RectangleXY boundary = matrix.untransform( request.bounds );
+
+		// is the neighbourhood of the cursor cached?
+		if( ( cache == null ) || !cache.covers( request, boundary ) ) {
+			cache = new CandidateCache( request );
+		}
+
+		// find the candidates that intersect the boundary
+		final List<ModelElement> elements = new LinkedList<ModelElement>();
+		for( final ModelElement element : cache.candidates ) {
+			if( element.intersects( boundary, matrix ) ) {
+				elements.add( element );
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * Indicates whether the given collections contain the same elements
+	 * @param a the given {@link Collection collection}
+	 * @param b the given {@link Collection collection}
+	 * @return true, if the collections contain the same (identical) elements
+	 */
+	private static boolean isSameElements( final Collection<ModelElement> a,
+										   final Collection<ModelElement> b ) {
+		// are either of the collections empty?
+		final boolean emptyA = ( a == null ) || a.isEmpty();
+		final boolean emptyB = ( b == null ) || b.isEmpty();
+		if( emptyA || emptyB ) {
+			return emptyA == emptyB;
+		}
+
+		// compare the elements by identity
+		if( a.size() != b.size() ) {
+			return false;
+		}
+		final Set<ModelElement> set = Collections.newSetFromMap( new IdentityHashMap<ModelElement, Boolean>() );
+		set.addAll( a );
+		return set.containsAll( b );
+	}
+
+	/**
+	 * Represents a request to highlight the geometry at a mouse position
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class HoverRequest {
+		private final ApplicationController controller;
+		private final Function function;
+		private final GeometricModel model;
+		private final SelectionMode mode;
+		private final long sequence;
+		private final Rectangle bounds;
+		private final MatrixWCStoSCS matrix;
+		private final long revision;
+
+		/**
+		 * Creates a new request
+		 * @param controller the given {@link ApplicationController controller}
+		 * @param function the given {@link Function function}
+		 * @param sequence the sequence number of the request
+		 * @param bounds the on-screen selection {@link Rectangle boundary}
+		 * @param matrix a snapshot of the {@link MatrixWCStoSCS matrix}
+		 */
+		public HoverRequest( final ApplicationController controller,
+							 final Function function,
+							 final long sequence,
+							 final Rectangle bounds,
+							 final MatrixWCStoSCS matrix ) {
+			this.controller	= controller;
+			this.function	= function;
+			this.model		= controller.getModel();
+			this.mode		= controller.getSelectionMode();
+			this.sequence	= sequence;
+			this.bounds		= bounds;
+			this.matrix		= matrix;
+			this.revision	= controller.getMatrix().getRevision();
+		}
+	}
+
+	/**
+	 * Represents the cached elements within the neighbourhood of the cursor;
+	 * the cache is invalidated when the view or the model changes, or when it expires.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class CandidateCache {
+		private final List<ModelElement> candidates;
+		private final GeometricModel model;
+		private final SelectionMode mode;
+		private final Filter filter;
+		private final RectangleXY region;
+		private final long revision;
+		private final long physicalTime;
+		private final long visualTime;
+		private final long expiration;
+
+		/**
+		 * Caches the elements within the neighbourhood of the given request
+		 * @param request the given {@link HoverRequest request}
+		 */
+		public CandidateCache( final HoverRequest request ) {
+			final GeometricModel model = request.model;
+			final Rectangle bounds = request.bounds;
+			this.model			= model;
+			this.mode			= request.mode;
+			this.filter			= model.getFilter();
+			this.revision		= request.revision;
+			this.physicalTime	= model.getLastChangeTime( ModelChangeType.PHYSICAL );
+			this.visualTime		= model.getLastChangeTime( ModelChangeType.VISUAL );
+			this.expiration		= currentTimeMillis() + CANDIDATE_TTL;
+
+			// determine the model-space neighbourhood of the cursor
+			final int dx = NEIGHBOURHOOD * bounds.width;
+			final int dy = NEIGHBOURHOOD * bounds.height;
+			this.region = request.matrix.untransform(
+					new Rectangle( bounds.x - dx, bounds.y - dy, bounds.width + 2 * dx, bounds.height + 2 * dy ) );
+
+			// gather the candidates
+			this.candidates = new ArrayList<ModelElement>();
+			switch( mode ) {
+				case PHANTOM_ELEMENTS:
+					final List<ModelElement> phantoms = new LinkedList<ModelElement>();
+					model.getPhantomElements( phantoms );
+					for( final ModelElement element : phantoms ) {
+						if( element.intersects( region, request.matrix ) ) {
+							candidates.add( element );
+						}
+					}
+					break;
+
+				case PHYSICAL_ELEMENTS:
+					model.getVisibleElements( candidates, region );
+					break;
+			}
+		}
+
+		/**
+		 * Indicates whether the cache can satisfy the given request
+		 * @param request the given {@link HoverRequest request}
+		 * @param boundary the given model-space selection {@link RectangleXY boundary}
+		 * @return true, if the cached candidates are current and cover the given boundary
+		 */
+		public boolean covers( final HoverRequest request, final RectangleXY boundary ) {
+			return ( request.model == model ) &&
+				   ( request.mode == mode ) &&
+				   ( request.revision == revision ) &&
+				   ( model.getFilter() == filter ) &&
+				   ( model.getLastChangeTime( ModelChangeType.PHYSICAL ) == physicalTime ) &&
+				   ( model.getLastChangeTime( ModelChangeType.VISUAL ) == visualTime ) &&
+				   ( currentTimeMillis() < expiration ) &&
+				   region.contains( boundary );
+		}
+	}
+
+	/**
+	 * Publishes the result of a request on the event dispatch thread
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class PublishTask implements Runnable {
+		private final HoverRequest request;
+		private final List<ModelElement> elements;
+
+		/**
+		 * Creates a new publishing task
+		 * @param request the given {@link HoverRequest request}
+		 * @param elements the {@link ModelElement elements} beneath the cursor
+		 */
+		public PublishTask( final HoverRequest request, final List<ModelElement> elements ) {
+			this.request	= request;
+			this.elements	= elements;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			// has the request been superseded, or has the view changed?
+			final ApplicationController controller = request.controller;
+			if( ( request.sequence != sequence ) ||
+				( controller.getActiveFunction() != request.function ) ||
+				( controller.getModel() != request.model ) ||
+				( controller.getSelectionMode() != request.mode ) ||
+				( controller.getMatrix().getRevision() != request.revision ) ) {
+				return;
+			}
+
+			// only re-draw if the highlighted geometry has changed
+			final GeometricModel model = request.model;
+			if( !isSameElements( model.getHighlightedGeometry(), elements ) ) {
+				model.setHighlightedGeometry( elements );
+				controller.requestRedraw();
+			}
+		}
+	}
+
+}
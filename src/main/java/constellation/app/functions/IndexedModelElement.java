@@ -2,7 +2,6 @@ package constellation.app.functions;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.util.Collection;
 
 import constellation.ApplicationController;
@@ -10,6 +9,7 @@ import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityTypes;
 import constellation.drawing.LinePatterns;
+import constellation.drawing.RenderContext;
 import constellation.drawing.elements.ModelElement;
 import constellation.drawing.entities.RectangleXY;
 import constellation.math.MatrixWCStoSCS;
@@ -199,15 +199,14 @@ public class IndexedModelElement implements ModelElement {
 	}
 
 	/* (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color)
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model, 
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper,
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color) {
-		element.render( controller, model, matrix, clipper, g, color );
+		element.render( controller, model, context, g, color );
 	}
 	
 	/* 
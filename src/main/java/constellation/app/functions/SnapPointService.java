@@ -0,0 +1,196 @@
+package constellation.app.functions;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.log4j.Logger;
+
+import constellation.ApplicationController;
+import constellation.app.math.ObjectSnapEngine;
+import constellation.functions.Function;
+import constellation.math.MatrixWCStoSCS;
+import constellation.model.GeometricModel;
+import constellation.model.SnapPoint;
+
+/**
+ * Constellation Snap Point Service. Determines the point to which the cursor
+ * snaps off the event dispatch thread: mouse movements are coalesced to the
+ * latest position, and the snap point (i.e. the snap glyph) is only published
+ * (and the scene re-drawn) when it has actually changed.
+ * @author lawrence.daniels@gmail.com
+ */
+public class SnapPointService {
+	private static final SnapPointService instance = new SnapPointService();
+	private static final Logger logger = Logger.getLogger( SnapPointService.class );
+
+	// internal fields
+	private final AtomicReference<SnapRequest> latest;
+	private final ExecutorService executor;
+	private final Runnable worker;
+	private volatile long sequence;
+
+	/**
+	 * Private constructor
+	 */
+	private SnapPointService() {
+		this.latest		= new AtomicReference<SnapRequest>();
+		this.executor	= Executors.newSingleThreadExecutor( new ThreadFactory() {
+			public Thread newThread( final Runnable task ) {
+				final Thread thread = new Thread( task, "SnapPoint" );
+				thread.setDaemon( true );
+				return thread;
+			}
+		});
+		this.worker		= new Runnable() {
+			public void run() {
+				processRequests();
+			}
+		};
+	}
+
+	/**
+	 * Returns the singleton instance of the service
+	 * @return the {@link SnapPointService snap point service}
+	 */
+	public static SnapPointService getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Submits a request to snap the cursor at the given mouse position;
+	 * any request that has not yet been processed is superseded.
+	 * <i>Note: this method must be called from the event dispatch thread.</i>
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param function the {@link Function function} on behalf of which the cursor is snapped
+	 * @param mousePos the given screen position
+	 */
+	public void submit( final ApplicationController controller, final Function function, final Point mousePos ) {
+		// capture the state of the view
+		final SnapRequest request = new SnapRequest(
+				controller, function, ++sequence,
+				controller.getSelectionBoundary( mousePos ),
+				new MatrixWCStoSCS( controller.getMatrix() ) );
+
+		// if the worker is idle, wake it up
+		if( latest.getAndSet( request ) == null ) {
+			executor.execute( worker );
+		}
+	}
+
+	/**
+	 * Cancels any outstanding request
+	 * <i>Note: this method must be called from the event dispatch thread.</i>
+	 */
+	public void cancel() {
+		sequence++;
+		latest.set( null );
+	}
+
+	/**
+	 * Processes requests until no more are outstanding; only
+	 * the result of the latest request is published.
+	 */
+	private void processRequests() {
+		SnapRequest request;
+		while( ( request = latest.get() ) != null ) {
+			try {
+				// determine the snap point nearest to the cursor
+				final SnapPoint point = ObjectSnapEngine.lookupSnapPoint( request.model, request.matrix, request.bounds );
+
+				// if the request has not been superseded, publish the result
+				if( latest.compareAndSet( request, null ) ) {
+					SwingUtilities.invokeLater( new PublishTask( request, point ) );
+				}
+			}
+			catch( final Exception e ) {
+				logger.error( "Error determining the snap point", e );
+				latest.compareAndSet( request, null );
+			}
+		}
+	}
+
+	/**
+	 * Represents a request to snap the cursor at a mouse position
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class SnapRequest {
+		private final ApplicationController controller;
+		private final Function function;
+		private final GeometricModel model;
+		private final long sequence;
+		private final Rectangle bounds;
+		private final MatrixWCStoSCS matrix;
+		private final long revision;
+
+		/**
+		 * Creates a new request
+		 * @param controller the given {@link ApplicationController controller}
+		 * @param function the given {@link Function function}
+		 * @param sequence the sequence number of the request
+		 * @param bounds the on-screen selection {@link Rectangle boundary}
+		 * @param matrix a snapshot of the {@link MatrixWCStoSCS matrix}
+		 */
+		public SnapRequest( final ApplicationController controller,
+							final Function function,
+							final long sequence,
+							final Rectangle bounds,
+							final MatrixWCStoSCS matrix ) {
+			this.controller	= controller;
+			this.function	= function;
+			this.model		= controller.getModel();
+			this.sequence	= sequence;
+			this.bounds		= bounds;
+			this.matrix		= matrix;
+			this.revision	= controller.getMatrix().getRevision();
+		}
+	}
+
+	/**
+	 * Publishes the result of a request on the event dispatch thread
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class PublishTask implements Runnable {
+		private final SnapRequest request;
+		private final SnapPoint point;
+
+		/**
+		 * Creates a new publishing task
+		 * @param request the given {@link SnapRequest request}
+		 * @param point the nearest {@link SnapPoint snap point}, or <tt>null</tt> if none is within range
+		 */
+		public PublishTask( final SnapRequest request, final SnapPoint point ) {
+			this.request	= request;
+			this.point		= point;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			// has the request been superseded, or has the view changed?
+			final ApplicationController controller = request.controller;
+			if( ( request.sequence != sequence ) ||
+				( controller.getActiveFunction() != request.function ) ||
+				( controller.getModel() != request.model ) ||
+				( controller.getMatrix().getRevision() != request.revision ) ) {
+				return;
+			}
+
+			// only re-draw if the snap point has changed
+			final GeometricModel model = request.model;
+			final SnapPoint current = model.getSnapPoint();
+			if( ( point == null ) ? ( current != null ) : !point.isEquivalent( current ) ) {
+				model.setSnapPoint( point );
+				controller.requestRedraw();
+			}
+		}
+	}
+
+}
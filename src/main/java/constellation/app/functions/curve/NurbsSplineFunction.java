@@ -0,0 +1,376 @@
+package constellation.app.functions.curve;
+
+import static constellation.drawing.EntityTypes.POINT;
+import static constellation.functions.MouseClick.BUTTON_SELECT;
+import static constellation.functions.MouseClick.BUTTON_INDICATE;
+import static java.lang.String.format;
+
+import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.Icon;
+import javax.swing.JPopupMenu;
+
+import constellation.ApplicationController;
+import constellation.CxContentManager;
+import constellation.app.functions.StructuredSelectionFunction;
+import constellation.app.math.ElementDetectionUtil;
+import constellation.drawing.EntityRepresentationUtil;
+import constellation.drawing.RenderableElement;
+import constellation.drawing.elements.CxModelElement;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.PointXY;
+import constellation.drawing.entities.RectangleXY;
+import constellation.functions.MouseClick;
+import constellation.functions.Steps;
+import constellation.math.MatrixWCStoSCS;
+import constellation.model.GeometricModel;
+import constellation.ui.components.menu.CxMenuItem;
+
+/**
+ * The SPLINE::NURBS function; creates a (cubic) B-spline curve whose control
+ * points are the selected points. Unlike the {@link BezierSplineFunction Bezier spline},
+ * the number of control points is not limited.
+ * @author lawrence.daniels@gmail.com
+ */
+public class NurbsSplineFunction extends StructuredSelectionFunction {
+	private static final Steps STEPS = new Steps(
+		"Select a #control point or Indicate to create the #spline"
+	);
+
+	// icon declarations
+	private final CxContentManager cxm	= CxContentManager.getInstance();
+	private final Icon NEW_PT_ICON 		= cxm.getIcon( "images/commands/common/popup/new-point.png" );
+	private final Icon FINISH_ICON 		= cxm.getIcon( "images/commands/common/popup/finish.gif" );
+
+	// internal fields
+	private JPopupMenu popupMenu;
+	private PointXY currentPos;
+	private NurbsCurveXY curve;
+
+	/**
+	 * Default constructor
+	 */
+	public NurbsSplineFunction() {
+		super(
+			"SPLINE", "NURBS",
+			"images/commands/curve/spline-pts.png",
+			"docs/functions/curve/spline_pts.html",
+			STEPS
+		);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.app.functions.PickListObserver#elementSelected(constellation.math.geometric.GeometricElement)
+	 */
+	public void elementSelected( final ApplicationController controller, final ModelElement element ) {
+		handlePointSelection( controller, element );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.functions.Function#getPopupMenu()
+	 */
+	@Override
+	public JPopupMenu getPopupMenu( final ApplicationController controller ) {
+		if( popupMenu == null ) {
+			popupMenu = new MyPopupMenu( controller );
+		}
+		return popupMenu;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.functions.Function#onStart(constellation.functions.ApplicationController)
+	 */
+	@Override
+	public void onStart( final ApplicationController controller ) {
+		// allow the parent to do it's job
+		super.onStart( controller );
+
+		// reset the values
+		reset( controller );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.commands.Command#process(constellation.math.geometric.Point)
+	 */
+	@Override
+	public void processMouseClick( final ApplicationController controller, final MouseClick mouseClick ) {
+		// handle the mouse click
+		switch( mouseClick.getButton() ) {
+			// selected a point
+			case BUTTON_SELECT:
+				final ModelElement pickedPt =
+					ElementDetectionUtil.lookupPointByRegion( controller, mouseClick );
+
+				// handle the selection
+				handlePointSelection( controller, pickedPt );
+				break;
+
+			// create the curve
+			case BUTTON_INDICATE:
+				if( curve != null ) {
+					handleCurveCreation( controller, controller.getModel() );
+					advanceToNextStep( controller );
+				}
+				break;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.functions.Function#processMouseDrag(constellation.functions.ApplicationController, double, double)
+	 */
+	@Override
+	public boolean processMouseDrag( final ApplicationController controller,
+									 final MouseClick oldMousePos,
+									 final MouseClick newMousePos ) {
+		// if no curve is being created, fail fast
+		if( curve == null ) {
+			return false;
+		}
+
+		// get the bounds of the click area
+		final RectangleXY boundary = controller.untransform( oldMousePos.getClickBounds() );
+
+		// determine the selected control point
+		final ModelElement pickedPt = lookupPointByRegion( controller, boundary, CxModelElement.createElements( curve.getLimits() ) );
+		if( pickedPt != null ) {
+			// get the index of the control point
+			final PointXY p = EntityRepresentationUtil.getPoint( pickedPt );
+			final int index = curve.indexOfControlPoint( p.getX(), p.getY() );
+
+			// was the control point found?
+			if( index != -1 ) {
+				// determine the real world position of the mouse
+				final PointXY oldPos = controller.untransform( oldMousePos );
+				final PointXY newPos = controller.untransform( newMousePos );
+
+				// move the control point
+				curve.moveControlPoint( index, newPos.x - oldPos.x, newPos.y - oldPos.y );
+
+				// drag event successful
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.functions.Function#processMouseMovement(constellation.functions.ApplicationController, int, int)
+	 */
+	@Override
+	public void processMouseMovement( final ApplicationController controller, final Point mousePos ) {
+		// allow the parent function to perform highlights
+		super.processMouseMovement( controller, mousePos );
+
+		// get the current space position
+		currentPos = controller.untransform( mousePos );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.functions.AbstractFunction#supportsDrag()
+	 */
+	@Override
+	public boolean supportsDrag() {
+		return true;
+	}
+
+	/**
+	 * Handles the selection of a point, which extends the curve
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param pointElem the given {@link ModelElement point}
+	 */
+	private void handlePointSelection( final ApplicationController controller, final ModelElement pointElem ) {
+		if( pointElem != null ) {
+			// get the model instance
+			final GeometricModel model = controller.getModel();
+
+			// select the point
+			model.selectGeometry( pointElem );
+
+			// if at least two points are selected, create the curve
+			if( curve == null ) {
+				if( model.getSelectedElementCount() > 1 ) {
+					curve = new NurbsCurveXY( NurbsCurveXY.DEFAULT_DEGREE, getSelectedPoints( model ) );
+					model.setTemporaryElement( curve );
+				}
+			}
+
+			// otherwise, just append the point
+			else {
+				curve.append( EntityRepresentationUtil.getPoint( pointElem ) );
+			}
+		}
+	}
+
+	/**
+	 * Handles the creation of the curve
+	 * @param controller the given {@link ApplicationController function controller}
+	 * @param model the given {@link GeometricModel geometric model}
+	 */
+	private void handleCurveCreation( final ApplicationController controller,
+			   						  final GeometricModel model ) {
+		// create the curve element
+		final ModelElement curveElem = new CxModelElement( curve );
+
+		// add the curve to the model
+		model.addPhysicalElement( curveElem );
+
+		// notify the operator
+		controller.setStatusMessage( format( "Created NURBS curve '%s'", curveElem.getLabel() ) );
+
+		// reset everything
+		reset( controller );
+	}
+
+	/**
+	 * Looks up the point at the given boundary
+	 * @param controller the given {@link RectangleXY boundary}
+	 * @param boundary the given {@link RectangleXY boundary}
+	 * @param points the collection of {@link ModelElement points}
+	 * @return the resultant {@link ModelElement point}, or <tt>null</tt> if not found
+	 */
+	private ModelElement lookupPointByRegion( final ApplicationController controller,
+										 	  final RectangleXY boundary,
+										 	  final ModelElement[] points) {
+		// get the matrix instance
+		final MatrixWCStoSCS matrix = controller.getMatrix();
+
+		// perform the lookup operation
+		for( final ModelElement point : points ) {
+			if( ( point.getType() == POINT ) &&
+					point.intersects( boundary, matrix ) ) {
+				return point;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Retrieves the selected points
+	 * @param model the given {@link GeometricModel model}
+	 * @return the array of {@link PointXY points}
+	 */
+	private PointXY[] getSelectedPoints( final GeometricModel model ) {
+		// get the selected elements
+		final RenderableElement[] selectedGeometry = new RenderableElement[ model.getSelectedElementCount() ];
+		model.getSelectedGeometry( selectedGeometry );
+
+		// create a point array
+		final PointXY[] pointArray = new PointXY[ selectedGeometry.length ];
+		for( int n = 0; n < pointArray.length; n++ ) {
+			pointArray[n] = EntityRepresentationUtil.getPoint( selectedGeometry[n] );
+		}
+		return pointArray;
+	}
+
+	/**
+	 * Resets the function
+	 * @param controller the given {@link ApplicationController controller}
+	 */
+	private void reset( final ApplicationController controller ) {
+		// get the model instance
+		final GeometricModel model = controller.getModel();
+
+		// clear the selected points
+		model.clearSelectedElements();
+
+		// clear the temporary curve
+		model.clearTemporaryElement();
+
+		// clear the curve reference
+		curve = null;
+	}
+
+	/**
+	 * Spline: NURBS Pop-up Menu
+	 * @author lawrence.daniels@gmail.com
+	 */
+	@SuppressWarnings("serial")
+	private class MyPopupMenu extends JPopupMenu {
+
+		/**
+		 * Default Constructor
+		 */
+		public MyPopupMenu( final ApplicationController controller ) {
+			super( "Spline: NURBS" );
+			super.add( new CxMenuItem( "New point", NEW_PT_ICON, new NewPointAction( controller ) ) );
+			super.add( new CxMenuItem( "Complete", FINISH_ICON, new CompleteAction( controller ) ) );
+		}
+	}
+
+	/**
+	 * Complete Action
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class CompleteAction implements ActionListener {
+		private final ApplicationController controller;
+
+		/**
+		 * Creates a "Complete" action
+		 * @param controller the given {@link ApplicationController controller}
+		 */
+		public CompleteAction( final ApplicationController controller ) {
+			this.controller = controller;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+		 */
+		public void actionPerformed( final ActionEvent event ) {
+			if( curve != null ) {
+				handleCurveCreation( controller, controller.getModel() );
+				advanceToNextStep( controller );
+			}
+		}
+	}
+
+	/**
+	 * "New Point" Action
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class NewPointAction implements ActionListener {
+		private final ApplicationController controller;
+
+		/**
+		 * Creates a "New Point" action
+		 * @param controller the given {@link ApplicationController controller}
+		 */
+		public NewPointAction( final ApplicationController controller ) {
+			this.controller = controller;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+		 */
+		public void actionPerformed( final ActionEvent event ) {
+			if( currentPos != null ) {
+				// create a new point
+				final ModelElement newPointElem = new CxModelElement( currentPos );
+
+				// add the point to the model
+				final GeometricModel model = controller.getModel();
+				model.addPhysicalElement( newPointElem );
+
+				// select the point
+				handlePointSelection( controller, newPointElem );
+
+				// request a redraw
+				controller.requestRedraw();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,394 @@
+package constellation.app.functions.curve;
+
+import static java.lang.String.format;
+import static constellation.functions.MouseClick.BUTTON_SELECT;
+import static constellation.functions.MouseClick.BUTTON_INDICATE;
+
+import java.awt.GridBagConstraints;
+import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JLabel;
+
+import constellation.ApplicationController;
+import constellation.app.functions.StructuredSelectionFunction;
+import constellation.app.math.ElementDetectionUtil;
+import constellation.drawing.EntityCategoryTypes;
+import constellation.drawing.EntityRepresentationUtil;
+import constellation.drawing.elements.CxModelElement;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.ParametricCurveXY;
+import constellation.drawing.entities.PointXY;
+import constellation.functions.FunctionDialogPlugIn;
+import constellation.functions.MouseClick;
+import constellation.functions.Steps;
+import constellation.model.GeometricModel;
+import constellation.ui.components.CxPanel;
+import constellation.ui.components.fields.CxDecimalField;
+import constellation.ui.components.fields.CxStringField;
+
+/**
+ * This function is responsible for generating parametric curve geometry;
+ * i.e. curves defined by the equations <i>x(t)</i> and <i>y(t)</i>, which
+ * are placed relative to an origin point.
+ * @author lawrence.daniels@gmail.com
+ */
+public class ParametricCurveFunction extends StructuredSelectionFunction {
+	private static final Steps STEPS = new Steps(
+		"Select the origin #point of the curve or Key the equations"
+	);
+	private FunctionDialogPlugIn plugIn;
+	private MyParameters parameters;
+	private ParametricCurveXY prototype;
+
+	/**
+	 * Default constructor
+	 */
+	public ParametricCurveFunction() {
+		super(
+			"CURVE", "PARAMETRIC",
+			"images/commands/curve/spline-pts.png",
+			"docs/functions/curve/spline_pts.html",
+			STEPS
+		);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.app.functions.PickListObserver#elementSelected(constellation.math.geometric.GeometricElement)
+	 */
+	public void elementSelected( final ApplicationController controller, final ModelElement element ) {
+		handleSelectElement( controller, element );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.app.functions.AbstractFunction#getParameterPlugin()
+	 */
+	@Override
+	public FunctionDialogPlugIn getParameterPlugin() {
+		return plugIn;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.functions.StructuredSelectionFunction#onStart(constellation.functions.ApplicationController)
+	 */
+	@Override
+	public void onStart( final ApplicationController controller ) {
+		// allow the parent to handle the event
+		super.onStart( controller );
+
+		// create the parameters instance
+		if( parameters == null ) {
+			parameters = new MyParameters();
+		}
+
+		// create the plug-in instance
+		if( plugIn == null ) {
+			plugIn = new FunctionDialogPlugIn( parameters, new MyPlugInAction( controller ) );
+		}
+
+		// initialize the editor dialog
+		dialog.resetIdentity( EntityCategoryTypes.CURVE );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.functions.AbstractFunction#processMouseClick(constellation.functions.ApplicationController, constellation.functions.MouseClick)
+	 */
+	@Override
+	public void processMouseClick( final ApplicationController controller, final MouseClick mouseClick  ) {
+		// determine which geometry was click
+		switch( mouseClick.getButton() ) {
+			// selected a point
+			case BUTTON_SELECT:
+				// determine the selected point
+				final ModelElement element =
+					ElementDetectionUtil.lookupGeometricElementByRegion( controller, mouseClick );
+
+				// handle the selection of the point
+				handleSelectElement( controller, element );
+				break;
+
+			// indicated a point
+			case BUTTON_INDICATE:
+				// place the curve at the click point
+				handleClickPoint( controller, controller.untransform( mouseClick ) );
+				break;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.functions.Function#processMouseMovement(constellation.functions.ApplicationController, int, int)
+	 */
+	@Override
+	public void processMouseMovement( final ApplicationController controller, final Point mousePos ) {
+		// allow the parent function to perform highlights
+		super.processMouseMovement( controller, mousePos );
+
+		// get the curve (if the equations are valid)
+		final ParametricCurveXY curve = getPrototype();
+		if( curve != null ) {
+			// capture the origin point
+			final PointXY point = controller.untransform( mousePos );
+
+			// create the temporary geometry
+			final GeometricModel model = controller.getModel();
+			model.setTemporaryElement( curve.duplicate( point.getX(), point.getY() ) );
+
+			// request a redraw
+			controller.requestRedraw();
+		}
+	}
+
+	/**
+	 * Handle the element selection
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param element the given {@link ModelElement element}
+	 */
+	private void handleSelectElement( final ApplicationController controller, final ModelElement element ) {
+		if( element != null ) {
+			// process based on the entity type
+			switch( element.getType() ) {
+				case POINT:
+					handleClickPoint( controller, EntityRepresentationUtil.getPoint( element ) );
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Handle the click point
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param point the given origin {@link PointXY point}
+	 */
+	private void handleClickPoint( final ApplicationController controller, final PointXY point ) {
+		// set the coordinates
+		parameters.setCoordinates( point );
+
+		// add the curve
+		final ParametricCurveXY curve = createCurve( controller );
+		if( curve != null ) {
+			addCurveToModel( controller, curve.duplicate( point.getX(), point.getY() ) );
+		}
+	}
+
+	/**
+	 * Adds the curve to the model
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param curve the given {@link ParametricCurveXY curve}
+	 */
+	private void addCurveToModel( final ApplicationController controller,
+								  final ParametricCurveXY curve ) {
+		// create a new element using the curve
+		final ModelElement element = new CxModelElement( curve );
+
+		// update the element with the base attributes
+		dialog.exportAttributes( element );
+
+		// add the element to the model
+		final GeometricModel model = controller.getModel();
+		model.addPhysicalElement( element );
+
+		// notify the user
+		controller.setStatusMessage( format( "Created parametric curve '%s' at %s", element.getLabel(), curve.getMidPoint() ) );
+
+		// restart the function
+		onStart( controller );
+	}
+
+	/**
+	 * Creates a new curve (relative to the origin) from the parameters,
+	 * and notifies the user if the parameters are invalid.
+	 * @param controller the given {@link ApplicationController controller}
+	 * @return the {@link ParametricCurveXY curve}, or <tt>null</tt> if the parameters are invalid
+	 */
+	private ParametricCurveXY createCurve( final ApplicationController controller ) {
+		if( !parameters.isComplete() ) {
+			controller.showErrorDialog( "Required elements are missing", "Input Error" );
+			return null;
+		}
+
+		try {
+			return compilePrototype();
+		}
+		catch( final IllegalArgumentException e ) {
+			controller.showErrorDialog( e.getMessage(), "Input Error" );
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the curve (relative to the origin) described by the parameters
+	 * @return the {@link ParametricCurveXY curve}, or <tt>null</tt> if the parameters are invalid
+	 */
+	private ParametricCurveXY getPrototype() {
+		try {
+			return parameters.isComplete() ? compilePrototype() : null;
+		}
+		catch( final IllegalArgumentException e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the curve (relative to the origin) described by the parameters;
+	 * the curve is only re-compiled when the parameters have changed.
+	 * @return the {@link ParametricCurveXY curve}
+	 * @throws IllegalArgumentException if an equation is invalid
+	 */
+	private ParametricCurveXY compilePrototype() {
+		final String xEquation 	= parameters.getXEquation();
+		final String yEquation 	= parameters.getYEquation();
+		final double start 		= parameters.getStart();
+		final double end 		= parameters.getEnd();
+		if( ( prototype == null ) ||
+			!prototype.getXEquation().equals( xEquation ) ||
+			!prototype.getYEquation().equals( yEquation ) ||
+			( prototype.getStart() != start ) ||
+			( prototype.getEnd() != end ) ) {
+			prototype = new ParametricCurveXY( xEquation, yEquation, start, end );
+		}
+		return prototype;
+	}
+
+	/**
+	 * Parametric Curve Function Parameters
+	 * @author lawrence.daniels@gmail.com
+	 */
+	@SuppressWarnings("serial")
+	private class MyParameters extends CxPanel {
+		private final CxDecimalField xF;
+		private final CxDecimalField yF;
+		private final CxStringField xEquationF;
+		private final CxStringField yEquationF;
+		private final CxDecimalField startF;
+		private final CxDecimalField endF;
+
+		/**
+		 * Default Constructor
+		 */
+		public MyParameters() {
+			// row #1
+			int row = -1;
+			super.attach( 0, ++row, new JLabel( "X-axis:")  );
+			super.attach( 1,   row, xF = new CxDecimalField() );
+
+			// row #2
+			super.attach( 0, ++row, new JLabel( "Y-axis:")  );
+			super.attach( 1,   row, yF = new CxDecimalField() );
+
+			// row #3
+			super.attach( 0, ++row, new JLabel( "x(t) =")  );
+			super.attach( 1,   row, xEquationF = new CxStringField( 16, "10 * cos(t)" ) );
+
+			// row #4
+			super.attach( 0, ++row, new JLabel( "y(t) =")  );
+			super.attach( 1,   row, yEquationF = new CxStringField( 16, "5 * sin(2t)" ) );
+
+			// row #5
+			super.attach( 0, ++row, new JLabel( "t (start):")  );
+			super.attach( 1,   row, startF = new CxDecimalField( 0.0d ) );
+
+			// row #6
+			super.attach( 0, ++row, new JLabel( "t (end):")  );
+			super.attach( 1,   row, endF = new CxDecimalField( 2 * Math.PI ), GridBagConstraints.NORTHWEST );
+		}
+
+		/**
+		 * Indicates whether the parameters are complete enough to create a curve
+		 * @return true, if the parameters are complete enough to create a curve
+		 */
+		public boolean isComplete() {
+			return !xEquationF.isBlank() &&
+					!yEquationF.isBlank() &&
+					getStart() != null &&
+					getEnd() != null;
+		}
+
+		/**
+		 * Returns the coordinates of the origin point within the dialog
+		 * @return the {@link PointXY coordinates}
+		 */
+		public PointXY getCoordinates() {
+			final Double x = xF.getDecimal();
+			final Double y = yF.getDecimal();
+			return ( x != null & y != null ) ? new PointXY( x, y ) : null;
+		}
+
+		/**
+		 * Sets the coordinates of the origin point within the dialog
+		 * @param vertex the given {@link PointXY vertex}
+		 */
+		public void setCoordinates( final PointXY vertex ) {
+			xF.setDecimal( vertex.getX() );
+			yF.setDecimal( vertex.getY() );
+		}
+
+		/**
+		 * Returns the equation of <i>x(t)</i>
+		 * @return the equation of <i>x(t)</i>
+		 */
+		public String getXEquation() {
+			return xEquationF.getText().trim();
+		}
+
+		/**
+		 * Returns the equation of <i>y(t)</i>
+		 * @return the equation of <i>y(t)</i>
+		 */
+		public String getYEquation() {
+			return yEquationF.getText().trim();
+		}
+
+		/**
+		 * Returns the start of the range of the parameter
+		 * @return the start of the range of the parameter
+		 */
+		public Double getStart() {
+			return startF.getDecimal();
+		}
+
+		/**
+		 * Returns the end of the range of the parameter
+		 * @return the end of the range of the parameter
+		 */
+		public Double getEnd() {
+			return endF.getDecimal();
+		}
+	}
+
+	/**
+	 * Parametric Curve Function Parameter Plug-in
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class MyPlugInAction implements ActionListener {
+		private final ApplicationController controller;
+
+		/**
+		 * Creates a new plug-in action listener
+		 * @param controller the given {@link ApplicationController controller}
+		 */
+		public MyPlugInAction( final ApplicationController controller ) {
+			this.controller = controller;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+		 */
+		public void actionPerformed( final ActionEvent event ) {
+			final PointXY origin = parameters.getCoordinates();
+			if( origin != null ) {
+				handleClickPoint( controller, origin );
+			}
+			else {
+				controller.showErrorDialog( "Required elements are missing", "Input Error" );
+			}
+		}
+	}
+
+}
@@ -234,6 +234,8 @@ public class EntityEditorDialog extends InputDialog {
 				angleBF.setDecimal( convertRadiansToDegrees( ellipticArc.getAngleEnd() ) );
 				break;
 				
+			case NURBS:
+			case PARAMETRIC:
 			case SPLINE:
 				//final SplineXY spline = EntityRepresentationUtil.getSpline( element );
 				// we don't need to do anything here
@@ -557,6 +559,8 @@ public class EntityEditorDialog extends InputDialog {
 			case LINE:			row = attachLineDetails( cp, row ); break;
 			case POINT:			row = attachPointDetails( cp, row ); break;
 			case SPIRAL:		row = attachSpiralDetails( cp, row ); break;
+			case NURBS:
+			case PARAMETRIC:
 			case SPLINE:		row = attachSplineDetails( cp, row ); break;
 			case TEXTNOTE:		row = attachNoteDetails( cp, row ); break;
 		}
@@ -888,6 +892,8 @@ public class EntityEditorDialog extends InputDialog {
 						revolutionsF.getInteger() 
 					);
 				
+			case NURBS:
+			case PARAMETRIC:
 			case SPLINE:		
 				return null;
 				
@@ -945,6 +951,8 @@ public class EntityEditorDialog extends InputDialog {
 		map.put( POLYLINE, 		contentManager.getIcon( "images/dialog/editor/polyLine.gif" ) );
 		map.put( SPIRAL, 		contentManager.getIcon( "images/dialog/editor/spiral.png" ) );
 		map.put( SPLINE, 		contentManager.getIcon( "images/dialog/editor/spline.png" ) );
+		map.put( NURBS, 		contentManager.getIcon( "images/dialog/editor/spline.png" ) );
+		map.put( PARAMETRIC, 	contentManager.getIcon( "images/dialog/editor/user_defined.jpg" ) );
 		map.put( USER_DEFINED,	contentManager.getIcon( "images/dialog/editor/user_defined.jpg" ) );
 		return map;
 	}
@@ -998,6 +1006,27 @@ public class EntityEditorDialog extends InputDialog {
 			// determine the entity type information
 			final EntityTypes type = typeBox.getSelectedType();
 			
+			// the label must not belong to another element
+			final String label = idF.getText();
+			if( !idF.isBlank() ) {
+				final ModelElement holder = model.lookupElementByLabel( label );
+				if( ( holder != null ) && ( holder != selectedElement ) ) {
+					controller.setStatusMessage( format( "The label '%s' is already in use", label ) );
+					return;
+				}
+			}
+			
+			// relabel an existing element before it is modified, since its 
+			// label and layer locate it within the model's indices
+			if( !created && !idF.isBlank() && !label.equals( selectedElement.getLabel() ) ) {
+				model.relabelPhysicalElement( selectedElement, label );
+			}
+			
+			// record the existing element (so that the change can be undone)
+			if( !created ) {
+				model.modifyingPhysicalElement( selectedElement );
+			}
+			
 			// create the new internal representation
 			final EntityRepresentation representation = createInternalRepresentation( type );
 			if( representation != null ) {
@@ -1019,8 +1048,16 @@ public class EntityEditorDialog extends InputDialog {
 			selectedElement.setPattern( patternBox.getSelectedPattern() );
 			selectedElement.setLayer( layerBox.getSelectedIndex() );
 			
-			// update the given selected geometry
-			model.addPhysicalElement( selectedElement );
+			// add the new element or update the given selected geometry
+			if( created ) {
+				if( !idF.isBlank() ) {
+					selectedElement.setLabel( label );
+				}
+				model.addPhysicalElement( selectedElement );
+			}
+			else {
+				model.updatePhysicalElement( selectedElement );
+			}
 			
 			// alert the operator
 			controller.setStatusMessage( format( created ? "Created new %s '%s'" : "Updated %s '%s'", 
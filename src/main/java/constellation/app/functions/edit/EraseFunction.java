@@ -16,6 +16,7 @@ import java.util.LinkedList;
 import java.util.Map;
 
 import constellation.ApplicationController;
+import constellation.app.functions.HoverHighlightService;
 import constellation.app.functions.StructuredSelectionFunction;
 import constellation.drawing.elements.ModelElement;
 import constellation.drawing.entities.PointXY;
@@ -445,6 +446,9 @@ public class EraseFunction extends StructuredSelectionFunction {
 	 			final RectangleXY boundary = new RectangleXY( xa, ya, xb - xa, yb - ya );
 	 			final Collection<ModelElement> returnSet = new LinkedList<ModelElement>();	
 	 			lookupElementsByRegion( controller, boundary, returnSet );
+	 			
+	 			// highlight the geometry (superseding any pending hover highlights)
+	 			HoverHighlightService.getInstance().cancel();
 	 			model.setHighlightedGeometry( returnSet );
 	 			
 	 			// request a redraw
@@ -3,6 +3,9 @@ package constellation.app.functions.edit;
 import static constellation.app.math.ElementDetectionUtil.lookupPhantomElementByRegion;
 import static constellation.functions.MouseClick.BUTTON_SELECT;
 import static java.lang.String.format;
+
+import java.util.Collections;
+
 import constellation.ApplicationController;
 import constellation.SelectionMode;
 import constellation.app.functions.StructuredSelectionFunction;
@@ -107,7 +110,8 @@ public class RestoreFunction extends StructuredSelectionFunction {
 			// remove the element from the list of phantom elements
 			model.erasePhantom( element );
 			
-			// re-add the element to the model
+			// re-add the element to the model (its label may have been re-used meanwhile)
+			model.resolveLabelConflicts( Collections.singletonList( element ) );
 			model.addPhysicalElement( element );
 			
 			controller.setStatusMessage( format( "Restored element '%s'", element.getLabel() ) );
@@ -16,6 +16,8 @@ import constellation.drawing.entities.CircleXY;
 import constellation.drawing.entities.EllipseXY;
 import constellation.drawing.entities.HUDXY;
 import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.ParametricCurveXY;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.SpiralXY;
 import constellation.drawing.entities.SplineXY;
@@ -100,6 +102,8 @@ public class InspectFunction extends StructuredSelectionFunction {
 				case POINT:		temporaryElement = analyzePoint( element ); break;
 				case SPIRAL:	temporaryElement = analyzeSpiral( element, unit ); break;
 				case SPLINE:	temporaryElement = analyzeSpline( element, unit ); break;
+				case NURBS:		temporaryElement = analyzeNurbs( element, unit ); break;
+				case PARAMETRIC:	temporaryElement = analyzeParametricCurve( element, unit ); break;
 			}
 			
 			// set the temporary element
@@ -344,6 +348,79 @@ public class InspectFunction extends StructuredSelectionFunction {
 		return hud;
 	}
 	
+	/**
+	 * Performs the analysis on a NURBS curve
+	 * @param element the given {@link ModelElement NURBS element}
+	 * @param unit the given {@link Unit unit} of measurement
+	 * @return the {@link RenderableElement graphical representation} of the analysis
+	 */
+	private RenderableElement analyzeNurbs( final ModelElement element, final Unit unit ) {
+		// create a HUD
+		final HUDXY hud = new HUDXY();
+
+		// add the NURBS entity
+		final NurbsCurveXY curve = EntityRepresentationUtil.getNurbs( element );
+		hud.add( curve );
+		
+		hud.append( format( "Type: %s", getTypeNameCap( element.getType() ) ) );
+		hud.append( format( "Label: %s", element.getLabel() ) );
+		hud.append( format( "Layer: %03d", element.getLayer() + 1 ) );
+		hud.appendSeparator();
+		
+		hud.append( format( "Degree: %d", curve.getDegree() ) );
+		hud.append( format( "Rational: %s", curve.isRational() ? "Yes" : "No" ) );
+		hud.append( format( "Length: %3.4f %s", curve.length(), unit.getShortName() ) );
+		hud.appendSeparator();
+		
+		// add the control points
+		final PointXY[] points = curve.getControlPoints();
+		final double[] weights = curve.getWeights();
+		for( int n = 0; n < points.length; n++ ) {
+			hud.addAll( points[n], new TextNoteXY( points[n], format( "P%d", n + 1 ) ) );
+			hud.append( format( "P%d: %s w=%.4f", n + 1, points[n], weights[n] ) );
+		}
+		
+		return hud;
+	}
+	
+	/**
+	 * Performs the analysis on a parametric curve
+	 * @param element the given {@link ModelElement parametric curve element}
+	 * @param unit the given {@link Unit unit} of measurement
+	 * @return the {@link RenderableElement graphical representation} of the analysis
+	 */
+	private RenderableElement analyzeParametricCurve( final ModelElement element, final Unit unit ) {
+		// create a HUD
+		final HUDXY hud = new HUDXY();
+
+		// add the parametric curve entity
+		final ParametricCurveXY curve = EntityRepresentationUtil.getParametricCurve( element );
+		hud.add( curve );
+		
+		hud.append( format( "Type: %s", getTypeNameCap( element.getType() ) ) );
+		hud.append( format( "Label: %s", element.getLabel() ) );
+		hud.append( format( "Layer: %03d", element.getLayer() + 1 ) );
+		hud.appendSeparator();
+		
+		hud.append( format( "x(t) = %s", curve.getXEquation() ) );
+		hud.append( format( "y(t) = %s", curve.getYEquation() ) );
+		hud.append( format( "Range: %3.4f .. %3.4f", curve.getStart(), curve.getEnd() ) );
+		if( curve.getOffset() != 0d ) {
+			hud.append( format( "Offset: %3.4f %s", curve.getOffset(), unit.getShortName() ) );
+		}
+		hud.append( format( "Length: %3.4f %s", curve.length(), unit.getShortName() ) );
+		hud.appendSeparator();
+		
+		// add the end points
+		final PointXY[] limits = curve.getLimits().explode();
+		for( int n = 0; n < limits.length; n++ ) {
+			hud.addAll( limits[n], new TextNoteXY( limits[n], format( "P%d", n + 1 ) ) );
+			hud.append( format( "P%d: %s", n + 1, limits[n] ) );
+		}
+		
+		return hud;
+	}
+	
 	/**
 	 * Performs the analysis on a spline
 	 * @param element the given {@link ModelElement spline element}
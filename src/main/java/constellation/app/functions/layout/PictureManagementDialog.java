@@ -11,6 +11,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 
 import javax.swing.ImageIcon;
 import javax.swing.JComponent;
@@ -366,7 +367,8 @@ public class PictureManagementDialog extends CxDialog {
 				model.erase( selectedPicture );
 			}
 			
-			// add the picture to the model
+			// add the picture to the model (relabeling it, if its label is in use)
+			model.resolveLabelConflicts( Collections.singletonList( pictElem ) );
 			model.addPhysicalElement( pictElem );
 			
 			// set the message
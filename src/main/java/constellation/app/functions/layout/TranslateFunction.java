@@ -109,6 +109,9 @@ public class TranslateFunction extends StructuredSelectionFunction {
 					final ModelElement[] elements = new ModelElement[count];
 					model.getSelectedGeometry( elements );
 					
+					// record the positions of the points (so that the move can be undone)
+					model.modifyingPhysicalElement( elements );
+					
 					// set up the deltas for movement
 					boolean once = true;
 					double deltaX = 0;
@@ -132,6 +135,9 @@ public class TranslateFunction extends StructuredSelectionFunction {
 							p.translate( new PointXY( deltaX, deltaY ) );
 						}
 					}
+					
+					// re-index the moved points
+					model.updatePhysicalElement( elements );
 					advanceToNextStep( controller );
 				}
 				break;
@@ -20,6 +20,7 @@ import constellation.CxContentManager;
 import constellation.app.functions.StructuredSelectionFunction;
 import constellation.app.functions.DefaultPopupMenu.PropertiesAction;
 import constellation.app.math.ElementDetectionUtil;
+import constellation.app.math.ObjectSnapEngine;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.RenderableElement;
@@ -32,6 +33,7 @@ import constellation.drawing.entities.TextNoteXY;
 import constellation.functions.MouseClick;
 import constellation.functions.Steps;
 import constellation.model.GeometricModel;
+import constellation.model.SnapPoint;
 import constellation.ui.components.menu.CxMenuItem;
 
 /**
@@ -123,8 +125,8 @@ public class LinePtToPtFunction extends StructuredSelectionFunction {
 				
 			// indicated a point
 			case BUTTON_INDICATE:
-				// get the new point
-				final PointXY newPoint = controller.untransform( mouseClick );
+				// get the new point (snapped to the nearest point of interest)
+				final PointXY newPoint = ObjectSnapEngine.getSnappedPoint( controller, mouseClick );
 				
 				// handle the "indicated" point
 				handleClickPoint( controller, newPoint, true );
@@ -138,11 +140,12 @@ public class LinePtToPtFunction extends StructuredSelectionFunction {
 	 */
 	@Override
 	public void processMouseMovement( final ApplicationController controller, final Point mousePos ) {	
-		// allow parent to perform dynamic highlighting
+		// allow parent to perform dynamic highlighting and snapping
 		super.processMouseMovement( controller, mousePos );
 		
-		// get the current space position
-		currentPos = controller.untransform( mousePos );
+		// get the current space position (snapped to the nearest point of interest)
+		final SnapPoint snapPoint = controller.getModel().getSnapPoint();
+		currentPos = ( snapPoint != null ) ? snapPoint.getPoint() : controller.untransform( mousePos );
 		
 		// if we're on the 2nd step, move the temporary line
 		if( steps.currentIndex() == STEP_2 ) {
@@ -160,6 +163,15 @@ public class LinePtToPtFunction extends StructuredSelectionFunction {
 		}
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.app.functions.AbstractFunction#supportsSnap()
+	 */
+	@Override
+	protected boolean supportsSnap() {
+		return true;
+	}
+	
 	/**
 	 * Handles the given click point
 	 * @param controller the given {@link ApplicationController controller}
@@ -192,7 +192,11 @@ public class LineRelimitFunction extends StructuredSelectionFunction {
 		final LineXY lineXY = EntityRepresentationUtil.getLine( line );
 		
 		// create the new trimmed or extended line
+		model.modifyingPhysicalElement( line );
 		line.setRepresentation( lineXY.trimOrExtendTo( point ) );
+		
+		// re-index the modified line
+		model.updatePhysicalElement( line );
 	}
 	
 	/**
@@ -217,11 +221,17 @@ public class LineRelimitFunction extends StructuredSelectionFunction {
 			return;
 		}
 		
+		// record the lines (so that the change can be undone)
+		model.modifyingPhysicalElement( lineA, lineB );
+		
 		// trim or extended the line representation for Line A
 		lineA.setRepresentation( line1.trimOrExtendTo( intersectionPt ) );
 		
 		// trim or extended the line representation for Line B
 		lineB.setRepresentation( line2.trimOrExtendTo( intersectionPt ) );
+		
+		// re-index the modified lines
+		model.updatePhysicalElement( lineA, lineB );
 	}
 	
 }
\ No newline at end of file
@@ -1,14 +1,25 @@
 package constellation.app.functions.line;
 
 import static constellation.app.math.ElementDetectionUtil.lookupGeometricElementByRegion;
+import static constellation.drawing.EntityTypes.LINE;
 import static constellation.drawing.elements.CxModelElement.copyProperties;
 import static constellation.functions.MouseClick.BUTTON_SELECT;
 import static constellation.functions.MouseClick.BUTTON_INDICATE;
 import static constellation.functions.Steps.STEP_1;
 import static constellation.functions.Steps.STEP_2;
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
 import constellation.ApplicationController;
 import constellation.app.functions.StructuredSelectionFunction;
 import constellation.app.math.ElementDetectionUtil;
+import constellation.app.math.IntersectionEngine;
+import constellation.app.math.IntersectionGraph;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.elements.CxModelElement;
 import constellation.drawing.elements.ModelElement;
@@ -27,7 +38,7 @@ import constellation.model.GeometricModel;
  */
 public class LineSplitFunction extends StructuredSelectionFunction {
 	private static final Steps STEPS = new Steps(
-		"Select the #line to split",
+		"Select the #line to split, or Indicate to split all lines at their intersections",
 		"Select the split element (#point or #line or #curve)"
 	);
 	private ModelElement hostLine;
@@ -75,11 +86,17 @@ public class LineSplitFunction extends StructuredSelectionFunction {
 	 * @param mouseClick the given {@link MouseClick mouse click}
 	 */
 	private void handleStep1( final ApplicationController controller, final MouseClick mouseClick ) {
-		// if it's a 'Select' click
-		if( mouseClick.getButton() == BUTTON_SELECT ) {
-			// get the selected line
-			final ModelElement line = ElementDetectionUtil.lookupLineByRegion( controller, mouseClick );
-			handleStep1_LineSelection( controller, line );
+		switch( mouseClick.getButton() ) {
+			// selected the line to split
+			case BUTTON_SELECT:
+				final ModelElement line = ElementDetectionUtil.lookupLineByRegion( controller, mouseClick );
+				handleStep1_LineSelection( controller, line );
+				break;
+				
+			// split all of the lines
+			case BUTTON_INDICATE:
+				splitAtIntersections( controller );
+				break;
 		}
 	}
 	
@@ -184,6 +201,8 @@ public class LineSplitFunction extends StructuredSelectionFunction {
 				case ELLIPTIC_ARC:;
 				case SPIRAL:;
 				case SPLINE:;
+				case NURBS:
+				case PARAMETRIC:
 				case USER_DEFINED:
 					// curve must be a circle
 					controller.setStatusMessage( "Incompatible curve selected; curve must be circular" );
@@ -192,6 +211,95 @@ public class LineSplitFunction extends StructuredSelectionFunction {
 		}
 	}
 	
+	/**
+	 * Splits all of the visible lines at their intersections with the visible geometry
+	 * @param controller the given {@link ApplicationController controller}
+	 */
+	private void splitAtIntersections( final ApplicationController controller ) {
+		// get the visible elements
+		final GeometricModel model = controller.getModel();
+		final List<ModelElement> elements = new LinkedList<ModelElement>();
+		model.getVisibleElements( elements );
+		
+		// determine the intersections
+		final IntersectionGraph graph = IntersectionEngine.compute( elements );
+		
+		// split each line at its intersection points
+		final List<ModelElement> hostLines = new ArrayList<ModelElement>();
+		final List<ModelElement> newLines = new ArrayList<ModelElement>();
+		for( final ModelElement hostLineElem : graph.getElements() ) {
+			if( hostLineElem.getType() == LINE ) {
+				final List<ModelElement> pieces = splitUsingPoints( hostLineElem, graph.getPoints( hostLineElem ), graph.getTolerance() );
+				if( !pieces.isEmpty() ) {
+					hostLines.add( hostLineElem );
+					newLines.addAll( pieces );
+				}
+			}
+		}
+		
+		// was any line split?
+		if( hostLines.isEmpty() ) {
+			controller.setStatusMessage( "No lines were split" );
+		}
+		else {
+			// replace the host lines with the new lines
+			model.addPhysicalElements( newLines );
+			model.erase( hostLines );
+			
+			// notify the operator
+			controller.setStatusMessage( format( "Split %d line(s) into %d", hostLines.size(), newLines.size() ) );
+		}
+	}
+	
+	/**
+	 * Splits the given line at each of the given points
+	 * @param hostLineElem the given {@link ModelElement host line}
+	 * @param points the given {@link PointXY points} on the line
+	 * @param tolerance the distance within which points are considered coincident with the end-points 
+	 * @return the new {@link ModelElement lines}, or an empty list if the line was not split
+	 */
+	private List<ModelElement> splitUsingPoints( final ModelElement hostLineElem, 
+												 final List<PointXY> points,
+												 final double tolerance ) {
+		// get the host line
+		final LineXY hostLine = EntityRepresentationUtil.getLine( hostLineElem );
+		final PointXY startPt = hostLine.getBeginPoint();
+		final PointXY endPt = hostLine.getEndPoint();
+		final double dx = endPt.x - startPt.x;
+		final double dy = endPt.y - startPt.y;
+		final double length = Math.sqrt( dx * dx + dy * dy );
+		
+		// keep the points which lie between the end-points
+		final List<PointXY> splitPoints = new ArrayList<PointXY>( points.size() );
+		for( final PointXY point : points ) {
+			final double distance = ( ( point.x - startPt.x ) * dx + ( point.y - startPt.y ) * dy ) / length;
+			if( ( distance > tolerance ) && ( distance < length - tolerance ) ) {
+				splitPoints.add( point );
+			}
+		}
+		
+		// order the points from the start of the line to its end
+		Collections.sort( splitPoints, new Comparator<PointXY>() {
+			public int compare( final PointXY a, final PointXY b ) {
+				return Double.compare( ( a.x - b.x ) * dx + ( a.y - b.y ) * dy, 0d );
+			}
+		});
+		
+		// create the new lines
+		final List<ModelElement> newLines = new ArrayList<ModelElement>( splitPoints.size() + 1 );
+		if( !splitPoints.isEmpty() ) {
+			PointXY beginPt = startPt;
+			splitPoints.add( endPt );
+			for( final PointXY splitPt : splitPoints ) {
+				final ModelElement newLineElem = new CxModelElement( new LineXY( beginPt, splitPt ) );
+				copyProperties( hostLineElem, newLineElem );
+				newLines.add( newLineElem );
+				beginPt = splitPt;
+			}
+		}
+		return newLines;
+	}
+	
 	/**
 	 * Splits the given line so that it intersects the given point
 	 * @param model the given {@link GeometricModel model}
@@ -1,8 +1,12 @@
 package constellation.app.functions.point;
 
 import static java.lang.String.format;
+
+import java.awt.Point;
+
 import constellation.ApplicationController;
 import constellation.app.functions.StructuredSelectionFunction;
+import constellation.app.math.ObjectSnapEngine;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.elements.CxModelElement;
 import constellation.drawing.elements.ModelElement;
@@ -42,6 +46,29 @@ class AbstractPointFunction extends StructuredSelectionFunction {
 		dialog.resetIdentity( EntityCategoryTypes.VERTEX );
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.app.functions.AbstractFunction#supportsSnap()
+	 */
+	@Override
+	protected boolean supportsSnap() {
+		// functions which place points (rather than select elements) snap
+		return !supportsSelection();
+	}
+	
+	/**
+	 * Returns the position indicated by the given mouse position, 
+	 * snapped to the nearest point of interest within range
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param mousePos the given mouse position
+	 * @return the indicated {@link PointXY position}
+	 */
+	protected PointXY getIndicatedPoint( final ApplicationController controller, final Point mousePos ) {
+		return supportsSnap() 
+				? ObjectSnapEngine.getSnappedPoint( controller, mousePos ) 
+				: controller.untransform( mousePos );
+	}
+	
 	/**
 	 * Creates a new point, and adds it to the model
 	 * @param controller the given {@link ApplicationController controller}
@@ -78,7 +78,7 @@ public class PointCoodinatesFunction extends AbstractPointFunction {
 		// if it's a primary click
 		if( mouseClick.getButton() == BUTTON_INDICATE ) {
 			// get the click point in 2D Space
-			final PointXY vertex = controller.untransform( mouseClick );
+			final PointXY vertex = getIndicatedPoint( controller, mouseClick );
 			
 			// set the coordinates
 			parameters.setCoordinates( vertex );
@@ -1,11 +1,18 @@
 package constellation.app.functions.point;
 
 import static constellation.drawing.EntityTypes.POINT;
+import static constellation.functions.MouseClick.BUTTON_INDICATE;
 import static constellation.functions.Steps.STEP_1;
 import static constellation.functions.Steps.STEP_2;
 import static java.lang.String.format;
+
+import java.util.LinkedList;
+import java.util.List;
+
 import constellation.ApplicationController;
 import constellation.app.math.ElementDetectionUtil;
+import constellation.app.math.IntersectionEngine;
+import constellation.app.math.IntersectionGraph;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.elements.CxModelElement;
 import constellation.drawing.elements.ModelElement;
@@ -21,7 +28,7 @@ import constellation.model.GeometricModel;
  */
 public class PointIntersectionFunction extends AbstractPointFunction {
 	private static final Steps STEPS = new Steps(
-		"Select primary #line or #curve",
+		"Select primary #line or #curve, or Indicate to intersect all visible geometry",
 		"Select secondary #line or #curve"
 	);
 	
@@ -63,6 +70,12 @@ public class PointIntersectionFunction extends AbstractPointFunction {
 	 */
 	@Override
 	public void processMouseClick( final ApplicationController controller, final MouseClick mouseClick  ) {
+		// indicating at the first step intersects all of the visible geometry
+		if( ( mouseClick.getButton() == BUTTON_INDICATE ) && ( steps.currentIndex() == STEP_1 ) ) {
+			handleIntersectAll( controller );
+			return;
+		}
+		
 		// attempt to select an element
 		final ModelElement element = 
 			ElementDetectionUtil.lookupComplexElementByRegion( controller, mouseClick );
@@ -71,6 +84,29 @@ public class PointIntersectionFunction extends AbstractPointFunction {
 		elementSelected( controller, element );
 	}
 	
+	/**
+	 * Creates points at all of the intersections amongst the visible geometry
+	 * @param controller the given {@link ApplicationController controller}
+	 */
+	private void handleIntersectAll( final ApplicationController controller ) {
+		// get the visible elements
+		final GeometricModel model = controller.getModel();
+		final List<ModelElement> elements = new LinkedList<ModelElement>();
+		model.getVisibleElements( elements );
+		
+		// determine the intersections
+		final IntersectionGraph graph = IntersectionEngine.compute( elements );
+		if( graph.isEmpty() ) {
+			controller.setStatusMessage( "No intersections were found" );
+		}
+		
+		// create a point at each (distinct) intersection
+		else {
+			final List<PointXY> points = graph.getPoints();
+			addPointsToModel( controller, points.toArray( new PointXY[ points.size() ] ) );
+		}
+	}
+	
 	/**
 	 * Handles step #1: Select a Line or Curve
 	 * @param controller the given {@link ApplicationController controller}
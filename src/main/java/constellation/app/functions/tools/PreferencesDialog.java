@@ -21,6 +21,7 @@ import javax.swing.JTabbedPane;
 import constellation.ApplicationController;
 import constellation.drawing.LinePatterns;
 import constellation.model.GeometricModel;
+import constellation.model.ModelHistory;
 import constellation.preferences.SystemPreferences;
 import constellation.ui.components.CxDialog;
 import constellation.ui.components.CxPanel;
@@ -33,6 +34,7 @@ import constellation.ui.components.comboboxes.CxUnitsBox;
 import constellation.ui.components.comboboxes.LinePatternBox;
 import constellation.ui.components.comboboxes.LineThicknessBox;
 import constellation.ui.components.fields.CxDecimalField;
+import constellation.ui.components.fields.CxIntegerField;
 import constellation.ui.components.fields.CxStringField;
 import constellation.ui.components.fields.CxTextArea;
 
@@ -62,6 +64,9 @@ public class PreferencesDialog extends CxDialog {
 	private ColorSelectionBox colorBox;
 	private LineThicknessBox thicknessBox;
 	private JCheckBox antiAliasingBox;
+	private JCheckBox retainedRenderingBox;
+	private CxIntegerField detailThresholdField;
+	private CxIntegerField undoMemoryLimitField;
 	private JCheckBox debugModeBox;
 	
 	/** 
@@ -117,6 +122,9 @@ public class PreferencesDialog extends CxDialog {
 		
 		// import the rending hints
 		antiAliasingBox.setSelected( preferences.isAntiAliasing() );
+		retainedRenderingBox.setSelected( preferences.isRetainedRendering() );
+		detailThresholdField.setInteger( preferences.getDetailThreshold() );
+		undoMemoryLimitField.setInteger( preferences.getUndoMemoryLimit() );
 		
 		// import the debug mode setting
 		final SystemPreferences systemPreferences = controller.getSystemPreferences();
@@ -151,6 +159,23 @@ public class PreferencesDialog extends CxDialog {
 		
 		// update the rending hints
 		preferences.setAntiAliasing( antiAliasingBox.isSelected() );
+		preferences.setRetainedRendering( retainedRenderingBox.isSelected() );
+		try {
+			preferences.setDetailThreshold( detailThresholdField.getInteger() );
+		}
+		catch( final NumberFormatException e ) {
+			detailThresholdField.setInteger( preferences.getDetailThreshold() );
+		}
+		try {
+			preferences.setUndoMemoryLimit( undoMemoryLimitField.getInteger() );
+		}
+		catch( final NumberFormatException e ) {
+			undoMemoryLimitField.setInteger( preferences.getUndoMemoryLimit() );
+		}
+		final ModelHistory history = ModelHistory.lookup( model );
+		if( history != null ) {
+			history.setMemoryLimit( preferences.getUndoMemoryLimit() * 1024L * 1024L );
+		}
 		
 		// update the debug mode setting
 		final SystemPreferences systemPreferences = controller.getSystemPreferences();
@@ -255,10 +280,18 @@ public class PreferencesDialog extends CxDialog {
 		// row #4
 		cp.attach( 0, ++row, new JLabel( "Line Pattern:")  );
 		cp.attach( 1,   row, patternBox = new LinePatternBox() );
+		cp.attach( 2,   row, new JLabel( "Retained Rendering:") );
+		cp.attach( 3,   row, retainedRenderingBox = new JCheckBox() );
 		
 		// row #5
 		cp.attach( 0, ++row, new JLabel( "Line Thickness:")  );
 		cp.attach( 1,   row, thicknessBox = new LineThicknessBox(), GridBagConstraints.NORTHWEST );
+		cp.attach( 2,   row, new JLabel( "Detail Threshold (pixels):") );
+		cp.attach( 3,   row, detailThresholdField = new CxIntegerField(), GridBagConstraints.NORTHWEST );
+		
+		// row #6
+		cp.attach( 2, ++row, new JLabel( "Undo Memory (MB):") );
+		cp.attach( 3,   row, undoMemoryLimitField = new CxIntegerField(), GridBagConstraints.NORTHWEST );
 		return cp;
 	}
 	
@@ -29,19 +29,19 @@ public class ElementDetectionUtil {
 	private static final Set<EntityTypes> CURVE_TYPES =
 		new HashSet<EntityTypes>( asList( 
 			CIRCLE, ARC, ELLIPSE, ELLIPTIC_ARC,
-			SPIRAL, SPLINE
+			SPIRAL, SPLINE, NURBS, PARAMETRIC
 	) );
 	
 	private static final Set<EntityTypes> GEOMETRY_TYPES = 
 		new HashSet<EntityTypes>( asList( 
 			POINT, LINE, CIRCLE, ARC, 
-			ELLIPSE, ELLIPTIC_ARC, SPIRAL, SPLINE
+			ELLIPSE, ELLIPTIC_ARC, SPIRAL, SPLINE, NURBS, PARAMETRIC
 		) );
 	
 	private static final Set<EntityTypes> COMPLEX_TYPES = 
 		new HashSet<EntityTypes>( asList( 
 			LINE, CIRCLE, ARC, ELLIPSE, ELLIPTIC_ARC,
-			SPIRAL, SPLINE, POLYLINE, COMPOSITION
+			SPIRAL, SPLINE, NURBS, PARAMETRIC, POLYLINE, COMPOSITION
 		) );
 	
 	/**
@@ -131,9 +131,9 @@ public class ElementDetectionUtil {
 		// get the transformation matrix
 		final MatrixWCStoSCS matrix = controller.getMatrix();
 		
-		// filter the geometry
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// perform the lookup operation
 		for( final ModelElement element : filtered ) {
@@ -217,9 +217,9 @@ public class ElementDetectionUtil {
 		// get the transformation matrix
 		final MatrixWCStoSCS matrix = controller.getMatrix();
 
-		// get only the visible element
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// find the elements that intersect the bounds
 		for( final ModelElement element : filtered ) {
@@ -285,9 +285,9 @@ public class ElementDetectionUtil {
 		// get the transformation matrix
 		final MatrixWCStoSCS matrix = controller.getMatrix();
 		
-		// get only the visible element
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// perform the lookup operation
 		for( final ModelElement element : filtered ) {
@@ -314,9 +314,9 @@ public class ElementDetectionUtil {
 		// get the transformation matrix
 		final MatrixWCStoSCS matrix = controller.getMatrix();
 
-		// get only the visible element
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// find the elements that intersect the bounds
 		for( final ModelElement element : filtered ) {
@@ -384,9 +384,9 @@ public class ElementDetectionUtil {
 		// create a set of the types
 		final Set<EntityTypes> typeSet = new HashSet<EntityTypes>( asList( excludeTypes ) );
 				
-		// get only the visible element
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// find the element that intersects the bounds
 		for( final ModelElement element : filtered ) {
@@ -457,9 +457,9 @@ public class ElementDetectionUtil {
 		// get the transformation matrix
 		final MatrixWCStoSCS matrix = controller.getMatrix();
 		
-		// get only the visible element
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// find the geometry that intersects the bounds
 		for( final ModelElement element : filtered ) {
@@ -525,9 +525,9 @@ public class ElementDetectionUtil {
 		// get the transformation matrix
 		final MatrixWCStoSCS matrix = controller.getMatrix();
 
-		// filter the geometry
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// perform the lookup operation
 		for( final ModelElement element : filtered ) {
@@ -593,9 +593,9 @@ public class ElementDetectionUtil {
 		// get the transformation matrix
 		final MatrixWCStoSCS matrix = controller.getMatrix();
 		
-		// get only the visible element
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// perform the lookup operation
 		for( final ModelElement element : filtered ) {
@@ -776,10 +776,9 @@ public class ElementDetectionUtil {
 		// get the transformation matrix
 		final MatrixWCStoSCS matrix = controller.getMatrix();
 		
-		// filter the geometry
-		// get only the visible element
+		// get only the visible elements near the boundary
 		final Collection<ModelElement> filtered = new LinkedList<ModelElement>();
-		model.getVisibleElements( filtered );
+		model.getVisibleElements( filtered, boundary );
 		
 		// perform the lookup operation
 		for( final ModelElement element : filtered ) {
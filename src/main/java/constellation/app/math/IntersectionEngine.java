@@ -0,0 +1,813 @@
+package constellation.app.math;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.atan2;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import constellation.app.math.IntersectionGraph.Crossing;
+import constellation.drawing.EntityRepresentation;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.CompositionXY;
+import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.PointXY;
+import constellation.drawing.entities.PolyLineXY;
+import constellation.drawing.entities.RectangleXY;
+import constellation.drawing.entities.VerticesXY;
+import constellation.math.CxIntersectionUtil;
+import constellation.math.CxIntersectionUtil.Intersection;
+
+/**
+ * Constellation Intersection Engine
+ * <div>
+ * Determines all of the intersections amongst a set of elements at once.
+ * Lines, polylines and the linear parts of compositions are decomposed into
+ * segments, whose intersections are found by a Bentley-Ottmann sweep; the
+ * sweep is partitioned into vertical slabs, which are swept in parallel.
+ * Arcs, circles and ellipses are paired with the segments and curves whose
+ * bounding boxes overlap theirs, and each candidate pair is then resolved
+ * (in parallel) by {@link CxIntersectionUtil}. Segments which touch are 
+ * reported at the point of contact; collinear segments which overlap are
+ * reported at the end-points of the overlap.
+ * </div>
+ * @author lawrence.daniels@gmail.com
+ */
+public class IntersectionEngine {
+	private static final double EPSILON = 1e-9;
+	private static final int SLAB_SIZE = 1024;
+	private static final int PAIR_BATCH = 256;
+
+	/**
+	 * Orders segments by their angle; i.e. the order in which they
+	 * leave an event point that they share.
+	 */
+	private static final Comparator<Segment> ANGLE_ORDER = new Comparator<Segment>() {
+		public int compare( final Segment a, final Segment b ) {
+			return Double.compare( a.angle, b.angle );
+		}
+	};
+
+	/**
+	 * Determines all of the intersections amongst the given elements; elements
+	 * which are not lines, polylines, arcs, circles, ellipses or compositions
+	 * of these are ignored, as are intersections of an element with itself.
+	 * @param elements the given collection of {@link ModelElement elements}
+	 * @return the {@link IntersectionGraph intersection graph}
+	 */
+	public static IntersectionGraph compute( final Collection<ModelElement> elements ) {
+		// decompose the elements into segments and curves
+		final ModelElement[] owners = elements.toArray( new ModelElement[ elements.size() ] );
+		final List<Segment> segments = new ArrayList<Segment>();
+		final List<Curve> curves = new ArrayList<Curve>();
+		final double[] extent = new double[1];
+		for( int owner = 0; owner < owners.length; owner++ ) {
+			decompose( owner, owners[owner].getRepresentation(), segments, curves, extent );
+		}
+
+		// points within this distance of each other are considered coincident
+		final double tolerance = EPSILON * max( 1d, extent[0] );
+
+		// create the tasks: one sweep per slab, and one per batch of curve pairs
+		final List<Callable<List<Hit>>> tasks = new ArrayList<Callable<List<Hit>>>();
+		createSweepTasks( segments, tolerance, tasks );
+		createCurveTasks( segments, curves, tolerance, tasks );
+
+		// merge the results, eliminating duplicate points of the same pair of elements
+		final Map<Long, List<Hit>> pairs = new HashMap<Long, List<Hit>>();
+		final List<Crossing> crossings = new ArrayList<Crossing>();
+		for( final List<Hit> hits : invokeAll( tasks ) ) {
+			for( final Hit hit : hits ) {
+				final Long key = (long)hit.ownerA * owners.length + hit.ownerB;
+				List<Hit> known = pairs.get( key );
+				if( known == null ) {
+					pairs.put( key, known = new ArrayList<Hit>( 2 ) );
+				}
+				if( !contains( known, hit, tolerance ) ) {
+					known.add( hit );
+					crossings.add( new Crossing( owners[ hit.ownerA ], owners[ hit.ownerB ], new PointXY( hit.x, hit.y ) ) );
+				}
+			}
+		}
+
+		return new IntersectionGraph( crossings, tolerance );
+	}
+
+	/**
+	 * Decomposes the given representation into segments and curves
+	 * @param owner the index of the owning element
+	 * @param rep the given {@link EntityRepresentation representation}
+	 * @param segments the list of {@link Segment segments}
+	 * @param curves the list of {@link Curve curves}
+	 * @param extent the largest (absolute) coordinate encountered thus far
+	 */
+	private static void decompose( final int owner,
+								   final EntityRepresentation rep,
+								   final List<Segment> segments,
+								   final List<Curve> curves,
+								   final double[] extent ) {
+		switch( rep.getType() ) {
+			case LINE:
+				// the (distant) end-points of infinite lines would inflate the tolerance
+				final LineXY line = (LineXY)rep;
+				addSegment( owner, line.getX1(), line.getY1(), line.getX2(), line.getY2(), segments, line.isInfinite() ? null : extent );
+				break;
+
+			case POLYLINE:
+				final VerticesXY vertices = ((PolyLineXY)rep).getLimits();
+				for( int n = 1; n < vertices.length(); n++ ) {
+					addSegment( owner, vertices.x[n-1], vertices.y[n-1], vertices.x[n], vertices.y[n], segments, extent );
+				}
+				break;
+
+			case ARC:
+			case CIRCLE:
+			case ELLIPSE:
+				final Curve curve = new Curve( owner, rep, rep.getBounds( null ) );
+				extent[0] = max( extent[0], max( max( abs( curve.minX ), abs( curve.maxX ) ), max( abs( curve.minY ), abs( curve.maxY ) ) ) );
+				curves.add( curve );
+				break;
+
+			case COMPOSITION:
+				for( final EntityRepresentation element : ((CompositionXY)rep).getElements() ) {
+					decompose( owner, element, segments, curves, extent );
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Adds a segment (unless it is degenerate), and includes its end-points in the extent
+	 * @param owner the index of the owning element
+	 * @param x1 the x-coordinate of the first end-point
+	 * @param y1 the y-coordinate of the first end-point
+	 * @param x2 the x-coordinate of the second end-point
+	 * @param y2 the y-coordinate of the second end-point
+	 * @param segments the list of {@link Segment segments}
+	 * @param extent the largest (absolute) coordinate encountered thus far, or <tt>null</tt>
+	 * to add the segment without including its end-points in the extent
+	 */
+	private static void addSegment( final int owner,
+									final double x1, final double y1,
+									final double x2, final double y2,
+									final List<Segment> segments,
+									final double[] extent ) {
+		if( ( x1 != x2 ) || ( y1 != y2 ) ) {
+			segments.add( new Segment( owner, x1, y1, x2, y2 ) );
+			if( extent != null ) {
+				extent[0] = max( extent[0], max( max( abs( x1 ), abs( x2 ) ), max( abs( y1 ), abs( y2 ) ) ) );
+			}
+		}
+	}
+
+	/**
+	 * Creates the tasks that sweep the segments; the plane is partitioned
+	 * into vertical slabs containing similar numbers of segments.
+	 * @param segments the list of {@link Segment segments}
+	 * @param tolerance the distance within which points are considered coincident
+	 * @param tasks the list of {@link Callable tasks}
+	 */
+	private static void createSweepTasks( final List<Segment> segments,
+										  final double tolerance,
+										  final List<Callable<List<Hit>>> tasks ) {
+		// determine the number of slabs
+		final int count = segments.size();
+		final int slabs = max( 1, min( ForkJoinPool.getCommonPoolParallelism(), count / SLAB_SIZE ) );
+
+		// determine the boundaries of the slabs
+		final double[] lefts = new double[ count ];
+		for( int n = 0; n < count; n++ ) {
+			lefts[n] = segments.get( n ).x1;
+		}
+		Arrays.sort( lefts );
+		final double[] bounds = new double[ slabs + 1 ];
+		bounds[0] = Double.NEGATIVE_INFINITY;
+		bounds[ slabs ] = Double.POSITIVE_INFINITY;
+		for( int n = 1; n < slabs; n++ ) {
+			bounds[n] = lefts[ n * count / slabs ];
+		}
+
+		// create a sweep for each slab, over the segments that overlap it
+		for( int n = 0; n < slabs; n++ ) {
+			final List<Segment> members = new ArrayList<Segment>();
+			for( final Segment segment : segments ) {
+				if( ( segment.x1 < bounds[ n + 1 ] ) && ( segment.x2 >= bounds[n] ) ) {
+					members.add( segment );
+				}
+			}
+			if( members.size() > 1 ) {
+				tasks.add( new SweepTask( members, bounds[n], bounds[ n + 1 ], tolerance ) );
+			}
+		}
+	}
+
+	/**
+	 * Creates the tasks that resolve the curve pairs; the candidate pairs
+	 * are those whose bounding boxes overlap (sweep-and-prune).
+	 * @param segments the list of {@link Segment segments}
+	 * @param curves the list of {@link Curve curves}
+	 * @param tolerance the distance within which points are considered coincident
+	 * @param tasks the list of {@link Callable tasks}
+	 */
+	private static void createCurveTasks( final List<Segment> segments,
+										  final List<Curve> curves,
+										  final double tolerance,
+										  final List<Callable<List<Hit>>> tasks ) {
+		if( curves.isEmpty() ) {
+			return;
+		}
+
+		// sort the curves and segments by their left-most extent
+		final List<Bounded> items = new ArrayList<Bounded>( segments.size() + curves.size() );
+		items.addAll( curves );
+		items.addAll( segments );
+		Collections.sort( items, new Comparator<Bounded>() {
+			public int compare( final Bounded a, final Bounded b ) {
+				return Double.compare( a.minX, b.minX );
+			}
+		});
+
+		// sweep the items, pairing each curve with the active items it overlaps
+		final List<Bounded> activeCurves = new ArrayList<Bounded>();
+		final List<Bounded> activeSegments = new ArrayList<Bounded>();
+		List<Bounded[]> pairs = new ArrayList<Bounded[]>( PAIR_BATCH );
+		for( final Bounded item : items ) {
+			final double left = item.minX - tolerance;
+			prune( activeCurves, left );
+			prune( activeSegments, left );
+
+			// find the candidate pairs
+			final boolean isCurve = ( item instanceof Curve );
+			for( final Bounded other : activeCurves ) {
+				if( item.overlaps( other, tolerance ) ) {
+					pairs.add( new Bounded[] { other, item } );
+				}
+			}
+			if( isCurve ) {
+				for( final Bounded other : activeSegments ) {
+					if( item.overlaps( other, tolerance ) ) {
+						pairs.add( new Bounded[] { item, other } );
+					}
+				}
+			}
+			( isCurve ? activeCurves : activeSegments ).add( item );
+
+			// is the batch full?
+			if( pairs.size() >= PAIR_BATCH ) {
+				tasks.add( new CurveTask( pairs, tolerance ) );
+				pairs = new ArrayList<Bounded[]>( PAIR_BATCH );
+			}
+		}
+
+		// add the remaining pairs
+		if( !pairs.isEmpty() ) {
+			tasks.add( new CurveTask( pairs, tolerance ) );
+		}
+	}
+
+	/**
+	 * Removes the items which end to the left of the given position
+	 * @param active the list of active {@link Bounded items}
+	 * @param left the given position
+	 */
+	private static void prune( final List<Bounded> active, final double left ) {
+		int n = 0;
+		for( final Bounded item : active ) {
+			if( item.maxX >= left ) {
+				active.set( n++, item );
+			}
+		}
+		active.subList( n, active.size() ).clear();
+	}
+
+	/**
+	 * Indicates whether the given hits include a point coincident with the given hit
+	 * @param hits the given list of {@link Hit hits}
+	 * @param hit the given {@link Hit hit}
+	 * @param tolerance the distance within which points are considered coincident
+	 * @return true, if a coincident point is present
+	 */
+	private static boolean contains( final List<Hit> hits, final Hit hit, final double tolerance ) {
+		for( final Hit known : hits ) {
+			if( ( abs( known.x - hit.x ) <= tolerance ) && ( abs( known.y - hit.y ) <= tolerance ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Executes the given tasks in parallel, and waits for them to complete
+	 * @param tasks the given collection of {@link Callable tasks}
+	 * @return the results of the tasks (in order)
+	 */
+	private static <T> List<T> invokeAll( final List<Callable<T>> tasks ) {
+		final List<T> results = new ArrayList<T>( tasks.size() );
+		try {
+			for( final Future<T> future : ForkJoinPool.commonPool().invokeAll( tasks ) ) {
+				results.add( future.get() );
+			}
+		}
+		catch( final InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException( "Intersection computation interrupted", e );
+		}
+		catch( final ExecutionException e ) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException ) {
+				throw (RuntimeException)cause;
+			}
+			throw new IllegalStateException( cause );
+		}
+		return results;
+	}
+
+	/**
+	 * Represents an item with an (axis-aligned) bounding box
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static abstract class Bounded {
+		final int owner;
+		final double minX;
+		final double minY;
+		final double maxX;
+		final double maxY;
+
+		/**
+		 * Creates a new bounded item
+		 * @param owner the index of the owning element
+		 * @param minX the minimum x-coordinate
+		 * @param minY the minimum y-coordinate
+		 * @param maxX the maximum x-coordinate
+		 * @param maxY the maximum y-coordinate
+		 */
+		Bounded( final int owner, final double minX, final double minY, final double maxX, final double maxY ) {
+			this.owner	= owner;
+			this.minX	= minX;
+			this.minY	= minY;
+			this.maxX	= maxX;
+			this.maxY	= maxY;
+		}
+
+		/**
+		 * Indicates whether the bounding box contains the given point
+		 * @param x the given x-coordinate
+		 * @param y the given y-coordinate
+		 * @param tolerance the given tolerance
+		 * @return true, if the point is within the bounding box
+		 */
+		boolean contains( final double x, final double y, final double tolerance ) {
+			return ( x >= minX - tolerance ) && ( x <= maxX + tolerance ) &&
+				   ( y >= minY - tolerance ) && ( y <= maxY + tolerance );
+		}
+
+		/**
+		 * Indicates whether the bounding boxes of distinct elements overlap
+		 * @param that the other {@link Bounded item}
+		 * @param tolerance the given tolerance
+		 * @return true, if the owners differ, and the bounding boxes overlap
+		 */
+		boolean overlaps( final Bounded that, final double tolerance ) {
+			return ( owner != that.owner ) &&
+				   ( minX <= that.maxX + tolerance ) && ( that.minX <= maxX + tolerance ) &&
+				   ( minY <= that.maxY + tolerance ) && ( that.minY <= maxY + tolerance );
+		}
+
+		/**
+		 * Returns the geometric representation of the item
+		 * @return the {@link EntityRepresentation representation}
+		 */
+		abstract EntityRepresentation getRepresentation();
+	}
+
+	/**
+	 * Represents a line segment, directed from left to right
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Segment extends Bounded {
+		final double x1;
+		final double y1;
+		final double x2;
+		final double y2;
+		final double angle;
+
+		/**
+		 * Creates a new segment
+		 * @param owner the index of the owning element
+		 * @param ax the x-coordinate of the first end-point
+		 * @param ay the y-coordinate of the first end-point
+		 * @param bx the x-coordinate of the second end-point
+		 * @param by the y-coordinate of the second end-point
+		 */
+		Segment( final int owner, final double ax, final double ay, final double bx, final double by ) {
+			super( owner, min( ax, bx ), min( ay, by ), max( ax, bx ), max( ay, by ) );
+			final boolean ordered = ( ax < bx ) || ( ( ax == bx ) && ( ay <= by ) );
+			this.x1		= ordered ? ax : bx;
+			this.y1		= ordered ? ay : by;
+			this.x2		= ordered ? bx : ax;
+			this.y2		= ordered ? by : ay;
+			this.angle	= atan2( y2 - y1, x2 - x1 );
+		}
+
+		/**
+		 * Indicates whether the segment ends at the given point
+		 * @param x the given x-coordinate
+		 * @param y the given y-coordinate
+		 * @param tolerance the given tolerance
+		 * @return true, if the right end-point is coincident with the given point
+		 */
+		boolean endsAt( final double x, final double y, final double tolerance ) {
+			return ( abs( x2 - x ) <= tolerance ) && ( abs( y2 - y ) <= tolerance );
+		}
+
+		/**
+		 * Returns the position of the segment along the sweep line, when the
+		 * sweep is at the given event point; a vertical segment is positioned
+		 * at the event point itself.
+		 * @param px the x-coordinate of the event point
+		 * @param py the y-coordinate of the event point
+		 * @return the y-coordinate of the segment at the sweep line
+		 */
+		double keyAt( final double px, final double py ) {
+			if( x1 == x2 ) {
+				return min( max( py, y1 ), y2 );
+			}
+			if( px <= x1 ) {
+				return y1;
+			}
+			if( px >= x2 ) {
+				return y2;
+			}
+			return y1 + ( y2 - y1 ) * ( px - x1 ) / ( x2 - x1 );
+		}
+
+		/**
+		 * Determines the intersection point of this segment and the given segment
+		 * @param that the given {@link Segment segment}
+		 * @return the intersection point as an {@link EventPoint event point},
+		 * or <tt>null</tt> if the segments do not intersect at a single point
+		 */
+		EventPoint intersect( final Segment that ) {
+			final double dax = x2 - x1;
+			final double day = y2 - y1;
+			final double dbx = that.x2 - that.x1;
+			final double dby = that.y2 - that.y1;
+
+			// are the segments parallel?
+			final double denom = dax * dby - day * dbx;
+			if( abs( denom ) <= EPSILON * ( abs( dax ) + abs( day ) ) * ( abs( dbx ) + abs( dby ) ) ) {
+				return null;
+			}
+
+			// compute the parameters of the intersection point along each segment
+			final double ex = that.x1 - x1;
+			final double ey = that.y1 - y1;
+			final double t = ( ex * dby - ey * dbx ) / denom;
+			final double u = ( ex * day - ey * dax ) / denom;
+			if( ( t < -EPSILON ) || ( t > 1d + EPSILON ) || ( u < -EPSILON ) || ( u > 1d + EPSILON ) ) {
+				return null;
+			}
+
+			// compute the intersection point
+			final double tc = min( max( t, 0d ), 1d );
+			return new EventPoint( x1 + tc * dax, y1 + tc * day );
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see constellation.app.math.IntersectionEngine.Bounded#getRepresentation()
+		 */
+		EntityRepresentation getRepresentation() {
+			return new LineXY( x1, y1, x2, y2 );
+		}
+	}
+
+	/**
+	 * Represents a (non-linear) curve
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Curve extends Bounded {
+		final EntityRepresentation rep;
+
+		/**
+		 * Creates a new curve
+		 * @param owner the index of the owning element
+		 * @param rep the given {@link EntityRepresentation representation}
+		 * @param bounds the {@link RectangleXY bounds} of the curve
+		 */
+		Curve( final int owner, final EntityRepresentation rep, final RectangleXY bounds ) {
+			super( owner, bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY() );
+			this.rep = rep;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see constellation.app.math.IntersectionEngine.Bounded#getRepresentation()
+		 */
+		EntityRepresentation getRepresentation() {
+			return rep;
+		}
+	}
+
+	/**
+	 * Represents an event point of the sweep; event points are
+	 * ordered from left to right, and then from bottom to top.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class EventPoint implements Comparable<EventPoint> {
+		final double x;
+		final double y;
+
+		/**
+		 * Creates a new event point
+		 * @param x the given x-coordinate
+		 * @param y the given y-coordinate
+		 */
+		EventPoint( final double x, final double y ) {
+			this.x = x;
+			this.y = y;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Comparable#compareTo(java.lang.Object)
+		 */
+		public int compareTo( final EventPoint that ) {
+			final int result = Double.compare( x, that.x );
+			return ( result != 0 ) ? result : Double.compare( y, that.y );
+		}
+	}
+
+	/**
+	 * Represents an intersection point between two (indexed) elements
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Hit {
+		final int ownerA;
+		final int ownerB;
+		final double x;
+		final double y;
+
+		/**
+		 * Creates a new hit
+		 * @param ownerA the index of the first element
+		 * @param ownerB the index of the second element
+		 * @param x the x-coordinate of the intersection point
+		 * @param y the y-coordinate of the intersection point
+		 */
+		Hit( final int ownerA, final int ownerB, final double x, final double y ) {
+			this.ownerA	= min( ownerA, ownerB );
+			this.ownerB	= max( ownerA, ownerB );
+			this.x		= x;
+			this.y		= y;
+		}
+	}
+
+	/**
+	 * Bentley-Ottmann sweep over the segments of a single slab; only the
+	 * intersections which lie within the slab are reported.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class SweepTask implements Callable<List<Hit>> {
+		private final TreeMap<EventPoint, List<Segment>> queue;
+		private final List<Segment> status;
+		private final List<Segment> segments;
+		private final List<Hit> hits;
+		private final double left;
+		private final double right;
+		private final double tolerance;
+
+		/**
+		 * Creates a new sweep
+		 * @param segments the {@link Segment segments} that overlap the slab
+		 * @param left the left boundary of the slab (inclusive)
+		 * @param right the right boundary of the slab (exclusive)
+		 * @param tolerance the distance within which points are considered coincident
+		 */
+		SweepTask( final List<Segment> segments, final double left, final double right, final double tolerance ) {
+			this.segments	= segments;
+			this.left		= left;
+			this.right		= right;
+			this.tolerance	= tolerance;
+			this.queue		= new TreeMap<EventPoint, List<Segment>>();
+			this.status		= new ArrayList<Segment>();
+			this.hits		= new ArrayList<Hit>();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		public List<Hit> call() {
+			// queue the end-points of the segments
+			for( final Segment segment : segments ) {
+				getEvent( new EventPoint( segment.x1, segment.y1 ) ).add( segment );
+				getEvent( new EventPoint( segment.x2, segment.y2 ) );
+			}
+
+			// process the event points up to the right boundary of the slab
+			while( !queue.isEmpty() ) {
+				final Map.Entry<EventPoint, List<Segment>> entry = queue.pollFirstEntry();
+				if( entry.getKey().x >= right ) {
+					break;
+				}
+				handleEventPoint( entry.getKey(), entry.getValue() );
+			}
+			return hits;
+		}
+
+		/**
+		 * Handles the given event point
+		 * @param p the given {@link EventPoint event point}
+		 * @param upper the {@link Segment segments} whose left end-point is the event point
+		 */
+		private void handleEventPoint( final EventPoint p, final List<Segment> upper ) {
+			final double px = p.x;
+			final double py = p.y;
+
+			// find the (contiguous) segments of the status which contain the event point
+			final int lo = lowerBound( px, py, py - tolerance );
+			int hi = lo;
+			while( ( hi < status.size() ) && ( status.get( hi ).keyAt( px, py ) <= py + tolerance ) ) {
+				hi++;
+			}
+
+			// report the intersection amongst all of the segments at the event point
+			if( upper.size() + ( hi - lo ) > 1 ) {
+				report( p, upper, status.subList( lo, hi ) );
+			}
+
+			// determine the segments which continue beyond the event point
+			final List<Segment> continuing = new ArrayList<Segment>( upper );
+			for( int n = lo; n < hi; n++ ) {
+				final Segment segment = status.get( n );
+				if( !segment.endsAt( px, py, tolerance ) ) {
+					continuing.add( segment );
+				}
+			}
+
+			// re-order the segments, as they are just beyond the event point
+			status.subList( lo, hi ).clear();
+			Collections.sort( continuing, ANGLE_ORDER );
+			status.addAll( lo, continuing );
+
+			// look for intersections amongst the new neighbors
+			if( continuing.isEmpty() ) {
+				if( ( lo > 0 ) && ( lo < status.size() ) ) {
+					findNewEvent( status.get( lo - 1 ), status.get( lo ), p );
+				}
+			}
+			else {
+				final int top = lo + continuing.size();
+				if( lo > 0 ) {
+					findNewEvent( status.get( lo - 1 ), status.get( lo ), p );
+				}
+				if( top < status.size() ) {
+					findNewEvent( status.get( top - 1 ), status.get( top ), p );
+				}
+			}
+		}
+
+		/**
+		 * Queues the intersection point of the given segments, if it lies beyond the given event point
+		 * @param below the given lower {@link Segment segment}
+		 * @param above the given upper {@link Segment segment}
+		 * @param p the current {@link EventPoint event point}
+		 */
+		private void findNewEvent( final Segment below, final Segment above, final EventPoint p ) {
+			final EventPoint q = below.intersect( above );
+			if( ( q != null ) &&
+				( ( q.x > p.x + tolerance ) || ( ( q.x >= p.x - tolerance ) && ( q.y > p.y + tolerance ) ) ) ) {
+				getEvent( q );
+			}
+		}
+
+		/**
+		 * Returns the segments whose left end-point is the given event point;
+		 * the event point is queued if necessary.
+		 * @param p the given {@link EventPoint event point}
+		 * @return the list of {@link Segment segments}
+		 */
+		private List<Segment> getEvent( final EventPoint p ) {
+			List<Segment> upper = queue.get( p );
+			if( upper == null ) {
+				queue.put( p, upper = new ArrayList<Segment>( 2 ) );
+			}
+			return upper;
+		}
+
+		/**
+		 * Returns the index of the first segment of the status whose
+		 * position along the sweep line is at least the given value
+		 * @param px the x-coordinate of the event point
+		 * @param py the y-coordinate of the event point
+		 * @param value the given position
+		 * @return the index of the segment
+		 */
+		private int lowerBound( final double px, final double py, final double value ) {
+			int lo = 0;
+			int hi = status.size();
+			while( lo < hi ) {
+				final int mid = ( lo + hi ) >>> 1;
+				if( status.get( mid ).keyAt( px, py ) < value ) {
+					lo = mid + 1;
+				}
+				else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+
+		/**
+		 * Reports the intersection of the given segments at the given event point
+		 * @param p the given {@link EventPoint event point}
+		 * @param upper the {@link Segment segments} whose left end-point is the event point
+		 * @param containing the {@link Segment segments} which otherwise contain the event point
+		 */
+		private void report( final EventPoint p, final List<Segment> upper, final List<Segment> containing ) {
+			// is the event point outside of the slab?
+			if( p.x < left ) {
+				return;
+			}
+
+			// report each pair of distinct elements
+			final List<Segment> involved = new ArrayList<Segment>( upper );
+			involved.addAll( containing );
+			for( int i = 0; i < involved.size(); i++ ) {
+				for( int j = i + 1; j < involved.size(); j++ ) {
+					final int ownerA = involved.get( i ).owner;
+					final int ownerB = involved.get( j ).owner;
+					if( ownerA != ownerB ) {
+						hits.add( new Hit( ownerA, ownerB, p.x, p.y ) );
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolves a batch of candidate curve pairs
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class CurveTask implements Callable<List<Hit>> {
+		private final List<Bounded[]> pairs;
+		private final double tolerance;
+
+		/**
+		 * Creates a new task
+		 * @param pairs the candidate pairs of {@link Bounded items}
+		 * @param tolerance the distance within which points are considered coincident
+		 */
+		CurveTask( final List<Bounded[]> pairs, final double tolerance ) {
+			this.pairs		= pairs;
+			this.tolerance	= tolerance;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		public List<Hit> call() {
+			final List<Hit> hits = new ArrayList<Hit>();
+			for( final Bounded[] pair : pairs ) {
+				final Bounded a = pair[0];
+				final Bounded b = pair[1];
+
+				// compute the intersection points
+				final Intersection intersection;
+				try {
+					intersection = CxIntersectionUtil.getIntersectionPoints( a.getRepresentation(), b.getRepresentation() );
+				}
+				catch( final IllegalArgumentException e ) {
+					// the combination of curves is not supported
+					continue;
+				}
+
+				// keep the points that lie within both items
+				if( !intersection.hasError() ) {
+					for( final PointXY point : intersection.getPoints() ) {
+						if( a.contains( point.x, point.y, tolerance ) && b.contains( point.x, point.y, tolerance ) ) {
+							hits.add( new Hit( a.owner, b.owner, point.x, point.y ) );
+						}
+					}
+				}
+			}
+			return hits;
+		}
+	}
+
+}
@@ -0,0 +1,237 @@
+package constellation.app.math;
+
+import static java.lang.Math.abs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.PointXY;
+
+/**
+ * Represents the intersections found amongst a set of elements; each
+ * {@link Crossing crossing} is indexed by both of the elements involved.
+ * @see IntersectionEngine
+ * @author lawrence.daniels@gmail.com
+ */
+public class IntersectionGraph {
+	private static final List<Crossing> NO_CROSSINGS = Collections.emptyList();
+	private final Map<ModelElement, List<Crossing>> index;
+	private final List<Crossing> crossings;
+	private final double tolerance;
+
+	/**
+	 * Creates a new intersection graph
+	 * @param crossings the given {@link Crossing crossings}
+	 * @param tolerance the distance within which points are considered coincident
+	 */
+	IntersectionGraph( final List<Crossing> crossings, final double tolerance ) {
+		this.crossings	= crossings;
+		this.tolerance	= tolerance;
+		this.index		= new IdentityHashMap<ModelElement, List<Crossing>>();
+
+		// index the crossings by element
+		for( final Crossing crossing : crossings ) {
+			add( crossing.elementA, crossing );
+			add( crossing.elementB, crossing );
+		}
+	}
+
+	/**
+	 * Returns all of the crossings
+	 * @return the list of {@link Crossing crossings}
+	 */
+	public List<Crossing> getCrossings() {
+		return crossings;
+	}
+
+	/**
+	 * Returns the crossings of the given element
+	 * @param element the given {@link ModelElement element}
+	 * @return the list of {@link Crossing crossings}
+	 */
+	public List<Crossing> getCrossings( final ModelElement element ) {
+		final List<Crossing> list = index.get( element );
+		return ( list != null ) ? list : NO_CROSSINGS;
+	}
+
+	/**
+	 * Returns the crossings between the given elements
+	 * @param elementA the given {@link ModelElement element A}
+	 * @param elementB the given {@link ModelElement element B}
+	 * @return the list of {@link Crossing crossings}
+	 */
+	public List<Crossing> getCrossings( final ModelElement elementA, final ModelElement elementB ) {
+		final List<Crossing> list = new ArrayList<Crossing>();
+		for( final Crossing crossing : getCrossings( elementA ) ) {
+			if( crossing.getOther( elementA ) == elementB ) {
+				list.add( crossing );
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the elements that have at least one crossing
+	 * @return the collection of {@link ModelElement elements}
+	 */
+	public List<ModelElement> getElements() {
+		return new ArrayList<ModelElement>( index.keySet() );
+	}
+
+	/**
+	 * Returns the distinct intersection points
+	 * @return the list of distinct {@link PointXY points}
+	 */
+	public List<PointXY> getPoints() {
+		return getDistinctPoints( crossings );
+	}
+
+	/**
+	 * Returns the distinct intersection points of the given element
+	 * @param element the given {@link ModelElement element}
+	 * @return the list of distinct {@link PointXY points}
+	 */
+	public List<PointXY> getPoints( final ModelElement element ) {
+		return getDistinctPoints( getCrossings( element ) );
+	}
+
+	/**
+	 * Returns the distance within which points are considered coincident
+	 * @return the tolerance
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * Indicates whether no intersections were found
+	 * @return true, if no intersections were found
+	 */
+	public boolean isEmpty() {
+		return crossings.isEmpty();
+	}
+
+	/**
+	 * Returns the number of crossings
+	 * @return the number of crossings
+	 */
+	public int size() {
+		return crossings.size();
+	}
+
+	/**
+	 * Indexes the given crossing by the given element
+	 * @param element the given {@link ModelElement element}
+	 * @param crossing the given {@link Crossing crossing}
+	 */
+	private void add( final ModelElement element, final Crossing crossing ) {
+		List<Crossing> list = index.get( element );
+		if( list == null ) {
+			index.put( element, list = new ArrayList<Crossing>( 4 ) );
+		}
+		list.add( crossing );
+	}
+
+	/**
+	 * Returns the distinct points of the given crossings
+	 * @param crossings the given {@link Crossing crossings}
+	 * @return the list of distinct {@link PointXY points}
+	 */
+	private List<PointXY> getDistinctPoints( final List<Crossing> crossings ) {
+		// sort the points by their X-coordinate
+		final List<PointXY> points = new ArrayList<PointXY>( crossings.size() );
+		for( final Crossing crossing : crossings ) {
+			points.add( crossing.point );
+		}
+		Collections.sort( points, new Comparator<PointXY>() {
+			public int compare( final PointXY a, final PointXY b ) {
+				return Double.compare( a.x, b.x );
+			}
+		});
+
+		// eliminate the coincident points
+		final List<PointXY> distinct = new ArrayList<PointXY>( points.size() );
+		for( final PointXY point : points ) {
+			boolean unique = true;
+			for( int n = distinct.size() - 1; ( n >= 0 ) && ( point.x - distinct.get( n ).x <= tolerance ); n-- ) {
+				if( abs( point.y - distinct.get( n ).y ) <= tolerance ) {
+					unique = false;
+					break;
+				}
+			}
+			if( unique ) {
+				distinct.add( point );
+			}
+		}
+		return distinct;
+	}
+
+	/**
+	 * Represents an intersection point between two elements
+	 * @author lawrence.daniels@gmail.com
+	 */
+	public static class Crossing {
+		private final ModelElement elementA;
+		private final ModelElement elementB;
+		private final PointXY point;
+
+		/**
+		 * Creates a new crossing
+		 * @param elementA the given {@link ModelElement element A}
+		 * @param elementB the given {@link ModelElement element B}
+		 * @param point the given intersection {@link PointXY point}
+		 */
+		public Crossing( final ModelElement elementA, final ModelElement elementB, final PointXY point ) {
+			this.elementA	= elementA;
+			this.elementB	= elementB;
+			this.point		= point;
+		}
+
+		/**
+		 * Returns the first element
+		 * @return the {@link ModelElement element}
+		 */
+		public ModelElement getElementA() {
+			return elementA;
+		}
+
+		/**
+		 * Returns the second element
+		 * @return the {@link ModelElement element}
+		 */
+		public ModelElement getElementB() {
+			return elementB;
+		}
+
+		/**
+		 * Returns the element opposite to the given element
+		 * @param element the given {@link ModelElement element}
+		 * @return the opposite {@link ModelElement element}
+		 */
+		public ModelElement getOther( final ModelElement element ) {
+			return ( element == elementA ) ? elementB : elementA;
+		}
+
+		/**
+		 * Returns the intersection point
+		 * @return the intersection {@link PointXY point}
+		 */
+		public PointXY getPoint() {
+			return point;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		public String toString() {
+			return String.format( "%s x %s @ %s", elementA, elementB, point );
+		}
+	}
+
+}
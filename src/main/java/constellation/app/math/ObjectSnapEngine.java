@@ -0,0 +1,227 @@
+package constellation.app.math;
+
+import static java.lang.Math.max;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import constellation.ApplicationController;
+import constellation.app.math.IntersectionGraph.Crossing;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.PointXY;
+import constellation.drawing.entities.RectangleXY;
+import constellation.math.MatrixWCStoSCS;
+import constellation.model.GeometricModel;
+import constellation.model.ModelChangeType;
+import constellation.model.SnapPoint;
+import constellation.model.SnapType;
+
+/**
+ * Constellation Object Snap Engine
+ * <div>
+ * Determines the point to which the cursor snaps: the nearest of the
+ * snap points maintained by the model's {@link constellation.model.SnapIndex snap index}
+ * (end points, midpoints, centers and quadrants), and of the intersections
+ * of the elements beneath the cursor. The intersections of each set of
+ * elements beneath the cursor are cached until the model changes.
+ * </div>
+ * @author lawrence.daniels@gmail.com
+ */
+public class ObjectSnapEngine {
+	private static final IntersectionCache cache = new IntersectionCache();
+	private static final int MAX_CANDIDATES = 32;
+	private static final int CACHE_SIZE = 16;
+
+	/**
+	 * Returns the snap point nearest to the given screen position,
+	 * within the selection boundary
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param mousePos the given screen position
+	 * @return the nearest {@link SnapPoint snap point}, or <tt>null</tt> if none is within range
+	 */
+	public static SnapPoint lookupSnapPoint( final ApplicationController controller, final Point mousePos ) {
+		return lookupSnapPoint( controller.getModel(), controller.getMatrix(), controller.getSelectionBoundary( mousePos ) );
+	}
+
+	/**
+	 * Returns the snap point nearest to the center of the given selection boundary;
+	 * as the view is given explicitly, this method may be called from any thread.
+	 * @param model the given {@link GeometricModel model}
+	 * @param matrix the given {@link MatrixWCStoSCS matrix}
+	 * @param bounds the given on-screen selection {@link Rectangle boundary}
+	 * @return the nearest {@link SnapPoint snap point}, or <tt>null</tt> if none is within range
+	 */
+	public static SnapPoint lookupSnapPoint( final GeometricModel model,
+											 final MatrixWCStoSCS matrix,
+											 final Rectangle bounds ) {
+		// determine the model space position and tolerance
+		final RectangleXY boundary = matrix.untransform( bounds );
+		final double tolerance = max( boundary.getWidth(), boundary.getHeight() ) / 2d;
+		final double x = boundary.getCenterX();
+		final double y = boundary.getCenterY();
+
+		// find the nearest indexed snap point
+		SnapPoint nearest = model.lookupSnapPoint( x, y, tolerance );
+		double distance = ( nearest != null ) ? PointXY.getDistance( x, y, nearest.getX(), nearest.getY() ) : tolerance;
+
+		// find the nearest intersection of the elements beneath the cursor
+		for( final SnapPoint point : getIntersections( model, matrix, boundary ) ) {
+			final double d = PointXY.getDistance( x, y, point.getX(), point.getY() );
+			if( d <= distance ) {
+				nearest  = point;
+				distance = d;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Returns the point to which the given mouse click snaps
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param mousePos the given screen position
+	 * @return the snapped {@link PointXY point}, or the model space
+	 * position of the mouse click if there is no snap point within range
+	 */
+	public static PointXY getSnappedPoint( final ApplicationController controller, final Point mousePos ) {
+		final SnapPoint point = lookupSnapPoint( controller, mousePos );
+		return ( point != null ) ? point.getPoint() : controller.untransform( mousePos );
+	}
+
+	/**
+	 * Returns the intersections of the elements beneath the cursor
+	 * @param model the given {@link GeometricModel model}
+	 * @param matrix the given {@link MatrixWCStoSCS matrix}
+	 * @param boundary the given model space selection {@link RectangleXY boundary}
+	 * @return the list of intersection {@link SnapPoint snap points}
+	 */
+	private static List<SnapPoint> getIntersections( final GeometricModel model,
+													 final MatrixWCStoSCS matrix,
+													 final RectangleXY boundary ) {
+		// find the elements beneath the cursor
+		final List<ModelElement> candidates = new ArrayList<ModelElement>();
+		model.getVisibleElements( candidates, boundary );
+		final List<ModelElement> elements = new ArrayList<ModelElement>( candidates.size() );
+		for( final ModelElement element : candidates ) {
+			if( element.intersects( boundary, matrix ) ) {
+				elements.add( element );
+			}
+		}
+
+		// at least two (but not too many) elements are required
+		if( ( elements.size() < 2 ) || ( elements.size() > MAX_CANDIDATES ) ) {
+			return Collections.emptyList();
+		}
+
+		// lookup (or compute) the intersections
+		return cache.lookup( model, elements );
+	}
+
+	/**
+	 * Represents a cache of the intersections of recently encountered sets of
+	 * elements; the cache is invalidated whenever the model changes.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class IntersectionCache {
+		private final Map<ElementSet, List<SnapPoint>> entries;
+		private GeometricModel model;
+		private long physicalTime;
+
+		/**
+		 * Default constructor
+		 */
+		@SuppressWarnings("serial")
+		public IntersectionCache() {
+			this.entries = new LinkedHashMap<ElementSet, List<SnapPoint>>( CACHE_SIZE, 0.75f, true ) {
+				protected boolean removeEldestEntry( final Map.Entry<ElementSet, List<SnapPoint>> eldest ) {
+					return size() > CACHE_SIZE;
+				}
+			};
+		}
+
+		/**
+		 * Returns the intersections of the given elements
+		 * @param model the given {@link GeometricModel model}
+		 * @param elements the given list of {@link ModelElement elements}
+		 * @return the list of intersection {@link SnapPoint snap points}
+		 */
+		public synchronized List<SnapPoint> lookup( final GeometricModel model, final List<ModelElement> elements ) {
+			// has the model changed?
+			final long changeTime = model.getLastChangeTime( ModelChangeType.PHYSICAL );
+			if( ( model != this.model ) || ( changeTime != physicalTime ) ) {
+				entries.clear();
+				this.model 			= model;
+				this.physicalTime 	= changeTime;
+			}
+
+			// are the intersections cached?
+			final ElementSet key = new ElementSet( elements );
+			List<SnapPoint> points = entries.get( key );
+			if( points == null ) {
+				// compute the intersections
+				final IntersectionGraph graph = IntersectionEngine.compute( elements );
+				points = new ArrayList<SnapPoint>( graph.size() );
+				for( final Crossing crossing : graph.getCrossings() ) {
+					final PointXY p = crossing.getPoint();
+					points.add( new SnapPoint( crossing.getElementA(), SnapType.INTERSECTION, p.x, p.y ) );
+				}
+				entries.put( key, points );
+			}
+			return points;
+		}
+	}
+
+	/**
+	 * Represents an unordered set of elements, compared by identity
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class ElementSet {
+		private final Set<ModelElement> elements;
+		private final int hashCode;
+
+		/**
+		 * Creates a new element set
+		 * @param elements the given list of {@link ModelElement elements}
+		 */
+		public ElementSet( final List<ModelElement> elements ) {
+			this.elements = Collections.newSetFromMap( new IdentityHashMap<ModelElement, Boolean>() );
+			this.elements.addAll( elements );
+
+			// the hash code is independent of the order of the elements
+			int hash = 0;
+			for( final ModelElement element : this.elements ) {
+				hash += System.identityHashCode( element );
+			}
+			this.hashCode = hash;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		public boolean equals( final Object object ) {
+			if( !( object instanceof ElementSet ) ) {
+				return false;
+			}
+			final ElementSet that = (ElementSet)object;
+			return ( that.hashCode == hashCode ) &&
+				   ( that.elements.size() == elements.size() ) &&
+				   that.elements.containsAll( elements );
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+}
@@ -55,11 +55,16 @@ public class CxSystemPreferences implements SystemPreferences {
 	
 	// display preference fields
 	private boolean antiAliasing;
+	private boolean retainedRendering;
+	private int detailThreshold;
 	private boolean showComments;
 	private boolean showGrids;
 	private boolean showPhantoms;
 	private boolean showPointLabels;
 	
+	// history preference fields
+	private int undoMemoryLimit;
+	
 	// color preference fields
 	private Color axisColor;
 	private Color backgroundColor;
@@ -88,11 +93,16 @@ public class CxSystemPreferences implements SystemPreferences {
 		
 		// set display hints
 		this.antiAliasing				= false;
+		this.retainedRendering			= true;
+		this.detailThreshold			= 2;
 		this.showComments				= true;
 		this.showGrids					= true;
 		this.showPhantoms				= true;
 		this.showPointLabels			= false;
 		
+		// set the history preferences
+		this.undoMemoryLimit			= 16;
+		
 		// set the color preferences
 		this.axisColor					= AXIS_COLOR;
 		this.backgroundColor			= BACKGROUND_COLOR;
@@ -450,6 +460,65 @@ public class CxSystemPreferences implements SystemPreferences {
 		this.lastModified = System.currentTimeMillis();
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.preferences.SystemPreferences#isRetainedRendering()
+	 */
+	public boolean isRetainedRendering() {
+		return retainedRendering;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.preferences.SystemPreferences#setRetainedRendering(boolean)
+	 */
+	public void setRetainedRendering( final boolean retainedRendering ) {
+		this.retainedRendering = retainedRendering;
+		this.lastModified = System.currentTimeMillis();
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.preferences.SystemPreferences#getDetailThreshold()
+	 */
+	public int getDetailThreshold() {
+		return detailThreshold;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.preferences.SystemPreferences#setDetailThreshold(int)
+	 */
+	public void setDetailThreshold( final int detailThreshold ) {
+		this.detailThreshold = ( detailThreshold > 0 ) ? detailThreshold : 0;
+		this.lastModified = System.currentTimeMillis();
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.preferences.SystemPreferences#getUndoMemoryLimit()
+	 */
+	public int getUndoMemoryLimit() {
+		return undoMemoryLimit;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.preferences.SystemPreferences#setUndoMemoryLimit(int)
+	 */
+	public void setUndoMemoryLimit( final int undoMemoryLimit ) {
+		this.undoMemoryLimit = ( undoMemoryLimit > 0 ) ? undoMemoryLimit : 1;
+		this.lastModified = System.currentTimeMillis();
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.preferences.SystemPreferences#getLastModifiedTime()
+	 */
+	public long getLastModifiedTime() {
+		return lastModified;
+	}
+	
 	/* 
 	 * (non-Javadoc)
 	 * @see constellation.SystemPreferences#showComments()
@@ -29,7 +29,7 @@ import constellation.preferences.ThirdPartyModuleTypes;
 public class CxSystemPreferencesReader extends DefaultHandler {
 	private static enum TAG_ENUMS { 
 		COLOR_PREFS, CONST_CONFIG, DEVELOPER_PREFS, 
-		FRAME_SIZE, THIRD_PARTY_MODULE, VISIBILITY_PREFS
+		FRAME_SIZE, HISTORY_PREFS, THIRD_PARTY_MODULE, VISIBILITY_PREFS
 	};
 	private static final Map<String, ThirdPartyModuleTypes> MODULE_TYPES = createThirdPartyModuleType();
 	private static final Map<String,TAG_ENUMS> TAGS;
@@ -46,6 +46,7 @@ public class CxSystemPreferencesReader extends DefaultHandler {
 		TAGS.put( "ConstellationConfig",	TAG_ENUMS.CONST_CONFIG );
 		TAGS.put( "DeveloperPreferences",	TAG_ENUMS.DEVELOPER_PREFS );
 		TAGS.put( "FrameSize",				TAG_ENUMS.FRAME_SIZE );
+		TAGS.put( "HistoryPreferences",		TAG_ENUMS.HISTORY_PREFS );
 		TAGS.put( "ThirdPartyModule",		TAG_ENUMS.THIRD_PARTY_MODULE );
 		TAGS.put( "VisibilityPreferences",	TAG_ENUMS.VISIBILITY_PREFS );
 	}
@@ -164,6 +165,7 @@ public class CxSystemPreferencesReader extends DefaultHandler {
 				case COLOR_PREFS:			colorPreferencesStart( attribs ); break;
 				case DEVELOPER_PREFS:		developerPreferencesStart( attribs ); break;
 				case FRAME_SIZE:			frameSizeStart( attribs ); break;
+				case HISTORY_PREFS:			historyPreferencesStart( attribs ); break;
 				case THIRD_PARTY_MODULE:	thirdPartyModuleStart( attribs ); break;
 				case VISIBILITY_PREFS:		visibilityPreferencesStart( attribs ); break;
 			}
@@ -266,6 +268,18 @@ public class CxSystemPreferencesReader extends DefaultHandler {
 		preferences.addThirdPartyModule( module );
 	}
 	
+	/** 
+	 * Handles the 'HistoryPreferences' tag
+	 * @param attribs the given {@link Properties attributes}
+	 * @throws SAXException 
+	 */
+	private void historyPreferencesStart( final Properties attribs ) 
+	throws SAXException {
+		if( attribs.containsKey( "memoryLimit" ) ) {
+			preferences.setUndoMemoryLimit( getParamInt( attribs, "memoryLimit", false ) );
+		}
+	}
+	
 	/** 
 	 * Handles the 'VisibilityPreferences' tag
 	 * @param attribs the given {@link Properties attributes}
@@ -274,6 +288,12 @@ public class CxSystemPreferencesReader extends DefaultHandler {
 	private void visibilityPreferencesStart( final Properties attribs ) 
 	throws SAXException {
 		preferences.setAntiAliasing( getParamBoolean( attribs, "antialiasing" ) );
+		if( attribs.containsKey( "retainedRendering" ) ) {
+			preferences.setRetainedRendering( getParamBoolean( attribs, "retainedRendering" ) );
+		}
+		if( attribs.containsKey( "detailThreshold" ) ) {
+			preferences.setDetailThreshold( getParamInt( attribs, "detailThreshold", false ) );
+		}
 		preferences.showComments( getParamBoolean( attribs, "comments" ) );
 		preferences.showGrids( getParamBoolean( attribs, "grids" ) );
 		preferences.showPhantoms( getParamBoolean( attribs, "phantoms" ) );
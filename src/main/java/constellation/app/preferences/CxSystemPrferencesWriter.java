@@ -85,13 +85,19 @@ public class CxSystemPrferencesWriter {
 				preferences.isDebugMode() );
 		
 		// write the visibility preferences
-		out.printf( "\t<VisibilityPreferences antialiasing='%s' comments='%s' grids='%s' phantoms='%s' pointLabels='%s' />\n", 
+		out.printf( "\t<VisibilityPreferences antialiasing='%s' retainedRendering='%s' detailThreshold='%d' comments='%s' grids='%s' phantoms='%s' pointLabels='%s' />\n", 
 				preferences.isAntiAliasing(),
+				preferences.isRetainedRendering(),
+				preferences.getDetailThreshold(),
 				preferences.showComments(), 
 				preferences.showGrids(), 
 				preferences.showPhantoms(),
 				preferences.showPointLabels() );
 		
+		// write the history preferences
+		out.printf( "\t<HistoryPreferences memoryLimit='%d' />\n", 
+				preferences.getUndoMemoryLimit() );
+		
 		// write the third party module information
 		writeThirdPartyModules( out, preferences.getThirdPartyModules() );
 		
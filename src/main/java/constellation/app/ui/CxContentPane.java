@@ -55,6 +55,7 @@ import java.util.LinkedList;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JPopupMenu;
+import javax.swing.SwingUtilities;
 
 import org.apache.log4j.Logger;
 
@@ -62,6 +63,8 @@ import constellation.ApplicationController;
 import constellation.CxFontManager;
 import constellation.PluginManager;
 import constellation.app.CxApplicationController;
+import constellation.app.functions.HoverHighlightService;
+import constellation.app.functions.SnapPointService;
 import constellation.app.functions.IndexedModelElement;
 import constellation.app.functions.InputDialog;
 import constellation.app.functions.PickListDialog;
@@ -110,6 +113,7 @@ public class CxContentPane extends CxPanel {
 	private final StatusBarPane statusBar;
 	private final DrawingPane drawingPane;
 	private final JFrame frame;
+	private final FrameReadyHandler frameReadyHandler = new FrameReadyHandler();
 	
 	// miscellaneous fields
 	private PickListDialog pickListDialog;
@@ -244,6 +248,7 @@ public class CxContentPane extends CxPanel {
 		model.clearPickedElement();
 		model.clearSelectedElements();
 		model.clearTemporaryElement();
+		model.clearSnapPoint();
 		
 		// request a redraw
 		render();
@@ -450,6 +455,19 @@ public class CxContentPane extends CxPanel {
 	 * content pane (virtual screen)
 	 */
 	public void render() {
+		// re-draw the scene
+		renderScene();
+			
+		// does this drawing pane have the focus?
+		this.requestFocus();
+	}
+	
+	/**
+	 * Re-draws the scene into the drawing pane's off-screen buffer; 
+	 * expensive scenes are completed in the background, after which
+	 * the scene is re-drawn once more.
+	 */
+	private void renderScene() {
 		// get the model instance
 		final GeometricModel model = controller.getModel();
 		
@@ -462,14 +480,11 @@ public class CxContentPane extends CxPanel {
 		final Camera camera = controller.getCamera();
 		synchronized( camera ) {
 			// allow the camera to re-draw the scene
-			camera.render( controller, model, drawingPane.getBuffer() );	
+			camera.render( controller, model, drawingPane.getBuffer(), frameReadyHandler );	
 			
 			// render the drawing pane
 			repaint();
 		}
-			
-		// does this drawing pane have the focus?
-		this.requestFocus();
 	}
 	
 	/////////////////////////////////////////////////////////////////////
@@ -510,6 +525,31 @@ public class CxContentPane extends CxPanel {
 		}
 	}
 
+	/////////////////////////////////////////////////////////////////////////
+	//		Frame Ready Handler (Inner Class)
+	/////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Frame Ready Handler: re-draws the scene on the event dispatch thread 
+	 * once the camera has finished rendering a frame in the background
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class FrameReadyHandler implements Runnable {
+		private final Runnable task = new Runnable() {
+			public void run() {
+				renderScene();
+			}
+		};
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			SwingUtilities.invokeLater( task );
+		}
+	}
+	
 	/////////////////////////////////////////////////////////////////////////
 	//		Component Resize Handler (Inner Class)
 	/////////////////////////////////////////////////////////////////////////
@@ -934,9 +974,12 @@ public class CxContentPane extends CxPanel {
 		 * @see java.awt.event.MouseListener#mouseExited(java.awt.event.MouseEvent)
 		 */
 		public void mouseExited( final MouseEvent event ) {
-			// clear the highlights
+			// clear the highlights (including any pending ones)
+			HoverHighlightService.getInstance().cancel();
+			SnapPointService.getInstance().cancel();
 			final GeometricModel model = controller.getModel();
 			model.clearHighlightedGeometry();
+			model.clearSnapPoint();
 			
 			// update the space position
 			updateMouseXY( event );
@@ -41,6 +41,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 
 import javax.swing.Icon;
@@ -70,6 +71,8 @@ import constellation.app.functions.curve.CircleTangentFunction;
 import constellation.app.functions.curve.CurveParallelFunction;
 import constellation.app.functions.curve.Ellipse2PtsFunction;
 import constellation.app.functions.curve.Ellipse3PtsFunction;
+import constellation.app.functions.curve.NurbsSplineFunction;
+import constellation.app.functions.curve.ParametricCurveFunction;
 import constellation.app.functions.curve.SpiralFunction;
 import constellation.app.functions.edit.CopyFunction;
 import constellation.app.functions.edit.EntityEditorFunction;
@@ -124,6 +127,7 @@ import constellation.functions.FunctionAction;
 import constellation.functions.FunctionManager;
 import constellation.model.DefaultGeometricModel;
 import constellation.model.GeometricModel;
+import constellation.model.ModelHistory;
 import constellation.model.formats.ModelFormatManager;
 import constellation.model.formats.ModelFormatReader;
 import constellation.model.formats.ModelFormatWriter;
@@ -342,8 +346,27 @@ public class CxMenuBar extends JMenuBar {
 		 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
 		 */
 		public void actionPerformed( final ActionEvent event ) {
-			// TODO Auto-generated method stub
-			controller.showErrorDialog( "Function not yet implemented", "Redo" );
+			// get the model's history
+			final GeometricModel model = controller.getModel();
+			final ModelHistory history = ModelHistory.lookup( model );
+			if( history == null ) {
+				controller.setStatusMessage( "The changes to the model are not recorded" );
+				return;
+			}
+			
+			// redo the most recent transaction
+			try {
+				final int changes = history.redo( model );
+				controller.setStatusMessage( ( changes > 0 ) ? format( "Redid %d change(s)", changes ) : "Nothing to redo" );
+				controller.requestRedraw();
+			}
+			catch( final IOException e ) {
+				controller.showErrorDialog( "Redo", e );
+			}
+			catch( final IllegalArgumentException e ) {
+				// the model rejected a change (e.g. a label has been re-used meanwhile)
+				controller.showErrorDialog( "Redo", e );
+			}
 		}
 		
 	}
@@ -368,8 +391,27 @@ public class CxMenuBar extends JMenuBar {
 		 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
 		 */
 		public void actionPerformed( final ActionEvent event ) {
-			// TODO Auto-generated method stub
-			controller.showErrorDialog( "Function not yet implemented", "Undo" );
+			// get the model's history
+			final GeometricModel model = controller.getModel();
+			final ModelHistory history = ModelHistory.lookup( model );
+			if( history == null ) {
+				controller.setStatusMessage( "The changes to the model are not recorded" );
+				return;
+			}
+			
+			// undo the most recent transaction
+			try {
+				final int changes = history.undo( model );
+				controller.setStatusMessage( ( changes > 0 ) ? format( "Undid %d change(s)", changes ) : "Nothing to undo" );
+				controller.requestRedraw();
+			}
+			catch( final IOException e ) {
+				controller.showErrorDialog( "Undo", e );
+			}
+			catch( final IllegalArgumentException e ) {
+				// the model rejected a change (e.g. a label has been re-used meanwhile)
+				controller.showErrorDialog( "Undo", e );
+			}
 		}
 	}
 	
@@ -460,7 +502,7 @@ public class CxMenuBar extends JMenuBar {
 					model.setModelFile( file );
 					
 					// save the model
-					final ModelFormatWriter writer = formatManager.getDefaultWriter();
+					final ModelFormatWriter writer = formatManager.getFormatWriter( model.getModelFile() );
 					writer.writeFile( model );
 					
 					// alert the user
@@ -670,7 +712,7 @@ public class CxMenuBar extends JMenuBar {
 		private void saveModel( final GeometricModel model ) {
 			try {
 				// save the model
-				final ModelFormatWriter writer = formatManager.getDefaultWriter();
+				final ModelFormatWriter writer = formatManager.getFormatWriter( model.getModelFile() );
 				writer.writeFile( model );
 				
 				// alert the user
@@ -843,6 +885,8 @@ public class CxMenuBar extends JMenuBar {
 			add( new JSeparator() );
 			
 			add( new FxMenuItem( "Spline: Bezier", getKeyStroke( VK_B, ALT_MASK ), BezierSplineFunction.class ) );
+			add( new FxMenuItem( "Spline: NURBS", null, NurbsSplineFunction.class ) );
+			add( new FxMenuItem( "Curve: Parametric", null, ParametricCurveFunction.class ) );
 			add( new FxMenuItem( "Curve: Parallel", null, CurveParallelFunction.class ) );
 		}
 	}
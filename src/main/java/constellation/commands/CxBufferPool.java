@@ -0,0 +1,76 @@
+package constellation.commands;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Constellation Buffer Pool. Command frames are received into, and encoded 
+ * in direct buffers, which can be transferred to and from channels without 
+ * intermediate copies, but which are expensive to allocate; thus released 
+ * buffers are retained for re-use. Buffers are pooled by capacity (in powers 
+ * of two), and requests exceeding the largest size class are satisfied with
+ * (unpooled) heap buffers.
+ * @author lawrence.daniels@gmail.com
+ */
+final class CxBufferPool {
+	private static final int MIN_SHIFT	= 12;	// 4 KB
+	private static final int MAX_SHIFT	= 20;	// 1 MB
+	private static final int MAX_POOLED	= 16;	// buffers per size class
+	private static final List<ConcurrentLinkedQueue<ByteBuffer>> pools = createPools();
+	
+	/**
+	 * Private constructor
+	 */
+	private CxBufferPool() {
+		super();
+	}
+	
+	/**
+	 * Returns a cleared buffer having at least the given capacity
+	 * @param capacity the given minimum capacity
+	 * @return the {@link ByteBuffer buffer}
+	 */
+	public static ByteBuffer acquire( final int capacity ) {
+		// determine the size class of the buffer
+		final int shift = Math.max( MIN_SHIFT, 32 - Integer.numberOfLeadingZeros( capacity - 1 ) );
+		if( shift > MAX_SHIFT ) {
+			return ByteBuffer.allocate( capacity );
+		}
+		
+		// re-use a pooled buffer, or allocate a new one
+		final ByteBuffer buffer = pools.get( shift ).poll();
+		if( buffer == null ) {
+			return ByteBuffer.allocateDirect( 1 << shift );
+		}
+		buffer.clear();
+		return buffer;
+	}
+	
+	/**
+	 * Returns the given buffer to the pool; the buffer must not be used afterwards.
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 */
+	public static void release( final ByteBuffer buffer ) {
+		if( buffer.isDirect() ) {
+			final ConcurrentLinkedQueue<ByteBuffer> pool = pools.get( Integer.numberOfTrailingZeros( buffer.capacity() ) );
+			if( pool.size() < MAX_POOLED ) {
+				pool.offer( buffer );
+			}
+		}
+	}
+	
+	/**
+	 * Creates the pools of the size classes
+	 * @return the list of pools (indexed by the size class)
+	 */
+	private static List<ConcurrentLinkedQueue<ByteBuffer>> createPools() {
+		final List<ConcurrentLinkedQueue<ByteBuffer>> pools = new ArrayList<ConcurrentLinkedQueue<ByteBuffer>>( MAX_SHIFT + 1 );
+		for( int shift = 0; shift <= MAX_SHIFT; shift++ ) {
+			pools.add( ( shift >= MIN_SHIFT ) ? new ConcurrentLinkedQueue<ByteBuffer>() : null );
+		}
+		return pools;
+	}
+	
+}
@@ -0,0 +1,219 @@
+package constellation.commands;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import constellation.commands.builtin.ClearPickedElementCommand;
+import constellation.commands.builtin.ClearSelectedElementsCommand;
+import constellation.commands.builtin.ClearTempElementCommand;
+import constellation.commands.builtin.SelectAllCommand;
+import constellation.commands.builtin.SelectElementCommand;
+import constellation.commands.builtin.SelectElementsCommand;
+import constellation.commands.builtin.SelectEntityCommand;
+import constellation.commands.builtin.SetPickedCommand;
+import constellation.commands.builtin.SetTempElementCommand;
+import constellation.commands.builtin.SetTempElementHUDCommand;
+
+/**
+ * Constellation Command Batcher. Groups the commands received by a
+ * {@link CxCommandReader command reader} into batches, so that each batch
+ * may be applied to the model at once, and followed by a single redraw.
+ * Batches are delivered no more often than once per frame interval; the
+ * commands which arrive in the meantime are added to the pending batch,
+ * as are the commands of a burst (e.g. a bulk paste) that is still arriving
+ * when the frame interval has elapsed.
+ * @author lawrence.daniels@gmail.com
+ */
+public class CxCommandBatcher {
+	// the minimum interval (in milliseconds) between batches (i.e. 30 frames/second)
+	public static final long FRAME_INTERVAL = 1000 / 30;
+	// the maximum gap (in milliseconds) between the commands of a burst
+	public static final long BURST_GAP = 5;
+	// the maximum time (in milliseconds) a batch may be extended by a burst
+	public static final long MAX_LATENCY = 500;
+	// the maximum number of commands per batch
+	public static final int MAX_BATCH_SIZE = 65536;
+	private final CxCommandReader reader;
+	private long lastDelivery;
+
+	/**
+	 * Creates a new command batcher instance
+	 * @param reader the given {@link CxCommandReader command reader}
+	 */
+	public CxCommandBatcher( final CxCommandReader reader ) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the next batch of commands; blocks until at least one command
+	 * has been received.
+	 * @return the {@link List list} of {@link CxCommand commands}, or <tt>null</tt> if the end of the stream has been reached
+	 * @throws IOException
+	 */
+	public List<CxCommand> read()
+	throws IOException {
+		// wait for the first command of the batch
+		final CxCommand first = reader.read();
+		if( first == null ) {
+			return null;
+		}
+
+		// the batch may not be delivered before the frame interval has elapsed
+		final long start = System.currentTimeMillis();
+		final long deadline = Math.max( start, lastDelivery + FRAME_INTERVAL );
+
+		// collect the commands until the deadline, and while a burst continues
+		final List<CxCommand> batch = new ArrayList<CxCommand>();
+		batch.add( first );
+		while( batch.size() < MAX_BATCH_SIZE ) {
+			// has the batch been extended for too long?
+			final long now = System.currentTimeMillis();
+			final long remaining = start + MAX_LATENCY - now;
+			if( remaining <= 0 ) {
+				break;
+			}
+
+			// wait for the next command
+			final boolean early = now < deadline;
+			final CxCommand command = reader.poll( Math.min( early ? deadline - now : BURST_GAP, remaining ) );
+			if( command != null ) {
+				batch.add( command );
+			}
+			else if( !early ) {
+				break;
+			}
+		}
+
+		// return the batch
+		lastDelivery = System.currentTimeMillis();
+		return batch;
+	}
+
+	/**
+	 * Closes the underlying reader
+	 * @throws IOException
+	 */
+	public void close()
+	throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Removes the redundant commands from the given batch; only the last of the
+	 * temporary element and picked element commands are retained, the selection
+	 * commands which precede a selection reset (i.e. "Clear Selected" or
+	 * "Select All") are dropped, and successive element selections are merged
+	 * into a single "Select Elements" command (duplicate labels are retained,
+	 * since selecting an element toggles it). The order of the remaining
+	 * commands is preserved.
+	 * @param batch the given {@link List list} of {@link CxCommand commands}
+	 * @return the coalesced {@link List list} of {@link CxCommand commands}
+	 */
+	public static List<CxCommand> coalesce( final List<CxCommand> batch ) {
+		// find the last temporary element, picked element and selection reset commands
+		int lastTemp = -1;
+		int lastPick = -1;
+		int lastReset = -1;
+		int index = 0;
+		for( final CxCommand command : batch ) {
+			if( isTemporary( command ) ) {
+				lastTemp = index;
+			}
+			else if( isPicking( command ) ) {
+				lastPick = index;
+			}
+			else if( isSelectionReset( command ) ) {
+				lastReset = index;
+			}
+			index++;
+		}
+
+		// retain only the commands which have an effect
+		final List<CxCommand> commands = new ArrayList<CxCommand>( batch.size() );
+		final List<String> labels = new ArrayList<String>();
+		index = 0;
+		for( final CxCommand command : batch ) {
+			final boolean redundant =
+				( isTemporary( command ) && ( index != lastTemp ) ) ||
+				( isPicking( command ) && ( index != lastPick ) ) ||
+				( isSelection( command ) && ( index < lastReset ) );
+			index++;
+
+			// gather the successive element selections
+			if( !redundant ) {
+				if( command instanceof SelectElementCommand ) {
+					labels.add( ( (SelectElementCommand)command ).getLabel() );
+				}
+				else if( command instanceof SelectElementsCommand ) {
+					labels.addAll( Arrays.asList( ( (SelectElementsCommand)command ).getLabels() ) );
+				}
+				else {
+					flushSelections( commands, labels );
+					commands.add( command );
+				}
+			}
+		}
+		flushSelections( commands, labels );
+
+		// return the coalesced commands
+		return commands;
+	}
+
+	/**
+	 * Appends a "Select Elements" command for the gathered labels (if any) to the given list
+	 * @param commands the given {@link List list} of {@link CxCommand commands}
+	 * @param labels the given {@link List list} of gathered element labels
+	 */
+	private static void flushSelections( final List<CxCommand> commands, final List<String> labels ) {
+		if( !labels.isEmpty() ) {
+			commands.add( SelectElementsCommand.create( labels.toArray( new String[ labels.size() ] ) ) );
+			labels.clear();
+		}
+	}
+
+	/**
+	 * Indicates whether the given command replaces the temporary element
+	 * @param command the given {@link CxCommand command}
+	 * @return true, if the command sets or clears the temporary element
+	 */
+	private static boolean isTemporary( final CxCommand command ) {
+		return ( command instanceof SetTempElementCommand ) ||
+			   ( command instanceof SetTempElementHUDCommand ) ||
+			   ( command instanceof ClearTempElementCommand );
+	}
+
+	/**
+	 * Indicates whether the given command replaces the picked element
+	 * @param command the given {@link CxCommand command}
+	 * @return true, if the command sets or clears the picked element
+	 */
+	private static boolean isPicking( final CxCommand command ) {
+		return ( command instanceof SetPickedCommand ) ||
+			   ( command instanceof ClearPickedElementCommand );
+	}
+
+	/**
+	 * Indicates whether the given command replaces the entire selection
+	 * @param command the given {@link CxCommand command}
+	 * @return true, if the command clears the selection, or selects all elements
+	 */
+	private static boolean isSelectionReset( final CxCommand command ) {
+		return ( command instanceof ClearSelectedElementsCommand ) ||
+			   ( command instanceof SelectAllCommand );
+	}
+
+	/**
+	 * Indicates whether the given command modifies the selection
+	 * @param command the given {@link CxCommand command}
+	 * @return true, if the command modifies the selection
+	 */
+	private static boolean isSelection( final CxCommand command ) {
+		return isSelectionReset( command ) ||
+			   ( command instanceof SelectElementCommand ) ||
+			   ( command instanceof SelectElementsCommand ) ||
+			   ( command instanceof SelectEntityCommand );
+	}
+
+}
@@ -0,0 +1,96 @@
+package constellation.commands;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Constellation Command Channel. Represents a bidirectional command 
+ * connection over a socket. If the socket was opened as a channel, it
+ * is switched to non-blocking mode, and its reader and writer wait on 
+ * their own selectors; thus the reading and the writing threads neither
+ * block each other, nor consume CPU while the connection is idle. 
+ * Otherwise, the socket's streams are used. Upon opening, the channel 
+ * announces the {@link CxCommandEncoding encodings} it accepts; each end 
+ * then switches to the most compact encoding the other end accepts.
+ * @author lawrence.daniels@gmail.com
+ */
+public class CxCommandChannel {
+	private final CxCommandReader reader;
+	private final CxCommandWriter writer;
+	private final Socket socket;
+	
+	/**
+	 * Creates a new command channel
+	 * @param socket the given {@link Socket socket}
+	 * @throws IOException
+	 */
+	public CxCommandChannel( final Socket socket ) 
+	throws IOException {
+		this.socket = socket;
+		
+		// use the socket's channel (if any)
+		final SocketChannel channel = socket.getChannel();
+		if( channel != null ) {
+			channel.configureBlocking( false );
+			this.reader = new CxCommandReader( channel );
+			this.writer = new CxCommandWriter( channel );
+		}
+		
+		// otherwise, use the socket's streams
+		else {
+			this.reader = new CxCommandReader( socket.getInputStream() );
+			this.writer = new CxCommandWriter( socket.getOutputStream() );
+		}
+		
+		// announce the encodings this end accepts
+		reader.setResponder( writer );
+		writer.setEncoding( CxCommandEncoding.VERSION_1 );
+	}
+	
+	/**
+	 * Returns the reader of incoming commands
+	 * @return the {@link CxCommandReader command reader}
+	 */
+	public CxCommandReader getReader() {
+		return reader;
+	}
+	
+	/**
+	 * Returns the writer of outgoing commands
+	 * @return the {@link CxCommandWriter command writer}
+	 */
+	public CxCommandWriter getWriter() {
+		return writer;
+	}
+	
+	/**
+	 * Closes the channel (and the underlying socket)
+	 */
+	public void close() {
+		try { reader.close(); } catch( final IOException e ) { }
+		try { writer.close(); } catch( final IOException e ) { }
+		try { socket.close(); } catch( final IOException e ) { }
+	}
+	
+	/**
+	 * Opens a selector for the given channel, if the channel is non-blocking
+	 * @param channel the given {@link Channel channel}
+	 * @param operation the given operation to wait for (e.g. {@link java.nio.channels.SelectionKey#OP_READ})
+	 * @return the {@link Selector selector}, or <tt>null</tt> if the channel is blocking
+	 * @throws IOException
+	 */
+	static Selector openSelector( final Channel channel, final int operation ) 
+	throws IOException {
+		if( ( channel instanceof SelectableChannel ) && !((SelectableChannel)channel).isBlocking() ) {
+			final Selector selector = Selector.open();
+			((SelectableChannel)channel).register( selector, operation );
+			return selector;
+		}
+		return null;
+	}
+	
+}
@@ -0,0 +1,314 @@
+package constellation.commands;
+
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Constellation Command Encoding. Commands are encoded in one of the
+ * following versions:
+ * <ul>
+ * <li>{@link #VERSION_1}: the original encoding; coordinates are written
+ * as 8-byte doubles, and strings are written in full.</li>
+ * <li>{@link #VERSION_2}: the compact encoding; coordinates which are exact
+ * multiples of the {@link #RESOLUTION resolution} are written as variable-length
+ * integers (runs of vertices as the deltas between successive vertices), and
+ * all others in full (i.e. coordinates are received unchanged), while
+ * strings and colors are written as references to the frame's symbols,
+ * which are themselves sent once per connection (see {@link CxSymbolTable}).
+ * Large payloads are compressed.</li>
+ * </ul>
+ * The version is negotiated per connection (see {@link CxCommandChannel});
+ * the encoding in effect while a command is being encoded or decoded is
+ * provided to the encoding and decoding methods of the {@link CxCommandManager
+ * command manager} by this class.
+ * @author lawrence.daniels@gmail.com
+ */
+public final class CxCommandEncoding {
+	// encoding versions
+	public static final int VERSION_1	= 1;
+	public static final int VERSION_2	= 2;
+	public static final int LATEST		= VERSION_2;
+
+	// the number of quanta per model unit (i.e. coordinates with up to 5 decimals are written compactly)
+	public static final double RESOLUTION = 100000d;
+
+	// the largest frame (or decompressed payload) accepted from a connection
+	public static final int MAX_FRAME_LENGTH = 256 * 1024 * 1024;
+
+	// the largest coordinate (in model units) that is quantized
+	private static final double QUANTIZABLE_LIMIT = 1e9d;
+
+	// the scales (in quanta) of the quantized values (i.e. 0.00001, 0.001, 0.01 and 1 model units)
+	private static final long[] SCALES = { 1L, 100L, 1000L, 100000L };
+
+	// the character set of strings
+	static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+	// the encoding in effect for the current thread
+	private static final ThreadLocal<CxCommandEncoding> current = new ThreadLocal<CxCommandEncoding>();
+
+	// internal fields
+	private final List<Object> symbols;
+	private final Map<Object, Integer> indices;
+
+	/**
+	 * Creates a new encoding context
+	 * @param symbols the given {@link List list} of symbols of the frame
+	 */
+	private CxCommandEncoding( final List<Object> symbols ) {
+		this.symbols	= symbols;
+		this.indices	= new HashMap<Object, Integer>();
+	}
+
+	/**
+	 * Begins the compact encoding of a frame on the current thread
+	 * @return the {@link CxCommandEncoding encoding context}
+	 */
+	static CxCommandEncoding beginEncoding() {
+		final CxCommandEncoding encoding = new CxCommandEncoding( new ArrayList<Object>() );
+		current.set( encoding );
+		return encoding;
+	}
+
+	/**
+	 * Begins the compact decoding of a frame on the current thread
+	 * @param symbols the given {@link List list} of symbols of the frame
+	 */
+	static void beginDecoding( final List<Object> symbols ) {
+		current.set( new CxCommandEncoding( symbols ) );
+	}
+
+	/**
+	 * Ends the encoding or decoding of the frame on the current thread
+	 */
+	static void end() {
+		current.remove();
+	}
+
+	/**
+	 * Indicates whether the compact encoding is in effect for the current thread
+	 * @return true, if the compact encoding is in effect
+	 */
+	public static boolean isCompact() {
+		return current.get() != null;
+	}
+
+	/**
+	 * Returns the symbols referenced by the frame
+	 * @return the {@link List list} of symbols (i.e. {@link String strings} and RGB values)
+	 */
+	List<Object> getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * Writes a reference to the given symbol (i.e. a string or RGB value) to the given stream
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param symbol the given symbol, or <tt>null</tt>
+	 * @throws IOException
+	 */
+	static void writeSymbol( final DataOutputStream stream, final Object symbol )
+	throws IOException {
+		// null is written as zero
+		if( symbol == null ) {
+			stream.writeByte( 0 );
+			return;
+		}
+
+		// lookup (or add) the symbol
+		final CxCommandEncoding encoding = current.get();
+		Integer index = encoding.indices.get( symbol );
+		if( index == null ) {
+			index = encoding.symbols.size();
+			encoding.indices.put( symbol, index );
+			encoding.symbols.add( symbol );
+		}
+
+		// write the reference
+		writeVarInt( stream, index + 1 );
+	}
+
+	/**
+	 * Reads a reference to a symbol from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the symbol, or <tt>null</tt>
+	 * @throws IllegalStateException if the reference is invalid
+	 */
+	static Object readSymbol( final ByteBuffer buffer ) {
+		// read the reference
+		final int reference = readVarInt( buffer );
+		if( reference == 0 ) {
+			return null;
+		}
+
+		// lookup the symbol
+		final List<Object> symbols = current.get().symbols;
+		if( reference > symbols.size() ) {
+			throw new IllegalStateException( format( "Invalid symbol reference (%d of %d)", reference, symbols.size() ) );
+		}
+		return symbols.get( reference - 1 );
+	}
+
+	/**
+	 * Writes the given coordinate, relative to the given origin, to the given stream.
+	 * If the coordinate is an exact multiple of the resolution (as coordinates are 
+	 * commonly entered with only a few decimals), both values are quantized, and the
+	 * difference between them is written as a variable-length integer, in the largest
+	 * of the scales (0.00001, 0.001, 0.01 or 1 model units) which represents it exactly;
+	 * all other coordinates (e.g. computed intersections) are written in full, since
+	 * the precision they require is not known:
+	 * <pre>
+	 * coordinate := 0 value:double | ( ( zigzag( delta / scale ) &lt;&lt; 2 | scale# ) + 1 ):varint
+	 * </pre>
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param value the given coordinate
+	 * @param origin the given origin (e.g. the previous vertex, or zero)
+	 * @throws IOException
+	 */
+	public static void writeCoordinate( final DataOutputStream stream, final double value, final double origin )
+	throws IOException {
+		if( isQuantizable( value ) && isQuantizable( origin ) && isExact( value ) ) {
+			// determine the largest scale which represents the difference exactly
+			final long delta = Math.round( value * RESOLUTION ) - Math.round( origin * RESOLUTION );
+			int scale = SCALES.length - 1;
+			while( delta % SCALES[scale] != 0 ) {
+				scale--;
+			}
+			
+			// write the scaled difference
+			final long scaled = delta / SCALES[scale];
+			writeVarLong( stream, ( ( ( scaled << 1 ) ^ ( scaled >> 63 ) ) << 2 | scale ) + 1 );
+		}
+		else {
+			stream.writeByte( 0 );
+			stream.writeDouble( value );
+		}
+	}
+
+	/**
+	 * Reads a coordinate, relative to the given origin, from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @param origin the given origin (i.e. the value passed to {@link #writeCoordinate(DataOutputStream, double, double)})
+	 * @return the coordinate
+	 */
+	public static double readCoordinate( final ByteBuffer buffer, final double origin ) {
+		final long code = readVarLong( buffer );
+		if( code == 0 ) {
+			return buffer.getDouble();
+		}
+		final long zigzag = ( code - 1 ) >>> 2;
+		final long delta = ( ( zigzag >>> 1 ) ^ -( zigzag & 1 ) ) * SCALES[ (int)( ( code - 1 ) & 3 ) ];
+		return ( Math.round( origin * RESOLUTION ) + delta ) / RESOLUTION;
+	}
+
+	/**
+	 * Indicates whether the given coordinate can be quantized without loss of range
+	 * @param value the given coordinate
+	 * @return true, if the coordinate can be quantized
+	 */
+	private static boolean isQuantizable( final double value ) {
+		return ( value > -QUANTIZABLE_LIMIT ) && ( value < QUANTIZABLE_LIMIT );
+	}
+
+	/**
+	 * Indicates whether the given coordinate is reproduced exactly from its quantized 
+	 * form (see {@link #readCoordinate(ByteBuffer, double)})
+	 * @param value the given coordinate
+	 * @return true, if the coordinate is an exact multiple of the resolution
+	 */
+	private static boolean isExact( final double value ) {
+		return Double.compare( Math.round( value * RESOLUTION ) / RESOLUTION, value ) == 0;
+	}
+
+	/**
+	 * Writes the given (non-negative) value as a variable-length integer
+	 * (7 bits per byte, least significant group first)
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param value the given value
+	 * @throws IOException
+	 */
+	public static void writeVarInt( final DataOutputStream stream, final int value )
+	throws IOException {
+		writeVarLong( stream, value & 0xFFFFFFFFL );
+	}
+
+	/**
+	 * Writes the given (non-negative) value as a variable-length integer
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param value the given value
+	 * @throws IOException
+	 */
+	public static void writeVarLong( final DataOutputStream stream, final long value )
+	throws IOException {
+		long remaining = value;
+		while( ( remaining & ~0x7FL ) != 0 ) {
+			stream.writeByte( (int)( ( remaining & 0x7F ) | 0x80 ) );
+			remaining >>>= 7;
+		}
+		stream.writeByte( (int)remaining );
+	}
+
+	/**
+	 * Writes the given (non-negative) value as a variable-length integer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @param value the given value
+	 */
+	static void putVarInt( final ByteBuffer buffer, final int value ) {
+		int remaining = value;
+		while( ( remaining & ~0x7F ) != 0 ) {
+			buffer.put( (byte)( ( remaining & 0x7F ) | 0x80 ) );
+			remaining >>>= 7;
+		}
+		buffer.put( (byte)remaining );
+	}
+
+	/**
+	 * Returns the number of bytes required to write the given (non-negative)
+	 * value as a variable-length integer
+	 * @param value the given value
+	 * @return the number of bytes
+	 */
+	static int sizeOfVarInt( final int value ) {
+		int size = 1;
+		for( int remaining = value >>> 7; remaining != 0; remaining >>>= 7 ) {
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Reads a variable-length integer from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the value
+	 */
+	public static int readVarInt( final ByteBuffer buffer ) {
+		return (int)readVarLong( buffer );
+	}
+
+	/**
+	 * Reads a variable-length integer from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the value
+	 * @throws IllegalStateException if the value is malformed
+	 */
+	public static long readVarLong( final ByteBuffer buffer ) {
+		long value = 0;
+		for( int shift = 0; shift < 64; shift += 7 ) {
+			final byte b = buffer.get();
+			value |= (long)( b & 0x7F ) << shift;
+			if( b >= 0 ) {
+				return value;
+			}
+		}
+		throw new IllegalStateException( "Malformed variable-length integer" );
+	}
+
+}
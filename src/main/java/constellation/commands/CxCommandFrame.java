@@ -0,0 +1,250 @@
+package constellation.commands;
+
+import static constellation.commands.CxCommandEncoding.VERSION_1;
+import static constellation.commands.CxCommandEncoding.VERSION_2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Represents an encoded command; i.e. a complete, length-prefixed frame,
+ * which may be written to any number of {@link CxCommandWriter writers}
+ * without being encoded again. The frame's buffer is shared (read-only);
+ * each writer consumes its own view of it. A frame is encoded once per
+ * {@link CxCommandEncoding encoding version}; the version it is created with
+ * is encoded immediately, and the other one when a writer first requires it.
+ * In the compact encoding, the frame retains the symbols and the (possibly
+ * compressed) body, since the symbols are written by each writer (see
+ * {@link CxSymbolTable}):
+ * <pre>
+ * frame   := length:varint header:varint ( symbol )* body
+ * header  := count-of-symbols &lt;&lt; 1 | compressed
+ * body    := payload | length:varint deflated-payload
+ * payload := opCode:varint command-specific-data
+ * </pre>
+ * @author lawrence.daniels@gmail.com
+ */
+public class CxCommandFrame {
+	// the minimum size of the payloads which are compressed (compact encoding)
+	static final int DEFLATE_THRESHOLD = 1024;
+
+	// the flag indicating a compressed body (compact encoding)
+	static final int DEFLATED = 1;
+
+	// internal fields
+	private final CxCommand command;
+	private ByteBuffer buffer;
+	private List<Object> symbols;
+	private ByteBuffer body;
+	private int size;
+
+	/**
+	 * Creates a new command frame
+	 * @param command the given {@link CxCommand command}
+	 */
+	private CxCommandFrame( final CxCommand command ) {
+		this.command = command;
+	}
+
+	/**
+	 * Encodes the given command into a new frame (in the original encoding)
+	 * @param command the given {@link CxCommand command}
+	 * @return the {@link CxCommandFrame frame}
+	 * @throws IOException
+	 */
+	public static CxCommandFrame encode( final CxCommand command )
+	throws IOException {
+		return encode( command, VERSION_1 );
+	}
+
+	/**
+	 * Encodes the given command into a new frame
+	 * @param command the given {@link CxCommand command}
+	 * @param version the given {@link CxCommandEncoding encoding version}
+	 * @return the {@link CxCommandFrame frame}
+	 * @throws IOException
+	 */
+	public static CxCommandFrame encode( final CxCommand command, final int version )
+	throws IOException {
+		final CxCommandFrame frame = new CxCommandFrame( command );
+		if( version >= VERSION_2 ) {
+			frame.encodeCompact();
+			frame.size = 4 + estimateSymbols( frame.symbols ) + frame.body.capacity();
+		}
+		else {
+			frame.encodeOriginal();
+			frame.size = frame.buffer.capacity();
+		}
+
+		// set the length of the command
+		command.setLength( frame.size - 4 );
+		return frame;
+	}
+
+	/**
+	 * Returns the encoded command
+	 * @return the {@link CxCommand command}
+	 */
+	public CxCommand getCommand() {
+		return command;
+	}
+
+	/**
+	 * Returns a new view of the frame (in the original encoding), positioned at its beginning
+	 * @return the read-only {@link ByteBuffer buffer}
+	 * @throws IOException
+	 */
+	public synchronized ByteBuffer getBuffer()
+	throws IOException {
+		if( buffer == null ) {
+			encodeOriginal();
+		}
+		return buffer.duplicate();
+	}
+
+	/**
+	 * Returns the symbols referenced by the frame (compact encoding)
+	 * @return the {@link List list} of symbols
+	 * @throws IOException
+	 */
+	synchronized List<Object> getSymbols()
+	throws IOException {
+		if( body == null ) {
+			encodeCompact();
+		}
+		return symbols;
+	}
+
+	/**
+	 * Returns a new view of the body of the frame (compact encoding), positioned at 
+	 * its beginning; the body is preceded by the flags of the frame's header (i.e.
+	 * whether the body is compressed), in a single byte.
+	 * @return the read-only {@link ByteBuffer buffer}
+	 * @throws IOException
+	 */
+	synchronized ByteBuffer getBody()
+	throws IOException {
+		if( body == null ) {
+			encodeCompact();
+		}
+		return body.duplicate();
+	}
+
+	/**
+	 * Returns the size of the frame (including its length prefix) in the
+	 * encoding it was created with; for the compact encoding, the size is
+	 * an upper bound, which assumes that none of the frame's symbols is 
+	 * known to the receiver.
+	 * @return the size of the frame in bytes
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Encodes the command in the original encoding
+	 * @throws IOException
+	 */
+	private void encodeOriginal()
+	throws IOException {
+		// encode the command (behind the space reserved for the length)
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 );
+		final DataOutputStream stream = new DataOutputStream( bytes );
+		stream.writeInt( 0 );
+		command.encode( stream );
+		stream.flush();
+
+		// set the length of the frame
+		final ByteBuffer frame = ByteBuffer.wrap( bytes.toByteArray() );
+		frame.putInt( 0, frame.capacity() - 4 );
+		buffer = frame.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Encodes the command in the compact encoding
+	 * @throws IOException
+	 */
+	private void encodeCompact()
+	throws IOException {
+		// encode the payload (gathering the symbols)
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 );
+		final DataOutputStream stream = new DataOutputStream( bytes );
+		final CxCommandEncoding encoding = CxCommandEncoding.beginEncoding();
+		try {
+			command.encode( stream );
+			stream.flush();
+		}
+		finally {
+			CxCommandEncoding.end();
+		}
+
+		// replace the leading opCode with its compact form
+		final byte[] encoded = bytes.toByteArray();
+		final ByteArrayOutputStream compact = new ByteArrayOutputStream( encoded.length );
+		final DataOutputStream out = new DataOutputStream( compact );
+		CxCommandEncoding.writeVarInt( out, ByteBuffer.wrap( encoded ).getInt() );
+		out.write( encoded, 4, encoded.length - 4 );
+		out.flush();
+		final byte[] payload = compact.toByteArray();
+
+		// build the body (compressing large payloads)
+		final byte[] deflated = ( payload.length >= DEFLATE_THRESHOLD ) ? deflate( payload ) : null;
+		compact.reset();
+		if( ( deflated != null ) && ( deflated.length + 5 < payload.length ) ) {
+			out.writeByte( DEFLATED );
+			CxCommandEncoding.writeVarInt( out, payload.length );
+			out.write( deflated );
+		}
+		else {
+			out.writeByte( 0 );
+			out.write( payload );
+		}
+		out.flush();
+
+		symbols	= encoding.getSymbols();
+		body	= ByteBuffer.wrap( compact.toByteArray() ).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Compresses the given payload
+	 * @param payload the given payload
+	 * @return the compressed payload
+	 */
+	private static byte[] deflate( final byte[] payload ) {
+		final Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+		try {
+			deflater.setInput( payload );
+			deflater.finish();
+
+			// gather the compressed data
+			final ByteArrayOutputStream out = new ByteArrayOutputStream( payload.length / 2 );
+			final byte[] block = new byte[ 8192 ];
+			while( !deflater.finished() ) {
+				final int count = deflater.deflate( block );
+				out.write( block, 0, count );
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Estimates the number of bytes required to write the given symbols in full
+	 * @param symbols the given {@link List list} of symbols
+	 * @return the number of bytes
+	 */
+	private static int estimateSymbols( final List<Object> symbols ) {
+		int bytes = 1;
+		for( final Object symbol : symbols ) {
+			bytes += ( symbol instanceof String ) ? 2 + ((String)symbol).length() : 5;
+		}
+		return bytes;
+	}
+
+}
@@ -1,5 +1,12 @@
 package constellation.commands;
 
+import static constellation.commands.CxCommandEncoding.isCompact;
+import static constellation.commands.CxCommandEncoding.readCoordinate;
+import static constellation.commands.CxCommandEncoding.readSymbol;
+import static constellation.commands.CxCommandEncoding.readVarInt;
+import static constellation.commands.CxCommandEncoding.writeCoordinate;
+import static constellation.commands.CxCommandEncoding.writeSymbol;
+import static constellation.commands.CxCommandEncoding.writeVarInt;
 import static java.lang.String.format;
 
 import java.awt.Color;
@@ -22,13 +29,16 @@ import constellation.commands.builtin.ClearSelectedElementsCommandDecoder;
 import constellation.commands.builtin.ClearTempElementCommandDecoder;
 import constellation.commands.builtin.DeleteElementCommand;
 import constellation.commands.builtin.DeleteElementCommandDecoder;
+import constellation.commands.builtin.KeyframeCommandDecoder;
 import constellation.commands.builtin.SelectAllCommandDecoder;
 import constellation.commands.builtin.SelectElementCommandDecoder;
 import constellation.commands.builtin.SelectElementsCommandDecoder;
 import constellation.commands.builtin.SelectEntityCommandDecoder;
+import constellation.commands.builtin.SetEncodingCommandDecoder;
 import constellation.commands.builtin.SetPickedCommandDecoder;
 import constellation.commands.builtin.SetTempElementCommandDecoder;
 import constellation.commands.builtin.SetTempElementHUDCommandDecoder;
+import constellation.commands.builtin.UpdateElementCommandDecoder;
 import constellation.commands.builtin.WaitCommandDecoder;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityRepresentationUtil;
@@ -41,8 +51,11 @@ import constellation.drawing.entities.CompositionXY;
 import constellation.drawing.entities.EllipseXY;
 import constellation.drawing.entities.HUDXY;
 import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.ParametricCurveXY;
 import constellation.drawing.entities.PictureXY;
 import constellation.drawing.entities.PointXY;
+import constellation.drawing.entities.PolyLineXY;
 import constellation.drawing.entities.SpiralXY;
 import constellation.drawing.entities.SplineXY;
 import constellation.drawing.entities.TextNoteXY;
@@ -50,7 +63,9 @@ import constellation.drawing.entities.UserImage;
 import constellation.drawing.entities.VerticesXY;
 
 /**
- * Constellation Command Manager
+ * Constellation Command Manager. The encoding and decoding methods of the
+ * manager write (and read) either the original or the compact form of the
+ * values, depending upon the {@link CxCommandEncoding encoding} in effect.
  * @author lawrence.daniels@gmail.com
  */
 public class CxCommandManager {
@@ -58,6 +73,7 @@ public class CxCommandManager {
 	public static final Integer ADD_ELEM		= 0x0000;
 	public static final Integer ADD_IMG			= 0x0001;
 	public static final Integer DEL_ELEM		= 0x0004;
+	public static final Integer UPD_ELEM		= 0x0005;
 	public static final Integer CLR_PICK		= 0x0008;
 	public static final Integer CLR_SEL			= 0x0009;
 	public static final Integer CLR_TEMP		= 0x000A;
@@ -68,7 +84,9 @@ public class CxCommandManager {
 	public static final Integer SET_PICK		= 0x0010;
 	public static final Integer SET_TEMP		= 0x0011;
 	public static final Integer SET_TEMP_HUD	= 0x0012;
+	public static final Integer SET_ENCODING	= 0x0013;
 	public static final Integer WAIT 			= 0x0014;
+	public static final Integer KEYFRAME		= 0x0015;
 	
 	// singleton instance
 	private static final CxCommandManager instance = new CxCommandManager();
@@ -84,6 +102,7 @@ public class CxCommandManager {
 		decoders.put( ADD_ELEM, 	new AddElementCommandDecoder() );
 		decoders.put( ADD_IMG, 		new AddUserImageCommandDecoder() );
 		decoders.put( DEL_ELEM,		new DeleteElementCommandDecoder() );	
+		decoders.put( UPD_ELEM,		new UpdateElementCommandDecoder() );
 		decoders.put( CLR_PICK, 	new ClearPickedElementCommandDecoder() );
 		decoders.put( CLR_SEL, 		new ClearSelectedElementsCommandDecoder() );
 		decoders.put( CLR_TEMP, 	new ClearTempElementCommandDecoder() );
@@ -94,7 +113,9 @@ public class CxCommandManager {
 		decoders.put( SET_PICK,		new SetPickedCommandDecoder() );
 		decoders.put( SET_TEMP,		new SetTempElementCommandDecoder() );
 		decoders.put( SET_TEMP_HUD,	new SetTempElementHUDCommandDecoder() );
+		decoders.put( SET_ENCODING,	new SetEncodingCommandDecoder() );
 		decoders.put( WAIT, 		new WaitCommandDecoder() );
+		decoders.put( KEYFRAME,		new KeyframeCommandDecoder() );
 	}
 	
 	/** 
@@ -114,7 +135,7 @@ public class CxCommandManager {
 	 */
 	public CxCommandDecoder getDecoder( final ByteBuffer buffer ) {
 		// get the opCode
-		final Integer opCode = buffer.getInt();
+		final Integer opCode = isCompact() ? readVarInt( buffer ) : buffer.getInt();
 		
 		// return the decoder
 		final CxCommandDecoder decoder = decoders.get( opCode );
@@ -230,7 +251,7 @@ public class CxCommandManager {
 	 */
 	public static Color decodeColor( final ByteBuffer buffer ) {
 		// get the color in RGB
-		final int rgb = buffer.getInt();
+		final int rgb = isCompact() ? rgbOf( readSymbol( buffer ) ) : buffer.getInt();
 		
 		// return the color instance
 		return new Color( rgb );
@@ -244,8 +265,13 @@ public class CxCommandManager {
 	 */
 	public static void encodeColor( final DataOutputStream stream, final Color color ) 
 	throws IOException {
+		// is the compact encoding in effect?
+		if( isCompact() ) {
+			writeSymbol( stream, ( color != null ) ? color.getRGB() : null );
+		}
+		
 		// if the string is null, write zero
-		if( color == null ) {
+		else if( color == null ) {
 			stream.writeInt( 0 );
 		}
 		else {
@@ -261,7 +287,7 @@ public class CxCommandManager {
 	 */
 	public static byte[] decodeContent( final ByteBuffer buffer ) {
 		// get the length of the content
-		final int length = buffer.getInt();
+		final int length = isCompact() ? readVarInt( buffer ) : buffer.getInt();
 		
 		// create a buffer for the content
 		final byte[] bytes = new byte[ length ];
@@ -281,8 +307,13 @@ public class CxCommandManager {
 	 */
 	public static void encodeContent( final DataOutputStream stream, final byte[] bytes ) 
 	throws IOException {
-		// append the length of the string
-		stream.writeInt( bytes.length );
+		// append the length of the content
+		if( isCompact() ) {
+			writeVarInt( stream, bytes.length );
+		}
+		else {
+			stream.writeInt( bytes.length );
+		}
 		
 		// append the bytes
 		stream.write( bytes );
@@ -323,14 +354,14 @@ public class CxCommandManager {
 		final HUDXY hud = new HUDXY();
 		
 		// retrieve the text lines
-		final short lineCount = buffer.getShort();
+		final int lineCount = decodeCount( buffer );
 		for( int n = 0; n < lineCount; n++ ) {
 			// retrieve & append the text line
 			hud.append( decodeString( buffer ) );
 		}
 		
 		// retrieve the elements
-		final short elementCount = buffer.getShort();
+		final int elementCount = decodeCount( buffer );
 		for( int n = 0; n < elementCount; n++ ) {
 			// retrieve & append the element
 			hud.add( decodeRepresentation( buffer ) );
@@ -350,18 +381,16 @@ public class CxCommandManager {
 	throws IOException {
 		// get the collection of lines
 		final Collection<String> lines = hud.getLines();
-		stream.writeShort( lines.size() );
+		encodeCount( stream, lines.size() );
 		
 		// write the line data
 		for( final String line : lines ) {
-			// write the line data (length & content)
-			stream.writeShort( line.length() );
-			stream.writeChars( line );
+			encodeString( stream, line );
 		}
 		
 		// get the collection of elements
 		final Collection<RenderableElement> elements = hud.getElements();
-		stream.writeShort( elements.size() );
+		encodeCount( stream, elements.size() );
 		
 		// write the elements
 		for( final RenderableElement element : elements ) {
@@ -385,13 +414,15 @@ public class CxCommandManager {
 	 */
 	public static PointXY[] decodePoints( final ByteBuffer buffer ) {
 		// get the number of points
-		final int length = buffer.getShort();
+		final int length = decodeCount( buffer );
 		
-		// retrieve the points
+		// retrieve the points (each point is relative to the previous one)
 		final PointXY[] points = new PointXY[ length ];
+		double x = 0d;
+		double y = 0d;
 		for( int n = 0; n < length; n++ ) {
-			final double x = buffer.getDouble();
-			final double y = buffer.getDouble();
+			x = decodeCoordinate( buffer, x );
+			y = decodeCoordinate( buffer, y );
 			points[n] = new PointXY( x, y );
 		}
 		
@@ -408,12 +439,16 @@ public class CxCommandManager {
 	public static void encodePoints( final DataOutputStream stream, final PointXY[] points ) 
 	throws IOException {
 		// append the number of points
-		stream.writeShort( points.length );
+		encodeCount( stream, points.length );
 		
-		// append the points
+		// append the points (each point is relative to the previous one)
+		double x = 0d;
+		double y = 0d;
 		for( final PointXY point : points ) {
-			stream.writeDouble( point.getX() );
-			stream.writeDouble( point.getY() );
+			encodeCoordinate( stream, point.getX(), x );
+			encodeCoordinate( stream, point.getY(), y );
+			x = point.getX();
+			y = point.getY();
 		}
 	}
 	
@@ -423,6 +458,11 @@ public class CxCommandManager {
 	 * @return the character string
 	 */
 	public static String decodeString( final ByteBuffer buffer ) {
+		// is the compact encoding in effect?
+		if( isCompact() ) {
+			return (String)readSymbol( buffer );
+		}
+		
 		// get the length of the string
 		final short length = buffer.getShort();
 		
@@ -450,8 +490,13 @@ public class CxCommandManager {
 	 */
 	public static void encodeString( final DataOutputStream stream, final String string ) 
 	throws IOException {
+		// is the compact encoding in effect?
+		if( isCompact() ) {
+			writeSymbol( stream, string );
+		}
+		
 		// if the string is null, write zero
-		if( string == null ) {
+		else if( string == null ) {
 			stream.writeShort( 0 );
 		}
 		else {
@@ -485,8 +530,11 @@ public class CxCommandManager {
 			case ELLIPSE:		return decodeEllipse( buffer );
 			case LINE:			return decodeLine( buffer );
 			case POINT:			return decodePoint( buffer );
+			case POLYLINE:		return decodePolyLine( buffer );
 			case PICTURE:		return decodePicture( buffer );
 			case SPLINE:		return decodeSpline( buffer );
+			case NURBS:			return decodeNurbs( buffer );
+			case PARAMETRIC:	return decodeParametricCurve( buffer );
 			case SPIRAL:		return decodeSpiral( buffer );
 			case TEXTNOTE:		return decodeTextNote( buffer );
 			default:
@@ -515,7 +563,10 @@ public class CxCommandManager {
 			case LINE:			encodeLine( stream, (LineXY)rep ); break;
 			case PICTURE:		encodePicture( stream, (PictureXY)rep ); break;
 			case POINT:			encodePoint( stream, (PointXY)rep ); break;
+			case POLYLINE:		encodePolyLine( stream, (PolyLineXY)rep ); break;
 			case SPLINE:		encodeSpline( stream, (SplineXY)rep ); break;
+			case NURBS:			encodeNurbs( stream, (NurbsCurveXY)rep ); break;
+			case PARAMETRIC:	encodeParametricCurve( stream, (ParametricCurveXY)rep ); break;
 			case SPIRAL:		encodeSpiral( stream, (SpiralXY)rep ); break;
 			case TEXTNOTE:		encodeTextNote( stream, (TextNoteXY)rep ); break;
 			default:
@@ -530,9 +581,9 @@ public class CxCommandManager {
 	 */
 	private static CircleXY decodeCircle( final ByteBuffer buffer ) {
 		// decode the attributes
-		final double cx = buffer.getDouble();
-		final double cy = buffer.getDouble();
-		final double r	= buffer.getDouble();
+		final double cx = decodeCoordinate( buffer, 0d );
+		final double cy = decodeCoordinate( buffer, 0d );
+		final double r	= decodeCoordinate( buffer, 0d );
 		
 		// return the circle
 		return new CircleXY( cx, cy, r );
@@ -545,9 +596,9 @@ public class CxCommandManager {
 	 */
 	private static ArcXY decodeCircularArc( final ByteBuffer buffer ) {
 		// decode the attributes
-		final double cx = buffer.getDouble();
-		final double cy = buffer.getDouble();
-		final double r	= buffer.getDouble();
+		final double cx = decodeCoordinate( buffer, 0d );
+		final double cy = decodeCoordinate( buffer, 0d );
+		final double r	= decodeCoordinate( buffer, 0d );
 		final double as	= buffer.getDouble();
 		final double ae	= buffer.getDouble();
 		
@@ -563,7 +614,7 @@ public class CxCommandManager {
 	private static CompositionXY decodeComposition( final ByteBuffer buffer ) 
 	throws IOException {
 		// get the count of elements to retrieve
-		final short count = buffer.getShort();
+		final int count = decodeCount( buffer );
 		
 		// create a collection large enough to contain the elements
 		final Collection<EntityRepresentation> elements = 
@@ -589,10 +640,10 @@ public class CxCommandManager {
 	 */
 	private static EllipseXY decodeEllipse( final ByteBuffer buffer ) {
 		// decode the attributes
-		final double cx = buffer.getDouble();
-		final double cy = buffer.getDouble();
-		final double w	= buffer.getDouble();
-		final double h	= buffer.getDouble();
+		final double cx = decodeCoordinate( buffer, 0d );
+		final double cy = decodeCoordinate( buffer, 0d );
+		final double w	= decodeCoordinate( buffer, 0d );
+		final double h	= decodeCoordinate( buffer, 0d );
 		
 		// return the ellipse
 		return new EllipseXY( cx, cy, w, h );
@@ -604,11 +655,11 @@ public class CxCommandManager {
 	 * @return the {@link LineXY line} instance
 	 */
 	private static LineXY decodeLine( final ByteBuffer buffer ) {
-		// decode the attributes
-		final double x1 = buffer.getDouble();
-		final double y1 = buffer.getDouble();
-		final double x2	= buffer.getDouble();
-		final double y2	= buffer.getDouble();
+		// decode the attributes (the end point is relative to the start point)
+		final double x1 = decodeCoordinate( buffer, 0d );
+		final double y1 = decodeCoordinate( buffer, 0d );
+		final double x2	= decodeCoordinate( buffer, x1 );
+		final double y2	= decodeCoordinate( buffer, y1 );
 		
 		// return the line
 		return new LineXY( x1, y1, x2, y2 );
@@ -622,8 +673,8 @@ public class CxCommandManager {
 	private static PictureXY decodePicture( final ByteBuffer buffer ) 
 	throws IOException {
 		// decode the attributes
-		final double x 			= buffer.getDouble();
-		final double y 			= buffer.getDouble();
+		final double x 			= decodeCoordinate( buffer, 0d );
+		final double y 			= decodeCoordinate( buffer, 0d );
 		final String imageName	= decodeString( buffer ); 
 		final byte[] content	= decodeContent( buffer );
 		final UserImage image	= UserImage.createUserImage( imageName, content );
@@ -639,8 +690,8 @@ public class CxCommandManager {
 	 */
 	private static PointXY decodePoint( final ByteBuffer buffer ) {
 		// decode the attributes
-		final double x = buffer.getDouble();
-		final double y = buffer.getDouble();
+		final double x = decodeCoordinate( buffer, 0d );
+		final double y = decodeCoordinate( buffer, 0d );
 		
 		// return the point
 		return new PointXY( x, y );
@@ -659,6 +710,59 @@ public class CxCommandManager {
 		return new SplineXY( points );
 	}
 	
+	/** 
+	 * Decodes a NURBS curve from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the {@link NurbsCurveXY NURBS curve} instance
+	 */
+	private static NurbsCurveXY decodeNurbs( final ByteBuffer buffer ) {
+		// decode the degree and control points
+		final int degree = decodeCount( buffer );
+		final PointXY[] points = decodePoints( buffer );
+		
+		// decode the knots (if not implied)
+		final double[] knots = decodeValues( buffer );
+		
+		// decode the weights (if rational)
+		final double[] weights = decodeValues( buffer );
+		
+		// return the curve
+		return new NurbsCurveXY( degree, ( knots.length > 0 ) ? knots : null, points, ( weights.length > 0 ) ? weights : null );
+	}
+	
+	/** 
+	 * Decodes a parametric curve from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the {@link ParametricCurveXY parametric curve} instance
+	 */
+	private static ParametricCurveXY decodeParametricCurve( final ByteBuffer buffer ) {
+		// decode the equations and the range of the parameter
+		final String xEquation	= decodeString( buffer );
+		final String yEquation	= decodeString( buffer );
+		final double start		= decodeCoordinate( buffer, 0d );
+		final double end		= decodeCoordinate( buffer, start );
+		
+		// decode the placement and offset
+		final double[] transform = decodeValues( buffer );
+		final double offset		= decodeCoordinate( buffer, 0d );
+		
+		// return the curve
+		return new ParametricCurveXY( xEquation, yEquation, start, end, transform, offset );
+	}
+	
+	/** 
+	 * Decodes a polyline from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the {@link PolyLineXY polyline} instance
+	 */
+	private static PolyLineXY decodePolyLine( final ByteBuffer buffer ) {
+		// decode the vertices
+		final PointXY[] points = decodePoints( buffer );
+		
+		// return the polyline
+		return new PolyLineXY( points );
+	}
+	
 	/** 
 	 * Decodes a spiral from the given buffer
 	 * @param buffer the given {@link ByteBuffer buffer}
@@ -666,11 +770,11 @@ public class CxCommandManager {
 	 */
 	private static SpiralXY decodeSpiral( final ByteBuffer buffer ) {
 		// decode the attributes
-		final double cx			= buffer.getDouble();
-		final double cy 		= buffer.getDouble();
-		final double radius		= buffer.getDouble();
-		final double increment	= buffer.getDouble();
-		final int revolutions	= buffer.getShort();
+		final double cx			= decodeCoordinate( buffer, 0d );
+		final double cy 		= decodeCoordinate( buffer, 0d );
+		final double radius		= decodeCoordinate( buffer, 0d );
+		final double increment	= decodeCoordinate( buffer, 0d );
+		final int revolutions	= decodeCount( buffer );
 		
 		// return the spiral
 		return new SpiralXY( new PointXY( cx, cy ), radius, increment, revolutions );
@@ -683,8 +787,8 @@ public class CxCommandManager {
 	 */
 	private static TextNoteXY decodeTextNote( final ByteBuffer buffer ) {
 		// decode the attributes
-		final double x		= buffer.getDouble();
-		final double y		= buffer.getDouble();
+		final double x		= decodeCoordinate( buffer, 0d );
+		final double y		= decodeCoordinate( buffer, 0d );
 		final String text	= decodeString( buffer );
 		
 		// return the note
@@ -699,9 +803,9 @@ public class CxCommandManager {
 	 */
 	private static void encodeCircle( final DataOutputStream stream, final CircleXY circle ) 
 	throws IOException {
-		stream.writeDouble( circle.getCenterX() );
-		stream.writeDouble( circle.getCenterY() );
-		stream.writeDouble( circle.getRadius() );
+		encodeCoordinate( stream, circle.getCenterX(), 0d );
+		encodeCoordinate( stream, circle.getCenterY(), 0d );
+		encodeCoordinate( stream, circle.getRadius(), 0d );
 	}
 	
 	/**
@@ -712,9 +816,9 @@ public class CxCommandManager {
 	 */
 	private static void encodeCircularArc( final DataOutputStream stream, final ArcXY arc ) 
 	throws IOException {
-		stream.writeDouble( arc.getCenterX() );
-		stream.writeDouble( arc.getCenterY() );
-		stream.writeDouble( arc.getRadius() );
+		encodeCoordinate( stream, arc.getCenterX(), 0d );
+		encodeCoordinate( stream, arc.getCenterY(), 0d );
+		encodeCoordinate( stream, arc.getRadius(), 0d );
 		stream.writeDouble( arc.getAngleStart() );
 		stream.writeDouble( arc.getAngleEnd() );
 	}
@@ -727,10 +831,10 @@ public class CxCommandManager {
 	 */
 	private static void encodeEllipse( final DataOutputStream stream, final EllipseXY ellipse ) 
 	throws IOException {
-		stream.writeDouble( ellipse.getCenterX() );
-		stream.writeDouble( ellipse.getCenterY() );
-		stream.writeDouble( ellipse.getWidth() );
-		stream.writeDouble( ellipse.getHeight() );
+		encodeCoordinate( stream, ellipse.getCenterX(), 0d );
+		encodeCoordinate( stream, ellipse.getCenterY(), 0d );
+		encodeCoordinate( stream, ellipse.getWidth(), 0d );
+		encodeCoordinate( stream, ellipse.getHeight(), 0d );
 	}
 	
 	/**
@@ -745,7 +849,7 @@ public class CxCommandManager {
 		final List<EntityRepresentation> elements = comp.getElements();
 		
 		// write the number of elements
-		stream.writeShort( elements.size() );
+		encodeCount( stream, elements.size() );
 		
 		// write the elements
 		for( final EntityRepresentation element : elements ) {
@@ -761,10 +865,11 @@ public class CxCommandManager {
 	 */
 	private static void encodeLine( final DataOutputStream stream, final LineXY line ) 
 	throws IOException {
-		stream.writeDouble( line.getX1() );
-		stream.writeDouble( line.getY1() );
-		stream.writeDouble( line.getX2() );
-		stream.writeDouble( line.getY2() );
+		// the end point is relative to the start point
+		encodeCoordinate( stream, line.getX1(), 0d );
+		encodeCoordinate( stream, line.getY1(), 0d );
+		encodeCoordinate( stream, line.getX2(), line.getX1() );
+		encodeCoordinate( stream, line.getY2(), line.getY1() );
 	}
 	
 	/**
@@ -782,8 +887,8 @@ public class CxCommandManager {
 		final UserImage ui	= picture.getUserImage();
 		
 		// write the (x,y) coordinate, name and content
-		stream.writeDouble( p.getX() );
-		stream.writeDouble( p.getY() );
+		encodeCoordinate( stream, p.getX(), 0d );
+		encodeCoordinate( stream, p.getY(), 0d );
 		encodeString( stream, ui.getName() );
 		encodeContent( stream, ui.getContent() );
 	}
@@ -796,8 +901,8 @@ public class CxCommandManager {
 	 */
 	private static void encodePoint( final DataOutputStream stream, final PointXY point ) 
 	throws IOException {
-		stream.writeDouble( point.getX() );
-		stream.writeDouble( point.getY() );
+		encodeCoordinate( stream, point.getX(), 0d );
+		encodeCoordinate( stream, point.getY(), 0d );
 	}
 	
 	/**
@@ -818,6 +923,56 @@ public class CxCommandManager {
 		encodePoints( stream, points );
 	}
 	
+	/**
+	 * Encodes the given NURBS curve to the given stream
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param curve the given {@link NurbsCurveXY NURBS curve}
+	 * @throws IOException 
+	 */
+	private static void encodeNurbs( final DataOutputStream stream, final NurbsCurveXY curve ) 
+	throws IOException {
+		// encode the degree and control points
+		encodeCount( stream, curve.getDegree() );
+		encodePoints( stream, curve.getControlPoints() );
+		
+		// encode the knots (if not implied)
+		encodeValues( stream, curve.isUniform() ? new double[0] : curve.getKnots() );
+		
+		// encode the weights (if rational)
+		encodeValues( stream, curve.isRational() ? curve.getWeights() : new double[0] );
+	}
+	
+	/**
+	 * Encodes the given parametric curve to the given stream
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param curve the given {@link ParametricCurveXY parametric curve}
+	 * @throws IOException 
+	 */
+	private static void encodeParametricCurve( final DataOutputStream stream, final ParametricCurveXY curve ) 
+	throws IOException {
+		// encode the equations and the range of the parameter
+		encodeString( stream, curve.getXEquation() );
+		encodeString( stream, curve.getYEquation() );
+		encodeCoordinate( stream, curve.getStart(), 0d );
+		encodeCoordinate( stream, curve.getEnd(), curve.getStart() );
+		
+		// encode the placement and offset
+		encodeValues( stream, curve.getTransform() );
+		encodeCoordinate( stream, curve.getOffset(), 0d );
+	}
+	
+	/**
+	 * Encodes the given polyline to the given stream
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param polyLine the given {@link PolyLineXY polyline}
+	 * @throws IOException 
+	 */
+	private static void encodePolyLine( final DataOutputStream stream, final PolyLineXY polyLine ) 
+	throws IOException {				
+		// encode the vertices
+		encodePoints( stream, EntityRepresentationUtil.fromLimits( polyLine.getLimits() ) );
+	}
+	
 	/**
 	 * Encodes the given spiral to the given stream
 	 * @param stream the given {@link DataOutputStream stream}
@@ -830,11 +985,11 @@ public class CxCommandManager {
 		final PointXY p = spiral.getMidPoint();
 		
 		// encode the attributes
-		stream.writeDouble( p.getX() );
-		stream.writeDouble( p.getY() );
-		stream.writeDouble( spiral.getRadius() );
-		stream.writeDouble( spiral.getIncrement() );
-		stream.writeShort( spiral.getRevolutions() );
+		encodeCoordinate( stream, p.getX(), 0d );
+		encodeCoordinate( stream, p.getY(), 0d );
+		encodeCoordinate( stream, spiral.getRadius(), 0d );
+		encodeCoordinate( stream, spiral.getIncrement(), 0d );
+		encodeCount( stream, spiral.getRevolutions() );
 	}
 	
 	/**
@@ -849,9 +1004,103 @@ public class CxCommandManager {
 		final PointXY p = note.getLocation();
 		
 		// encode the text note
-		stream.writeDouble( p.getX() );
-		stream.writeDouble( p.getY() );
+		encodeCoordinate( stream, p.getX(), 0d );
+		encodeCoordinate( stream, p.getY(), 0d );
 		encodeString( stream, note.getTextString() );
 	}
 	
+	/**
+	 * Decodes a coordinate from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @param origin the origin of the coordinate (compact encoding)
+	 * @return the coordinate
+	 */
+	private static double decodeCoordinate( final ByteBuffer buffer, final double origin ) {
+		return isCompact() ? readCoordinate( buffer, origin ) : buffer.getDouble();
+	}
+	
+	/**
+	 * Encodes the given coordinate to the given stream; in the compact 
+	 * encoding, the coordinate is written relative to the given origin.
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param value the given coordinate
+	 * @param origin the given origin (e.g. the previous vertex, or zero)
+	 * @throws IOException 
+	 */
+	private static void encodeCoordinate( final DataOutputStream stream, final double value, final double origin ) 
+	throws IOException {
+		if( isCompact() ) {
+			writeCoordinate( stream, value, origin );
+		}
+		else {
+			stream.writeDouble( value );
+		}
+	}
+	
+	/**
+	 * Decodes an array of values (e.g. knots) from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the array of values
+	 */
+	private static double[] decodeValues( final ByteBuffer buffer ) {
+		// each value is relative to the previous one
+		final double[] values = new double[ decodeCount( buffer ) ];
+		double value = 0d;
+		for( int n = 0; n < values.length; n++ ) {
+			value = values[n] = decodeCoordinate( buffer, value );
+		}
+		return values;
+	}
+	
+	/**
+	 * Encodes the given array of values (e.g. knots) to the given stream
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param values the given array of values
+	 * @throws IOException 
+	 */
+	private static void encodeValues( final DataOutputStream stream, final double[] values ) 
+	throws IOException {
+		// each value is relative to the previous one
+		encodeCount( stream, values.length );
+		double value = 0d;
+		for( final double v : values ) {
+			encodeCoordinate( stream, v, value );
+			value = v;
+		}
+	}
+	
+	/**
+	 * Decodes a count (e.g. the number of points) from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the count
+	 */
+	private static int decodeCount( final ByteBuffer buffer ) {
+		return isCompact() ? readVarInt( buffer ) : buffer.getShort();
+	}
+	
+	/**
+	 * Encodes the given count (e.g. the number of points) to the given stream
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param count the given count
+	 * @throws IOException 
+	 */
+	private static void encodeCount( final DataOutputStream stream, final int count ) 
+	throws IOException {
+		if( isCompact() ) {
+			writeVarInt( stream, count );
+		}
+		else {
+			stream.writeShort( count );
+		}
+	}
+	
+	/**
+	 * Returns the RGB value of the given color symbol (compact encoding)
+	 * @param symbol the given symbol (or <tt>null</tt>)
+	 * @return the RGB value
+	 */
+	private static int rgbOf( final Object symbol ) {
+		return ( symbol != null ) ? (Integer)symbol : 0;
+	}
+	
 }
@@ -1,91 +1,441 @@
 package constellation.commands;
 
+import static constellation.commands.CxCommandEncoding.LATEST;
+import static constellation.commands.CxCommandEncoding.MAX_FRAME_LENGTH;
+import static constellation.commands.CxCommandEncoding.VERSION_1;
+import static constellation.commands.CxCommandEncoding.VERSION_2;
 import static java.lang.String.format;
 
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
-import org.apache.log4j.Logger;
+import constellation.commands.builtin.SetEncodingCommand;
 
 /**
- * Constellation Command Reader
+ * Constellation Command Reader. Commands are received as length-prefixed 
+ * frames, which are accumulated in a (pooled) direct buffer, and decoded 
+ * in place. When reading from a non-blocking channel, the reader waits on 
+ * a selector until data arrives; thus an idle connection consumes no CPU.
+ * The frames are decoded in the {@link CxCommandEncoding encoding} announced
+ * by the last {@link SetEncodingCommand "Set Encoding" command} received (or
+ * the original encoding, until one has been received).
  * @author lawrence.daniels@gmail.com
  */
 public class CxCommandReader {
-	private final Logger logger = Logger.getLogger( getClass() );
+	private static final int INITIAL_CAPACITY = 64 * 1024;
 	private final CxCommandManager ccm;
-	private final DataInputStream in;
+	private final ReadableByteChannel channel;
+	private final Selector selector;
+	private final CxSymbolTable symbols;
+	private CxCommandWriter responder;
+	private Inflater inflater;
+	private ByteBuffer buffer;
+	private int version;
+	private int prefixLength;
+	private int frameLength;
 	
 	/**
 	 * Creates a new command reader instance
 	 * @param in the given {@link InputStream input stream}
 	 */
 	public CxCommandReader( final InputStream in ) {
-		this.ccm	= CxCommandManager.getInstance();
-		this.in 	= new DataInputStream( new BufferedInputStream( in, 1024 ) );
+		this( Channels.newChannel( in ), null );
 	}
 	
 	/**
-	 * Closes the reader
+	 * Creates a new command reader instance
+	 * @param channel the given {@link ReadableByteChannel channel}
+	 * @throws IOException
+	 */
+	public CxCommandReader( final ReadableByteChannel channel ) 
+	throws IOException {
+		this( channel, CxCommandChannel.openSelector( channel, SelectionKey.OP_READ ) );
+	}
+	
+	/**
+	 * Creates a new command reader instance
+	 * @param channel the given {@link ReadableByteChannel channel}
+	 * @param selector the {@link Selector selector} to wait on, or <tt>null</tt> for a blocking channel
+	 */
+	private CxCommandReader( final ReadableByteChannel channel, final Selector selector ) {
+		this.ccm		= CxCommandManager.getInstance();
+		this.channel	= channel;
+		this.selector	= selector;
+		this.buffer		= CxBufferPool.acquire( INITIAL_CAPACITY );
+		this.symbols	= new CxSymbolTable();
+		this.version	= VERSION_1;
+	}
+	
+	/**
+	 * Closes the reader, and returns its buffer to the pool
 	 * @throws IOException
 	 */
 	public void close() 
 	throws IOException {
-		in.close();
+		try {
+			channel.close();
+		}
+		finally {
+			if( selector != null ) {
+				selector.close();
+			}
+			if( inflater != null ) {
+				inflater.end();
+				inflater = null;
+			}
+			release();
+		}
 	}
 	
 	/**
-	 * Reads the next command from the stream
-	 * @return the {@link CxCommand command}
+	 * Returns the buffer to the pool (once)
+	 */
+	private synchronized void release() {
+		if( buffer != null ) {
+			CxBufferPool.release( buffer );
+			buffer = null;
+		}
+	}
+	
+	/**
+	 * Sets the writer which is to be informed of the encodings accepted by
+	 * the remote end (i.e. the writer of the same connection)
+	 * @param writer the given {@link CxCommandWriter command writer}
+	 */
+	void setResponder( final CxCommandWriter writer ) {
+		this.responder = writer;
+	}
+	
+	/**
+	 * Returns the encoding version of the commands being read
+	 * @return the {@link CxCommandEncoding encoding} version
+	 */
+	public int getEncoding() {
+		return version;
+	}
+
+	/**
+	 * Decodes the commands which follow in the given encoding, with an empty
+	 * symbol table; i.e. the state of the reader immediately after receiving
+	 * a {@link SetEncodingCommand "Set Encoding" command}. This allows a reader
+	 * to start at any point of a stream at which the writer switched encodings.
+	 * @param version the given {@link CxCommandEncoding encoding} version
+	 * @throws IOException if the encoding is not supported
+	 */
+	public void assumeEncoding( final int version )
+	throws IOException {
+		if( ( version < VERSION_1 ) || ( version > LATEST ) ) {
+			throw new IOException( format( "Unsupported command encoding (v%d)", version ) );
+		}
+		this.version = version;
+		symbols.clear();
+	}
+
+	/**
+	 * Returns the number of bytes which have been received, but not yet decoded
+	 * @return the number of bytes
+	 */
+	public int getBufferedLength() {
+		final ByteBuffer buffer = this.buffer;
+		return ( buffer != null ) ? buffer.position() : 0;
+	}
+
+	/**
+	 * Reads the next command from the stream; blocks until a complete
+	 * command has been received.
+	 * @return the {@link CxCommand command}, or <tt>null</tt> if the end of the stream has been reached
 	 * @throws IOException
 	 */
 	public CxCommand read() 
-	throws IOException {		
-		// if no bytes are available, return null
-		if( in.available() == 0 ) {
-			return null;
+	throws IOException {
+		// wait until a complete frame has been received
+		while( !isFrameComplete() ) {
+			if( !fill() ) {
+				if( buffer.position() > 0 ) {
+					throw new EOFException( format( "Stream ended within a frame (%d bytes received)", buffer.position() ) );
+				}
+				return null;
+			}
 		}
 		
-		// read the length of the next instruction
-		final int length = in.readInt();
-		
-		// wait until at least 'n' bytes are in the stream
-		int ticker = 0;
-		while( in.available() < length ) {
-			// every 30 seconds
-			if( ticker++ % 1200 == 0 ) {
-				logger.info( format( "%d (of %d) bytes available...", in.available(), length ) );
+		// decode the frame
+		return decodeFrame();
+	}
+	
+	/**
+	 * Retrieves the next command from the stream, if one is available within 
+	 * the given time; i.e. if a complete command has already been received, or 
+	 * (for a non-blocking channel) arrives within the given timeout. The end of 
+	 * the stream is not reported by this method, but by the next {@link #read()}.
+	 * @param timeout the maximum time (in milliseconds) to wait for a command
+	 * @return the {@link CxCommand command}, or <tt>null</tt> if none is available
+	 * @throws IOException
+	 */
+	public CxCommand poll( final long timeout ) 
+	throws IOException {
+		final long deadline = System.currentTimeMillis() + timeout;
+		while( !isFrameComplete() ) {
+			// a blocking channel cannot be read without the risk of blocking
+			if( selector == null ) {
+				return null;
 			}
 			
-			// sleep 25 msec
-			try { Thread.sleep( 25 ); } 
-			catch( final InterruptedException e ) {
-				logger.error( format( "Interrupted while awaiting %d bytes from stream", length ), e );
+			// read the available bytes
+			final int count = channel.read( buffer );
+			if( count < 0 ) {
 				return null;
 			}
+			
+			// wait for more data (until the deadline)
+			if( count == 0 ) {
+				final long remaining = deadline - System.currentTimeMillis();
+				if( ( remaining <= 0 ) || Thread.currentThread().isInterrupted() ) {
+					return null;
+				}
+				selector.select( remaining );
+				selector.selectedKeys().clear();
+			}
+		}
+		
+		// decode the frame
+		return decodeFrame();
+	}
+	
+	/**
+	 * Decodes the complete frame at the head of the buffer into a command
+	 * @return the {@link CxCommand command}
+	 * @throws IOException
+	 */
+	private CxCommand decodeFrame() 
+	throws IOException {
+		// isolate the frame
+		final int length = frameLength;
+		buffer.flip();
+		buffer.position( prefixLength );
+		final int limit = buffer.limit();
+		buffer.limit( buffer.position() + length );
+		final ByteBuffer frame = buffer.slice();
+		
+		try {
+			// decode the frame into a command
+			final CxCommand command = ( version >= VERSION_2 ) ? decodeCompact( frame ) : decode( frame );
+			command.setLength( length );
+			switched( command );
+			return command;
+		}
+		finally {
+			// discard the frame (retaining the bytes of the next one)
+			buffer.position( buffer.limit() ).limit( limit );
+			if( buffer.hasRemaining() ) {
+				buffer.compact();
+			}
+			else {
+				buffer.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Decodes the given payload into a command
+	 * @param payload the given {@link ByteBuffer payload}
+	 * @return the {@link CxCommand command}
+	 * @throws IOException
+	 */
+	private CxCommand decode( final ByteBuffer payload ) 
+	throws IOException {
+		// decode the opCode into a command
+		final CxCommandDecoder decoder = ccm.getDecoder( payload );
+		return decoder.decode( payload );
+	}
+	
+	/**
+	 * Decodes the given frame (in the compact encoding) into a command
+	 * @param frame the given {@link ByteBuffer frame}
+	 * @return the {@link CxCommand command}
+	 * @throws IOException
+	 */
+	private CxCommand decodeCompact( final ByteBuffer frame ) 
+	throws IOException {
+		// read the header, the symbols, and the (possibly compressed) payload
+		final int header = CxCommandEncoding.readVarInt( frame );
+		final List<Object> frameSymbols = symbols.read( frame, header >>> 1 );
+		final ByteBuffer payload = ( ( header & CxCommandFrame.DEFLATED ) != 0 ) ? inflate( frame ) : frame;
+		
+		// decode the payload
+		CxCommandEncoding.beginDecoding( frameSymbols );
+		try {
+			return decode( payload );
+		}
+		finally {
+			CxCommandEncoding.end();
+		}
+	}
+	
+	/**
+	 * Decompresses the remainder of the given frame
+	 * @param frame the given {@link ByteBuffer frame}
+	 * @return the decompressed {@link ByteBuffer payload}
+	 * @throws IOException
+	 */
+	private ByteBuffer inflate( final ByteBuffer frame ) 
+	throws IOException {
+		// get the compressed data
+		final int length = CxCommandEncoding.readVarInt( frame );
+		if( ( length < 0 ) || ( length > MAX_FRAME_LENGTH ) ) {
+			throw new IOException( format( "Invalid decompressed frame length (%d bytes)", length ) );
+		}
+		final byte[] input = new byte[ frame.remaining() ];
+		frame.get( input );
+		
+		// decompress the data
+		if( inflater == null ) {
+			inflater = new Inflater();
+		}
+		else {
+			inflater.reset();
+		}
+		inflater.setInput( input );
+		final byte[] payload = new byte[ length ];
+		try {
+			if( ( inflater.inflate( payload ) != length ) || !inflater.finished() ) {
+				throw new IOException( format( "Compressed frame does not match its length (%d bytes)", length ) );
+			}
+		}
+		catch( final DataFormatException e ) {
+			throw new IOException( format( "Malformed compressed frame (%s)", e.getMessage() ) );
+		}
+		return ByteBuffer.wrap( payload );
+	}
+	
+	/**
+	 * Applies the given command (once received), if it switches the encoding
+	 * @param command the given {@link CxCommand command}
+	 * @throws IOException if the encoding is not supported
+	 */
+	private void switched( final CxCommand command ) 
+	throws IOException {
+		if( command instanceof SetEncodingCommand ) {
+			final SetEncodingCommand encoding = (SetEncodingCommand)command;
+			if( ( encoding.getVersion() < VERSION_1 ) || ( encoding.getVersion() > LATEST ) ) {
+				throw new IOException( format( "Unsupported command encoding (v%d)", encoding.getVersion() ) );
+			}
+			
+			// switch the encoding
+			version = encoding.getVersion();
+			symbols.clear();
+			
+			// inform the writer of the encodings accepted by the remote end
+			if( responder != null ) {
+				responder.setAcceptedEncoding( encoding.getAccepted() );
+			}
+		}
+	}
+	
+	/**
+	 * Indicates whether the buffer contains a complete frame; the buffer
+	 * is enlarged if the frame exceeds its capacity.
+	 * @return true, if the buffer contains a complete frame
+	 * @throws IOException if the length of the frame is invalid (the reader is closed)
+	 */
+	private boolean isFrameComplete() 
+	throws IOException {
+		// has the reader been closed?
+		if( buffer == null ) {
+			throw new ClosedChannelException();
 		}
 		
-		// is there enough data to read the next command?
-		final byte[] block = new byte[ length ];
-		in.read( block );
+		// has the length been received?
+		if( !readPrefix() ) {
+			return false;
+		}
 		
-		// wrap the block in a byte buffer
-		final ByteBuffer buffer = ByteBuffer.allocate( length );
-		buffer.put( block );
-		buffer.rewind();
+		// is the length valid? (if not, the stream cannot be re-synchronized)
+		final int length = frameLength;
+		if( ( length < 1 ) || ( length > MAX_FRAME_LENGTH ) ) {
+			close();
+			throw new IOException( format( "Invalid frame length (%d bytes)", length ) );
+		}
 		
-		// get the decoder
-		final CxCommandDecoder decoder = ccm.getDecoder( buffer );
+		// will the frame fit into the buffer?
+		if( length + prefixLength > buffer.capacity() ) {
+			final ByteBuffer enlarged = CxBufferPool.acquire( length + prefixLength );
+			buffer.flip();
+			enlarged.put( buffer );
+			CxBufferPool.release( buffer );
+			buffer = enlarged;
+		}
+		return buffer.position() >= length + prefixLength;
+	}
+	
+	/**
+	 * Reads the length prefix of the frame at the head of the buffer; i.e. a 
+	 * 4-byte integer in the original encoding, and a variable-length integer 
+	 * in the compact encoding.
+	 * @return true, if the length prefix has been received
+	 * @throws IOException if the length prefix is malformed
+	 */
+	private boolean readPrefix() 
+	throws IOException {
+		// original encoding
+		if( version < VERSION_2 ) {
+			if( buffer.position() < 4 ) {
+				return false;
+			}
+			prefixLength = 4;
+			frameLength = buffer.getInt( 0 );
+			return true;
+		}
 		
-		// decode the opCode into a command
-		final CxCommand command = decoder.decode( buffer );
-		command.setLength( length );
+		// compact encoding
+		int length = 0;
+		for( int index = 0; index < buffer.position(); index++ ) {
+			final byte b = buffer.get( index );
+			length |= ( b & 0x7F ) << ( 7 * index );
+			if( b >= 0 ) {
+				prefixLength = index + 1;
+				frameLength = length;
+				return true;
+			}
+			if( index == 4 ) {
+				throw new IOException( "Malformed frame length" );
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Reads the available bytes into the buffer; if none are available, 
+	 * waits until they are.
+	 * @return false, if the end of the stream has been reached
+	 * @throws IOException
+	 */
+	private boolean fill() 
+	throws IOException {
+		final int count = channel.read( buffer );
+		if( count < 0 ) {
+			return false;
+		}
 		
-		// return the command 
-		return command;
+		// wait for more data
+		if( ( count == 0 ) && ( selector != null ) ) {
+			if( Thread.currentThread().isInterrupted() ) {
+				throw new InterruptedIOException( "Interrupted while awaiting a command" );
+			}
+			selector.select();
+			selector.selectedKeys().clear();
+		}
+		return true;
 	}
 		
 }
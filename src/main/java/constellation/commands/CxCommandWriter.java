@@ -1,64 +1,498 @@
 package constellation.commands;
 
-import java.io.ByteArrayOutputStream;
+import static constellation.commands.CxCommandEncoding.LATEST;
+import static constellation.commands.CxCommandEncoding.MAX_FRAME_LENGTH;
+import static constellation.commands.CxCommandEncoding.VERSION_1;
+import static constellation.commands.CxCommandEncoding.VERSION_2;
+import static constellation.commands.CxCommandFrame.DEFLATED;
+import static constellation.commands.CxCommandFrame.DEFLATE_THRESHOLD;
+import static java.lang.String.format;
+
 import java.io.DataOutputStream;
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import constellation.commands.builtin.SetEncodingCommand;
 
 /**
- * Constellation Command Writer
+ * Constellation Command Writer. Each command is encoded directly into a
+ * (pooled) direct buffer, behind the space reserved for the length of the
+ * frame, and the buffer is then written to the channel as is; in the compact
+ * encoding, the header and the symbols of the frame (which are only known once
+ * the command has been encoded) are assembled in a second buffer, and large
+ * payloads are compressed into a third one. When writing 
+ * to a non-blocking channel, the writer waits on a selector whenever the
+ * channel cannot accept more data. The commands are written in the original
+ * {@link CxCommandEncoding encoding}, until the writer writes a {@link 
+ * SetEncodingCommand "Set Encoding" command}; i.e. when it is asked to 
+ * {@link #setEncoding(int) switch} explicitly, or the remote end has 
+ * announced that it accepts a more compact encoding.
  * @author lawrence.daniels@gmail.com
  */
 public class CxCommandWriter {
-	private final ByteArrayOutputStream baos;
-	private final DataOutputStream buffer;
-	private final DataOutputStream out;
+	private static final int INITIAL_CAPACITY = 64 * 1024;
+	private static final int MAX_VARINT_SIZE = 5;
+	private final WritableByteChannel channel;
+	private final Selector selector;
+	private final Flushable flushable;
+	private final FrameOutputStream frame;
+	private final DataOutputStream stream;
+	private final FrameOutputStream prefix;
+	private final DataOutputStream prefixStream;
+	private Deflater deflater;	// guarded by frame
+	private final CxSymbolTable symbols;
+	private volatile int accepted;
+	private int version;
 	
 	/**
 	 * Creates a new command writer instance
 	 * @param out the given {@link OutputStream output stream}
 	 */
 	public CxCommandWriter( final OutputStream out ) {
-		this.out 	= new DataOutputStream( out ); 
-		this.baos	= new ByteArrayOutputStream( 65535 );
-		this.buffer	= new DataOutputStream( baos );
+		this( Channels.newChannel( out ), null, out );
+	}
+	
+	/**
+	 * Creates a new command writer instance
+	 * @param channel the given {@link WritableByteChannel channel}
+	 * @throws IOException
+	 */
+	public CxCommandWriter( final WritableByteChannel channel ) 
+	throws IOException {
+		this( channel, CxCommandChannel.openSelector( channel, SelectionKey.OP_WRITE ), null );
+	}
+	
+	/**
+	 * Creates a new command writer instance
+	 * @param channel the given {@link WritableByteChannel channel}
+	 * @param selector the {@link Selector selector} to wait on, or <tt>null</tt> for a blocking channel
+	 * @param flushable the underlying {@link Flushable stream} to flush after each command, or <tt>null</tt>
+	 */
+	private CxCommandWriter( final WritableByteChannel channel, final Selector selector, final Flushable flushable ) {
+		this.channel	= channel;
+		this.selector	= selector;
+		this.flushable	= flushable;
+		this.frame		= new FrameOutputStream( INITIAL_CAPACITY );
+		this.stream		= new DataOutputStream( frame );
+		this.prefix		= new FrameOutputStream( 1024 );
+		this.prefixStream	= new DataOutputStream( prefix );
+		this.symbols	= new CxSymbolTable();
+		this.version	= VERSION_1;
 	}
 	
 	/**
-	 * Closes the writer
+	 * Closes the writer, and returns its buffers to the pool
 	 * @throws IOException
 	 */
 	public void close() 
 	throws IOException {
-		out.close();
+		try {
+			channel.close();
+		}
+		finally {
+			if( selector != null ) {
+				selector.close();
+			}
+			frame.release();
+			prefix.release();
+			synchronized( frame ) {
+				if( deflater != null ) {
+					deflater.end();
+					deflater = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the encoding version of the commands being written
+	 * @return the {@link CxCommandEncoding encoding} version
+	 */
+	public synchronized int getEncoding() {
+		return version;
+	}
+	
+	/**
+	 * Switches the encoding of the commands which follow; i.e. writes a 
+	 * {@link SetEncodingCommand "Set Encoding" command} to the stream.
+	 * The reader must be able to decode the given version.
+	 * @param version the given {@link CxCommandEncoding encoding} version
+	 * @throws IOException
+	 */
+	public void setEncoding( final int version ) 
+	throws IOException {
+		write( SetEncodingCommand.create( version ) );
+	}
+	
+	/**
+	 * Records the highest encoding version the remote end is able to decode;
+	 * the writer switches to it (if it is more compact) before writing the 
+	 * next command.
+	 * @param version the given {@link CxCommandEncoding encoding} version
+	 */
+	void setAcceptedEncoding( final int version ) {
+		accepted = version;
 	}
 
 	/**
 	 * Appends the given command to the stream
-	 * @return the {@link CxCommand command}
+	 * @param command the given {@link CxCommand command}
 	 * @throws IOException
 	 */
-	public void write( final CxCommand command ) 
+	public synchronized void write( final CxCommand command ) 
 	throws IOException {
-		// reset the buffer
-		baos.reset();
-		
-		// encode the command
-		command.encode( buffer );
+		upgrade();
+		writeCommand( command );
+	}
+	
+	/**
+	 * Appends the given (previously encoded) frame to the stream
+	 * @param frame the given {@link CxCommandFrame frame}
+	 * @throws IOException
+	 */
+	public synchronized void write( final CxCommandFrame frame ) 
+	throws IOException {
+		upgrade();
+		if( version >= VERSION_2 ) {
+			writeCompact( frame );
+		}
+		else {
+			transfer( frame.getBuffer() );
+		}
+		flush();
+		switched( frame.getCommand() );
+	}
+	
+	/**
+	 * Switches to the most compact encoding accepted by the remote end, 
+	 * if the current encoding is less compact
+	 * @throws IOException
+	 */
+	private void upgrade() 
+	throws IOException {
+		final int target = Math.min( accepted, LATEST );
+		if( target > version ) {
+			writeCommand( SetEncodingCommand.create( target ) );
+		}
+	}
+	
+	/**
+	 * Encodes the given command, and writes it to the stream
+	 * @param command the given {@link CxCommand command}
+	 * @throws IOException
+	 */
+	private void writeCommand( final CxCommand command ) 
+	throws IOException {
+		// encode the command in place
+		if( version >= VERSION_2 ) {
+			writeCompact( command );
+		}
+		else {
+			frame.reset();
+			command.encode( stream );
+			stream.flush();
+			
+			// set the length of the command
+			final ByteBuffer buffer = frame.getBuffer();
+			final int length = buffer.position() - 4;
+			checkLength( length );
+			buffer.putInt( 0, length );
+			command.setLength( length );
+				
+			// write the frame to the channel
+			buffer.flip();
+			transfer( buffer );
+		}
+		flush();
+		switched( command );
+	}
+	
+	/**
+	 * Writes the given frame in the compact encoding; i.e. the references
+	 * to the frame's symbols (see {@link CxSymbolTable}), followed by the
+	 * frame's (shared) body.
+	 * @param encoded the given {@link CxCommandFrame frame}
+	 * @throws IOException
+	 */
+	private void writeCompact( final CxCommandFrame encoded ) 
+	throws IOException {
+		final List<Object> frameSymbols = encoded.getSymbols();
+		final ByteBuffer body = encoded.getBody();
+		final int flags = body.get();
 		
-		// flush the buffer
-		buffer.flush();
+		// write the header and the symbols, followed by the body
+		prefix.reset( MAX_VARINT_SIZE );
+		CxCommandEncoding.writeVarInt( prefixStream, ( frameSymbols.size() << 1 ) | flags );
+		symbols.write( prefixStream, frameSymbols );
+		prefixStream.flush();
+		transferCompact( body );
+	}
+	
+	/**
+	 * Encodes the given command in place, in the compact encoding (see
+	 * {@link CxCommandFrame}); the payload is encoded into the frame's buffer,
+	 * and then preceded by the header and the symbols it references.
+	 * @param command the given {@link CxCommand command}
+	 * @throws IOException
+	 */
+	private void writeCompact( final CxCommand command ) 
+	throws IOException {
+		// encode the payload (gathering the symbols), leaving room for the compact opCode
+		frame.reset( MAX_VARINT_SIZE );
+		final CxCommandEncoding encoding = CxCommandEncoding.beginEncoding();
+		try {
+			command.encode( stream );
+			stream.flush();
+		}
+		finally {
+			CxCommandEncoding.end();
+		}
 		
-		// get the data
-		final byte[] data = baos.toByteArray();
+		// replace the leading opCode with its compact form
+		final ByteBuffer payload = frame.getBuffer();
+		final int opCode = payload.getInt( MAX_VARINT_SIZE );
+		payload.flip();
+		payload.position( MAX_VARINT_SIZE + 4 - CxCommandEncoding.sizeOfVarInt( opCode ) );
+		CxCommandEncoding.putVarInt( payload.duplicate(), opCode );
 		
-		// set the length of the command
-		command.setLength( data.length );
+		// compress large payloads
+		final int size = payload.remaining();
+		final ByteBuffer deflated = ( size >= DEFLATE_THRESHOLD ) ? deflate( payload ) : null;
+		try {
+			// write the header and the symbols (and the length of a compressed payload)
+			final List<Object> frameSymbols = encoding.getSymbols();
+			prefix.reset( MAX_VARINT_SIZE );
+			CxCommandEncoding.writeVarInt( prefixStream, ( frameSymbols.size() << 1 ) | ( ( deflated != null ) ? DEFLATED : 0 ) );
+			symbols.write( prefixStream, frameSymbols );
+			if( deflated != null ) {
+				CxCommandEncoding.writeVarInt( prefixStream, size );
+			}
+			prefixStream.flush();
+			
+			// followed by the payload
+			command.setLength( transferCompact( ( deflated != null ) ? deflated : payload ) );
+		}
+		finally {
+			if( deflated != null ) {
+				CxBufferPool.release( deflated );
+			}
+		}
+	}
+	
+	/**
+	 * Compresses the given payload into a pooled buffer, provided that it
+	 * shrinks by more than the size of its length (which precedes it)
+	 * @param payload the given payload
+	 * @return the {@link ByteBuffer buffer} containing the compressed payload, or <tt>null</tt>
+	 * @throws IOException if the writer has been closed
+	 */
+	private ByteBuffer deflate( final ByteBuffer payload ) 
+	throws IOException {
+		final ByteBuffer deflated = CxBufferPool.acquire( payload.remaining() );
+		deflated.limit( payload.remaining() - MAX_VARINT_SIZE - 1 );
+		synchronized( frame ) {
+			if( frame.getBuffer() == null ) {
+				CxBufferPool.release( deflated );
+				throw new ClosedChannelException();
+			}
+			
+			// the compressor is re-used for each payload
+			if( deflater == null ) {
+				deflater = new Deflater( Deflater.BEST_SPEED );
+			}
+			else {
+				deflater.reset();
+			}
 			
-		// write the bytes to the stream
-		out.writeInt( data.length );
-		out.write( data );
-		out.flush();
+			// compress the payload (until the compressed form is no smaller)
+			deflater.setInput( payload.duplicate() );
+			deflater.finish();
+			while( !deflater.finished() && deflated.hasRemaining() ) {
+				deflater.deflate( deflated );
+			}
+			if( deflater.finished() ) {
+				deflated.flip();
+				return deflated;
+			}
+		}
+		CxBufferPool.release( deflated );
+		return null;
+	}
+	
+	/**
+	 * Writes the header which has been assembled in the prefix buffer, preceded 
+	 * by the length of the frame, followed by the given body, to the channel
+	 * @param body the given body of the frame
+	 * @return the length of the frame
+	 * @throws IOException
+	 */
+	private int transferCompact( final ByteBuffer body ) 
+	throws IOException {
+		// prefix the frame with its length
+		final ByteBuffer header = prefix.getBuffer();
+		final int length = header.position() - MAX_VARINT_SIZE + body.remaining();
+		checkLength( length );
+		header.flip();
+		header.position( MAX_VARINT_SIZE - CxCommandEncoding.sizeOfVarInt( length ) );
+		CxCommandEncoding.putVarInt( header.duplicate(), length );
+		
+		// write the header, the symbols and the body to the channel
+		transfer( header );
+		transfer( body );
+		return length;
+	}
+	
+	/**
+	 * Rejects frames which the remote end would not accept
+	 * (see {@link CxCommandEncoding#MAX_FRAME_LENGTH})
+	 * @param length the given length of the frame
+	 * @throws IOException if the frame is too large
+	 */
+	private static void checkLength( final int length ) 
+	throws IOException {
+		if( length > MAX_FRAME_LENGTH ) {
+			throw new IOException( format( "The command exceeds the maximum frame length (%d bytes)", length ) );
+		}
+	}
+	
+	/**
+	 * Applies the given command (once written), if it switches the encoding
+	 * @param command the given {@link CxCommand command}
+	 */
+	private void switched( final CxCommand command ) {
+		if( command instanceof SetEncodingCommand ) {
+			version = ( (SetEncodingCommand)command ).getVersion();
+			symbols.clear();
+		}
+	}
+	
+	/**
+	 * Writes the remaining bytes of the given buffer to the channel
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @throws IOException
+	 */
+	private void transfer( final ByteBuffer buffer ) 
+	throws IOException {
+		while( buffer.hasRemaining() ) {
+			if( ( channel.write( buffer ) == 0 ) && ( selector != null ) ) {
+				if( Thread.currentThread().isInterrupted() ) {
+					throw new InterruptedIOException( "Interrupted while writing a command" );
+				}
+				selector.select();
+				selector.selectedKeys().clear();
+			}
+		}
+	}
+	
+	/**
+	 * Flushes the underlying stream (if any)
+	 * @throws IOException
+	 */
+	private void flush() 
+	throws IOException {
+		if( flushable != null ) {
+			flushable.flush();
+		}
+	}
+	
+	/**
+	 * Encodes data into a growable (pooled) buffer, following the 4 bytes
+	 * which are reserved for the length of the frame
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class FrameOutputStream extends OutputStream {
+		private ByteBuffer buffer;
+		
+		/**
+		 * Creates a new frame output stream
+		 * @param capacity the given initial capacity
+		 */
+		public FrameOutputStream( final int capacity ) {
+			this.buffer = CxBufferPool.acquire( capacity );
+		}
+		
+		/**
+		 * Returns the buffer containing the frame
+		 * @return the {@link ByteBuffer buffer}
+		 */
+		public ByteBuffer getBuffer() {
+			return buffer;
+		}
+		
+		/**
+		 * Returns the buffer to the pool (once); the stream can not be written afterwards
+		 */
+		public synchronized void release() {
+			if( buffer != null ) {
+				CxBufferPool.release( buffer );
+				buffer = null;
+			}
+		}
+		
+		/**
+		 * Discards the current frame
+		 * @throws IOException if the stream has been released
+		 */
+		public void reset() 
+		throws IOException {
+			reset( 4 );
+		}
+		
+		/**
+		 * Discards the current frame, reserving the given number of bytes for its length
+		 * @param reserved the given number of bytes
+		 * @throws IOException if the stream has been released
+		 */
+		public void reset( final int reserved ) 
+		throws IOException {
+			if( buffer == null ) {
+				throw new ClosedChannelException();
+			}
+			buffer.clear();
+			buffer.position( reserved );
+		}
+
+		/* 
+		 * (non-Javadoc)
+		 * @see java.io.OutputStream#write(int)
+		 */
+		public void write( final int b ) {
+			insureCapacity( 1 );
+			buffer.put( (byte)b );
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.io.OutputStream#write(byte[], int, int)
+		 */
+		public void write( final byte[] bytes, final int offset, final int length ) {
+			insureCapacity( length );
+			buffer.put( bytes, offset, length );
+		}
+		
+		/**
+		 * Insures the buffer can accept the given number of additional bytes
+		 * @param count the given number of bytes
+		 */
+		private void insureCapacity( final int count ) {
+			if( buffer.remaining() < count ) {
+				final ByteBuffer enlarged = CxBufferPool.acquire( Math.max( 2 * buffer.capacity(), buffer.position() + count ) );
+				buffer.flip();
+				enlarged.put( buffer );
+				CxBufferPool.release( buffer );
+				buffer = enlarged;
+			}
+		}
 	}
 	
 }
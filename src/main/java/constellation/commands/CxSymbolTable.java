@@ -0,0 +1,137 @@
+package constellation.commands;
+
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Constellation Symbol Table. Represents the dictionary of symbols (i.e. the
+ * strings and colors) which have been sent over one direction of a connection
+ * in the {@link CxCommandEncoding#VERSION_2 compact encoding}. Each frame
+ * begins with the list of the symbols it references (see {@link CxCommandFrame}); 
+ * a symbol is sent in full the first time, and by its number thereafter:
+ * <pre>
+ * symbol  := 0 length:varint utf8:byte[]   (a new string)
+ *          | 1 rgb:int                     (a new color)
+ *          | ( number + 2 ):varint         (a known symbol)
+ * </pre>
+ * Both ends number the symbols in the same order; once the table holds
+ * {@link #MAX_SYMBOLS} symbols, both ends clear it before adding the next one.
+ * The table is also cleared whenever the encoding is switched.
+ * @author lawrence.daniels@gmail.com
+ */
+class CxSymbolTable {
+	// the maximum number of symbols retained per connection
+	static final int MAX_SYMBOLS = 65536;
+
+	// symbol tags
+	private static final int NEW_STRING	= 0;
+	private static final int NEW_COLOR	= 1;
+	private static final int KNOWN		= 2;
+
+	// internal fields
+	private final Map<Object, Integer> numbers;
+	private final List<Object> symbols;
+
+	/**
+	 * Creates a new (empty) symbol table
+	 */
+	public CxSymbolTable() {
+		this.numbers	= new HashMap<Object, Integer>();
+		this.symbols	= new ArrayList<Object>();
+	}
+
+	/**
+	 * Removes all symbols from the table
+	 */
+	public void clear() {
+		numbers.clear();
+		symbols.clear();
+	}
+
+	/**
+	 * Writes the given symbols of a frame to the given stream; the new symbols are added to the table
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param frameSymbols the given {@link List list} of symbols
+	 * @throws IOException
+	 */
+	public void write( final DataOutputStream stream, final List<Object> frameSymbols )
+	throws IOException {
+		for( final Object symbol : frameSymbols ) {
+			// is the symbol known?
+			final Integer number = numbers.get( symbol );
+			if( number != null ) {
+				CxCommandEncoding.writeVarInt( stream, number + KNOWN );
+				continue;
+			}
+
+			// write the new symbol
+			if( symbol instanceof String ) {
+				final byte[] bytes = ((String)symbol).getBytes( CxCommandEncoding.UTF8 );
+				stream.writeByte( NEW_STRING );
+				CxCommandEncoding.writeVarInt( stream, bytes.length );
+				stream.write( bytes );
+			}
+			else {
+				stream.writeByte( NEW_COLOR );
+				stream.writeInt( (Integer)symbol );
+			}
+
+			// add it to the table
+			if( numbers.size() == MAX_SYMBOLS ) {
+				numbers.clear();
+			}
+			numbers.put( symbol, numbers.size() );
+		}
+	}
+
+	/**
+	 * Reads the symbols of a frame from the given buffer; the new symbols are added to the table
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @param count the given number of symbols
+	 * @return the {@link List list} of symbols
+	 * @throws IllegalStateException if a symbol is invalid
+	 */
+	public List<Object> read( final ByteBuffer buffer, final int count ) {
+		final List<Object> frameSymbols = new ArrayList<Object>( count );
+		for( int n = 0; n < count; n++ ) {
+			final int tag = CxCommandEncoding.readVarInt( buffer );
+			final Object symbol;
+			switch( tag ) {
+				case NEW_STRING:
+					final byte[] bytes = new byte[ CxCommandEncoding.readVarInt( buffer ) ];
+					buffer.get( bytes );
+					symbol = new String( bytes, CxCommandEncoding.UTF8 );
+					break;
+
+				case NEW_COLOR:
+					symbol = buffer.getInt();
+					break;
+
+				default:
+					// lookup the known symbol
+					final int number = tag - KNOWN;
+					if( number >= symbols.size() ) {
+						throw new IllegalStateException( format( "Unknown symbol #%d (of %d)", number, symbols.size() ) );
+					}
+					frameSymbols.add( symbols.get( number ) );
+					continue;
+			}
+
+			// add the new symbol to the table
+			if( symbols.size() == MAX_SYMBOLS ) {
+				symbols.clear();
+			}
+			symbols.add( symbol );
+			frameSymbols.add( symbol );
+		}
+		return frameSymbols;
+	}
+
+}
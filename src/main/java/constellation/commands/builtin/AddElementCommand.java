@@ -78,15 +78,22 @@ public class AddElementCommand extends AbstractCommand {
 	 * {@inheritDoc}
 	 */
 	public void evaluate( final GeometricModel model ) {		
+		// add the drawing element to the model
+		model.addPhysicalElement( toElement() );
+	}
+	
+	/**
+	 * Creates the model element described by the command
+	 * @return the {@link ModelElement model element}
+	 */
+	public ModelElement toElement() {
 		// determine the appropriate element type
 		final ModelElement element = EntityRepresentationUtil.toDrawingElement( entity );
 		element.setLabel( label ); 
 		element.setColor( color );
 		element.setPattern( LinePatterns.values()[ pattern ] );
 		element.setLayer( layer );
-		
-		// add the drawing element to the model
-		model.addPhysicalElement( element );
+		return element;
 	}
 	
 	/**
@@ -36,6 +36,14 @@ public class DeleteElementCommand extends AbstractCommand {
 		return new DeleteElementCommand( label );
 	}
 	
+	/**
+	 * Returns the label of the element to delete
+	 * @return the label
+	 */
+	public String getLabel() {
+		return label;
+	}
+	
 	/* 
 	 * (non-Javadoc)
 	 * @see constellation.tools.pdm.server.io.PDMCommand#encode()
@@ -0,0 +1,102 @@
+package constellation.commands.builtin;
+
+import static constellation.commands.CxCommandEncoding.MAX_FRAME_LENGTH;
+import static constellation.commands.CxCommandManager.KEYFRAME;
+import static constellation.commands.CxCommandManager.encodeContent;
+import static java.lang.String.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+
+import constellation.model.DefaultGeometricModel;
+import constellation.model.GeometricModel;
+import constellation.model.formats.cxb.CXBFormatReader;
+import constellation.model.formats.cxb.CXBFormatWriter;
+
+/**
+ * Keyframe Command; carries a complete snapshot of a model (encoded as a
+ * compressed binary model (CXB)), allowing a stream of commands to be 
+ * replayed from the keyframe's position, rather than from its beginning. 
+ * Evaluating the command replaces the contents of the model with the snapshot.
+ * @author lawrence.daniels@gmail.com
+ */
+public class KeyframeCommand extends AbstractCommand {
+	private final Logger logger = Logger.getLogger( getClass() );
+	private final int size;
+	private final byte[] content;
+	
+	/**
+	 * Creates a new "Keyframe" command
+	 * @param size the given uncompressed size of the snapshot
+	 * @param content the given compressed snapshot
+	 */
+	KeyframeCommand( final int size, final byte[] content ) {
+		this.size		= size;
+		this.content	= content;
+	}
+	
+	/**
+	 * Creates a new "Keyframe" command
+	 * @param model the given {@link GeometricModel model}
+	 * @return the {@link KeyframeCommand command}
+	 * @throws IOException
+	 */
+	public static KeyframeCommand create( final GeometricModel model ) 
+	throws IOException {
+		// encode the model, and compress it
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 65536 );
+		final long size = CXBFormatWriter.writeCompressedModel( model, bytes );
+		if( size > MAX_FRAME_LENGTH ) {
+			throw new IOException( format( "The keyframe is too large (%d bytes)", size ) );
+		}
+		return new KeyframeCommand( (int)size, bytes.toByteArray() );
+	}
+	
+	/**
+	 * Decompresses and decodes the snapshot
+	 * @return the {@link GeometricModel model}
+	 * @throws IOException if the snapshot is corrupt, or exceeds the maximum size
+	 */
+	public GeometricModel decodeModel() 
+	throws IOException {
+		// is the size of the snapshot valid?
+		if( ( size < 0 ) || ( size > MAX_FRAME_LENGTH ) ) {
+			throw new IOException( format( "Invalid keyframe size (%d bytes)", size ) );
+		}
+		return CXBFormatReader.readCompressedModel( content, size );
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void encode( final DataOutputStream out ) 
+	throws IOException {
+		out.writeInt( KEYFRAME );
+		out.writeInt( size );
+		encodeContent( out, content );
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void evaluate( final GeometricModel model ) {
+		try {
+			// replace the contents of the model with the snapshot
+			DefaultGeometricModel.replaceContents( model, decodeModel() );
+		}
+		catch( final IOException e ) {
+			logger.error( "Error decoding keyframe", e );
+		}
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public String toString() {
+		return format( "[%04X] KEYFRAME (%d of %d bytes)", KEYFRAME, content.length, size );
+	}
+	
+}
@@ -0,0 +1,29 @@
+package constellation.commands.builtin;
+
+import static constellation.commands.CxCommandManager.decodeContent;
+
+import java.nio.ByteBuffer;
+
+import constellation.commands.CxCommand;
+import constellation.commands.CxCommandDecoder;
+
+/** 
+ * Keyframe Command Decoder
+ * @author lawrence.daniels@gmail.com
+ */
+public class KeyframeCommandDecoder implements CxCommandDecoder {
+
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.commands.CxCommandDecoder#decode(java.nio.ByteBuffer)
+	 */
+	public CxCommand decode( final ByteBuffer buffer ) {
+		// get the snapshot
+		final int size			= buffer.getInt();
+		final byte[] content	= decodeContent( buffer );
+		
+		// return the command
+		return new KeyframeCommand( size, content );
+	}
+
+}
@@ -33,6 +33,14 @@ public class SelectElementCommand extends AbstractCommand {
 		return new SelectElementCommand( element.getLabel() );
 	}
 
+	/**
+	 * Returns the label of the element to select
+	 * @return the element label
+	 */
+	public String getLabel() {
+		return label;
+	}
+
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -59,6 +59,23 @@ public class SelectElementsCommand extends AbstractCommand {
 		return new SelectElementsCommand( labels );
 	}
 
+	/**
+	 * Creates a new "Select Elements" command
+	 * @param labels the given array of element labels
+	 * @return a new {@link SelectElementsCommand "Select Elements" Command}
+	 */
+	public static SelectElementsCommand create( final String[] labels ) {
+		return new SelectElementsCommand( labels );
+	}
+	
+	/**
+	 * Returns the labels of the elements to select
+	 * @return the array of element labels
+	 */
+	public String[] getLabels() {
+		return labels;
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
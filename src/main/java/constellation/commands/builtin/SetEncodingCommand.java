@@ -0,0 +1,83 @@
+package constellation.commands.builtin;
+
+import static constellation.commands.CxCommandManager.SET_ENCODING;
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import constellation.commands.CxCommandEncoding;
+import constellation.model.GeometricModel;
+
+/**
+ * Set Encoding Command. Announces the {@link CxCommandEncoding encoding version}
+ * of the commands which follow it on the stream, and the highest version that 
+ * its sender is able to decode. The command is acted upon by the command 
+ * writer (which sends it) and reader (which receives it); evaluating it has 
+ * no effect.
+ * @author lawrence.daniels@gmail.com
+ */
+public class SetEncodingCommand extends AbstractCommand {
+	private final int version;
+	private final int accepted;
+	
+	/**
+	 * Creates a new "Set Encoding" command
+	 * @param version the encoding version of the commands which follow
+	 * @param accepted the highest encoding version the sender is able to decode
+	 */
+	SetEncodingCommand( final int version, final int accepted ) {
+		this.version	= version;
+		this.accepted	= accepted;
+	}
+	
+	/** 
+	 * Creates a new "Set Encoding" command
+	 * @param version the encoding version of the commands which follow
+	 * @return the {@link SetEncodingCommand command}
+	 */
+	public static SetEncodingCommand create( final int version ) {
+		return new SetEncodingCommand( version, CxCommandEncoding.LATEST );
+	}
+	
+	/**
+	 * Returns the encoding version of the commands which follow
+	 * @return the encoding version
+	 */
+	public int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Returns the highest encoding version the sender is able to decode
+	 * @return the encoding version
+	 */
+	public int getAccepted() {
+		return accepted;
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void encode( final DataOutputStream buf ) 
+	throws IOException {
+		buf.writeInt( SET_ENCODING );
+		buf.writeByte( version );
+		buf.writeByte( accepted );
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void evaluate( final GeometricModel model ) {
+		// the encoding is switched by the command reader
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public String toString() {
+		return format( "[%04X] SET ENCODING 'v%d' ACCEPTS 'v%d'", SET_ENCODING, version, accepted );
+	}
+
+}
@@ -0,0 +1,27 @@
+package constellation.commands.builtin;
+
+import java.nio.ByteBuffer;
+
+import constellation.commands.CxCommand;
+import constellation.commands.CxCommandDecoder;
+
+/** 
+ * Set Encoding Command Decoder
+ * @author lawrence.daniels@gmail.com
+ */
+public class SetEncodingCommandDecoder implements CxCommandDecoder {
+
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.commands.CxCommandDecoder#decode(java.nio.ByteBuffer)
+	 */
+	public CxCommand decode( final ByteBuffer buffer ) {
+		// get the versions
+		final int version	= buffer.get();
+		final int accepted	= buffer.get();
+		
+		// return the command
+		return new SetEncodingCommand( version, accepted );
+	}
+
+}
@@ -0,0 +1,131 @@
+package constellation.commands.builtin;
+
+import static constellation.commands.CxCommandManager.UPD_ELEM;
+import static constellation.commands.CxCommandManager.encodeColor;
+import static constellation.commands.CxCommandManager.encodeRepresentation;
+import static constellation.commands.CxCommandManager.encodeString;
+import static java.lang.String.format;
+
+import java.awt.Color;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import constellation.drawing.EntityRepresentation;
+import constellation.drawing.LinePatterns;
+import constellation.drawing.elements.ModelElement;
+import constellation.model.GeometricModel;
+
+/**
+ * Update Model Element Command; restores the state (i.e. the label, attributes
+ * and representation) of an element which has been modified in place.
+ * @author lawrence.daniels@gmail.com
+ */
+public class UpdateElementCommand extends AbstractCommand {
+	private final EntityRepresentation entity;
+	private final String target;
+	private final String label;
+	private final Color color;
+	private final int pattern;
+	private final int layer;
+
+	/**
+	 * Default constructor
+	 */
+	UpdateElementCommand( final String target,
+						  final String label,
+						  final Color color,
+						  final int pattern,
+						  final int layer,
+						  final EntityRepresentation entity ) {
+		this.target		= target;
+		this.label		= label;
+		this.color		= color;
+		this.pattern	= pattern;
+		this.layer		= layer;
+		this.entity		= entity;
+	}
+
+	/**
+	 * Creates a new "Update Model Element" command, which restores the current
+	 * state of the given element; the command must be encoded before the element
+	 * is modified, since the element's representation is not copied.
+	 * @param target the label by which the element will be known when the command is evaluated
+	 * @param element the given {@link ModelElement model element}
+	 * @return the new {@link UpdateElementCommand command}
+	 */
+	public static UpdateElementCommand create( final String target, final ModelElement element ) {
+		// get the other data elements
+		final String label	= element.getLabel();
+		final Color color	= element.getColor();
+		final int pattern	= element.getPattern().ordinal();
+		final int layer		= element.getLayer();
+
+		// return the command
+		return new UpdateElementCommand( target, label, color, pattern, layer, element.getRepresentation() );
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void encode( final DataOutputStream buf )
+	throws IOException {
+		// write the command header
+		buf.writeInt( UPD_ELEM );
+		encodeString( buf, target );
+		encodeString( buf, label );
+		encodeColor( buf, color );
+		buf.writeByte( pattern );
+		buf.writeByte( layer );
+
+		// now write the representation
+		encodeRepresentation( buf, entity );
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void evaluate( final GeometricModel model ) {
+		// lookup the element
+		final ModelElement element = model.lookupElementByLabel( target );
+		if( element == null ) {
+			return;
+		}
+
+		// restore the label
+		if( !label.equals( target ) ) {
+			model.relabelPhysicalElement( element, label );
+		}
+
+		// restore the attributes and representation
+		model.modifyingPhysicalElement( element );
+		element.setRepresentation( entity );
+		element.setColor( color );
+		element.setPattern( LinePatterns.values()[ pattern ] );
+		element.setLayer( layer );
+		model.updatePhysicalElement( element );
+	}
+
+	/**
+	 * Returns the label of the element to update
+	 * @return the label
+	 */
+	public String getTarget() {
+		return target;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return format( "[%04X] UPDATE %s '%s' LABEL '%s' COLOR '#%06X' STYLE '%s' LAYER 'L%03d'",
+				UPD_ELEM,
+				entity.getType(),
+				target,
+				label,
+				color.getRGB(),
+				LinePatterns.values()[ pattern ],
+				layer );
+	}
+
+}
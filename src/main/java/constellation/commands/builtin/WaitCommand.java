@@ -32,6 +32,14 @@ public class WaitCommand extends AbstractCommand {
 		return new WaitCommand( delay );
 	}
 
+	/**
+	 * Returns the delay time
+	 * @return the delay time in milliseconds
+	 */
+	public long getDelay() {
+		return delay;
+	}
+
 	/** 
 	 * {@inheritDoc}
 	 */
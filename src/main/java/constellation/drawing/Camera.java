@@ -34,6 +34,18 @@ public interface Camera {
 	 */
 	void render( ApplicationController controller, GeometricModel model, Image image );
 	
+	/**
+	 * Copies the off-screen graphics context to the content pane (virtual screen)
+	 * without blocking on expensive scenes: such scenes are rasterized in the 
+	 * background, while a provisional image is rendered in the meantime. 
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param model the given {@link GeometricModel model}
+	 * @param image the given {@link Image off-screen image buffer}
+	 * @param frameReadyCallBack the call-back to invoke (from a background thread) once 
+	 * a newer frame is ready to be rendered
+	 */
+	void render( ApplicationController controller, GeometricModel model, Image image, Runnable frameReadyCallBack );
+	
 	/**
 	 * Repositions the camera to the given (x,y) coordinates
 	 */
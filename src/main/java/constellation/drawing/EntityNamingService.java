@@ -12,27 +12,42 @@ import constellation.drawing.elements.ModelElement;
 
 /**
  * This class acts as a service provider to geometry
- * classes to provide unique names for each entity
+ * classes to provide unique names for each entity. The service is
+ * thread-safe, as elements may be added by collaboration sessions.
  * @author lawrence.daniels@gamil.com
  */
 public class EntityNamingService {
 	private final Map<EntityCategoryTypes,Set<String>> nameSets;
+	private final Map<EntityCategoryTypes,Integer> registrySeeds;
 	private final Map<EntityCategoryTypes,String> classMapping;;
+	private LabelRegistry registry;
 	
 	/**
 	 * Default constructor
 	 */
 	public EntityNamingService() {
 		this.nameSets 		= new HashMap<EntityCategoryTypes,Set<String>>();
+		this.registrySeeds	= new HashMap<EntityCategoryTypes,Integer>();
 		this.classMapping	= createNameToTypeMapping();
 	}
 	
+	/**
+	 * Sets the registry of the labels which are in use, but have not been
+	 * added to the service (e.g. those of the layers which have not been 
+	 * loaded yet); generated names are checked against it as they are needed.
+	 * @param registry the given {@link LabelRegistry label registry}, or <tt>null</tt> for none
+	 */
+	public synchronized void setLabelRegistry( final LabelRegistry registry ) {
+		this.registry = registry;
+		registrySeeds.clear();
+	}
+	
 	/**
 	 * Adds a automatically generated label for the element based
 	 * on its category type
 	 * @param element the given {@link ModelElement element}
 	 */
-	public void addLabel( final ModelElement element ) {
+	public synchronized void addLabel( final ModelElement element ) {
 		final Set<String> nameSet = lookupNameSet( element.getCategoryType() );
 		nameSet.add( element.getLabel() );
 	}
@@ -41,18 +56,24 @@ public class EntityNamingService {
 	 * Retrieves the next unique name from the service
 	 * @return a unique entity name
 	 */
-	public String getEntityName( final EntityCategoryTypes type ) {
+	public synchronized String getEntityName( final EntityCategoryTypes type ) {
 		// get the appropriate name set
 		final Set<String> nameSet = lookupNameSet( type );
 		
-		// setup the id seed
-		int namingSeed = nameSet.size();
+		// setup the id seed (past the names the registry was found to hold)
+		final Integer registrySeed = registrySeeds.get( type );
+		int namingSeed = ( registrySeed != null ) ? Math.max( registrySeed, nameSet.size() ) : nameSet.size();
 		
 		// find unique name
 		String name;
 		do {
 			name = format( "%s%02d", getPrefixCode( type ), ++namingSeed );
-		} while( nameSet.contains( name ) );
+		} while( nameSet.contains( name ) || ( ( registry != null ) && registry.containsLabel( name ) ) );
+		
+		// the names which were skipped are in use; don't probe the registry for them again
+		if( registry != null ) {
+			registrySeeds.put( type, namingSeed - 1 );
+		}
 		
 		// return the name
 		return name;
@@ -8,10 +8,13 @@ import static constellation.drawing.LinePatternDefs.PHANTOM_STROKE;
 import static constellation.drawing.LinePatternDefs.SOLID_STROKE;
 import static java.lang.String.format;
 
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
 import java.awt.Color;
+import java.awt.Composite;
 import java.awt.Graphics2D;
-import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.Stroke;
 import java.util.Collection;
 
@@ -25,6 +28,8 @@ import constellation.drawing.entities.CurveXY;
 import constellation.drawing.entities.EllipseXY;
 import constellation.drawing.entities.EllipticArcXY;
 import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.ParametricCurveXY;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.PolyLineXY;
 import constellation.drawing.entities.RectangleXY;
@@ -83,6 +88,8 @@ public class EntityRepresentationUtil {
 			case CIRCLE:;
 			case ELLIPSE:;
 			case ELLIPTIC_ARC:;
+			case NURBS:
+			case PARAMETRIC:
 			case SPLINE:;
 			case SPIRAL:;
 				return EntityCategoryTypes.CURVE;
@@ -352,6 +359,44 @@ public class EntityRepresentationUtil {
 		return null;
 	}
 	
+	/** 
+	 * Returns the NURBS curve or <tt>null</tt> if the entity is not a NURBS curve
+	 * @param element the given {@link ModelElement drawing element}
+	 * @return the {@link NurbsCurveXY NURBS curve}
+	 */
+	public static NurbsCurveXY getNurbs( final ModelElement element ) {
+		// is the element a NURBS curve already?
+		if( element instanceof NurbsCurveXY ) {
+			return (NurbsCurveXY)element;
+		}
+		
+		// is it a NURBS curve?
+		if( ( element != null ) && ( element.getType() == EntityTypes.NURBS ) ) {
+			return (NurbsCurveXY)element.getRepresentation();
+		}
+		
+		return null;
+	}
+	
+	/** 
+	 * Returns the parametric curve or <tt>null</tt> if the entity is not a parametric curve
+	 * @param element the given {@link ModelElement drawing element}
+	 * @return the {@link ParametricCurveXY parametric curve}
+	 */
+	public static ParametricCurveXY getParametricCurve( final ModelElement element ) {
+		// is the element a parametric curve already?
+		if( element instanceof ParametricCurveXY ) {
+			return (ParametricCurveXY)element;
+		}
+		
+		// is it a parametric curve?
+		if( ( element != null ) && ( element.getType() == EntityTypes.PARAMETRIC ) ) {
+			return (ParametricCurveXY)element.getRepresentation();
+		}
+		
+		return null;
+	}
+	
 	/** 
 	 * Returns the spline or <tt>null</tt> if the entity is not a spline
 	 * @param element the given {@link ModelElement drawing element}
@@ -413,55 +458,109 @@ public class EntityRepresentationUtil {
 	 * Renders the geometry onto the given graphics context
 	 * @param controller the given {@link ApplicationController controller}
 	 * @param model the given {@link GeometricModel geometric model}
-	 * @param matrix the given {@link MatrixWCStoSCS WCS to SCS matrix}
-	 * @param clipper the given {@link Rectangle clipping boundary}
+	 * @param context the given {@link RenderContext render context}
 	 * @param g the given {@link Graphics2D graphics context}
 	 * @param geometry the given {@link ComplexInternalRepresentation complex geometric representation}
 	 * @param color the rendering {@link Color color} or <tt>null</tt> for the element's color
 	 */
 	public static void render( final ApplicationController controller,
 							   final GeometricModel model,
-							   final MatrixWCStoSCS matrix,
-							   final Rectangle clipper, 
+							   final RenderContext context,
 							   final Graphics2D g, 
 							   final ComplexInternalRepresentation geometry,
 							   final Color color ) {
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
 		// get the composition points
 		final VerticesXY vertices = geometry.getVertices( matrix );
 		
-		// get the projecting points
-		final Point[] projectedPoints = ScratchPad.getProjectionPoints( vertices );
-		
-		// project the points
-		matrix.transform( vertices, projectedPoints );
+		// get the projection buffer, and project the points
+		final ScreenVertices screen = context.getScreenVertices( vertices );
+		final int[] sx = screen.x;
+		final int[] sy = screen.y;
+		matrix.transform( vertices, sx, sy );
 		
 		// set the color
 		g.setColor( color ); 
 		
+		// can connected segments be drawn as a single polyline?
+		final boolean batched = isPolylineEquivalent( g );
+		final int[] lx = screen.lineX;
+		final int[] ly = screen.lineY;
+		int lineLength = 0;
+		
 		// draw the lines
 		final int count = vertices.length() - 1;
 		for( int n = 0; n < count; n++ ) {
-			// cache the points of the line
-			final Point p1 = projectedPoints[n];
-			final Point p2 = projectedPoints[n+1];
-				
 			// draw the line
-			if( clipper.intersectsLine( p1.x, p1.y, p2.x, p2.y ) ) {
+			if( clipper.intersectsLine( sx[n], sy[n], sx[n+1], sy[n+1] ) ) {
 				// is the line completely within the view port?
-				if( !clipper.contains( p1 ) || !clipper.contains( p2 ) ) {
-					LineXY.clipLine( clipper, p1, p2 );
+				if( !clipper.contains( sx[n], sy[n] ) || !clipper.contains( sx[n+1], sy[n+1] ) ) {
+					LineXY.clipLine( clipper, sx, sy, n, n+1 );
 				}
 				
 				// cache the line's coordinates
-				final int x1 = p1.x;
-				final int y1 = p1.y;
-				final int x2 = p2.x;
-				final int y2 = p2.y;
+				final int x1 = sx[n];
+				final int y1 = sy[n];
+				final int x2 = sx[n+1];
+				final int y2 = sy[n+1];
 				
-				// draw the line
-				g.drawLine( x1, y1, x2, y2 );
+				// draw the line individually
+				if( !batched ) {
+					g.drawLine( x1, y1, x2, y2 );
+				}
+				
+				// or, extend the current polyline
+				else {
+					// does the line continue the current polyline?
+					if( ( lineLength == 0 ) || ( lx[lineLength-1] != x1 ) || ( ly[lineLength-1] != y1 ) ) {
+						if( lineLength > 1 ) {
+							g.drawPolyline( lx, ly, lineLength );
+						}
+						lx[0] = x1;
+						ly[0] = y1;
+						lineLength = 1;
+					}
+					lx[lineLength] = x2;
+					ly[lineLength] = y2;
+					lineLength++;
+				}
 			}
 		}
+		
+		// draw the remaining polyline
+		if( lineLength > 1 ) {
+			g.drawPolyline( lx, ly, lineLength );
+		}
+	}
+	
+	/**
+	 * Determines whether drawing connected line segments as a single polyline 
+	 * produces exactly the same pixels as drawing them individually; i.e. the 
+	 * lines are solid, one pixel wide, aliased and painted opaquely.
+	 * @param g the given {@link Graphics2D graphics context}
+	 * @return true, if a polyline is equivalent to the individual line segments
+	 */
+	private static boolean isPolylineEquivalent( final Graphics2D g ) {
+		// the stroke must be solid and thin
+		final Stroke stroke = g.getStroke();
+		if( !( stroke instanceof BasicStroke ) ) {
+			return false;
+		}
+		final BasicStroke basicStroke = (BasicStroke)stroke;
+		if( ( basicStroke.getLineWidth() > 1.0f ) || ( basicStroke.getDashArray() != null ) ) {
+			return false;
+		}
+		
+		// the lines must be aliased and opaque
+		final Composite composite = g.getComposite();
+		return ( g.getRenderingHint( RenderingHints.KEY_ANTIALIASING ) != RenderingHints.VALUE_ANTIALIAS_ON ) &&
+			   ( g.getColor().getAlpha() == 255 ) &&
+			   ( composite instanceof AlphaComposite ) &&
+			   ( ((AlphaComposite)composite).getRule() == AlphaComposite.SRC_OVER ) &&
+			   ( ((AlphaComposite)composite).getAlpha() == 1.0f );
 	}
 
 	/**
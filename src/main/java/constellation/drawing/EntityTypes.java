@@ -39,6 +39,14 @@ public enum EntityTypes {
 	// 		Drafting Types
 	///////////////////////////////////////////
 	
-	DIMENSION
+	DIMENSION,
+	
+	///////////////////////////////////////////
+	// 		Geometric Types (appended, so that 
+	//		the ordinals of encoded types hold)
+	///////////////////////////////////////////
+	
+	NURBS,
+	PARAMETRIC
 	
 }
@@ -0,0 +1,301 @@
+package constellation.drawing;
+
+import static java.lang.Math.floor;
+import static java.lang.Math.log;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import constellation.ThreadPool;
+
+/**
+ * Represents a mip-mapped pyramid of an image; each level of the pyramid is
+ * half the width and height of the level beneath it, and the base (level 0)
+ * is the original image. The levels are built lazily in the background, and
+ * are retained in a cache that is shared by all pyramids, and which evicts
+ * the least recently used levels once its memory budget has been exceeded.
+ * @author lawrence.daniels@gmail.com
+ */
+public class ImagePyramid {
+	// the memory budget (in bytes) of the level cache
+	public static final long MEMORY_BUDGET = 64L * 1024L * 1024L;
+	private static final Logger logger = Logger.getLogger( ImagePyramid.class );
+	private static final Map<Level, BufferedImage> cache = new LinkedHashMap<Level, BufferedImage>( 16, 0.75f, true );
+	private static long memoryUsed;
+	private static volatile long revision;
+	private final Set<Integer> pending;
+	private final BufferedImage base;
+	private final int levels;
+
+	/**
+	 * Creates a new image pyramid
+	 * @param base the given base {@link BufferedImage image}
+	 */
+	public ImagePyramid( final BufferedImage base ) {
+		this.base		= base;
+		this.pending	= new HashSet<Integer>();
+		this.levels		= computeLevelCount( base.getWidth(), base.getHeight() );
+	}
+
+	/**
+	 * Returns the revision number of the level cache, which is incremented
+	 * each time a level has been built (and could therefore be drawn in place
+	 * of a coarser substitute)
+	 * @return the revision number
+	 */
+	public static long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Returns the level whose resolution best fits the given scale; i.e. the
+	 * coarsest level which still has at least as many pixels as will be drawn.
+	 * @param scale the given scale at which the base image is drawn
+	 * @return the level
+	 */
+	public int getLevelFor( final double scale ) {
+		if( !( scale < 1.0d ) ) {
+			return 0;
+		}
+		final double level = floor( log( 1.0d / scale ) / log( 2.0d ) );
+		return ( level < levels ) ? (int)level : levels - 1;
+	}
+
+	/**
+	 * Returns the image of the given level; if the level has not been built yet,
+	 * it is queued for building in the background, and the closest finer level
+	 * that is available (ultimately the base image) is returned in its place.
+	 * @param level the given level
+	 * @param threadPool the given {@link ThreadPool thread pool} used to build levels
+	 * @return the {@link BufferedImage image} of the level or a substitute
+	 */
+	public BufferedImage getLevel( final int level, final ThreadPool threadPool ) {
+		final int requested = max( 0, min( level, levels - 1 ) );
+		if( requested == 0 ) {
+			return base;
+		}
+
+		synchronized( cache ) {
+			// find the requested level (or the closest finer level)
+			for( int n = requested; n > 0; n-- ) {
+				final BufferedImage image = cache.get( new Level( this, n ) );
+				if( image != null ) {
+					if( n < requested ) {
+						schedule( requested, threadPool );
+					}
+					return image;
+				}
+			}
+
+			// nothing is available, use the base image
+			schedule( requested, threadPool );
+			return base;
+		}
+	}
+
+	/**
+	 * Evicts all of the levels of the pyramid from the cache
+	 */
+	public void clear() {
+		synchronized( cache ) {
+			final Iterator<Map.Entry<Level, BufferedImage>> it = cache.entrySet().iterator();
+			while( it.hasNext() ) {
+				final Map.Entry<Level, BufferedImage> entry = it.next();
+				if( entry.getKey().pyramid == this ) {
+					memoryUsed -= sizeOf( entry.getValue() );
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Queues the given level for building, unless it is already pending;
+	 * the caller must hold the cache lock.
+	 * @param level the given level
+	 * @param threadPool the given {@link ThreadPool thread pool}
+	 */
+	private void schedule( final int level, final ThreadPool threadPool ) {
+		if( pending.add( level ) ) {
+			threadPool.queue( new LevelBuilder( level ) );
+		}
+	}
+
+	/**
+	 * Builds the given level by successively halving the closest finer level
+	 * that is available; the intermediate levels are cached as well.
+	 * @param level the given level
+	 */
+	private void build( final int level ) {
+		// find the closest finer level to start from
+		BufferedImage image = base;
+		int n = level - 1;
+		synchronized( cache ) {
+			for( ; n > 0; n-- ) {
+				final BufferedImage cached = cache.get( new Level( this, n ) );
+				if( cached != null ) {
+					image = cached;
+					break;
+				}
+			}
+		}
+
+		// halve the image until the requested level has been reached
+		while( n < level ) {
+			image = halve( image );
+			n++;
+			store( new Level( this, n ), image );
+		}
+	}
+
+	/**
+	 * Adds the given level image to the cache, and evicts the least recently
+	 * used levels until the cache is within its memory budget.
+	 * @param key the given {@link Level level key}
+	 * @param image the given level {@link BufferedImage image}
+	 */
+	private static void store( final Level key, final BufferedImage image ) {
+		synchronized( cache ) {
+			final BufferedImage previous = cache.put( key, image );
+			if( previous != null ) {
+				memoryUsed -= sizeOf( previous );
+			}
+			memoryUsed += sizeOf( image );
+			revision++;
+
+			// evict the least recently used levels (but never the newest one)
+			final Iterator<BufferedImage> it = cache.values().iterator();
+			while( ( memoryUsed > MEMORY_BUDGET ) && ( cache.size() > 1 ) && it.hasNext() ) {
+				memoryUsed -= sizeOf( it.next() );
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns an image which is half the width and height of the given image
+	 * @param image the given source {@link BufferedImage image}
+	 * @return the halved {@link BufferedImage image}
+	 */
+	private static BufferedImage halve( final BufferedImage image ) {
+		final int width	 = max( 1, ( image.getWidth() + 1 ) / 2 );
+		final int height = max( 1, ( image.getHeight() + 1 ) / 2 );
+
+		// bilinear filtering at exactly half size averages each 2x2 block of pixels
+		final BufferedImage halved = new BufferedImage( width, height, BufferedImage.TYPE_INT_ARGB_PRE );
+		final Graphics2D g = halved.createGraphics();
+		g.setComposite( AlphaComposite.Src );
+		g.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR );
+		g.drawImage( image, 0, 0, width, height, null );
+		g.dispose();
+		return halved;
+	}
+
+	/**
+	 * Returns the number of levels of an image of the given dimensions
+	 * @param width the given width of the base image
+	 * @param height the given height of the base image
+	 * @return the number of levels (including the base)
+	 */
+	private static int computeLevelCount( final int width, final int height ) {
+		int count = 1;
+		for( int size = max( width, height ); size > 1; size = ( size + 1 ) / 2 ) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the approximate memory footprint of the given image
+	 * @param image the given {@link BufferedImage image}
+	 * @return the size in bytes
+	 */
+	private static long sizeOf( final BufferedImage image ) {
+		return 4L * image.getWidth() * image.getHeight();
+	}
+
+	/**
+	 * Builds a level of the pyramid in the background
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class LevelBuilder implements Runnable {
+		private final int level;
+
+		/**
+		 * Creates a new level builder
+		 * @param level the given level
+		 */
+		public LevelBuilder( final int level ) {
+			this.level = level;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			try {
+				build( level );
+			}
+			catch( final RuntimeException e ) {
+				logger.error( "Failed to build image level " + level, e );
+			}
+			finally {
+				synchronized( cache ) {
+					pending.remove( level );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Represents the key of a level within the cache
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Level {
+		private final ImagePyramid pyramid;
+		private final int level;
+
+		/**
+		 * Creates a new level key
+		 * @param pyramid the given {@link ImagePyramid pyramid}
+		 * @param level the given level
+		 */
+		public Level( final ImagePyramid pyramid, final int level ) {
+			this.pyramid	= pyramid;
+			this.level		= level;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		public boolean equals( final Object o ) {
+			if( !( o instanceof Level ) ) {
+				return false;
+			}
+			final Level that = (Level)o;
+			return ( pyramid == that.pyramid ) && ( level == that.level );
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		public int hashCode() {
+			return System.identityHashCode( pyramid ) * 31 + level;
+		}
+	}
+
+}
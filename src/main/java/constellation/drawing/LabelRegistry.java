@@ -0,0 +1,19 @@
+package constellation.drawing;
+
+/**
+ * Represents a registry of labels which are held outside of the naming
+ * service (e.g. the labels of the elements of a model file whose layers
+ * have not been loaded yet); the registry is consulted as names are
+ * generated, so that its labels need not be copied up front.
+ * @author lawrence.daniels@gmail.com
+ */
+public interface LabelRegistry {
+
+	/**
+	 * Indicates whether the registry contains the given label
+	 * @param label the given label
+	 * @return true, if the label is in use
+	 */
+	boolean containsLabel( String label );
+
+}
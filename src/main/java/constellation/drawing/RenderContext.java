@@ -0,0 +1,113 @@
+package constellation.drawing;
+
+import static java.lang.Math.max;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+
+import constellation.drawing.entities.VerticesXY;
+import constellation.math.MatrixWCStoSCS;
+
+/**
+ * Represents the state of a single rendering pass: the matrix and clipping
+ * boundary of the view, and the scratch buffers into which geometry is 
+ * projected onto the screen. A render context belongs to the thread which 
+ * performs the pass; thus passes (e.g. the interactive view, the tiles of a 
+ * background frame, printing and snapshots) may run concurrently, as long as 
+ * each one has its own context. The buffers are grown on demand, and are 
+ * re-used for every element drawn within the pass.
+ * @author lawrence.daniels@gmail.com
+ */
+public class RenderContext {
+	private static final int INITIAL_CAPACITY = 64;
+	private final MatrixWCStoSCS matrix;
+	private final Rectangle clipper;
+	private final Point projectionPoint;
+	private Point[] projectionPoints;
+	private ScreenVertices screenVertices;
+	
+	/**
+	 * Creates a new render context
+	 * @param matrix the given {@link MatrixWCStoSCS WCS to SCS matrix}
+	 * @param clipper the given {@link Rectangle clipping boundary}
+	 */
+	public RenderContext( final MatrixWCStoSCS matrix, final Rectangle clipper ) {
+		this.matrix				= matrix;
+		this.clipper			= clipper;
+		this.projectionPoint	= new Point( 0, 0 );
+		this.projectionPoints	= new Point[ 0 ];
+	}
+	
+	/**
+	 * Returns the matrix of the view being rendered
+	 * @return the {@link MatrixWCStoSCS WCS to SCS matrix}
+	 */
+	public MatrixWCStoSCS getMatrix() {
+		return matrix;
+	}
+	
+	/**
+	 * Returns the clipping boundary of the view being rendered
+	 * @return the {@link Rectangle clipping boundary}
+	 */
+	public Rectangle getClipper() {
+		return clipper;
+	}
+	
+	/**
+	 * Returns the scratch point for projecting a single point
+	 * @return the scratch {@link Point point}
+	 */
+	public Point getProjectionPoint() {
+		return projectionPoint;
+	}
+	
+	/**
+	 * Returns the scratch points for projecting the given vertices
+	 * @param vertices the given array of {@link VerticesXY points} for projecting
+	 * @return the scratch {@link Point points}
+	 */
+	public Point[] getProjectionPoints( final VerticesXY vertices ) {
+		// reallocate if necessary
+		final int capacity = vertices.length();
+		if( capacity > projectionPoints.length ) {
+			final Point[] points = new Point[ max( capacity, 2 * projectionPoints.length ) ];
+			System.arraycopy( projectionPoints, 0, points, 0, projectionPoints.length );
+			for( int n = projectionPoints.length; n < points.length; n++ ) {
+				points[n] = new Point( 0, 0 );
+			}
+			projectionPoints = points;
+		}
+		return projectionPoints;
+	}
+	
+	/**
+	 * Returns the primitive buffer for projecting the given vertices
+	 * @param vertices the given array of {@link VerticesXY points} for projecting
+	 * @return the {@link ScreenVertices screen vertex buffer}
+	 */
+	public ScreenVertices getScreenVertices( final VerticesXY vertices ) {
+		if( screenVertices == null ) {
+			screenVertices = new ScreenVertices( max( INITIAL_CAPACITY, vertices.length() ) );
+		}
+		else {
+			screenVertices.insureCapacity( vertices );
+		}
+		return screenVertices;
+	}
+	
+	/**
+	 * Sets the stroke of the given graphics context, unless it is already in 
+	 * use; changing the stroke invalidates the context's rendering pipeline.
+	 * @param g the given {@link Graphics2D graphics context}
+	 * @param stroke the given {@link Stroke stroke}
+	 */
+	public void setStroke( final Graphics2D g, final Stroke stroke ) {
+		if( g.getStroke() != stroke ) {
+			g.setStroke( stroke );
+		}
+	}
+	
+}
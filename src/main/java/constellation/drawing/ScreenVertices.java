@@ -0,0 +1,62 @@
+package constellation.drawing;
+
+import constellation.drawing.entities.VerticesXY;
+
+/**
+ * Represents a reusable buffer of vertices in the Screen Coordinate
+ * System (SCS); the projected coordinates, as well as the coordinates 
+ * of the polyline currently being assembled for drawing, are stored in 
+ * primitive arrays so that no garbage is created while rendering.
+ * @author lawrence.daniels@gmail.com
+ */
+public class ScreenVertices {
+	// projected coordinates
+	public int[] x;
+	public int[] y;
+	
+	// polyline coordinates
+	public int[] lineX;
+	public int[] lineY;
+	
+	/**
+	 * Creates a new screen vertex buffer
+	 * @param capacity the given initial capacity
+	 */
+	public ScreenVertices( final int capacity ) {
+		allocate( capacity );
+	}
+	
+	/**
+	 * Insures the capacity of the buffer for projecting the given vertices
+	 * @param vertices the given {@link VerticesXY vertices}
+	 * @return true, if the buffer was reallocated
+	 */
+	public boolean insureCapacity( final VerticesXY vertices ) {
+		final int capacity = vertices.length();
+		if( capacity > x.length ) {
+			allocate( capacity );
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the capacity of the buffer
+	 * @return the capacity of the buffer
+	 */
+	public int capacity() {
+		return x.length;
+	}
+	
+	/**
+	 * Allocates the buffer's arrays
+	 * @param capacity the given capacity
+	 */
+	private void allocate( final int capacity ) {
+		this.x		= new int[ capacity ];
+		this.y		= new int[ capacity ];
+		this.lineX	= new int[ capacity ];
+		this.lineY	= new int[ capacity ];
+	}
+	
+}
@@ -0,0 +1,151 @@
+package constellation.drawing;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.abs;
+import static java.lang.Math.acos;
+import static java.lang.Math.ceil;
+import static java.lang.Math.log;
+import static java.lang.Math.pow;
+
+import constellation.drawing.entities.VerticesXY;
+import constellation.math.MatrixWCStoSCS;
+
+/**
+ * Caches the vertices of a tessellated curve, so that they may be re-used
+ * from frame to frame until either the curve's geometry or the required
+ * level of detail changes. The level of detail is expressed as a number
+ * of segments, which is chosen such that the chord error of the tessellated
+ * curve does not exceed a fraction of a pixel at the current zoom.
+ * @author lawrence.daniels@gmail.com
+ */
+public class TessellationCache {
+	// the maximum distance (in pixels) between the curve and its chords
+	public static final double CHORD_TOLERANCE = 0.25d;
+	public static final int MIN_SEGMENTS = 8;
+	public static final int MAX_SEGMENTS = 4096;
+	private volatile Tessellation tessellation;
+
+	/**
+	 * Default constructor
+	 */
+	public TessellationCache() {
+		super();
+	}
+
+	/**
+	 * Determines the number of segments required to approximate a circular
+	 * sweep of the given radius at the scale of the given matrix. The count
+	 * is rounded up to the next power of two, so that small changes in zoom
+	 * do not invalidate the cache.
+	 * @param matrix the given {@link MatrixWCStoSCS matrix}, or <tt>null</tt> for the maximum detail
+	 * @param radius the given (largest) radius of the curve in model units
+	 * @param sweep the given angle of the sweep in radians
+	 * @return the number of segments
+	 */
+	public static int getSegmentCount( final MatrixWCStoSCS matrix, final double radius, final double sweep ) {
+		// without a view, use the maximum level of detail
+		if( matrix == null ) {
+			return MAX_SEGMENTS;
+		}
+
+		// determine the radius on screen (in pixels)
+		final double pixels = abs( radius * matrix.getScale() * matrix.getUnitScale() );
+		if( pixels <= CHORD_TOLERANCE ) {
+			return MIN_SEGMENTS;
+		}
+
+		// determine the largest angle whose chord error is within tolerance
+		final double angle = 2.0d * acos( 1.0d - CHORD_TOLERANCE / pixels );
+		final double count = ceil( abs( sweep ) / angle );
+
+		// round up to the next power of two
+		int segments = MIN_SEGMENTS;
+		while( ( segments < count ) && ( segments < MAX_SEGMENTS ) ) {
+			segments <<= 1;
+		}
+		return segments;
+	}
+
+	/**
+	 * Determines the number of segments required to approximate a full
+	 * circle of the given radius at the scale of the given matrix.
+	 * @param matrix the given {@link MatrixWCStoSCS matrix}, or <tt>null</tt> for the maximum detail
+	 * @param radius the given (largest) radius of the curve in model units
+	 * @return the number of segments
+	 */
+	public static int getSegmentCount( final MatrixWCStoSCS matrix, final double radius ) {
+		return getSegmentCount( matrix, radius, 2.0d * PI );
+	}
+
+	/**
+	 * Returns the effective scale (in pixels per model unit) of the given matrix,
+	 * rounded up to the next power of two, so that small changes in zoom do not
+	 * invalidate the cache.
+	 * @param matrix the given {@link MatrixWCStoSCS matrix}, or <tt>null</tt> for the maximum detail
+	 * @return the quantized scale
+	 */
+	public static double getQuantizedScale( final MatrixWCStoSCS matrix ) {
+		final double scale = ( matrix != null ) ? abs( matrix.getScale() * matrix.getUnitScale() ) : MAX_SEGMENTS;
+		return ( scale > 0d ) ? pow( 2d, ceil( log( scale ) / log( 2d ) ) ) : 1d;
+	}
+
+	/**
+	 * Returns the cached vertices, if they were tessellated with the given
+	 * number of segments about the given center point.
+	 * @param segments the given number of segments
+	 * @param cx the given x-coordinate of the curve's center point
+	 * @param cy the given y-coordinate of the curve's center point
+	 * @return the cached {@link VerticesXY vertices}, or <tt>null</tt> if the cache is stale
+	 */
+	public VerticesXY lookup( final int segments, final double cx, final double cy ) {
+		final Tessellation t = tessellation;
+		return ( ( t != null ) && ( t.segments == segments ) && ( t.cx == cx ) && ( t.cy == cy ) ) ? t.vertices : null;
+	}
+
+	/**
+	 * Caches the given vertices, which were tessellated with the given
+	 * number of segments about the given center point.
+	 * @param vertices the given {@link VerticesXY vertices}
+	 * @param segments the given number of segments
+	 * @param cx the given x-coordinate of the curve's center point
+	 * @param cy the given y-coordinate of the curve's center point
+	 * @return the given {@link VerticesXY vertices}
+	 */
+	public VerticesXY store( final VerticesXY vertices, final int segments, final double cx, final double cy ) {
+		tessellation = new Tessellation( vertices, segments, cx, cy );
+		return vertices;
+	}
+
+	/**
+	 * Clears the cache
+	 */
+	public void clear() {
+		tessellation = null;
+	}
+
+	/**
+	 * Represents an immutable tessellation of a curve
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Tessellation {
+		private final VerticesXY vertices;
+		private final int segments;
+		private final double cx;
+		private final double cy;
+
+		/**
+		 * Creates a new tessellation
+		 * @param vertices the given {@link VerticesXY vertices}
+		 * @param segments the given number of segments
+		 * @param cx the given x-coordinate of the curve's center point
+		 * @param cy the given y-coordinate of the curve's center point
+		 */
+		public Tessellation( final VerticesXY vertices, final int segments, final double cx, final double cy ) {
+			this.vertices	= vertices;
+			this.segments	= segments;
+			this.cx			= cx;
+			this.cy			= cy;
+		}
+	}
+
+}
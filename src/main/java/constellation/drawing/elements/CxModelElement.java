@@ -4,13 +4,13 @@ import static java.lang.String.format;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 
 import constellation.ApplicationController;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityTypes;
 import constellation.drawing.LinePatterns;
+import constellation.drawing.RenderContext;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.RectangleXY;
 import constellation.drawing.entities.VerticesXY;
@@ -251,15 +251,14 @@ public class CxModelElement implements ModelElement, Cloneable {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		entity.render( controller, model, matrix, clipper, g, color );
+		entity.render( controller, model, context, g, color );
 	}
 
 	/* 
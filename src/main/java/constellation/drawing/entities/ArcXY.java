@@ -7,13 +7,14 @@ import static java.lang.String.format;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 
 import org.apache.log4j.Logger;
 
 import constellation.ApplicationController;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
 
@@ -26,11 +27,10 @@ public class ArcXY extends RadialCurveXY {
 	private final Logger logger = Logger.getLogger( getClass() );
 	
 	// vertices computation constants
-	private static final int SECTIONS 	= 72; // factor of 4
-	private static final double DELTA 	= PI / (double)( SECTIONS - 1 );
 	private static final double HALF_PI	= PI * 0.5d;
 	
 	// internal fields
+	private final TessellationCache tessellation = new TessellationCache();
 	private final PointXY location;
 	private final double angleStart; 
 	private final double angleEnd;
@@ -190,8 +190,8 @@ public class ArcXY extends RadialCurveXY {
 	 * @see constellation.drawing.entities.InternalRepresentation#getBounds(constellation.math.MatrixWCStoSCS)
 	 */
 	public RectangleXY getBounds(MatrixWCStoSCS matrix) {
-		final double rh = radius / 2d; 
-		return new RectangleXY( location.x - rh, location.y - rh, radius, radius );
+		final double d = radius * 2d; 
+		return new RectangleXY( location.x - radius, location.y - radius, d, d );
 	}
 	
 	/**
@@ -285,35 +285,33 @@ public class ArcXY extends RadialCurveXY {
 		final double cx = getCenterX();
 		final double cy = getCenterY();
 		
-		// create the vertices
-		final VerticesXY vertices = new VerticesXY( SECTIONS / 2 );
-		
-		// draw the arc clockwise?
-		if( end > start ) {
-			for( double t = start; t < end; t += DELTA ) {
-				// compute (x,y)
-				final double rx = cx + radius * cos(t);
-				final double ry = cy + radius * sin(t);
+		// determine the level of detail required at the current zoom
+		final int segments = TessellationCache.getSegmentCount( matrix, radius, end - start );
 		
-				// add the points
-				vertices.add( rx, ry );
-			}
+		// are the cached vertices still valid?
+		final VerticesXY cached = tessellation.lookup( segments, cx, cy );
+		if( cached != null ) {
+			return cached;
 		}
 		
-		// draw the arc counter-clockwise
-		else {
-			for( double t = start; t > end; t -= DELTA ) {
-				// compute (x,y)
-				final double rx = cx - radius * cos(t);
-				final double ry = cy - radius * sin(t);
-				
-				// add the points
-				vertices.add( rx, ry );
-			}
+		// create the vertices
+		final VerticesXY vertices = new VerticesXY( segments + 2 );
+		final double delta = ( end - start ) / (double)segments;
+		
+		// draw the arc clockwise? (otherwise counter-clockwise)
+		final double sign = ( end > start ) ? 1d : -1d;
+		for( int n = 0; n <= segments; n++ ) {
+			// compute (x,y)
+			final double t	= start + n * delta;
+			final double rx = cx + sign * radius * cos(t);
+			final double ry = cy + sign * radius * sin(t);
+	
+			// add the points
+			vertices.add( rx, ry );
 		}
 		
-		// return the points
-		return vertices;
+		// cache the points
+		return tessellation.store( vertices, segments, cx, cy );
 	}
 
 	/* 
@@ -361,15 +359,14 @@ public class ArcXY extends RadialCurveXY {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 	
 	/* 
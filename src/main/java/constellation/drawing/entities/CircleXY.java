@@ -13,6 +13,8 @@ import java.awt.Rectangle;
 import constellation.ApplicationController;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
 import constellation.math.CxIntersectionUtil;
 import constellation.math.CxMathUtil;
 import constellation.math.MatrixWCStoSCS;
@@ -24,7 +26,7 @@ import constellation.model.GeometricModel;
  * @author lawrence.daniels@gmail.com
  */
 public class CircleXY extends RadialCurveXY {
-	private static final int SECTIONS = 72; // factor of 4
+	private final TessellationCache tessellation = new TessellationCache();
 	private final PointXY location;
 	private final double radius;
 	
@@ -230,8 +232,8 @@ public class CircleXY extends RadialCurveXY {
 	 * @see constellation.drawing.entities.representations.GeometricRepresentation#getBounds(constellation.math.MatrixWCStoSCS)
 	 */
 	public RectangleXY getBounds( final MatrixWCStoSCS matrix ) {
-		final double rh = radius / 2d; 
-		return new RectangleXY( location.x - rh, location.y - rh, radius, radius );
+		final double d = radius * 2d; 
+		return new RectangleXY( location.x - radius, location.y - radius, d, d );
 	}
 	
 	/**
@@ -322,19 +324,27 @@ public class CircleXY extends RadialCurveXY {
 	 * @see constellation.drawing.entities.representations.ComplexGeometricRepresentation#getVertices(constellation.math.MatrixWCStoSCS)
 	 */
 	public VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
-		// compute the necessary values
-		final double delta 	= PI / (double)( SECTIONS - 1 );
+		// determine the level of detail required at the current zoom
+		final int segments = TessellationCache.getSegmentCount( matrix, radius );
 		
 		// get the center point axis
 		final double cx = getCenterX();
 		final double cy = getCenterY();
 		
+		// are the cached vertices still valid?
+		final VerticesXY cached = tessellation.lookup( segments, cx, cy );
+		if( cached != null ) {
+			return cached;
+		}
+		
 		// create the vertex set
-		final VerticesXY vertices = new VerticesXY( SECTIONS );
+		final VerticesXY vertices = new VerticesXY( segments + 2 );
+		final double delta = 2d * PI / (double)segments;
 		
-		// construct the ellipse
-		for( double a =  -PI; a < +PI; a += delta ) {
+		// construct the circle
+		for( int n = 0; n < segments; n++ ) {
 			// compute (x,y)
+			final double a	= -PI + n * delta;
 			final double px = cx + radius * cos(a);
 			final double py = cy + radius * sin(a);
 	
@@ -345,8 +355,8 @@ public class CircleXY extends RadialCurveXY {
 		// add the last point to close the curve
 		vertices.close();
 		
-		// return the points
-		return vertices;
+		// cache the points
+		return tessellation.store( vertices, segments, cx, cy );
 	}
 
 	/* 
@@ -389,15 +399,14 @@ public class CircleXY extends RadialCurveXY {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 	
 	/* 
@@ -12,7 +12,7 @@ import constellation.CxFontManager;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityTypes;
-import constellation.drawing.ScratchPad;
+import constellation.drawing.RenderContext;
 import constellation.drawing.elements.ModelElement;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
@@ -79,8 +79,8 @@ public class CommentXY implements EntityRepresentation {
 	 * @see constellation.drawing.ModelElement#getBounds(constellation.math.MatrixWCStoSCS)
 	 */
 	public RectangleXY getBounds( final MatrixWCStoSCS matrix ) {
-		// get a screen point
-		final Point screenPos = ScratchPad.getProjectionPoint();
+		// create a screen point
+		final Point screenPos = new Point();
 		
 		// transform the spatial point to screen coordinates
 		matrix.transform( location, screenPos );
@@ -154,19 +154,22 @@ public class CommentXY implements EntityRepresentation {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix,
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
 		// show comments?
 		final SystemPreferences preferences = controller.getSystemPreferences();
 		if( preferences.showComments() ) {	
 			// get a screen point
-			final Point screenPos = ScratchPad.getProjectionPoint();
+			final Point screenPos = context.getProjectionPoint();
 			
 	 		// transform the spatial point to screen coordinates
 			matrix.transform( location, screenPos );
@@ -2,7 +2,6 @@ package constellation.drawing.entities;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -13,6 +12,7 @@ import constellation.ApplicationController;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
 
@@ -166,12 +166,11 @@ public class CompositionXY implements EntityRepresentation {
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
 		for( final EntityRepresentation element : elements ) {
-			element.render( controller, model, matrix, clipper, g, color );
+			element.render( controller, model, context, g, color );
 		}
 	}
 
@@ -7,7 +7,6 @@ import static java.util.Arrays.asList;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
@@ -19,6 +18,7 @@ import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
 import constellation.drawing.RenderableElement;
 import constellation.math.CxIntersectionUtil;
 import constellation.math.MatrixWCStoSCS;
@@ -351,13 +351,12 @@ logger.info( format( "radius = %3.2f, angleA = %3.2f, angleB = %3.2f", radius, a
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
 		// render the elements
 		for( final RenderableElement element : elements ) {
-			element.render( controller, model, matrix, clipper, g, color );
+			element.render( controller, model, context, g, color );
 		}
 	}
 
@@ -3,17 +3,19 @@ package constellation.drawing.entities;
 import static java.lang.Math.PI;
 import static java.lang.Math.abs;
 import static java.lang.Math.cos;
+import static java.lang.Math.max;
 import static java.lang.Math.sin;
 import static java.lang.Math.sqrt;
 import static java.lang.String.format;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 
 import constellation.ApplicationController;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
 import constellation.math.CxIntersectionUtil;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
@@ -26,7 +28,7 @@ import constellation.model.GeometricModel;
  * @author lawrence.daniels@gmail.com
  */
 public class EllipseXY extends CurveXY {
-	private static final int SECTIONS = 72; // factor of 4
+	private final TessellationCache tessellation = new TessellationCache();
 	private PointXY location;
 	private final double width; 
 	private final double height;
@@ -264,19 +266,27 @@ public class EllipseXY extends CurveXY {
 	 * @see constellation.drawing.entities.representations.ComplexGeometricRepresentation#getVertices(constellation.math.MatrixWCStoSCS)
 	 */
 	public VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
-		// compute the necessary values
-		final double delta = PI / (double)( SECTIONS - 1 );
+		// determine the level of detail required at the current zoom
+		final int segments = TessellationCache.getSegmentCount( matrix, max( abs( a ), abs( b ) ) );
 		
 		// get the center point axis
 		final double cx = location.x;
 		final double cy = location.y;
 		
+		// are the cached vertices still valid?
+		final VerticesXY cached = tessellation.lookup( segments, cx, cy );
+		if( cached != null ) {
+			return cached;
+		}
+		
 		// create the vertex set
-		final VerticesXY vertices = new VerticesXY( SECTIONS );
+		final VerticesXY vertices = new VerticesXY( segments + 2 );
+		final double delta = 2d * PI / (double)segments;
 		
 		// construct the ellipse
-		for( double t = -PI; t < +PI; t += delta ) {
+		for( int n = 0; n < segments; n++ ) {
 			// compute (x,y)
+			final double t	= -PI + n * delta;
 			final double px = cx + a * cos(t);
 			final double py = cy + b * sin(t);
 			
@@ -287,8 +297,8 @@ public class EllipseXY extends CurveXY {
 		// add the last point to close the curve
 		vertices.close();
 		
-		// return the vertices
-		return vertices;
+		// cache the vertices
+		return tessellation.store( vertices, segments, cx, cy );
 	}
 	
 	/* 
@@ -321,15 +331,14 @@ public class EllipseXY extends CurveXY {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 	
 	/* 
@@ -1,20 +1,21 @@
 package constellation.drawing.entities;
 
 import static java.lang.Math.PI;
+import static java.lang.Math.abs;
 import static java.lang.Math.cos;
+import static java.lang.Math.max;
 import static java.lang.Math.sin;
 import static java.lang.Math.sqrt;
 import static java.lang.String.format;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
-import java.util.LinkedList;
-import java.util.List;
 
 import constellation.ApplicationController;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
 
@@ -24,7 +25,7 @@ import constellation.model.GeometricModel;
  * @author lawrence.daniels@gmail.com
  */
 public class EllipticArcXY extends CurveXY {
-	private static final int SECTIONS = 72; // factor of 4
+	private final TessellationCache tessellation = new TessellationCache();
 	private final PointXY location;
 	private final double angleStart; 
 	private final double angleEnd;
@@ -194,9 +195,6 @@ public class EllipticArcXY extends CurveXY {
 	 * @see constellation.drawing.entities.ComplexInternalRepresentation#getVertices(constellation.math.MatrixWCStoSCS)
 	 */
 	public VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
-		// compute the necessary values
-		final double delta = PI / (double)( SECTIONS - 1 );
-		
 		// determine the start and end angles
 		final double start	= angleStart;
 		final double end	= angleEnd;
@@ -209,19 +207,33 @@ public class EllipticArcXY extends CurveXY {
 		final double a	= width / 2.0d;
 		final double b	= height / 2.0d;
 		
+		// determine the level of detail required at the current zoom
+		final int segments = ( end > start ) 
+			? TessellationCache.getSegmentCount( matrix, max( abs( a ), abs( b ) ), end - start ) : 0;
+		
+		// are the cached vertices still valid?
+		final VerticesXY cached = tessellation.lookup( segments, cx, cy );
+		if( cached != null ) {
+			return cached;
+		}
+		
 		// construct the ellipse
-		final List<PointXY> points = new LinkedList<PointXY>();
-		for( double t = start; t < end; t += delta ) {
-			// compute (x,y)
-			final double rx = cx + a * cos(t);
-			final double ry = cy + b * sin(t);
-			
-			// add the points
-			points.add( new PointXY( rx, ry ) );
+		final VerticesXY vertices = new VerticesXY( segments + 2 );
+		if( segments > 0 ) {
+			final double delta = ( end - start ) / (double)segments;
+			for( int n = 0; n <= segments; n++ ) {
+				// compute (x,y)
+				final double t	= start + n * delta;
+				final double rx = cx + a * cos(t);
+				final double ry = cy + b * sin(t);
+				
+				// add the points
+				vertices.add( rx, ry );
+			}
 		}
 		
-		// return the points
-		return EntityRepresentationUtil.toLimits( points );
+		// cache the points
+		return tessellation.store( vertices, segments, cx, cy );
 	}
 	
 	/* 
@@ -254,15 +266,14 @@ public class EllipticArcXY extends CurveXY {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 
 	/* 
@@ -2,7 +2,6 @@ package constellation.drawing.entities;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
@@ -10,8 +9,8 @@ import java.util.LinkedList;
 import constellation.ApplicationController;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.LinePatterns;
+import constellation.drawing.RenderContext;
 import constellation.drawing.RenderableElement;
-import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
 
 /**
@@ -125,19 +124,18 @@ public class HUDXY implements RenderableElement {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color)
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix,
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
 		// draw the rendering element
 		g.setStroke( EntityRepresentationUtil.getStroke( LinePatterns.PATTERN_SOLID ) );
 		g.setColor( color );
 		for( final RenderableElement element : elements ) {
-			element.render( controller, model, matrix, clipper, g, color );
+			element.render( controller, model, context, g, color );
 		}
 		
 		// has HUD text been specified?
@@ -23,6 +23,7 @@ import constellation.drawing.ComplexInternalRepresentation;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
 import constellation.drawing.elements.ModelElement;
 import constellation.math.CxIntersectionUtil;
 import constellation.math.MatrixWCStoSCS;
@@ -132,6 +133,71 @@ public class LineXY implements ComplexInternalRepresentation {
 		}		
 	}
 
+	/**
+	 * Clips the line between the given vertices of the given coordinate arrays
+	 * to the extents of the given clip plane (rectangle); this is the primitive
+	 * equivalent of {@link #clipLine(Rectangle, Point, Point)}.
+	 * @param clipper the given clip plane ({@link Rectangle rectangle}) 
+	 * @param x the given array of x-coordinates
+	 * @param y the given array of y-coordinates
+	 * @param a the index of the starting point of the line
+	 * @param b the index of the ending point of the line
+	 */
+	public static void clipLine( final Rectangle clipper, 
+								 final int[] x,
+								 final int[] y,
+								 final int a,
+								 final int b ) {
+		// cache the 2 points (xA,yA) and (xB,yB)
+		final int xA = x[a]; 
+		final int yA = y[a];
+		final int xB = x[b];
+		final int yB = y[b];
+		
+		// compute the delta Y (rise) and delta X (run) of the line
+		final double dy = ( yB - yA );
+		final double dx = ( xB - xA );
+		  
+		// is the line horizontal?
+		if( dy == 0 ) {
+			x[a] = clipValue( xA, 0, clipper.width );
+			x[b] = clipValue( xB, 0, clipper.width );
+		}
+		
+		// is the line vertical?
+		else if( dx == 0 ) {
+			y[a] = clipValue( yA, 0, clipper.height );
+			y[b] = clipValue( yB, 0, clipper.height );
+		}
+		
+		// must be angular
+		else {			
+			// compute the slope and Y-intercept of the line
+			final double m = dy / dx;
+			final double c = yA - ( m * (double)xA );
+					
+			// adjust the lower & upper X boundaries of the starting point
+			if( xA < 0 ) {
+				x[a] = 0;
+				y[a] = (int)c;
+			}
+			if( xA > clipper.width ) {
+				x[a] = clipper.width;
+				y[a] = (int)( m * (double)clipper.width + c );
+			}
+			
+			// adjust the lower & upper X boundaries of the ending point
+			if( xB < 0 ) {
+				x[b] = 0;
+				y[b] = (int)c;
+			}
+			if( xB > clipper.width ) {
+				x[b] = clipper.width;
+				y[b] = (int)( m * (double)clipper.width + c );
+			}
+		}		
+	}
+
 	/**
 	 * Computes the slope of the line
 	 * @return the slope of the line
@@ -926,11 +992,10 @@ public class LineXY implements ComplexInternalRepresentation {
 	 */
 	public void render( ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix,
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 
 	/* 
@@ -0,0 +1,615 @@
+package constellation.drawing.entities;
+
+import static constellation.math.CxNurbsUtil.STRIDE;
+import static java.lang.Double.MAX_VALUE;
+import static java.lang.Math.getExponent;
+import static java.lang.Math.hypot;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+import constellation.ApplicationController;
+import constellation.drawing.EntityRepresentationUtil;
+import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
+import constellation.drawing.VertexContainer;
+import constellation.math.CxNurbsUtil;
+import constellation.math.MatrixWCStoSCS;
+import constellation.model.GeometricModel;
+
+/**
+ * The mathematical representation of a Non-Uniform Rational B-Spline (NURBS)
+ * curve. The curve is evaluated by de Boor's algorithm, and is tessellated by
+ * the adaptive subdivision of its Bezier segments, to within a fraction of a
+ * pixel at the current zoom. Since the curve lies within the convex hull of
+ * its control points, the (cached) bounds of its control polygon are used
+ * to cull and pick the curve without tessellating it.
+ * @see http://en.wikipedia.org/wiki/Non-uniform_rational_B-spline
+ * @author lawrence.daniels@gmail.com
+ */
+public class NurbsCurveXY extends CurveXY implements VertexContainer {
+	public static final int DEFAULT_DEGREE = 3;
+	private final TessellationCache tessellation = new TessellationCache();
+	private final int degree;
+	private double[] knots;
+	private double[] pw;
+	private RectangleXY bounds;
+	private VerticesXY limits;
+
+	/**
+	 * Creates an empty curve of the given degree; control points
+	 * are added by way of {@link #append(PointXY...)}.
+	 * @param degree the given degree of the curve
+	 */
+	public NurbsCurveXY( final int degree ) {
+		this.degree	= degree;
+		this.pw		= new double[0];
+	}
+
+	/**
+	 * Creates a clamped, uniform (non-rational) curve of the given degree
+	 * @param degree the given degree of the curve
+	 * @param points the given array of {@link PointXY control points}
+	 */
+	public NurbsCurveXY( final int degree, final PointXY[] points ) {
+		this( degree, null, points, null );
+	}
+
+	/**
+	 * Creates a new curve
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector, or <tt>null</tt> for a clamped, uniform knot vector
+	 * @param points the given array of {@link PointXY control points}
+	 * @param weights the given weights, or <tt>null</tt> for a non-rational curve
+	 * @throws IllegalArgumentException if the definition of the curve is invalid
+	 */
+	public NurbsCurveXY( final int degree, final double[] knots, final PointXY[] points, final double[] weights ) {
+		this.degree	= degree;
+		this.pw		= toHomogeneous( points, weights );
+		if( knots != null ) {
+			CxNurbsUtil.validate( degree, knots, points.length );
+			this.knots = knots.clone();
+		}
+	}
+
+	/**
+	 * Creates a new curve from the given homogeneous control points
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector
+	 * @param pw the given homogeneous control points
+	 */
+	private NurbsCurveXY( final int degree, final double[] knots, final double[] pw ) {
+		this.degree	= degree;
+		this.knots	= knots;
+		this.pw		= pw;
+	}
+
+	/**
+	 * Appends control points (with unit weights) to the curve; the knot vector
+	 * of the curve is replaced by a clamped, uniform knot vector.
+	 * @param points the given array of {@link PointXY control points}
+	 */
+	public synchronized void append( final PointXY ... points ) {
+		final double[] npw = Arrays.copyOf( pw, pw.length + points.length * STRIDE );
+		int offset = pw.length;
+		for( final PointXY p : points ) {
+			npw[ offset++ ] = p.x;
+			npw[ offset++ ] = p.y;
+			npw[ offset++ ] = 1d;
+		}
+		pw		= npw;
+		knots	= null;
+		resetCache();
+	}
+
+	/**
+	 * Moves the given control point of the curve
+	 * @param index the given index of the control point
+	 * @param dx the given distance along the X-axis
+	 * @param dy the given distance along the Y-axis
+	 */
+	public synchronized void moveControlPoint( final int index, final double dx, final double dy ) {
+		final int i = index * STRIDE;
+		pw[i]	+= dx * pw[i+2];
+		pw[i+1] += dy * pw[i+2];
+		resetCache();
+	}
+
+	/**
+	 * Returns the index of the control point found at the given (x,y) coordinate
+	 * @param x the given X-axis coordinate
+	 * @param y the given Y-axis coordinate
+	 * @return the index of the control point, or <tt>-1</tt> if not found
+	 */
+	public synchronized int indexOfControlPoint( final double x, final double y ) {
+		for( int n = 0; n < pw.length; n += STRIDE ) {
+			if( ( pw[n] / pw[n+2] == x ) && ( pw[n+1] / pw[n+2] == y ) ) {
+				return n / STRIDE;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Replaces the knot vector of the curve
+	 * @param knots the given knot vector
+	 * @throws IllegalArgumentException if the knot vector does not fit the curve
+	 */
+	public synchronized void setKnots( final double[] knots ) {
+		CxNurbsUtil.validate( degree, knots, getControlPointCount() );
+		this.knots = knots.clone();
+		resetCache();
+	}
+
+	/**
+	 * Replaces the weights of the control points of the curve
+	 * @param weights the given weights
+	 * @throws IllegalArgumentException if the weights do not fit the curve
+	 */
+	public synchronized void setWeights( final double[] weights ) {
+		pw = toHomogeneous( getControlPoints(), weights );
+		resetCache();
+	}
+
+	/* (non-Javadoc)
+	 * @see constellation.drawing.entities.CurveXY#contains(constellation.drawing.entities.PointXY)
+	 */
+	public boolean contains( final PointXY vertex ) {
+		for( final PointXY p : getControlPoints() ) {
+			if( p.equals( vertex ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#duplicate(double, double)
+	 */
+	public synchronized NurbsCurveXY duplicate( final double dx, final double dy ) {
+		final double[] npw = pw.clone();
+		for( int n = 0; n < npw.length; n += STRIDE ) {
+			npw[n]	 += dx * npw[n+2];
+			npw[n+1] += dy * npw[n+2];
+		}
+		return new NurbsCurveXY( degree, knots, npw );
+	}
+
+	/**
+	 * Returns the degree of the curve
+	 * @return the degree of the curve
+	 */
+	public int getDegree() {
+		return degree;
+	}
+
+	/**
+	 * Returns the degree of the curve that is actually evaluated; a curve with
+	 * too few control points for its degree is evaluated at a lower degree.
+	 * @return the effective degree
+	 */
+	public synchronized int getEffectiveDegree() {
+		return ( knots != null ) ? degree : max( 1, min( degree, getControlPointCount() - 1 ) );
+	}
+
+	/**
+	 * Returns the knot vector of the curve
+	 * @return the knot vector
+	 */
+	public synchronized double[] getKnots() {
+		if( knots == null ) {
+			return CxNurbsUtil.createKnots( getEffectiveDegree(), max( getControlPointCount(), 2 ) );
+		}
+		return knots.clone();
+	}
+
+	/**
+	 * Indicates whether the knot vector of the curve is implied by its control
+	 * points; i.e. whether it is a clamped, uniform knot vector
+	 * @return true, if the knot vector is implied
+	 */
+	public synchronized boolean isUniform() {
+		return ( knots == null );
+	}
+
+	/**
+	 * Returns the weights of the control points of the curve
+	 * @return the weights
+	 */
+	public synchronized double[] getWeights() {
+		final double[] weights = new double[ getControlPointCount() ];
+		for( int n = 0; n < weights.length; n++ ) {
+			weights[n] = pw[ n * STRIDE + 2 ];
+		}
+		return weights;
+	}
+
+	/**
+	 * Indicates whether the curve is rational; i.e. whether its weights differ
+	 * @return true, if the curve is rational
+	 */
+	public synchronized boolean isRational() {
+		for( int n = STRIDE + 2; n < pw.length; n += STRIDE ) {
+			if( pw[n] != pw[2] ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of control points of the curve
+	 * @return the number of control points
+	 */
+	public synchronized int getControlPointCount() {
+		return pw.length / STRIDE;
+	}
+
+	/**
+	 * Returns the control points of the curve
+	 * @return the array of {@link PointXY control points}
+	 */
+	public synchronized PointXY[] getControlPoints() {
+		final PointXY[] points = new PointXY[ getControlPointCount() ];
+		for( int n = 0; n < points.length; n++ ) {
+			final int i = n * STRIDE;
+			points[n] = new PointXY( pw[i] / pw[i+2], pw[i+1] / pw[i+2] );
+		}
+		return points;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#getBounds(constellation.math.MatrixWCStoSCS)
+	 */
+	public synchronized RectangleXY getBounds( final MatrixWCStoSCS matrix ) {
+		if( bounds == null ) {
+			double minX = +MAX_VALUE;
+			double minY = +MAX_VALUE;
+			double maxX = -MAX_VALUE;
+			double maxY = -MAX_VALUE;
+
+			// the curve lies within the convex hull of its control points
+			for( int n = 0; n < pw.length; n += STRIDE ) {
+				final double x = pw[n] / pw[n+2];
+				final double y = pw[n+1] / pw[n+2];
+				if( minX > x ) { minX = x; }
+				if( minY > y ) { minY = y; }
+				if( maxX < x ) { maxX = x; }
+				if( maxY < y ) { maxY = y; }
+			}
+			bounds = ( pw.length > 0 ) ? new RectangleXY( minX, minY, maxX - minX, maxY - minY ) : new RectangleXY( 0, 0, 0, 0 );
+		}
+		return bounds;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.ComplexInternalRepresentation#getLimits()
+	 */
+	public synchronized VerticesXY getLimits() {
+		if( limits == null ) {
+			limits = EntityRepresentationUtil.toLimits( getControlPoints() );
+		}
+		return limits;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.ComplexInternalRepresentation#getMidPoint()
+	 */
+	public synchronized PointXY getMidPoint() {
+		if( getControlPointCount() < 2 ) {
+			return ( pw.length > 0 ) ? new PointXY( pw[0] / pw[2], pw[1] / pw[2] ) : null;
+		}
+		final double[] k = getKnots();
+		return getPointAt( 0.5d * ( k[ getEffectiveDegree() ] + k[ getControlPointCount() ] ) );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.entities.CurveXY#getParallelCurve(constellation.drawing.entities.PointXY)
+	 */
+	public synchronized CurveXY getParallelCurve( final PointXY offset ) {
+		// find the point of the curve nearest to the offset point
+		if( getControlPointCount() < 2 ) {
+			return duplicate( 0, 0 );
+		}
+		final int p = getEffectiveDegree();
+		final double[] k = getKnots();
+		final double u = parameterOf( offset, k, p );
+		final PointXY nearest = getPointAt( u );
+
+		// determine the (signed) offset distance, relative to the curve's normal
+		final double[] normal = getNormal( k, p, u );
+		final double distance = ( offset.x - nearest.x ) * normal[0] + ( offset.y - nearest.y ) * normal[1];
+
+		// offset each control point along the normal at its Greville abscissa
+		final double[] npw = pw.clone();
+		for( int n = 0; n < npw.length / STRIDE; n++ ) {
+			double greville = 0d;
+			for( int j = 1; j <= p; j++ ) {
+				greville += k[ n + j ];
+			}
+			final double[] nv = getNormal( k, p, greville / p );
+			final int i = n * STRIDE;
+			npw[i]	 += distance * nv[0] * npw[i+2];
+			npw[i+1] += distance * nv[1] * npw[i+2];
+		}
+		return new NurbsCurveXY( degree, knots, npw );
+	}
+
+	/**
+	 * Evaluates the curve at the given parameter
+	 * @param u the given parameter
+	 * @return the {@link PointXY point} of the curve
+	 */
+	public synchronized PointXY getPointAt( final double u ) {
+		final double[] point = new double[2];
+		CxNurbsUtil.evaluate( getEffectiveDegree(), getKnots(), pw, u, point );
+		return new PointXY( point[0], point[1] );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#getType()
+	 */
+	public EntityTypes getType() {
+		return EntityTypes.NURBS;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.ComplexInternalRepresentation#getVertices(constellation.math.MatrixWCStoSCS)
+	 */
+	public synchronized VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
+		// determine the level of detail required at the current zoom
+		final double scale	= TessellationCache.getQuantizedScale( matrix );
+		final int level		= getExponent( scale );
+
+		// are the cached vertices still valid?
+		final double fx = ( pw.length > 0 ) ? pw[0] / pw[2] : 0d;
+		final double fy = ( pw.length > 0 ) ? pw[1] / pw[2] : 0d;
+		final VerticesXY cached = tessellation.lookup( level, fx, fy );
+		if( cached != null ) {
+			return cached;
+		}
+
+		// tessellate the curve
+		return tessellation.store( tessellate( TessellationCache.CHORD_TOLERANCE / scale ), level, fx, fy );
+	}
+
+	/**
+	 * Inserts the given knot into the curve, without changing its shape
+	 * @param u the given knot
+	 * @return the refined {@link NurbsCurveXY curve}
+	 */
+	public synchronized NurbsCurveXY insertKnot( final double u ) {
+		final double[][] refined = CxNurbsUtil.insertKnot( getEffectiveDegree(), getKnots(), pw, u );
+		return new NurbsCurveXY( getEffectiveDegree(), refined[0], refined[1] );
+	}
+
+	/**
+	 * Extracts the portion of the curve between the given parameters
+	 * @param u0 the given start parameter
+	 * @param u1 the given end parameter
+	 * @return the extracted {@link NurbsCurveXY curve}
+	 * @throws IllegalArgumentException if the parameters do not lie within the curve's domain
+	 */
+	public synchronized NurbsCurveXY extract( final double u0, final double u1 ) {
+		final int p = getEffectiveDegree();
+		final double[] k = getKnots();
+		if( ( u0 < k[p] ) || ( u1 > k[ getControlPointCount() ] ) || ( u0 >= u1 ) ) {
+			throw new IllegalArgumentException( format( "Invalid parameter range [%f,%f]", u0, u1 ) );
+		}
+		final double[][] portion = CxNurbsUtil.extract( p, k, pw, u0, u1 );
+		return new NurbsCurveXY( p, portion[0], portion[1] );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#intersects(constellation.drawing.entities.RectangleXY, constellation.math.MatrixWCStoSCS)
+	 */
+	public boolean intersects( final RectangleXY boundary, final MatrixWCStoSCS matrix ) {
+		// the curve cannot intersect a boundary which misses its control polygon
+		final RectangleXY hull = getBounds( matrix );
+		if( !boundary.intersects( hull.x, hull.y, max( hull.width, Double.MIN_VALUE ), max( hull.height, Double.MIN_VALUE ) ) ) {
+			return false;
+		}
+
+		// nor can it miss a boundary which contains its control polygon
+		if( boundary.contains( hull ) ) {
+			return true;
+		}
+
+		// test each segment of the tessellated curve
+		final VerticesXY p = getVertices( matrix );
+		final int count = p.length() - 1;
+		for( int n = 0; n < count; n++ ) {
+			final int m = n+1;
+			if( boundary.intersectsLine( p.x[n], p.y[n], p.x[m], p.y[m] ) ) {
+				return true;
+			}
+		}
+		return ( count == 0 ) && boundary.contains( p.x[0], p.y[0] );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.ComplexInternalRepresentation#length()
+	 */
+	public synchronized double length() {
+		// tessellate the curve to within a millionth of its size
+		final RectangleXY hull = getBounds( null );
+		final VerticesXY p = tessellate( max( hypot( hull.width, hull.height ) * 1e-6, Double.MIN_NORMAL ) );
+
+		// sum the lengths of the segments
+		double length = 0;
+		final int count = p.length() - 1;
+		for( int n = 0; n < count; n++ ) {
+			final int m = n+1;
+			length += PointXY.getDistance( p.x[n], p.y[n], p.x[m], p.y[m] );
+		}
+		return length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#mirror(constellation.drawing.entities.LineXY)
+	 */
+	public synchronized NurbsCurveXY mirror( final LineXY plane ) {
+		final double[] npw = pw.clone();
+		for( int n = 0; n < npw.length; n += STRIDE ) {
+			final PointXY p = new PointXY( npw[n] / npw[n+2], npw[n+1] / npw[n+2] ).mirror( plane );
+			npw[n]   = p.x * npw[n+2];
+			npw[n+1] = p.y * npw[n+2];
+		}
+		return new NurbsCurveXY( degree, knots, npw );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color)
+	 */
+	public void render( final ApplicationController controller,
+						final GeometricModel model,
+						final RenderContext context,
+						final Graphics2D g,
+						final Color color ) {
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
+	}
+
+	/**
+	 * Resets the curve; allowing its bounds and vertices to be re-computed.
+	 */
+	public synchronized void resetCache() {
+		bounds = null;
+		limits = null;
+		tessellation.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.entities.CurveXY#toEquation()
+	 */
+	public String toEquation() {
+		return format( "NURBS(degree=%d, points=%d)", degree, getControlPointCount() );
+	}
+
+	/**
+	 * Tessellates the curve to within the given tolerance
+	 * @param tolerance the given tolerance (in model units)
+	 * @return the {@link VerticesXY vertices} of the curve
+	 */
+	private VerticesXY tessellate( final double tolerance ) {
+		final int count = getControlPointCount();
+		final VerticesXY vertices = new VerticesXY( max( count * 8, 2 ) );
+		if( count == 1 ) {
+			vertices.add( pw[0] / pw[2], pw[1] / pw[2] );
+		}
+		else if( count > 1 ) {
+			CxNurbsUtil.tessellate( getEffectiveDegree(), getKnots(), pw, tolerance, vertices );
+		}
+		return vertices;
+	}
+
+	/**
+	 * Returns the parameter of the point of the curve which is nearest to the given
+	 * point; the curve is sampled, and the nearest sample is refined by a ternary search.
+	 * @param point the given {@link PointXY point}
+	 * @param k the given knot vector
+	 * @param p the given (effective) degree
+	 * @return the parameter
+	 */
+	private double parameterOf( final PointXY point, final double[] k, final int p ) {
+		final double[] c = new double[2];
+		final double start	= k[p];
+		final double end	= k[ getControlPointCount() ];
+
+		// sample the curve
+		final int samples = 16 * getControlPointCount();
+		final double step = ( end - start ) / samples;
+		double best = start;
+		double bestDistance = MAX_VALUE;
+		for( int n = 0; n <= samples; n++ ) {
+			final double u = min( end, start + n * step );
+			CxNurbsUtil.evaluate( p, k, pw, u, c );
+			final double distance = hypot( c[0] - point.x, c[1] - point.y );
+			if( distance < bestDistance ) {
+				bestDistance = distance;
+				best = u;
+			}
+		}
+
+		// refine the nearest sample
+		double lo = max( start, best - step );
+		double hi = min( end, best + step );
+		for( int n = 0; n < 48; n++ ) {
+			final double a = lo + ( hi - lo ) / 3d;
+			final double b = hi - ( hi - lo ) / 3d;
+			CxNurbsUtil.evaluate( p, k, pw, a, c );
+			final double da = hypot( c[0] - point.x, c[1] - point.y );
+			CxNurbsUtil.evaluate( p, k, pw, b, c );
+			final double db = hypot( c[0] - point.x, c[1] - point.y );
+			if( da < db ) {
+				hi = b;
+			}
+			else {
+				lo = a;
+			}
+		}
+		return 0.5d * ( lo + hi );
+	}
+
+	/**
+	 * Returns the unit normal of the curve at the given parameter
+	 * @param k the given knot vector
+	 * @param p the given (effective) degree
+	 * @param u the given parameter
+	 * @return the (x,y) components of the normal
+	 */
+	private double[] getNormal( final double[] k, final int p, final double u ) {
+		final double lo = k[p];
+		final double hi = k[ getControlPointCount() ];
+		final double h	= ( hi - lo ) * 1e-6;
+		final double[] a = new double[2];
+		final double[] b = new double[2];
+		CxNurbsUtil.evaluate( p, k, pw, max( lo, u - h ), a );
+		CxNurbsUtil.evaluate( p, k, pw, min( hi, u + h ), b );
+		final double dx = b[0] - a[0];
+		final double dy = b[1] - a[1];
+		final double length = hypot( dx, dy );
+		return ( length > 0d ) ? new double[] { -dy / length, dx / length } : new double[] { 0d, 0d };
+	}
+
+	/**
+	 * Converts the given control points and weights to homogeneous form
+	 * @param points the given array of {@link PointXY control points}
+	 * @param weights the given weights, or <tt>null</tt> for unit weights
+	 * @return the homogeneous control points
+	 * @throws IllegalArgumentException if the weights do not fit the control points
+	 */
+	private static double[] toHomogeneous( final PointXY[] points, final double[] weights ) {
+		if( ( weights != null ) && ( weights.length != points.length ) ) {
+			throw new IllegalArgumentException( format( "Expected %d weights, found %d", points.length, weights.length ) );
+		}
+		final double[] pw = new double[ points.length * STRIDE ];
+		for( int n = 0; n < points.length; n++ ) {
+			final double w = ( weights != null ) ? weights[n] : 1d;
+			if( w <= 0d ) {
+				throw new IllegalArgumentException( format( "Weight #%d must be positive", n + 1 ) );
+			}
+			pw[ n * STRIDE ]	 = points[n].x * w;
+			pw[ n * STRIDE + 1 ] = points[n].y * w;
+			pw[ n * STRIDE + 2 ] = w;
+		}
+		return pw;
+	}
+
+}
@@ -0,0 +1,453 @@
+package constellation.drawing.entities;
+
+import static java.lang.Double.MAX_VALUE;
+import static java.lang.Math.abs;
+import static java.lang.Math.getExponent;
+import static java.lang.Math.hypot;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+
+import constellation.ApplicationController;
+import constellation.drawing.EntityRepresentationUtil;
+import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
+import constellation.math.CxParametricUtil;
+import constellation.math.MatrixWCStoSCS;
+import constellation.model.GeometricModel;
+import constellation.tools.sdk.math.geometric.expressions.CompiledExpression;
+import constellation.tools.sdk.math.geometric.expressions.ExpressionParser;
+
+/**
+ * The mathematical representation of a parametric curve; i.e. a curve whose
+ * points are given by a pair of user-defined equations <i>x(t)</i> and <i>y(t)</i>
+ * (e.g. 'x(t) = 3cos(t)' and 'y(t) = 2sin(2t)') over a range of the parameter.
+ * The equations are compiled once, and the curve is tessellated by evaluating
+ * them over whole arrays of parameter values. The curve may be placed (i.e. moved
+ * and mirrored) by a rigid transformation, and may be offset along its normal.
+ * @author lawrence.daniels@gmail.com
+ */
+public class ParametricCurveXY extends CurveXY {
+	public static final String PARAMETER = "t";
+	private static final double[] IDENTITY = { 1, 0, 0, 0, 1, 0 };
+	private static final int BOUNDS_SEGMENTS = 1024;
+	private final TessellationCache tessellation = new TessellationCache();
+	private final CompiledExpression fx;
+	private final CompiledExpression fy;
+	private final String xEquation;
+	private final String yEquation;
+	private final double start;
+	private final double end;
+	private final double[] transform;
+	private final double offset;
+	private RectangleXY bounds;
+	private VerticesXY limits;
+
+	/**
+	 * Creates a new parametric curve
+	 * @param xEquation the given equation of <i>x(t)</i> (e.g. '3cos(t)')
+	 * @param yEquation the given equation of <i>y(t)</i> (e.g. '2sin(2t)')
+	 * @param start the given start of the range of the parameter
+	 * @param end the given end of the range of the parameter
+	 * @throws IllegalArgumentException if either equation is invalid
+	 */
+	public ParametricCurveXY( final String xEquation,
+							  final String yEquation,
+							  final double start,
+							  final double end ) {
+		this( xEquation, yEquation, start, end, IDENTITY, 0d );
+	}
+
+	/**
+	 * Creates a new parametric curve
+	 * @param xEquation the given equation of <i>x(t)</i> (e.g. '3cos(t)')
+	 * @param yEquation the given equation of <i>y(t)</i> (e.g. '2sin(2t)')
+	 * @param start the given start of the range of the parameter
+	 * @param end the given end of the range of the parameter
+	 * @param transform the given placement of the curve (i.e. the affine
+	 * transformation <tt>{ m00, m01, m02, m10, m11, m12 }</tt>)
+	 * @param offset the given (signed) distance of the curve along its normal
+	 * @throws IllegalArgumentException if either equation is invalid
+	 */
+	public ParametricCurveXY( final String xEquation,
+							  final String yEquation,
+							  final double start,
+							  final double end,
+							  final double[] transform,
+							  final double offset ) {
+		if( transform.length != IDENTITY.length ) {
+			throw new IllegalArgumentException( format( "Expected %d transformation values, found %d", IDENTITY.length, transform.length ) );
+		}
+		this.xEquation	= xEquation;
+		this.yEquation	= yEquation;
+		this.start		= start;
+		this.end		= end;
+		this.transform	= transform.clone();
+		this.offset		= offset;
+		this.fx			= compile( xEquation );
+		this.fy			= compile( yEquation );
+	}
+
+	/**
+	 * Returns the equation of <i>x(t)</i>
+	 * @return the equation of <i>x(t)</i>
+	 */
+	public String getXEquation() {
+		return xEquation;
+	}
+
+	/**
+	 * Returns the equation of <i>y(t)</i>
+	 * @return the equation of <i>y(t)</i>
+	 */
+	public String getYEquation() {
+		return yEquation;
+	}
+
+	/**
+	 * Returns the start of the range of the parameter
+	 * @return the start of the range of the parameter
+	 */
+	public double getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the end of the range of the parameter
+	 * @return the end of the range of the parameter
+	 */
+	public double getEnd() {
+		return end;
+	}
+
+	/**
+	 * Returns the placement of the curve
+	 * @return the affine transformation <tt>{ m00, m01, m02, m10, m11, m12 }</tt>
+	 */
+	public double[] getTransform() {
+		return transform.clone();
+	}
+
+	/**
+	 * Returns the (signed) distance of the curve along its normal
+	 * @return the offset distance
+	 */
+	public double getOffset() {
+		return offset;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#duplicate(double, double)
+	 */
+	public ParametricCurveXY duplicate( final double dx, final double dy ) {
+		final double[] m = transform.clone();
+		m[2] += dx;
+		m[5] += dy;
+		return new ParametricCurveXY( xEquation, yEquation, start, end, m, offset );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#getBounds(constellation.math.MatrixWCStoSCS)
+	 */
+	public synchronized RectangleXY getBounds( final MatrixWCStoSCS matrix ) {
+		if( bounds == null ) {
+			// sample the curve uniformly
+			final double[] t = new double[ BOUNDS_SEGMENTS + 1 ];
+			for( int n = 0; n < t.length; n++ ) {
+				t[n] = start + ( end - start ) * n / BOUNDS_SEGMENTS;
+			}
+			final VerticesXY p = evaluate( t );
+
+			// determine the extents of the samples
+			double minX = +MAX_VALUE;
+			double minY = +MAX_VALUE;
+			double maxX = -MAX_VALUE;
+			double maxY = -MAX_VALUE;
+			final int count = p.length();
+			for( int n = 0; n < count; n++ ) {
+				final double x = p.x[n];
+				final double y = p.y[n];
+				if( minX > x ) { minX = x; }
+				if( minY > y ) { minY = y; }
+				if( maxX < x ) { maxX = x; }
+				if( maxY < y ) { maxY = y; }
+			}
+			bounds = ( minX <= maxX ) ? new RectangleXY( minX, minY, maxX - minX, maxY - minY ) : new RectangleXY( 0, 0, 0, 0 );
+		}
+		return bounds;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.ComplexInternalRepresentation#getLimits()
+	 */
+	public synchronized VerticesXY getLimits() {
+		if( limits == null ) {
+			limits = EntityRepresentationUtil.toLimits( getPointAt( start ), getPointAt( end ) );
+		}
+		return limits;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.ComplexInternalRepresentation#getMidPoint()
+	 */
+	public PointXY getMidPoint() {
+		return getPointAt( 0.5d * ( start + end ) );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.entities.CurveXY#getParallelCurve(constellation.drawing.entities.PointXY)
+	 */
+	public ParametricCurveXY getParallelCurve( final PointXY point ) {
+		// find the vertex of the curve nearest to the given point
+		final VerticesXY p = tessellate( max( getSize() * 1e-4, Double.MIN_NORMAL ) );
+		final int count = p.length();
+		if( count < 2 ) {
+			return duplicate( 0, 0 );
+		}
+		int nearest = 0;
+		double distance = MAX_VALUE;
+		for( int n = 0; n < count; n++ ) {
+			final double d = hypot( point.x - p.x[n], point.y - p.y[n] );
+			if( d < distance ) {
+				distance = d;
+				nearest = n;
+			}
+		}
+
+		// parallel curves share their normals, so the offsets are additive
+		final double[] normal = getNormal( p, nearest );
+		final double delta = ( point.x - p.x[ nearest ] ) * normal[0] + ( point.y - p.y[ nearest ] ) * normal[1];
+		return new ParametricCurveXY( xEquation, yEquation, start, end, transform, offset + delta );
+	}
+
+	/**
+	 * Evaluates the curve at the given parameter
+	 * @param u the given parameter
+	 * @return the {@link PointXY point} of the curve
+	 */
+	public PointXY getPointAt( final double u ) {
+		final double h = max( abs( end - start ), 1d ) * 1e-6;
+		final VerticesXY p = evaluate( new double[] { u - h, u, u + h } );
+		return new PointXY( p.x[1], p.y[1] );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#getType()
+	 */
+	public EntityTypes getType() {
+		return EntityTypes.PARAMETRIC;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.ComplexInternalRepresentation#getVertices(constellation.math.MatrixWCStoSCS)
+	 */
+	public VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
+		// determine the level of detail required at the current zoom
+		final double scale	= TessellationCache.getQuantizedScale( matrix );
+		final int level		= getExponent( scale );
+
+		// are the cached vertices still valid?
+		final VerticesXY cached = tessellation.lookup( level, start, end );
+		if( cached != null ) {
+			return cached;
+		}
+
+		// tessellate the curve
+		return tessellation.store( tessellate( TessellationCache.CHORD_TOLERANCE / scale ), level, start, end );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#intersects(constellation.drawing.entities.RectangleXY, constellation.math.MatrixWCStoSCS)
+	 */
+	public boolean intersects( final RectangleXY boundary, final MatrixWCStoSCS matrix ) {
+		// the curve cannot intersect a boundary which misses its bounds
+		final RectangleXY rect = getBounds( matrix );
+		if( !boundary.intersects( rect.x, rect.y, max( rect.width, Double.MIN_VALUE ), max( rect.height, Double.MIN_VALUE ) ) ) {
+			return false;
+		}
+
+		// test each segment of the tessellated curve
+		final VerticesXY p = getVertices( matrix );
+		final int count = p.length() - 1;
+		for( int n = 0; n < count; n++ ) {
+			final int m = n+1;
+			if( boundary.intersectsLine( p.x[n], p.y[n], p.x[m], p.y[m] ) ) {
+				return true;
+			}
+		}
+		return ( count == 0 ) && boundary.contains( p.x[0], p.y[0] );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.ComplexInternalRepresentation#length()
+	 */
+	public double length() {
+		// tessellate the curve to within a millionth of its size
+		final VerticesXY p = tessellate( max( getSize() * 1e-6, Double.MIN_NORMAL ) );
+
+		// sum the lengths of the segments
+		double length = 0;
+		final int count = p.length() - 1;
+		for( int n = 0; n < count; n++ ) {
+			final int m = n+1;
+			length += PointXY.getDistance( p.x[n], p.y[n], p.x[m], p.y[m] );
+		}
+		return length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.EntityRepresentation#mirror(constellation.drawing.entities.LineXY)
+	 */
+	public ParametricCurveXY mirror( final LineXY plane ) {
+		// determine the reflection by mirroring the origin and the unit vectors
+		final PointXY o = new PointXY( 0, 0 ).mirror( plane );
+		final PointXY u = new PointXY( 1, 0 ).mirror( plane );
+		final PointXY v = new PointXY( 0, 1 ).mirror( plane );
+		final double[] r = { u.x - o.x, v.x - o.x, o.x, u.y - o.y, v.y - o.y, o.y };
+
+		// apply the reflection to the placement of the curve
+		final double[] m = transform;
+		final double[] t = {
+			r[0] * m[0] + r[1] * m[3], r[0] * m[1] + r[1] * m[4], r[0] * m[2] + r[1] * m[5] + r[2],
+			r[3] * m[0] + r[4] * m[3], r[3] * m[1] + r[4] * m[4], r[3] * m[2] + r[4] * m[5] + r[5]
+		};
+
+		// a reflection reverses the orientation of the normal
+		return new ParametricCurveXY( xEquation, yEquation, start, end, t, -offset );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color)
+	 */
+	public void render( final ApplicationController controller,
+						final GeometricModel model,
+						final RenderContext context,
+						final Graphics2D g,
+						final Color color ) {
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see constellation.drawing.entities.CurveXY#toEquation()
+	 */
+	public String toEquation() {
+		return format( "x(t) = %s; y(t) = %s [%s:%s]", xEquation, yEquation, start, end );
+	}
+
+	/**
+	 * Evaluates the (placed and offset) curve at the given parameter values
+	 * @param t the given parameter values
+	 * @return the {@link VerticesXY vertices} of the curve
+	 */
+	private VerticesXY evaluate( final double[] t ) {
+		return place( CxParametricUtil.evaluate( fx, fy, t, t.length ) );
+	}
+
+	/**
+	 * Tessellates the (placed and offset) curve to within the given tolerance
+	 * @param tolerance the given tolerance (in model units)
+	 * @return the {@link VerticesXY vertices} of the curve
+	 */
+	private VerticesXY tessellate( final double tolerance ) {
+		return place( CxParametricUtil.tessellate( fx, fy, start, end, tolerance ) );
+	}
+
+	/**
+	 * Transforms the given vertices (in place) by the placement of the curve,
+	 * and then offsets them along the normal of the curve
+	 * @param p the given {@link VerticesXY vertices}
+	 * @return the given {@link VerticesXY vertices}
+	 */
+	private VerticesXY place( final VerticesXY p ) {
+		// apply the placement
+		final double[] m = transform;
+		final int count = p.length();
+		for( int n = 0; n < count; n++ ) {
+			final double x = p.x[n];
+			final double y = p.y[n];
+			p.x[n] = m[0] * x + m[1] * y + m[2];
+			p.y[n] = m[3] * x + m[4] * y + m[5];
+		}
+
+		// apply the offset
+		if( ( offset != 0d ) && ( count > 1 ) ) {
+			final double[] ox = new double[ count ];
+			final double[] oy = new double[ count ];
+			for( int n = 0; n < count; n++ ) {
+				final double[] normal = getNormal( p, n );
+				ox[n] = p.x[n] + offset * normal[0];
+				oy[n] = p.y[n] + offset * normal[1];
+			}
+			System.arraycopy( ox, 0, p.x, 0, count );
+			System.arraycopy( oy, 0, p.y, 0, count );
+		}
+		return p;
+	}
+
+	/**
+	 * Returns the size of the curve (i.e. the diagonal of its bounds)
+	 * @return the size of the curve
+	 */
+	private double getSize() {
+		final RectangleXY rect = getBounds( null );
+		return hypot( rect.width, rect.height );
+	}
+
+	/**
+	 * Returns the unit (left) normal of the given vertices at the given index;
+	 * the tangent is estimated from the neighbouring (defined) vertices.
+	 * @param p the given {@link VerticesXY vertices}
+	 * @param index the given index of the vertex
+	 * @return the (x,y) components of the normal
+	 */
+	private static double[] getNormal( final VerticesXY p, final int index ) {
+		final int prev = ( ( index > 0 ) && isDefined( p, index - 1 ) ) ? index - 1 : index;
+		final int next = ( ( index + 1 < p.length() ) && isDefined( p, index + 1 ) ) ? index + 1 : index;
+		final double dx = p.x[ next ] - p.x[ prev ];
+		final double dy = p.y[ next ] - p.y[ prev ];
+		final double length = hypot( dx, dy );
+		return ( length > 0d ) ? new double[] { -dy / length, dx / length } : new double[] { 0d, 0d };
+	}
+
+	/**
+	 * Indicates whether the curve is defined at the given vertex
+	 * @param p the given {@link VerticesXY vertices}
+	 * @param index the given index of the vertex
+	 * @return true, if the vertex is finite
+	 */
+	private static boolean isDefined( final VerticesXY p, final int index ) {
+		return !Double.isNaN( p.x[ index ] ) && !Double.isInfinite( p.x[ index ] ) &&
+			   !Double.isNaN( p.y[ index ] ) && !Double.isInfinite( p.y[ index ] );
+	}
+
+	/**
+	 * Compiles the given equation of the parameter
+	 * @param equation the given equation
+	 * @return the {@link CompiledExpression compiled expression}
+	 * @throws IllegalArgumentException if the equation is invalid
+	 */
+	private static CompiledExpression compile( final String equation ) {
+		try {
+			return ExpressionParser.getInstance().parseExpression( equation ).compile( PARAMETER );
+		}
+		catch( final IllegalArgumentException e ) {
+			throw new IllegalArgumentException( format( "Invalid equation '%s': %s", equation, e.getMessage() ), e );
+		}
+	}
+
+}
@@ -1,7 +1,8 @@
 package constellation.drawing.entities;
 
-import static java.awt.Color.BLACK;
-import static java.awt.Color.WHITE;
+import static java.lang.Math.ceil;
+import static java.lang.Math.floor;
+import static java.lang.Math.round;
 import static java.lang.String.format;
 
 import java.awt.Color;
@@ -18,7 +19,8 @@ import constellation.CxContentManager;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityTypes;
-import constellation.drawing.ScratchPad;
+import constellation.drawing.ImagePyramid;
+import constellation.drawing.RenderContext;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
 import constellation.preferences.SystemPreferences;
@@ -67,8 +69,8 @@ public class PictureXY implements EntityRepresentation {
 	 * @see constellation.drawing.ModelElement#getBounds(constellation.math.MatrixWCStoSCS)
 	 */
 	public RectangleXY getBounds( final MatrixWCStoSCS matrix ) {
-		// get a screen point
-		final Point screenPoint = ScratchPad.getProjectionPoint();
+		// create a screen point
+		final Point screenPoint = new Point();
 		
 		// transform the spatial point to screen coordinates
 		matrix.transform( location, screenPoint );
@@ -160,120 +162,89 @@ public class PictureXY implements EntityRepresentation {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix,
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
 		// get a screen point
-		final Point screenPoint = ScratchPad.getProjectionPoint();
+		final Point screenPoint = context.getProjectionPoint();
 		
 		// translate the point to screen coordinates
 		matrix.transform( location, screenPoint );
 		
-		// get the scaled image
-		final Image image = getScaledImage( matrix, clipper );
-		if( image != null ) {
-			// draw the image
-			g.drawImage( image, screenPoint.x, screenPoint.y, null );
-			
-			// is the image currently being highlighted?
-			final SystemPreferences preferences = controller.getSystemPreferences();
-			if( color.equals( preferences.getHighlightedGeometryColor() ) ) {
-				final int width = image.getWidth( null );
-				final int height = image.getHeight( null );
-				
-				g.setColor( color );
-				g.drawRect( screenPoint.x, screenPoint.y, width, height );
-				g.drawRect( screenPoint.x - 1, screenPoint.y - 1, width + 2, height + 2 );
-			}
+		// determine the screen region covered by the scaled image
+		final double scale = matrix.getScale();
+		final int width  = (int)( scale * (double)getWidth() );
+		final int height = (int)( scale * (double)getHeight() );
+		
+		// is the image too small? draw the thumb nail
+		if( ( width <= 3 ) || ( height <= 3 ) ) {
+			g.drawImage( THUMB_NAIL, screenPoint.x, screenPoint.y, null );
+			return;
 		}
-	}
-	
-	/** 
-	 * Return the scaled image (based on the scale of the matrix)
-	 * @param matrix the given {@link MatrixWCStoSCS SCS to MCS matrix}
-	 * @param clipper the {@link Rectangle clipping boundary}
-	 * @return the {@link Image image} to render
-	 */
-	private Image getScaledImage( final MatrixWCStoSCS matrix, final Rectangle clipper ) {
-		int width = 0;
-		int height = 0;
 		
-		// get the source image
-		final BufferedImage bimage = image.getImage();
-
-		// get the scale
-		final double scale = matrix.getScale();
-	
-		try {	
-			// if the scale is normal ... 
-			if( scale == 1.0d ) {
-				return bimage;
+		// draw only the visible portion of the image
+		final Rectangle region = new Rectangle( screenPoint.x, screenPoint.y, width, height );
+		final Rectangle visible = region.intersection( clipper );
+		if( !visible.isEmpty() ) {
+			try {
+				drawScaledImage( controller, g, scale, region, visible );
 			}
-			
-			// draw the scaled image 
-			else {
-				// determine the scaled image dimensions
-				width = (int)( scale * (double)bimage.getWidth() );
-				height = (int)( scale * (double)bimage.getHeight() );
-				
-				// is the image too small?
-				if( ( width <= 3 ) || ( height <= 3 ) ) {
-					return THUMB_NAIL;
-				}
-				
-				// is the image too large?
-				else if( ( width >= clipper.width ) || ( height >= clipper.height ) ) {
-					return createPlaceHolder( clipper, width, height );
-				}
-					
-				// scale & draw the image
-				else {
-					return bimage.getScaledInstance( width, height, Image.SCALE_FAST );
-				}
+			catch( final RuntimeException e ) {
+				logger.error( format( "scale = %3.2f, width = %d, height = %d\n", scale, getWidth(), getHeight() ), e );
 			}
 		}
-		catch( final RuntimeException e ) {
-			logger.error( format( "scale = %3.2f, width = %d, height = %d\n", scale, this.getWidth(), this.getHeight() ), e );
-			return createPlaceHolder( clipper, width, height );
+		
+		// is the image currently being highlighted?
+		final SystemPreferences preferences = controller.getSystemPreferences();
+		if( color.equals( preferences.getHighlightedGeometryColor() ) ) {
+			g.setColor( color );
+			g.drawRect( screenPoint.x, screenPoint.y, width, height );
+			g.drawRect( screenPoint.x - 1, screenPoint.y - 1, width + 2, height + 2 );
 		}
 	}
 	
-	/**
-	 * Creates a place holder image when the requested image's width or height exceeds the clipping plane
-	 * @param clipper the given {@link Rectangle clipping plane}
-	 * @param requestedWidth the requested width
-	 * @param requestedHeight the requested height
-	 * @return the place holder {@link BufferedImage image}
-	 */
-	private BufferedImage createPlaceHolder( final Rectangle clipper, final int requestedWidth, final int requestedHeight ) {
-		// insure that the width and height don't exceed the maximums
-		final int width = ( requestedWidth <= clipper.width ) ? requestedWidth : clipper.width;
-		final int height = ( requestedHeight <= clipper.height ) ? requestedHeight : clipper.height;
+	/** 
+	 * Draws the visible portion of the image at the given scale, using the level of
+	 * the image's {@link ImagePyramid pyramid} that best fits the scale.
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param g the given {@link Graphics2D graphics context}
+	 * @param scale the given scale
+	 * @param region the {@link Rectangle screen region} covered by the entire scaled image
+	 * @param visible the visible {@link Rectangle portion} of the screen region
+	 */
+	private void drawScaledImage( final ApplicationController controller,
+								  final Graphics2D g, 
+								  final double scale,
+								  final Rectangle region,
+								  final Rectangle visible ) {
+		// get the level of the pyramid nearest to the scale
+		final ImagePyramid pyramid = image.getPyramid();
+		final BufferedImage level = pyramid.getLevel( pyramid.getLevelFor( scale ), controller.getThreadPool() );
 		
-		// create the image
-		final BufferedImage tmpImage = new BufferedImage( width, height, BufferedImage.TYPE_3BYTE_BGR );
+		// map the visible portion of the screen region onto the level
+		final double sx = (double)level.getWidth() / (double)region.width;
+		final double sy = (double)level.getHeight() / (double)region.height;
+		final int sx1 = (int)floor( ( visible.x - region.x ) * sx );
+		final int sy1 = (int)floor( ( visible.y - region.y ) * sy );
+		final int sx2 = (int)ceil( ( visible.x + visible.width - region.x ) * sx );
+		final int sy2 = (int)ceil( ( visible.y + visible.height - region.y ) * sy );
 		
-		// draw a rectangle to represent the image
-		final Graphics2D g = (Graphics2D)tmpImage.getGraphics();
-		g.setColor( WHITE );
-		g.fillRect( 0, 0, width, height );
-		g.setColor( BLACK );
-		g.drawRect( 0, 0, width-1, height-1 );
+		// map the (pixel-aligned) source region back onto the screen
+		final int dx1 = region.x + (int)round( sx1 / sx );
+		final int dy1 = region.y + (int)round( sy1 / sy );
+		final int dx2 = region.x + (int)round( sx2 / sx );
+		final int dy2 = region.y + (int)round( sy2 / sy );
 		
-		// draw the image's label
-		/*
-		final FontMetrics fontMetrics = g.getFontMetrics();
-		final RectangleXY r = fontMetrics.getStringBounds( getLabel(), g );
-		final int cx = ( width - (int)r.getWidth() ) / 2;
-		final int cy = ( height - (int)r.getHeight() ) / 2;
-		g.drawString( getLabel(), cx, cy );
-		*/
-		// return the image
-		return tmpImage;
+		// draw the sub-region
+		g.drawImage( level, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null );
 	}
+	
 }
@@ -17,7 +17,7 @@ import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
-import constellation.drawing.ScratchPad;
+import constellation.drawing.RenderContext;
 import constellation.math.CxIntersectionUtil;
 import constellation.math.CxMathUtil;
 import constellation.math.MatrixWCStoSCS;
@@ -512,16 +512,19 @@ public class PointXY implements EntityRepresentation {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix,
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
-		// get a space point from the scratch pad
-		final Point screenPt = ScratchPad.getProjectionPoint();
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
+		// get a scratch point
+		final Point screenPt = context.getProjectionPoint();
 		
 		// translate the point to screen coordinates
 		matrix.transform( this, screenPt );
@@ -544,17 +547,20 @@ public class PointXY implements EntityRepresentation {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.functions.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void renderLabel( final ApplicationController controller,
 							 final GeometricModel model,
-							 final MatrixWCStoSCS matrix,
-							 final Rectangle clipper, 
+							 final RenderContext context,
 							 final Graphics2D g, 
 							 final Color color, 
 							 final String label ) {
-		// get a space point from the scratch pad
-		final Point screenPt = ScratchPad.getProjectionPoint();
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
+		// get a scratch point
+		final Point screenPt = context.getProjectionPoint();
 		
 		// translate the point to screen coordinates
 		matrix.transform( this, screenPt );
@@ -4,7 +4,6 @@ import static java.lang.Double.MAX_VALUE;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -16,6 +15,7 @@ import constellation.drawing.ComplexInternalRepresentation;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
 import constellation.drawing.VertexContainer;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
@@ -122,8 +122,8 @@ public class PolyLineXY implements ComplexInternalRepresentation, VertexContaine
 		for( final PointXY p : vertices ) {
 			if( minX > p.x ) { minX = p.x; }
 			if( minY > p.y ) { minY = p.y; }
-			if( maxX > p.x ) { maxX = p.x; }
-			if( maxY > p.y ) { maxY = p.y; }
+			if( maxX < p.x ) { maxX = p.x; }
+			if( maxY < p.y ) { maxY = p.y; }
 		}
 		
 		// return the bounds
@@ -256,15 +256,14 @@ public class PolyLineXY implements ComplexInternalRepresentation, VertexContaine
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 
 	/**
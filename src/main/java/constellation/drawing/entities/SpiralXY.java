@@ -1,19 +1,22 @@
 package constellation.drawing.entities;
 
 import static java.lang.Math.PI;
+import static java.lang.Math.abs;
 import static java.lang.Math.cos;
+import static java.lang.Math.max;
 import static java.lang.Math.sin;
 import static java.lang.String.format;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 
 import constellation.ApplicationController;
 import constellation.drawing.ComplexInternalRepresentation;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
 
@@ -27,6 +30,7 @@ public class SpiralXY extends RadialCurveXY implements ComplexInternalRepresenta
 	private static final int SECTIONS = 72;
 	
 	// internal fields
+	private final TessellationCache tessellation = new TessellationCache();
 	private final PointXY location;
 	private final double radiusInner;
 	private final double radiusOuter;
@@ -212,18 +216,31 @@ public class SpiralXY extends RadialCurveXY implements ComplexInternalRepresenta
 	public VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
 		final double cx = getCenterX();
 		final double cy = getCenterY();
-		final double delta = PI / (double)SECTIONS;
+		
+		// determine the level of detail (per revolution) required at the current zoom
+		final int segments = TessellationCache.getSegmentCount( matrix, max( abs( radiusInner ), abs( radiusOuter ) ) );
+		
+		// are the cached vertices still valid?
+		final VerticesXY cached = tessellation.lookup( segments, cx, cy );
+		if( cached != null ) {
+			return cached;
+		}
+		
+		// the radius grows by the increment every 1/SECTIONS of a half-revolution
+		final double delta = 2d * PI / (double)segments;
+		final double growth = increment * ( delta / ( PI / (double)SECTIONS ) );
 
 		// get the initial radius
 		double r = this.radiusInner;
 		
 		// create the vertex set
-		final VerticesXY vertices = new VerticesXY( SECTIONS );
+		final VerticesXY vertices = new VerticesXY( revolutions * segments + 2 );
 		
 		// create the points
 		for( int n = 0; n < revolutions; n++ ) {
-			for( double a = -PI; a < PI; a += delta ) {
+			for( int m = 0; m < segments; m++ ) {
 				// compute (x,y)
+				final double a = -PI + m * delta;
 				final double x = cx + ( r * cos(a) );
 				final double y = cy + ( r * sin(a) );
 				
@@ -231,10 +248,12 @@ public class SpiralXY extends RadialCurveXY implements ComplexInternalRepresenta
 				vertices.add( x, y );
 				
 				// increment the radius
-				r += increment;
+				r += growth;
 			}
 		}
-		return vertices;
+		
+		// cache the points
+		return tessellation.store( vertices, segments, cx, cy );
 	}
 
 	/* 
@@ -276,15 +295,14 @@ public class SpiralXY extends RadialCurveXY implements ComplexInternalRepresenta
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 
 	/**
@@ -1,11 +1,16 @@
 package constellation.drawing.entities;
 
 import static java.lang.Double.MAX_VALUE;
+import static java.lang.Math.ceil;
+import static java.lang.Math.getExponent;
+import static java.lang.Math.hypot;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
 import static java.util.Arrays.asList;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
@@ -14,6 +19,8 @@ import java.util.List;
 import constellation.ApplicationController;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
 import constellation.drawing.VertexContainer;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
@@ -28,8 +35,8 @@ import constellation.model.GeometricModel;
 public class SplineXY extends CurveXY implements VertexContainer {
 	public static final int MAX_POINTS = 6;
 	private final List<PointXY> controlPoints;
+	private final TessellationCache tessellation = new TessellationCache();
 	private VerticesXY limits;
-	private VerticesXY shape;
 	
 	/**
 	 * Default constructor
@@ -148,8 +155,8 @@ public class SplineXY extends CurveXY implements VertexContainer {
 		for( final PointXY p : controlPoints ) {
 			if( minX > p.x ) { minX = p.x; }
 			if( minY > p.y ) { minY = p.y; }
-			if( maxX > p.x ) { maxX = p.x; }
-			if( maxY > p.y ) { maxY = p.y; }
+			if( maxX < p.x ) { maxX = p.x; }
+			if( maxY < p.y ) { maxY = p.y; }
 		}
 		
 		// return the bounds
@@ -247,22 +254,32 @@ public class SplineXY extends CurveXY implements VertexContainer {
 	 * @see constellation.drawing.entities.representations.ComplexGeometricRepresentation#getVertices(constellation.math.MatrixWCStoSCS)
 	 */
 	public VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
-		if( shape == null ) {
-			// capture the count of vertices
-			final int numpoints = controlPoints.size();
-			
-			// get the vertex points as an array
-			final PointXY[] anchorPts = controlPoints.toArray( new PointXY[ numpoints ] );
-			
-			// compute the control points
-			final double[] cpx = new double[ numpoints ];
-			final double[] cpy = new double[ numpoints ];
-			interpolateControlPoints( anchorPts, cpx, cpy );
-			
-			// compute the spline's vertices
-			shape = generateSplineVertices( anchorPts, cpx, cpy );
+		// determine the level of detail required at the current zoom
+		final double scale	= TessellationCache.getQuantizedScale( matrix );
+		final int level		= getExponent( scale );
+		
+		// are the cached vertices still valid?
+		final PointXY first = controlPoints.isEmpty() ? null : controlPoints.get( 0 );
+		final double fx = ( first != null ) ? first.x : 0d;
+		final double fy = ( first != null ) ? first.y : 0d;
+		final VerticesXY cached = tessellation.lookup( level, fx, fy );
+		if( cached != null ) {
+			return cached;
 		}
-		return shape;
+		
+		// capture the count of vertices
+		final int numpoints = controlPoints.size();
+		
+		// get the vertex points as an array
+		final PointXY[] anchorPts = controlPoints.toArray( new PointXY[ numpoints ] );
+		
+		// compute the control points
+		final double[] cpx = new double[ numpoints ];
+		final double[] cpy = new double[ numpoints ];
+		interpolateControlPoints( anchorPts, cpx, cpy );
+		
+		// compute the spline's vertices
+		return tessellation.store( generateSplineVertices( anchorPts, cpx, cpy, scale ), level, fx, fy );
 	}
 	
 	/* 
@@ -332,15 +349,14 @@ public class SplineXY extends CurveXY implements VertexContainer {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 
 	/**
@@ -348,8 +364,8 @@ public class SplineXY extends CurveXY implements VertexContainer {
 	 * to be re-computed.
 	 */
 	public void resetCache() {
-		limits	= null;
-		shape	= null;
+		limits = null;
+		tessellation.clear();
 	}
 
 	/* 
@@ -391,59 +407,57 @@ public class SplineXY extends CurveXY implements VertexContainer {
 	}
 
 	/** 
-	 * Generates the spline's vertices
+	 * Generates the spline's vertices; each of the spline's Bezier segments is
+	 * divided into just enough steps to keep the chord error within tolerance 
+	 * (Wang's formula) at the given scale.
 	 * @param anchorPts the given spline anchor points
 	 * @param cpx the given array of X-axis control points
 	 * @param cpy the given array of Y-axis control points
+	 * @param scale the given scale (in pixels per model unit)
 	 * @return the generated {@link VerticesXY vertices}
 	 */
 	private VerticesXY generateSplineVertices( final PointXY[] anchorPts,
 											   final double[] cpx,
-											   final double[] cpy ) {
+											   final double[] cpy,
+											   final double scale ) {
 		// create the spline vertices
-		final Collection<PointXY> curve = new LinkedList<PointXY>();
-		
-		// draw n Bezier curves using Bernstein Polynomials
-		final double k = 0.05;
-		double x,y;
+		final VerticesXY curve = new VerticesXY( anchorPts.length * 8 + 2 );
+		if( anchorPts.length == 0 ) {
+			return curve;
+		}
 		
 		// attach the first point
-		curve.add( anchorPts[0] );
+		curve.add( anchorPts[0].x, anchorPts[0].y );
 		
-		// compute all others
+		// draw n Bezier curves using Bernstein Polynomials
 		for( int i = 1; i < anchorPts.length; i++ ) {
-			for( double t = i - 1; t <= i; t += k ) {
-				// compute the X-coordinate 
-				x =  ( anchorPts[i - 1].x + (t - (i - 1) )
-						* (-3 * anchorPts[i - 1].x + 3 * (.6667 * cpx[i - 1] + .3333 * cpx[i] ) + 
-							( t - ( i - 1 ) ) * (3 * anchorPts[i - 1].x - 
-										6 * ( .6667 * cpx[i - 1] + .3333 * cpx[i] ) + 
-										3 * ( .3333 * cpx[i - 1] + .6667 * cpx[i]) + 
-										( -anchorPts[i - 1].x + 
-										  3 * (.6667 * cpx[i - 1] + .3333 * cpx[i] ) - 
-										  3 * (.3333 * cpx[i - 1] + .6667 * cpx[i] ) + anchorPts[i].x )
-										* (t - (i - 1) ) ) ) );
-				
-				// compute the Y-coordinate
-				y =  (anchorPts[i - 1].y + (t - (i - 1)) * (-3 * anchorPts[i - 1].y + 3
-								* (.6667 * cpy[i - 1] + .3333 * cpy[i]) + (t - (i - 1))
-								* (3 * anchorPts[i - 1].y
-										- 6
-										* (.6667 * cpy[i - 1] + .3333 * cpy[i])
-										+ 3
-										* (.3333 * cpy[i - 1] + .6667 * cpy[i]) + (-anchorPts[i - 1].y
-										+ 3
-										* (.6667 * cpy[i - 1] + .3333 * cpy[i])
-										- 3
-										* (.3333 * cpy[i - 1] + .6667 * cpy[i]) + anchorPts[i].y)
-										* (t - (i - 1)))));
-				
-				// add the point
-				curve.add( new PointXY( x, y ) );
+			// compute the Bezier points of the segment
+			final double x0 = anchorPts[i - 1].x;
+			final double y0 = anchorPts[i - 1].y;
+			final double x1 = .6667 * cpx[i - 1] + .3333 * cpx[i];
+			final double y1 = .6667 * cpy[i - 1] + .3333 * cpy[i];
+			final double x2 = .3333 * cpx[i - 1] + .6667 * cpx[i];
+			final double y2 = .3333 * cpy[i - 1] + .6667 * cpy[i];
+			final double x3 = anchorPts[i].x;
+			final double y3 = anchorPts[i].y;
+			
+			// determine the number of steps (Wang's formula)
+			final double dd = max( hypot( x0 - 2 * x1 + x2, y0 - 2 * y1 + y2 ), hypot( x1 - 2 * x2 + x3, y1 - 2 * y2 + y3 ) ) * scale;
+			final int steps = min( max( (int)ceil( sqrt( 0.75d * dd / TessellationCache.CHORD_TOLERANCE ) ), 1 ), TessellationCache.MAX_SEGMENTS );
+			
+			// compute the points of the segment
+			for( int n = 1; n <= steps; n++ ) {
+				final double t	= (double)n / (double)steps;
+				final double u	= 1d - t;
+				final double b0	= u * u * u;
+				final double b1	= 3d * u * u * t;
+				final double b2	= 3d * u * t * t;
+				final double b3	= t * t * t;
+				curve.add( b0 * x0 + b1 * x1 + b2 * x2 + b3 * x3, b0 * y0 + b1 * y1 + b2 * y2 + b3 * y3 );
 			}
 		}
 		
-		return EntityRepresentationUtil.toLimits( curve );
+		return curve;
 	}
 
 	/** 
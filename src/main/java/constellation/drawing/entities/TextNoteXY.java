@@ -10,7 +10,7 @@ import constellation.CxFontManager;
 import constellation.drawing.EntityCategoryTypes;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityTypes;
-import constellation.drawing.ScratchPad;
+import constellation.drawing.RenderContext;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
 
@@ -50,8 +50,8 @@ public class TextNoteXY implements EntityRepresentation {
 	 * @see constellation.drawing.entities.InternalRepresentation#getBounds(constellation.math.MatrixWCStoSCS)
 	 */
 	public RectangleXY getBounds( final MatrixWCStoSCS matrix ) {
-		// get a screen point
-		final Point screenPt = ScratchPad.getProjectionPoint();
+		// create a screen point
+		final Point screenPt = new Point();
 		
 		// transform the spatial point to screen coordinates
 		matrix.transform( location, screenPt );
@@ -131,16 +131,19 @@ public class TextNoteXY implements EntityRepresentation {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color)
 	 */
 	public void render( final ApplicationController controller,
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix,
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g, 
 						final Color color ) {
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
 		// get a screen point
-		final Point screenPt = ScratchPad.getProjectionPoint();
+		final Point screenPt = context.getProjectionPoint();
 		
 		// transform the spatial point to screen coordinates
 		matrix.transform( location, screenPt );
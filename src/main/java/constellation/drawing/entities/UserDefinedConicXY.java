@@ -1,21 +1,53 @@
 package constellation.drawing.entities;
 
+import static java.lang.Math.PI;
+import static java.lang.Math.abs;
+import static java.lang.Math.acos;
+import static java.lang.Math.atan2;
+import static java.lang.Math.getExponent;
+import static java.lang.Math.hypot;
+import static java.lang.Math.max;
+
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 
 import constellation.ApplicationController;
 import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
+import constellation.drawing.RenderContext;
+import constellation.drawing.TessellationCache;
+import constellation.math.CxParametricUtil;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
+import constellation.tools.sdk.math.geometric.expressions.CompiledExpression;
+import constellation.tools.sdk.math.geometric.expressions.DefaultScope;
+import constellation.tools.sdk.math.geometric.expressions.Expression;
+import constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler;
+import constellation.tools.sdk.math.geometric.expressions.ExpressionParser;
 
 /**
- * Represents a User Defined Conic
+ * Represents a User Defined Conic; i.e. the arc of the conic 
+ * <i>Ax<sup>2</sup> + Bxy + Cy<sup>2</sup> + Dx + Ey + F = 0</i>
+ * from point #1 to point #2 (counter-clockwise for an ellipse).
+ * <div>
+ * The arc is tessellated by way of its rational parametrization through
+ * point #1: the line through point #1 at angle <i>t</i> meets the conic 
+ * once more, at a distance of <i>-L(t)/Q(t)</i>, where <i>Q</i> is the 
+ * quadratic part of the conic and <i>L</i> its gradient at point #1.
+ * </div>
  * @author lawrence.daniels@gmail.com
  */
 public class UserDefinedConicXY extends CurveXY {
+	private static final String PARAMETER = "t";
+	private static final Expression X_EQUATION = parse( "px - ( gx * cos(t) + gy * sin(t) ) / ( qa * cos(t)^2 + qb * cos(t) * sin(t) + qc * sin(t)^2 ) * cos(t)" );
+	private static final Expression Y_EQUATION = parse( "py - ( gx * cos(t) + gy * sin(t) ) / ( qa * cos(t)^2 + qb * cos(t) * sin(t) + qc * sin(t)^2 ) * sin(t)" );
+	private final TessellationCache tessellation = new TessellationCache();
+	private CompiledExpression fx;
+	private CompiledExpression fy;
+	private double phiStart;
+	private double phiEnd;
+	
 	// arc-related fields
 	private final Double angleStart; 
 	private final Double angleEnd;
@@ -71,8 +103,19 @@ public class UserDefinedConicXY extends CurveXY {
 	 * (non-Javadoc)
 	 * @see constellation.drawing.entities.representations.CurveXY#getBounds()
 	 */
-	public RectangleXY getBounds(MatrixWCStoSCS matrix) {
-		return null;
+	public RectangleXY getBounds( final MatrixWCStoSCS matrix ) {
+		// determine the extents of the tessellated curve
+		final VerticesXY p = getVertices( matrix );
+		double minX = p.x[0], maxX = p.x[0];
+		double minY = p.y[0], maxY = p.y[0];
+		final int count = p.length();
+		for( int n = 1; n < count; n++ ) {
+			if( minX > p.x[n] ) { minX = p.x[n]; }
+			if( minY > p.y[n] ) { minY = p.y[n]; }
+			if( maxX < p.x[n] ) { maxX = p.x[n]; }
+			if( maxY < p.y[n] ) { maxY = p.y[n]; }
+		}
+		return new RectangleXY( minX, minY, maxX - minX, maxY - minY );
 	}
 
 
@@ -166,10 +209,25 @@ public class UserDefinedConicXY extends CurveXY {
 	 * (non-Javadoc)
 	 * @see constellation.drawing.entities.representations.ComplexGeometricRepresentation#getVertices(constellation.math.MatrixWCStoSCS)
 	 */
-	public VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
-		final VerticesXY vertices = new VerticesXY();
-		// TODO Auto-generated method stub
-		return vertices;
+	public synchronized VerticesXY getVertices( final MatrixWCStoSCS matrix ) {
+		// determine the level of detail required at the current zoom
+		final double scale	= TessellationCache.getQuantizedScale( matrix );
+		final int level		= getExponent( scale );
+		
+		// are the cached vertices still valid?
+		final VerticesXY cached = tessellation.lookup( level, p1.x, p1.y );
+		if( cached != null ) {
+			return cached;
+		}
+		
+		// a degenerate conic is drawn as the chord from point #1 to point #2
+		if( ( fx == null ) && !parametrize() ) {
+			return tessellation.store( new VerticesXY( p1.x, p1.y, p2.x, p2.y ), level, p1.x, p1.y );
+		}
+		
+		// tessellate the arc
+		final VerticesXY p = CxParametricUtil.tessellate( fx, fy, phiStart, phiEnd, TessellationCache.CHORD_TOLERANCE / scale );
+		return tessellation.store( ( p.length() > 0 ) ? p : new VerticesXY( p1.x, p1.y, p2.x, p2.y ), level, p1.x, p1.y );
 	}
 
 	/* 
@@ -185,8 +243,15 @@ public class UserDefinedConicXY extends CurveXY {
 	 * @see constellation.drawing.entities.representations.GeometricRepresentation#length()
 	 */
 	public double length() {
-		// TODO Auto-generated method stub
-		return 0;
+		// sum the lengths of the segments of the tessellated curve
+		final VerticesXY p = getVertices( null );
+		double length = 0;
+		final int count = p.length() - 1;
+		for( int n = 0; n < count; n++ ) {
+			final int m = n+1;
+			length += PointXY.getDistance( p.x[n], p.y[n], p.x[m], p.y[m] );
+		}
+		return length;
 	}
 	
 	/* 
@@ -199,15 +264,14 @@ public class UserDefinedConicXY extends CurveXY {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color) {
-		EntityRepresentationUtil.render( controller, model, matrix, clipper, g, this, color );
+		EntityRepresentationUtil.render( controller, model, context, g, this, color );
 	}
 
 	/* 
@@ -217,5 +281,73 @@ public class UserDefinedConicXY extends CurveXY {
 	public String toEquation() {
 		return "A * XT^2 + B * XT * YT + C * YT^2 + D * XT + E * YT + F = 0";
 	}
+	
+	/**
+	 * Compiles the parametrization of the arc through point #1, and determines 
+	 * the range of the angle <i>t</i> which sweeps the arc from point #1 to point #2.
+	 * @return true, if the conic is not degenerate at point #1
+	 */
+	private boolean parametrize() {
+		// determine the gradient at point #1
+		final double gx = 2 * a * p1.x + b * p1.y + d;
+		final double gy = b * p1.x + 2 * c * p1.y + e;
+		
+		// express the quadratic part as Q(t) = m + r * cos( 2t - psi )
+		final double m		= ( a + c ) / 2d;
+		final double r		= hypot( ( a - c ) / 2d, b / 2d );
+		final double psi	= atan2( b, a - c );
+		if( ( hypot( gx, gy ) == 0d ) || ( r == 0d && m == 0d ) ) {
+			return false;
+		}
+		
+		// the arc starts in the (counter-clockwise) tangent direction at point #1,
+		// and sweeps the angle towards point #2 (modulo PI)
+		final double sign	= ( a + c < 0d ) ? -1d : 1d;
+		final double phi0 	= atan2( gx * sign, -gy * sign );
+		final double sweep	= ( p1.x == p2.x && p1.y == p2.y ) ? PI : modulo( atan2( p2.y - p1.y, p2.x - p1.x ) - phi0, PI );
+		
+		// the arc must not sweep through an asymptotic direction (i.e. a zero of Q)
+		boolean forward = true;
+		if( abs( m ) <= r ) {
+			final double alpha = acos( -m / r );
+			forward = ( modulo( ( psi + alpha ) / 2d - phi0, PI ) >= sweep ) &&
+					  ( modulo( ( psi - alpha ) / 2d - phi0, PI ) >= sweep );
+		}
+		phiStart	= phi0;
+		phiEnd		= forward ? ( phi0 + max( sweep, Double.MIN_VALUE ) ) : ( phi0 + sweep - PI );
+		
+		// compile the parametrization, binding the coefficients by value
+		final DefaultScope scope = new DefaultScope();
+		scope.setVariable( "px", p1.x );
+		scope.setVariable( "py", p1.y );
+		scope.setVariable( "gx", gx );
+		scope.setVariable( "gy", gy );
+		scope.setVariable( "qa", a );
+		scope.setVariable( "qb", b );
+		scope.setVariable( "qc", c );
+		fx = ExpressionCompiler.compile( X_EQUATION, scope, PARAMETER );
+		fy = ExpressionCompiler.compile( Y_EQUATION, scope, PARAMETER );
+		return true;
+	}
+	
+	/**
+	 * Returns the given value modulo the given period
+	 * @param value the given value
+	 * @param period the given period
+	 * @return the value within [0, period)
+	 */
+	private static double modulo( final double value, final double period ) {
+		final double result = value % period;
+		return ( result < 0d ) ? result + period : result;
+	}
+	
+	/**
+	 * Parses the given equation
+	 * @param equation the given equation
+	 * @return the {@link Expression expression}
+	 */
+	private static Expression parse( final String equation ) {
+		return ExpressionParser.getInstance().parseExpression( equation );
+	}
 
 }
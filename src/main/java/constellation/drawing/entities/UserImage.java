@@ -1,5 +1,6 @@
 package constellation.drawing.entities;
 
+import constellation.drawing.ImagePyramid;
 import constellation.util.CxFileUtilities;
 
 import java.awt.image.BufferedImage;
@@ -16,6 +17,7 @@ import static constellation.util.CxFileUtilities.readFileContents;
 public class UserImage {
     private final byte[] content;
     private final BufferedImage image;
+    private final ImagePyramid pyramid;
     private String name;
 
     /**
@@ -30,6 +32,7 @@ public class UserImage {
         this.name = name;
         this.content = content;
         this.image = image;
+        this.pyramid = new ImagePyramid(image);
     }
 
     /**
@@ -138,6 +141,14 @@ public class UserImage {
         return image;
     }
 
+    /**
+     * Returns the mip-mapped pyramid of the image
+     * @return the {@link ImagePyramid image pyramid}
+     */
+    public ImagePyramid getPyramid() {
+        return pyramid;
+    }
+
     /*
      * (non-Javadoc)
      * @see java.lang.Object#toString()
@@ -7,7 +7,7 @@ import java.awt.Rectangle;
 
 import constellation.ApplicationController;
 import constellation.drawing.RenderableElement;
-import constellation.drawing.ScratchPad;
+import constellation.drawing.RenderContext;
 import constellation.math.MatrixWCStoSCS;
 import constellation.model.GeometricModel;
 
@@ -205,19 +205,22 @@ public class VerticesXY implements RenderableElement, Cloneable {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.math.MatrixWCStoSCS, java.awt.Rectangle, java.awt.Graphics2D, java.awt.Color, boolean)
+	 * @see constellation.drawing.RenderableElement#render(constellation.ApplicationController, constellation.model.GeometricModel, constellation.drawing.RenderContext, java.awt.Graphics2D, java.awt.Color, boolean)
 	 */
 	public void render( final ApplicationController controller, 
 						final GeometricModel model,
-						final MatrixWCStoSCS matrix, 
-						final Rectangle clipper, 
+						final RenderContext context,
 						final Graphics2D g,
 						final Color color ) {
+		// get the matrix and clipping boundary of the view
+		final MatrixWCStoSCS matrix = context.getMatrix();
+		final Rectangle clipper = context.getClipper();
+		
 		// this instance is the limits
 		final VerticesXY limits = this;
 		
 		// get the projecting points
-		final Point[] projectedPoints = ScratchPad.getProjectionPoints( limits );
+		final Point[] projectedPoints = context.getProjectionPoints( limits );
 
 		// project the points
 		matrix.transform( limits, projectedPoints );
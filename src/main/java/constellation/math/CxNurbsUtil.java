@@ -0,0 +1,468 @@
+package constellation.math;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.hypot;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import constellation.drawing.entities.VerticesXY;
+
+/**
+ * Constellation NURBS Utilities. The control points of a curve are given
+ * in homogeneous form; i.e. as an array of (x*w, y*w, w) triples, so that
+ * rational and non-rational curves are evaluated by the same algorithms.
+ * @see "Piegl &amp; Tiller, The NURBS Book (2nd ed.), algorithms A2.1, A4.1 and A5.1"
+ * @author lawrence.daniels@gmail.com
+ */
+public class CxNurbsUtil {
+	// the number of values of each homogeneous control point
+	public static final int STRIDE = 3;
+
+	// the maximum depth of the adaptive subdivision of a Bezier segment
+	private static final int MAX_DEPTH = 12;
+
+	/**
+	 * Private constructor
+	 */
+	private CxNurbsUtil() {
+		super();
+	}
+
+	/**
+	 * Creates a clamped, uniform knot vector for the given degree and number
+	 * of control points; the parameter domain is [0,1].
+	 * @param degree the given degree of the curve
+	 * @param count the given number of control points
+	 * @return the knot vector
+	 */
+	public static double[] createKnots( final int degree, final int count ) {
+		final double[] knots = new double[ count + degree + 1 ];
+		final int spans = count - degree;
+		for( int n = 0; n < knots.length; n++ ) {
+			if( n <= degree ) {
+				knots[n] = 0d;
+			}
+			else if( n >= count ) {
+				knots[n] = 1d;
+			}
+			else {
+				knots[n] = (double)( n - degree ) / (double)spans;
+			}
+		}
+		return knots;
+	}
+
+	/**
+	 * Validates the given definition of a curve
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector
+	 * @param count the given number of control points
+	 * @throws IllegalArgumentException if the definition is invalid
+	 */
+	public static void validate( final int degree, final double[] knots, final int count ) {
+		if( degree < 1 ) {
+			throw new IllegalArgumentException( format( "Invalid degree (%d)", degree ) );
+		}
+		if( count < degree + 1 ) {
+			throw new IllegalArgumentException( format( "A curve of degree %d requires at least %d control points", degree, degree + 1 ) );
+		}
+		if( knots.length != count + degree + 1 ) {
+			throw new IllegalArgumentException( format( "Expected %d knots, found %d", count + degree + 1, knots.length ) );
+		}
+		for( int n = 1; n < knots.length; n++ ) {
+			if( knots[n] < knots[n-1] ) {
+				throw new IllegalArgumentException( format( "Knots must be non-decreasing (index %d)", n ) );
+			}
+		}
+		if( knots[ count ] <= knots[ degree ] ) {
+			throw new IllegalArgumentException( "The parameter domain of the curve is empty" );
+		}
+	}
+
+	/**
+	 * Returns the index of the knot span containing the given parameter (A2.1)
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector
+	 * @param count the given number of control points
+	 * @param u the given parameter
+	 * @return the index of the knot span
+	 */
+	public static int findSpan( final int degree, final double[] knots, final int count, final double u ) {
+		// the end of the domain belongs to the last non-empty span
+		final int n = count - 1;
+		if( u >= knots[ n + 1 ] ) {
+			int span = n;
+			while( ( span > degree ) && ( knots[ span ] == knots[ span + 1 ] ) ) {
+				span--;
+			}
+			return span;
+		}
+		if( u <= knots[ degree ] ) {
+			return degree;
+		}
+
+		// perform a binary search
+		int low 	= degree;
+		int high 	= n + 1;
+		int mid 	= ( low + high ) >>> 1;
+		while( ( u < knots[ mid ] ) || ( u >= knots[ mid + 1 ] ) ) {
+			if( u < knots[ mid ] ) {
+				high = mid;
+			}
+			else {
+				low = mid;
+			}
+			mid = ( low + high ) >>> 1;
+		}
+		return mid;
+	}
+
+	/**
+	 * Evaluates the curve at the given parameter using de Boor's algorithm
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector
+	 * @param pw the given homogeneous control points
+	 * @param u the given parameter
+	 * @param point the array which receives the (x,y) coordinates of the point
+	 */
+	public static void evaluate( final int degree, final double[] knots, final double[] pw, final double u, final double[] point ) {
+		final int count = pw.length / STRIDE;
+		final int span	= findSpan( degree, knots, count, u );
+
+		// copy the control points which influence the span
+		final double[] d = new double[ ( degree + 1 ) * STRIDE ];
+		System.arraycopy( pw, ( span - degree ) * STRIDE, d, 0, d.length );
+
+		// perform the triangular scheme of affine combinations
+		for( int r = 1; r <= degree; r++ ) {
+			for( int j = degree; j >= r; j-- ) {
+				final int i 		= span - degree + j;
+				final double denom	= knots[ i + degree - r + 1 ] - knots[i];
+				final double alpha	= ( denom != 0d ) ? ( u - knots[i] ) / denom : 0d;
+				final int a = j * STRIDE;
+				final int b = a - STRIDE;
+				d[a]   = ( 1d - alpha ) * d[b]   + alpha * d[a];
+				d[a+1] = ( 1d - alpha ) * d[b+1] + alpha * d[a+1];
+				d[a+2] = ( 1d - alpha ) * d[b+2] + alpha * d[a+2];
+			}
+		}
+
+		// project the result
+		final int p = degree * STRIDE;
+		point[0] = d[p] / d[p+2];
+		point[1] = d[p+1] / d[p+2];
+	}
+
+	/**
+	 * Inserts the given knot into the curve, without changing its shape (Boehm's algorithm)
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector
+	 * @param pw the given homogeneous control points
+	 * @param u the given knot
+	 * @return an array containing the new knot vector and the new homogeneous control points
+	 */
+	public static double[][] insertKnot( final int degree, final double[] knots, final double[] pw, final double u ) {
+		final int count = pw.length / STRIDE;
+		final int span	= findSpan( degree, knots, count, u );
+
+		// build the new knot vector
+		final double[] nk = new double[ knots.length + 1 ];
+		System.arraycopy( knots, 0, nk, 0, span + 1 );
+		nk[ span + 1 ] = u;
+		System.arraycopy( knots, span + 1, nk, span + 2, knots.length - span - 1 );
+
+		// build the new control points
+		final double[] npw = new double[ pw.length + STRIDE ];
+		System.arraycopy( pw, 0, npw, 0, ( span - degree + 1 ) * STRIDE );
+		System.arraycopy( pw, span * STRIDE, npw, ( span + 1 ) * STRIDE, pw.length - span * STRIDE );
+		for( int i = span - degree + 1; i <= span; i++ ) {
+			final double denom	= knots[ i + degree ] - knots[i];
+			final double alpha	= ( denom != 0d ) ? ( u - knots[i] ) / denom : 0d;
+			for( int k = 0; k < STRIDE; k++ ) {
+				npw[ i * STRIDE + k ] = alpha * pw[ i * STRIDE + k ] + ( 1d - alpha ) * pw[ ( i - 1 ) * STRIDE + k ];
+			}
+		}
+		return new double[][] { nk, npw };
+	}
+
+	/**
+	 * Extracts the portion of the curve between the given parameters, by raising
+	 * the multiplicity of each of them to the degree of the curve.
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector
+	 * @param pw the given homogeneous control points
+	 * @param u0 the given start parameter
+	 * @param u1 the given end parameter
+	 * @return an array containing the new (clamped) knot vector and the new homogeneous control points
+	 */
+	public static double[][] extract( final int degree, final double[] knots, final double[] pw, final double u0, final double u1 ) {
+		double[] k = knots;
+		double[] p = pw;
+
+		// raise the multiplicity of each end of the extracted portion
+		for( int m = multiplicity( k, u0 ); m < degree; m++ ) {
+			final double[][] refined = insertKnot( degree, k, p, u0 );
+			k = refined[0];
+			p = refined[1];
+		}
+		for( int m = multiplicity( k, u1 ); m < degree; m++ ) {
+			final double[][] refined = insertKnot( degree, k, p, u1 );
+			k = refined[0];
+			p = refined[1];
+		}
+
+		// the curve passes through the control points at the ends of the portion
+		final int last0	 = lastIndexOf( k, u0 );
+		final int first1 = firstIndexOf( k, u1 );
+		final int first	 = last0 - degree;
+		final int count	 = first1 - first;
+
+		// build the clamped knot vector
+		final double[] nk = new double[ count + degree + 1 ];
+		for( int n = 0; n <= degree; n++ ) {
+			nk[n] = u0;
+			nk[ nk.length - 1 - n ] = u1;
+		}
+		System.arraycopy( k, last0 + 1, nk, degree + 1, first1 - last0 - 1 );
+
+		// copy the control points
+		final double[] npw = new double[ count * STRIDE ];
+		System.arraycopy( p, first * STRIDE, npw, 0, npw.length );
+		return new double[][] { nk, npw };
+	}
+
+	/**
+	 * Decomposes the curve into its (rational) Bezier segments, by raising the
+	 * multiplicity of each of its interior knots to the degree of the curve.
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector
+	 * @param pw the given homogeneous control points
+	 * @return the {@link List list} of homogeneous Bezier control points; one array per segment
+	 */
+	public static List<double[]> decompose( final int degree, final double[] knots, final double[] pw ) {
+		double[] k = knots;
+		double[] p = pw;
+
+		// clamp the ends of the curve (e.g. for unclamped knot vectors)
+		final int count = pw.length / STRIDE;
+		final double start	= knots[ degree ];
+		final double end	= knots[ count ];
+		for( int m = multiplicity( k, start ); m < degree; m++ ) {
+			final double[][] refined = insertKnot( degree, k, p, start );
+			k = refined[0];
+			p = refined[1];
+		}
+		for( int m = multiplicity( k, end ); m < degree; m++ ) {
+			final double[][] refined = insertKnot( degree, k, p, end );
+			k = refined[0];
+			p = refined[1];
+		}
+
+		// raise the multiplicity of each interior knot to the degree
+		for( double u = nextKnot( k, start ); u < end; u = nextKnot( k, u ) ) {
+			for( int m = multiplicity( k, u ); m < degree; m++ ) {
+				final double[][] refined = insertKnot( degree, k, p, u );
+				k = refined[0];
+				p = refined[1];
+			}
+		}
+
+		// extract the segments; consecutive segments share their end points
+		final int first = lastIndexOf( k, start ) - degree;
+		final int size	= ( degree + 1 ) * STRIDE;
+		final List<double[]> segments = new ArrayList<double[]>();
+		for( double u = start; u < end; u = nextKnot( k, u ) ) {
+			final double[] segment = new double[ size ];
+			System.arraycopy( p, ( first + segments.size() * degree ) * STRIDE, segment, 0, size );
+			segments.add( segment );
+		}
+		return segments;
+	}
+
+	/**
+	 * Tessellates the curve into the given vertices; each of the curve's Bezier
+	 * segments is subdivided until its control polygon lies within the given
+	 * tolerance of its chord. Since the curve lies within the convex hull of
+	 * its control points, the chord error does not exceed the tolerance.
+	 * @param degree the given degree of the curve
+	 * @param knots the given knot vector
+	 * @param pw the given homogeneous control points
+	 * @param tolerance the given tolerance (in model units)
+	 * @param vertices the {@link VerticesXY vertices} which receive the points of the curve
+	 */
+	public static void tessellate( final int degree,
+								   final double[] knots,
+								   final double[] pw,
+								   final double tolerance,
+								   final VerticesXY vertices ) {
+		boolean first = true;
+		for( final double[] segment : decompose( degree, knots, pw ) ) {
+			// attach the first point of the curve
+			if( first ) {
+				vertices.add( segment[0] / segment[2], segment[1] / segment[2] );
+				first = false;
+			}
+			subdivide( degree, segment, tolerance, 0, vertices );
+		}
+	}
+
+	/**
+	 * Recursively subdivides the given Bezier segment, until it is flat
+	 * within the given tolerance; the end point of each flat segment is
+	 * appended to the given vertices.
+	 * @param degree the given degree of the segment
+	 * @param segment the given homogeneous Bezier control points
+	 * @param tolerance the given tolerance (in model units)
+	 * @param depth the current depth of recursion
+	 * @param vertices the {@link VerticesXY vertices} which receive the points of the curve
+	 */
+	private static void subdivide( final int degree,
+								   final double[] segment,
+								   final double tolerance,
+								   final int depth,
+								   final VerticesXY vertices ) {
+		// is the segment flat enough?
+		if( ( depth >= MAX_DEPTH ) || isFlat( degree, segment, tolerance ) ) {
+			final int p = degree * STRIDE;
+			vertices.add( segment[p] / segment[p+2], segment[p+1] / segment[p+2] );
+			return;
+		}
+
+		// split the segment in half (de Casteljau)
+		final int size = segment.length;
+		final double[] left		= new double[ size ];
+		final double[] right	= new double[ size ];
+		final double[] work		= segment.clone();
+		for( int k = 0; k < STRIDE; k++ ) {
+			left[k] = work[k];
+			right[ degree * STRIDE + k ] = work[ degree * STRIDE + k ];
+		}
+		for( int r = 1; r <= degree; r++ ) {
+			for( int j = 0; j <= degree - r; j++ ) {
+				for( int k = 0; k < STRIDE; k++ ) {
+					work[ j * STRIDE + k ] = 0.5d * ( work[ j * STRIDE + k ] + work[ ( j + 1 ) * STRIDE + k ] );
+				}
+			}
+			for( int k = 0; k < STRIDE; k++ ) {
+				left[ r * STRIDE + k ] = work[k];
+				right[ ( degree - r ) * STRIDE + k ] = work[ ( degree - r ) * STRIDE + k ];
+			}
+		}
+
+		// subdivide each half
+		subdivide( degree, left, tolerance, depth + 1, vertices );
+		subdivide( degree, right, tolerance, depth + 1, vertices );
+	}
+
+	/**
+	 * Indicates whether the interior control points of the given Bezier segment
+	 * lie within the given tolerance of the segment's chord
+	 * @param degree the given degree of the segment
+	 * @param segment the given homogeneous Bezier control points
+	 * @param tolerance the given tolerance (in model units)
+	 * @return true, if the segment is flat
+	 */
+	private static boolean isFlat( final int degree, final double[] segment, final double tolerance ) {
+		// get the end points of the chord
+		final int p = degree * STRIDE;
+		final double x0 = segment[0] / segment[2];
+		final double y0 = segment[1] / segment[2];
+		final double x1 = segment[p] / segment[p+2];
+		final double y1 = segment[p+1] / segment[p+2];
+		final double dx = x1 - x0;
+		final double dy = y1 - y0;
+		final double length = hypot( dx, dy );
+
+		// measure the distance of each interior point from the chord
+		for( int j = 1; j < degree; j++ ) {
+			final double x = segment[ j * STRIDE ] / segment[ j * STRIDE + 2 ];
+			final double y = segment[ j * STRIDE + 1 ] / segment[ j * STRIDE + 2 ];
+			final double distance = ( length > 0d )
+					? max( abs( ( x - x0 ) * dy - ( y - y0 ) * dx ) / length, projectionOverrun( x - x0, y - y0, dx, dy, length ) )
+					: hypot( x - x0, y - y0 );
+			if( distance > tolerance ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the distance by which the given point's projection falls outside of the chord
+	 * @param px the x-offset of the point from the start of the chord
+	 * @param py the y-offset of the point from the start of the chord
+	 * @param dx the x-extent of the chord
+	 * @param dy the y-extent of the chord
+	 * @param length the length of the chord
+	 * @return the distance, or <tt>0</tt> if the projection falls within the chord
+	 */
+	private static double projectionOverrun( final double px, final double py, final double dx, final double dy, final double length ) {
+		final double t = ( px * dx + py * dy ) / length;
+		return ( t < 0d ) ? -t : ( t > length ) ? t - length : 0d;
+	}
+
+	/**
+	 * Returns the multiplicity of the given knot
+	 * @param knots the given knot vector
+	 * @param u the given knot
+	 * @return the multiplicity of the knot
+	 */
+	private static int multiplicity( final double[] knots, final double u ) {
+		int count = 0;
+		for( final double knot : knots ) {
+			if( knot == u ) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the first knot which is greater than the given value
+	 * @param knots the given knot vector
+	 * @param u the given value
+	 * @return the next knot, or the given value if there is none
+	 */
+	private static double nextKnot( final double[] knots, final double u ) {
+		for( final double knot : knots ) {
+			if( knot > u ) {
+				return knot;
+			}
+		}
+		return u;
+	}
+
+	/**
+	 * Returns the index of the first occurrence of the given knot
+	 * @param knots the given knot vector
+	 * @param u the given knot
+	 * @return the index of the knot, or <tt>-1</tt> if not found
+	 */
+	private static int firstIndexOf( final double[] knots, final double u ) {
+		for( int n = 0; n < knots.length; n++ ) {
+			if( knots[n] == u ) {
+				return n;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the index of the last occurrence of the given knot
+	 * @param knots the given knot vector
+	 * @param u the given knot
+	 * @return the index of the knot, or <tt>-1</tt> if not found
+	 */
+	private static int lastIndexOf( final double[] knots, final double u ) {
+		for( int n = knots.length - 1; n >= 0; n-- ) {
+			if( knots[n] == u ) {
+				return n;
+			}
+		}
+		return -1;
+	}
+
+}
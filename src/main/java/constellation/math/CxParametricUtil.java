@@ -0,0 +1,148 @@
+package constellation.math;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.hypot;
+import static java.lang.Math.max;
+
+import constellation.drawing.entities.VerticesXY;
+import constellation.tools.sdk.math.geometric.expressions.CompiledExpression;
+
+/**
+ * Constellation Parametric Curve Utilities. A curve is given as a pair of
+ * {@link CompiledExpression compiled expressions} <i>x(t)</i> and <i>y(t)</i>
+ * of a single parameter, which are evaluated over whole arrays of parameter
+ * values at a time.
+ * @author lawrence.daniels@gmail.com
+ */
+public class CxParametricUtil {
+	// the initial and maximum number of segments of a tessellation
+	public static final int MIN_SEGMENTS = 64;
+	public static final int MAX_SEGMENTS = 1 << 16;
+
+	/**
+	 * Private constructor
+	 */
+	private CxParametricUtil() {
+		super();
+	}
+
+	/**
+	 * Evaluates the curve at each of the given parameter values
+	 * @param fx the given {@link CompiledExpression expression} of <i>x(t)</i>
+	 * @param fy the given {@link CompiledExpression expression} of <i>y(t)</i>
+	 * @param t the given parameter values
+	 * @param count the given number of parameter values
+	 * @return the {@link VerticesXY vertices} of the curve (one per parameter value)
+	 */
+	public static VerticesXY evaluate( final CompiledExpression fx,
+									   final CompiledExpression fy,
+									   final double[] t,
+									   final int count ) {
+		final double[] x = new double[ count ];
+		final double[] y = new double[ count ];
+		fx.evaluate( t, x, count );
+		fy.evaluate( t, y, count );
+		return new VerticesXY( x, y );
+	}
+
+	/**
+	 * Tessellates the curve over the given range of the parameter. The curve is
+	 * sampled uniformly, and the number of samples is doubled until the midpoint
+	 * of each chord lies within the given tolerance of the chord. Samples at
+	 * which the curve is undefined (e.g. 'sqrt(t)' where t &lt; 0) are omitted.
+	 * @param fx the given {@link CompiledExpression expression} of <i>x(t)</i>
+	 * @param fy the given {@link CompiledExpression expression} of <i>y(t)</i>
+	 * @param start the given start of the range of the parameter
+	 * @param end the given end of the range of the parameter
+	 * @param tolerance the given tolerance (in model units)
+	 * @return the {@link VerticesXY vertices} of the curve
+	 */
+	public static VerticesXY tessellate( final CompiledExpression fx,
+										 final CompiledExpression fy,
+										 final double start,
+										 final double end,
+										 final double tolerance ) {
+		// sample the curve uniformly
+		int segments = MIN_SEGMENTS;
+		final double[] t = new double[ segments + 1 ];
+		for( int n = 0; n <= segments; n++ ) {
+			t[n] = start + ( end - start ) * n / segments;
+		}
+		VerticesXY p = evaluate( fx, fy, t, t.length );
+
+		// refine the samples, until the chords are within tolerance
+		boolean refined = false;
+		while( !refined && ( segments < MAX_SEGMENTS ) ) {
+			// evaluate the midpoints of the chords
+			final double[] tm = new double[ segments ];
+			for( int n = 0; n < segments; n++ ) {
+				tm[n] = start + ( end - start ) * ( n + 0.5d ) / segments;
+			}
+			final VerticesXY m = evaluate( fx, fy, tm, segments );
+
+			// interleave the samples and midpoints, and measure the chord error
+			final double[] nx = new double[ 2 * segments + 1 ];
+			final double[] ny = new double[ 2 * segments + 1 ];
+			double error = 0d;
+			for( int n = 0; n < segments; n++ ) {
+				nx[2*n]   = p.x[n];		ny[2*n]   = p.y[n];
+				nx[2*n+1] = m.x[n];		ny[2*n+1] = m.y[n];
+				error = max( error, getChordError( p.x[n], p.y[n], m.x[n], m.y[n], p.x[n+1], p.y[n+1] ) );
+			}
+			nx[ 2 * segments ] = p.x[ segments ];
+			ny[ 2 * segments ] = p.y[ segments ];
+
+			// proceed to the next level
+			segments *= 2;
+			p = new VerticesXY( nx, ny );
+			refined = ( error <= tolerance );
+		}
+
+		// omit the samples at which the curve is undefined
+		return compact( p );
+	}
+
+	/**
+	 * Returns the distance of the given midpoint from the given chord;
+	 * undefined points yield no error.
+	 * @param x0 the given x-coordinate of the start of the chord
+	 * @param y0 the given y-coordinate of the start of the chord
+	 * @param mx the given x-coordinate of the midpoint
+	 * @param my the given y-coordinate of the midpoint
+	 * @param x1 the given x-coordinate of the end of the chord
+	 * @param y1 the given y-coordinate of the end of the chord
+	 * @return the chord error
+	 */
+	private static double getChordError( final double x0, final double y0,
+										 final double mx, final double my,
+										 final double x1, final double y1 ) {
+		final double dx = x1 - x0;
+		final double dy = y1 - y0;
+		final double chord = hypot( dx, dy );
+		final double error = ( chord > 0d )
+				? abs( ( mx - x0 ) * dy - ( my - y0 ) * dx ) / chord
+				: hypot( mx - x0, my - y0 );
+		return ( Double.isNaN( error ) || Double.isInfinite( error ) ) ? 0d : error;
+	}
+
+	/**
+	 * Removes the undefined (i.e. non-finite) points from the given vertices
+	 * @param p the given {@link VerticesXY vertices}
+	 * @return the {@link VerticesXY vertices}
+	 */
+	private static VerticesXY compact( final VerticesXY p ) {
+		int count = 0;
+		final int length = p.length();
+		for( int n = 0; n < length; n++ ) {
+			if( !Double.isInfinite( p.x[n] ) && !Double.isNaN( p.x[n] ) &&
+				!Double.isInfinite( p.y[n] ) && !Double.isNaN( p.y[n] ) ) {
+				p.x[ count ] = p.x[n];
+				p.y[ count ] = p.y[n];
+				count++;
+			}
+		}
+		p.setLength( count );
+		return p;
+	}
+
+}
@@ -272,6 +272,28 @@ public class Matrix2D implements Cloneable {
 		}
 	}
 	
+	/**
+	 * Transforms the given source points, and stores the result in the given
+	 * destination coordinate arrays
+	 * @param src the given source {@link VerticesXY points}
+	 * @param destX the given array of destination x-coordinates
+	 * @param destY the given array of destination y-coordinates
+	 */
+	public void transform( final VerticesXY src, final int[] destX, final int[] destY ) {
+		// cache the matrix coefficients
+		final double m00 = nm[0][0], m01 = nm[0][1], m02 = nm[0][2];
+		final double m10 = nm[1][0], m11 = nm[1][1], m12 = nm[1][2];
+		
+		// transform the points
+		final double[] x = src.x;
+		final double[] y = src.y;
+		final int length = src.length();
+		for( int n = 0; n < length; n++ ) {
+			destX[n] = (int)( x[n] * m00 + y[n] * m01 + m02 );
+			destY[n] = (int)( x[n] * m10 + y[n] * m11 + m12 );
+		}
+	}
+	
 	/**
 	 * Transforms the given source point, and stores the result in the given
 	 * destination point
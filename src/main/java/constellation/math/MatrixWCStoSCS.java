@@ -18,6 +18,7 @@ public class MatrixWCStoSCS {
 	private final Matrix2D xy2scs;
 	private final Matrix2D scs2xy;
 	private boolean dirty;
+	private long revision;
 	private double cx,cy;
 	private double scale;
 	private double unitScale;
@@ -34,7 +35,30 @@ public class MatrixWCStoSCS {
 		this.scale		= unitScale;
 		this.dirty		= true;
 	}
-	
+
+	/**
+	 * Creates a snapshot of the given matrix; the snapshot is not affected
+	 * by subsequent changes to the original.
+	 * @param matrix the given {@link MatrixWCStoSCS matrix}
+	 */
+	public MatrixWCStoSCS( final MatrixWCStoSCS matrix ) {
+		this.xy2scs		= new Matrix2D();
+		this.scs2xy		= new Matrix2D();
+		this.revision	= matrix.revision;
+		this.cx			= matrix.cx;
+		this.cy			= matrix.cy;
+		this.scale		= matrix.scale;
+		this.unitScale	= matrix.unitScale;
+		this.rx			= matrix.rx;
+		this.ry			= matrix.ry;
+		this.tx			= matrix.tx;
+		this.ty			= matrix.ty;
+		this.dirty		= true;
+
+		// compute the matrices up front, so that the snapshot may be shared by threads
+		updateMatrices();
+	}
+
 	/** 
 	 * Sets the center of the view port
 	 * @param cx the given center x-coordinate
@@ -48,6 +72,7 @@ public class MatrixWCStoSCS {
 		this.rx		= 0.0;
 		this.ry		= 0.0;
 		this.dirty 	= true;
+		this.revision++;
 	}
 	
 	/**
@@ -59,6 +84,7 @@ public class MatrixWCStoSCS {
 		this.tx 	+= dx;
 		this.ty 	+= dy;
 		this.dirty 	= true;
+		this.revision++;
 	}
 	
 	/**
@@ -70,6 +96,7 @@ public class MatrixWCStoSCS {
 		this.tx 	= x;
 		this.ty 	= y;
 		this.dirty 	= true;
+		this.revision++;
 	}
 	
 	/**
@@ -81,6 +108,7 @@ public class MatrixWCStoSCS {
 		this.rx 	+= angleDX;
 		this.ry 	+= angleDY;
 		this.dirty	= true;
+		this.revision++;
 	}
 	
 	/**
@@ -90,6 +118,7 @@ public class MatrixWCStoSCS {
 	public void rotateAboutXAxis( final double angle ) {
 		this.rx 	= angle;
 		this.dirty	= true;
+		this.revision++;
 	}
 	
 	/**
@@ -99,6 +128,16 @@ public class MatrixWCStoSCS {
 	public void rotateAboutYAxis( final double angle ) {
 		this.ry 	= angle;
 		this.dirty	= true;
+		this.revision++;
+	}
+	
+	/** 
+	 * Returns the revision number of the matrix, which is incremented 
+	 * each time the matrix is modified
+	 * @return the revision number
+	 */
+	public long getRevision() {
+		return revision;
 	}
 	
 	/** 
@@ -116,6 +155,7 @@ public class MatrixWCStoSCS {
 	public void setScale( final double scale ) {
 		this.scale	= scale;
 		this.dirty 	= true;
+		this.revision++;
 	}
 	
 	/** 
@@ -133,6 +173,7 @@ public class MatrixWCStoSCS {
 	public void setUnitScale( final double unitScale ) {
 		this.unitScale	= unitScale;
 		this.dirty 		= true;
+		this.revision++;
 	}
 
 	/**
@@ -145,6 +186,7 @@ public class MatrixWCStoSCS {
 		this.ry		= 0.0d;
 		this.scale	= 1.0;
 		this.dirty 	= true;
+		this.revision++;
 	}
 	
 	/**
@@ -161,6 +203,21 @@ public class MatrixWCStoSCS {
 		xy2scs.transform( src, dest );
 	}
 
+	/**
+	 * Transforms the given source points, and stores the result in the given
+	 * destination coordinate arrays
+	 * @param src the given source {@link VerticesXY points}
+	 * @param destX the given array of destination x-coordinates
+	 * @param destY the given array of destination y-coordinates
+	 */
+	public void transform( final VerticesXY src, final int[] destX, final int[] destY ) {
+		// update the matrix
+		updateMatrices();
+		
+		// perform the transformation
+		xy2scs.transform( src, destX, destY );
+	}
+
 	/**
 	 * Transforms the given source point, and stores the result in the given
 	 * destination point
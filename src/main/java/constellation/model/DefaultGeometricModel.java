@@ -9,6 +9,7 @@ import static java.lang.String.format;
 import java.awt.Color;
 import java.awt.Image;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -18,6 +19,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.log4j.Logger;
+
 import constellation.CxConfigurationUtil;
 import constellation.drawing.EntityNamingService;
 import constellation.drawing.EntityRepresentation;
@@ -26,6 +29,7 @@ import constellation.drawing.LinePatterns;
 import constellation.drawing.RenderableElement;
 import constellation.drawing.elements.CxModelElement;
 import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.RectangleXY;
 import constellation.drawing.entities.UserImage;
 import constellation.model.formats.cxm.CXMFormatReader;
 
@@ -36,6 +40,7 @@ import constellation.model.formats.cxm.CXMFormatReader;
 public class DefaultGeometricModel implements GeometricModel {
 	// constants
 	private static final Collection<ModelElement> NO_RESULT = new ArrayList<ModelElement>(0);
+	private static final Logger logger = Logger.getLogger( DefaultGeometricModel.class );
 	
 	// immutable fields
 	private final DrawingElementCollection collection;
@@ -49,6 +54,7 @@ public class DefaultGeometricModel implements GeometricModel {
 	private Collection<ModelElement> highlightedElements;
 	private RenderableElement temporaryElement;
 	private ModelElement pickedElement;
+	private SnapPoint snapPoint;
 	
 	// mutable fields
 	private DraftingStandards draftingStandard;
@@ -71,6 +77,17 @@ public class DefaultGeometricModel implements GeometricModel {
 	private long lastChangeTimeInformational;
 	private boolean keepPhantoms;
 	
+	// layer paging fields
+	private final boolean[] pendingLayers;
+	private final boolean[] pagedLayers;
+	private final boolean[] modifiedLayers;
+	private volatile int pendingCount;
+	private LayerSource layerSource;
+	private boolean evictHiddenLayers;
+	
+	// undo history fields
+	private ModelHistory history;
+	
 	/////////////////////////////////////////////////////////////////////
 	//		Constructor(s)
 	/////////////////////////////////////////////////////////////////////
@@ -89,6 +106,9 @@ public class DefaultGeometricModel implements GeometricModel {
 		this.userImages					= new LinkedHashSet<UserImage>();
 		this.filters					= new LinkedHashSet<Filter>();
 		this.keepPhantoms				= true;
+		this.pendingLayers				= new boolean[ Filter.TOTAL_LAYERS ];
+		this.pagedLayers				= new boolean[ Filter.TOTAL_LAYERS ];
+		this.modifiedLayers				= new boolean[ Filter.TOTAL_LAYERS ];
 		
 		// set default attributes
 		this.defaultColor				= Color.BLACK;
@@ -133,6 +153,26 @@ public class DefaultGeometricModel implements GeometricModel {
 		return new DefaultGeometricModel( modelFile, unit );
 	}
 	
+	/**
+	 * Replaces the contents of the given model with those of the given snapshot
+	 * (e.g. a decoded keyframe or session snapshot); the model's temporary and
+	 * selected elements are cleared, and the snapshot's user images are added
+	 * to those of the model.
+	 * @param model the given {@link GeometricModel model}
+	 * @param snapshot the given snapshot {@link GeometricModel model}
+	 */
+	public static void replaceContents( final GeometricModel model, final GeometricModel snapshot ) {
+		model.clearTemporaryElement();
+		model.clearSelectedElements();
+		model.erase( new ArrayList<ModelElement>( model.getPhysicalElements() ) );
+		for( final UserImage image : snapshot.getUserImages() ) {
+			if( model.lookupUserImage( image.getName() ) == null ) {
+				model.addUserImage( image );
+			}
+		}
+		model.addPhysicalElements( snapshot.getPhysicalElements() );
+	}
+	
 	/////////////////////////////////////////////////////////////////////
 	//		Object Methods
 	/////////////////////////////////////////////////////////////////////
@@ -263,6 +303,12 @@ public class DefaultGeometricModel implements GeometricModel {
 	 */
 	public void setFilter( final Filter filter ) {
 		this.filter = filter;
+		
+		// release the (unmodified) layers that are no longer visible
+		if( evictHiddenLayers && ( filter != null ) ) {
+			evictHiddenLayers( filter );
+		}
+		modelChanged( ModelChangeType.VISUAL );
 	}
 	
 	/** 
@@ -337,6 +383,7 @@ public class DefaultGeometricModel implements GeometricModel {
 	 */
 	public void setBackgroundImage( final Image image ) {
 		this.backgroundImage = image;
+		modelChanged( ModelChangeType.VISUAL );
 	}
 	
 	/** 
@@ -379,6 +426,7 @@ public class DefaultGeometricModel implements GeometricModel {
 	 */
 	public void setUnit( final Unit unit ) {
 		this.unit = unit;
+		modelChanged( ModelChangeType.VISUAL );
 	}
 	
 	/////////////////////////////////////////////////////////////////////
@@ -452,27 +500,103 @@ public class DefaultGeometricModel implements GeometricModel {
 	 * {@inheritDoc}
 	 */
 	public void addPhysicalElements( final Collection<? extends ModelElement> elements ) {
+		// labels must be unique (elements are hashed by label)
+		final Set<String> labels = new HashSet<String>( elements.size() * 2 );
+	 	for( final ModelElement element : elements ) {
+	 		if( element.isLabeled() && ( !labels.add( element.getLabel() ) || isLabelInUse( element.getLabel(), element ) ) ) {
+	 			throw new IllegalArgumentException( format( "Label '%s' is already in use", element.getLabel() ) );
+	 		}
+	 	}
+	 	
+	 	// reserve the labels, so that none of them is generated for the unlabeled elements
+	 	for( final ModelElement element : elements ) {
+	 		if( element.isLabeled() ) {
+	 			namingService.addLabel( element );
+	 		}
+	 	}
+	 	
 		// update the geometry defaults
 	 	for( final ModelElement element : elements ) {	
 	 		// update the elements defaults
 	 		updateDefaults( element );
+	 		layerModified( element.getLayer() );
 		}
 	 	
 	 	// add the elements to the collection
 	 	collection.addAll( elements );
+	 	
+	 	// record the inverse of the change
+	 	if( history != null ) {
+	 		history.elementsAdded( elements );
+	 	}
+	 	
+		// record the fact that the model has been modified
+		modelChanged( ModelChangeType.PHYSICAL );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public int resolveLabelConflicts( final Collection<? extends ModelElement> elements ) {
+		// gather the labels of the collection
+		final Set<String> claimed = new HashSet<String>( elements.size() * 2 );
+		for( final ModelElement element : elements ) {
+			if( element.isLabeled() ) {
+				claimed.add( element.getLabel() );
+			}
+		}
+		
+		// relabel the elements whose labels are in use
+		int count = 0;
+		final Set<String> labels = new HashSet<String>( elements.size() * 2 );
+		for( final ModelElement element : elements ) {
+			final String label = element.getLabel();
+			if( element.isLabeled() && ( !labels.add( label ) || isLabelInUse( label, element ) ) ) {
+				// generate (and reserve) labels until one is free
+				do {
+					autoLabel( element );
+					namingService.addLabel( element );
+				} while( claimed.contains( element.getLabel() ) || isLabelInUse( element.getLabel(), element ) );
+				labels.add( element.getLabel() );
+				
+				logger.info( format( "Label '%s' is already in use; the element was relabeled '%s'", label, element.getLabel() ) );
+				count++;
+			}
+		}
+		return count;
 	}
 	
 	/** 
 	 * {@inheritDoc}
 	 */
 	public Collection<ModelElement> getPhysicalElements() {
+		pageIn( null );
 		return collection.getAllLayers();
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public int getPhysicalElementCount() {
+		// include the elements of the layers which have not been loaded yet
+		synchronized( pendingLayers ) {
+			int count = collection.getElementCount();
+			if( pendingCount > 0 ) {
+				for( int n = 0; n < pendingLayers.length; n++ ) {
+					if( pendingLayers[n] ) {
+						count += layerSource.getElementCount( n );
+					}
+				}
+			}
+			return count;
+		}
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
 	public void getVisibleElements( final Collection<ModelElement> container ) {
+		pageIn( filter );
 		collection.filter( filter, container );
 	}
 	
@@ -484,9 +608,63 @@ public class DefaultGeometricModel implements GeometricModel {
 		final Set<EntityTypes> typeSet = new HashSet<EntityTypes>( Arrays.asList( types ) );
 		
 		// populate the elements
+		pageIn( filter );
 		collection.filter( filter, container, typeSet );
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void getVisibleElements( final Collection<ModelElement> container, final RectangleXY region ) {
+		pageIn( filter );
+		collection.filter( filter, region, container );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public SnapPoint lookupSnapPoint( final double x, final double y, final double maxDistance ) {
+		pageIn( filter );
+		return collection.lookupSnapPoint( filter, x, y, maxDistance );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void modifyingPhysicalElement( final ModelElement ... elements ) {
+		// record the prior state of the elements
+		if( history != null ) {
+			history.elementsModifying( Arrays.asList( elements ) );
+		}
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void updatePhysicalElement( final ModelElement ... elements ) {
+		updatePhysicalElements( Arrays.asList( elements ) );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void updatePhysicalElements( final Collection<? extends ModelElement> elements ) {
+		// re-index the modified elements
+		for( final ModelElement element : elements ) {
+			layerModified( collection.getLayerOf( element ) );
+			collection.update( element );
+			layerModified( element.getLayer() );
+		}
+		
+		// verify that the prior state of the elements was recorded
+		if( history != null ) {
+			history.elementsUpdated( elements );
+		}
+		
+		// record the fact that the model has been modified
+		modelChanged( ModelChangeType.PHYSICAL );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -506,13 +684,46 @@ public class DefaultGeometricModel implements GeometricModel {
 		}
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void relabelPhysicalElement( final ModelElement element, final String label ) {
+		// the label must not belong to another element
+		if( isLabelInUse( label, element ) ) {
+			throw new IllegalArgumentException( format( "Label '%s' is already in use", label ) );
+		}
+		
+		// record the prior label of the element
+		if( history != null ) {
+			history.elementRelabeled( element, label );
+		}
+		
+		// update the label (and the collection's label indices)
+		layerModified( element.getLayer() );
+		if( !collection.relabel( element, label ) ) {
+			element.setLabel( label );
+		}
+		
+		// reserve the new label
+		namingService.addLabel( element );
+		
+		// record the fact that the model has been modified
+		modelChanged( ModelChangeType.INFORMATIONAL );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
 	public int erase( final Collection<ModelElement> elements ) {
 		int count = 0;
 		for( final ModelElement element : elements ) {
-			if( collection.remove( element ) ) { count++; }
+			if( collection.remove( element ) ) { 
+				layerModified( element.getLayer() );
+				if( history != null ) {
+					history.elementErased( element );
+				}
+				count++; 
+			}
 		}
 		
 		// record the fact that the model has been modified
@@ -528,7 +739,13 @@ public class DefaultGeometricModel implements GeometricModel {
 	public int erase( final ModelElement... elements ) {
 		int count = 0;
 		for( ModelElement element : elements ) {
-			if( collection.remove( element ) ) { count++; }
+			if( collection.remove( element ) ) { 
+				layerModified( element.getLayer() );
+				if( history != null ) {
+					history.elementErased( element );
+				}
+				count++; 
+			}
 		}
 		
 		// record the fact that the model has been modified
@@ -538,13 +755,165 @@ public class DefaultGeometricModel implements GeometricModel {
 		return count;
 	}
 	
+	/**
+	 * Returns the history of the changes made to the model
+	 * @return the {@link ModelHistory history}, or <tt>null</tt> if the changes are not recorded
+	 */
+	public ModelHistory getHistory() {
+		return history;
+	}
+	
+	/**
+	 * Sets the history of the changes made to the model; i.e. the changes 
+	 * which follow are recorded, so that they may be undone.
+	 * @param history the given {@link ModelHistory history}, or <tt>null</tt> to stop recording
+	 */
+	public void setHistory( final ModelHistory history ) {
+		this.history = history;
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
 	public ModelElement lookupElementByLabel( final String label ) {
-		return collection.lookupElementByLabel( label );
+		// the element may reside within a layer that has not been loaded yet
+		final ModelElement element = collection.lookupElementByLabel( label );
+		if( ( element == null ) && ( label != null ) && ( pendingCount > 0 ) ) {
+			// load only the layer the source's label index points to
+			synchronized( pendingLayers ) {
+				final int layer = layerSource.lookupLayer( label );
+				if( ( layer < 0 ) || ( layer >= pendingLayers.length ) || !pendingLayers[layer] ) {
+					return null;
+				}
+				pageIn( layer );
+			}
+			return collection.lookupElementByLabel( label );
+		}
+		return element;
 	}
 		
+	/////////////////////////////////////////////////////////////////////
+	//		Layer Paging Methods
+	/////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Places the model into paged mode; the layers of the given source are
+	 * loaded only once they are first made visible by a filter (or once all
+	 * elements are requested).
+	 * @param source the given {@link LayerSource layer source}
+	 * @param evictHiddenLayers indicates whether unmodified layers are released
+	 * once they are no longer visible (they are re-loaded on demand)
+	 */
+	public void setLayerSource( final LayerSource source, final boolean evictHiddenLayers ) {
+		synchronized( pendingLayers ) {
+			int count = 0;
+			for( int n = 0; n < pendingLayers.length; n++ ) {
+				pendingLayers[n] = source.containsLayer( n );
+				pagedLayers[n] = false;
+				modifiedLayers[n] = false;
+				if( pendingLayers[n] ) {
+					count++;
+				}
+			}
+			this.layerSource		= source;
+			this.evictHiddenLayers	= evictHiddenLayers;
+			this.pendingCount		= count;
+		}
+		
+		// new elements must not be labeled like those of the pending layers
+		namingService.setLabelRegistry( source );
+	}
+	
+	/**
+	 * Indicates whether the given layer is waiting to be loaded from the layer source
+	 * @param layer the given layer number
+	 * @return true, if the layer has not been loaded yet
+	 */
+	public boolean isLayerPending( final int layer ) {
+		synchronized( pendingLayers ) {
+			return pendingLayers[layer];
+		}
+	}
+	
+	/**
+	 * Loads the pending layers which are visible through the given filter
+	 * @param filter the given {@link Filter filter}, or <tt>null</tt> to load all layers
+	 */
+	private void pageIn( final Filter filter ) {
+		// is anything waiting to be loaded?
+		if( pendingCount == 0 ) {
+			return;
+		}
+		
+		synchronized( pendingLayers ) {
+			for( int n = 0; n < pendingLayers.length; n++ ) {
+				if( pendingLayers[n] && ( ( filter == null ) || filter.containsLayer( n ) ) ) {
+					pageIn( n );
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Loads the given pending layer; the caller must hold the paging lock
+	 * @param layer the given layer number
+	 */
+	private void pageIn( final int layer ) {
+		// the layer is no longer pending (even if it fails to load)
+		pendingLayers[layer] = false;
+		pendingCount--;
+		
+		try {
+			// load the layer's elements
+			final Collection<ModelElement> elements = layerSource.loadLayer( layer );
+			for( final ModelElement element : elements ) {
+				updateDefaults( element );
+			}
+			collection.addAll( elements );
+			pagedLayers[layer] = !modifiedLayers[layer];
+		}
+		catch( final IOException e ) {
+			logger.error( format( "Failed to load layer %d", layer ), e );
+		}
+	}
+	
+	/**
+	 * Releases the unmodified layers which are not visible through the given filter
+	 * @param filter the given {@link Filter filter}
+	 */
+	private void evictHiddenLayers( final Filter filter ) {
+		synchronized( pendingLayers ) {
+			for( int n = 0; n < pagedLayers.length; n++ ) {
+				if( pagedLayers[n] && !filter.containsLayer( n ) ) {
+					// remove the layer's elements
+					final Collection<ModelElement> evicted = collection.removeLayer( n );
+					synchronized( selectedElements ) {
+						selectedElements.removeAll( evicted );
+					}
+					
+					// the layer can be loaded again
+					pagedLayers[n] = false;
+					pendingLayers[n] = true;
+					pendingCount++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Records the fact that the given layer has been modified; a modified
+	 * layer is never released, since its elements could not be re-loaded.
+	 * @param layer the given layer number
+	 */
+	private void layerModified( final int layer ) {
+		if( ( layerSource != null ) && ( layer >= 0 ) && ( layer < pagedLayers.length ) ) {
+			synchronized( pendingLayers ) {
+				pagedLayers[layer] = false;
+				modifiedLayers[layer] = true;
+			}
+		}
+	}
+	
 	/////////////////////////////////////////////////////////////////////
 	//		Picked Element Methods
 	/////////////////////////////////////////////////////////////////////
@@ -570,6 +939,31 @@ public class DefaultGeometricModel implements GeometricModel {
 		this.pickedElement = element;
 	}
 	
+	/////////////////////////////////////////////////////////////////////
+	//		Object Snap Methods
+	/////////////////////////////////////////////////////////////////////
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void clearSnapPoint() {
+		this.snapPoint = null;
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public SnapPoint getSnapPoint() {
+		return snapPoint;
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void setSnapPoint( final SnapPoint point ) {
+		this.snapPoint = point;
+	}
+	
 	/////////////////////////////////////////////////////////////////////
 	//		Element Selection Methods
 	/////////////////////////////////////////////////////////////////////
@@ -716,6 +1110,7 @@ public class DefaultGeometricModel implements GeometricModel {
 		synchronized( phantomElements ) {
 			phantomElements.addAll( elements );
 		}
+		modelChanged( ModelChangeType.VISUAL );
 	}
 	
 	/** 
@@ -729,6 +1124,7 @@ public class DefaultGeometricModel implements GeometricModel {
 				if( removed ) { count++; }
 			}
 		}
+		modelChanged( ModelChangeType.VISUAL );
 		return count;
 	}
 	
@@ -743,6 +1139,7 @@ public class DefaultGeometricModel implements GeometricModel {
 				if( removed ) { count++; }
 			}
 		}
+		modelChanged( ModelChangeType.VISUAL );
 		return count;
 	}
 	
@@ -800,13 +1197,40 @@ public class DefaultGeometricModel implements GeometricModel {
 		geometry.setLabel( namingService.getEntityName( geometry.getCategoryType() ) );
 	}
 	
+	/**
+	 * Indicates whether the given label belongs to an element other than the given one,
+	 * including the elements of the layers which have not been loaded yet
+	 * @param label the given label
+	 * @param element the given {@link ModelElement element}
+	 * @return true, if the label belongs to another element
+	 */
+	private boolean isLabelInUse( final String label, final ModelElement element ) {
+		// is the label held by a loaded element?
+		final ModelElement holder = collection.lookupElementByLabel( label );
+		if( holder != null ) {
+			return holder != element;
+		}
+		
+		// is the label held by an element of a pending layer?
+		if( pendingCount > 0 ) {
+			synchronized( pendingLayers ) {
+				final int layer = layerSource.lookupLayer( label );
+				return ( layer >= 0 ) && ( layer < pendingLayers.length ) && pendingLayers[layer];
+			}
+		}
+		return false;
+	}
+	
 	/**
 	 * Sets the last changed time for the model
 	 * @param type the given {@link ModelChangeType change type}
 	 */
-	private void modelChanged( final ModelChangeType type ) {
-		// capture the current time
-		final long currentTime 	= System.currentTimeMillis();
+	private synchronized void modelChanged( final ModelChangeType type ) {
+		// capture the current time (always advancing, so that changes
+		// made within the same millisecond remain distinguishable)
+		final long lastChangeTime = Math.max( lastChangeTimeVisual, 
+				Math.max( lastChangeTimePhysical, lastChangeTimeInformational ) );
+		final long currentTime 	= Math.max( System.currentTimeMillis(), lastChangeTime + 1 );
 		
 		switch( type ) {
 			// record the last visual change time
@@ -820,10 +1244,9 @@ public class DefaultGeometricModel implements GeometricModel {
 				lastChangeTimePhysical = currentTime;
 				break;
 				
-			// record the physical change time
+			// record the informational change time
 			case INFORMATIONAL:
-				lastChangeTimePhysical = currentTime;
-				lastChangeTimePhysical = currentTime;
+				lastChangeTimeInformational = currentTime;
 				break;
 		}
 	}
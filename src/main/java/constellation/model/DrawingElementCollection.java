@@ -1,31 +1,49 @@
 package constellation.model;
 
+import static java.lang.Math.hypot;
+
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import constellation.drawing.EntityRepresentation;
+import constellation.drawing.EntityRepresentationUtil;
 import constellation.drawing.EntityTypes;
 import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.CompositionXY;
+import constellation.drawing.entities.RectangleXY;
 
 /**
- * Represents a drawing element collection
+ * Represents a drawing element collection. Each layer maintains a 
+ * world-coordinate {@link SpatialIndex spatial index} of its elements, 
+ * which allows region queries (picking, view port culling) to scale 
+ * with the size of the region rather than the size of the model. Each layer
+ * also maintains a {@link SnapIndex snap index} of the implicit points of its
+ * elements (end points, midpoints, centers, etc.) for object snapping. A label
+ * index spanning all layers provides constant time lookups by label.
  * @author lawrence.daniels@gmail.com
  */
 @SuppressWarnings("serial")
 public class DrawingElementCollection implements Collection<ModelElement> {
-	private final ModelElementCollection[] layers;
+	private final ConcurrentMap<String,ModelElement> labelIndex;
+	private final LayerCollection[] layers;
 	private ModelElementCollection allLayers;
-	private ModelElementCollection layer;
+	private LayerCollection layer;
 	
 	/**
 	 * Creates a new instance of the element collection
 	 */
 	public DrawingElementCollection() {
 		this.allLayers	= new ModelElementCollection();
-		this.layers 	= new ModelElementCollection[ 256 ];
+		this.labelIndex	= new ConcurrentHashMap<String,ModelElement>();
+		this.layers 	= new LayerCollection[ Filter.TOTAL_LAYERS ];
 		
 		// set the active layer
 		setCurrentLayer( 0 );
@@ -36,13 +54,7 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 	 * @param layerIndex the given layer index
 	 */
 	public void setCurrentLayer( final int layerIndex ) {
-		// initial the layer, if not already initialized
-		if( layers[layerIndex] == null ) {
-			layers[layerIndex] = new ModelElementCollection();
-		}
-		
-		// set the "active" layer
-		layer = layers[layerIndex];
+		layer = allocateLayer( layerIndex );
 	}
 	
 	/**
@@ -71,6 +83,67 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 		}	
 	}
 	
+	/**
+	 * Copies the visible geometry based on the given filter, and whose bounds
+	 * intersect the given region, into the given container. Elements whose 
+	 * bounds depend on the view (e.g. text) are always included.
+	 * @param filter the given {@link Filter filter}
+	 * @param region the given {@link RectangleXY model space region}
+	 * @param container the container for the returned collection of {@link ModelElement elements}
+	 */
+	public void filter( final Filter filter, 
+						final RectangleXY region,
+						final Collection<ModelElement> container ) {
+		// clear the container (if not empty)
+		if( !container.isEmpty() ) {
+			container.clear();
+		}
+		
+		// cache the region's limits
+		final double xa = region.getX();
+		final double ya = region.getY();
+		final double xb = xa + region.getWidth();
+		final double yb = ya + region.getHeight();
+		
+		// query each visible layer
+		for( int n = 0; n < layers.length; n++ ) {
+			final LayerCollection layer = layers[n];
+			if( ( layer != null ) && ( ( filter == null ) || filter.containsLayer( n ) ) ) {
+				layer.search( xa, ya, xb, yb, container );
+			}
+		}
+	}
+	
+	/**
+	 * Returns the snap point of the visible geometry, based on the given filter, 
+	 * that is nearest to the given position.
+	 * @param filter the given {@link Filter filter}
+	 * @param x the given X-coordinate
+	 * @param y the given Y-coordinate
+	 * @param maxDistance the maximum distance from the given position
+	 * @return the nearest {@link SnapPoint snap point}, or <tt>null</tt> if none is within range
+	 */
+	public SnapPoint lookupSnapPoint( final Filter filter, 
+									  final double x, 
+									  final double y, 
+									  final double maxDistance ) {
+		SnapPoint nearest = null;
+		double distance = maxDistance;
+		
+		// query each visible layer
+		for( int n = 0; n < layers.length; n++ ) {
+			final LayerCollection layer = layers[n];
+			if( ( layer != null ) && ( ( filter == null ) || filter.containsLayer( n ) ) ) {
+				final SnapPoint point = layer.nearest( x, y, distance );
+				if( point != null ) {
+					nearest  = point;
+					distance = hypot( point.x - x, point.y - y );
+				}
+			}
+		}
+		return nearest;
+	}
+	
 	/**
 	 * Copies the visible geometry based on the given filter into the given container.
 	 * @param filter the given {@link Filter filter}
@@ -97,7 +170,7 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 		// filter all elements
 		else {
 			for( int n = 0; n < layers.length; n++ ) {
-				if( filter.containsLayer( n ) ) {
+				if( ( layers[n] != null ) && filter.containsLayer( n ) ) {
 					for( final ModelElement element : layers[n] ) {
 						if( typeSet.contains( element.getType() ) ) {
 							container.add( element );
@@ -116,21 +189,42 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 		return Collections.synchronizedCollection( allLayers );
 	}
 
+	/**
+	 * Returns the number of elements of all layers
+	 * @return the number of {@link ModelElement elements}
+	 */
+	public int getElementCount() {
+		synchronized( allLayers ) {
+			return allLayers.size();
+		}
+	}
+
 	/**
 	 * Attempts to retrieve an element by label
 	 * @param label the given label to search for
 	 * @return the {@link ModelElement element} or <tt>null</tt>, if not found.
 	 */
 	public ModelElement lookupElementByLabel( final String label ) {
-		// iterate the two-dimensional collection
-		for( final ModelElement element : this ) {
-			if( element.getLabel().equals( label ) ) {
-				return element;
-			}
+		return ( label != null ) ? labelIndex.get( label ) : null;
+	}
+	
+	/**
+	 * Changes the label of the given element, keeping the collection's 
+	 * label-based indices in sync.
+	 * @param element the given {@link ModelElement element}
+	 * @param label the given new label
+	 * @return true, if the element is a member of this collection
+	 */
+	public boolean relabel( final ModelElement element, final String label ) {
+		// elements are hashed by label, so they must be removed before the label changes
+		if( !remove( element ) ) {
+			return false;
 		}
-
-		// not found
-		return null;
+		
+		// change the label, and re-add the element
+		element.setLabel( label );
+		add( element );
+		return true;
 	}
 
 	/* (non-Javadoc)
@@ -141,15 +235,20 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 		final int layerIndex = element.getLayer();
 		
 		// make sure the layer has been initialized
-		final ModelElementCollection layer = allocateLayer( layerIndex );
+		final LayerCollection layer = allocateLayer( layerIndex );
 		
 		// add it to the combined list
 		synchronized( allLayers ) {
 			allLayers.add( element );
 		}
 		
-		// add the element to the later	
-		return layer.add( element );
+		// index the element by label
+		indexLabel( element );
+		
+		// add the element to the layer	
+		synchronized( layer ) {
+			return layer.add( element );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -162,19 +261,112 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 		}
 		
 		// add the elements to each layer
-		synchronized( layer ) {
-			for( ModelElement element : elements ) {
+		final Set<LayerCollection> modified = Collections.newSetFromMap( new IdentityHashMap<LayerCollection,Boolean>() );
+		for( final ModelElement element : elements ) {
+			indexLabel( element );
+			final LayerCollection layer = allocateLayer( element.getLayer() );
+			synchronized( layer ) {
 				layer.add( element );
 			}
+			modified.add( layer );
+		}
+		
+		// index the snap points of the modified layers now, rather than on the next snap
+		for( final LayerCollection layer : modified ) {
+			synchronized( layer ) {
+				layer.snapIndex.flush();
+			}
 		}
 		return true;
 	}
+	
+	/**
+	 * Re-indexes the given element after it has been transformed 
+	 * (e.g. moved, resized or re-layered) in place.
+	 * @param element the given {@link ModelElement element}
+	 * @return true, if the element is a member of this collection
+	 */
+	public boolean update( final ModelElement element ) {
+		// the element must be a member of the collection
+		synchronized( allLayers ) {
+			if( !allLayers.contains( element ) ) {
+				return false;
+			}
+		}
+		
+		// remove the element from the layer that currently holds it
+		for( final LayerCollection layer : layers ) {
+			if( layer != null ) {
+				synchronized( layer ) {
+					if( layer.remove( element ) ) {
+						break;
+					}
+				}
+			}
+		}
+		
+		// re-insert the element using its current layer and bounds
+		final LayerCollection layer = allocateLayer( element.getLayer() );
+		synchronized( layer ) {
+			return layer.add( element );
+		}
+	}
+
+	/**
+	 * Returns the number of the layer which holds the given element
+	 * @param element the given {@link ModelElement element}
+	 * @return the layer number, or -1 if the element is not a member of this collection
+	 */
+	public int getLayerOf( final ModelElement element ) {
+		for( int n = 0; n < layers.length; n++ ) {
+			final LayerCollection layer = layers[n];
+			if( layer != null ) {
+				synchronized( layer ) {
+					if( layer.contains( element ) ) {
+						return n;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Removes all of the elements of the given layer
+	 * @param layerIndex the given layer index
+	 * @return the collection of removed {@link ModelElement elements}
+	 */
+	public Collection<ModelElement> removeLayer( final int layerIndex ) {
+		final List<ModelElement> removed = new LinkedList<ModelElement>();
+		final LayerCollection layer = layers[layerIndex];
+		if( layer != null ) {
+			synchronized( layer ) {
+				// remove the layer's elements from the combined list and label index
+				synchronized( allLayers ) {
+					for( final ModelElement element : layer ) {
+						allLayers.remove( element );
+						unindexLabel( element );
+						removed.add( element );
+					}
+				}
+				layer.clear();
+			}
+		}
+		return removed;
+	}
 
 	/* (non-Javadoc)
 	 * @see java.util.Collection#clear()
 	 */
 	public void clear() {
 		synchronized( layer ) {
+			// remove the layer's elements from the combined list and label index
+			synchronized( allLayers ) {
+				for( final ModelElement element : layer ) {
+					allLayers.remove( element );
+					unindexLabel( element );
+				}
+			}
 			layer.clear();
 		}
 	}
@@ -227,10 +419,26 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 				allLayers.remove( element );
 			}
 			
-			// remove the object from the current layer
-			final ModelElementCollection layer = layers[element.getLayer()];
-			synchronized( layer ) {
-				return layer.remove( element );
+			// remove the object from the label index
+			unindexLabel( element );
+			
+			// remove the object from its layer (or, if it has been re-layered in place, the layer that holds it)
+			final LayerCollection layer = layers[element.getLayer()];
+			if( layer != null ) {
+				synchronized( layer ) {
+					if( layer.remove( element ) ) {
+						return true;
+					}
+				}
+			}
+			for( final LayerCollection holder : layers ) {
+				if( ( holder != null ) && ( holder != layer ) ) {
+					synchronized( holder ) {
+						if( holder.remove( element ) ) {
+							return true;
+						}
+					}
+				}
 			}
 		}
 		return false;
@@ -240,18 +448,29 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 	 * @see java.util.Collection#removeAll(java.util.Collection)
 	 */
 	public boolean removeAll( final Collection<?> objects ) {
-		synchronized( layer ) {
-			return layer.removeAll( objects );
+		boolean modified = false;
+		for( final Object object : objects ) {
+			modified |= remove( object );
 		}
+		return modified;
 	}
 
 	/* (non-Javadoc)
 	 * @see java.util.Collection#retainAll(java.util.Collection)
 	 */
 	public boolean retainAll( final Collection<?> objects ) {
+		// determine the elements of the current layer to discard
+		final List<ModelElement> discards = new LinkedList<ModelElement>();
 		synchronized( layer ) {
-			return layer.retainAll( objects );
+			for( final ModelElement element : layer ) {
+				if( !objects.contains( element ) ) {
+					discards.add( element );
+				}
+			}
 		}
+		
+		// remove the discarded elements
+		return removeAll( discards );
 	}
 
 	/** 
@@ -286,11 +505,11 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 	 * Allocates the layer by layer index
 	 * @param layerIndex the given layer index
 	 */
-	private ModelElementCollection allocateLayer( final int layerIndex ) {
+	private LayerCollection allocateLayer( final int layerIndex ) {
 		synchronized( layers ) {
 			// initial the layer, if not already initialized
 			if( layers[layerIndex] == null ) {
-				layers[layerIndex] = new ModelElementCollection();
+				layers[layerIndex] = new LayerCollection();
 			}
 			
 			// set the "active" layer
@@ -298,6 +517,28 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 		}
 	}
 	
+	/**
+	 * Adds the given element to the label index
+	 * @param element the given {@link ModelElement element}
+	 */
+	private void indexLabel( final ModelElement element ) {
+		final String label = element.getLabel();
+		if( label != null ) {
+			labelIndex.putIfAbsent( label, element );
+		}
+	}
+	
+	/**
+	 * Removes the given element from the label index
+	 * @param element the given {@link ModelElement element}
+	 */
+	private void unindexLabel( final ModelElement element ) {
+		final String label = element.getLabel();
+		if( label != null ) {
+			labelIndex.remove( label, element );
+		}
+	}
+	
 	/** 
 	 * Combines all the layers
 	 * @return all the layers
@@ -330,4 +571,154 @@ public class DrawingElementCollection implements Collection<ModelElement> {
 		
 	}
 	
+	/** 
+	 * Represents the collection of Model Elements of a single layer, 
+	 * including its spatial and snap indices
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class LayerCollection extends ModelElementCollection {
+		private final SpatialIndex<ModelElement> spatialIndex;
+		private final SnapIndex snapIndex;
+		private final Set<ModelElement> unbounded;
+		
+		/**
+		 * Default Constructor
+		 */
+		public LayerCollection() {
+			super();
+			this.spatialIndex	= new SpatialIndex<ModelElement>();
+			this.snapIndex		= new SnapIndex();
+			this.unbounded		= new HashSet<ModelElement>();
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.util.HashSet#add(java.lang.Object)
+		 */
+		public boolean add( final ModelElement element ) {
+			if( super.add( element ) ) {
+				// index the element using its model space bounds
+				final RectangleXY bounds = getSpatialBounds( element );
+				if( bounds != null ) {
+					spatialIndex.insert( element, bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY() );
+					snapIndex.insert( element );
+				}
+				else {
+					unbounded.add( element );
+				}
+				return true;
+			}
+			return false;
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.util.HashSet#remove(java.lang.Object)
+		 */
+		public boolean remove( final Object object ) {
+			if( super.remove( object ) ) {
+				if( spatialIndex.remove( object ) ) {
+					snapIndex.remove( object );
+				}
+				else {
+					unbounded.remove( object );
+				}
+				return true;
+			}
+			return false;
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.util.HashSet#clear()
+		 */
+		public void clear() {
+			super.clear();
+			spatialIndex.clear();
+			snapIndex.clear();
+			unbounded.clear();
+		}
+		
+		/**
+		 * Retrieves the elements whose bounds intersect the given region, 
+		 * as well as all elements whose bounds depend on the view.
+		 * @param xa the minimum X-coordinate of the region
+		 * @param ya the minimum Y-coordinate of the region
+		 * @param xb the maximum X-coordinate of the region
+		 * @param yb the maximum Y-coordinate of the region
+		 * @param container the container for the returned collection of {@link ModelElement elements}
+		 */
+		public synchronized void search( final double xa, final double ya, 
+										 final double xb, final double yb, 
+										 final Collection<ModelElement> container ) {
+			spatialIndex.search( xa, ya, xb, yb, container );
+			container.addAll( unbounded );
+		}
+		
+		/**
+		 * Retrieves the snap point nearest to the given position
+		 * @param x the given X-coordinate
+		 * @param y the given Y-coordinate
+		 * @param maxDistance the maximum distance from the given position
+		 * @return the nearest {@link SnapPoint snap point}, or <tt>null</tt> if none is within range
+		 */
+		public synchronized SnapPoint nearest( final double x, final double y, final double maxDistance ) {
+			return snapIndex.nearest( x, y, maxDistance );
+		}
+		
+	}
+	
+	/**
+	 * Returns the model space bounds of the given element, if the 
+	 * bounds are independent of the view.
+	 * @param element the given {@link ModelElement element}
+	 * @return the {@link RectangleXY bounds} or <tt>null</tt> if the bounds depend on the view
+	 */
+	private static RectangleXY getSpatialBounds( final ModelElement element ) {
+		return isViewIndependent( element.getRepresentation() ) 
+				? element.getBounds( null ) 
+				: null;
+	}
+	
+	/**
+	 * Indicates whether the bounds of the given representation are independent
+	 * of the view; text notes, comments, pictures and dimensions are sized in 
+	 * screen space, and infinite lines have no finite bounds.
+	 * @param representation the given {@link EntityRepresentation representation}
+	 * @return true, if the bounds are independent of the view
+	 */
+	private static boolean isViewIndependent( final EntityRepresentation representation ) {
+		switch( representation.getType() ) {
+			case CIRCLE:
+			case ARC:
+			case ELLIPSE:
+			case ELLIPTIC_ARC:
+			case POINT:
+			case SPIRAL:
+			case SPLINE:
+			case NURBS:
+			case PARAMETRIC:
+			case POLYLINE:
+				return true;
+				
+			case LINE:
+				return !EntityRepresentationUtil.getLine( representation ).isInfinite();
+				
+			case COMPOSITION:
+				final CompositionXY composition = (CompositionXY)representation;
+				if( composition.getElements().isEmpty() ) {
+					return false;
+				}
+				for( final EntityRepresentation element : composition.getElements() ) {
+					if( !isViewIndependent( element ) ) {
+						return false;
+					}
+				}
+				return true;
+				
+			default:
+				return false;
+		}
+	}
+	
 }
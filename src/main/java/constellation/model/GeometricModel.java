@@ -13,6 +13,7 @@ import constellation.drawing.EntityTypes;
 import constellation.drawing.LinePatterns;
 import constellation.drawing.RenderableElement;
 import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.RectangleXY;
 import constellation.drawing.entities.UserImage;
 
 /**
@@ -260,21 +261,40 @@ public interface GeometricModel {
 	/** 
 	 * Adds the given physical element(s) to the model
 	 * @param elements one of more {@link ModelElement drawing elements}
+	 * @throws IllegalArgumentException if a label is already in use (none of the elements are added)
 	 */
 	void addPhysicalElement( ModelElement... elements );
 	
 	/** 
 	 * Adds the given set of physical elements to the model
 	 * @param elements a collection of {@link ModelElement drawing elements}
+	 * @throws IllegalArgumentException if a label is already in use (none of the elements are added)
 	 */
 	void addPhysicalElements( Collection<? extends ModelElement> elements );
 	
+	/**
+	 * Gives generated labels to the elements whose labels are already in use, 
+	 * by the model or by a preceding element of the collection; elements which 
+	 * originate locally (e.g. imported or restored elements) are relabeled this 
+	 * way before they are added, since the model rejects duplicate labels.
+	 * @param elements a collection of {@link ModelElement drawing elements}
+	 * @return the number of elements which were relabeled
+	 */
+	int resolveLabelConflicts( Collection<? extends ModelElement> elements );
+	
 	/**
 	 * Returns the complete set of geometry that exists in the model
 	 * @return a collection of {@link ModelElement geometric elements}
 	 */
 	Collection<ModelElement> getPhysicalElements();
 	
+	/**
+	 * Returns the number of physical elements in the model, without
+	 * loading the layers which have not been loaded yet
+	 * @return the number of {@link ModelElement geometric elements}
+	 */
+	int getPhysicalElementCount();
+	
 	/**
 	 * Populates the given container with the set of elements 
 	 * on the current layer.
@@ -292,6 +312,56 @@ public interface GeometricModel {
 	 */
 	void getVisibleElements( Collection<ModelElement> container, EntityTypes ... types );
 	
+	/**
+	 * Populates the given container with the set of visible elements 
+	 * whose bounds intersect the given model space region.
+	 * @param container the given container to use while 
+	 * populating matching elements.
+	 * @param region the given {@link RectangleXY model space region}
+	 */
+	void getVisibleElements( Collection<ModelElement> container, RectangleXY region );
+	
+	/**
+	 * Returns the snap point (e.g. end point, midpoint, center or quadrant)
+	 * of the visible elements that is nearest to the given model space position.
+	 * @param x the given X-coordinate
+	 * @param y the given Y-coordinate
+	 * @param maxDistance the maximum distance from the given position
+	 * @return the nearest {@link SnapPoint snap point}, or <tt>null</tt> if none is within range
+	 */
+	SnapPoint lookupSnapPoint( double x, double y, double maxDistance );
+	
+	/**
+	 * Notifies the model that the given physical elements are about to be modified
+	 * in place; the model records their current state, so that the modification can
+	 * be undone. Every element passed to {@link #updatePhysicalElements(Collection)}
+	 * must have been passed to this method beforehand.
+	 * @param elements one of more {@link ModelElement drawing elements}
+	 */
+	void modifyingPhysicalElement( ModelElement... elements );
+	
+	/**
+	 * Notifies the model that the given physical element(s) have been 
+	 * modified in place (e.g. moved, resized or re-layered)
+	 * @param elements one of more {@link ModelElement drawing elements}
+	 */
+	void updatePhysicalElement( ModelElement... elements );
+	
+	/**
+	 * Notifies the model that the given set of physical elements have been 
+	 * modified in place (e.g. moved, resized or re-layered)
+	 * @param elements a collection of {@link ModelElement drawing elements}
+	 */
+	void updatePhysicalElements( Collection<? extends ModelElement> elements );
+	
+	/**
+	 * Changes the label of the given physical element
+	 * @param element the given {@link ModelElement drawing element}
+	 * @param label the given new label
+	 * @throws IllegalArgumentException if the label belongs to another element
+	 */
+	void relabelPhysicalElement( ModelElement element, String label );
+	
 	/**
 	 * Removes the given drawing elements from the model
 	 * @param elements a collection of {@link ModelElement drawing elements}
@@ -345,6 +415,27 @@ public interface GeometricModel {
 	 */
 	void setPickedElement( ModelElement element );
 	
+	/////////////////////////////////////////////////////////////////////
+	//		Object Snap Methods
+	/////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Clears the current snap point
+	 */
+	void clearSnapPoint();
+	
+	/**
+	 * Returns the snap point at which the cursor is currently snapped
+	 * @return the {@link SnapPoint snap point}
+	 */
+	SnapPoint getSnapPoint();
+	
+	/**
+	 * Sets the snap point at which the cursor is currently snapped
+	 * @param point the {@link SnapPoint snap point}
+	 */
+	void setSnapPoint( SnapPoint point );
+	
 	
 	/////////////////////////////////////////////////////////////////////
 	//		Element Selection Methods
@@ -0,0 +1,50 @@
+package constellation.model;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import constellation.drawing.LabelRegistry;
+import constellation.drawing.elements.ModelElement;
+
+/**
+ * Represents a source from which the layers of a paged model are loaded
+ * on demand (e.g. a model file containing a layer index); as a {@link 
+ * LabelRegistry label registry}, the source indicates whether any of its
+ * elements holds a given label, without loading the element's layer.
+ * @author lawrence.daniels@gmail.com
+ */
+public interface LayerSource extends LabelRegistry {
+
+	/**
+	 * Indicates whether the source contains elements for the given layer
+	 * @param layer the given layer number
+	 * @return true, if the source contains elements for the layer
+	 */
+	boolean containsLayer( int layer );
+	
+	/**
+	 * Returns the number of elements the source contains for the given 
+	 * layer, without loading the layer
+	 * @param layer the given layer number
+	 * @return the number of elements
+	 */
+	int getElementCount( int layer );
+	
+	/**
+	 * Determines the layer containing the element having the given label, 
+	 * without loading the layer
+	 * @param label the given label
+	 * @return the layer number, or -1 if the source contains no such element
+	 */
+	int lookupLayer( String label );
+
+	/**
+	 * Loads the elements of the given layer
+	 * @param layer the given layer number
+	 * @return the collection of {@link ModelElement elements}
+	 * @throws IOException
+	 */
+	Collection<ModelElement> loadLayer( int layer )
+	throws IOException;
+
+}
@@ -0,0 +1,556 @@
+package constellation.model;
+
+import static constellation.commands.CxCommandEncoding.VERSION_2;
+import static java.lang.String.format;
+
+import java.awt.EventQueue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import constellation.commands.CxCommand;
+import constellation.commands.CxCommandReader;
+import constellation.commands.CxCommandWriter;
+import constellation.commands.VirtualModel;
+import constellation.commands.builtin.AddElementCommand;
+import constellation.commands.builtin.DeleteElementCommand;
+import constellation.commands.builtin.UpdateElementCommand;
+import constellation.drawing.elements.ModelElement;
+
+/**
+ * Constellation Model History; records the changes made to a {@link DefaultGeometricModel model}
+ * as transactions of inverse commands (e.g. an erased element is recorded as a command which
+ * adds it back, and an element modified in place as a command which restores its prior state),
+ * which are used to undo and redo the changes. The commands are encoded as they are recorded
+ * (in the compact encoding), so that the history does not retain the elements themselves; and
+ * once the history exceeds its memory limit, the oldest transactions are moved to a temporary
+ * file. All of the changes made while handling a single event are recorded as one transaction.
+ * Changes made by other threads (e.g. by collaborating peers, or by the playback of a recording)
+ * are not recorded.
+ * @author lawrence.daniels@gmail.com
+ */
+public class ModelHistory {
+	private static final Logger logger = Logger.getLogger( ModelHistory.class );
+
+	// recording modes
+	private static final int RECORDING = 0;
+	private static final int UNDOING	= 1;
+	private static final int REDOING	= 2;
+
+	// internal fields
+	private final LinkedList<Transaction> undoStack;
+	private final LinkedList<Transaction> redoStack;
+	private final ByteArrayOutputStream sink;
+	private final CxCommandWriter writer;
+	private Transaction current;
+	private RandomAccessFile spillFile;
+	private File spillPath;
+	private long spillLength;
+	private long memoryLimit;
+	private long memoryUsed;
+	private int mode;
+
+	/**
+	 * Creates a new model history
+	 * @param memoryLimit the amount of memory (in bytes) the history may occupy
+	 */
+	public ModelHistory( final long memoryLimit ) {
+		this.memoryLimit	= memoryLimit;
+		this.undoStack		= new LinkedList<Transaction>();
+		this.redoStack		= new LinkedList<Transaction>();
+		this.sink			= new ByteArrayOutputStream( 4096 );
+		this.writer			= new CxCommandWriter( sink );
+		this.mode			= RECORDING;
+	}
+
+	/**
+	 * Returns the history of the given model, which may be a {@link VirtualModel virtual model}
+	 * @param model the given {@link GeometricModel model}
+	 * @return the {@link ModelHistory history}, or <tt>null</tt> if the changes to the model are not recorded
+	 */
+	public static ModelHistory lookup( final GeometricModel model ) {
+		final DefaultGeometricModel hostModel = getHostModel( model );
+		return ( hostModel != null ) ? hostModel.getHistory() : null;
+	}
+
+	/**
+	 * Returns the history of the given model, which may be a {@link VirtualModel virtual model};
+	 * the changes to the model are recorded from this point onwards.
+	 * @param model the given {@link GeometricModel model}
+	 * @param memoryLimit the amount of memory (in bytes) the history may occupy
+	 * @return the {@link ModelHistory history}, or <tt>null</tt> if the changes to the model can not be recorded
+	 */
+	public static ModelHistory attach( final GeometricModel model, final long memoryLimit ) {
+		final DefaultGeometricModel hostModel = getHostModel( model );
+		if( hostModel == null ) {
+			return null;
+		}
+
+		// create the history, if the model does not have one
+		ModelHistory history = hostModel.getHistory();
+		if( history == null ) {
+			history = new ModelHistory( memoryLimit );
+			hostModel.setHistory( history );
+		}
+		else {
+			history.setMemoryLimit( memoryLimit );
+		}
+		return history;
+	}
+
+	/**
+	 * Returns the amount of memory the history may occupy
+	 * @return the memory limit (in bytes)
+	 */
+	public synchronized long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	/**
+	 * Sets the amount of memory the history may occupy
+	 * @param memoryLimit the memory limit (in bytes)
+	 */
+	public synchronized void setMemoryLimit( final long memoryLimit ) {
+		this.memoryLimit = memoryLimit;
+		trim();
+	}
+
+	/**
+	 * Indicates whether there are changes which can be undone
+	 * @return true, if there is at least one transaction to undo
+	 */
+	public synchronized boolean canUndo() {
+		return !undoStack.isEmpty() || ( ( current != null ) && ( current.count > 0 ) );
+	}
+
+	/**
+	 * Indicates whether there are changes which can be redone
+	 * @return true, if there is at least one transaction to redo
+	 */
+	public synchronized boolean canRedo() {
+		return !redoStack.isEmpty();
+	}
+
+	/**
+	 * Discards the recorded changes, and the temporary file (if any)
+	 */
+	public synchronized void clear() {
+		current = null;
+		undoStack.clear();
+		redoStack.clear();
+		memoryUsed = 0;
+		spillLength = 0;
+		if( spillFile != null ) {
+			try {
+				spillFile.close();
+			}
+			catch( final IOException e ) {
+				logger.error( "Error closing the undo history file", e );
+			}
+			spillPath.delete();
+			spillFile = null;
+			spillPath = null;
+		}
+	}
+
+	/**
+	 * Records the addition of the given elements to the model
+	 * @param elements the given {@link Collection collection} of {@link ModelElement elements}
+	 */
+	synchronized void elementsAdded( final Collection<? extends ModelElement> elements ) {
+		if( open() ) {
+			for( final ModelElement element : elements ) {
+				record( DeleteElementCommand.create( element ) );
+			}
+		}
+	}
+
+	/**
+	 * Records the removal of the given element from the model
+	 * @param element the given {@link ModelElement element}
+	 */
+	synchronized void elementErased( final ModelElement element ) {
+		if( open() ) {
+			record( AddElementCommand.create( element ) );
+		}
+	}
+
+	/**
+	 * Records the current state of the given elements, which are about to be modified in place;
+	 * the state of an element is only recorded once per transaction.
+	 * @param elements the given {@link Collection collection} of {@link ModelElement elements}
+	 */
+	synchronized void elementsModifying( final Collection<? extends ModelElement> elements ) {
+		if( open() ) {
+			for( final ModelElement element : elements ) {
+				if( current.modified.add( element ) ) {
+					record( UpdateElementCommand.create( element.getLabel(), element ) );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Verifies that the prior state of the given modified elements has been recorded; if it
+	 * has not, the modification can not be undone, and neither can the preceding transactions
+	 * (as they would be undone out of order), so the history is discarded.
+	 * @param elements the given {@link Collection collection} of {@link ModelElement elements}
+	 */
+	synchronized void elementsUpdated( final Collection<? extends ModelElement> elements ) {
+		if( open() ) {
+			for( final ModelElement element : elements ) {
+				if( !current.modified.contains( element ) ) {
+					logger.warn( format( "The prior state of element '%s' was not recorded; discarding the undo history", element.getLabel() ) );
+					clear();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the current state (including the label) of the given element, which is about to be relabeled
+	 * @param element the given {@link ModelElement element}
+	 * @param label the new label of the element
+	 */
+	synchronized void elementRelabeled( final ModelElement element, final String label ) {
+		if( open() ) {
+			record( UpdateElementCommand.create( label, element ) );
+		}
+	}
+
+	/**
+	 * Undoes the most recent transaction
+	 * @param model the given {@link GeometricModel model} to apply the changes to
+	 * @return the number of changes which were undone, or <tt>0</tt> if there was nothing to undo
+	 * @throws IOException
+	 */
+	public synchronized int undo( final GeometricModel model )
+	throws IOException {
+		close();
+		return replay( model, undoStack, UNDOING );
+	}
+
+	/**
+	 * Redoes the most recently undone transaction
+	 * @param model the given {@link GeometricModel model} to apply the changes to
+	 * @return the number of changes which were redone, or <tt>0</tt> if there was nothing to redo
+	 * @throws IOException
+	 */
+	public synchronized int redo( final GeometricModel model )
+	throws IOException {
+		close();
+		return replay( model, redoStack, REDOING );
+	}
+
+	/**
+	 * Returns the model which hosts the given model
+	 * @param model the given {@link GeometricModel model}
+	 * @return the {@link DefaultGeometricModel host model}, or <tt>null</tt> if there is none
+	 */
+	private static DefaultGeometricModel getHostModel( final GeometricModel model ) {
+		GeometricModel hostModel = model;
+		while( hostModel instanceof VirtualModel ) {
+			hostModel = ( (VirtualModel)hostModel ).getHostModel();
+		}
+		return ( hostModel instanceof DefaultGeometricModel ) ? (DefaultGeometricModel)hostModel : null;
+	}
+
+	/**
+	 * Opens a transaction, if one is not already open
+	 * @return true, if the transaction is able to record changes
+	 */
+	private boolean open() {
+		if( current == null ) {
+			// only the user's changes are recorded
+			if( ( mode == RECORDING ) && !EventQueue.isDispatchThread() ) {
+				return false;
+			}
+			
+
+			// the symbols of the previous transaction are not known to this one
+			try {
+				writer.setEncoding( VERSION_2 );
+			}
+			catch( final IOException e ) {
+				logger.error( "Error resetting the undo history encoding", e );
+				return false;
+			}
+			sink.reset();
+			current = new Transaction();
+
+			// the changes are committed once the current event has been handled
+			if( mode == RECORDING ) {
+				final Transaction transaction = current;
+				EventQueue.invokeLater( new Runnable() {
+					public void run() {
+						synchronized( ModelHistory.this ) {
+							if( current == transaction ) {
+								close();
+							}
+						}
+					}
+				});
+			}
+		}
+		return !current.broken;
+	}
+
+	/**
+	 * Records the given inverse command within the current transaction
+	 * @param command the given {@link CxCommand command}
+	 */
+	private void record( final CxCommand command ) {
+		try {
+			writer.write( command );
+			current.count++;
+		}
+		catch( final IOException e ) {
+			logger.error( format( "Error recording command %s; the transaction can not be undone", command ), e );
+			current.broken = true;
+		}
+	}
+
+	/**
+	 * Closes the current transaction (if any), and pushes it onto the appropriate stack
+	 */
+	private void close() {
+		final Transaction transaction = current;
+		current = null;
+		if( ( transaction == null ) || transaction.broken || ( transaction.count == 0 ) ) {
+			return;
+		}
+		transaction.modified = null;
+
+		// capture the encoded commands
+		transaction.data = sink.toByteArray();
+		transaction.length = transaction.data.length;
+		sink.reset();
+		memoryUsed += transaction.length;
+
+		// undone changes may be redone; any other change makes the redo stack obsolete
+		switch( mode ) {
+			case UNDOING:
+				redoStack.addLast( transaction );
+				break;
+
+			case REDOING:
+				undoStack.addLast( transaction );
+				break;
+
+			default:
+				undoStack.addLast( transaction );
+				for( final Transaction obsolete : redoStack ) {
+					memoryUsed -= obsolete.length;
+				}
+				redoStack.clear();
+		}
+
+		// keep the history within its memory limit
+		trim();
+	}
+
+	/**
+	 * Applies the inverse commands of the most recent transaction of the given stack;
+	 * the changes are themselves recorded, as the inverse of the transaction.
+	 * @param model the given {@link GeometricModel model}
+	 * @param stack the given transaction stack
+	 * @param replayMode the given recording mode
+	 * @return the number of commands which were applied
+	 * @throws IOException
+	 */
+	private int replay( final GeometricModel model, final LinkedList<Transaction> stack, final int replayMode )
+	throws IOException {
+		if( stack.isEmpty() ) {
+			return 0;
+		}
+
+		// decode the commands of the transaction
+		final Transaction transaction = stack.removeLast();
+		final List<CxCommand> commands = decode( load( transaction ) );
+
+		// apply the commands, in reverse order
+		mode = replayMode;
+		try {
+			int index = commands.size() - 1;
+			while( index >= 0 ) {
+				index = apply( model, commands, index );
+			}
+			close();
+		}
+		finally {
+			current = null;
+			mode = RECORDING;
+		}
+		return commands.size();
+	}
+
+	/**
+	 * Applies the run of commands of the same kind, which ends at the given index,
+	 * to the given model; i.e. the elements are added (or erased) in a single call.
+	 * @param model the given {@link GeometricModel model}
+	 * @param commands the given {@link List list} of {@link CxCommand commands}
+	 * @param last the index of the last command of the run
+	 * @return the index of the last command of the preceding run
+	 */
+	private int apply( final GeometricModel model, final List<CxCommand> commands, final int last ) {
+		int index = last;
+
+		// add back erased elements
+		if( commands.get( index ) instanceof AddElementCommand ) {
+			final List<ModelElement> elements = new ArrayList<ModelElement>();
+			final Set<String> labels = new HashSet<String>();
+			for( ; ( index >= 0 ) && ( commands.get( index ) instanceof AddElementCommand ); index-- ) {
+				final ModelElement element = ( (AddElementCommand)commands.get( index ) ).toElement();
+				elements.add( element );
+				labels.add( element.getLabel() );
+			}
+			model.addPhysicalElements( elements );
+
+			// the elements are no longer phantoms
+			final List<ModelElement> phantoms = new LinkedList<ModelElement>();
+			model.getPhantomElements( phantoms );
+			final List<ModelElement> restored = new LinkedList<ModelElement>();
+			for( final ModelElement phantom : phantoms ) {
+				if( labels.contains( phantom.getLabel() ) ) {
+					restored.add( phantom );
+				}
+			}
+			if( !restored.isEmpty() ) {
+				model.erasePhantoms( restored );
+			}
+		}
+
+		// erase added elements
+		else if( commands.get( index ) instanceof DeleteElementCommand ) {
+			final List<ModelElement> elements = new ArrayList<ModelElement>();
+			for( ; ( index >= 0 ) && ( commands.get( index ) instanceof DeleteElementCommand ); index-- ) {
+				final String label = ( (DeleteElementCommand)commands.get( index ) ).getLabel();
+				final ModelElement element = model.lookupElementByLabel( label );
+				if( element != null ) {
+					elements.add( element );
+				}
+			}
+			model.erase( elements );
+		}
+
+		// any other command
+		else {
+			commands.get( index-- ).evaluate( model );
+		}
+		return index;
+	}
+
+	/**
+	 * Decodes the given encoded commands
+	 * @param data the given encoded commands
+	 * @return the {@link List list} of {@link CxCommand commands}
+	 * @throws IOException
+	 */
+	private List<CxCommand> decode( final byte[] data )
+	throws IOException {
+		final List<CxCommand> commands = new ArrayList<CxCommand>();
+		final CxCommandReader reader = new CxCommandReader( new ByteArrayInputStream( data ) );
+		reader.assumeEncoding( VERSION_2 );
+		CxCommand command;
+		while( ( command = reader.read() ) != null ) {
+			commands.add( command );
+		}
+		return commands;
+	}
+
+	/**
+	 * Returns the encoded commands of the given transaction, which is being removed
+	 * from its stack; i.e. reads them back from the temporary file, if necessary.
+	 * @param transaction the given {@link Transaction transaction}
+	 * @return the encoded commands
+	 * @throws IOException
+	 */
+	private byte[] load( final Transaction transaction )
+	throws IOException {
+		// is the transaction in memory?
+		if( transaction.data != null ) {
+			memoryUsed -= transaction.length;
+			return transaction.data;
+		}
+
+		// the most recently spilled transaction resides at the end of the file
+		final byte[] data = new byte[ transaction.length ];
+		spillFile.seek( transaction.offset );
+		spillFile.readFully( data );
+		spillLength = transaction.offset;
+		return data;
+	}
+
+	/**
+	 * Moves the oldest transactions to the temporary file, until the
+	 * history is within its memory limit
+	 */
+	private void trim() {
+		for( final Transaction transaction : undoStack ) {
+			if( memoryUsed <= memoryLimit ) {
+				break;
+			}
+			if( transaction.data != null ) {
+				try {
+					spill( transaction );
+				}
+				catch( final IOException e ) {
+					logger.error( "Error writing the undo history file", e );
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the given transaction to the end of the temporary file
+	 * @param transaction the given {@link Transaction transaction}
+	 * @throws IOException
+	 */
+	private void spill( final Transaction transaction )
+	throws IOException {
+		// create the file, if necessary
+		if( spillFile == null ) {
+			spillPath = File.createTempFile( "constellation-undo", ".tmp" );
+			spillPath.deleteOnExit();
+			spillFile = new RandomAccessFile( spillPath, "rw" );
+			spillLength = 0;
+		}
+
+		// append the transaction
+		spillFile.seek( spillLength );
+		spillFile.write( transaction.data );
+		transaction.offset = spillLength;
+		transaction.data = null;
+		spillLength += transaction.length;
+		memoryUsed -= transaction.length;
+	}
+
+	/**
+	 * Represents a recorded transaction; i.e. the encoded inverse commands of
+	 * the changes, which reside either in memory or in the temporary file.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Transaction {
+		private Set<ModelElement> modified = Collections.newSetFromMap( new IdentityHashMap<ModelElement, Boolean>() );
+		private byte[] data;
+		private long offset;
+		private int length;
+		private int count;
+		private boolean broken;
+	}
+
+}
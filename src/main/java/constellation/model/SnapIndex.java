@@ -0,0 +1,539 @@
+package constellation.model;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.ceil;
+import static java.lang.Math.cos;
+import static java.lang.Math.floor;
+import static java.lang.Math.min;
+import static java.lang.Math.sin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import constellation.drawing.ComplexInternalRepresentation;
+import constellation.drawing.EntityRepresentation;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.ArcXY;
+import constellation.drawing.entities.CircleXY;
+import constellation.drawing.entities.CompositionXY;
+import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.PointXY;
+import constellation.drawing.entities.VerticesXY;
+
+/**
+ * Represents a two-dimensional kd-tree of {@link SnapPoint snap points}
+ * (end points, midpoints, centers and quadrants of the indexed elements),
+ * which allows the nearest snap point to the cursor to be found in
+ * logarithmic time. The index is maintained incrementally using the
+ * logarithmic method: new points are collected in a buffer, which is 
+ * merged (when a search finds it to be larger than a few dozen points)
+ * into a series of balanced {@link KdTree kd-trees} whose capacities are 
+ * successive powers of two; deferring the merge until the next search
+ * allows bulk insertions to be indexed with a single build. Removed points 
+ * are marked as such, and are discarded whenever the trees are merged.
+ * @author lawrence.daniels@gmail.com
+ */
+public class SnapIndex {
+	private static final SnapPoint[] NO_POINTS = new SnapPoint[0];
+	private static final double HALF_PI = PI / 2d;
+	private static final int BUFFER_SIZE = 64;
+	private final Map<ModelElement,SnapPoint[]> elementPoints;
+	private final List<KdTree> trees;
+	private final List<SnapPoint> buffer;
+	private int removedCount;
+	private int pointCount;
+
+	/**
+	 * Creates a new empty snap index
+	 */
+	public SnapIndex() {
+		this.elementPoints	= new HashMap<ModelElement,SnapPoint[]>();
+		this.trees			= new ArrayList<KdTree>();
+		this.buffer			= new ArrayList<SnapPoint>( BUFFER_SIZE );
+	}
+
+	/**
+	 * Removes all snap points from the index
+	 */
+	public void clear() {
+		elementPoints.clear();
+		trees.clear();
+		buffer.clear();
+		removedCount	= 0;
+		pointCount		= 0;
+	}
+
+	/**
+	 * Indexes the snap points of the given element; if the element is
+	 * already indexed, it is re-indexed using its current geometry.
+	 * @param element the given {@link ModelElement element}
+	 */
+	public void insert( final ModelElement element ) {
+		// remove any previous instance of the element
+		remove( element );
+
+		// determine the element's snap points
+		final List<SnapPoint> points = new ArrayList<SnapPoint>();
+		collectSnapPoints( element, element.getRepresentation(), points );
+		if( points.isEmpty() ) {
+			return;
+		}
+
+		// buffer the snap points
+		elementPoints.put( element, points.toArray( new SnapPoint[ points.size() ] ) );
+		buffer.addAll( points );
+		pointCount += points.size();
+	}
+
+	/**
+	 * Removes the snap points of the given element from the index
+	 * @param element the given element
+	 * @return true, if the element was indexed
+	 */
+	public boolean remove( final Object element ) {
+		final SnapPoint[] points = elementPoints.remove( element );
+		if( points == null ) {
+			return false;
+		}
+
+		// mark the points as removed
+		for( final SnapPoint point : points ) {
+			point.removed = true;
+		}
+		removedCount += points.length;
+		pointCount -= points.length;
+
+		// if most of the points have been removed, compact the index
+		if( removedCount > BUFFER_SIZE && removedCount > pointCount ) {
+			compact();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the snap point nearest to the given position
+	 * @param x the given X-coordinate
+	 * @param y the given Y-coordinate
+	 * @param maxDistance the maximum distance from the given position
+	 * @return the nearest {@link SnapPoint snap point}, or <tt>null</tt>
+	 * if no snap point lies within the maximum distance
+	 */
+	public SnapPoint nearest( final double x, final double y, final double maxDistance ) {
+		// merge a large buffer into the trees
+		flush();
+		
+		final Search search = new Search( x, y, maxDistance );
+
+		// search the buffered points
+		for( final SnapPoint point : buffer ) {
+			search.consider( point );
+		}
+
+		// search each of the trees
+		for( final KdTree tree : trees ) {
+			if( tree != null ) {
+				tree.nearest( search );
+			}
+		}
+		return search.nearest;
+	}
+
+	/**
+	 * Merges the buffered points into the trees, if the buffer has grown
+	 * too large to be searched linearly; this is done on demand by searches, 
+	 * but may also be done after bulk insertions (i.e. off the searching thread).
+	 */
+	public void flush() {
+		if( buffer.size() > BUFFER_SIZE ) {
+			merge();
+		}
+	}
+
+	/**
+	 * Returns the number of snap points contained within the index
+	 * @return the number of snap points
+	 */
+	public int size() {
+		return pointCount;
+	}
+
+	/**
+	 * Merges the buffered points into the trees; like a binary counter,
+	 * the buffer is carried through the occupied trees until an empty
+	 * tree with sufficient capacity is found.
+	 */
+	private void merge() {
+		final List<SnapPoint> carry = new ArrayList<SnapPoint>( buffer.size() );
+		collectPoints( buffer, carry );
+		buffer.clear();
+		if( carry.isEmpty() ) {
+			return;
+		}
+
+		for( int level = 0; ; level++ ) {
+			if( level == trees.size() ) {
+				trees.add( null );
+			}
+
+			// is the tree at this level free, and large enough?
+			final KdTree tree = trees.get( level );
+			if( ( tree == null ) && ( carry.size() <= ( BUFFER_SIZE << level ) ) ) {
+				trees.set( level, new KdTree( carry ) );
+				return;
+			}
+
+			// otherwise, carry the tree's points to the next level
+			if( tree != null ) {
+				collectPoints( Arrays.asList( tree.points ), carry );
+				trees.set( level, null );
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the trees, discarding the removed points
+	 */
+	private void compact() {
+		final List<SnapPoint> points = new ArrayList<SnapPoint>( pointCount );
+		for( final KdTree tree : trees ) {
+			if( tree != null ) {
+				collectPoints( Arrays.asList( tree.points ), points );
+			}
+		}
+		collectPoints( buffer, points );
+		buffer.clear();
+		trees.clear();
+
+		// place all of the points into a single tree of sufficient capacity
+		if( !points.isEmpty() ) {
+			int level = 0;
+			while( ( BUFFER_SIZE << level ) < points.size() ) {
+				trees.add( null );
+				level++;
+			}
+			trees.add( new KdTree( points ) );
+		}
+	}
+
+	/**
+	 * Copies the given points that have not been removed into the given list
+	 * @param source the given collection of {@link SnapPoint points}
+	 * @param points the given list of {@link SnapPoint points}
+	 */
+	private void collectPoints( final Collection<SnapPoint> source, final List<SnapPoint> points ) {
+		for( final SnapPoint point : source ) {
+			if( point.removed ) {
+				removedCount--;
+			}
+			else {
+				points.add( point );
+			}
+		}
+	}
+
+	/**
+	 * Determines the snap points of the given representation
+	 * @param element the {@link ModelElement element} that owns the snap points
+	 * @param representation the given {@link EntityRepresentation representation}
+	 * @param points the list of {@link SnapPoint snap points} to populate
+	 */
+	private static void collectSnapPoints( final ModelElement element,
+										   final EntityRepresentation representation,
+										   final List<SnapPoint> points ) {
+		switch( representation.getType() ) {
+			case POINT:
+				final PointXY point = (PointXY)representation;
+				points.add( new SnapPoint( element, SnapType.POINT, point.x, point.y ) );
+				break;
+
+			case LINE:
+				final LineXY line = (LineXY)representation;
+				if( !line.isInfinite() ) {
+					collectVertices( element, line.getLimits(), false, points );
+				}
+				break;
+
+			case POLYLINE:
+				collectVertices( element, ((ComplexInternalRepresentation)representation).getLimits(), false, points );
+				break;
+
+			case CIRCLE:
+				final CircleXY circle = (CircleXY)representation;
+				collectRadialPoints( element, circle.getCenterX(), circle.getCenterY(), circle.getRadius(), 0, 2d * PI, points );
+				break;
+
+			case ARC:
+				collectArcPoints( element, (ArcXY)representation, points );
+				break;
+
+			case ELLIPSE:
+				// the limits are the quadrants, with the center in the middle
+				final VerticesXY limits = ((ComplexInternalRepresentation)representation).getLimits();
+				for( int n = 0; n < limits.length(); n++ ) {
+					points.add( new SnapPoint( element, ( n == 2 ) ? SnapType.CENTER : SnapType.QUADRANT, limits.x[n], limits.y[n] ) );
+				}
+				break;
+
+			case COMPOSITION:
+				for( final EntityRepresentation child : ((CompositionXY)representation).getElements() ) {
+					collectSnapPoints( element, child, points );
+				}
+				break;
+
+			default:
+				if( representation instanceof ComplexInternalRepresentation ) {
+					final ComplexInternalRepresentation complex = (ComplexInternalRepresentation)representation;
+					collectVertices( element, complex.getLimits(), true, points );
+					final PointXY midPoint = complex.getMidPoint();
+					if( midPoint != null ) {
+						points.add( new SnapPoint( element, SnapType.MID_POINT, midPoint.x, midPoint.y ) );
+					}
+				}
+		}
+	}
+
+	/**
+	 * Determines the end points of the given vertices, and (unless the
+	 * vertices are control points) the midpoints between them
+	 * @param element the {@link ModelElement element} that owns the snap points
+	 * @param vertices the given {@link VerticesXY vertices}
+	 * @param controlPoints indicates whether the vertices are control points
+	 * @param points the list of {@link SnapPoint snap points} to populate
+	 */
+	private static void collectVertices( final ModelElement element,
+										 final VerticesXY vertices,
+										 final boolean controlPoints,
+										 final List<SnapPoint> points ) {
+		final int count = vertices.length();
+		for( int n = 0; n < count; n++ ) {
+			points.add( new SnapPoint( element, SnapType.END_POINT, vertices.x[n], vertices.y[n] ) );
+			if( !controlPoints && ( n > 0 ) ) {
+				points.add( new SnapPoint( element, SnapType.MID_POINT,
+						( vertices.x[n-1] + vertices.x[n] ) / 2d,
+						( vertices.y[n-1] + vertices.y[n] ) / 2d ) );
+			}
+		}
+	}
+
+	/**
+	 * Determines the snap points of the given arc
+	 * @param element the {@link ModelElement element} that owns the snap points
+	 * @param arc the given {@link ArcXY arc}
+	 * @param points the list of {@link SnapPoint snap points} to populate
+	 */
+	private static void collectArcPoints( final ModelElement element, final ArcXY arc, final List<SnapPoint> points ) {
+		final double start	= arc.getAngleStart() - HALF_PI;
+		final double end	= arc.getAngleEnd() - HALF_PI;
+		final double cx		= arc.getCenterX();
+		final double cy		= arc.getCenterY();
+		final double radius	= arc.getRadius();
+
+		// arcs whose end angle precedes the start angle are rendered through the opposite points
+		final double lo = ( end > start ) ? start : end + PI;
+		final double hi = ( end > start ) ? end : start + PI;
+
+		// add the end points and the midpoint of the arc
+		points.add( new SnapPoint( element, SnapType.END_POINT, cx + radius * cos( lo ), cy + radius * sin( lo ) ) );
+		points.add( new SnapPoint( element, SnapType.END_POINT, cx + radius * cos( hi ), cy + radius * sin( hi ) ) );
+		final double mid = ( lo + hi ) / 2d;
+		points.add( new SnapPoint( element, SnapType.MID_POINT, cx + radius * cos( mid ), cy + radius * sin( mid ) ) );
+
+		// add the center and the quadrants that lie on the arc
+		collectRadialPoints( element, cx, cy, radius, lo, hi, points );
+	}
+
+	/**
+	 * Determines the center, and the quadrants within the given angular range, of a circular curve
+	 * @param element the {@link ModelElement element} that owns the snap points
+	 * @param cx the X-coordinate of the center
+	 * @param cy the Y-coordinate of the center
+	 * @param radius the radius of the curve
+	 * @param lo the starting angle (in radians) of the range
+	 * @param hi the ending angle (in radians) of the range
+	 * @param points the list of {@link SnapPoint snap points} to populate
+	 */
+	private static void collectRadialPoints( final ModelElement element,
+											 final double cx, final double cy, final double radius,
+											 final double lo, final double hi,
+											 final List<SnapPoint> points ) {
+		points.add( new SnapPoint( element, SnapType.CENTER, cx, cy ) );
+
+		// add each quadrant (at most once) that lies within the range
+		final int first = (int)ceil( lo / HALF_PI );
+		final int last	= min( (int)floor( hi / HALF_PI ), first + 3 );
+		for( int q = first; q <= last; q++ ) {
+			switch( q & 3 ) {
+				case 0: points.add( new SnapPoint( element, SnapType.QUADRANT, cx + radius, cy ) ); break;
+				case 1: points.add( new SnapPoint( element, SnapType.QUADRANT, cx, cy + radius ) ); break;
+				case 2: points.add( new SnapPoint( element, SnapType.QUADRANT, cx - radius, cy ) ); break;
+				case 3: points.add( new SnapPoint( element, SnapType.QUADRANT, cx, cy - radius ) ); break;
+			}
+		}
+	}
+
+	/**
+	 * Represents a balanced implicit kd-tree; the median of each range is 
+	 * stored at the center of the range, and the axes alternate between 
+	 * X (even depths) and Y (odd depths). The coordinates are held in 
+	 * arrays parallel to the points, so that searches and builds do 
+	 * not have to visit the points themselves.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class KdTree {
+		private final SnapPoint[] points;
+		private final double[] xs;
+		private final double[] ys;
+
+		/**
+		 * Builds a new tree from the given points
+		 * @param points the given list of {@link SnapPoint points}
+		 */
+		public KdTree( final List<SnapPoint> points ) {
+			this.points	= points.toArray( NO_POINTS );
+			this.xs		= new double[ this.points.length ];
+			this.ys		= new double[ this.points.length ];
+			for( int n = 0; n < this.points.length; n++ ) {
+				xs[n] = this.points[n].x;
+				ys[n] = this.points[n].y;
+			}
+			build( 0, this.points.length, true );
+		}
+
+		/**
+		 * Searches the tree for the nearest point
+		 * @param search the given {@link Search search}
+		 */
+		public void nearest( final Search search ) {
+			nearest( 0, points.length, true, search );
+		}
+
+		/**
+		 * Recursively partitions the given range of the tree about its median
+		 */
+		private void build( final int lo, final int hi, final boolean xAxis ) {
+			if( hi - lo > 1 ) {
+				final int mid = ( lo + hi ) >>> 1;
+				select( xAxis ? xs : ys, lo, hi - 1, mid );
+				build( lo, mid, !xAxis );
+				build( mid + 1, hi, !xAxis );
+			}
+		}
+
+		/**
+		 * Re-arranges the given (inclusive) range of the tree such that the k-th
+		 * point is in its sorted position along the axis of the given 
+		 * coordinates (Hoare's selection algorithm)
+		 */
+		private void select( final double[] coordinates, int lo, int hi, final int k ) {
+			while( hi > lo ) {
+				final double pivot = coordinates[ ( lo + hi ) >>> 1 ];
+				int i = lo;
+				int j = hi;
+				while( i <= j ) {
+					while( coordinates[i] < pivot ) i++;
+					while( coordinates[j] > pivot ) j--;
+					if( i <= j ) {
+						swap( i++, j-- );
+					}
+				}
+				if( k <= j ) {
+					hi = j;
+				}
+				else if( k >= i ) {
+					lo = i;
+				}
+				else {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Exchanges the given points of the tree
+		 */
+		private void swap( final int i, final int j ) {
+			final SnapPoint point = points[i];
+			points[i] = points[j];
+			points[j] = point;
+			final double x = xs[i];
+			xs[i] = xs[j];
+			xs[j] = x;
+			final double y = ys[i];
+			ys[i] = ys[j];
+			ys[j] = y;
+		}
+
+		/**
+		 * Recursively searches the given range of the tree for the nearest point
+		 */
+		private void nearest( final int lo, final int hi, final boolean xAxis, final Search search ) {
+			if( lo < hi ) {
+				final int mid = ( lo + hi ) >>> 1;
+				final double dx = search.x - xs[mid];
+				final double dy = search.y - ys[mid];
+				if( dx * dx + dy * dy <= search.distance2 ) {
+					search.consider( points[mid] );
+				}
+
+				// search the near side first, then the far side if it is within range
+				final double delta = xAxis ? dx : dy;
+				if( delta < 0 ) {
+					nearest( lo, mid, !xAxis, search );
+					if( delta * delta <= search.distance2 ) {
+						nearest( mid + 1, hi, !xAxis, search );
+					}
+				}
+				else {
+					nearest( mid + 1, hi, !xAxis, search );
+					if( delta * delta <= search.distance2 ) {
+						nearest( lo, mid, !xAxis, search );
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Represents the state of a nearest neighbour search
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Search {
+		private final double x;
+		private final double y;
+		private double distance2;
+		private SnapPoint nearest;
+
+		/**
+		 * Creates a new search
+		 * @param x the X-coordinate of the search position
+		 * @param y the Y-coordinate of the search position
+		 * @param maxDistance the maximum distance from the search position
+		 */
+		public Search( final double x, final double y, final double maxDistance ) {
+			this.x			= x;
+			this.y			= y;
+			this.distance2	= maxDistance * maxDistance;
+		}
+
+		/**
+		 * Considers the given point as the nearest point
+		 * @param point the given {@link SnapPoint point}
+		 */
+		public void consider( final SnapPoint point ) {
+			if( !point.removed ) {
+				final double dx = point.x - x;
+				final double dy = point.y - y;
+				final double d2 = dx * dx + dy * dy;
+				if( d2 <= distance2 ) {
+					distance2	= d2;
+					nearest		= point;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package constellation.model;
+
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.PointXY;
+
+/**
+ * Represents an implicit point of interest of a model element (e.g. the 
+ * end point of a line or the center of a circle) to which the cursor may snap.
+ * @see SnapIndex
+ * @author lawrence.daniels@gmail.com
+ */
+public class SnapPoint {
+	private final ModelElement element;
+	private final SnapType type;
+	final double x;
+	final double y;
+	boolean removed;
+	
+	/**
+	 * Creates a new snap point
+	 * @param element the {@link ModelElement element} that owns the snap point
+	 * @param type the given {@link SnapType snap type}
+	 * @param x the given X-coordinate
+	 * @param y the given Y-coordinate
+	 */
+	public SnapPoint( final ModelElement element, final SnapType type, final double x, final double y ) {
+		this.element	= element;
+		this.type		= type;
+		this.x			= x;
+		this.y			= y;
+	}
+	
+	/**
+	 * Returns the element that owns the snap point
+	 * @return the {@link ModelElement element}
+	 */
+	public ModelElement getElement() {
+		return element;
+	}
+	
+	/**
+	 * Returns the location of the snap point
+	 * @return a new {@link PointXY point}
+	 */
+	public PointXY getPoint() {
+		return new PointXY( x, y );
+	}
+	
+	/**
+	 * Returns the snap type
+	 * @return the {@link SnapType snap type}
+	 */
+	public SnapType getType() {
+		return type;
+	}
+	
+	/**
+	 * Returns the X-coordinate of the snap point
+	 * @return the X-coordinate
+	 */
+	public double getX() {
+		return x;
+	}
+	
+	/**
+	 * Returns the Y-coordinate of the snap point
+	 * @return the Y-coordinate
+	 */
+	public double getY() {
+		return y;
+	}
+	
+	/**
+	 * Indicates whether the given snap point is at the same location and of the same type
+	 * @param point the given {@link SnapPoint snap point}
+	 * @return true, if the given snap point is equivalent to this one
+	 */
+	public boolean isEquivalent( final SnapPoint point ) {
+		return ( point != null ) && 
+			   ( point.type == type ) && 
+			   ( point.x == x ) && 
+			   ( point.y == y );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return String.format( "%s (%3.2f,%3.2f)", type, x, y );
+	}
+
+}
@@ -0,0 +1,11 @@
+package constellation.model;
+
+/**
+ * The enumeration of object snap types 
+ * @author lawrence.daniels@gmail.com
+ */
+public enum SnapType {
+	
+	POINT, END_POINT, MID_POINT, CENTER, QUADRANT, INTERSECTION
+
+}
@@ -0,0 +1,506 @@
+package constellation.model;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a two-dimensional R-tree spatial index (Guttman, quadratic split).
+ * Each item is stored with its world-coordinate bounds, which allows
+ * rectangular region queries to visit only the items near the region.
+ * @see http://en.wikipedia.org/wiki/R-tree
+ * @author lawrence.daniels@gmail.com
+ */
+public class SpatialIndex<T> {
+	private static final int MAX_ENTRIES = 16;
+	private static final int MIN_ENTRIES = 6;
+	private final Map<T,double[]> itemBounds;
+	private Node root;
+
+	/**
+	 * Creates a new empty spatial index
+	 */
+	public SpatialIndex() {
+		this.itemBounds = new HashMap<T,double[]>();
+		this.root		= new Node( true );
+	}
+
+	/**
+	 * Indicates whether the given item is contained within the index
+	 * @param item the given item
+	 * @return true, if the item is contained within the index
+	 */
+	public boolean contains( final T item ) {
+		return itemBounds.containsKey( item );
+	}
+
+	/**
+	 * Removes all items from the index
+	 */
+	public void clear() {
+		itemBounds.clear();
+		root = new Node( true );
+	}
+
+	/**
+	 * Inserts the given item into the index; if the item is already
+	 * indexed, it is re-indexed using the new bounds.
+	 * @param item the given item
+	 * @param xa the minimum X-coordinate of the item's bounds
+	 * @param ya the minimum Y-coordinate of the item's bounds
+	 * @param xb the maximum X-coordinate of the item's bounds
+	 * @param yb the maximum Y-coordinate of the item's bounds
+	 */
+	public void insert( final T item, final double xa, final double ya, final double xb, final double yb ) {
+		// remove any previous instance of the item
+		if( itemBounds.containsKey( item ) ) {
+			remove( item );
+		}
+
+		// record the item's bounds, and insert it
+		final double[] bounds = new double[] { min( xa, xb ), min( ya, yb ), max( xa, xb ), max( ya, yb ) };
+		itemBounds.put( item, bounds );
+		insertEntry( item, bounds );
+	}
+
+	/**
+	 * Removes the given item from the index
+	 * @param item the given item
+	 * @return true, if the item was removed
+	 */
+	public boolean remove( final Object item ) {
+		// get the bounds the item was indexed with
+		final double[] bounds = itemBounds.remove( item );
+		if( bounds == null ) {
+			return false;
+		}
+
+		// find the leaf containing the item
+		final Node leaf = findLeaf( root, item, bounds );
+		if( leaf == null ) {
+			return false;
+		}
+
+		// remove the entry, and rebalance the tree
+		leaf.removeEntry( leaf.indexOf( item ) );
+		condenseTree( leaf );
+		return true;
+	}
+
+	/**
+	 * Retrieves all items whose bounds intersect the given region
+	 * @param xa the minimum X-coordinate of the region
+	 * @param ya the minimum Y-coordinate of the region
+	 * @param xb the maximum X-coordinate of the region
+	 * @param yb the maximum Y-coordinate of the region
+	 * @param results the collection for the returning of the items
+	 */
+	public void search( final double xa, final double ya, final double xb, final double yb,
+						final Collection<? super T> results ) {
+		search( root, min( xa, xb ), min( ya, yb ), max( xa, xb ), max( ya, yb ), results );
+	}
+
+	/**
+	 * Returns the number of items contained within the index
+	 * @return the number of items
+	 */
+	public int size() {
+		return itemBounds.size();
+	}
+
+	/**
+	 * Recursively retrieves all items whose bounds intersect the given region
+	 */
+	@SuppressWarnings("unchecked")
+	private void search( final Node node,
+						 final double xa, final double ya, final double xb, final double yb,
+						 final Collection<? super T> results ) {
+		for( int n = 0; n < node.count; n++ ) {
+			if( node.intersects( n, xa, ya, xb, yb ) ) {
+				if( node.leaf ) {
+					results.add( (T)node.entries[n] );
+				}
+				else {
+					search( (Node)node.entries[n], xa, ya, xb, yb, results );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Inserts the given entry into a leaf of the tree
+	 * @param entry the given entry
+	 * @param bounds the bounds of the entry
+	 */
+	private void insertEntry( final Object entry, final double[] bounds ) {
+		// choose the leaf to receive the entry
+		Node node = root;
+		while( !node.leaf ) {
+			node = (Node)node.entries[ node.chooseSubtree( bounds ) ];
+		}
+
+		// add the entry, and grow the tree as necessary
+		node.addEntry( entry, bounds[0], bounds[1], bounds[2], bounds[3] );
+		adjustTree( node );
+	}
+
+	/**
+	 * Propagates boundary changes and node splits up to the root
+	 * @param node the given {@link Node node}
+	 */
+	private void adjustTree( Node node ) {
+		while( node != null ) {
+			// split the node if it has overflowed
+			final Node sibling = ( node.count > MAX_ENTRIES ) ? node.split() : null;
+
+			// if the root was split, grow the tree
+			if( node == root ) {
+				if( sibling != null ) {
+					final Node newRoot = new Node( false );
+					newRoot.addChild( node );
+					newRoot.addChild( sibling );
+					root = newRoot;
+				}
+				return;
+			}
+
+			// update the node's boundary within the parent
+			final Node parent = node.parent;
+			parent.updateChild( node );
+			if( sibling != null ) {
+				parent.addChild( sibling );
+			}
+			node = parent;
+		}
+	}
+
+	/**
+	 * Removes under-filled nodes on the path from the given leaf to
+	 * the root, and re-inserts their orphaned items.
+	 * @param leaf the given leaf {@link Node node}
+	 */
+	private void condenseTree( final Node leaf ) {
+		final List<Object> orphans = new ArrayList<Object>();
+
+		// walk the path to the root
+		Node node = leaf;
+		while( node != root ) {
+			final Node parent = node.parent;
+			if( node.count < MIN_ENTRIES ) {
+				parent.removeEntry( parent.indexOf( node ) );
+				node.collectItems( orphans );
+			}
+			else {
+				parent.updateChild( node );
+			}
+			node = parent;
+		}
+
+		// shorten the tree if the root has a single child
+		while( !root.leaf && root.count == 1 ) {
+			root = (Node)root.entries[0];
+			root.parent = null;
+		}
+		if( !root.leaf && root.count == 0 ) {
+			root = new Node( true );
+		}
+
+		// re-insert the orphaned items
+		for( final Object item : orphans ) {
+			insertEntry( item, itemBounds.get( item ) );
+		}
+	}
+
+	/**
+	 * Locates the leaf containing the given item
+	 * @param node the {@link Node node} to search
+	 * @param item the given item
+	 * @param bounds the bounds of the item
+	 * @return the leaf {@link Node node} or <tt>null</tt> if not found
+	 */
+	private Node findLeaf( final Node node, final Object item, final double[] bounds ) {
+		if( node.leaf ) {
+			return ( node.indexOf( item ) != -1 ) ? node : null;
+		}
+		for( int n = 0; n < node.count; n++ ) {
+			if( node.contains( n, bounds ) ) {
+				final Node leaf = findLeaf( (Node)node.entries[n], item, bounds );
+				if( leaf != null ) {
+					return leaf;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the area of the given rectangle
+	 */
+	private static double area( final double xa, final double ya, final double xb, final double yb ) {
+		return ( xb - xa ) * ( yb - ya );
+	}
+
+	/**
+	 * Represents an R-tree node; the entries of a leaf node are the indexed
+	 * items, whereas the entries of a branch node are child nodes.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Node {
+		private final double[] minX = new double[ MAX_ENTRIES + 1 ];
+		private final double[] minY = new double[ MAX_ENTRIES + 1 ];
+		private final double[] maxX = new double[ MAX_ENTRIES + 1 ];
+		private final double[] maxY = new double[ MAX_ENTRIES + 1 ];
+		private final Object[] entries = new Object[ MAX_ENTRIES + 1 ];
+		private final boolean leaf;
+		private Node parent;
+		private int count;
+
+		/**
+		 * Creates a new node
+		 * @param leaf indicates whether the node is a leaf
+		 */
+		public Node( final boolean leaf ) {
+			this.leaf = leaf;
+		}
+
+		/**
+		 * Adds an entry to the node
+		 */
+		public void addEntry( final Object entry, final double xa, final double ya, final double xb, final double yb ) {
+			minX[count] = xa;
+			minY[count] = ya;
+			maxX[count] = xb;
+			maxY[count] = yb;
+			entries[count++] = entry;
+		}
+
+		/**
+		 * Adds a child node to this branch node
+		 * @param child the given child {@link Node node}
+		 */
+		public void addChild( final Node child ) {
+			final double[] bounds = child.getBounds();
+			child.parent = this;
+			addEntry( child, bounds[0], bounds[1], bounds[2], bounds[3] );
+		}
+
+		/**
+		 * Updates the recorded boundary of the given child node
+		 * @param child the given child {@link Node node}
+		 */
+		public void updateChild( final Node child ) {
+			final int index = indexOf( child );
+			final double[] bounds = child.getBounds();
+			minX[index] = bounds[0];
+			minY[index] = bounds[1];
+			maxX[index] = bounds[2];
+			maxY[index] = bounds[3];
+		}
+
+		/**
+		 * Removes the entry at the given index
+		 * @param index the given index
+		 */
+		public void removeEntry( final int index ) {
+			final int last = --count;
+			minX[index] = minX[last];
+			minY[index] = minY[last];
+			maxX[index] = maxX[last];
+			maxY[index] = maxY[last];
+			entries[index] = entries[last];
+			entries[last] = null;
+		}
+
+		/**
+		 * Returns the index of the given entry
+		 * @param entry the given entry
+		 * @return the index of the entry or -1 if not found
+		 */
+		public int indexOf( final Object entry ) {
+			for( int n = 0; n < count; n++ ) {
+				if( leaf ? entries[n].equals( entry ) : ( entries[n] == entry ) ) {
+					return n;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Returns the minimum boundary enclosing all entries
+		 * @return the boundary as {minX, minY, maxX, maxY}
+		 */
+		public double[] getBounds() {
+			final double[] bounds = { +Double.MAX_VALUE, +Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+			for( int n = 0; n < count; n++ ) {
+				bounds[0] = min( bounds[0], minX[n] );
+				bounds[1] = min( bounds[1], minY[n] );
+				bounds[2] = max( bounds[2], maxX[n] );
+				bounds[3] = max( bounds[3], maxY[n] );
+			}
+			return bounds;
+		}
+
+		/**
+		 * Indicates whether the entry at the given index intersects the given region
+		 */
+		public boolean intersects( final int n, final double xa, final double ya, final double xb, final double yb ) {
+			return ( minX[n] <= xb ) && ( maxX[n] >= xa ) && ( minY[n] <= yb ) && ( maxY[n] >= ya );
+		}
+
+		/**
+		 * Indicates whether the entry at the given index contains the given bounds
+		 */
+		public boolean contains( final int n, final double[] bounds ) {
+			return ( minX[n] <= bounds[0] ) && ( minY[n] <= bounds[1] ) &&
+					( maxX[n] >= bounds[2] ) && ( maxY[n] >= bounds[3] );
+		}
+
+		/**
+		 * Chooses the child entry requiring the least enlargement to contain the given bounds
+		 * @param bounds the given bounds
+		 * @return the index of the chosen child entry
+		 */
+		public int chooseSubtree( final double[] bounds ) {
+			int best = 0;
+			double bestEnlargement = Double.MAX_VALUE;
+			double bestArea = Double.MAX_VALUE;
+			for( int n = 0; n < count; n++ ) {
+				final double area = area( minX[n], minY[n], maxX[n], maxY[n] );
+				final double enlargement =
+					area( min( minX[n], bounds[0] ), min( minY[n], bounds[1] ),
+						  max( maxX[n], bounds[2] ), max( maxY[n], bounds[3] ) ) - area;
+				if( ( enlargement < bestEnlargement ) ||
+					( enlargement == bestEnlargement && area < bestArea ) ) {
+					best = n;
+					bestEnlargement = enlargement;
+					bestArea = area;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Splits an overflowing node using Guttman's quadratic split
+		 * @return the newly created sibling {@link Node node}
+		 */
+		public Node split() {
+			// copy the entries of this node
+			final int total = count;
+			final double[] ax = minX.clone(), ay = minY.clone(), bx = maxX.clone(), by = maxY.clone();
+			final Object[] items = entries.clone();
+			final boolean[] assigned = new boolean[ total ];
+
+			// pick the two seeds that would waste the most area together
+			int seedA = 0, seedB = 1;
+			double worst = -Double.MAX_VALUE;
+			for( int i = 0; i < total; i++ ) {
+				for( int j = i + 1; j < total; j++ ) {
+					final double waste =
+						area( min( ax[i], ax[j] ), min( ay[i], ay[j] ), max( bx[i], bx[j] ), max( by[i], by[j] ) ) -
+						area( ax[i], ay[i], bx[i], by[i] ) - area( ax[j], ay[j], bx[j], by[j] );
+					if( waste > worst ) {
+						worst = waste;
+						seedA = i;
+						seedB = j;
+					}
+				}
+			}
+
+			// reset this node, and create the sibling
+			final Node sibling = new Node( leaf );
+			for( int n = 0; n < total; n++ ) {
+				entries[n] = null;
+			}
+			count = 0;
+			assign( this, items, ax, ay, bx, by, seedA );
+			assign( sibling, items, ax, ay, bx, by, seedB );
+			assigned[seedA] = assigned[seedB] = true;
+
+			// distribute the remaining entries
+			int remaining = total - 2;
+			while( remaining > 0 ) {
+				// if either group must take all the rest to reach the minimum, do so
+				final Node needy =
+					( count + remaining <= MIN_ENTRIES ) ? this :
+						( sibling.count + remaining <= MIN_ENTRIES ) ? sibling : null;
+				if( needy != null ) {
+					for( int n = 0; n < total; n++ ) {
+						if( !assigned[n] ) {
+							assign( needy, items, ax, ay, bx, by, n );
+							assigned[n] = true;
+						}
+					}
+					break;
+				}
+
+				// pick the entry with the greatest preference for one group
+				final double[] boundsA = getBounds();
+				final double[] boundsB = sibling.getBounds();
+				int next = -1;
+				double bestDiff = -1;
+				double growthA = 0, growthB = 0;
+				for( int n = 0; n < total; n++ ) {
+					if( !assigned[n] ) {
+						final double da = growth( boundsA, ax[n], ay[n], bx[n], by[n] );
+						final double db = growth( boundsB, ax[n], ay[n], bx[n], by[n] );
+						final double diff = Math.abs( da - db );
+						if( diff > bestDiff ) {
+							bestDiff = diff;
+							next = n;
+							growthA = da;
+							growthB = db;
+						}
+					}
+				}
+
+				// assign the entry to the group needing the least enlargement
+				assign( ( growthA < growthB || ( growthA == growthB && count <= sibling.count ) ) ? this : sibling,
+						items, ax, ay, bx, by, next );
+				assigned[next] = true;
+				remaining--;
+			}
+			return sibling;
+		}
+
+		/**
+		 * Collects all items contained within the subtree rooted at this node
+		 * @param items the collection for the returning of the items
+		 */
+		public void collectItems( final List<Object> items ) {
+			for( int n = 0; n < count; n++ ) {
+				if( leaf ) {
+					items.add( entries[n] );
+				}
+				else {
+					((Node)entries[n]).collectItems( items );
+				}
+			}
+		}
+
+		/**
+		 * Assigns the n-th entry of the given arrays to the given node
+		 */
+		private static void assign( final Node node, final Object[] items,
+									final double[] ax, final double[] ay, final double[] bx, final double[] by,
+									final int n ) {
+			node.addEntry( items[n], ax[n], ay[n], bx[n], by[n] );
+			if( !node.leaf ) {
+				((Node)items[n]).parent = node;
+			}
+		}
+
+		/**
+		 * Returns the enlargement of the given bounds needed to include the given rectangle
+		 */
+		private static double growth( final double[] bounds, final double xa, final double ya, final double xb, final double yb ) {
+			return area( min( bounds[0], xa ), min( bounds[1], ya ), max( bounds[2], xb ), max( bounds[3], yb ) ) -
+					area( bounds[0], bounds[1], bounds[2], bounds[3] );
+		}
+	}
+
+}
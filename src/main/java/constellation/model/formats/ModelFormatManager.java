@@ -6,6 +6,8 @@ import java.util.LinkedHashSet;
 
 import javax.swing.filechooser.FileFilter;
 
+import constellation.model.formats.cxb.CXBFormatReader;
+import constellation.model.formats.cxb.CXBFormatWriter;
 import constellation.model.formats.cxm.CXMFormatReader;
 import constellation.model.formats.cxm.CXMFormatWriter;
 
@@ -29,9 +31,11 @@ public class ModelFormatManager {
 		
 		// add the default format reader
 		readers.add( defaultReader );
+		readers.add( new CXBFormatReader() );
 		
 		// add the default format writer
 		writers.add( defaultWriter );
+		writers.add( new CXBFormatWriter() );
 	}
 	
 	/**
@@ -93,6 +97,25 @@ public class ModelFormatManager {
 		return null;
 	}
 	
+	/**
+	 * Attempts to find the appropriate format writer for the given 
+	 * model file; the default writer is used for unrecognized files.
+	 * @param modelFile the given {@link File model file}
+	 * @return the {@link ModelFormatWriter format writer}
+	 */
+	public ModelFormatWriter getFormatWriter( final File modelFile ) {
+		// look for the appropriate format writer
+		for( final ModelFormatWriter format : writers ) {
+			// is the format compatible with the file?
+			if( format.isCompatible( modelFile ) ) {
+				return format;
+			}
+		}
+		
+		// no suitable writer found
+		return defaultWriter;
+	}
+	
 	/**
 	 * Returns the file filters for the associated format readers
 	 * @return the {@link FileFilter file filters}
@@ -20,6 +20,13 @@ public interface ModelFormatWriter {
 	 */
 	FileFilter getFileFilter();
 	
+	/** 
+	 * Determines whether the given file is compatible with this writer
+	 * @param file the given {@link File file}
+	 * @return true, if the file's extension is understood by this writer
+	 */
+	boolean isCompatible( File file );
+	
 	/**
 	 * Writes the model file to disk
 	 * @param modelFile the given project {@link File file}
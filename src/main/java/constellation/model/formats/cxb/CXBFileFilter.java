@@ -0,0 +1,33 @@
+package constellation.model.formats.cxb;
+
+import static constellation.model.formats.cxb.CXBFormatReader.EXTENSION;
+
+import java.io.File;
+
+import javax.swing.filechooser.FileFilter;
+
+/**
+ * Constellation Binary Model File Filter
+ * @author lawrence.daniels@gmail.com
+ */
+public class CXBFileFilter extends FileFilter {
+
+	/* 
+	 * (non-Javadoc)
+	 * @see javax.swing.filechooser.FileFilter#accept(java.io.File)
+	 */
+	@Override
+	public boolean accept( final File file ) {
+		return file.isDirectory() || 
+				file.getName().toLowerCase().endsWith( String.format( ".%s", EXTENSION ) );
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see javax.swing.filechooser.FileFilter#getDescription()
+	 */
+	@Override
+	public String getDescription() {
+		return "Constellation Binary Model Files";
+	}
+}
@@ -0,0 +1,114 @@
+package constellation.model.formats.cxb;
+
+import static java.lang.String.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import javax.swing.filechooser.FileFilter;
+
+import org.apache.log4j.Logger;
+
+import constellation.model.GeometricModel;
+import constellation.model.formats.ModelFormatException;
+import constellation.model.formats.ModelFormatReader;
+
+/**
+ * This class is responsible for reading Constellation geometry models (binary) from disk
+ * @author lawrence.daniels@gmail.com
+ */
+public class CXBFormatReader implements ModelFormatReader {
+	public static final String EXTENSION = "cxb";
+	// files of at least this size (in bytes) are opened in paged mode
+	public static final long PAGING_THRESHOLD = 64L * 1024L * 1024L;
+	private static final Logger logger = Logger.getLogger( CXBFormatReader.class );
+	private final CXBFileFilter fileFilter;
+	
+	/**
+	 * Default constructor
+	 */
+	public CXBFormatReader() {
+		this.fileFilter = new CXBFileFilter();
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.geometry.model.formats.CxModelFormatReader#getFileFilter()
+	 */
+	public FileFilter getFileFilter() {
+		return fileFilter;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.geometry.model.formats.CxModelFormatReader#isCompatible(java.io.File)
+	 */
+	public boolean isCompatible( final File file ) {
+		return file.getName().toLowerCase().endsWith( format( ".%s", EXTENSION ) );
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.geometry.model.formats.CxModelFormatReader#readFile(java.io.File)
+	 */
+	public GeometricModel readFile( final File modelFile )
+	throws ModelFormatException {
+		try {
+			return CxBinaryModelReader.readFile( modelFile, modelFile.length() >= PAGING_THRESHOLD );
+		} 
+		catch( final Exception e ) {
+			logger.error( format( "Error reading model file '%s'", modelFile.getName() ), e );
+			throw new ModelFormatException( e );
+		}
+	}
+	
+	/**
+	 * Decodes a binary model from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the {@link GeometricModel model}
+	 * @throws IOException
+	 */
+	public static GeometricModel readModel( final ByteBuffer buffer )
+	throws IOException {
+		return CxBinaryModelReader.readBuffer( buffer );
+	}
+	
+	/**
+	 * Decompresses and decodes a binary model 
+	 * (see {@link CXBFormatWriter#writeCompressedModel(GeometricModel, java.io.OutputStream)})
+	 * @param content the given compressed model
+	 * @param size the given size of the model (in bytes) before it was compressed
+	 * @return the {@link GeometricModel model}
+	 * @throws IOException if the compressed model is corrupt
+	 */
+	public static GeometricModel readCompressedModel( final byte[] content, final int size )
+	throws IOException {
+		// decompress the model
+		final byte[] bytes = new byte[ size ];
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput( content );
+			int offset = 0;
+			while( offset < size ) {
+				final int count = inflater.inflate( bytes, offset, size - offset );
+				if( ( count == 0 ) && ( inflater.finished() || inflater.needsInput() ) ) {
+					throw new IOException( format( "The compressed model is truncated (%d of %d bytes)", offset, size ) );
+				}
+				offset += count;
+			}
+		}
+		catch( final DataFormatException e ) {
+			throw new IOException( "The compressed model is corrupt", e );
+		}
+		finally {
+			inflater.end();
+		}
+		
+		// decode the model
+		return CxBinaryModelReader.readBuffer( ByteBuffer.wrap( bytes ) );
+	}
+	
+}
@@ -0,0 +1,117 @@
+package constellation.model.formats.cxb;
+
+import static constellation.model.formats.cxb.CXBFormatReader.EXTENSION;
+import static java.lang.String.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.swing.filechooser.FileFilter;
+
+import constellation.model.GeometricModel;
+import constellation.model.formats.ModelFormatWriter;
+
+/**
+ * This class is responsible for writing Constellation geometry models (binary) to disk
+ * @author lawrence.daniels@gmail.com
+ */
+public class CXBFormatWriter implements ModelFormatWriter {
+	private final FileFilter fileFilter;
+	
+	/**
+	 * Default constructor
+	 */
+	public CXBFormatWriter() {
+		this.fileFilter = new CXBFileFilter();
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.model.formats.ModelFormatWriter#getFileFilter()
+	 */
+	public FileFilter getFileFilter() {
+		return fileFilter;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.model.formats.ModelFormatWriter#isCompatible(java.io.File)
+	 */
+	public boolean isCompatible( final File file ) {
+		return file.getName().toLowerCase().endsWith( format( ".%s", EXTENSION ) );
+	}
+	
+	/**
+	 * Saves the given model to disk
+	 * @param model the given {@link GeometricModel model}
+	 * @throws IOException
+	 */
+	public void writeFile( final GeometricModel model ) 
+	throws IOException {
+		CxBinaryModelWriter.writeFile( model );
+	}
+	
+	/**
+	 * Encodes the given model (in binary) to the given stream
+	 * @param model the given {@link GeometricModel model}
+	 * @param stream the given {@link OutputStream output stream}
+	 * @throws IOException
+	 */
+	public static void writeModel( final GeometricModel model, final OutputStream stream ) 
+	throws IOException {
+		CxBinaryModelWriter.writeStream( model, stream );
+	}
+	
+	/**
+	 * Encodes the given model (in binary) to the given stream, and compresses it
+	 * (see {@link CXBFormatReader#readCompressedModel(byte[], int)})
+	 * @param model the given {@link GeometricModel model}
+	 * @param stream the given {@link OutputStream output stream}
+	 * @return the size of the encoded model (in bytes) before it was compressed
+	 * @throws IOException
+	 */
+	public static long writeCompressedModel( final GeometricModel model, final OutputStream stream ) 
+	throws IOException {
+		final Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+		try {
+			final CountingDeflaterStream out = new CountingDeflaterStream( stream, deflater );
+			CxBinaryModelWriter.writeStream( model, out );
+			out.finish();
+			return out.count;
+		}
+		finally {
+			deflater.end();
+		}
+	}
+	
+	/**
+	 * A deflater stream which counts the (uncompressed) bytes written to it
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class CountingDeflaterStream extends DeflaterOutputStream {
+		private long count;
+		
+		/**
+		 * Creates a new counting deflater stream
+		 * @param out the given {@link OutputStream output stream}
+		 * @param deflater the given {@link Deflater deflater}
+		 */
+		public CountingDeflaterStream( final OutputStream out, final Deflater deflater ) {
+			super( out, deflater, 65536 );
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.util.zip.DeflaterOutputStream#write(byte[], int, int)
+		 */
+		public void write( final byte[] b, final int off, final int len ) 
+		throws IOException {
+			super.write( b, off, len );
+			count += len;
+		}
+	}
+	
+}
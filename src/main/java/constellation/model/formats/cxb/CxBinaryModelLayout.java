@@ -0,0 +1,87 @@
+package constellation.model.formats.cxb;
+
+/**
+ * Constellation Binary Model Layout. A binary model file consists of a header,
+ * a sequence of sections, and a trailing section directory:
+ * <pre>
+ * header    := MAGIC:int VERSION:int
+ * section   := MODEL | FILTERS | IMAGES | PHYSICAL | PHANTOM | STRINGS | LAYERS | LABELS
+ * layers    := count:int ( layer:int elements:int offset:long length:long )*
+ * labels    := count:int slots:int ( hash:int label:int layer:int )[slots]
+ * strings   := ( length:int utf8:byte[length] )* offset:int[count] count:int
+ * directory := ( type:int offset:long length:long )* count:int offset:long MAGIC:int
+ * </pre>
+ * Offsets and lengths are 64-bit, so that a file may exceed 2 GB; only each
+ * section is limited to 2 GB, since a section is mapped as a whole.
+ * All strings (labels, names, text) are stored once in the string table, and
+ * are referenced by their index (or -1 for <tt>null</tt>). Elements are written
+ * in blocks of at most {@link #BLOCK_SIZE} fixed-width records, so that the
+ * blocks may be decoded independently of each other. The blocks of physical
+ * elements each hold the elements of a single layer, and the layer index
+ * (i.e. the LAYERS section) maps each layer to its blocks, which allows the
+ * layers to be loaded on demand. The label index (i.e. the LABELS section) 
+ * is an open-addressed hash table (of a power-of-two number of slots, probed
+ * linearly from the slot of the label's {@link #labelHash(String) hash}; an
+ * empty slot holds the label -1), which maps the label of each physical 
+ * element to its layer. The reader probes the table (and the string table, 
+ * by way of the strings' offsets) in place, so that an element may be found 
+ * (and new labels kept unique) without decoding every label.
+ * @author lawrence.daniels@gmail.com
+ */
+final class CxBinaryModelLayout {
+	// file identification
+	static final int MAGIC		= 0x43584231; // "CXB1"
+	static final int VERSION	= 2;
+
+	// the maximum number of elements per block
+	static final int BLOCK_SIZE	= 8192;
+
+	// section types
+	static final int SECTION_MODEL		= 1;
+	static final int SECTION_STRINGS	= 2;
+	static final int SECTION_FILTERS	= 3;
+	static final int SECTION_IMAGES		= 4;
+	static final int SECTION_PHYSICAL	= 5;
+	static final int SECTION_PHANTOM	= 6;
+	static final int SECTION_LAYERS		= 7;
+	static final int SECTION_LABELS		= 8;
+
+	// element flags
+	static final byte FLAG_COLOR	= 0x01;
+
+	// entity record types
+	static final byte ENTITY_NONE			= 0;
+	static final byte ENTITY_POINT			= 1;
+	static final byte ENTITY_LINE			= 2;
+	static final byte ENTITY_CIRCLE			= 3;
+	static final byte ENTITY_ARC			= 4;
+	static final byte ENTITY_ELLIPSE		= 5;
+	static final byte ENTITY_ELLIPTIC_ARC	= 6;
+	static final byte ENTITY_SPIRAL			= 7;
+	static final byte ENTITY_SPLINE			= 8;
+	static final byte ENTITY_POLYLINE		= 9;
+	static final byte ENTITY_COMMENT		= 10;
+	static final byte ENTITY_TEXTNOTE		= 11;
+	static final byte ENTITY_PICTURE		= 12;
+	static final byte ENTITY_COMPOSITION	= 13;
+	static final byte ENTITY_NURBS			= 14;
+	static final byte ENTITY_PARAMETRIC		= 15;
+
+	/**
+	 * Private constructor
+	 */
+	private CxBinaryModelLayout() {
+		super();
+	}
+	
+	/**
+	 * Returns the hash of the given label within the label index
+	 * @param label the given label
+	 * @return the hash
+	 */
+	static int labelHash( final String label ) {
+		final int hash = label.hashCode();
+		return hash ^ ( hash >>> 16 );
+	}
+
+}
@@ -0,0 +1,825 @@
+package constellation.model.formats.cxb;
+
+import static constellation.model.formats.cxb.CxBinaryModelLayout.*;
+import static java.lang.String.format;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.Logger;
+
+import constellation.drawing.EntityRepresentation;
+import constellation.drawing.LinePatterns;
+import constellation.drawing.elements.CxModelElement;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.ArcXY;
+import constellation.drawing.entities.CircleXY;
+import constellation.drawing.entities.CommentXY;
+import constellation.drawing.entities.CompositionXY;
+import constellation.drawing.entities.EllipseXY;
+import constellation.drawing.entities.EllipticArcXY;
+import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.ParametricCurveXY;
+import constellation.drawing.entities.PictureXY;
+import constellation.drawing.entities.PointXY;
+import constellation.drawing.entities.PolyLineXY;
+import constellation.drawing.entities.SpiralXY;
+import constellation.drawing.entities.SplineXY;
+import constellation.drawing.entities.TextNoteXY;
+import constellation.drawing.entities.UserImage;
+import constellation.model.DefaultGeometricModel;
+import constellation.model.DraftingStandards;
+import constellation.model.Filter;
+import constellation.model.GeometricModel;
+import constellation.model.LayerSource;
+import constellation.model.Units;
+import constellation.util.CxFileUtilities;
+
+/**
+ * Constellation Binary Model File Reader. The file is memory-mapped (in 
+ * windows, since a file may exceed the size of a single mapping), and its
+ * sections are decoded in parallel: first the user images, and then the 
+ * element blocks. The decoded elements are added to the model in the order
+ * in which they were written. Strings are decoded as they are referenced. 
+ * In paged mode, only the layer index is read up front, and the blocks of 
+ * each layer are decoded once the layer is first made visible; the label 
+ * index is probed in place. The file then remains open (and its windows are
+ * mapped as they are needed) for as long as the model is in use.
+ * @see CxBinaryModelLayout
+ * @author lawrence.daniels@gmail.com
+ */
+class CxBinaryModelReader {
+	// the spacing of the mapped windows of the file; each window spans two 
+	// of these, so that any region no longer than one lies within a window
+	private static final long WINDOW_SIZE = 64L * 1024L * 1024L;
+	
+	// internal fields
+	private static final Logger logger = Logger.getLogger( CxBinaryModelReader.class );
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final AtomicReferenceArray<ByteBuffer> windows;
+	private final long size;
+	private final DefaultGeometricModel model;
+	private final List<long[]> directory;
+	private final boolean paged;
+	private ByteBuffer stringBuffer;
+	private int stringIndexOffset;
+	private int stringCount;
+	private Map<String, UserImage> images;
+
+	/**
+	 * Creates a new binary model reader
+	 * @param model the given {@link DefaultGeometricModel model} to populate
+	 * @param channel the given {@link FileChannel channel} of the file, or <tt>null</tt> to read the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer} containing the model, or <tt>null</tt> to read the given file
+	 * @param paged indicates whether the layers are to be loaded on demand
+	 * @throws IOException
+	 */
+	private CxBinaryModelReader( final DefaultGeometricModel model, 
+								 final FileChannel channel, 
+								 final ByteBuffer buffer, 
+								 final boolean paged ) 
+	throws IOException {
+		this.channel	= channel;
+		this.buffer		= buffer;
+		this.size		= ( channel != null ) ? channel.size() : buffer.limit();
+		this.windows	= ( channel != null ) ? new AtomicReferenceArray<ByteBuffer>( (int)( size / WINDOW_SIZE ) + 1 ) : null;
+		this.paged		= paged;
+		this.model		= model;
+		this.directory	= new ArrayList<long[]>();
+	}
+
+	/**
+	 * Loads the model file from disk
+	 * @param modelFile the given model {@link File file}
+	 * @param paged indicates whether the layers are to be loaded on demand
+	 * (only if the file contains a layer index)
+	 * @return the {@link GeometricModel model}
+	 * @throws IOException
+	 */
+	public static GeometricModel readFile( final File modelFile, final boolean paged )
+	throws IOException {
+		// open the file (its sections are mapped as they are read)
+		final FileChannel channel = FileChannel.open( modelFile.toPath(), StandardOpenOption.READ );
+		boolean keepOpen = false;
+		
+		// decode the model
+		try {
+			final CxBinaryModelReader reader = new CxBinaryModelReader( DefaultGeometricModel.newModel( modelFile ), channel, null, paged );
+			keepOpen = reader.read();
+			return reader.model;
+		}
+		catch( final BufferUnderflowException | IndexOutOfBoundsException e ) {
+			throw new IOException( format( "File '%s' is truncated or corrupt", modelFile.getName() ), e );
+		}
+		finally {
+			// unless the layers are loaded on demand, the file is no longer needed
+			// (the windows which have been mapped remain valid)
+			if( !keepOpen ) {
+				channel.close();
+			}
+		}
+	}
+	
+	/**
+	 * Decodes a model from the given buffer (e.g. a snapshot received from a remote host)
+	 * @param buffer the given {@link ByteBuffer buffer} containing a binary model
+	 * @return the {@link GeometricModel model}
+	 * @throws IOException
+	 */
+	public static GeometricModel readBuffer( final ByteBuffer buffer )
+	throws IOException {
+		try {
+			final CxBinaryModelReader reader = new CxBinaryModelReader( DefaultGeometricModel.newModel(), null, buffer, false );
+			reader.read();
+			return reader.model;
+		}
+		catch( final BufferUnderflowException | IndexOutOfBoundsException e ) {
+			throw new IOException( "The binary model is truncated or corrupt", e );
+		}
+	}
+
+	/**
+	 * Decodes the model
+	 * @return true, if the physical elements are to be loaded on demand (from the file)
+	 * @throws IOException
+	 */
+	private boolean read()
+	throws IOException {
+		// read the header and the section directory
+		readDirectory();
+
+		// locate the string table, and decode the user images in parallel
+		final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		final List<ImageDecoder> decoders = new ArrayList<ImageDecoder>();
+		for( final long[] entry : directory ) {
+			switch( (int)entry[0] ) {
+				case SECTION_STRINGS:
+					readStringTable( slice( entry ) );
+					break;
+
+				case SECTION_IMAGES:
+					final ByteBuffer in = slice( entry );
+					for( int count = in.getInt(); count > 0; count-- ) {
+						final int nameRef = in.getInt();
+						final byte[] content = new byte[ in.getInt() ];
+						in.get( content );
+						final ImageDecoder decoder = new ImageDecoder( nameRef, content );
+						decoders.add( decoder );
+						tasks.add( decoder );
+					}
+					break;
+			}
+		}
+		invokeAll( tasks );
+
+		// register the user images
+		images = new HashMap<String, UserImage>();
+		for( final ImageDecoder decoder : decoders ) {
+			final UserImage image = new UserImage( string( decoder.nameRef ), decoder.content, decoder.image );
+			images.put( image.getName(), image );
+			model.addUserImage( image );
+		}
+
+		// read the layer index (in paged mode)
+		final Map<Integer, List<long[]>> layerIndex = paged ? readLayerIndex() : null;
+		
+		// decode the element blocks in parallel
+		final List<Callable<List<ModelElement>>> blockTasks = new ArrayList<Callable<List<ModelElement>>>();
+		for( final long[] entry : directory ) {
+			switch( (int)entry[0] ) {
+				case SECTION_MODEL:		readModel( slice( entry ) ); break;
+				case SECTION_FILTERS:	readFilters( slice( entry ) ); break;
+				case SECTION_PHYSICAL:
+				case SECTION_PHANTOM:
+					// in paged mode, the physical elements are read on demand
+					if( ( entry[0] == SECTION_PHANTOM ) || ( layerIndex == null ) ) {
+						blockTasks.add( new Callable<List<ModelElement>>() {
+							public List<ModelElement> call() throws IOException {
+								return readElements( slice( entry ) );
+							}
+						} );
+					}
+					break;
+			}
+		}
+		final List<List<ModelElement>> blocks = invokeAll( blockTasks );
+
+		// add the elements to the model (in order)
+		int n = 0;
+		for( final long[] entry : directory ) {
+			switch( (int)entry[0] ) {
+				case SECTION_PHYSICAL:
+					if( layerIndex == null ) {
+						final List<ModelElement> elements = blocks.get( n++ );
+						model.resolveLabelConflicts( elements );
+						model.addPhysicalElements( elements ); 
+					}
+					break;
+					
+				case SECTION_PHANTOM:	
+					model.addPhantoms( blocks.get( n++ ) ); 
+					break;
+			}
+		}
+		
+		// the physical elements are loaded on demand
+		if( layerIndex != null ) {
+			model.setLayerSource( new BinaryLayerSource( layerIndex, readLabelIndex() ), true );
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Reads the layer index
+	 * @return the mapping of layers to their blocks (i.e. directory entries, 
+	 * followed by their number of elements), or <tt>null</tt> if the file has no layer index
+	 * @throws IOException
+	 */
+	private Map<Integer, List<long[]>> readLayerIndex()
+	throws IOException {
+		for( final long[] entry : directory ) {
+			if( entry[0] == SECTION_LAYERS ) {
+				final Map<Integer, List<long[]>> layerIndex = new HashMap<Integer, List<long[]>>();
+				final ByteBuffer in = slice( entry );
+				for( int count = in.getInt(); count > 0; count-- ) {
+					final int layer = in.getInt();
+					List<long[]> blocks = layerIndex.get( layer );
+					if( blocks == null ) {
+						blocks = new ArrayList<long[]>();
+						layerIndex.put( layer, blocks );
+					}
+					final int elements = in.getInt();
+					final long[] block = new long[] { SECTION_PHYSICAL, in.getLong(), in.getLong(), elements };
+					if( ( block[1] < 0 ) || ( block[2] < 0 ) || ( block[1] + block[2] > size ) ) {
+						throw new IOException( format( "A block of layer %d lies outside of the file", layer ) );
+					}
+					blocks.add( block );
+				}
+				return layerIndex;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Locates the label index; the index is probed in place (see {@link BinaryLayerSource#lookupLayer(String)})
+	 * @return the label index {@link ByteBuffer section buffer}, or <tt>null</tt> if the file has no label index
+	 * @throws IOException
+	 */
+	private ByteBuffer readLabelIndex()
+	throws IOException {
+		for( final long[] entry : directory ) {
+			if( entry[0] == SECTION_LABELS ) {
+				final ByteBuffer in = slice( entry );
+				final int slots = in.getInt( 4 );
+				if( ( slots <= 0 ) || ( ( slots & ( slots - 1 ) ) != 0 ) || ( 8L + 12L * slots > in.limit() ) ) {
+					throw new IOException( "The label index is corrupt" );
+				}
+				return in;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Locates the string table; the strings are decoded as they are referenced
+	 * @param in the given {@link ByteBuffer section buffer}
+	 * @throws IOException
+	 */
+	private void readStringTable( final ByteBuffer in )
+	throws IOException {
+		// the offsets of the strings precede their number
+		final int count = ( in.limit() >= 4 ) ? in.getInt( in.limit() - 4 ) : -1;
+		if( ( count < 0 ) || ( 4L * count + 4 > in.limit() ) ) {
+			throw new IOException( "The string table is corrupt" );
+		}
+		stringBuffer		= in;
+		stringCount			= count;
+		stringIndexOffset	= in.limit() - 4 - 4 * count;
+	}
+
+	/**
+	 * Reads the header and the section directory
+	 * @throws IOException
+	 */
+	private void readDirectory()
+	throws IOException {
+		// verify the header and the trailer
+		if( size < 24 ) {
+			throw new IOException( "Not a Constellation binary model file" );
+		}
+		final ByteBuffer header = region( 0, 8 );
+		final ByteBuffer trailer = region( size - 16, 16 );
+		if( ( header.getInt( 0 ) != MAGIC ) || ( trailer.getInt( 12 ) != MAGIC ) ) {
+			throw new IOException( "Not a Constellation binary model file" );
+		}
+		if( header.getInt( 4 ) != VERSION ) {
+			throw new IOException( format( "Unsupported binary model version %d", header.getInt( 4 ) ) );
+		}
+
+		// read the directory entries
+		final int count = trailer.getInt( 0 );
+		final long offset = trailer.getLong( 4 );
+		if( ( count < 0 ) || ( offset < 8 ) || ( offset + 20L * count > size - 16 ) ) {
+			throw new IOException( "The section directory lies outside of the file" );
+		}
+		final ByteBuffer in = region( offset, 20L * count );
+		for( int n = 0; n < count; n++ ) {
+			final long[] entry = new long[] { in.getInt(), in.getLong(), in.getLong() };
+			if( ( entry[1] < 0 ) || ( entry[2] < 0 ) || ( entry[1] + entry[2] > size ) ) {
+				throw new IOException( format( "Section #%d lies outside of the file", n ) );
+			}
+			directory.add( entry );
+		}
+	}
+
+	/**
+	 * Reads the model information
+	 * @param in the given {@link ByteBuffer section buffer}
+	 */
+	private void readModel( final ByteBuffer in ) {
+		model.setScale( in.getDouble() );
+		model.setUnit( Units.values()[ in.getInt() ] );
+		model.setDraftingStandard( DraftingStandards.values()[ in.getInt() ] );
+		model.setDefaultPattern( LinePatterns.values()[ in.getInt() ] );
+		model.setDefaultColor( new Color( in.getInt(), true ) );
+		model.setDescription( string( in.getInt() ) );
+		model.setAuthorName( string( in.getInt() ) );
+		model.setAuthorOrganization( string( in.getInt() ) );
+	}
+
+	/**
+	 * Reads the filters
+	 * @param in the given {@link ByteBuffer section buffer}
+	 */
+	private void readFilters( final ByteBuffer in ) {
+		for( int count = in.getInt(); count > 0; count-- ) {
+			final Filter filter = new Filter( string( in.getInt() ) );
+			final int layers = in.getInt();
+			for( int n = 0; n < layers; n += 8 ) {
+				final int bits = in.get();
+				for( int bit = 0; ( bit < 8 ) && ( n + bit < layers ); bit++ ) {
+					if( ( bits & ( 1 << bit ) ) != 0 ) {
+						filter.setLayerState( n + bit, true );
+					}
+				}
+			}
+			model.addFilter( filter );
+		}
+	}
+
+	/**
+	 * Reads a block of elements
+	 * @param in the given {@link ByteBuffer section buffer}
+	 * @return the list of {@link ModelElement elements}
+	 * @throws IOException
+	 */
+	private List<ModelElement> readElements( final ByteBuffer in )
+	throws IOException {
+		final int count = in.getInt();
+		final List<ModelElement> elements = new ArrayList<ModelElement>( count );
+		for( int n = 0; n < count; n++ ) {
+			// read the element's properties
+			final String label		= string( in.getInt() );
+			final int layer			= in.getInt();
+			final int thickness		= in.getInt();
+			final int pattern		= in.getInt();
+			final byte flags		= in.get();
+			final int rgb			= in.getInt();
+
+			// read the entity
+			final EntityRepresentation entity = readEntity( in );
+			if( entity != null ) {
+				final ModelElement element = new CxModelElement( entity );
+				element.setLabel( label );
+				element.setLayer( layer );
+				element.setThickness( thickness );
+				element.setPattern( LinePatterns.values()[ pattern ] );
+				element.setColor( ( ( flags & FLAG_COLOR ) != 0 ) ? new Color( rgb, true ) : null );
+				elements.add( element );
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * Reads an entity record
+	 * @param in the given {@link ByteBuffer section buffer}
+	 * @return the {@link EntityRepresentation entity}, or <tt>null</tt> if the record is empty
+	 * @throws IOException
+	 */
+	private EntityRepresentation readEntity( final ByteBuffer in )
+	throws IOException {
+		final byte type = in.get();
+		switch( type ) {
+			case ENTITY_NONE:
+				return null;
+
+			case ENTITY_ARC:
+				return new ArcXY( in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble() );
+
+			case ENTITY_CIRCLE:
+				return new CircleXY( in.getDouble(), in.getDouble(), in.getDouble() );
+
+			case ENTITY_COMMENT:
+				return new CommentXY( readPoint( in ), string( in.getInt() ) );
+
+			case ENTITY_COMPOSITION:
+				final CompositionXY composition = new CompositionXY();
+				for( int count = in.getInt(); count > 0; count-- ) {
+					final EntityRepresentation child = readEntity( in );
+					if( child != null ) {
+						composition.add( child );
+					}
+				}
+				return composition;
+
+			case ENTITY_ELLIPSE:
+				return new EllipseXY( in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble() );
+
+			case ENTITY_ELLIPTIC_ARC:
+				return new EllipticArcXY( in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble() );
+
+			case ENTITY_LINE:
+				return new LineXY( in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble() );
+
+			case ENTITY_PICTURE:
+				final PointXY location = readPoint( in );
+				final String imageName = string( in.getInt() );
+				final UserImage image = images.get( imageName );
+				if( image == null ) {
+					throw new IOException( format( "Image '%s' not found", imageName ) );
+				}
+				return new PictureXY( location, image );
+
+			case ENTITY_POINT:
+				return readPoint( in );
+
+			case ENTITY_POLYLINE:
+				return new PolyLineXY( readVertices( in ) );
+
+			case ENTITY_SPIRAL:
+				return new SpiralXY( in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getInt() );
+
+			case ENTITY_SPLINE:
+				return new SplineXY( readVertices( in ) );
+
+			case ENTITY_NURBS:
+				final int degree = in.getInt();
+				final PointXY[] controlPoints = readVertices( in );
+				final double[] knots = readValues( in );
+				final double[] weights = readValues( in );
+				return new NurbsCurveXY( degree, ( knots.length > 0 ) ? knots : null, controlPoints, ( weights.length > 0 ) ? weights : null );
+
+			case ENTITY_PARAMETRIC:
+				final String xEquation = string( in.getInt() );
+				final String yEquation = string( in.getInt() );
+				final double start = in.getDouble();
+				final double end = in.getDouble();
+				final double[] transform = readValues( in );
+				return new ParametricCurveXY( xEquation, yEquation, start, end, transform, in.getDouble() );
+
+			case ENTITY_TEXTNOTE:
+				return new TextNoteXY( readPoint( in ), string( in.getInt() ) );
+
+			default:
+				throw new IOException( format( "Unrecognized entity type %d", type ) );
+		}
+	}
+
+	/**
+	 * Reads a point
+	 * @param in the given {@link ByteBuffer section buffer}
+	 * @return the {@link PointXY point}
+	 */
+	private static PointXY readPoint( final ByteBuffer in ) {
+		return new PointXY( in.getDouble(), in.getDouble() );
+	}
+
+	/**
+	 * Reads an array of vertices
+	 * @param in the given {@link ByteBuffer section buffer}
+	 * @return the array of {@link PointXY vertices}
+	 */
+	private static PointXY[] readVertices( final ByteBuffer in ) {
+		final PointXY[] vertices = new PointXY[ in.getInt() ];
+		for( int n = 0; n < vertices.length; n++ ) {
+			vertices[n] = readPoint( in );
+		}
+		return vertices;
+	}
+
+	/**
+	 * Reads an array of values (e.g. knots)
+	 * @param in the given {@link ByteBuffer section buffer}
+	 * @return the array of values
+	 */
+	private static double[] readValues( final ByteBuffer in ) {
+		final double[] values = new double[ in.getInt() ];
+		for( int n = 0; n < values.length; n++ ) {
+			values[n] = in.getDouble();
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the string at the given index of the string table
+	 * @param index the given index (or -1)
+	 * @return the string, or <tt>null</tt> if the index is -1
+	 */
+	private String string( final int index ) {
+		if( index < 0 ) {
+			return null;
+		}
+		
+		final ByteBuffer in = stringBuffer.duplicate();
+		in.position( stringOffset( index ) );
+		final byte[] bytes = new byte[ in.getInt() ];
+		in.get( bytes );
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+	
+	/**
+	 * Indicates whether the string at the given index of the string table
+	 * consists of the given bytes; the string is not decoded.
+	 * @param index the given index
+	 * @param bytes the given (UTF-8 encoded) bytes
+	 * @return true, if the string consists of the bytes
+	 */
+	private boolean stringEquals( final int index, final byte[] bytes ) {
+		final int offset = stringOffset( index );
+		if( stringBuffer.getInt( offset ) != bytes.length ) {
+			return false;
+		}
+		for( int n = 0; n < bytes.length; n++ ) {
+			if( stringBuffer.get( offset + 4 + n ) != bytes[n] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the offset of the string at the given index within the string table
+	 * @param index the given index
+	 * @return the offset
+	 */
+	private int stringOffset( final int index ) {
+		if( index >= stringCount ) {
+			throw new IndexOutOfBoundsException( format( "String #%d does not exist", index ) );
+		}
+		return stringBuffer.getInt( stringIndexOffset + 4 * index );
+	}
+
+	/**
+	 * Returns an independent view of the given section
+	 * @param entry the given directory entry
+	 * @return the section {@link ByteBuffer buffer}
+	 * @throws IOException if the section cannot be mapped
+	 */
+	private ByteBuffer slice( final long[] entry )
+	throws IOException {
+		return region( entry[1], entry[2] );
+	}
+	
+	/**
+	 * Returns an independent view of the given region of the file; the view 
+	 * is sliced from the window containing the region (which is mapped once
+	 * it is first needed), or, if the region is longer than a window, the 
+	 * region is mapped by itself.
+	 * @param offset the given offset of the region
+	 * @param length the given length of the region
+	 * @return the region's {@link ByteBuffer buffer}
+	 * @throws IOException if the region lies outside of the file, or cannot be mapped
+	 */
+	private ByteBuffer region( final long offset, final long length )
+	throws IOException {
+		if( ( offset < 0 ) || ( length < 0 ) || ( length > Integer.MAX_VALUE ) || ( offset + length > size ) ) {
+			throw new IOException( format( "The region of %d bytes at offset %d cannot be read", length, offset ) );
+		}
+		
+		// determine the buffer containing the region
+		final ByteBuffer source;
+		final long base;
+		if( channel == null ) {
+			source	= buffer;
+			base	= 0;
+		}
+		else {
+			final int index = (int)( offset / WINDOW_SIZE );
+			base = index * WINDOW_SIZE;
+			if( offset + length > base + 2 * WINDOW_SIZE ) {
+				return channel.map( FileChannel.MapMode.READ_ONLY, offset, length );
+			}
+			
+			// map the window (once; the windows remain mapped while the reader is in use)
+			ByteBuffer window = windows.get( index );
+			if( window == null ) {
+				window = channel.map( FileChannel.MapMode.READ_ONLY, base, Math.min( 2 * WINDOW_SIZE, size - base ) );
+				windows.set( index, window );
+			}
+			source = window;
+		}
+		
+		// slice the region
+		final ByteBuffer in = source.duplicate();
+		in.position( (int)( offset - base ) );
+		in.limit( (int)( offset - base + length ) );
+		return in.slice();
+	}
+
+	/**
+	 * Executes the given tasks in parallel, and waits for them to complete
+	 * @param tasks the given collection of {@link Callable tasks}
+	 * @return the results of the tasks (in order)
+	 * @throws IOException
+	 */
+	private static <T> List<T> invokeAll( final List<Callable<T>> tasks )
+	throws IOException {
+		final List<T> results = new ArrayList<T>( tasks.size() );
+		try {
+			for( final Future<T> future : ForkJoinPool.commonPool().invokeAll( tasks ) ) {
+				results.add( future.get() );
+			}
+		}
+		catch( final InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new IOException( "Interrupted while reading the model", e );
+		}
+		catch( final ExecutionException e ) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof IOException ) {
+				throw (IOException)cause;
+			}
+			if( cause instanceof RuntimeException ) {
+				throw (RuntimeException)cause;
+			}
+			throw new IOException( cause );
+		}
+		return results;
+	}
+
+	/**
+	 * Loads the layers of the model from the (memory-mapped) file on demand
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class BinaryLayerSource implements LayerSource {
+		private final Map<Integer, List<long[]>> layerIndex;
+		private final ByteBuffer labelIndex;
+		
+		/**
+		 * Creates a new layer source
+		 * @param layerIndex the given mapping of layers to their blocks
+		 * @param labelIndex the given label index {@link ByteBuffer section buffer}, 
+		 * or <tt>null</tt> if the file has none
+		 */
+		public BinaryLayerSource( final Map<Integer, List<long[]>> layerIndex, 
+								  final ByteBuffer labelIndex ) {
+			this.layerIndex = layerIndex;
+			this.labelIndex = labelIndex;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see constellation.model.LayerSource#containsLayer(int)
+		 */
+		public boolean containsLayer( final int layer ) {
+			return layerIndex.containsKey( layer );
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see constellation.model.LayerSource#getElementCount(int)
+		 */
+		public int getElementCount( final int layer ) {
+			// the layer index holds the number of elements of each block
+			int count = 0;
+			final List<long[]> blocks = layerIndex.get( layer );
+			if( blocks != null ) {
+				for( final long[] entry : blocks ) {
+					count += (int)entry[3];
+				}
+			}
+			return count;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see constellation.drawing.LabelRegistry#containsLabel(java.lang.String)
+		 */
+		public boolean containsLabel( final String label ) {
+			return lookupLayer( label ) >= 0;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see constellation.model.LayerSource#lookupLayer(java.lang.String)
+		 */
+		public int lookupLayer( final String label ) {
+			if( ( labelIndex == null ) || ( label == null ) ) {
+				return -1;
+			}
+			
+			// probe the slots, beginning with the slot of the label's hash, until an empty one is found
+			final byte[] bytes = label.getBytes( StandardCharsets.UTF_8 );
+			final int hash = labelHash( label );
+			final int slots = labelIndex.getInt( 4 );
+			for( int n = 0, slot = hash & ( slots - 1 ); n < slots; n++, slot = ( slot + 1 ) & ( slots - 1 ) ) {
+				final int offset = 8 + 12 * slot;
+				final int stringRef = labelIndex.getInt( offset + 4 );
+				if( stringRef < 0 ) {
+					break;
+				}
+				if( ( labelIndex.getInt( offset ) == hash ) && stringEquals( stringRef, bytes ) ) {
+					return labelIndex.getInt( offset + 8 );
+				}
+			}
+			return -1;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see constellation.model.LayerSource#loadLayer(int)
+		 */
+		public Collection<ModelElement> loadLayer( final int layer )
+		throws IOException {
+			// decode the layer's blocks in parallel
+			final List<Callable<List<ModelElement>>> tasks = new ArrayList<Callable<List<ModelElement>>>();
+			final List<long[]> blocks = layerIndex.get( layer );
+			if( blocks != null ) {
+				for( final long[] entry : blocks ) {
+					tasks.add( new Callable<List<ModelElement>>() {
+						public List<ModelElement> call() throws IOException {
+							return readElements( slice( entry ) );
+						}
+					} );
+				}
+			}
+			
+			// combine the blocks
+			final List<ModelElement> elements = new ArrayList<ModelElement>();
+			try {
+				for( final List<ModelElement> block : invokeAll( tasks ) ) {
+					elements.addAll( block );
+				}
+			}
+			catch( final BufferUnderflowException | IndexOutOfBoundsException e ) {
+				throw new IOException( format( "Layer %d is truncated or corrupt", layer ), e );
+			}
+			return elements;
+		}
+	}
+
+	/**
+	 * Decodes the content of a user image
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class ImageDecoder implements Callable<Object> {
+		private final int nameRef;
+		private final byte[] content;
+		private BufferedImage image;
+
+		/**
+		 * Creates a new image decoder
+		 * @param nameRef the given string reference of the image's name
+		 * @param content the given image content
+		 */
+		public ImageDecoder( final int nameRef, final byte[] content ) {
+			this.nameRef	= nameRef;
+			this.content	= content;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		public Object call() throws IOException {
+			image = CxFileUtilities.readImage( content );
+			if( image == null ) {
+				logger.warn( "Unsupported image content" );
+			}
+			return null;
+		}
+	}
+
+}
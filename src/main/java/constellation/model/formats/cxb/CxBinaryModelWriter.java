@@ -0,0 +1,699 @@
+package constellation.model.formats.cxb;
+
+import static constellation.model.formats.cxb.CxBinaryModelLayout.*;
+import static java.lang.String.format;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import constellation.drawing.EntityRepresentation;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.ArcXY;
+import constellation.drawing.entities.CircleXY;
+import constellation.drawing.entities.CommentXY;
+import constellation.drawing.entities.CompositionXY;
+import constellation.drawing.entities.EllipseXY;
+import constellation.drawing.entities.EllipticArcXY;
+import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.ParametricCurveXY;
+import constellation.drawing.entities.PictureXY;
+import constellation.drawing.entities.PointXY;
+import constellation.drawing.entities.PolyLineXY;
+import constellation.drawing.entities.SpiralXY;
+import constellation.drawing.entities.SplineXY;
+import constellation.drawing.entities.TextNoteXY;
+import constellation.drawing.entities.UserImage;
+import constellation.drawing.entities.VerticesXY;
+import constellation.model.Filter;
+import constellation.model.GeometricModel;
+
+/**
+ * Constellation Binary Model File Writer. The model is streamed to disk
+ * section by section; the string table and the section directory are
+ * written last. The model is written to a temporary file, which replaces
+ * the model file once it is complete; thus a paged model, which loads its
+ * layers from the file it was read from, may be saved to that same file.
+ * @see CxBinaryModelLayout
+ * @author lawrence.daniels@gmail.com
+ */
+class CxBinaryModelWriter {
+	// the (preferred) maximum size of a section of user images
+	private static final long IMAGE_SECTION_SIZE = 64L * 1024L * 1024L;
+	
+	// internal fields
+	private static final Logger logger = Logger.getLogger( CxBinaryModelWriter.class );
+	private final Map<String, Integer> stringIndices;
+	private final List<String> strings;
+	private final List<long[]> directory;
+	private final CountingOutputStream counter;
+	private final DataOutputStream out;
+
+	/**
+	 * Creates a new binary model writer
+	 * @param stream the given {@link OutputStream output stream}
+	 */
+	private CxBinaryModelWriter( final OutputStream stream ) {
+		this.counter		= new CountingOutputStream( stream );
+		this.out			= new DataOutputStream( counter );
+		this.stringIndices	= new HashMap<String, Integer>();
+		this.strings		= new ArrayList<String>();
+		this.directory		= new LinkedList<long[]>();
+	}
+
+	/**
+	 * Saves the given model to disk
+	 * @param model the given {@link GeometricModel model}
+	 * @throws IOException
+	 */
+	public static void writeFile( final GeometricModel model )
+	throws IOException {
+		// write the model to a temporary file alongside the model file
+		final File modelFile = model.getModelFile().getAbsoluteFile();
+		final File tempFile = File.createTempFile( modelFile.getName(), ".tmp", modelFile.getParentFile() );
+		boolean written = false;
+		OutputStream stream = null;
+		try {
+			// open the file for writing
+			stream = new BufferedOutputStream( new FileOutputStream( tempFile ), 65536 );
+
+			// write the model
+			new CxBinaryModelWriter( stream ).write( model );
+
+			// flush the buffer
+			stream.flush();
+			stream.close();
+			stream = null;
+			
+			// replace the model file
+			Files.move( tempFile.toPath(), modelFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+			written = true;
+		}
+		finally {
+			if( stream != null ) {
+				try { stream.close(); } catch( Exception e ) { }
+			}
+			if( !written && !tempFile.delete() ) {
+				logger.warn( format( "Failed to delete temporary file '%s'", tempFile.getName() ) );
+			}
+		}
+	}
+	
+	/**
+	 * Writes the given model to the given stream (e.g. as a snapshot for a remote host)
+	 * @param model the given {@link GeometricModel model}
+	 * @param stream the given {@link OutputStream output stream}
+	 * @throws IOException
+	 */
+	public static void writeStream( final GeometricModel model, final OutputStream stream )
+	throws IOException {
+		new CxBinaryModelWriter( stream ).write( model );
+		stream.flush();
+	}
+
+	/**
+	 * Writes the given model to the output stream
+	 * @param model the given {@link GeometricModel model}
+	 * @throws IOException
+	 */
+	private void write( final GeometricModel model )
+	throws IOException {
+		// write the header
+		out.writeInt( MAGIC );
+		out.writeInt( VERSION );
+
+		// write the model information
+		long offset = position();
+		writeModel( model );
+		endSection( SECTION_MODEL, offset );
+
+		// write the filters
+		offset = position();
+		writeFilters( model.getFilters() );
+		endSection( SECTION_FILTERS, offset );
+
+		// write the user images
+		writeUserImages( model.getUserImages() );
+
+		// write the physical elements (grouped by layer)
+		final List<long[]> layerIndex = new LinkedList<long[]>();
+		final List<List<ModelElement>> layers = groupByLayer( model.getPhysicalElements() );
+		for( int layer = 0; layer < layers.size(); layer++ ) {
+			final List<ModelElement> elements = layers.get( layer );
+			final int first = directory.size();
+			writeElements( SECTION_PHYSICAL, elements );
+			
+			// record the block's offset and length, and its number of elements
+			int remaining = elements.size();
+			for( final long[] entry : directory.subList( first, directory.size() ) ) {
+				layerIndex.add( new long[] { layer, Math.min( remaining, BLOCK_SIZE ), entry[1], entry[2] } );
+				remaining -= BLOCK_SIZE;
+			}
+		}
+
+		// write the phantom elements
+		final LinkedList<ModelElement> phantoms = new LinkedList<ModelElement>();
+		model.getPhantomElements( phantoms );
+		writeElements( SECTION_PHANTOM, phantoms );
+
+		// write the layer index
+		offset = position();
+		out.writeInt( layerIndex.size() );
+		for( final long[] entry : layerIndex ) {
+			out.writeInt( (int)entry[0] );
+			out.writeInt( (int)entry[1] );
+			out.writeLong( entry[2] );
+			out.writeLong( entry[3] );
+		}
+		endSection( SECTION_LAYERS, offset );
+
+		// write the label index
+		offset = position();
+		writeLabels( layers );
+		endSection( SECTION_LABELS, offset );
+
+		// write the string table (it is complete only now)
+		offset = position();
+		writeStrings();
+		endSection( SECTION_STRINGS, offset );
+
+		// write the section directory
+		final long directoryOffset = position();
+		for( final long[] entry : directory ) {
+			out.writeInt( (int)entry[0] );
+			out.writeLong( entry[1] );
+			out.writeLong( entry[2] );
+		}
+		out.writeInt( directory.size() );
+		out.writeLong( directoryOffset );
+		out.writeInt( MAGIC );
+	}
+
+	/**
+	 * Writes the model information
+	 * @param model the given {@link GeometricModel model}
+	 * @throws IOException
+	 */
+	private void writeModel( final GeometricModel model )
+	throws IOException {
+		out.writeDouble( model.getScale() );
+		out.writeInt( model.getUnit().ordinal() );
+		out.writeInt( model.getDraftingStandard().ordinal() );
+		out.writeInt( model.getDefaultPattern().ordinal() );
+		out.writeInt( model.getDefaultColor().getRGB() );
+		out.writeInt( stringRef( model.getDescription() ) );
+		out.writeInt( stringRef( model.getAuthorName() ) );
+		out.writeInt( stringRef( model.getAuthorOrganization() ) );
+	}
+
+	/**
+	 * Writes the (non-system) filters
+	 * @param filters the given collection of {@link Filter filters}
+	 * @throws IOException
+	 */
+	private void writeFilters( final Collection<Filter> filters )
+	throws IOException {
+		// determine the filters to write
+		final List<Filter> userFilters = new LinkedList<Filter>();
+		for( final Filter filter : filters ) {
+			if( !filter.isSystemFilter() ) {
+				userFilters.add( filter );
+			}
+		}
+
+		// write the filters
+		out.writeInt( userFilters.size() );
+		for( final Filter filter : userFilters ) {
+			out.writeInt( stringRef( filter.getName() ) );
+
+			// write the layer states as a bit set
+			final boolean[] states = filter.getLayerStates();
+			out.writeInt( states.length );
+			for( int n = 0; n < states.length; n += 8 ) {
+				int bits = 0;
+				for( int bit = 0; ( bit < 8 ) && ( n + bit < states.length ); bit++ ) {
+					if( states[ n + bit ] ) {
+						bits |= ( 1 << bit );
+					}
+				}
+				out.writeByte( bits );
+			}
+		}
+	}
+
+	/**
+	 * Writes the user images; the images are written as raw (encoded) content,
+	 * in as many sections as are needed to keep each section reasonably sized.
+	 * @param images the given collection of {@link UserImage user images}
+	 * @throws IOException
+	 */
+	private void writeUserImages( final Collection<UserImage> images )
+	throws IOException {
+		final List<UserImage> section = new ArrayList<UserImage>();
+		long length = 0;
+		for( final UserImage image : images ) {
+			// is the section full?
+			final int contentLength = image.getContent().length;
+			if( !section.isEmpty() && ( length + contentLength > IMAGE_SECTION_SIZE ) ) {
+				writeUserImageSection( section );
+				section.clear();
+				length = 0;
+			}
+			section.add( image );
+			length += contentLength;
+		}
+		writeUserImageSection( section );
+	}
+	
+	/**
+	 * Writes a section of user images
+	 * @param images the given list of {@link UserImage user images}
+	 * @throws IOException
+	 */
+	private void writeUserImageSection( final List<UserImage> images )
+	throws IOException {
+		final long offset = position();
+		out.writeInt( images.size() );
+		for( final UserImage image : images ) {
+			final byte[] content = image.getContent();
+			out.writeInt( stringRef( image.getName() ) );
+			out.writeInt( content.length );
+			out.write( content );
+		}
+		endSection( SECTION_IMAGES, offset );
+	}
+
+	/**
+	 * Groups the given elements by layer
+	 * @param elements the given collection of {@link ModelElement elements}
+	 * @return the list of elements for each layer
+	 */
+	private static List<List<ModelElement>> groupByLayer( final Collection<ModelElement> elements ) {
+		final List<List<ModelElement>> layers = new ArrayList<List<ModelElement>>( Filter.TOTAL_LAYERS );
+		for( int n = 0; n < Filter.TOTAL_LAYERS; n++ ) {
+			layers.add( new ArrayList<ModelElement>() );
+		}
+		synchronized( elements ) {
+			for( final ModelElement element : elements ) {
+				layers.get( element.getLayer() ).add( element );
+			}
+		}
+		return layers;
+	}
+
+	/**
+	 * Writes the label index; i.e. a hash table of the layer of each labeled element
+	 * @param layers the given list of elements for each layer
+	 * @throws IOException
+	 */
+	private void writeLabels( final List<List<ModelElement>> layers )
+	throws IOException {
+		// determine the number of labeled elements
+		int count = 0;
+		for( final List<ModelElement> elements : layers ) {
+			for( final ModelElement element : elements ) {
+				if( element.getLabel() != null ) {
+					count++;
+				}
+			}
+		}
+		
+		// size the table (at most two-thirds full, so that probes remain short)
+		int slots = 1;
+		while( slots < count + ( count >> 1 ) + 1 ) {
+			slots <<= 1;
+		}
+		
+		// place the labels (in the first empty slot from the slot of the label's hash)
+		final int[] hashes = new int[ slots ];
+		final int[] labelRefs = new int[ slots ];
+		final int[] labelLayers = new int[ slots ];
+		Arrays.fill( labelRefs, -1 );
+		for( int layer = 0; layer < layers.size(); layer++ ) {
+			for( final ModelElement element : layers.get( layer ) ) {
+				if( element.getLabel() != null ) {
+					final int hash = labelHash( element.getLabel() );
+					int slot = hash & ( slots - 1 );
+					while( labelRefs[slot] != -1 ) {
+						slot = ( slot + 1 ) & ( slots - 1 );
+					}
+					hashes[slot]		= hash;
+					labelRefs[slot]		= stringRef( element.getLabel() );
+					labelLayers[slot]	= layer;
+				}
+			}
+		}
+		
+		// write the table
+		out.writeInt( count );
+		out.writeInt( slots );
+		for( int slot = 0; slot < slots; slot++ ) {
+			out.writeInt( hashes[slot] );
+			out.writeInt( labelRefs[slot] );
+			out.writeInt( labelLayers[slot] );
+		}
+	}
+
+	/**
+	 * Writes the given elements as a series of blocks
+	 * @param sectionType the given section type
+	 * @param elements the given collection of {@link ModelElement elements}
+	 * @throws IOException
+	 */
+	private void writeElements( final int sectionType, final Collection<ModelElement> elements )
+	throws IOException {
+		final Iterator<ModelElement> it = elements.iterator();
+		int remaining = elements.size();
+		while( remaining > 0 ) {
+			final int count = ( remaining < BLOCK_SIZE ) ? remaining : BLOCK_SIZE;
+			final long offset = position();
+			out.writeInt( count );
+			for( int n = 0; n < count; n++ ) {
+				writeElement( it.next() );
+			}
+			endSection( sectionType, offset );
+			remaining -= count;
+		}
+	}
+
+	/**
+	 * Writes the given element record
+	 * @param element the given {@link ModelElement element}
+	 * @throws IOException
+	 */
+	private void writeElement( final ModelElement element )
+	throws IOException {
+		out.writeInt( stringRef( element.getLabel() ) );
+		out.writeInt( element.getLayer() );
+		out.writeInt( element.getThickness() );
+		out.writeInt( element.getPattern().ordinal() );
+		out.writeByte( ( element.getColor() != null ) ? FLAG_COLOR : 0 );
+		out.writeInt( ( element.getColor() != null ) ? element.getColor().getRGB() : 0 );
+		writeEntity( element.getRepresentation() );
+	}
+
+	/**
+	 * Writes the given entity record
+	 * @param entity the given {@link EntityRepresentation entity}
+	 * @throws IOException
+	 */
+	private void writeEntity( final EntityRepresentation entity )
+	throws IOException {
+		switch( entity.getType() ) {
+			case ARC:
+				final ArcXY arc = (ArcXY)entity;
+				out.writeByte( ENTITY_ARC );
+				out.writeDouble( arc.getCenterX() );
+				out.writeDouble( arc.getCenterY() );
+				out.writeDouble( arc.getRadius() );
+				out.writeDouble( arc.getAngleStart() );
+				out.writeDouble( arc.getAngleEnd() );
+				break;
+
+			case CIRCLE:
+				final CircleXY circle = (CircleXY)entity;
+				out.writeByte( ENTITY_CIRCLE );
+				out.writeDouble( circle.getCenterX() );
+				out.writeDouble( circle.getCenterY() );
+				out.writeDouble( circle.getRadius() );
+				break;
+
+			case COMMENT:
+				final CommentXY comment = (CommentXY)entity;
+				out.writeByte( ENTITY_COMMENT );
+				writePoint( comment.getLocation() );
+				out.writeInt( stringRef( comment.getTextString() ) );
+				break;
+
+			case COMPOSITION:
+				final List<EntityRepresentation> entities = ((CompositionXY)entity).getElements();
+				out.writeByte( ENTITY_COMPOSITION );
+				out.writeInt( entities.size() );
+				for( final EntityRepresentation child : entities ) {
+					writeEntity( child );
+				}
+				break;
+
+			case ELLIPSE:
+				final EllipseXY ellipse = (EllipseXY)entity;
+				out.writeByte( ENTITY_ELLIPSE );
+				out.writeDouble( ellipse.getCenterX() );
+				out.writeDouble( ellipse.getCenterY() );
+				out.writeDouble( ellipse.getWidth() );
+				out.writeDouble( ellipse.getHeight() );
+				break;
+
+			case ELLIPTIC_ARC:
+				final EllipticArcXY ellipticArc = (EllipticArcXY)entity;
+				out.writeByte( ENTITY_ELLIPTIC_ARC );
+				out.writeDouble( ellipticArc.getCenterX() );
+				out.writeDouble( ellipticArc.getCenterY() );
+				out.writeDouble( ellipticArc.getWidth() );
+				out.writeDouble( ellipticArc.getHeight() );
+				out.writeDouble( ellipticArc.getAngleStart() );
+				out.writeDouble( ellipticArc.getAngleEnd() );
+				break;
+
+			case LINE:
+				final LineXY line = (LineXY)entity;
+				out.writeByte( ENTITY_LINE );
+				out.writeDouble( line.getX1() );
+				out.writeDouble( line.getY1() );
+				out.writeDouble( line.getX2() );
+				out.writeDouble( line.getY2() );
+				break;
+
+			case PICTURE:
+				final PictureXY picture = (PictureXY)entity;
+				out.writeByte( ENTITY_PICTURE );
+				writePoint( picture.getLocation() );
+				out.writeInt( stringRef( picture.getUserImage().getName() ) );
+				break;
+
+			case POINT:
+				out.writeByte( ENTITY_POINT );
+				writePoint( (PointXY)entity );
+				break;
+
+			case POLYLINE:
+				out.writeByte( ENTITY_POLYLINE );
+				writeVertices( ((PolyLineXY)entity).getLimits() );
+				break;
+
+			case SPIRAL:
+				final SpiralXY spiral = (SpiralXY)entity;
+				out.writeByte( ENTITY_SPIRAL );
+				out.writeDouble( spiral.getCenterX() );
+				out.writeDouble( spiral.getCenterY() );
+				out.writeDouble( spiral.getRadius() );
+				out.writeDouble( spiral.getIncrement() );
+				out.writeInt( spiral.getRevolutions() );
+				break;
+
+			case SPLINE:
+				out.writeByte( ENTITY_SPLINE );
+				writeVertices( ((SplineXY)entity).getLimits() );
+				break;
+
+			case NURBS:
+				final NurbsCurveXY nurbs = (NurbsCurveXY)entity;
+				out.writeByte( ENTITY_NURBS );
+				out.writeInt( nurbs.getDegree() );
+				writeVertices( nurbs.getLimits() );
+				writeValues( nurbs.isUniform() ? new double[0] : nurbs.getKnots() );
+				writeValues( nurbs.isRational() ? nurbs.getWeights() : new double[0] );
+				break;
+
+			case PARAMETRIC:
+				final ParametricCurveXY curve = (ParametricCurveXY)entity;
+				out.writeByte( ENTITY_PARAMETRIC );
+				out.writeInt( stringRef( curve.getXEquation() ) );
+				out.writeInt( stringRef( curve.getYEquation() ) );
+				out.writeDouble( curve.getStart() );
+				out.writeDouble( curve.getEnd() );
+				writeValues( curve.getTransform() );
+				out.writeDouble( curve.getOffset() );
+				break;
+
+			case TEXTNOTE:
+				final TextNoteXY note = (TextNoteXY)entity;
+				out.writeByte( ENTITY_TEXTNOTE );
+				writePoint( note.getLocation() );
+				out.writeInt( stringRef( note.getTextString() ) );
+				break;
+
+			default:
+				logger.error( format( "No writer found for element type '%s'", entity.getClass().getName() ) );
+				out.writeByte( ENTITY_NONE );
+		}
+	}
+
+	/**
+	 * Writes the given point
+	 * @param point the given {@link PointXY point}
+	 * @throws IOException
+	 */
+	private void writePoint( final PointXY point )
+	throws IOException {
+		out.writeDouble( point.getX() );
+		out.writeDouble( point.getY() );
+	}
+
+	/**
+	 * Writes the given vertices
+	 * @param vertices the given {@link VerticesXY vertices}
+	 * @throws IOException
+	 */
+	private void writeVertices( final VerticesXY vertices )
+	throws IOException {
+		final int length = vertices.length();
+		out.writeInt( length );
+		for( int n = 0; n < length; n++ ) {
+			out.writeDouble( vertices.x[n] );
+			out.writeDouble( vertices.y[n] );
+		}
+	}
+
+	/**
+	 * Writes the given array of values (e.g. knots)
+	 * @param values the given array of values
+	 * @throws IOException
+	 */
+	private void writeValues( final double[] values )
+	throws IOException {
+		out.writeInt( values.length );
+		for( final double value : values ) {
+			out.writeDouble( value );
+		}
+	}
+
+	/**
+	 * Writes the string table; the strings are followed by their offsets, 
+	 * so that the reader may locate any string without scanning the table
+	 * @throws IOException
+	 */
+	private void writeStrings()
+	throws IOException {
+		final long start = position();
+		final int[] offsets = new int[ strings.size() ];
+		for( int n = 0; n < offsets.length; n++ ) {
+			final byte[] bytes = strings.get( n ).getBytes( StandardCharsets.UTF_8 );
+			offsets[n] = (int)( position() - start );
+			out.writeInt( bytes.length );
+			out.write( bytes );
+		}
+		for( final int offset : offsets ) {
+			out.writeInt( offset );
+		}
+		out.writeInt( offsets.length );
+	}
+
+	/**
+	 * Returns the index of the given string within the string table;
+	 * the string is added to the table if necessary.
+	 * @param string the given string
+	 * @return the index of the string, or -1 if the string is <tt>null</tt>
+	 */
+	private int stringRef( final String string ) {
+		if( string == null ) {
+			return -1;
+		}
+
+		Integer index = stringIndices.get( string );
+		if( index == null ) {
+			index = strings.size();
+			strings.add( string );
+			stringIndices.put( string, index );
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the number of bytes which have been written
+	 * @return the offset of the next byte to be written
+	 */
+	private long position() {
+		return counter.getCount();
+	}
+
+	/**
+	 * Adds a section, which started at the given offset, to the directory
+	 * @param type the given section type
+	 * @param offset the given offset of the section
+	 * @throws IOException if the section is too large to be mapped
+	 */
+	private void endSection( final int type, final long offset )
+	throws IOException {
+		final long length = position() - offset;
+		if( length > Integer.MAX_VALUE ) {
+			throw new IOException( format( "A section of type %d exceeds the maximum size of a section (2 GB)", type ) );
+		}
+		directory.add( new long[] { type, offset, length } );
+	}
+	
+	/**
+	 * An output stream which counts the bytes written to it; unlike 
+	 * {@link DataOutputStream#size()}, the count does not saturate at 2 GB.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+		private long count;
+		
+		/**
+		 * Creates a new counting output stream
+		 * @param out the given {@link OutputStream output stream}
+		 */
+		public CountingOutputStream( final OutputStream out ) {
+			super( out );
+		}
+		
+		/**
+		 * Returns the number of bytes written
+		 * @return the number of bytes
+		 */
+		public long getCount() {
+			return count;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.io.FilterOutputStream#write(int)
+		 */
+		@Override
+		public void write( final int b ) 
+		throws IOException {
+			out.write( b );
+			count++;
+		}
+		
+		/*
+		 * (non-Javadoc)
+		 * @see java.io.FilterOutputStream#write(byte[], int, int)
+		 */
+		@Override
+		public void write( final byte[] b, final int off, final int len ) 
+		throws IOException {
+			out.write( b, off, len );
+			count += len;
+		}
+	}
+
+}
@@ -1,5 +1,9 @@
 package constellation.model.formats.cxm;
 
+import static constellation.model.formats.cxm.CXMFormatReader.EXTENSION;
+import static java.lang.String.format;
+
+import java.io.File;
 import java.io.IOException;
 
 import javax.swing.filechooser.FileFilter;
@@ -29,6 +33,14 @@ public class CXMFormatWriter implements ModelFormatWriter {
 		return fileFilter;
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.model.formats.ModelFormatWriter#isCompatible(java.io.File)
+	 */
+	public boolean isCompatible( final File file ) {
+		return file.getName().toLowerCase().endsWith( format( ".%s", EXTENSION ) );
+	}
+	
 	/**
 	 * Saves the given project to disk
 	 * @param project the given {@link GeometricModel model}
@@ -15,6 +15,7 @@ import static java.lang.String.format;
 import java.awt.Color;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
@@ -41,6 +42,8 @@ import constellation.drawing.entities.CompositionXY;
 import constellation.drawing.entities.EllipseXY;
 import constellation.drawing.entities.EllipticArcXY;
 import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.ParametricCurveXY;
 import constellation.drawing.entities.PictureXY;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.PolyLineXY;
@@ -70,8 +73,8 @@ class CxNativeXMLModelReader extends DefaultHandler {
 	private static enum TAG_ENUMS { 
 		AUTHOR_NAME, CIRCLE, CIRCULAR_ARC, COMMENT, COMPOSITION,
 		ELLIPSE, ELLIPTIC_ARC, FILTER, INCLUDE_LAYER, LINE, MODEL, 
-		MODEL_COLORS, MODEL_DESC, MODEL_ELEM, ORGANIZATION_NAME, 
-		PHANTOM_ELEMS, PHYSICAL_ELEMS, PICTURE, POINT, POLYLINE, SPIRAL, 
+		MODEL_COLORS, MODEL_DESC, MODEL_ELEM, NURBS, ORGANIZATION_NAME, 
+		PARAMETRIC, PHANTOM_ELEMS, PHYSICAL_ELEMS, PICTURE, POINT, POLYLINE, SPIRAL, 
 		SPLINE, TEXT_NOTE, USER_IMAGE, USER_IMAGE_LIST, VERTEX
 	};
 	
@@ -103,6 +106,8 @@ class CxNativeXMLModelReader extends DefaultHandler {
 		TAGS.put( "Filter", 			TAG_ENUMS.FILTER );
 		TAGS.put( "IncludeLayer", 		TAG_ENUMS.INCLUDE_LAYER );
 		TAGS.put( "Line", 				TAG_ENUMS.LINE );
+		TAGS.put( "Nurbs", 				TAG_ENUMS.NURBS );
+		TAGS.put( "ParametricCurve", 	TAG_ENUMS.PARAMETRIC );
 		TAGS.put( "PhantomElements", 	TAG_ENUMS.PHANTOM_ELEMS );
 		TAGS.put( "PhysicalElements", 	TAG_ENUMS.PHYSICAL_ELEMS );
 		TAGS.put( "Picture", 			TAG_ENUMS.PICTURE );
@@ -208,6 +213,7 @@ class CxNativeXMLModelReader extends DefaultHandler {
 				case COMPOSITION:		compositionEnd( parentTag, text ); break;
 				case MODEL_DESC: 		modelDescriptionEnd( text ); break;
 				case MODEL_ELEM:		modelElementEnd( parentTag, attribs ); break;
+				case NURBS:				nurbsEnd( parentTag, attribs ); break;
 				case TEXT_NOTE:			textNoteEnd( parentTag, attribs, text ); break;
 				case ORGANIZATION_NAME:	organizationNameEnd( text ); break;
 				case POLYLINE:			polyLineEnd( parentTag ); break;
@@ -262,7 +268,9 @@ class CxNativeXMLModelReader extends DefaultHandler {
 				case MODEL:				modelStart( attribs ); break;
 				case MODEL_DESC:		break;
 				case MODEL_ELEM:		break;
+				case NURBS:				nurbsStart( parentTag, attribs ); break;
 				case ORGANIZATION_NAME:	break;
+				case PARAMETRIC:		parametricStart( parentTag, attribs ); break;
 				case PICTURE:			pictureStart( parentTag, attribs ); break;
 				case POINT:				pointStart( parentTag, attribs ); break;
 				case POLYLINE:			polyLineStart( parentTag, attribs ); break;
@@ -490,6 +498,7 @@ class CxNativeXMLModelReader extends DefaultHandler {
 		
 		// add the element to the model
 		if( parentTag == TAG_ENUMS.PHYSICAL_ELEMS ) {
+			model.resolveLabelConflicts( Collections.singletonList( element ) );
 			model.addPhysicalElement( element );
 		}
 		else {
@@ -552,6 +561,52 @@ class CxNativeXMLModelReader extends DefaultHandler {
 		attach( new PointXY( x, y ), parentTag );
 	}
 	
+	/** 
+	 * Handles the 'Nurbs' tag
+	 * @param parentTag the given parent {@link TAG_ENUMS tag}
+	 * @param attribs the given {@link Properties attributes}
+	 * @throws SAXException 
+	 */
+	private void nurbsStart( final TAG_ENUMS parentTag, final Properties attribs ) 
+	throws SAXException {		
+		// create the curve
+		currentVertexElem = new NurbsCurveXY( getParamInt( attribs, "degree", true ) );
+		
+		// attach the curve
+		attach( currentVertexElem, parentTag );
+	}
+	
+	/** 
+	 * Handles the 'Nurbs' tag; the knots and weights of the curve are 
+	 * applied once its control points (vertices) have been read.
+	 * @param parentTag the given parent {@link TAG_ENUMS tag}
+	 * @param attribs the given {@link Properties attributes}
+	 * @throws SAXException 
+	 */
+	private void nurbsEnd( final TAG_ENUMS parentTag, final Properties attribs ) 
+	throws SAXException {
+		final NurbsCurveXY curve = (NurbsCurveXY)currentVertexElem;
+		try {
+			// get the knots (if not implied)
+			final double[] knots = getParamDoubles( attribs, "knots" );
+			if( knots != null ) {
+				curve.setKnots( knots );
+			}
+			
+			// get the weights (if rational)
+			final double[] weights = getParamDoubles( attribs, "weights" );
+			if( weights != null ) {
+				curve.setWeights( weights );
+			}
+		}
+		catch( final IllegalArgumentException e ) {
+			throw new SAXException( format( "Invalid NURBS curve: %s", e.getMessage() ), e );
+		}
+		
+		// clear the curve
+		currentVertexElem = null;
+	}
+
 	/** 
 	 * Handles the 'PolyLine' tag
 	 * @param parentTag the given parent {@link TAG_ENUMS tag}
@@ -605,6 +660,33 @@ class CxNativeXMLModelReader extends DefaultHandler {
 		currentVertexElem = null;
 	}
 	
+	/** 
+	 * Handles the 'ParametricCurve' tag
+	 * @param parentTag the given parent {@link TAG_ENUMS tag}
+	 * @param attribs the given {@link Properties attributes}
+	 * @throws SAXException 
+	 */
+	private void parametricStart( final TAG_ENUMS parentTag, final Properties attribs ) 
+	throws SAXException {		
+		// get the parameters
+		final String xEquation		= getParamString( attribs, "xEquation", true );
+		final String yEquation		= getParamString( attribs, "yEquation", true );
+		final double start			= getParamDouble( attribs, "start" );
+		final double end			= getParamDouble( attribs, "end" );
+		final double[] transform	= getParamDoubles( attribs, "transform" );
+		final Double offset			= getParamDouble( attribs, "offset", false );
+		
+		// add the curve to the model
+		try {
+			attach( ( transform != null )
+					? new ParametricCurveXY( xEquation, yEquation, start, end, transform, ( offset != null ) ? offset : 0d )
+					: new ParametricCurveXY( xEquation, yEquation, start, end ), parentTag );
+		}
+		catch( final IllegalArgumentException e ) {
+			throw new SAXException( format( "Invalid parametric curve: %s", e.getMessage() ), e );
+		}
+	}
+	
 	/** 
 	 * Handles the 'Spiral' tag
 	 * @param parentTag the given parent {@link TAG_ENUMS tag}
@@ -791,27 +873,22 @@ class CxNativeXMLModelReader extends DefaultHandler {
 			return IGES_COLORS[ colorIndex ];
 		}
 		
-		// get the RGB string (e.g. "E0FFAB")
-		else if( colorString.length() != 6 ) {
+		// get the RGB string (e.g. "E0FFAB"), or the ARGB string (e.g. "FFE0FFAB")
+		else if( ( colorString.length() != 6 ) && ( colorString.length() != 8 ) ) {
 			throw new SAXException( format( "RGB parameter '%s' is not valid", colorString ) );
 		}
 		
 		// compute RGB integer value
-		int rgb = 0;
-		int multiplier = 1;
-		final char[] rgbChars = colorString.toCharArray();
-		for( int n = 0; n < rgbChars.length; n++ ) {
-			// get the HEX value of the character
-			final char ch = rgbChars[ rgbChars.length - n ];
-			final int hex = ( ch >= 'A' && ch <= 'F' ) ? ch - 'A' : ch - '0';
-			
-			// adjust the RGB value
-			rgb += hex * multiplier;
-			multiplier *= 0x10;
+		final int rgb;
+		try {
+			rgb = (int)Long.parseLong( colorString, 16 );
+		}
+		catch( final NumberFormatException e ) {
+			throw new SAXException( format( "RGB parameter '%s' is not valid", colorString ), e );
 		}
 		
 		// return the color value
-		return new Color( rgb );
+		return new Color( rgb, colorString.length() == 8 );
 	}
 
 	/** 
@@ -878,6 +955,35 @@ class CxNativeXMLModelReader extends DefaultHandler {
 		return attributes.getProperty( paramName );
 	}
 
+	/** 
+	 * Returns the (comma-separated) double values of parameter name
+	 * @param attributes the given {@link Properties parameter mapping}
+	 * @param paramName the given parameter name
+	 * @return the double values, or <tt>null</tt> if the parameter does not exist
+	 * @throws SAXException
+	 */
+	protected static double[] getParamDoubles( final Properties attributes, final String paramName ) 
+	throws SAXException {
+		// does the parameter exist?
+		final String value = attributes.getProperty( paramName );
+		if( value == null ) {
+			return null;
+		}
+		
+		// convert the values to doubles
+		final String[] items = value.split( "," );
+		final double[] values = new double[ items.length ];
+		try {
+			for( int n = 0; n < items.length; n++ ) {
+				values[n] = Double.parseDouble( items[n].trim() );
+			}
+		}
+		catch( final NumberFormatException e ) {
+			throw new SAXException( format( "Invalid value '%s' for parameter '%s'", value, paramName ), e );
+		}
+		return values;
+	}
+
 	/** 
 	 * Returns the unit value of parameter name
 	 * @param attributes the given {@link Properties parameter mapping}
@@ -7,6 +7,8 @@ import static constellation.drawing.EntityTypes.COMPOSITION;
 import static constellation.drawing.EntityTypes.ELLIPSE;
 import static constellation.drawing.EntityTypes.ELLIPTIC_ARC;
 import static constellation.drawing.EntityTypes.LINE;
+import static constellation.drawing.EntityTypes.NURBS;
+import static constellation.drawing.EntityTypes.PARAMETRIC;
 import static constellation.drawing.EntityTypes.PICTURE;
 import static constellation.drawing.EntityTypes.POINT;
 import static constellation.drawing.EntityTypes.POLYLINE;
@@ -37,6 +39,8 @@ import constellation.drawing.entities.CompositionXY;
 import constellation.drawing.entities.EllipseXY;
 import constellation.drawing.entities.EllipticArcXY;
 import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.ParametricCurveXY;
 import constellation.drawing.entities.PictureXY;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.PolyLineXY;
@@ -249,6 +253,8 @@ class CxNativeXMLModelWriter {
 		map.put( ELLIPSE, 		new Writer_Ellipse() );
 		map.put( ELLIPTIC_ARC,	new Writer_EllipticArc() );
 		map.put( LINE, 			new Writer_Line() );
+		map.put( NURBS, 		new Writer_Nurbs() );
+		map.put( PARAMETRIC, 	new Writer_Parametric() );
 		map.put( PICTURE, 		new Writer_Picture() );
 		map.put( POINT,			new Writer_Point() );
 		map.put( POLYLINE,		new Writer_PolyLine() );
@@ -509,6 +515,93 @@ class CxNativeXMLModelWriter {
 		}
 	}
 	
+	/** 
+	 * Writer for NURBS Curve Elements
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class Writer_Nurbs implements DrawingElementWriter {
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see constellation.model.formats.cxm.CxNativeXMLModelWriter.DrawingElementWriter#write(java.io.PrintWriter, constellation.math.geometric.GeometricElement)
+		 */
+		public void write( final PrintWriter out, final EntityRepresentation element ) {
+			final NurbsCurveXY curve = (NurbsCurveXY)element; 
+			out.printf( "<Nurbs degree='%d'", curve.getDegree() );
+			
+			// encode the knots (if not implied) and weights (if rational) in full precision
+			if( !curve.isUniform() ) {
+				out.printf( " knots='%s'", join( curve.getKnots() ) );
+			}
+			if( curve.isRational() ) {
+				out.printf( " weights='%s'", join( curve.getWeights() ) );
+			}
+			out.println( ">" );
+			
+			// encode the control points
+			for( final PointXY vertex : curve.getControlPoints() ) {
+				out.printf( "<Vertex x='%.4f' y='%.4f'/>\n", vertex.getX(), vertex.getY() );
+			}
+			out.println( "</Nurbs>" );
+		}
+		
+		/**
+		 * Joins the given values into a comma-separated list
+		 * @param values the given values
+		 * @return the comma-separated list
+		 */
+		private String join( final double[] values ) {
+			final StringBuilder sb = new StringBuilder( values.length * 8 );
+			for( final double value : values ) {
+				if( sb.length() > 0 ) {
+					sb.append( ',' );
+				}
+				sb.append( value );
+			}
+			return sb.toString();
+		}
+	}
+	
+	/** 
+	 * Writer for Parametric Curve Elements
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class Writer_Parametric implements DrawingElementWriter {
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see constellation.model.formats.cxm.CxNativeXMLModelWriter.DrawingElementWriter#write(java.io.PrintWriter, constellation.math.geometric.GeometricElement)
+		 */
+		public void write( final PrintWriter out, final EntityRepresentation element ) {
+			final ParametricCurveXY curve = (ParametricCurveXY)element;
+			
+			// encode the equations, range and placement in full precision
+			final StringBuilder transform = new StringBuilder( 64 );
+			for( final double value : curve.getTransform() ) {
+				if( transform.length() > 0 ) {
+					transform.append( ',' );
+				}
+				transform.append( value );
+			}
+			out.printf( "<ParametricCurve xEquation='%s' yEquation='%s' start='%s' end='%s' transform='%s' offset='%s' />\n",
+					escape( curve.getXEquation() ),
+					escape( curve.getYEquation() ),
+					curve.getStart(),
+					curve.getEnd(),
+					transform,
+					curve.getOffset() );
+		}
+		
+		/**
+		 * Escapes the XML markup characters of the given attribute value
+		 * @param value the given attribute value
+		 * @return the escaped attribute value
+		 */
+		private String escape( final String value ) {
+			return value.replace( "&", "&amp;" ).replace( "<", "&lt;" ).replace( "'", "&apos;" );
+		}
+	}
+	
 	/** 
 	 * Writer for Spiral Elements
 	 * @author lawrence.daniels@gmail.com
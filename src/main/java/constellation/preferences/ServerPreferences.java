@@ -16,5 +16,11 @@ public interface ServerPreferences {
 	 * The default port for a CXM Peer-to-Peer Session
 	 */
 	int DEFAULT_PEER_TO_PEER_PORT = 3344;
+	
+	/**
+	 * The default maximum number of peers of a hosted session
+	 * (a host which accepts more than one peer acts as a hub)
+	 */
+	int DEFAULT_MAX_PEERS = 1;
 
 }
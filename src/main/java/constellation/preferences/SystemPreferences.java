@@ -93,6 +93,45 @@ public interface SystemPreferences {
 	 */
 	void setAntiAliasing( boolean on );
 	
+	/**
+	 * Indicates whether retained rendering is turned on; when on, the static
+	 * scene is cached off-screen and only redrawn when the model or view changes.
+	 * @return true, if retained rendering is turned on
+	 */
+	boolean isRetainedRendering();
+	
+	/** 
+	 * Turns retained rendering on/off
+	 * @param on if true, retained rendering is turned on, otherwise turned off
+	 */
+	void setRetainedRendering( boolean on );
+	
+	/**
+	 * Returns the level-of-detail threshold; elements whose projected size
+	 * (in pixels) falls below the threshold are drawn as a single dot.
+	 * @return the level-of-detail threshold in pixels (0 to disable)
+	 */
+	int getDetailThreshold();
+	
+	/** 
+	 * Sets the level-of-detail threshold
+	 * @param pixels the given threshold in pixels (0 to disable)
+	 */
+	void setDetailThreshold( int pixels );
+	
+	/**
+	 * Returns the amount of memory which the undo history may occupy;
+	 * older actions are moved to a temporary file once it is exceeded.
+	 * @return the memory limit in megabytes
+	 */
+	int getUndoMemoryLimit();
+	
+	/** 
+	 * Sets the amount of memory which the undo history may occupy
+	 * @param megabytes the given memory limit in megabytes
+	 */
+	void setUndoMemoryLimit( int megabytes );
+	
 	/** 
 	 * Returns the axis color
 	 * @return the axis {@link Color color}
@@ -237,6 +276,12 @@ public interface SystemPreferences {
 	 */
 	void setTemporaryElementColor( Color color );
 	
+	/** 
+	 * Returns the epoch time of the last change to the preferences
+	 * @return the epoch time
+	 */
+	long getLastModifiedTime();
+	
 	/** 
 	 * Indicates whether the camera is in debug mode
 	 * @return true, if the camera is in debug mode
@@ -1,5 +1,6 @@
 package constellation.thirdparty.formats.gerber;
 
+import java.io.File;
 import java.io.IOException;
 
 import javax.swing.filechooser.FileFilter;
@@ -27,6 +28,13 @@ public class GerberCADFileWriter implements ModelFormatWriter {
 	public FileFilter getFileFilter() {
 		return fileFilter;
 	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean isCompatible( final File file ) {
+		return fileFilter.accept( file );
+	}
 
 	/**
 	 * {@inheritDoc}
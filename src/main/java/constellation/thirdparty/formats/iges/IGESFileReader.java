@@ -20,6 +20,8 @@ import constellation.thirdparty.formats.iges.elements.IGESElement;
  * problems with IBM mainframe computers because the mainframes used EBCDIC 
  * encoding for text, and some EBCDIC-ASCII translators would either substitute 
  * the wrong character, or improperly set the Parity bit, causing a misread.
+ * <p>The file is memory-mapped, and its records indexed by sequence number;
+ * the directory entries are then evaluated in parallel (see {@link IGESModel#toModel()}).
  * <br><a href="http://en.wikipedia.org/wiki/IGES">IGES Reference</a>
  * @author lawrence.daniels@gmail.com
  */
@@ -53,13 +55,14 @@ public class IGESFileReader implements ModelFormatReader {
 	public GeometricModel readFile( final File igesFile ) 
 	throws ModelFormatException {
 		try {			
-			// create a new IGES Model instance
-			final IGESModel igesModel = new IGESModel();
+			// map the file, and index its records
+			final IGESRecords records = IGESRecords.map( igesFile );
 			
-			// read the lines from the file
-			final LineCollection lines = LineCollection.readLines( igesFile );
+			// create a new IGES Model instance (the directory entries and parameters are decoded on demand)
+			final IGESModel igesModel = new IGESModel( records );
 			
-			// parse each line
+			// parse the start, global and terminate sections
+			final LineCollection lines = records.getLines( "SGT" );
 			while( lines.hasNext() ) {
 				// parse the IGES element
 				final IGESElement element = IGESElement.parse( lines );
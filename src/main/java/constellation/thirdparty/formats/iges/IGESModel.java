@@ -16,13 +16,19 @@ import static constellation.thirdparty.formats.iges.elements.IGESElement.TYPE_G;
 import static constellation.thirdparty.formats.iges.elements.IGESElement.TYPE_P;
 import static constellation.thirdparty.formats.iges.elements.IGESElement.TYPE_S;
 import static constellation.thirdparty.formats.iges.elements.IGESElement.TYPE_T;
-import static constellation.thirdparty.formats.iges.processors.IGESEntityProcessorFactory.evaluate;
 import static java.lang.String.format;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 
@@ -40,6 +46,8 @@ import constellation.thirdparty.formats.iges.elements.IGES_S;
 import constellation.thirdparty.formats.iges.elements.IGES_T;
 import constellation.thirdparty.formats.iges.entities.IGESEntity;
 import constellation.thirdparty.formats.iges.entities.x100.IGESTransformationMatrix;
+import constellation.thirdparty.formats.iges.processors.IGESEntityProcessor;
+import constellation.thirdparty.formats.iges.processors.IGESEntityProcessorFactory;
 import constellation.util.StringUtil;
 
 /**
@@ -47,6 +55,10 @@ import constellation.util.StringUtil;
  * @author lawrence.daniels@gmail.com
  */
 public class IGESModel {
+	// the number of directory entries evaluated by each (parallel) task
+	private static final int ENTRIES_PER_TASK = 1024;
+	
+	// internal fields
 	private final Logger logger = Logger.getLogger( getClass() );
 	private final Map<Integer,IGESTransformationMatrix> matrices;
 	private final Map<Integer,IGES_D> directoryEntries;
@@ -54,11 +66,22 @@ public class IGESModel {
 	private final Map<Integer,IGES_S> startEntries;
 	private final Map<Integer,IGES_P> parameters;
 	private final Map<Integer,IGES_T> terminators;
+	private final IGESRecords records;
 	
 	/**
 	 * Default constructor
 	 */
 	public IGESModel() {
+		this( null );
+	}
+	
+	/**
+	 * Creates a new IGES model from the (memory-mapped) records of a file; the
+	 * directory entries and parameters are decoded from the records on demand.
+	 * @param records the given {@link IGESRecords records}
+	 */
+	public IGESModel( final IGESRecords records ) {
+		this.records			= records;
 		this.directoryEntries	= new LinkedHashMap<Integer,IGES_D>();
 		this.globalEntries		= new LinkedHashMap<Integer,IGES_G>();
 		this.parameters			= new LinkedHashMap<Integer,IGES_P>();
@@ -125,6 +148,16 @@ public class IGESModel {
 		// get the directory entries
 		final IGES_D directoryEntry = directoryEntries.get( sequenceNumber );
 		
+		// decode the entry from the records?
+		if( ( directoryEntry == null ) && ( records != null ) && records.contains( 'D', sequenceNumber ) ) {
+			try {
+				return new IGES_D( records, sequenceNumber );
+			}
+			catch( final ModelFormatException e ) {
+				logger.error( format( "Directory entry '%d' could not be decoded", sequenceNumber ), e );
+			}
+		}
+		
 		// return the entry
 		return directoryEntry;
 	}
@@ -149,6 +182,11 @@ public class IGESModel {
 		// get the set of parameters
 		final IGES_P param = parameters.get( sequenceNumber );
 		
+		// decode the parameters from the records?
+		if( ( param == null ) && ( records != null ) && records.contains( 'P', sequenceNumber ) ) {
+			return new IGES_P( records, sequenceNumber );
+		}
+		
 		// if not found, throw an exception
 		if( param == null ) {
 			throw new ModelFormatException( format( "Parameter '%d' not found", sequenceNumber ) );
@@ -158,7 +196,10 @@ public class IGESModel {
 	}
 
 	/**
-	 * Returns the Constellation Model
+	 * Returns the Constellation Model. The transformation matrices are evaluated 
+	 * first (in order), since other entities refer to them; the remaining directory
+	 * entries are then evaluated in parallel, and the resultant elements are added 
+	 * to the model at once (in the order of their directory entries).
 	 * @return the {@link GeometricModel Constellation Model}
 	 * @throws ModelFormatException 
 	 */
@@ -170,34 +211,139 @@ public class IGESModel {
 		// create a new Constellation model
 		final GeometricModel model = createModel( global );
 		
-		// start with the directory entries
-		final Collection<IGES_D> entries = directoryEntries.values();
-		for( final IGES_D entry : entries ) {
-			// get the parameters
-			final IGES_P params = lookupParameters( entry.getParameterIndex() );
-			
-			// process the entity
-			final IGESEntity entity = evaluate( model, this, entry, params );
-			if( entity != null ) {
-				// display the entity
-				if( logger.isDebugEnabled() ) {
-					logger.debug( format( "[%s] %s", entity.getClass().getSimpleName(), entity ) );
-				}
-				
-				// convert the IGES entity into geometry
-				final ModelElement[] drawingElements = entity.toDrawingElements();
-				if( ( drawingElements != null ) && ( drawingElements.length > 0 ) ) {
-					model.addPhysicalElement( drawingElements );
-				}
-			} 
+		// evaluate the transformation matrices 
+		final List<Integer> entries = getDirectorySequenceNumbers();
+		final List<Integer> remaining = new ArrayList<Integer>( entries.size() );
+		final List<ModelElement> elements = new ArrayList<ModelElement>( entries.size() );
+		for( final Integer sequenceNumber : entries ) {
+			if( getEntityTypeNumber( sequenceNumber ) == IGESEntityProcessor.IGES_124_TRANSFORMATION_MATRIX ) {
+				evaluate( model, sequenceNumber, elements );
+			}
 			else {
-				logger.error( format( "Directory entry '%s' was not processed", entry.getEntityTypeNumber() ) );	
+				remaining.add( sequenceNumber );
 			}
 		}
 		
+		// evaluate the remaining entries in parallel
+		final List<Callable<List<ModelElement>>> tasks = new ArrayList<Callable<List<ModelElement>>>();
+		for( int start = 0; start < remaining.size(); start += ENTRIES_PER_TASK ) {
+			final List<Integer> block = remaining.subList( start, Math.min( start + ENTRIES_PER_TASK, remaining.size() ) );
+			tasks.add( new Callable<List<ModelElement>>() {
+				public List<ModelElement> call() throws ModelFormatException {
+					final List<ModelElement> blockElements = new ArrayList<ModelElement>( block.size() );
+					for( final Integer sequenceNumber : block ) {
+						evaluate( model, sequenceNumber, blockElements );
+					}
+					return blockElements;
+				}
+			} );
+		}
+		for( final List<ModelElement> blockElements : invokeAll( tasks ) ) {
+			elements.addAll( blockElements );
+		}
+		
+		// add the elements to the model
+		model.resolveLabelConflicts( elements );
+		model.addPhysicalElements( elements );
 		return model;
 	}
 	
+	/**
+	 * Evaluates the given directory entry
+	 * @param model the given {@link GeometricModel model}
+	 * @param sequenceNumber the sequence number of the {@link IGES_D directory entry}
+	 * @param elements the collection to which the resultant {@link ModelElement elements} are added
+	 * @throws ModelFormatException
+	 */
+	private void evaluate( final GeometricModel model, final int sequenceNumber, final Collection<ModelElement> elements ) 
+	throws ModelFormatException {
+		// get the entry and its parameters
+		final IGES_D entry = lookupDirectoryEntry( sequenceNumber );
+		if( entry == null ) {
+			throw new ModelFormatException( format( "Directory entry '%d' not found", sequenceNumber ) );
+		}
+		final IGES_P params = lookupParameters( entry.getParameterIndex() );
+		
+		// process the entity
+		final IGESEntity entity = IGESEntityProcessorFactory.evaluate( model, this, entry, params );
+		if( entity != null ) {
+			// display the entity
+			if( logger.isDebugEnabled() ) {
+				logger.debug( format( "[%s] %s", entity.getClass().getSimpleName(), entity ) );
+			}
+			
+			// convert the IGES entity into geometry
+			final ModelElement[] drawingElements = entity.toDrawingElements();
+			if( ( drawingElements != null ) && ( drawingElements.length > 0 ) ) {
+				elements.addAll( Arrays.asList( drawingElements ) );
+			}
+		} 
+		else {
+			logger.error( format( "Directory entry '%s' was not processed", entry.getEntityTypeNumber() ) );	
+		}
+	}
+	
+	/**
+	 * Returns the sequence numbers of the directory entries (in order)
+	 * @return the {@link List list} of sequence numbers
+	 */
+	private List<Integer> getDirectorySequenceNumbers() {
+		final List<Integer> sequenceNumbers = new ArrayList<Integer>( directoryEntries.keySet() );
+		if( records != null ) {
+			// each directory entry occupies two records
+			final int count = records.getCount( 'D' );
+			for( int sequenceNumber = 1; sequenceNumber <= count; sequenceNumber += 2 ) {
+				if( records.contains( 'D', sequenceNumber ) && !directoryEntries.containsKey( sequenceNumber ) ) {
+					sequenceNumbers.add( sequenceNumber );
+				}
+			}
+		}
+		return sequenceNumbers;
+	}
+	
+	/**
+	 * Returns the entity type number of the given directory entry, without decoding the entry
+	 * @param sequenceNumber the sequence number of the {@link IGES_D directory entry}
+	 * @return the entity type number
+	 * @throws ModelFormatException
+	 */
+	private int getEntityTypeNumber( final int sequenceNumber ) 
+	throws ModelFormatException {
+		final IGES_D entry = directoryEntries.get( sequenceNumber );
+		return ( entry != null ) ? entry.getEntityTypeNumber() : records.parseInt( 'D', sequenceNumber, 0, 9 );
+	}
+	
+	/**
+	 * Executes the given tasks in parallel, and waits for them to complete
+	 * @param tasks the given collection of {@link Callable tasks}
+	 * @return the results of the tasks (in order)
+	 * @throws ModelFormatException
+	 */
+	private static <T> List<T> invokeAll( final List<Callable<T>> tasks )
+	throws ModelFormatException {
+		final List<T> results = new ArrayList<T>( tasks.size() );
+		try {
+			for( final Future<T> future : ForkJoinPool.commonPool().invokeAll( tasks ) ) {
+				results.add( future.get() );
+			}
+		}
+		catch( final InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new ModelFormatException( e );
+		}
+		catch( final ExecutionException e ) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof ModelFormatException ) {
+				throw (ModelFormatException)cause;
+			}
+			if( cause instanceof RuntimeException ) {
+				throw (RuntimeException)cause;
+			}
+			throw new ModelFormatException( cause );
+		}
+		return results;
+	}
+	
 	/** 
 	 * Returns the Constellation Model
 	 * @return the {@link GeometricModel model}
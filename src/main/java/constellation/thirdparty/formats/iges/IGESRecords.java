@@ -0,0 +1,306 @@
+package constellation.thirdparty.formats.iges;
+
+import static constellation.thirdparty.formats.iges.elements.IGESElement.RECORD_LENGTH;
+import static java.lang.String.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.log4j.Logger;
+
+import constellation.model.formats.ModelFormatException;
+
+/**
+ * Represents the records of a (memory-mapped) IGES file; the records of each
+ * section are indexed by their sequence numbers (columns 74-80), so that the
+ * directory entries and parameters can be decoded on demand, and in parallel,
+ * directly from the file's bytes.
+ * @author lawrence.daniels@gmail.com
+ */
+public class IGESRecords {
+	private static final Logger logger = Logger.getLogger( IGESRecords.class );
+	private static final String SECTIONS = "SGDPT";
+	private final ByteBuffer buffer;
+	private final int[][] offsets;
+	private final int[] counts;
+
+	/**
+	 * Creates a new record index
+	 * @param buffer the given {@link ByteBuffer buffer} containing the IGES file
+	 */
+	private IGESRecords( final ByteBuffer buffer ) {
+		this.buffer		= buffer;
+		this.offsets	= new int[ SECTIONS.length() ][];
+		this.counts		= new int[ SECTIONS.length() ];
+		for( int n = 0; n < offsets.length; n++ ) {
+			offsets[n] = new int[ 64 ];
+			Arrays.fill( offsets[n], -1 );
+		}
+	}
+
+	/**
+	 * Maps the given IGES file into memory, and indexes its records
+	 * @param igesFile the given IGES {@link File file}
+	 * @return the {@link IGESRecords records}
+	 * @throws IOException
+	 * @throws ModelFormatException
+	 */
+	public static IGESRecords map( final File igesFile )
+	throws IOException, ModelFormatException {
+		// map the file into memory
+		final ByteBuffer buffer;
+		final FileChannel channel = FileChannel.open( igesFile.toPath(), StandardOpenOption.READ );
+		try {
+			if( channel.size() > Integer.MAX_VALUE ) {
+				throw new IOException( format( "File '%s' is too large to be mapped", igesFile.getName() ) );
+			}
+			buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+		}
+		finally {
+			channel.close();
+		}
+
+		// index the records
+		final IGESRecords records = new IGESRecords( buffer );
+		records.index();
+		return records;
+	}
+
+	/**
+	 * Returns the highest sequence number of the given section
+	 * @param section the given section (e.g. 'D')
+	 * @return the highest sequence number, or <tt>0</tt> if the section is empty
+	 */
+	public int getCount( final char section ) {
+		return counts[ sectionIndex( section ) ];
+	}
+
+	/**
+	 * Indicates whether the given section contains the record with the given sequence number
+	 * @param section the given section (e.g. 'D')
+	 * @param sequenceNumber the given sequence number
+	 * @return true, if the record exists
+	 */
+	public boolean contains( final char section, final int sequenceNumber ) {
+		final int index = sectionIndex( section );
+		return ( sequenceNumber >= 1 ) && ( sequenceNumber <= counts[index] ) && ( offsets[index][ sequenceNumber - 1 ] != -1 );
+	}
+
+	/**
+	 * Indicates whether the given record contains the given character
+	 * @param section the given section (e.g. 'P')
+	 * @param sequenceNumber the given sequence number
+	 * @param ch the given character
+	 * @return true, if the character occurs within the record
+	 * @throws ModelFormatException
+	 */
+	public boolean contains( final char section, final int sequenceNumber, final char ch )
+	throws ModelFormatException {
+		final int offset = offset( section, sequenceNumber );
+		for( int n = 0; n < RECORD_LENGTH; n++ ) {
+			if( buffer.get( offset + n ) == ch ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parses the integer found between the given columns of the given record
+	 * @param section the given section (e.g. 'D')
+	 * @param sequenceNumber the given sequence number
+	 * @param start the given start column
+	 * @param end the given end column (exclusive)
+	 * @return the integer value, or <tt>0</tt> if the field is blank
+	 * @throws ModelFormatException
+	 */
+	public int parseInt( final char section, final int sequenceNumber, final int start, final int end )
+	throws ModelFormatException {
+		return parseInt( offset( section, sequenceNumber ), start, end );
+	}
+
+	/**
+	 * Returns the text found between the given columns of the given record
+	 * @param section the given section (e.g. 'P')
+	 * @param sequenceNumber the given sequence number
+	 * @param start the given start column
+	 * @param end the given end column (exclusive)
+	 * @return the (trimmed) text
+	 * @throws ModelFormatException
+	 */
+	public String parseString( final char section, final int sequenceNumber, final int start, final int end )
+	throws ModelFormatException {
+		return text( offset( section, sequenceNumber ), start, end ).trim();
+	}
+
+	/**
+	 * Returns the records of the given sections as text lines (in file order);
+	 * intended for the small sections, such as the start and global sections.
+	 * @param sections the given sections (e.g. "SGT")
+	 * @return the {@link LineCollection collection} of lines
+	 * @throws ModelFormatException
+	 */
+	public LineCollection getLines( final String sections )
+	throws ModelFormatException {
+		final LineCollection lines = new LineCollection();
+		for( final char section : sections.toCharArray() ) {
+			final int count = getCount( section );
+			for( int sequenceNumber = 1; sequenceNumber <= count; sequenceNumber++ ) {
+				if( contains( section, sequenceNumber ) ) {
+					lines.add( text( offset( section, sequenceNumber ), 0, RECORD_LENGTH ) );
+				}
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Indexes the records of the file; the records may or may not be
+	 * separated by line terminators.
+	 * @throws ModelFormatException
+	 */
+	private void index()
+	throws ModelFormatException {
+		final int limit = buffer.limit();
+		int position = 0;
+		while( position < limit ) {
+			// skip the line terminators
+			final byte b = buffer.get( position );
+			if( ( b == '\n' ) || ( b == '\r' ) ) {
+				position++;
+				continue;
+			}
+
+			// verify the record length
+			if( ( position + RECORD_LENGTH > limit ) || !isTerminated( position + RECORD_LENGTH ) ) {
+				throw new ModelFormatException( format( "Record length must be %d characters (offset %d)", RECORD_LENGTH, position ) );
+			}
+
+			// index the record by its section and sequence number
+			final int section = SECTIONS.indexOf( (char)buffer.get( position + 72 ) );
+			if( section == -1 ) {
+				throw new ModelFormatException( format( "Invalid record type '%c'", (char)buffer.get( position + 72 ) ) );
+			}
+			final int sequenceNumber = parseInt( position, 73, RECORD_LENGTH );
+			if( sequenceNumber < 1 ) {
+				throw new ModelFormatException( format( "Invalid sequence number (offset %d)", position ) );
+			}
+			put( section, sequenceNumber, position );
+			position += RECORD_LENGTH;
+		}
+	}
+
+	/**
+	 * Indicates whether a record may end at the given offset
+	 * @param offset the given offset
+	 * @return true, if the offset is the end of the file, a line terminator, or (for
+	 * files without line terminators) the beginning of another record
+	 */
+	private boolean isTerminated( final int offset ) {
+		if( offset == buffer.limit() ) {
+			return true;
+		}
+		final byte b = buffer.get( offset );
+		return ( b == '\n' ) || ( b == '\r' ) ||
+				( ( offset + RECORD_LENGTH <= buffer.limit() ) && ( SECTIONS.indexOf( (char)buffer.get( offset + 72 ) ) != -1 ) );
+	}
+
+	/**
+	 * Records the offset of the given record
+	 * @param section the given section index
+	 * @param sequenceNumber the given sequence number
+	 * @param offset the offset of the record
+	 */
+	private void put( final int section, final int sequenceNumber, final int offset ) {
+		// grow the section's index, if necessary
+		if( sequenceNumber > offsets[section].length ) {
+			final int length = offsets[section].length;
+			offsets[section] = Arrays.copyOf( offsets[section], Math.max( length * 2, sequenceNumber ) );
+			Arrays.fill( offsets[section], length, offsets[section].length, -1 );
+		}
+
+		// a duplicate sequence number replaces the previous record
+		if( offsets[section][ sequenceNumber - 1 ] != -1 ) {
+			logger.warn( format( "Duplicate sequence number %d in section '%c'", sequenceNumber, SECTIONS.charAt( section ) ) );
+		}
+		offsets[section][ sequenceNumber - 1 ] = offset;
+		counts[section] = Math.max( counts[section], sequenceNumber );
+	}
+
+	/**
+	 * Returns the offset of the given record
+	 * @param section the given section (e.g. 'D')
+	 * @param sequenceNumber the given sequence number
+	 * @return the offset of the record
+	 * @throws ModelFormatException
+	 */
+	private int offset( final char section, final int sequenceNumber )
+	throws ModelFormatException {
+		if( !contains( section, sequenceNumber ) ) {
+			throw new ModelFormatException( format( "Record '%c%d' not found", section, sequenceNumber ) );
+		}
+		return offsets[ sectionIndex( section ) ][ sequenceNumber - 1 ];
+	}
+
+	/**
+	 * Parses the integer found between the given columns of the record at the given offset
+	 * @param offset the given offset of the record
+	 * @param start the given start column
+	 * @param end the given end column (exclusive)
+	 * @return the integer value, or <tt>0</tt> if the field is blank
+	 */
+	private int parseInt( final int offset, final int start, final int end ) {
+		int value = 0;
+		int digits = 0;
+		boolean negative = false;
+		for( int n = offset + start; n < offset + end; n++ ) {
+			final byte b = buffer.get( n );
+			if( ( b >= '0' ) && ( b <= '9' ) ) {
+				value = value * 10 + ( b - '0' );
+				digits++;
+			}
+			else if( ( b == '-' || b == '+' ) && ( digits == 0 ) ) {
+				negative = ( b == '-' );
+			}
+			else if( b != ' ' ) {
+				logger.error( format( "Error parsing '%s'", text( offset, start, end ).trim() ) );
+				return 0;
+			}
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Returns the text found between the given columns of the record at the given offset
+	 * @param offset the given offset of the record
+	 * @param start the given start column
+	 * @param end the given end column (exclusive)
+	 * @return the text
+	 */
+	private String text( final int offset, final int start, final int end ) {
+		final byte[] bytes = new byte[ end - start ];
+		for( int n = 0; n < bytes.length; n++ ) {
+			bytes[n] = buffer.get( offset + start + n );
+		}
+		return new String( bytes, StandardCharsets.ISO_8859_1 );
+	}
+
+	/**
+	 * Returns the index of the given section
+	 * @param section the given section (e.g. 'D')
+	 * @return the index of the section
+	 */
+	private static int sectionIndex( final char section ) {
+		final int index = SECTIONS.indexOf( section );
+		if( index == -1 ) {
+			throw new IllegalArgumentException( format( "Invalid section '%c'", section ) );
+		}
+		return index;
+	}
+
+}
@@ -1,6 +1,7 @@
 package constellation.thirdparty.formats.iges.elements;
 
 import constellation.model.formats.ModelFormatException;
+import constellation.thirdparty.formats.iges.IGESRecords;
 import constellation.thirdparty.formats.iges.LineCollection;
 
 /**
@@ -77,6 +78,35 @@ public class IGES_D extends IGESElement {
 		this.colorNumber			= parseInt( line2, 17, 25 );
 		this.formNumber				= parseInt( line1, 25, 33 );
 	}
+	
+	/**
+	 * Creates a new IGES "D" element from the (memory-mapped) records of a file
+	 * @param records the given {@link IGESRecords records}
+	 * @param sequenceNumber the sequence number of the entry's first record
+	 * @throws ModelFormatException
+	 */
+	public IGES_D( final IGESRecords records, final int sequenceNumber ) 
+	throws ModelFormatException {
+		final int line1 = sequenceNumber;
+		final int line2 = sequenceNumber + 1;
+		setSequenceNumber( sequenceNumber );
+		
+		// parse attributes from line #1
+		this.entityTypeNumber		= records.parseInt( 'D', line1, 0, 9 );
+		this.parameterIndex			= records.parseInt( 'D', line1, 9, 17 );
+		this.structure				= records.parseInt( 'D', line1, 17, 25 );
+		this.lineFontPattern		= records.parseInt( 'D', line1, 25, 33 );
+		this.level					= records.parseInt( 'D', line1, 33, 41 );
+		this.view					= records.parseInt( 'D', line1, 41, 49 );
+		this.transformationMatrix	= records.parseInt( 'D', line1, 49, 57 );
+		this.labelDisplay			= records.parseInt( 'D', line1, 57, 65 );
+		this.blankStatus			= records.parseInt( 'D', line1, 65, 72 );
+		
+		// parse attributes from line #2
+		this.lineWeightNumber		= records.parseInt( 'D', line2, 9, 17 );
+		this.colorNumber			= records.parseInt( 'D', line2, 17, 25 );
+		this.formNumber				= records.parseInt( 'D', line1, 25, 33 );
+	}
 
 	/**
 	 * @return the entityTypeNumber
@@ -1,6 +1,7 @@
 package constellation.thirdparty.formats.iges.elements;
 
 import constellation.model.formats.ModelFormatException;
+import constellation.thirdparty.formats.iges.IGESRecords;
 import constellation.thirdparty.formats.iges.LineCollection;
 
 /**
@@ -32,6 +33,18 @@ public class IGES_P extends IGESElement {
 		this.parameters	= parseParameters( lines );
 	}
 	
+	/**
+	 * Creates a new IGES "P" element from the (memory-mapped) records of a file
+	 * @param records the given {@link IGESRecords records}
+	 * @param sequenceNumber the sequence number of the parameters' first record
+	 * @throws ModelFormatException 
+	 */
+	public IGES_P( final IGESRecords records, final int sequenceNumber ) 
+	throws ModelFormatException {
+		this.lineNumber = sequenceNumber;
+		this.parameters	= parseParameters( records, sequenceNumber );
+	}
+	
 	/**
 	 * Returns the number of parameters
 	 * @return the number of parameters
@@ -126,7 +139,7 @@ public class IGES_P extends IGESElement {
 			line = lines.next();
 		
 			// add the content to the buffer
-			sb.append( parseString( line, 0, 67 ).trim() );
+			sb.append( parseString( line, 0, 64 ).trim() );
 		} 
 		while( !line.contains( ";" ) );
 		
@@ -136,5 +149,33 @@ public class IGES_P extends IGESElement {
 		// divide the string into pieces
 		return paramString.split( "[,]" );
 	}
+	
+	/**
+	 * Parses the parameters from the (memory-mapped) records of a file
+	 * @param records the given {@link IGESRecords records}
+	 * @param sequenceNumber the sequence number of the parameters' first record
+	 * @return the array of parameters
+	 * @throws ModelFormatException
+	 */
+	private static String[] parseParameters( final IGESRecords records, final int sequenceNumber ) 
+	throws ModelFormatException {		
+		final StringBuilder sb = new StringBuilder( 300 );
+
+		// build the parameter string
+		int line = sequenceNumber;
+		boolean terminated;
+		do {
+			// add the content to the buffer
+			sb.append( records.parseString( 'P', line, 0, 64 ) );
+			terminated = records.contains( 'P', line++, ';' );
+		} 
+		while( !terminated );
+		
+		// get the parameter string
+		final String paramString = sb.substring( 0, sb.length() - 1 ).trim();
+		
+		// divide the string into pieces
+		return paramString.split( "[,]" );
+	}
 
 }
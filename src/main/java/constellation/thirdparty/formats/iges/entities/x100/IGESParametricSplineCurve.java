@@ -0,0 +1,129 @@
+package constellation.thirdparty.formats.iges.entities.x100;
+
+import static constellation.thirdparty.formats.iges.IGESConstants.IGES_COLORS;
+import constellation.drawing.LinePatterns;
+import constellation.drawing.elements.CxModelElement;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.PointXY;
+import constellation.thirdparty.formats.iges.entities.IGESEntity;
+
+/**
+ * <h2>Parametric Spline Curve Entity (Type 112)</h2>
+ * <pre>
+ * The curve is a sequence of parametric polynomial segments; each segment i is
+ * defined by the cubic polynomials (in s = u - T(i), for T(i) &lt;= u &lt;= T(i+1)):
+ *
+ *     X(u) = AX(i) + BX(i)*s + CX(i)*s^2 + DX(i)*s^3
+ *     Y(u) = AY(i) + BY(i)*s + CY(i)*s^2 + DY(i)*s^3
+ *     Z(u) = AZ(i) + BZ(i)*s + CZ(i)*s^2 + DZ(i)*s^3
+ *
+ * Parameter Data
+ * --------------------------------------------------
+ * Index        Name         Type      Description
+ * --------------------------------------------------
+ * 1            CTYPE        Integer   Spline type
+ * 2            H            Integer   Degree of continuity with respect to arc length
+ * 3            NDIM         Integer   Number of dimensions (2 = planar, 3 = nonplanar)
+ * 4            N            Integer   Number of segments
+ * 5            T(1)         Real      First break point of piecewise polynomial
+ * ..           .            .
+ * 5+N          T(N+1)       Real      Last break point of piecewise polynomial
+ * 6+N          AX(1)        Real      X coordinate polynomial
+ * 7+N          BX(1)        Real
+ * 8+N          CX(1)        Real
+ * 9+N          DX(1)        Real
+ * 10+N         AY(1)        Real      Y coordinate polynomial
+ * ..           .            .
+ * 17+N         DZ(1)        Real      Z coordinate polynomial
+ * ..           .            .
+ * 6+13*N       TPX0 .. TPZ3 Real      Terminal point values (12 values)
+ * </pre>
+ * Each segment is converted to its (cubic) Bezier form, so that the curve
+ * is represented exactly by a piecewise Bezier (NURBS) curve; the curve is
+ * projected onto the XY-plane.
+ * @author lawrence.daniels@gmail.com
+ */
+public class IGESParametricSplineCurve implements IGESEntity {
+	private static final int DEGREE = 3;
+	private final int colorNumber;
+	private final int lineFontPattern;
+	private final NurbsCurveXY curve;
+	private final int segments;
+
+	/**
+	 * Creates a new parametric spline curve
+	 * @param breakPoints the break points of the piecewise polynomial (T)
+	 * @param ax the constant X coefficients of the segments
+	 * @param bx the linear X coefficients of the segments
+	 * @param cx the quadratic X coefficients of the segments
+	 * @param dx the cubic X coefficients of the segments
+	 * @param ay the constant Y coefficients of the segments
+	 * @param by the linear Y coefficients of the segments
+	 * @param cy the quadratic Y coefficients of the segments
+	 * @param dy the cubic Y coefficients of the segments
+	 * @param colorNumber the color of the curve
+	 * @param lineFontPattern the font/pattern of the curve
+	 * @throws IllegalArgumentException if the definition of the curve is invalid
+	 */
+	public IGESParametricSplineCurve( final double[] breakPoints,
+									  final double[] ax, final double[] bx, final double[] cx, final double[] dx,
+									  final double[] ay, final double[] by, final double[] cy, final double[] dy,
+									  final int colorNumber,
+									  final int lineFontPattern ) {
+		this.segments			= ax.length;
+		this.colorNumber		= colorNumber;
+		this.lineFontPattern	= lineFontPattern;
+
+		// build the knot vector; each interior break point has a multiplicity of 3
+		final double[] knots = new double[ DEGREE * segments + DEGREE + 2 ];
+		int k = 0;
+		knots[k++] = breakPoints[0];
+		for( int i = 0; i <= segments; i++ ) {
+			for( int r = 0; r < DEGREE; r++ ) {
+				knots[k++] = breakPoints[i];
+			}
+		}
+		knots[k++] = breakPoints[ segments ];
+
+		// convert each segment to its Bezier form
+		final PointXY[] controlPoints = new PointXY[ DEGREE * segments + 1 ];
+		int n = 0;
+		for( int i = 0; i < segments; i++ ) {
+			final double h = breakPoints[ i + 1 ] - breakPoints[i];
+			controlPoints[n++] = new PointXY( ax[i], ay[i] );
+			controlPoints[n++] = new PointXY( ax[i] + bx[i] * h / 3d, ay[i] + by[i] * h / 3d );
+			controlPoints[n++] = new PointXY( ax[i] + ( 2d * bx[i] * h + cx[i] * h * h ) / 3d, ay[i] + ( 2d * by[i] * h + cy[i] * h * h ) / 3d );
+		}
+
+		// the last segment terminates the curve
+		final int last	= segments - 1;
+		final double h	= breakPoints[ segments ] - breakPoints[ last ];
+		controlPoints[n] = new PointXY(
+				ax[last] + bx[last] * h + cx[last] * h * h + dx[last] * h * h * h,
+				ay[last] + by[last] * h + cy[last] * h * h + dy[last] * h * h * h );
+
+		// create the curve
+		this.curve = new NurbsCurveXY( DEGREE, knots, controlPoints, null );
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public ModelElement[] toDrawingElements() {
+		// create the element
+		final ModelElement crvElem = new CxModelElement( curve );
+		crvElem.setColor( IGES_COLORS[ colorNumber ] );
+		crvElem.setPattern( LinePatterns.values()[ lineFontPattern ] );
+		return new ModelElement[] { crvElem };
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format( "segments=%d, points=%d", segments, curve.getControlPointCount() );
+	}
+
+}
@@ -0,0 +1,102 @@
+package constellation.thirdparty.formats.iges.entities.x100;
+
+import static constellation.thirdparty.formats.iges.IGESConstants.IGES_COLORS;
+import constellation.drawing.LinePatterns;
+import constellation.drawing.elements.CxModelElement;
+import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.NurbsCurveXY;
+import constellation.drawing.entities.PointXY;
+import constellation.thirdparty.formats.iges.entities.IGESEntity;
+
+/**
+ * <h2>Rational B-Spline Curve Entity (Type 126)</h2>
+ * <pre>
+ * Parameter Data
+ * --------------------------------------------------
+ * Index        Name         Type      Description
+ * --------------------------------------------------
+ * 1            K            Integer   Upper index of sum
+ * 2            M            Integer   Degree of basis functions
+ * 3            PROP1        Integer   0 = nonplanar, 1 = planar
+ * 4            PROP2        Integer   0 = open curve, 1 = closed curve
+ * 5            PROP3        Integer   0 = rational, 1 = polynomial
+ * 6            PROP4        Integer   0 = nonperiodic, 1 = periodic
+ * 7            T(-M)        Real      First value of knot sequence
+ * ..           .            .
+ * 7+A          T(N+M)       Real      Last value of knot sequence
+ * 8+A          W(0)         Real      First weight
+ * ..           .            .
+ * 8+A+K        W(K)         Real      Last weight
+ * 9+A+K        X0           Real      First control point
+ * 10+A+K       Y0           Real
+ * 11+A+K       Z0           Real
+ * ..           .            .
+ * 11+A+4*K     ZK           Real      Last control point
+ * 12+A+4*K     V(0)         Real      Starting parameter value
+ * 13+A+4*K     V(1)         Real      Ending parameter value
+ * 14+A+4*K     XNORM        Real      Unit normal (if curve is planar)
+ * 15+A+4*K     YNORM        Real
+ * 16+A+4*K     ZNORM        Real
+ *
+ * where N = 1+K-M and A = N+2*M
+ * </pre>
+ * The curve is projected onto the XY-plane.
+ * @author lawrence.daniels@gmail.com
+ */
+public class IGESRationalBSplineCurve implements IGESEntity {
+	private final int colorNumber;
+	private final int lineFontPattern;
+	private final NurbsCurveXY curve;
+	private final double v0;
+	private final double v1;
+
+	/**
+	 * Creates a new rational B-spline curve
+	 * @param degree the degree of the basis functions (M)
+	 * @param knots the knot sequence
+	 * @param weights the weights of the control points
+	 * @param controlPoints the (projected) {@link PointXY control points}
+	 * @param v0 the starting parameter value
+	 * @param v1 the ending parameter value
+	 * @param colorNumber the color of the curve
+	 * @param lineFontPattern the font/pattern of the curve
+	 * @throws IllegalArgumentException if the definition of the curve is invalid
+	 */
+	public IGESRationalBSplineCurve( final int degree,
+									 final double[] knots,
+									 final double[] weights,
+									 final PointXY[] controlPoints,
+									 final double v0,
+									 final double v1,
+									 final int colorNumber,
+									 final int lineFontPattern ) {
+		this.v0					= v0;
+		this.v1					= v1;
+		this.colorNumber		= colorNumber;
+		this.lineFontPattern	= lineFontPattern;
+
+		// create the curve (limited to the given parameter range)
+		final NurbsCurveXY fullCurve = new NurbsCurveXY( degree, knots, controlPoints, weights );
+		this.curve = ( ( v0 > knots[ degree ] ) || ( v1 < knots[ controlPoints.length ] ) ) ? fullCurve.extract( v0, v1 ) : fullCurve;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public ModelElement[] toDrawingElements() {
+		// create the element
+		final ModelElement crvElem = new CxModelElement( curve );
+		crvElem.setColor( IGES_COLORS[ colorNumber ] );
+		crvElem.setPattern( LinePatterns.values()[ lineFontPattern ] );
+		return new ModelElement[] { crvElem };
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format( "degree=%d, points=%d, range=[%.4f,%.4f]", curve.getDegree(), curve.getControlPointCount(), v0, v1 );
+	}
+
+}
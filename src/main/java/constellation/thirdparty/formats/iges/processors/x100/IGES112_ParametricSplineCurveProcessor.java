@@ -1,28 +1,69 @@
 package constellation.thirdparty.formats.iges.processors.x100;
 
+import static java.lang.String.format;
+
 import constellation.model.GeometricModel;
 import constellation.model.formats.ModelFormatException;
 import constellation.thirdparty.formats.iges.IGESModel;
 import constellation.thirdparty.formats.iges.elements.IGES_D;
 import constellation.thirdparty.formats.iges.elements.IGES_P;
 import constellation.thirdparty.formats.iges.entities.IGESEntity;
-import constellation.thirdparty.formats.iges.entities.IGESFauxEntity;
+import constellation.thirdparty.formats.iges.entities.x100.IGESParametricSplineCurve;
 import constellation.thirdparty.formats.iges.processors.IGESAbstractEntityProcessor;
 
-/** 
- * Represents an IGES Parametric Spline Curve
+/**
+ * This class is responsible for parsing the parameters of a directory entry
+ * to create the resultant {@link IGESParametricSplineCurve IGES Parametric Spline Curve Entity}.
  * @author lawrence.daniels@gmail.com
  */
 public class IGES112_ParametricSplineCurveProcessor extends IGESAbstractEntityProcessor {
-	
-	/** 
+
+	/**
 	 * {@inheritDoc}
 	 */
-	public IGESEntity evaluate( final GeometricModel cxModel, IGESModel igesModel, final IGES_D entry, final IGES_P params ) 
+	public IGESEntity evaluate( final GeometricModel cxModel, IGESModel igesModel, final IGES_D entry, final IGES_P params )
 	throws ModelFormatException {
-		logger.info( String.format( "Parametric Spline Curve: params = %s", params.toString() ) );
-		// TODO implement this function
-		return new IGESFauxEntity();
+		// get the number of segments
+		final int segments = params.getIntegerParameter( 4 );
+		if( segments < 1 ) {
+			throw new ModelFormatException( format( "Invalid parametric spline curve (N = %d)", segments ) );
+		}
+
+		// get the break points
+		int n = 5;
+		final double[] breakPoints = new double[ segments + 1 ];
+		for( int i = 0; i < breakPoints.length; i++ ) {
+			breakPoints[i] = params.getDoubleParameter( n++ );
+		}
+
+		// get the X and Y coefficients of each segment
+		final double[] ax = new double[ segments ];
+		final double[] bx = new double[ segments ];
+		final double[] cx = new double[ segments ];
+		final double[] dx = new double[ segments ];
+		final double[] ay = new double[ segments ];
+		final double[] by = new double[ segments ];
+		final double[] cy = new double[ segments ];
+		final double[] dy = new double[ segments ];
+		for( int i = 0; i < segments; i++ ) {
+			ax[i] = params.getDoubleParameter( n++ );
+			bx[i] = params.getDoubleParameter( n++ );
+			cx[i] = params.getDoubleParameter( n++ );
+			dx[i] = params.getDoubleParameter( n++ );
+			ay[i] = params.getDoubleParameter( n++ );
+			by[i] = params.getDoubleParameter( n++ );
+			cy[i] = params.getDoubleParameter( n++ );
+			dy[i] = params.getDoubleParameter( n++ );
+			n += 4; // the Z coefficients
+		}
+
+		// create the curve
+		try {
+			return new IGESParametricSplineCurve( breakPoints, ax, bx, cx, dx, ay, by, cy, dy, entry.getColorNumber(), entry.getLineFontPattern() );
+		}
+		catch( final IllegalArgumentException e ) {
+			throw new ModelFormatException( format( "Invalid parametric spline curve: %s", e.getMessage() ) );
+		}
 	}
 
-}
\ No newline at end of file
+}
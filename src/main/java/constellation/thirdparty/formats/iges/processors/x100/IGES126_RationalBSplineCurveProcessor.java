@@ -1,28 +1,73 @@
 package constellation.thirdparty.formats.iges.processors.x100;
 
+import static java.lang.String.format;
+
+import constellation.drawing.entities.PointXY;
 import constellation.model.GeometricModel;
 import constellation.model.formats.ModelFormatException;
 import constellation.thirdparty.formats.iges.IGESModel;
 import constellation.thirdparty.formats.iges.elements.IGES_D;
 import constellation.thirdparty.formats.iges.elements.IGES_P;
 import constellation.thirdparty.formats.iges.entities.IGESEntity;
-import constellation.thirdparty.formats.iges.entities.IGESFauxEntity;
+import constellation.thirdparty.formats.iges.entities.x100.IGESRationalBSplineCurve;
 import constellation.thirdparty.formats.iges.processors.IGESAbstractEntityProcessor;
 
-/** 
- * Represents an IGES Rational B-Spline Curve
+/**
+ * This class is responsible for parsing the parameters of a directory entry
+ * to create the resultant {@link IGESRationalBSplineCurve IGES Rational B-Spline Curve Entity}.
  * @author lawrence.daniels@gmail.com
  */
 public class IGES126_RationalBSplineCurveProcessor extends IGESAbstractEntityProcessor {
-	
-	/** 
+
+	/**
 	 * {@inheritDoc}
 	 */
-	public IGESEntity evaluate( final GeometricModel cxModel, IGESModel igesModel, final IGES_D entry, final IGES_P params ) 
+	public IGESEntity evaluate( final GeometricModel cxModel, IGESModel igesModel, final IGES_D entry, final IGES_P params )
 	throws ModelFormatException {
-		logger.info( String.format( "Rational B-Spline Curve: params = %s", params.toString() ) );
-		// TODO implement this function
-		return new IGESFauxEntity();
+		// get the upper index of sum (K) and the degree (M)
+		final int k = params.getIntegerParameter( 1 );
+		final int m = params.getIntegerParameter( 2 );
+		if( ( k < 1 ) || ( m < 1 ) || ( m > k ) ) {
+			throw new ModelFormatException( format( "Invalid rational B-spline curve (K = %d, M = %d)", k, m ) );
+		}
+
+		// get the polynomial flag (PROP3)
+		final boolean polynomial = ( params.getIntegerParameter( 5 ) == 1 );
+
+		// get the knot sequence
+		int n = 7;
+		final double[] knots = new double[ k + m + 2 ];
+		for( int i = 0; i < knots.length; i++ ) {
+			knots[i] = params.getDoubleParameter( n++ );
+		}
+
+		// get the weights
+		final double[] weights = new double[ k + 1 ];
+		for( int i = 0; i < weights.length; i++ ) {
+			weights[i] = polynomial ? 1d : params.getDoubleParameter( n );
+			n++;
+		}
+
+		// get the control points (projected onto the XY-plane)
+		final PointXY[] controlPoints = new PointXY[ k + 1 ];
+		for( int i = 0; i < controlPoints.length; i++ ) {
+			final double x = params.getDoubleParameter( n++ );
+			final double y = params.getDoubleParameter( n++ );
+			n++; // z
+			controlPoints[i] = new PointXY( x, y );
+		}
+
+		// get the parameter range
+		final double v0 = params.getDoubleParameter( n++ );
+		final double v1 = params.getDoubleParameter( n++ );
+
+		// create the curve
+		try {
+			return new IGESRationalBSplineCurve( m, knots, weights, controlPoints, v0, v1, entry.getColorNumber(), entry.getLineFontPattern() );
+		}
+		catch( final IllegalArgumentException e ) {
+			throw new ModelFormatException( format( "Invalid rational B-spline curve: %s", e.getMessage() ) );
+		}
 	}
 
-}
\ No newline at end of file
+}
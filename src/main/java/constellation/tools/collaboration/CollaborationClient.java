@@ -1,18 +1,33 @@
 package constellation.tools.collaboration;
 
+import static java.lang.String.format;
+
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
+
+import org.apache.log4j.Logger;
 
 import constellation.ApplicationController;
 import constellation.model.DefaultGeometricModel;
 
 /**
- * Constellation Collaborative Design Client
+ * Constellation Collaborative Design Client. If the connection to the 
+ * host is broken, the client attempts to re-join the session; the host
+ * then sends only the commands that were missed in the meantime. If local
+ * changes may not have reached the host, the model is re-synchronized from
+ * a snapshot of the host's model instead, and the operator is told when 
+ * changes are known to have been discarded.
  * @author lawrence.daniels@gmail.com
  */
 public class CollaborationClient implements SessionDisconnectCallBack {
+	// the number of attempts to re-join a session, and the delay (in milliseconds) between them
+	private static final int RECONNECT_ATTEMPTS	= 5;
+	private static final long RECONNECT_DELAY	= 1000;
+	private final Logger logger = Logger.getLogger( getClass() );
 	private final ApplicationController controller;
-	private RemoteGeometricModel model;
+	private CollaborativeGeometricModel model;
 	private Socket socket;
 	private String host;
 	private int port;
@@ -38,8 +53,8 @@ public class CollaborationClient implements SessionDisconnectCallBack {
 	 */
 	public synchronized RemoteGeometricModel connect() 
 	throws IOException {
-		// open the socket connection
-		socket = new Socket( host, port );
+		// open the socket connection (as a channel)
+		socket = SocketChannel.open( new InetSocketAddress( host, port ) ).socket();
 		
 		// create a remotely connected model
 		model = new CollaborativeGeometricModel( controller, DefaultGeometricModel.newModel(), socket, this, false );
@@ -53,8 +68,9 @@ public class CollaborationClient implements SessionDisconnectCallBack {
 	 */
 	public synchronized void disconnect() {
 		if( model != null ) {
-			model.close();
+			final CollaborativeGeometricModel session = model;
 			model = null;
+			session.close();
 		}
 	}
 
@@ -63,7 +79,69 @@ public class CollaborationClient implements SessionDisconnectCallBack {
 	 * @see constellation.tools.collaboration.SessionDisconnectCallBack#disconnected()
 	 */
 	public void disconnected() {
-		//disconnect();
+		// if the session was not closed deliberately, attempt to re-join it
+		final CollaborativeGeometricModel session;
+		synchronized( this ) {
+			session = model;
+		}
+		if( session != null ) {
+			final Thread thread = new Thread( new Runnable() {
+				public void run() {
+					reconnect( session );
+				}
+			} );
+			thread.setDaemon( true );
+			thread.start();
+		}
+	}
+	
+	/**
+	 * Attempts to re-join the given (disconnected) session
+	 * @param session the given disconnected {@link CollaborativeGeometricModel session}
+	 */
+	private void reconnect( final CollaborativeGeometricModel session ) {
+		IOException cause = null;
+		for( int attempt = 1; attempt <= RECONNECT_ATTEMPTS; attempt++ ) {
+			// wait before each attempt
+			try { Thread.sleep( attempt * RECONNECT_DELAY ); } catch( final InterruptedException e ) { return; }
+			
+			final boolean discarded;
+			synchronized( this ) {
+				// has the session been closed (or replaced) in the meantime?
+				if( model != session ) {
+					return;
+				}
+				
+				try {
+					// re-join the session
+					logger.info( format( "Re-joining the session at %s:%d (attempt %d)", host, port, attempt ) );
+					discarded = session.hasDiscardedEdits();
+					socket = SocketChannel.open( new InetSocketAddress( host, port ) ).socket();
+					model = new CollaborativeGeometricModel( controller, session, socket, this );
+					controller.setModel( model );
+				}
+				catch( final IOException e ) {
+					logger.warn( format( "Failed to re-join the session at %s:%d", host, port ), e );
+					cause = e;
+					continue;
+				}
+			}
+			
+			// the local changes are replaced by the host's snapshot
+			if( discarded ) {
+				controller.showMessageDialog( "The changes made while the connection to the host was broken " +
+						"have been discarded; the model has been re-synchronized with the host.", "Collaborative Session" );
+			}
+			return;
+		}
+		
+		// give up
+		synchronized( this ) {
+			if( model == session ) {
+				model = null;
+			}
+		}
+		controller.showErrorDialog( "Collaborative Session", "Unable to re-join the session", cause );
 	}
 	
 }
@@ -1,18 +1,20 @@
 package constellation.tools.collaboration;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
 
 import org.apache.log4j.Logger;
 
 import constellation.ApplicationController;
-import constellation.tools.collaboration.commands.CollaborativeCommandFactory;
 import constellation.tools.collaboration.components.HostSessionDialog;
 
 /**
- * Constellation Collaborative Design Server (Peer to Peer Only)
+ * Constellation Collaborative Design Server (Peer to Peer or Hub); the
+ * host's model is shared with up to the maximum number of peers.
  * @author lawrence.daniels@gmail.com
  */
 public class CollaborationPeerToPeerServer {
@@ -21,6 +23,7 @@ public class CollaborationPeerToPeerServer {
 	private ServerSocket serverSocket;
 	private ConnectionListener listener;
 	private CollaborativeGeometricModel model;
+	private int maxPeers;
 	private int port;
 
 	/** 
@@ -29,8 +32,19 @@ public class CollaborationPeerToPeerServer {
 	 * @param port the given listen port number
 	 */
 	public CollaborationPeerToPeerServer( final ApplicationController controller, final int port ) {
+		this( controller, port, 1 );
+	}
+	
+	/** 
+	 * Creates a new instance of the sharing server
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param port the given listen port number
+	 * @param maxPeers the given maximum number of peers
+	 */
+	public CollaborationPeerToPeerServer( final ApplicationController controller, final int port, final int maxPeers ) {
 		this.controller	= controller;
 		this.port 		= port;
+		this.maxPeers	= maxPeers;
 	}
 	
 	/** 
@@ -39,8 +53,8 @@ public class CollaborationPeerToPeerServer {
 	 */
 	public void start() 
 	throws IOException {
-		// create the listener socket
-		serverSocket = new ServerSocket( port );
+		// create the listener socket (as a channel, so that accepted sockets are channels too)
+		serverSocket = ServerSocketChannel.open().bind( new InetSocketAddress( port ) ).socket();
 		
 		// start the listener thread
 		listener = new ConnectionListener();
@@ -83,17 +97,19 @@ public class CollaborationPeerToPeerServer {
 					final Socket socket = serverSocket.accept();
 					logger.info( "Got connection from " + socket.getInetAddress().getHostName() );
 					
-					// if not already connected ...
-					if( model == null ) {
-						// create a new server model
-						model = new CollaborativeGeometricModel( controller, controller.getModel(), socket, new SessionCloseListener(), true );
+					// if the session is not already active, create a new server model
+					if( ( model == null ) || !model.isVirtual() ) {
+						model = new CollaborativeGeometricModel( controller, controller.getModel(), new SessionCloseListener() );
 						controller.setModel( model );
+					}
+					
+					// if the maximum number of peers has not been reached ...
+					if( model.getPeerCount() < maxPeers ) {
+						// connect the peer (which synchronizes it with the model)
+						model.addPeer( socket );
 						
 						// set the connection status
 						HostSessionDialog.getInstance( controller ).setConnectionStatus( true );
-						
-						// synchronize with the remote host
-						model.queue( CollaborativeCommandFactory.createModelSynchronizationCommands( model ) );
 					}
 					
 					// otherwise, refuse the connection
@@ -107,7 +123,7 @@ public class CollaborationPeerToPeerServer {
 				}
 				catch( final SocketException e ) {
 					logger.error( "Error getting connection", e );
-					if( e.getMessage().equals( "Socket closed" ) ) {
+					if( ( serverSocket == null ) || serverSocket.isClosed() ) {
 						alive = false;
 					}
 				}
@@ -163,7 +179,8 @@ public class CollaborationPeerToPeerServer {
 		 * @see constellation.tools.collaboration.SessionDisconnectCallBack#disconnected()
 		 */
 		public void disconnected() {
-			HostSessionDialog.getInstance( controller ).setConnectionStatus( false );
+			final CollaborativeGeometricModel session = model;
+			HostSessionDialog.getInstance( controller ).setConnectionStatus( ( session != null ) && ( session.getPeerCount() > 0 ) );
 		}
 	}
 	
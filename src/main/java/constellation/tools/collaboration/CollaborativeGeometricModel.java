@@ -7,56 +7,109 @@ import java.awt.Color;
 import java.awt.Image;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.net.InetAddress;
 import java.net.Socket;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.log4j.Logger;
 
 import constellation.ApplicationController;
 import constellation.commands.CxCommand;
+import constellation.commands.CxCommandBatcher;
+import constellation.commands.CxCommandChannel;
+import constellation.commands.CxCommandEncoding;
+import constellation.commands.CxCommandFrame;
 import constellation.commands.CxCommandReader;
 import constellation.commands.CxCommandWriter;
+import constellation.commands.builtin.AddElementCommand;
 import constellation.commands.builtin.AddUserImageCommand;
+import constellation.commands.builtin.SetEncodingCommand;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityTypes;
 import constellation.drawing.EntityNamingService;
 import constellation.drawing.LinePatterns;
 import constellation.drawing.RenderableElement;
 import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.RectangleXY;
 import constellation.drawing.entities.UserImage;
+import constellation.model.DefaultGeometricModel;
 import constellation.model.DraftingStandards;
 import constellation.model.Filter;
 import constellation.model.GeometricModel;
 import constellation.model.ModelChangeType;
+import constellation.model.SnapPoint;
 import constellation.model.Unit;
 import constellation.tools.collaboration.commands.CollaborativeCommandFactory;
+import constellation.tools.collaboration.commands.JoinSessionCommand;
 import constellation.tools.collaboration.commands.RemoteMessagingDialog;
+import constellation.tools.collaboration.commands.SendHostInfoCommand;
+import constellation.tools.collaboration.commands.SessionSnapshotCommand;
+import constellation.tools.collaboration.commands.SyncPointCommand;
 import constellation.tools.collaboration.commands.VirtualCommand;
 import constellation.tools.collaboration.components.MessagingDialog;
 
 /**
  * Represents a collaborative model; a model that is being
- * concurrently development by two or more individuals.
+ * concurrently development by two or more individuals. A model
+ * is either connected to a single peer, or acts as a hub; i.e. it
+ * holds the authoritative model on behalf of any number of peers,
+ * and relays the commands received from each peer to all others.
+ * Each command is encoded once, and the encoded frame is shared 
+ * by the (bounded) outgoing queues of all peers. A hub re-synchronizes 
+ * a peer which falls too far behind, and drops it if it falls behind 
+ * again before the re-synchronization has completed.
+ * <p>A hub numbers the commands it distributes, and retains the most recent
+ * ones in a bounded log. A peer joins the session by identifying the last
+ * command it has received (if any); it is sent the commands it has missed,
+ * if they are still retained, or otherwise a compressed snapshot of the 
+ * model. The hub follows each group of commands with a synchronization 
+ * point, which informs the peers of their position in the session.</p>
+ * <p>Snapshots are serialized in the background, without blocking the 
+ * distribution of commands; a snapshot is only sent if no command was
+ * distributed while it was being serialized.</p>
  * @author lawrence.daniels@gmail.com
  */
 public class CollaborativeGeometricModel implements RemoteGeometricModel {
+	// the maximum number of frames (and bytes) that may be queued for a peer
+	public static final int MAX_QUEUED_FRAMES	= 8192;
+	public static final int MAX_QUEUED_BYTES	= 16 * 1024 * 1024;
+	// the maximum number of commands (and bytes) retained by the log of a hub
+	public static final int LOG_CAPACITY		= 65536;
+	public static final int LOG_MAX_BYTES		= 64 * 1024 * 1024;
+	// the number of attempts to serialize a snapshot without holding the peers lock
+	private static final int SNAPSHOT_ATTEMPTS	= 3;
 	private final Logger logger = Logger.getLogger( getClass() ); 
-	private final IncomingCommandsThread incomingThread;
-	private final OutgoingCommandsThread outgoingThread;
-	private final LinkedList<CxCommand> outgoing;
+	private final List<Peer> peers;
 	private final SessionDisconnectCallBack callBack;
 	private final MessagingDialog messagingDialog;
 	private final ApplicationController controller;
 	private final GeometricModel model;
-	private final Socket socket;
 	private final String remoteID;
 	private final String clientID;
+	private final boolean hub;
+	private final boolean host;
+	private final CommandLog log;
+	private final ExecutorService snapshotService;
+	private final String token;
+	private volatile String sessionID;
+	private volatile long sequence;
+	private CxCommandFrame snapshot;
+	private long snapshotSequence;
+	private volatile boolean edited;
+	private volatile int unsentEdits;
+	private volatile long closedChangeTime;
+	private Peer source;
 	private String name;
 	private boolean alive;
 	
@@ -81,53 +134,165 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 								    	final Socket socket, 
 								    	final SessionDisconnectCallBack callBack, 
 								    	final boolean isHost ) 
+	throws IOException {
+		this( controller, model, socket, callBack, isHost, UUID.randomUUID().toString(), null, 0L );
+	}
+	
+	/** 
+	 * Creates a new collaborative model instance, which resumes the given 
+	 * (disconnected) session; the host is asked for the commands that were 
+	 * missed since the session was disconnected. If local changes may not
+	 * have reached the host (see {@link #hasUnsyncedEdits()}), the host is 
+	 * asked for a snapshot instead, which replaces them.
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param session the given disconnected {@link CollaborativeGeometricModel session}
+	 * @param socket the given {@link Socket socket}
+	 * @param callBack the given {@link SessionDisconnectCallBack session disconnect call-back} routine
+	 * @throws IOException 
+	 */
+	public CollaborativeGeometricModel( final ApplicationController controller, 
+								    	final CollaborativeGeometricModel session, 
+								    	final Socket socket, 
+								    	final SessionDisconnectCallBack callBack ) 
+	throws IOException {
+		this( controller, session.model, socket, callBack, false, session.token, 
+			  session.hasUnsyncedEdits() ? null : session.sessionID, session.sequence );
+		this.name = session.name;
+	}
+	
+	/** 
+	 * Creates a new collaborative model instance
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param model the given {@link GeometricModel model}
+	 * @param socket the given {@link Socket socket}
+	 * @param callBack the given {@link SessionDisconnectCallBack session disconnect call-back} routine
+	 * @param isHost indicates whether the peer is the host
+	 * @param token the given token identifying the model within the session
+	 * @param sessionID the given ID of the session previously joined, or <tt>null</tt>
+	 * @param sequence the given sequence number of the last command received
+	 * @throws IOException 
+	 */
+	private CollaborativeGeometricModel( final ApplicationController controller, 
+								    	 final GeometricModel model, 
+								    	 final Socket socket, 
+								    	 final SessionDisconnectCallBack callBack, 
+								    	 final boolean isHost,
+								    	 final String token,
+								    	 final String sessionID,
+								    	 final long sequence ) 
 	throws IOException {
 		this.alive				= true;
+		this.hub				= false;
+		this.host				= isHost;
+		this.log				= null;
+		this.snapshotService	= null;
+		this.token				= token;
+		this.sessionID			= sessionID;
+		this.sequence			= sequence;
 		this.controller			= controller;
 		this.model				= model;
-		this.socket 			= socket;
 		this.callBack			= callBack;
-		this.outgoing			= new LinkedList<CxCommand>();
-		this.incomingThread		= new IncomingCommandsThread( socket.getInputStream() );
-		this.outgoingThread		= new OutgoingCommandsThread( socket.getOutputStream() );
+		this.peers				= new ArrayList<Peer>( 1 );
 		this.messagingDialog	= new MessagingDialog( controller );
 		this.clientID			= socket.getLocalAddress().getHostName();
 		this.remoteID			= socket.getInetAddress().getHostName();
 		this.name				= format( "%s@%s", model.getName(), ( isHost ? clientID : remoteID ) );
+		
+		// connect to the peer
+		final Peer peer = new Peer( socket );
+		peers.add( peer );
+		
+		// join the host's session
+		if( !isHost ) {
+			synchronized( peers ) {
+				broadcast( encode( Arrays.asList( (CxCommand)JoinSessionCommand.create( token, sessionID, sequence ) ) ), null );
+			}
+		}
+		peer.start();
+	}
+	
+	/** 
+	 * Creates a new collaborative model instance, which acts as a hub
+	 * for the peers that are subsequently {@link #addPeer(Socket) added}
+	 * @param controller the given {@link ApplicationController controller}
+	 * @param model the given authoritative {@link GeometricModel model}
+	 * @param callBack the given {@link SessionDisconnectCallBack call-back} routine, which is 
+	 * notified whenever a peer has disconnected
+	 * @throws IOException 
+	 */
+	public CollaborativeGeometricModel( final ApplicationController controller, 
+								    	final GeometricModel model, 
+								    	final SessionDisconnectCallBack callBack ) 
+	throws IOException {
+		this.alive				= true;
+		this.hub				= true;
+		this.host				= true;
+		this.log				= new CommandLog( LOG_CAPACITY, LOG_MAX_BYTES );
+		this.snapshotService	= Executors.newSingleThreadExecutor( new ThreadFactory() {
+			public Thread newThread( final Runnable task ) {
+				final Thread thread = new Thread( task, "SessionSnapshot" );
+				thread.setDaemon( true );
+				return thread;
+			}
+		});
+		this.token				= null;
+		this.sessionID			= UUID.randomUUID().toString();
+		this.sequence			= 0L;
+		this.controller			= controller;
+		this.model				= model;
+		this.callBack			= callBack;
+		this.peers				= new ArrayList<Peer>();
+		this.messagingDialog	= new MessagingDialog( controller );
+		this.clientID			= InetAddress.getLocalHost().getHostName();
+		this.remoteID			= clientID;
+		this.name				= format( "%s@%s", model.getName(), clientID );
 	}
 	
 	/** 
 	 * {@inheritDoc}
 	 */
 	public List<ModelElement> addPhysicalElement( final EntityRepresentation... representations ) {
-		// add the internal representations to the model
-		final List<ModelElement> elements = model.addPhysicalElement( representations );
-		
-		// queue the 'Add' operations
-		queue( createAddCommands( elements ) );
-		return elements;
+		synchronized( peers ) {
+			// add the internal representations to the model
+			final List<ModelElement> elements = model.addPhysicalElement( representations );
+			
+			// queue the 'Add' operations
+			queue( createAddCommands( elements ) );
+			return elements;
+		}
 	}
 	
 	/** 
 	 * {@inheritDoc}
 	 */
 	public void addPhysicalElement( final ModelElement... elements ) {
-		// add the geometry array to the model
-		model.addPhysicalElement( elements );
-		
-		// queue the 'Add' operations
-		queue( createAddCommands( elements ) );
+		synchronized( peers ) {
+			// add the geometry array to the model
+			model.addPhysicalElement( elements );
+			
+			// queue the 'Add' operations
+			queue( createAddCommands( elements ) );
+		}
 	}
 	
 	/** 
 	 * {@inheritDoc}
 	 */
 	public void addPhysicalElements( final Collection<? extends ModelElement> elements ) {
-		// add the geometry array to the model
-		model.addPhysicalElements( elements );
-		
-		// queue the 'Add' operations
-		queue( createAddCommands( elements ) );
+		synchronized( peers ) {
+			// add the geometry array to the model
+			model.addPhysicalElements( elements );
+			
+			// queue the 'Add' operations
+			queue( createAddCommands( elements ) );
+		}
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public int resolveLabelConflicts( final Collection<? extends ModelElement> elements ) {
+		return model.resolveLabelConflicts( elements );
 	}
 	
 	/** 
@@ -176,11 +341,13 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 	 * {@inheritDoc}
 	 */
 	public int erase( final Collection<ModelElement> elements ) {
-		final int count = model.erase( elements );
-		if( count > 0 ) {
-			queue( createDeleteCommands( elements ) );
+		synchronized( peers ) {
+			final int count = model.erase( elements );
+			if( count > 0 ) {
+				queue( createDeleteCommands( elements ) );
+			}
+			return count;
 		}
-		return count;
 	}
 	
 	/** 
@@ -197,6 +364,13 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 		return model.getPhysicalElements();
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public int getPhysicalElementCount() {
+		return model.getPhysicalElementCount();
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -211,6 +385,48 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 		model.getVisibleElements( container, types );
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void getVisibleElements( final Collection<ModelElement> container, final RectangleXY region ) {
+		model.getVisibleElements( container, region );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public SnapPoint lookupSnapPoint( final double x, final double y, final double maxDistance ) {
+		return model.lookupSnapPoint( x, y, maxDistance );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void updatePhysicalElement( final ModelElement ... elements ) {
+		model.updatePhysicalElement( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void modifyingPhysicalElement( final ModelElement... elements ) {
+		model.modifyingPhysicalElement( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void updatePhysicalElements( final Collection<? extends ModelElement> elements ) {
+		model.updatePhysicalElements( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void relabelPhysicalElement( final ModelElement element, final String label ) {
+		model.relabelPhysicalElement( element, label );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -338,7 +554,9 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 	 * {@inheritDoc}
 	 */
 	public String getRemoteID() {
-		return remoteID;
+		// a hub answers on behalf of the peer whose commands are being evaluated
+		final Peer peer = source;
+		return ( peer != null ) ? peer.id : remoteID;
 	}
 	
 	/* 
@@ -465,10 +683,12 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 	 * {@inheritDoc}
 	 */
 	public void addUserImage( final UserImage image ) {
-		model.addUserImage( image );
-		
-		// queue the synchronization event
-		queue( AddUserImageCommand.create( image ) );
+		synchronized( peers ) {
+			model.addUserImage( image );
+			
+			// queue the synchronization event
+			queue( AddUserImageCommand.create( image ) );
+		}
 	}
 	
 	/** 
@@ -564,6 +784,27 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 		model.setPickedElement( element );
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void clearSnapPoint() {
+		model.clearSnapPoint();
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public SnapPoint getSnapPoint() {
+		return model.getSnapPoint();
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void setSnapPoint( final SnapPoint point ) {
+		model.setSnapPoint( point );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -635,19 +876,92 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 	 * {@inheritDoc}
 	 */
 	public void close() {
-		if( alive ) {
-			// process is not set to die
-			alive = false;
+		final List<Peer> connected;
+		synchronized( peers ) {
+			if( !alive ) {
+				return;
+			}
 			
-			// shutdown the threads
-			incomingThread.interrupt();
-			outgoingThread.interrupt();
+			// process is now set to die
+			alive = false;
+			connected = new ArrayList<Peer>( peers );
+			peers.clear();
+		}
 			
-			// close the socket
-			try { socket.close(); } catch( final Exception e ) { }
+		// disconnect the peers
+		for( final Peer peer : connected ) {
+			peer.disconnect();
+		}
+		if( snapshotService != null ) {
+			snapshotService.shutdownNow();
+		}
+		
+		// re-point to the original model (changes made to it from now on are not shared)
+		closedChangeTime = getLocalChangeTime();
+		controller.setModel( model );
+		
+		// notify the caller
+		callBack.disconnected();
+	}
+	
+	/**
+	 * Indicates whether local changes may not have reached the host; i.e. 
+	 * changes were made during the session (they may have been in transit 
+	 * when the connection broke), or since it was disconnected
+	 * @return true, if a re-joined session must be re-synchronized from a snapshot
+	 */
+	boolean hasUnsyncedEdits() {
+		return edited || hasDiscardedEdits();
+	}
+	
+	/**
+	 * Indicates whether local changes are known to have been lost by the 
+	 * disconnection of the session; i.e. they were still queued when the 
+	 * connection broke, or were made while the session was disconnected
+	 * @return true, if local changes are discarded when the session is re-joined
+	 */
+	boolean hasDiscardedEdits() {
+		return ( unsentEdits > 0 ) || ( !alive && ( getLocalChangeTime() != closedChangeTime ) );
+	}
+	
+	/**
+	 * Returns the time of the last change to the contents of the local model
+	 * @return the time (in milliseconds) of the last change
+	 */
+	private long getLocalChangeTime() {
+		return Math.max( model.getLastChangeTime( ModelChangeType.PHYSICAL ), model.getLastChangeTime( ModelChangeType.INFORMATIONAL ) );
+	}
+	
+	/**
+	 * Connects the given peer to the hub; the peer is synchronized
+	 * with the current state of the model once it has joined the session.
+	 * @param socket the given {@link Socket socket}
+	 * @throws IOException
+	 */
+	public void addPeer( final Socket socket ) 
+	throws IOException {
+		synchronized( peers ) {
+			if( !alive ) {
+				throw new IOException( "The collaborative session has been closed" );
+			}
 			
-			// re-point to the original model
-			controller.setModel( model );
+			// only a hub accepts peers (a client's only connection is to its host)
+			if( !hub ) {
+				throw new IOException( "Only the host of a collaborative session accepts peers" );
+			}
+			final Peer peer = new Peer( socket );
+			peers.add( peer );
+			peer.start();
+		}
+	}
+	
+	/**
+	 * Returns the number of connected peers
+	 * @return the number of connected peers
+	 */
+	public int getPeerCount() {
+		synchronized( peers ) {
+			return peers.size();
 		}
 	}
 	
@@ -658,6 +972,68 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 		return messagingDialog;
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void joinSession( final String token, final String sessionID, final long sequence ) {
+		synchronized( peers ) {
+			// only a hub accepts peers
+			final Peer peer = source;
+			if( !hub || ( peer == null ) ) {
+				return;
+			}
+			peer.token = token;
+			
+			// can the peer be sent only the commands it has missed?
+			final List<CxCommandFrame> missed = this.sessionID.equals( sessionID ) ? log.since( sequence, token ) : null;
+			if( missed != null ) {
+				logger.info( format( "Peer '%s' re-joined at #%d; sending %d missed commands", peer.id, sequence, missed.size() ) );
+				missed.addAll( encode( Arrays.asList( (CxCommand)SyncPointCommand.create( this.sequence ) ) ) );
+				peer.replaceQueue( missed );
+			}
+			
+			// otherwise, send a snapshot
+			else {
+				logger.info( format( "Peer '%s' joined; sending a snapshot at #%d", peer.id, this.sequence ) );
+				resync( peer );
+			}
+		}
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void loadSnapshot( final SessionSnapshotCommand snapshot ) {
+		// only the host's snapshots are loaded
+		if( host ) {
+			logger.warn( format( "Ignoring a session snapshot received by the host (%s)", snapshot ) );
+			return;
+		}
+		
+		try {
+			// replace the contents of the model with the snapshot
+			DefaultGeometricModel.replaceContents( model, snapshot.decodeModel() );
+			
+			// continue from the snapshot's position
+			sessionID	= snapshot.getSessionID();
+			sequence	= snapshot.getSequence();
+		}
+		catch( final IOException e ) {
+			controller.showErrorDialog( "Collaborative Session", "Failed to load the session snapshot", e );
+			close();
+		}
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void setSequence( final long sequence ) {
+		// only the host numbers the commands
+		if( !host ) {
+			this.sequence = sequence;
+		}
+	}
+	
 	///////////////////////////////////////////////////////////////////////////
 	//		Queuing Method(s)
 	///////////////////////////////////////////////////////////////////////////
@@ -666,9 +1042,9 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 	 * {@inheritDoc}
 	 */
 	public void queue( final Collection<CxCommand> commands ) {
-		synchronized( outgoing ) {
-			outgoing.addAll( commands );
-			outgoing.notifyAll();
+		synchronized( peers ) {
+			edited |= !host;
+			broadcast( encode( commands ), null );
 		}
 	}
 	
@@ -676,10 +1052,209 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 	 * {@inheritDoc}
 	 */
 	public void queue( final CxCommand ... commands ) {
-		synchronized( outgoing ) {
-			outgoing.addAll( Arrays.asList( commands ) );
-			outgoing.notifyAll();
+		queue( Arrays.asList( commands ) );
+	}
+	
+	/**
+	 * Offers the given frames to all peers except the given source peer; 
+	 * a hub appends the frames to its log, and follows them with a 
+	 * synchronization point (which is offered to all peers). The caller
+	 * must hold the peers lock. A peer whose queue overflows is 
+	 * re-synchronized (by a hub), or dropped. 
+	 * @param frames the given {@link List list} of {@link CxCommandFrame frames}
+	 * @param sender the {@link Peer peer} from which the frames were received, or <tt>null</tt>
+	 */
+	private void broadcast( final List<CxCommandFrame> frames, final Peer sender ) {
+		if( !frames.isEmpty() ) {
+			// number the frames, and create the synchronization point
+			final List<CxCommandFrame> syncPoint = new ArrayList<CxCommandFrame>( 1 );
+			if( hub ) {
+				for( final CxCommandFrame frame : frames ) {
+					sequence = log.append( frame, ( sender != null ) ? sender.token : null );
+				}
+				syncPoint.addAll( encode( Arrays.asList( (CxCommand)SyncPointCommand.create( sequence ) ) ) );
+			}
+			
+			// offer the frames to the peers (which have joined the session, and are not awaiting 
+			// a snapshot; the snapshot will reflect the frames)
+			for( final Peer peer : new ArrayList<Peer>( peers ) ) {
+				if( ( hub && ( peer.token == null ) ) || peer.snapshotPending ) {
+					continue;
+				}
+				if( !offer( peer, ( peer != sender ) ? frames : Collections.<CxCommandFrame>emptyList() ) || !offer( peer, syncPoint ) ) {
+					// the model already reflects the remaining frames, 
+					// so a re-synchronization supersedes them
+					if( hub && !peer.isResyncing() ) {
+						logger.warn( format( "Peer '%s' has fallen behind; re-synchronizing", peer.id ) );
+						resync( peer );
+					}
+					else {
+						logger.warn( format( "Peer '%s' has fallen behind; disconnecting", peer.id ) );
+						removePeer( peer );
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Offers the given frames to the given peer
+	 * @param peer the given {@link Peer peer}
+	 * @param frames the given {@link List list} of {@link CxCommandFrame frames}
+	 * @return false, if the peer's queue has overflowed
+	 */
+	private boolean offer( final Peer peer, final List<CxCommandFrame> frames ) {
+		for( final CxCommandFrame frame : frames ) {
+			if( !peer.offer( frame ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Re-synchronizes the given peer with the current state of the model;
+	 * the caller must hold the peers lock. The peer's pending commands are
+	 * discarded, and the snapshot is created in the background.
+	 * @param peer the given {@link Peer peer}
+	 */
+	private void resync( final Peer peer ) {
+		// is a snapshot already being created for the peer?
+		if( peer.snapshotPending ) {
+			return;
+		}
+		
+		// the snapshot supersedes the peer's pending commands
+		peer.snapshotPending = true;
+		peer.replaceQueue( Collections.<CxCommandFrame>emptyList() );
+		snapshotService.execute( new Runnable() {
+			public void run() {
+				createSnapshot( peer );
+			}
+		} );
+	}
+	
+	/**
+	 * Creates a snapshot of the model, and queues it for the given peer. The model
+	 * is serialized without holding the peers lock; the snapshot is accepted only 
+	 * if no command was distributed meanwhile, otherwise it is retried, and finally
+	 * serialized while holding the lock. The snapshot is shared by all peers which 
+	 * are re-synchronized at the same position.
+	 * @param peer the given {@link Peer peer}
+	 */
+	private void createSnapshot( final Peer peer ) {
+		for( int attempt = 1; attempt <= SNAPSHOT_ATTEMPTS; attempt++ ) {
+			// capture the position of the snapshot (or re-use a current snapshot)
+			final long position;
+			synchronized( peers ) {
+				if( !peers.contains( peer ) ) {
+					return;
+				}
+				if( ( snapshot != null ) && ( snapshotSequence == sequence ) ) {
+					sendSnapshot( peer );
+					return;
+				}
+				position = sequence;
+			}
+			
+			// serialize the model
+			final CxCommandFrame frame;
+			try {
+				frame = CxCommandFrame.encode( SessionSnapshotCommand.create( sessionID, position, model ), CxCommandEncoding.LATEST );
+			}
+			catch( final IOException e ) {
+				logger.error( format( "Failed to create a snapshot for peer '%s'", peer.id ), e );
+				removePeer( peer );
+				return;
+			}
+			catch( final RuntimeException e ) {
+				// the model was modified while it was being serialized
+				continue;
+			}
+			
+			// accept the snapshot, unless a command was distributed meanwhile
+			synchronized( peers ) {
+				if( sequence == position ) {
+					snapshot			= frame;
+					snapshotSequence	= position;
+					sendSnapshot( peer );
+					return;
+				}
+			}
+		}
+		
+		// the model is changing too rapidly; serialize it while holding the lock
+		synchronized( peers ) {
+			if( !peers.contains( peer ) ) {
+				return;
+			}
+			try {
+				snapshot			= CxCommandFrame.encode( SessionSnapshotCommand.create( sessionID, sequence, model ), CxCommandEncoding.LATEST );
+				snapshotSequence	= sequence;
+				sendSnapshot( peer );
+			}
+			catch( final Exception e ) {
+				logger.error( format( "Failed to create a snapshot for peer '%s'", peer.id ), e );
+				removePeer( peer );
+			}
+		}
+	}
+	
+	/**
+	 * Queues the current snapshot for the given peer; the caller must hold the peers lock.
+	 * @param peer the given {@link Peer peer}
+	 */
+	private void sendSnapshot( final Peer peer ) {
+		final List<CxCommandFrame> frames = new ArrayList<CxCommandFrame>( 2 );
+		frames.addAll( encode( Arrays.asList( (CxCommand)SendHostInfoCommand.create( this ) ) ) );
+		frames.add( snapshot );
+		peer.snapshotPending = false;
+		peer.replaceQueue( frames );
+	}
+	
+	/**
+	 * Disconnects the given peer; if the model is not a hub, 
+	 * the session is closed.
+	 * @param peer the given {@link Peer peer}
+	 */
+	private void removePeer( final Peer peer ) {
+		// remove the peer
+		final boolean removed;
+		synchronized( peers ) {
+			removed = peers.remove( peer );
+		}
+		peer.disconnect();
+		if( !removed ) {
+			return;
+		}
+		logger.info( format( "Peer '%s' disconnected", peer.id ) );
+		
+		// a peer-to-peer session ends with its peer
+		if( !hub ) {
+			close();
+		}
+		else {
+			callBack.disconnected();
+		}
+	}
+	
+	/**
+	 * Encodes the given commands into frames; commands which 
+	 * cannot be encoded are reported and skipped.
+	 * @param commands the given {@link Collection collection} of {@link CxCommand commands}
+	 * @return the {@link List list} of {@link CxCommandFrame frames}
+	 */
+	private List<CxCommandFrame> encode( final Collection<CxCommand> commands ) {
+		final List<CxCommandFrame> frames = new ArrayList<CxCommandFrame>( commands.size() );
+		for( final CxCommand command : commands ) {
+			try {
+				frames.add( CxCommandFrame.encode( command, CxCommandEncoding.LATEST ) );
+			}
+			catch( final Exception e ) {
+				logger.error( format( "Failed to encode %s", command ), e );
+			}
 		}
+		return frames;
 	}
 	
 	/**
@@ -697,24 +1272,209 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 		return ( virtualCommand != null ) ? virtualCommand.value() : false;
 	}
 	
+	/**
+	 * Determines whether the given command may only be issued by the host 
+	 * (i.e. a session snapshot, a synchronization point or the host's information)
+	 * @param command the given {@link CxCommand command}
+	 * @return true, if the command is a host command
+	 */
+	private static boolean isHostCommand( final CxCommand command ) {
+		return ( command instanceof SessionSnapshotCommand ) || 
+			   ( command instanceof SyncPointCommand ) || 
+			   ( command instanceof SendHostInfoCommand );
+	}
+	
+	/**
+	 * Handles the failure of the connection to the given peer
+	 * @param peer the given {@link Peer peer}
+	 * @param cause the given failure
+	 */
+	private void failed( final Peer peer, final Exception cause ) {
+		// report the failure, unless the peer was disconnected locally
+		if( peer.connected ) {
+			if( hub ) {
+				logger.error( format( "Connection to peer '%s' broken", peer.id ), cause );
+			}
+			else {
+				controller.showErrorDialog( "Collaborative Session", "Connection broken", cause );
+			}
+			removePeer( peer );
+		}
+	}
+	
 	///////////////////////////////////////////////////////////////////////////
 	//		Inner Classes
 	///////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Represents the connection to a peer, and its (bounded) queue 
+	 * of outgoing frames
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class Peer {
+		private final LinkedList<CxCommandFrame> outgoing;
+		private final CxCommandChannel channel;
+		private final String id;
+		private volatile String token;
+		private int queuedBytes;
+		private int reservedFrames;
+		private int reservedBytes;
+		private volatile boolean connected;
+		private boolean snapshotPending;
+		private final IncomingCommandsThread incomingThread;
+		private final OutgoingCommandsThread outgoingThread;
+		
+		/**
+		 * Creates a new peer connection
+		 * @param socket the given {@link Socket socket}
+		 * @throws IOException
+		 */
+		public Peer( final Socket socket ) 
+		throws IOException {
+			this.connected		= true;
+			this.id				= socket.getInetAddress().getHostName();
+			this.channel		= new CxCommandChannel( socket );
+			this.outgoing		= new LinkedList<CxCommandFrame>();
+			this.incomingThread	= new IncomingCommandsThread( this, channel.getReader() );
+			this.outgoingThread	= new OutgoingCommandsThread( this, channel.getWriter() );
+		}
+		
+		/**
+		 * Starts the threads which transfer the peer's commands; the peer
+		 * must have been registered beforehand.
+		 */
+		public void start() {
+			incomingThread.start();
+			outgoingThread.start();
+		}
+		
+		/**
+		 * Closes the connection to the peer
+		 */
+		public void disconnect() {
+			synchronized( outgoing ) {
+				if( !connected ) {
+					return;
+				}
+				connected = false;
+				
+				// record the local changes which were never sent
+				if( !host ) {
+					for( final CxCommandFrame frame : outgoing ) {
+						if( !( frame.getCommand() instanceof JoinSessionCommand ) ) {
+							unsentEdits++;
+						}
+					}
+				}
+				outgoing.clear();
+				outgoing.notifyAll();
+			}
+			
+			// shutdown the threads
+			incomingThread.interrupt();
+			outgoingThread.interrupt();
+			
+			// close the channel (and the socket)
+			channel.close();
+		}
+		
+		/**
+		 * Appends the given frame to the outgoing queue, unless the queue 
+		 * is full; the frames of a pending re-synchronization do not count 
+		 * towards the limits of the queue.
+		 * @param frame the given {@link CxCommandFrame frame}
+		 * @return false, if the queue is full
+		 */
+		public boolean offer( final CxCommandFrame frame ) {
+			synchronized( outgoing ) {
+				// is the queue full? (a single frame is always accepted)
+				final int frames = outgoing.size() - reservedFrames;
+				if( ( frames > 0 ) && 
+					( ( frames >= MAX_QUEUED_FRAMES ) || ( queuedBytes - reservedBytes + frame.size() > MAX_QUEUED_BYTES ) ) ) {
+					return false;
+				}
+				
+				// append the frame
+				outgoing.add( frame );
+				queuedBytes += frame.size();
+				outgoing.notifyAll();
+				return true;
+			}
+		}
+		
+		/**
+		 * Replaces the queued frames with the given frames (e.g. a snapshot);
+		 * these frames do not count towards the limits of the queue.
+		 * @param snapshot the given {@link List list} of {@link CxCommandFrame frames}
+		 */
+		public void replaceQueue( final List<CxCommandFrame> snapshot ) {
+			synchronized( outgoing ) {
+				outgoing.clear();
+				outgoing.addAll( snapshot );
+				queuedBytes = 0;
+				for( final CxCommandFrame frame : snapshot ) {
+					queuedBytes += frame.size();
+				}
+				reservedFrames	= snapshot.size();
+				reservedBytes	= queuedBytes;
+				outgoing.notifyAll();
+			}
+		}
+		
+		/**
+		 * Indicates whether a re-synchronization is in progress
+		 * @return true, if frames of a snapshot remain to be sent
+		 */
+		public boolean isResyncing() {
+			synchronized( outgoing ) {
+				return reservedFrames > 0;
+			}
+		}
+		
+		/** 
+		 * Returns the next frame from the queue; blocks until one is available
+		 * @return the next {@link CxCommandFrame frame}, or <tt>null</tt> if the peer has been disconnected
+		 */
+		public CxCommandFrame take() {
+			synchronized( outgoing ) {
+				// wait until the queue is no longer empty (or the peer is disconnected) ...
+				while( connected && outgoing.isEmpty() ) {
+					try { outgoing.wait(); } catch( Exception e ) { }
+				}
+				
+				// is there a frame to retrieve?
+				if( outgoing.isEmpty() ) {
+					return null;
+				}
+				
+				// account for the frame
+				final CxCommandFrame frame = outgoing.removeFirst();
+				queuedBytes -= frame.size();
+				if( reservedFrames > 0 ) {
+					reservedFrames--;
+					reservedBytes -= frame.size();
+				}
+				return frame;
+			}
+		}
+	}
+	
 	/** 
 	 * Incoming Commands Thread
 	 * @author lawrence.daniels@gmail.com
 	 */
 	private class IncomingCommandsThread extends Thread {
-		private final CxCommandReader reader;
+		private final CxCommandBatcher batcher;
+		private final Peer peer;
 		
 		/** 
 		 * Creates a new incoming objects thread
-		 * @param in the given {@link InputStream input stream}
+		 * @param peer the given {@link Peer peer}
+		 * @param reader the given {@link CxCommandReader command reader}
 		 */
-		public IncomingCommandsThread( final InputStream in ) {
-			this.reader	= new CxCommandReader( in );
-			super.start();
+		public IncomingCommandsThread( final Peer peer, final CxCommandReader reader ) {
+			this.peer		= peer;
+			this.batcher	= new CxCommandBatcher( reader );
 		}
 
 		/** 
@@ -723,33 +1483,139 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 		@Override
 		public void run() {
 			logger.info( "Started incoming commands thread" );
-			while( alive ) {
+			while( peer.connected ) {
 				try {	
-					// get the next command from the stream
-					final CxCommand command = reader.read();
+					// get the next batch of commands from the stream (blocks until one arrives)
+					final List<CxCommand> batch = batcher.read();
 					
-					// if a command was retrieved ...
-					if( command != null ) {
-						// alert the operator
-						if( logger.isInfoEnabled() ) {
-							logger.info( format( "[READ] %s (%d bytes)", command, command.getLength() ) );
-						}
-						
-						// if the command is virtual, use the collaborative model instead
-						command.evaluate( isVirtual( command ) ? CollaborativeGeometricModel.this : model );
+					// has the remote peer closed the connection?
+					if( batch == null ) {
+						removePeer( peer );
+					}
+					
+					// otherwise, evaluate the batch, and redraw once
+					else {
+						evaluate( batch );
 						controller.requestRedraw();
 					}
 				}
 				catch( final Exception e ) {
-					controller.showErrorDialog( "Collaborative Session", "Connection broken", e );
-					close();
+					failed( peer, e );
 				}
 			}
-			
-			// notify the caller
-			callBack.disconnected();
 			logger.info( "Thread died" );
-		}		
+		}
+		
+		/**
+		 * Evaluates the given batch of commands, and relays it to the other 
+		 * peers; the redundant commands are dropped, and successive element 
+		 * additions are applied to the model as a single modification.
+		 * @param batch the given {@link List list} of {@link CxCommand commands}
+		 */
+		private void evaluate( final List<CxCommand> batch ) {
+			// alert the operator
+			if( logger.isInfoEnabled() ) {
+				for( final CxCommand command : batch ) {
+					logger.info( format( "[READ] %s (%d bytes)", command, command.getLength() ) );
+				}
+			}
+			
+			// evaluate the remaining commands
+			final List<CxCommand> commands = CxCommandBatcher.coalesce( batch );
+			synchronized( peers ) {
+				source = peer;
+				final Set<CxCommand> rejected = Collections.newSetFromMap( new IdentityHashMap<CxCommand, Boolean>() );
+				try {
+					final List<AddElementCommand> additions = new LinkedList<AddElementCommand>();
+					for( final CxCommand command : commands ) {
+						// host commands are accepted only from the host (i.e. never by the host)
+						if( host && isHostCommand( command ) ) {
+							logger.warn( format( "Ignoring %s from peer '%s'", command, peer.id ) );
+						}
+						
+						// gather the successive element additions
+						else if( command instanceof AddElementCommand ) {
+							additions.add( (AddElementCommand)command );
+						}
+						
+						// if the command is virtual, use the collaborative model instead
+						else {
+							addElements( additions, rejected );
+							try {
+								command.evaluate( isVirtual( command ) ? CollaborativeGeometricModel.this : model );
+							}
+							catch( final IllegalArgumentException e ) {
+								reject( command, e, rejected );
+							}
+						}
+					}
+					addElements( additions, rejected );
+				}
+				finally {
+					source = null;
+				}
+				
+				// relay the commands to the other peers (except for session and connection control commands,
+				// and the commands which were rejected)
+				if( hub ) {
+					final List<CxCommand> relayed = new ArrayList<CxCommand>( commands.size() );
+					for( final CxCommand command : commands ) {
+						if( !( command instanceof JoinSessionCommand ) && !( command instanceof SetEncodingCommand ) && 
+							!isHostCommand( command ) && !rejected.contains( command ) ) {
+							relayed.add( command );
+						}
+					}
+					broadcast( encode( relayed ), peer );
+					
+					// the peer's model reflects the rejected commands, so it must be re-synchronized
+					if( !rejected.isEmpty() ) {
+						logger.warn( format( "Peer '%s' has diverged; re-synchronizing", peer.id ) );
+						resync( peer );
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Adds the gathered elements (if any) to the model; if the model rejects 
+		 * the elements (i.e. a label is already in use), they are added individually,
+		 * and the commands of the rejected elements are recorded.
+		 * @param additions the given {@link List list} of gathered {@link AddElementCommand commands}
+		 * @param rejected the {@link Set set} of rejected {@link CxCommand commands}
+		 */
+		private void addElements( final List<AddElementCommand> additions, final Set<CxCommand> rejected ) {
+			if( !additions.isEmpty() ) {
+				final List<ModelElement> elements = new ArrayList<ModelElement>( additions.size() );
+				for( final AddElementCommand command : additions ) {
+					elements.add( command.toElement() );
+				}
+				try {
+					model.addPhysicalElements( elements );
+				}
+				catch( final IllegalArgumentException e ) {
+					for( int n = 0; n < elements.size(); n++ ) {
+						try {
+							model.addPhysicalElement( elements.get( n ) );
+						}
+						catch( final IllegalArgumentException cause ) {
+							reject( additions.get( n ), cause, rejected );
+						}
+					}
+				}
+				additions.clear();
+			}
+		}
+		
+		/**
+		 * Records the given command, which the model has rejected
+		 * @param command the given rejected {@link CxCommand command}
+		 * @param cause the reason for the rejection
+		 * @param rejected the {@link Set set} of rejected {@link CxCommand commands}
+		 */
+		private void reject( final CxCommand command, final IllegalArgumentException cause, final Set<CxCommand> rejected ) {
+			logger.error( format( "Rejected %s from peer '%s': %s", command, peer.id, cause.getMessage() ) );
+			rejected.add( command );
+		}
 	}
 	
 	/** 
@@ -758,14 +1624,16 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 	 */
 	private class OutgoingCommandsThread extends Thread {
 		private final CxCommandWriter writer;
+		private final Peer peer;
 		
 		/** 
 		 * Creates a new outgoing objects thread
-		 * @param out the given {@link OutputStream output stream}
+		 * @param peer the given {@link Peer peer}
+		 * @param writer the given {@link CxCommandWriter command writer}
 		 */
-		public OutgoingCommandsThread( final OutputStream out ) {
-			this.writer	 = new CxCommandWriter( out );
-			super.start();
+		public OutgoingCommandsThread( final Peer peer, final CxCommandWriter writer ) {
+			this.peer	= peer;
+			this.writer	= writer;
 		}
 
 		/** 
@@ -774,53 +1642,28 @@ public class CollaborativeGeometricModel implements RemoteGeometricModel {
 		@Override
 		public void run() {
 			logger.info( "Started outgoing commands thread" );
-			while( alive ) {
-				// get the next synchronization command from the queue
-				final CxCommand command = getNextCommand();
+			while( peer.connected ) {
+				// get the next frame from the queue
+				final CxCommandFrame frame = peer.take();
 				
-				// if a request was retrieved, transfer it ...
-				if( command != null ) {
+				// if a frame was retrieved, transfer it ...
+				if( frame != null ) {
 					try {
-						// write the command
-						writer.write( command );
+						// write the frame
+						writer.write( frame );
 						
 						// alert the operator
 						if( logger.isInfoEnabled() ) {
-							logger.info( format( "[WROTE] %s (%d bytes)", command, command.getLength() ) );
+							logger.info( format( "[WROTE] %s (%d bytes)", frame.getCommand(), frame.size() - 4 ) );
 						}
 					}
 					catch( final Exception e ) {
-						controller.showErrorDialog( "Collaborative Session", "Connection broken", e );
-						close();
+						failed( peer, e );
 					}
 				}
 			}
-			
-			// notify the caller
-			callBack.disconnected();
 			logger.info( "Thread is dead" );
 		}
-		
-		/** 
-		 * Returns the next synchronization command from the queue
-		 * @return the next {@link CxCommand command}
-		 */
-		private CxCommand getNextCommand() {
-			CxCommand request = null;
-			synchronized( outgoing ) {
-				// wait until the queue is no longer empty ...
-				while( outgoing.isEmpty() ) {
-					try { outgoing.wait(); } catch( Exception e ) { }
-				}
-				
-				// is there an object to retrieve?
-				request = !outgoing.isEmpty() ? outgoing.removeFirst() : null;
-					
-				// notify all others
-				outgoing.notifyAll();
-			}
-			return request;
-		}
 	}
 	
 }
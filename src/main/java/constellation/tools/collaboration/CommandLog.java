@@ -0,0 +1,114 @@
+package constellation.tools.collaboration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import constellation.commands.CxCommandFrame;
+
+/**
+ * Represents the bounded log of the commands most recently distributed 
+ * by a host; each command is assigned the next sequence number. The log 
+ * allows a peer which re-joins the session to be sent only the commands 
+ * it has missed, provided that they are still retained.
+ * @author lawrence.daniels@gmail.com
+ */
+class CommandLog {
+	private final CxCommandFrame[] frames;
+	private final String[] origins;
+	private final long maxBytes;
+	private long sequence;
+	private long bytes;
+	private int count;
+	
+	/**
+	 * Creates a new command log
+	 * @param capacity the given maximum number of commands retained
+	 * @param maxBytes the given maximum number of bytes retained
+	 */
+	public CommandLog( final int capacity, final long maxBytes ) {
+		this.frames		= new CxCommandFrame[ capacity ];
+		this.origins	= new String[ capacity ];
+		this.maxBytes	= maxBytes;
+	}
+	
+	/**
+	 * Returns the sequence number of the last command
+	 * @return the sequence number
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * Appends the given command frame to the log; the oldest commands
+	 * are discarded once the capacity of the log has been exceeded.
+	 * @param frame the given {@link CxCommandFrame frame}
+	 * @param origin the token of the peer from which the command was received, or <tt>null</tt>
+	 * @return the sequence number assigned to the command
+	 */
+	public long append( final CxCommandFrame frame, final String origin ) {
+		// discard the oldest command, if the log is full
+		if( count == frames.length ) {
+			discardOldest();
+		}
+		
+		// append the command
+		final int index = slot( ++sequence );
+		frames[index]	= frame;
+		origins[index]	= origin;
+		bytes += frame.size();
+		count++;
+		
+		// discard the oldest commands until the log is within its budget
+		while( ( bytes > maxBytes ) && ( count > 1 ) ) {
+			discardOldest();
+		}
+		return sequence;
+	}
+	
+	/**
+	 * Returns the commands which follow the given sequence number, 
+	 * excluding the commands received from the given peer
+	 * @param position the given sequence number of the last command received by the peer
+	 * @param origin the token identifying the peer
+	 * @return the {@link List list} of {@link CxCommandFrame frames}, or <tt>null</tt> 
+	 * if the log no longer contains all of the commands which follow the given position
+	 */
+	public List<CxCommandFrame> since( final long position, final String origin ) {
+		// are all of the missed commands still retained?
+		if( ( position > sequence ) || ( position < sequence - count ) ) {
+			return null;
+		}
+		
+		// gather the missed commands
+		final List<CxCommandFrame> missed = new ArrayList<CxCommandFrame>( (int)( sequence - position ) );
+		for( long n = position + 1; n <= sequence; n++ ) {
+			final int index = slot( n );
+			if( ( origin == null ) || !origin.equals( origins[index] ) ) {
+				missed.add( frames[index] );
+			}
+		}
+		return missed;
+	}
+	
+	/**
+	 * Discards the oldest command
+	 */
+	private void discardOldest() {
+		final int index = slot( sequence - count + 1 );
+		bytes -= frames[index].size();
+		frames[index]	= null;
+		origins[index]	= null;
+		count--;
+	}
+	
+	/**
+	 * Returns the slot of the given sequence number
+	 * @param n the given sequence number
+	 * @return the index of the slot
+	 */
+	private int slot( final long n ) {
+		return (int)( n % frames.length );
+	}
+
+}
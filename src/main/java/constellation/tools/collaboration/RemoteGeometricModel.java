@@ -2,6 +2,7 @@ package constellation.tools.collaboration;
 
 import constellation.commands.VirtualModel;
 import constellation.tools.collaboration.commands.RemoteMessagingDialog;
+import constellation.tools.collaboration.commands.SessionSnapshotCommand;
 
 /**
  * Represents a remote model; a model that is being
@@ -34,4 +35,25 @@ public interface RemoteGeometricModel extends VirtualModel {
 	 */
 	RemoteMessagingDialog getMessagingDialog();
 	
+	/**
+	 * Joins the peer whose commands are being evaluated to the session (host only);
+	 * the peer is sent either the commands it has missed, or a snapshot of the model.
+	 * @param token the given token identifying the peer
+	 * @param sessionID the given ID of the session previously joined by the peer, or <tt>null</tt>
+	 * @param sequence the given sequence number of the last command received by the peer
+	 */
+	void joinSession( String token, String sessionID, long sequence );
+	
+	/**
+	 * Replaces the contents of the model with the given snapshot of the host's model
+	 * @param snapshot the given {@link SessionSnapshotCommand snapshot}
+	 */
+	void loadSnapshot( SessionSnapshotCommand snapshot );
+	
+	/**
+	 * Records the sequence number of the last command received from the host
+	 * @param sequence the given sequence number
+	 */
+	void setSequence( long sequence );
+	
 }
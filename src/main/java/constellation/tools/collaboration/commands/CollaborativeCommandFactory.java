@@ -18,6 +18,9 @@ import constellation.model.GeometricModel;
 public class CollaborativeCommandFactory {
 	public static final Integer SEND_HOST_INFO	= 0x1000;
 	public static final Integer SEND_MSG		= 0x1001;
+	public static final Integer JOIN_SESSION	= 0x1002;
+	public static final Integer SESSION_SNAPSHOT	= 0x1003;
+	public static final Integer SYNC_POINT		= 0x1004;
 	
 	/**
 	 * Register the Collaborative command decoders
@@ -26,6 +29,9 @@ public class CollaborativeCommandFactory {
 		final CxCommandManager ccm = CxCommandManager.getInstance();
 		ccm.register( SEND_HOST_INFO,	new SendHostInfoCommandDecoder() );
 		ccm.register( SEND_MSG, 		new SendMessageCommandDecoder() );
+		ccm.register( JOIN_SESSION,		new JoinSessionCommandDecoder() );
+		ccm.register( SESSION_SNAPSHOT,	new SessionSnapshotCommandDecoder() );
+		ccm.register( SYNC_POINT,		new SyncPointCommandDecoder() );
 	}
 
 	/** 
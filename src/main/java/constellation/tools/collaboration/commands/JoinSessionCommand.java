@@ -0,0 +1,82 @@
+package constellation.tools.collaboration.commands;
+
+import static constellation.commands.CxCommandManager.encodeString;
+import static constellation.tools.collaboration.commands.CollaborativeCommandFactory.JOIN_SESSION;
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import constellation.commands.builtin.AbstractCommand;
+import constellation.model.GeometricModel;
+import constellation.tools.collaboration.RemoteGeometricModel;
+
+/**
+ * Join Session Command; sent by a peer upon connecting to a host. A peer
+ * which has been connected to the session before identifies the last 
+ * command it has received, so that the host may send only the commands
+ * it has missed (rather than a snapshot of the entire model).
+ * @author lawrence.daniels@gmail.com
+ */
+@VirtualCommand(true)
+public class JoinSessionCommand extends AbstractCommand {
+	private final String token;
+	private final String sessionID;
+	private final long sequence;
+	
+	/** 
+	 * Creates a new "Join Session" Command
+	 * @param token the given token identifying the peer
+	 * @param sessionID the given ID of the session previously joined, or <tt>null</tt>
+	 * @param sequence the given sequence number of the last command received
+	 */
+	JoinSessionCommand( final String token, final String sessionID, final long sequence ) {
+		this.token		= token;
+		this.sessionID	= sessionID;
+		this.sequence	= sequence;
+	}
+	
+	/** 
+	 * Creates a new "Join Session" Command
+	 * @param token the given token identifying the peer
+	 * @param sessionID the given ID of the session previously joined, or <tt>null</tt>
+	 * @param sequence the given sequence number of the last command received
+	 * @return a new {@link JoinSessionCommand "Join Session" Command}
+	 */
+	public static JoinSessionCommand create( final String token, final String sessionID, final long sequence ) {
+		return new JoinSessionCommand( token, sessionID, sequence );
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		// append the OpCode
+		stream.writeInt( JOIN_SESSION );
+		
+		// append the peer's token and position
+		encodeString( stream, token );
+		encodeString( stream, sessionID );
+		stream.writeLong( sequence );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void evaluate( final GeometricModel model ) {
+		// the model must be connected
+		if( model.isVirtual() ) {
+			final RemoteGeometricModel remoteModel = (RemoteGeometricModel)model;
+			remoteModel.joinSession( token, sessionID, sequence );
+		}
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public String toString() {
+		return format( "[%04X] JOIN SESSION '%s' #%d", JOIN_SESSION, sessionID, sequence );
+	}
+	
+}
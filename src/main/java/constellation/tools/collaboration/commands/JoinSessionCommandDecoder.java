@@ -0,0 +1,30 @@
+package constellation.tools.collaboration.commands;
+
+import static constellation.commands.CxCommandManager.decodeString;
+
+import java.nio.ByteBuffer;
+
+import constellation.commands.CxCommand;
+import constellation.commands.CxCommandDecoder;
+
+/**
+ * Join Session Command Decoder
+ * @author lawrence.daniels@gmail.com
+ */
+public class JoinSessionCommandDecoder implements CxCommandDecoder {
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.commands.CxCommandDecoder#decode(java.nio.ByteBuffer)
+	 */
+	public CxCommand decode( final ByteBuffer buffer ) {
+		// extract the attributes of the command
+		final String token		= decodeString( buffer );
+		final String sessionID	= decodeString( buffer );
+		final long sequence		= buffer.getLong();
+		
+		// return the command
+		return new JoinSessionCommand( token, sessionID, sequence );
+	}
+
+}
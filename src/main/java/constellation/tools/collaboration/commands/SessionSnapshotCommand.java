@@ -0,0 +1,134 @@
+package constellation.tools.collaboration.commands;
+
+import static constellation.commands.CxCommandEncoding.MAX_FRAME_LENGTH;
+import static constellation.commands.CxCommandManager.encodeContent;
+import static constellation.commands.CxCommandManager.encodeString;
+import static constellation.tools.collaboration.commands.CollaborativeCommandFactory.SESSION_SNAPSHOT;
+import static java.lang.String.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import constellation.commands.builtin.AbstractCommand;
+import constellation.model.GeometricModel;
+import constellation.model.formats.cxb.CXBFormatReader;
+import constellation.model.formats.cxb.CXBFormatWriter;
+import constellation.tools.collaboration.RemoteGeometricModel;
+
+/**
+ * Session Snapshot Command; carries the state of the host's model as a
+ * compressed binary model (CXB), together with the sequence number of 
+ * the last command it reflects. The peer replaces the contents of its
+ * model with the snapshot, and then continues with the live commands
+ * which follow that sequence number.
+ * @author lawrence.daniels@gmail.com
+ */
+@VirtualCommand(true)
+public class SessionSnapshotCommand extends AbstractCommand {
+	private final String sessionID;
+	private final long sequence;
+	private final int size;
+	private final byte[] content;
+	
+	/** 
+	 * Creates a new "Session Snapshot" Command
+	 * @param sessionID the given session ID
+	 * @param sequence the given sequence number of the last command reflected by the snapshot
+	 * @param size the given uncompressed size of the snapshot
+	 * @param content the given compressed snapshot
+	 */
+	SessionSnapshotCommand( final String sessionID, final long sequence, final int size, final byte[] content ) {
+		this.sessionID	= sessionID;
+		this.sequence	= sequence;
+		this.size		= size;
+		this.content	= content;
+	}
+	
+	/** 
+	 * Creates a new "Session Snapshot" Command
+	 * @param sessionID the given session ID
+	 * @param sequence the given sequence number of the last command reflected by the snapshot
+	 * @param model the given {@link GeometricModel model}
+	 * @return a new {@link SessionSnapshotCommand "Session Snapshot" Command}
+	 * @throws IOException
+	 */
+	public static SessionSnapshotCommand create( final String sessionID, final long sequence, final GeometricModel model ) 
+	throws IOException {
+		// encode the model, and compress it
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 65536 );
+		final long size = CXBFormatWriter.writeCompressedModel( model, bytes );
+		if( size > MAX_FRAME_LENGTH ) {
+			throw new IOException( format( "The snapshot is too large (%d bytes)", size ) );
+		}
+		return new SessionSnapshotCommand( sessionID, sequence, (int)size, bytes.toByteArray() );
+	}
+	
+	/**
+	 * Returns the session ID
+	 * @return the session ID
+	 */
+	public String getSessionID() {
+		return sessionID;
+	}
+	
+	/**
+	 * Returns the sequence number of the last command reflected by the snapshot
+	 * @return the sequence number
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * Decompresses and decodes the snapshot
+	 * @return the {@link GeometricModel model}
+	 * @throws IOException if the snapshot is corrupt, or exceeds the maximum size
+	 */
+	public GeometricModel decodeModel() 
+	throws IOException {
+		// is the size of the snapshot valid?
+		if( ( size < 0 ) || ( size > MAX_FRAME_LENGTH ) ) {
+			throw new IOException( format( "Invalid snapshot size (%d bytes)", size ) );
+		}
+		
+		// decompress and decode the snapshot
+		return CXBFormatReader.readCompressedModel( content, size );
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		// append the OpCode
+		stream.writeInt( SESSION_SNAPSHOT );
+		
+		// append the session position
+		encodeString( stream, sessionID );
+		stream.writeLong( sequence );
+		
+		// append the snapshot
+		stream.writeInt( size );
+		encodeContent( stream, content );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void evaluate( final GeometricModel model ) {
+		// the model must be connected
+		if( model.isVirtual() ) {
+			final RemoteGeometricModel remoteModel = (RemoteGeometricModel)model;
+			remoteModel.loadSnapshot( this );
+		}
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public String toString() {
+		return format( "[%04X] SESSION SNAPSHOT '%s' #%d (%d of %d bytes)", SESSION_SNAPSHOT, sessionID, sequence, content.length, size );
+	}
+	
+}
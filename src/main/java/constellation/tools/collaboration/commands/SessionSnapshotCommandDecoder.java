@@ -0,0 +1,32 @@
+package constellation.tools.collaboration.commands;
+
+import static constellation.commands.CxCommandManager.decodeContent;
+import static constellation.commands.CxCommandManager.decodeString;
+
+import java.nio.ByteBuffer;
+
+import constellation.commands.CxCommand;
+import constellation.commands.CxCommandDecoder;
+
+/**
+ * Session Snapshot Command Decoder
+ * @author lawrence.daniels@gmail.com
+ */
+public class SessionSnapshotCommandDecoder implements CxCommandDecoder {
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.commands.CxCommandDecoder#decode(java.nio.ByteBuffer)
+	 */
+	public CxCommand decode( final ByteBuffer buffer ) {
+		// extract the attributes of the command
+		final String sessionID	= decodeString( buffer );
+		final long sequence		= buffer.getLong();
+		final int size			= buffer.getInt();
+		final byte[] content	= decodeContent( buffer );
+		
+		// return the command
+		return new SessionSnapshotCommand( sessionID, sequence, size, content );
+	}
+
+}
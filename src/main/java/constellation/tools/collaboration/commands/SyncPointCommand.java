@@ -0,0 +1,67 @@
+package constellation.tools.collaboration.commands;
+
+import static constellation.tools.collaboration.commands.CollaborativeCommandFactory.SYNC_POINT;
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import constellation.commands.builtin.AbstractCommand;
+import constellation.model.GeometricModel;
+import constellation.tools.collaboration.RemoteGeometricModel;
+
+/**
+ * Synchronization Point Command; sent by the host after each group of
+ * commands, to inform its peers of the sequence number of the last
+ * command in the session's log.
+ * @author lawrence.daniels@gmail.com
+ */
+@VirtualCommand(true)
+public class SyncPointCommand extends AbstractCommand {
+	private final long sequence;
+	
+	/** 
+	 * Creates a new "Sync Point" Command
+	 * @param sequence the given sequence number
+	 */
+	SyncPointCommand( final long sequence ) {
+		this.sequence = sequence;
+	}
+	
+	/** 
+	 * Creates a new "Sync Point" Command
+	 * @param sequence the given sequence number
+	 * @return a new {@link SyncPointCommand "Sync Point" Command}
+	 */
+	public static SyncPointCommand create( final long sequence ) {
+		return new SyncPointCommand( sequence );
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		stream.writeInt( SYNC_POINT );
+		stream.writeLong( sequence );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void evaluate( final GeometricModel model ) {
+		// the model must be connected
+		if( model.isVirtual() ) {
+			final RemoteGeometricModel remoteModel = (RemoteGeometricModel)model;
+			remoteModel.setSequence( sequence );
+		}
+	}
+
+	/** 
+	 * {@inheritDoc}
+	 */
+	public String toString() {
+		return format( "[%04X] SYNC POINT #%d", SYNC_POINT, sequence );
+	}
+	
+}
@@ -0,0 +1,22 @@
+package constellation.tools.collaboration.commands;
+
+import java.nio.ByteBuffer;
+
+import constellation.commands.CxCommand;
+import constellation.commands.CxCommandDecoder;
+
+/**
+ * Synchronization Point Command Decoder
+ * @author lawrence.daniels@gmail.com
+ */
+public class SyncPointCommandDecoder implements CxCommandDecoder {
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.commands.CxCommandDecoder#decode(java.nio.ByteBuffer)
+	 */
+	public CxCommand decode( final ByteBuffer buffer ) {
+		return new SyncPointCommand( buffer.getLong() );
+	}
+
+}
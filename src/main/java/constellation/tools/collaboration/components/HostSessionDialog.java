@@ -1,5 +1,6 @@
 package constellation.tools.collaboration.components;
 
+import static constellation.preferences.ServerPreferences.DEFAULT_MAX_PEERS;
 import static constellation.preferences.ServerPreferences.DEFAULT_PEER_TO_PEER_PORT;
 
 import java.awt.GridBagConstraints;
@@ -38,6 +39,7 @@ public class HostSessionDialog extends CxDialog {
 	private CollaborationPeerToPeerServer sharingServer;
 	private JLabel ipAddressField;
 	private CxIntegerField portField;
+	private CxIntegerField peersField;
 	private JLabel statusField;
 	private JLabel statusIcon;
 	private CxButton startButton;
@@ -129,7 +131,7 @@ public class HostSessionDialog extends CxDialog {
 		cp.gbc.gridwidth = 1;
 		
 		// row #1, column 4
-		cp.gbc.gridheight = 4;
+		cp.gbc.gridheight = 5;
 		cp.attach( 3, row, statusIcon = new JLabel( UNCONNECTED_ICON ) );
 		cp.gbc.gridheight = 1;
 		
@@ -140,12 +142,18 @@ public class HostSessionDialog extends CxDialog {
 		cp.gbc.gridwidth = 1;
 		
 		// row #3
+		cp.attach( 0, ++row, new JLabel( "Peers:")  );
+		cp.gbc.gridwidth = 2;
+		cp.attach( 1,   row, peersField = new CxIntegerField( DEFAULT_MAX_PEERS ) );
+		cp.gbc.gridwidth = 1;
+		
+		// row #4
 		cp.attach( 0, ++row, new JLabel( "Status:")  );
 		cp.gbc.gridwidth = 2;
 		cp.attach( 1,   row, statusField = new JLabel() );
 		cp.gbc.gridwidth = 1;
 		
-		// row #4
+		// row #5
 		cp.attach( 1, ++row, startButton );
 		cp.attach( 2,   row, stopButton );
 		return cp;
@@ -155,11 +163,12 @@ public class HostSessionDialog extends CxDialog {
 	 * Attempts to starts the server
 	 */
 	private void startServer() {
-		// get the port number
+		// get the port number and the maximum number of peers
 		final int port = portField.getInteger();
+		final int maxPeers = Math.max( 1, peersField.getInteger() );
 		
 		// initialize the sharing server
-		sharingServer = new CollaborationPeerToPeerServer( controller, port );
+		sharingServer = new CollaborationPeerToPeerServer( controller, port, maxPeers );
 		try {
 			// start the server
 			sharingServer.start();
@@ -189,6 +198,7 @@ public class HostSessionDialog extends CxDialog {
 		startButton.setEnabled( !started );
 		stopButton.setEnabled( started );
 		portField.setEnabled( !started );
+		peersField.setEnabled( !started );
 		statusField.setText( started ? "Started" : "Stopped" );
 	}
 	
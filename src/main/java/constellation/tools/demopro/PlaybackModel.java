@@ -5,10 +5,8 @@ import static constellation.commands.CxCommandManager.createDeleteCommands;
 
 import java.awt.Color;
 import java.awt.Image;
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.InputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -18,32 +16,46 @@ import org.apache.log4j.Logger;
 
 import constellation.ApplicationController;
 import constellation.commands.CxCommand;
-import constellation.commands.CxCommandReader;
 import constellation.commands.VirtualModel;
 import constellation.commands.builtin.AddUserImageCommand;
+import constellation.commands.builtin.KeyframeCommand;
+import constellation.commands.builtin.WaitCommand;
 import constellation.drawing.EntityNamingService;
 import constellation.drawing.EntityRepresentation;
 import constellation.drawing.EntityTypes;
 import constellation.drawing.LinePatterns;
 import constellation.drawing.RenderableElement;
 import constellation.drawing.elements.ModelElement;
+import constellation.drawing.entities.RectangleXY;
 import constellation.drawing.entities.UserImage;
 import constellation.model.DraftingStandards;
 import constellation.model.Filter;
 import constellation.model.GeometricModel;
 import constellation.model.ModelChangeType;
+import constellation.model.SnapPoint;
 import constellation.model.Unit;
+import constellation.tools.demopro.RecordingIndex.Keyframe;
 import constellation.tools.demopro.plugin.RecordingPlugin;
 
 /**
- * Constellation DemoPro Play-back Model
+ * Constellation DemoPro Play-back Model. The recording may be played back
+ * at any speed, forwards or in reverse, and may be {@link #seek(long) sought}
+ * to any point in time; seeking restores the keyframe which precedes that 
+ * point, and replays the commands which follow the keyframe (without delay).
  * @author lawrence.daniels@gmail.com
  */
 public class PlaybackModel implements VirtualModel {
+	// the interval (in milliseconds) between the steps of reverse play-back
+	private static final long REVERSE_STEP = 250L;
+	
+	// the maximum time (in milliseconds) the play-back waits before checking its controls
+	private static final long MAX_WAIT = 100L;
+	
+	// internal fields
 	private final Logger logger = Logger.getLogger( getClass() );
 	private final RecordingPlugin recorder;
 	private final ApplicationController controller;
-	private final DataInputStream in;
+	private final RecordingReader reader;
 	private final PlaybackThead thread;
 	private final GeometricModel model;
 
@@ -52,21 +64,79 @@ public class PlaybackModel implements VirtualModel {
 	 * @param model the given {@link GeometricModel host model}
 	 * @param controller the given {@link ApplicationController controller}
 	 * @param recorder the given {@link RecordingPlugin recorder}
-	 * @param in the given recording {@link InputStream input stream}
+	 * @param recordingFile the given recording {@link File file}
+	 * @throws IOException if the recording could not be opened
 	 */
 	public PlaybackModel( final GeometricModel model, 
 						  final ApplicationController controller, 
 						  final RecordingPlugin recorder, 
-						  final InputStream in ) {
+						  final File recordingFile ) 
+	throws IOException {
 		this.recorder	= recorder;
 		this.controller	= controller;
-		this.in			= new DataInputStream( new BufferedInputStream( in, 8192 ) );
+		this.reader		= new RecordingReader( recordingFile );
 		this.thread		= new PlaybackThead();
 		this.model		= model;
 		
 		// start the thread
 		thread.start();
 	}
+	
+	/**
+	 * Returns the duration of the recording
+	 * @return the duration (in milliseconds)
+	 */
+	public long getDuration() {
+		return reader.getDuration();
+	}
+	
+	/**
+	 * Returns the current position of the play-back
+	 * @return the time (in milliseconds, relative to the beginning of the recording)
+	 */
+	public long getTime() {
+		return thread.getTime();
+	}
+	
+	/**
+	 * Moves the play-back to the given point in time
+	 * @param time the given time (in milliseconds, relative to the beginning of the recording)
+	 */
+	public void seek( final long time ) {
+		thread.seek( time );
+	}
+	
+	/**
+	 * Returns the speed of the play-back
+	 * @return the speed (relative to the recording); negative, if playing in reverse
+	 */
+	public double getSpeed() {
+		return thread.getSpeed();
+	}
+	
+	/**
+	 * Sets the speed of the play-back
+	 * @param speed the speed (relative to the recording); negative, to play in reverse
+	 */
+	public void setSpeed( final double speed ) {
+		thread.setSpeed( speed );
+	}
+	
+	/**
+	 * Indicates whether the play-back is paused
+	 * @return true, if the play-back is paused
+	 */
+	public boolean isPaused() {
+		return thread.isPaused();
+	}
+	
+	/**
+	 * Pauses (or resumes) the play-back
+	 * @param paused indicates whether the play-back is to be paused
+	 */
+	public void setPaused( final boolean paused ) {
+		thread.setPaused( paused );
+	}
 
 	/** 
 	 * {@inheritDoc}
@@ -109,6 +179,13 @@ public class PlaybackModel implements VirtualModel {
 		queue( createAddCommands( elements ) );
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public int resolveLabelConflicts( final Collection<? extends ModelElement> elements ) {
+		return model.resolveLabelConflicts( elements );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -176,6 +253,13 @@ public class PlaybackModel implements VirtualModel {
 		return model.getPhysicalElements();
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public int getPhysicalElementCount() {
+		return model.getPhysicalElementCount();
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -190,6 +274,48 @@ public class PlaybackModel implements VirtualModel {
 		model.getVisibleElements( container, types );
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void getVisibleElements( final Collection<ModelElement> container, final RectangleXY region ) {
+		model.getVisibleElements( container, region );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public SnapPoint lookupSnapPoint( final double x, final double y, final double maxDistance ) {
+		return model.lookupSnapPoint( x, y, maxDistance );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void updatePhysicalElement( final ModelElement ... elements ) {
+		model.updatePhysicalElement( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void modifyingPhysicalElement( final ModelElement... elements ) {
+		model.modifyingPhysicalElement( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void updatePhysicalElements( final Collection<? extends ModelElement> elements ) {
+		model.updatePhysicalElements( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void relabelPhysicalElement( final ModelElement element, final String label ) {
+		model.relabelPhysicalElement( element, label );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -535,6 +661,27 @@ public class PlaybackModel implements VirtualModel {
 	public void setPickedElement( final ModelElement element ) {
 		model.setPickedElement( element );
 	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void clearSnapPoint() {
+		model.clearSnapPoint();
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public SnapPoint getSnapPoint() {
+		return model.getSnapPoint();
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void setSnapPoint( final SnapPoint point ) {
+		model.setSnapPoint( point );
+	}
 
 	/** 
 	 * {@inheritDoc}
@@ -575,12 +722,7 @@ public class PlaybackModel implements VirtualModel {
 	 * {@inheritDoc}
 	 */
 	public void close() {
-		try {
-			in.close();
-		}
-		catch( final Exception e ) {
-			logger.error( "Error closing stream", e );
-		}
+		thread.shutdown();
 	}
 		
 	/** 
@@ -598,7 +740,7 @@ public class PlaybackModel implements VirtualModel {
 	}
 	
 	///////////////////////////////////////////////////////////////////////////
-	//		Recording Thread
+	//		Play-back Thread
 	///////////////////////////////////////////////////////////////////////////
 	
 	/** 
@@ -607,46 +749,251 @@ public class PlaybackModel implements VirtualModel {
 	 * @author lawrence.daniels@gmail.com
 	 */
 	private class PlaybackThead extends Thread {
-		private CxCommandReader reader;
+		private boolean alive = true;
+		private boolean paused;
+		private double speed = 1d;
+		private long seekTime = -1L;
+		private long time;
+		private long lastReported = -1L;
 		
 		/* 
 		 * (non-Javadoc)
 		 * @see java.lang.Thread#run()
 		 */
 		public void run() {
-			// open a new command reader
-			reader = new CxCommandReader( in );
+			boolean more = true;
+			try {
+				while( more && isRunning() ) {
+					// has a new position been requested?
+					final long target = takeSeekTime();
+					if( target >= 0 ) {
+						seekTo( target );
+					}
+					
+					// is the play-back paused?
+					else if( isPaused() ) {
+						await( MAX_WAIT );
+					}
+					
+					// is the play-back in reverse?
+					else if( getSpeed() < 0 ) {
+						more = stepBackward();
+					}
+					
+					// otherwise, play forward
+					else {
+						more = stepForward();
+					}
+				}
+			}
+			catch( final IOException e ) {
+				logger.error( "Error reading command from recording", e );
+			}
+			finally {
+				reader.close();
+			}
 			
-			// read commands until empty ...
-			CxCommand command;
-			while( ( command = nextCommand() ) != null ) {
-				// evaluate the command 
+			// stop the timer (unless the play-back was stopped)
+			if( isRunning() ) {
+				recorder.stopPlaybackOrRecording();
+			}
+		}
+		
+		/**
+		 * Returns the current position of the play-back
+		 * @return the time (in milliseconds)
+		 */
+		public synchronized long getTime() {
+			return time;
+		}
+		
+		/**
+		 * Returns the speed of the play-back
+		 * @return the speed
+		 */
+		public synchronized double getSpeed() {
+			return speed;
+		}
+		
+		/**
+		 * Sets the speed of the play-back
+		 * @param speed the speed
+		 */
+		public synchronized void setSpeed( final double speed ) {
+			this.speed = speed;
+			notifyAll();
+		}
+		
+		/**
+		 * Indicates whether the play-back is paused
+		 * @return true, if the play-back is paused
+		 */
+		public synchronized boolean isPaused() {
+			return paused;
+		}
+		
+		/**
+		 * Pauses (or resumes) the play-back
+		 * @param paused indicates whether the play-back is to be paused
+		 */
+		public synchronized void setPaused( final boolean paused ) {
+			this.paused = paused;
+			notifyAll();
+		}
+		
+		/**
+		 * Requests that the play-back be moved to the given point in time
+		 * @param time the given time (in milliseconds)
+		 */
+		public synchronized void seek( final long time ) {
+			this.seekTime = Math.max( 0L, time );
+			notifyAll();
+		}
+		
+		/**
+		 * Stops the play-back
+		 */
+		public synchronized void shutdown() {
+			this.alive = false;
+			notifyAll();
+		}
+		
+		/**
+		 * Indicates whether the play-back has not been stopped
+		 * @return true, if the play-back has not been stopped
+		 */
+		private synchronized boolean isRunning() {
+			return alive;
+		}
+		
+		/**
+		 * Retrieves (and clears) the requested position
+		 * @return the requested time, or -1 if none has been requested
+		 */
+		private synchronized long takeSeekTime() {
+			final long target = seekTime;
+			seekTime = -1L;
+			return target;
+		}
+		
+		/**
+		 * Waits for the given time, or until a control is changed
+		 * @param delay the maximum time to wait (in milliseconds)
+		 */
+		private synchronized void await( final long delay ) {
+			if( alive && ( seekTime < 0 ) ) {
+				try { wait( Math.max( 1L, delay ) ); }
+				catch( final InterruptedException e ) {
+					logger.error( "Thread was interrupted while waiting", e );
+				}
+			}
+		}
+		
+		/**
+		 * Sets the current position of the play-back
+		 * @param time the given time (in milliseconds)
+		 */
+		private void setTime( final long time ) {
+			synchronized( this ) {
+				this.time = time;
+			}
+			
+			// report the position (once per second of the recording)
+			if( ( time / 1000L ) != lastReported ) {
+				lastReported = time / 1000L;
+				recorder.updatePlaybackPosition( time, reader.getDuration() );
+			}
+		}
+		
+		/**
+		 * Plays the next command (or the next part of a delay)
+		 * @return false, if the end of the recording has been reached
+		 * @throws IOException
+		 */
+		private boolean stepForward() 
+		throws IOException {
+			// is a delay in progress?
+			final long current = getTime();
+			if( current < reader.getTime() ) {
+				final double rate = getSpeed();
+				final long delay = Math.min( MAX_WAIT, (long)Math.ceil( ( reader.getTime() - current ) / rate ) );
+				final long startTime = System.currentTimeMillis();
+				await( delay );
+				final long elapsedTime = System.currentTimeMillis() - startTime;
+				setTime( Math.min( reader.getTime(), current + (long)( elapsedTime * rate ) ) );
+				return true;
+			}
+			
+			// read the next command
+			final CxCommand command = reader.read();
+			if( command == null ) {
+				return false;
+			}
+			
+			// evaluate the command (the model already reflects the keyframes)
+			if( !( command instanceof WaitCommand ) && !( command instanceof KeyframeCommand ) ) {
 				command.evaluate( model );
 				
 				// redraw the scene
 				controller.requestRedraw();
 			}
-			
-			// stop the timer
-			recorder.stopPlaybackOrRecording();
+			return true;
 		}
 		
 		/**
-		 * Retrieves the next command from the stream
-		 * @return the {@link CxCommand command}
+		 * Moves the play-back backwards by one step
+		 * @return false, if the play-back cannot continue
+		 * @throws IOException
 		 */
-		private CxCommand nextCommand() {
-			CxCommand command = null;
+		private boolean stepBackward() 
+		throws IOException {
+			// has the beginning been reached?
+			final long current = getTime();
+			if( current == 0 ) {
+				setSpeed( 1d );
+				setPaused( true );
+				recorder.playbackPaused();
+				return true;
+			}
 			
-			// read the next command
-			try {
-				command = reader.read();
+			// move back by one step
+			seekTo( Math.max( 0L, current - (long)( REVERSE_STEP * -getSpeed() ) ) );
+			await( REVERSE_STEP );
+			return true;
+		}
+		
+		/**
+		 * Moves the play-back to the given point in time; i.e. restores the 
+		 * keyframe which precedes it, and evaluates the commands which follow
+		 * the keyframe, up to the given time.
+		 * @param target the given time (in milliseconds)
+		 * @throws IOException
+		 */
+		private void seekTo( final long target ) 
+		throws IOException {
+			// restore the keyframe
+			final Keyframe keyframe = reader.seek( target );
+			if( keyframe != null ) {
+				final CxCommand command = reader.read();
+				if( command != null ) {
+					command.evaluate( model );
+				}
 			}
-			catch( final Exception e ) {
-				logger.error( "Error reading command from stream",  e );
+			
+			// evaluate the commands up to the given time
+			while( reader.getTime() <= target ) {
+				final CxCommand command = reader.read();
+				if( command == null ) {
+					break;
+				}
+				if( !( command instanceof WaitCommand ) && !( command instanceof KeyframeCommand ) ) {
+					command.evaluate( model );
+				}
 			}
 			
-			return command;
+			// redraw the scene
+			setTime( Math.min( target, reader.getTime() ) );
+			controller.requestRedraw();
 		}
 	}
 	
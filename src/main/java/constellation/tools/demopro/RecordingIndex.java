@@ -0,0 +1,246 @@
+package constellation.tools.demopro;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Constellation DemoPro Recording Index. Maps the time (relative to the 
+ * beginning of a recording) of each of the recording's keyframes to its 
+ * position within the file; it is appended to the recording once the 
+ * recording is complete:
+ * <pre>
+ * index   := count:int ( time:long offset:long encoding:byte )* footer
+ * footer  := duration:long indexOffset:long magic:int
+ * </pre>
+ * @author lawrence.daniels@gmail.com
+ */
+public class RecordingIndex {
+	// the (fixed) lengths of each keyframe entry, and of the footer
+	private static final int ENTRY_LENGTH = 17;
+	private static final int FOOTER_LENGTH = 20;
+	
+	// identifies a recording which ends with an index ("CXRI")
+	private static final int MAGIC = 0x43585249;
+	
+	// internal fields
+	private final List<Keyframe> keyframes;
+	private long duration;
+	private long endOffset;
+	
+	/**
+	 * Creates a new (empty) recording index
+	 */
+	public RecordingIndex() {
+		this.keyframes = new ArrayList<Keyframe>();
+	}
+	
+	/**
+	 * Reads the index from the end of the given recording
+	 * @param channel the given {@link FileChannel channel} of the recording
+	 * @return the {@link RecordingIndex index}, or <tt>null</tt> if the recording does not end with an index
+	 * @throws IOException if the index is malformed
+	 */
+	public static RecordingIndex read( final FileChannel channel ) 
+	throws IOException {
+		// does the recording end with an index?
+		final long limit = channel.size();
+		if( limit < FOOTER_LENGTH ) {
+			return null;
+		}
+		final ByteBuffer footer = readRegion( channel, limit - FOOTER_LENGTH, FOOTER_LENGTH );
+		if( footer.getInt( FOOTER_LENGTH - 4 ) != MAGIC ) {
+			return null;
+		}
+		
+		// read the footer
+		final RecordingIndex index = new RecordingIndex();
+		index.duration	= footer.getLong( 0 );
+		index.endOffset	= footer.getLong( 8 );
+		if( ( index.endOffset < 0 ) || ( index.endOffset > limit - FOOTER_LENGTH - 4 ) ||
+			( limit - FOOTER_LENGTH - index.endOffset > Integer.MAX_VALUE ) ) {
+			throw new IOException( "The recording's index is corrupt" );
+		}
+		
+		// read the keyframes
+		final ByteBuffer entries = readRegion( channel, index.endOffset, (int)( limit - FOOTER_LENGTH - index.endOffset ) );
+		final int count = entries.getInt();
+		if( ( count < 0 ) || ( count > entries.remaining() / ENTRY_LENGTH ) ) {
+			throw new IOException( "The recording's index is corrupt" );
+		}
+		for( int n = 0; n < count; n++ ) {
+			final long time		= entries.getLong();
+			final long offset	= entries.getLong();
+			final int encoding	= entries.get();
+			index.keyframes.add( new Keyframe( time, offset, encoding ) );
+		}
+		return index;
+	}
+	
+	/**
+	 * Reads the given region of the given recording
+	 * @param channel the given {@link FileChannel channel} of the recording
+	 * @param offset the offset of the region
+	 * @param length the length of the region
+	 * @return the {@link ByteBuffer buffer} containing the region
+	 * @throws IOException if the recording ends within the region
+	 */
+	private static ByteBuffer readRegion( final FileChannel channel, final long offset, final int length ) 
+	throws IOException {
+		final ByteBuffer region = ByteBuffer.allocate( length );
+		while( region.hasRemaining() ) {
+			if( channel.read( region, offset + region.position() ) < 0 ) {
+				throw new EOFException( "The recording's index is truncated" );
+			}
+		}
+		region.flip();
+		return region;
+	}
+	
+	/**
+	 * Writes the index to the end of a recording
+	 * @param out the given {@link DataOutputStream output stream}
+	 * @throws IOException
+	 */
+	public void write( final DataOutputStream out ) 
+	throws IOException {
+		// write the keyframes
+		out.writeInt( keyframes.size() );
+		for( final Keyframe keyframe : keyframes ) {
+			out.writeLong( keyframe.time );
+			out.writeLong( keyframe.offset );
+			out.writeByte( keyframe.encoding );
+		}
+		
+		// write the footer
+		out.writeLong( duration );
+		out.writeLong( endOffset );
+		out.writeInt( MAGIC );
+	}
+	
+	/**
+	 * Appends a keyframe to the index
+	 * @param time the time of the keyframe (in milliseconds, relative to the beginning of the recording)
+	 * @param offset the offset of the keyframe within the recording
+	 * @param encoding the {@link constellation.commands.CxCommandEncoding encoding} of the keyframe
+	 */
+	public void add( final long time, final long offset, final int encoding ) {
+		keyframes.add( new Keyframe( time, offset, encoding ) );
+	}
+	
+	/**
+	 * Returns the last keyframe at or before the given time
+	 * @param time the given time (in milliseconds, relative to the beginning of the recording)
+	 * @return the {@link Keyframe keyframe}, or <tt>null</tt> if none precedes the given time
+	 */
+	public Keyframe floor( final long time ) {
+		int low = 0;
+		int high = keyframes.size() - 1;
+		Keyframe found = null;
+		while( low <= high ) {
+			final int middle = ( low + high ) >>> 1;
+			final Keyframe keyframe = keyframes.get( middle );
+			if( keyframe.time <= time ) {
+				found = keyframe;
+				low = middle + 1;
+			}
+			else {
+				high = middle - 1;
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Returns the keyframes of the recording
+	 * @return the {@link List list} of {@link Keyframe keyframes}
+	 */
+	public List<Keyframe> getKeyframes() {
+		return Collections.unmodifiableList( keyframes );
+	}
+	
+	/**
+	 * Returns the duration of the recording
+	 * @return the duration (in milliseconds)
+	 */
+	public long getDuration() {
+		return duration;
+	}
+	
+	/**
+	 * Sets the duration of the recording
+	 * @param duration the duration (in milliseconds)
+	 */
+	public void setDuration( final long duration ) {
+		this.duration = duration;
+	}
+	
+	/**
+	 * Returns the offset of the end of the recording's commands 
+	 * (i.e. the beginning of the index)
+	 * @return the offset
+	 */
+	public long getEndOffset() {
+		return endOffset;
+	}
+	
+	/**
+	 * Sets the offset of the end of the recording's commands
+	 * @param endOffset the offset
+	 */
+	public void setEndOffset( final long endOffset ) {
+		this.endOffset = endOffset;
+	}
+	
+	/**
+	 * Represents a keyframe of a recording
+	 * @author lawrence.daniels@gmail.com
+	 */
+	public static class Keyframe {
+		private final long time;
+		private final long offset;
+		private final int encoding;
+		
+		/**
+		 * Creates a new keyframe
+		 * @param time the time of the keyframe (in milliseconds)
+		 * @param offset the offset of the keyframe within the recording
+		 * @param encoding the encoding of the keyframe
+		 */
+		public Keyframe( final long time, final long offset, final int encoding ) {
+			this.time		= time;
+			this.offset		= offset;
+			this.encoding	= encoding;
+		}
+
+		/**
+		 * Returns the time of the keyframe
+		 * @return the time (in milliseconds, relative to the beginning of the recording)
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * Returns the offset of the keyframe within the recording
+		 * @return the offset
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Returns the {@link constellation.commands.CxCommandEncoding encoding} of the keyframe
+		 * @return the encoding version
+		 */
+		public int getEncoding() {
+			return encoding;
+		}
+	}
+	
+}
@@ -8,6 +8,7 @@ import java.awt.Image;
 import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
@@ -16,19 +17,24 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import javax.swing.SwingUtilities;
+
 import org.apache.log4j.Logger;
 
 import constellation.commands.CxCommand;
+import constellation.commands.CxCommandEncoding;
 import constellation.commands.CxCommandWriter;
 import constellation.commands.VirtualModel;
 import constellation.commands.builtin.AddUserImageCommand;
 import constellation.commands.builtin.ClearPickedElementCommand;
 import constellation.commands.builtin.ClearSelectedElementsCommand;
 import constellation.commands.builtin.ClearTempElementCommand;
+import constellation.commands.builtin.KeyframeCommand;
 import constellation.commands.builtin.SelectAllCommand;
 import constellation.commands.builtin.SelectElementCommand;
 import constellation.commands.builtin.SelectElementsCommand;
 import constellation.commands.builtin.SelectEntityCommand;
+import constellation.commands.builtin.SetEncodingCommand;
 import constellation.commands.builtin.SetPickedCommand;
 import constellation.commands.builtin.SetTempElementCommand;
 import constellation.commands.builtin.SetTempElementHUDCommand;
@@ -40,24 +46,45 @@ import constellation.drawing.LinePatterns;
 import constellation.drawing.RenderableElement;
 import constellation.drawing.elements.ModelElement;
 import constellation.drawing.entities.HUDXY;
+import constellation.drawing.entities.RectangleXY;
 import constellation.drawing.entities.UserImage;
 import constellation.model.DraftingStandards;
 import constellation.model.Filter;
 import constellation.model.GeometricModel;
 import constellation.model.ModelChangeType;
+import constellation.model.SnapPoint;
 import constellation.model.Unit;
 
 /**
- * Constellation DemoPro Recording Model
+ * Constellation DemoPro Recording Model. In addition to the commands, a 
+ * {@link KeyframeCommand keyframe} (a snapshot of the model) is recorded 
+ * periodically, and an {@link RecordingIndex index} of the keyframes is 
+ * appended to the recording once it is closed; thus the recording can be
+ * played back from any point in time (see {@link RecordingReader}). Keyframes
+ * are captured by the recording thread, once it has persisted the queued 
+ * commands, and are recorded only if no commands were queued meanwhile.
  * @author lawrence.daniels@gmail.com
  */
 public class RecordingModel implements VirtualModel {
+	// the minimum interval (in milliseconds) between keyframes
+	private static final long KEYFRAME_INTERVAL = 30000L;
+	
+	// the number of failed attempts to capture a keyframe, after which it is skipped
+	private static final int KEYFRAME_ATTEMPTS = 3;
+	
+	// internal fields
 	private final Logger logger = Logger.getLogger( getClass() );
 	private final LinkedList<CxCommand> queue;
+	private final OffsetOutputStream counter;
 	private final DataOutputStream out;
 	private final RecordingThead thread;
 	private final GeometricModel model;
-	private boolean alive;
+	private long lastKeyframe;
+	private long modifications;
+	private boolean keyframeDue;
+	private boolean keyframePending;
+	private int keyframeFailures;
+	private volatile boolean alive;
 	
 	/**
 	 * Creates a new recording model instance
@@ -65,10 +92,21 @@ public class RecordingModel implements VirtualModel {
 	 * @param out the given recording {@link OutputStream output stream}
 	 */
 	public RecordingModel( final GeometricModel model, final OutputStream out ) {
-		this.queue	= new LinkedList<CxCommand>();
-		this.thread	= new RecordingThead();
-		this.out	= new DataOutputStream( new BufferedOutputStream( out, 8192 ) );
-		this.model	= model;
+		this.queue		= new LinkedList<CxCommand>();
+		this.thread		= new RecordingThead();
+		this.counter	= new OffsetOutputStream( new BufferedOutputStream( out, 8192 ) );
+		this.out		= new DataOutputStream( counter );
+		this.model		= model;
+		this.alive		= true;
+		
+		// the recording begins with the model's current state
+		try {
+			queue.add( KeyframeCommand.create( model ) );
+		}
+		catch( final IOException e ) {
+			logger.error( "Error creating keyframe", e );
+		}
+		lastKeyframe = System.currentTimeMillis();
 		
 		// start the thread
 		thread.start();
@@ -115,6 +153,13 @@ public class RecordingModel implements VirtualModel {
 		queue( createAddCommands( elements ) );
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public int resolveLabelConflicts( final Collection<? extends ModelElement> elements ) {
+		return model.resolveLabelConflicts( elements );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -168,6 +213,13 @@ public class RecordingModel implements VirtualModel {
 		return model.getPhysicalElements();
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public int getPhysicalElementCount() {
+		return model.getPhysicalElementCount();
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -182,6 +234,48 @@ public class RecordingModel implements VirtualModel {
 		model.getVisibleElements( container, types );
 	}
 	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void getVisibleElements( final Collection<ModelElement> container, final RectangleXY region ) {
+		model.getVisibleElements( container, region );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public SnapPoint lookupSnapPoint( final double x, final double y, final double maxDistance ) {
+		return model.lookupSnapPoint( x, y, maxDistance );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void updatePhysicalElement( final ModelElement ... elements ) {
+		model.updatePhysicalElement( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void modifyingPhysicalElement( final ModelElement... elements ) {
+		model.modifyingPhysicalElement( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void updatePhysicalElements( final Collection<? extends ModelElement> elements ) {
+		model.updatePhysicalElements( elements );
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void relabelPhysicalElement( final ModelElement element, final String label ) {
+		model.relabelPhysicalElement( element, label );
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -529,6 +623,27 @@ public class RecordingModel implements VirtualModel {
 		// schedule the command
 		queue( SetPickedCommand.create( element ) );
 	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void clearSnapPoint() {
+		model.clearSnapPoint();
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public SnapPoint getSnapPoint() {
+		return model.getSnapPoint();
+	}
+	
+	/** 
+	 * {@inheritDoc}
+	 */
+	public void setSnapPoint( final SnapPoint point ) {
+		model.setSnapPoint( point );
+	}
 
 	/** 
 	 * {@inheritDoc}
@@ -632,11 +747,16 @@ public class RecordingModel implements VirtualModel {
 	 * {@inheritDoc}
 	 */
 	public void close() {
+		// stop the thread (once it has persisted the queued commands)
+		synchronized( queue ) {
+			alive = false;
+			queue.notifyAll();
+		}
 		try {
-			out.close();
+			thread.join();
 		}
-		catch( final Exception e ) {
-			logger.error( "Error closing stream", e );
+		catch( final InterruptedException e ) {
+			logger.error( "Thread was interrupted while waiting for the recording to complete", e );
 		}
 	}
 		
@@ -646,6 +766,10 @@ public class RecordingModel implements VirtualModel {
 	public void queue( final Collection<CxCommand> commands ) {
 		synchronized( queue ) {
 			queue.addAll( commands );
+			modifications++;
+			if( System.currentTimeMillis() - lastKeyframe >= KEYFRAME_INTERVAL ) {
+				keyframeDue = true;
+			}
 			queue.notifyAll();
 		}
 	}
@@ -654,12 +778,40 @@ public class RecordingModel implements VirtualModel {
 	 * {@inheritDoc}
 	 */
 	public void queue( final CxCommand ... commands ) {
+		queue( Arrays.asList( commands ) );
+	}
+	
+	/**
+	 * Queues the given keyframe (on the event dispatch thread, where the model
+	 * is modified), provided that no commands have been queued since it began 
+	 * to be captured; i.e. the keyframe reflects the commands which have been
+	 * persisted (rather than a model which was modified as it was captured).
+	 * Otherwise, it is captured again once the queued commands have been persisted.
+	 * @param keyframe the given {@link KeyframeCommand keyframe}
+	 * @param position the number of times commands had been queued when it began to be captured
+	 */
+	private void queueKeyframe( final KeyframeCommand keyframe, final long position ) {
 		synchronized( queue ) {
-			queue.addAll( Arrays.asList( commands ) );
+			keyframePending = false;
+			if( alive && ( modifications == position ) ) {
+				queue.add( keyframe );
+				keyframeCaptured();
+			}
 			queue.notifyAll();
 		}
 	}
 	
+	/**
+	 * Records that the due keyframe has been captured (or skipped)
+	 */
+	private void keyframeCaptured() {
+		synchronized( queue ) {
+			keyframeDue			= false;
+			keyframeFailures	= 0;
+			lastKeyframe		= System.currentTimeMillis();
+		}
+	}
+	
 	
 	///////////////////////////////////////////////////////////////////////////
 	//		Recording Thread
@@ -671,26 +823,32 @@ public class RecordingModel implements VirtualModel {
 	 * @author lawrence.daniels@gmail.com
 	 */
 	private class RecordingThead extends Thread {
+		private final RecordingIndex index = new RecordingIndex();
 		private CxCommandWriter writer;
 		private long lastReceived;
+		private long recordingTime;
 		
 		/** 
 		 * {@inheritDoc}
 		 */
 		public void run() {
-			// the process is now alive
+			// capture the start time
 			lastReceived = System.currentTimeMillis();
-			alive = true;
 			
-			// open a command writer
+			// open a command writer (using the compact encoding)
 			writer = new CxCommandWriter( out );
+			persistCommand( SetEncodingCommand.create( CxCommandEncoding.LATEST ) );
 			
-			while( alive ) {
-				// get the next command from queue
-				final CxCommand command = getNextCommand();
+			// persist the commands until the recording is closed
+			CxCommand command;
+			while( ( command = getNextCommand() ) != null ) {
+				// is the command a keyframe?
+				if( command instanceof KeyframeCommand ) {
+					persistKeyframe( (KeyframeCommand)command );
+				}
 				
 				// write the command to the stream
-				if( command != null ) {
+				else {
 					// get the current time
 					final long currentTime = System.currentTimeMillis();
 					
@@ -699,6 +857,7 @@ public class RecordingModel implements VirtualModel {
 					
 					// persist the elapsed time 
 					persistCommand( WaitCommand.create( elapsedTime ) );
+					recordingTime += elapsedTime;
 					
 					// persist the command
 					persistCommand( command );
@@ -707,29 +866,104 @@ public class RecordingModel implements VirtualModel {
 					lastReceived = currentTime;
 				}
 			}
+			
+			// append the index, and close the stream
+			try {
+				index.setDuration( recordingTime );
+				index.setEndOffset( counter.getOffset() );
+				index.write( out );
+				out.close();
+			}
+			catch( final IOException e ) {
+				logger.error( "Error closing stream", e );
+			}
 		}
 		
 		/**
-		 * Retrieves the next command from the queue
-		 * @return the {@link CxCommand command}
+		 * Retrieves the next command from the queue; waits until a
+		 * command has been queued, or the recording has been closed.
+		 * Whenever the queue has been emptied while a keyframe is due,
+		 * the keyframe is captured.
+		 * @return the {@link CxCommand command}, or <tt>null</tt> if the recording has been closed
 		 */
 		private CxCommand getNextCommand() {
-			CxCommand command = null;
-			
-			synchronized( queue ) {
-				// wait for at least 1 command
-				while( alive && queue.isEmpty() ) {
-					try { queue.wait( 15000L ); } 
-					catch( InterruptedException e ) {
-						logger.error( "Thread was interrupted while waiting for queue to fill", e );
+			while( true ) {
+				final long position;
+				synchronized( queue ) {
+					// wait for at least 1 command (or a keyframe to capture)
+					while( alive && queue.isEmpty() && ( !keyframeDue || keyframePending ) ) {
+						try { queue.wait( 15000L ); } 
+						catch( InterruptedException e ) {
+							logger.error( "Thread was interrupted while waiting for queue to fill", e );
+						}
+					}
+					
+					// get the command
+					if( !queue.isEmpty() ) {
+						return queue.removeFirst();
 					}
+					else if( !alive ) {
+						return null;
+					}
+					
+					// otherwise, capture the keyframe
+					keyframePending = true;
+					position = modifications;
 				}
-				
-				// get the command
-				command = !queue.isEmpty() ? queue.removeFirst() : null;
+				captureKeyframe( position );
+			}
+		}
+		
+		/**
+		 * Captures a keyframe (outside of the event dispatch thread), which is 
+		 * then queued on the event dispatch thread, if the model has not been
+		 * modified meanwhile (see {@link RecordingModel#queueKeyframe(KeyframeCommand, long)})
+		 * @param position the number of times commands have been queued
+		 */
+		private void captureKeyframe( final long position ) {
+			try {
+				final KeyframeCommand keyframe = KeyframeCommand.create( model );
+				SwingUtilities.invokeLater( new Runnable() {
+					public void run() {
+						queueKeyframe( keyframe, position );
+					}
+				} );
+			}
+			catch( final IOException e ) {
+				logger.error( "Error creating keyframe", e );
+				synchronized( queue ) {
+					keyframePending = false;
+					keyframeCaptured();
+				}
+			}
+			catch( final RuntimeException e ) {
+				// the model was modified while it was being encoded
+				synchronized( queue ) {
+					keyframePending = false;
+					if( ++keyframeFailures >= KEYFRAME_ATTEMPTS ) {
+						logger.warn( "Skipping a keyframe, since the model was modified while it was being captured", e );
+						keyframeCaptured();
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Persists the given keyframe, and adds it to the index. The 
+		 * encoding is switched (to itself) ahead of the keyframe, so 
+		 * that the commands which follow it can be decoded without 
+		 * reading those which precede it.
+		 * @param keyframe the given {@link KeyframeCommand keyframe}
+		 */
+		private void persistKeyframe( final KeyframeCommand keyframe ) {
+			try {
+				writer.setEncoding( writer.getEncoding() );
+				index.add( recordingTime, counter.getOffset(), writer.getEncoding() );
+				writer.write( keyframe );
+			} 
+			catch( final IOException e ) {
+				logger.error( "Error persisting keyframe", e );
 			}
-			
-			return command;
 		}
 		
 		/**
@@ -747,4 +981,48 @@ public class RecordingModel implements VirtualModel {
 		
 	}
 	
+	/**
+	 * An output stream which tracks the offset of the next byte to be written
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class OffsetOutputStream extends FilterOutputStream {
+		private long offset;
+		
+		/**
+		 * Creates a new offset-tracking output stream
+		 * @param out the given {@link OutputStream output stream}
+		 */
+		public OffsetOutputStream( final OutputStream out ) {
+			super( out );
+		}
+		
+		/**
+		 * Returns the offset of the next byte to be written
+		 * @return the offset
+		 */
+		public long getOffset() {
+			return offset;
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.io.FilterOutputStream#write(int)
+		 */
+		public void write( final int b ) 
+		throws IOException {
+			out.write( b );
+			offset++;
+		}
+		
+		/* 
+		 * (non-Javadoc)
+		 * @see java.io.FilterOutputStream#write(byte[], int, int)
+		 */
+		public void write( final byte[] bytes, final int off, final int len ) 
+		throws IOException {
+			out.write( bytes, off, len );
+			offset += len;
+		}
+	}
+	
 }
@@ -0,0 +1,306 @@
+package constellation.tools.demopro;
+
+import static java.lang.String.format;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import org.apache.log4j.Logger;
+
+import constellation.commands.CxCommand;
+import constellation.commands.CxCommandEncoding;
+import constellation.commands.CxCommandReader;
+import constellation.commands.builtin.KeyframeCommand;
+import constellation.commands.builtin.WaitCommand;
+import constellation.tools.demopro.RecordingIndex.Keyframe;
+
+/**
+ * Constellation DemoPro Recording Reader. The recording is memory-mapped
+ * (in windows, since a recording may exceed the size of a single mapping),
+ * and read by way of its {@link RecordingIndex index}; thus the reader is
+ * able to {@link #seek(long) seek} to the keyframe preceding any point in
+ * time, without reading the commands which precede it. Recordings which
+ * do not end with an index (e.g. which were not closed properly) are
+ * indexed when they are opened.
+ * @author lawrence.daniels@gmail.com
+ */
+public class RecordingReader {
+	// the (maximum) size of each mapped region of the recording
+	private static final long WINDOW_SIZE = 64L * 1024L * 1024L;
+	
+	// internal fields
+	private final Logger logger = Logger.getLogger( getClass() );
+	private final RandomAccessFile file;
+	private final FileChannel fileChannel;
+	private final RecordingIndex index;
+	private WindowChannel channel;
+	private CxCommandReader reader;
+	private long time;
+
+	/**
+	 * Opens the given recording
+	 * @param recordingFile the given recording {@link File file}
+	 * @throws IOException
+	 */
+	public RecordingReader( final File recordingFile )
+	throws IOException {
+		this.file			= new RandomAccessFile( recordingFile, "r" );
+		this.fileChannel	= file.getChannel();
+		try {
+			this.index = readIndex();
+
+			// position the reader at the beginning of the recording
+			rewind();
+		}
+		catch( final IOException e ) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the index of the recording
+	 * @return the {@link RecordingIndex index}
+	 */
+	public RecordingIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the duration of the recording
+	 * @return the duration (in milliseconds)
+	 */
+	public long getDuration() {
+		return index.getDuration();
+	}
+
+	/**
+	 * Returns the time of the reader's position (i.e. the sum of the
+	 * delays which have been read)
+	 * @return the time (in milliseconds, relative to the beginning of the recording)
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the offset of the next command within the recording
+	 * @return the offset
+	 */
+	public long getPosition() {
+		return channel.position() - reader.getBufferedLength();
+	}
+
+	/**
+	 * Positions the reader at the beginning of the recording
+	 * @throws IOException
+	 */
+	public void rewind()
+	throws IOException {
+		position( 0, CxCommandEncoding.VERSION_1, 0 );
+	}
+
+	/**
+	 * Positions the reader at the last keyframe at or before the given time;
+	 * or, if no keyframe precedes it, at the beginning of the recording.
+	 * @param time the given time (in milliseconds, relative to the beginning of the recording)
+	 * @return the {@link Keyframe keyframe}, or <tt>null</tt> if the reader was rewound
+	 * @throws IOException
+	 */
+	public Keyframe seek( final long time )
+	throws IOException {
+		final Keyframe keyframe = index.floor( time );
+		if( keyframe != null ) {
+			seek( keyframe );
+		}
+		else {
+			rewind();
+		}
+		return keyframe;
+	}
+
+	/**
+	 * Positions the reader at the given keyframe
+	 * @param keyframe the given {@link Keyframe keyframe}
+	 * @throws IOException
+	 */
+	public void seek( final Keyframe keyframe )
+	throws IOException {
+		position( keyframe.getOffset(), keyframe.getEncoding(), keyframe.getTime() );
+	}
+
+	/**
+	 * Reads the next command from the recording
+	 * @return the {@link CxCommand command}, or <tt>null</tt> if the end of the recording has been reached
+	 * @throws IOException
+	 */
+	public CxCommand read()
+	throws IOException {
+		final CxCommand command = reader.read();
+		if( command instanceof WaitCommand ) {
+			time += ( (WaitCommand)command ).getDelay();
+		}
+		return command;
+	}
+
+	/**
+	 * Closes the recording
+	 */
+	public void close() {
+		try {
+			try {
+				reader.close();
+			}
+			finally {
+				file.close();
+			}
+		}
+		catch( final IOException e ) {
+			logger.error( "Error closing recording", e );
+		}
+	}
+
+	/**
+	 * Positions the reader at the given offset
+	 * @param offset the given offset of a command
+	 * @param encoding the {@link CxCommandEncoding encoding} of the command
+	 * @param time the time of the command (in milliseconds)
+	 * @throws IOException
+	 */
+	private void position( final long offset, final int encoding, final long time )
+	throws IOException {
+		if( reader != null ) {
+			reader.close();
+		}
+		channel	= new WindowChannel( fileChannel, offset, index.getEndOffset() );
+		reader	= new CxCommandReader( channel );
+		reader.assumeEncoding( encoding );
+		this.time = time;
+	}
+
+	/**
+	 * Reads the index from the end of the recording; or, if there is none,
+	 * indexes the recording's keyframes.
+	 * @return the {@link RecordingIndex index}
+	 * @throws IOException
+	 */
+	private RecordingIndex readIndex()
+	throws IOException {
+		// does the recording end with an index?
+		final RecordingIndex found = RecordingIndex.read( fileChannel );
+		if( found != null ) {
+			return found;
+		}
+
+		// scan the recording for keyframes
+		final RecordingIndex scanned = new RecordingIndex();
+		scanned.setEndOffset( fileChannel.size() );
+		channel	= new WindowChannel( fileChannel, 0, fileChannel.size() );
+		reader	= new CxCommandReader( channel );
+		long offset = 0;
+		try {
+			CxCommand command;
+			while( ( command = read() ) != null ) {
+				if( command instanceof KeyframeCommand ) {
+					scanned.add( time, offset, reader.getEncoding() );
+				}
+				offset = getPosition();
+			}
+		}
+		catch( final EOFException e ) {
+			// the last command is incomplete
+			logger.warn( format( "The recording is truncated at offset %d", offset ) );
+			scanned.setEndOffset( offset );
+		}
+		scanned.setDuration( time );
+		return scanned;
+	}
+
+	/**
+	 * A channel which reads a region of the recording, by way of 
+	 * successive mapped windows of (at most) {@link #WINDOW_SIZE} bytes
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class WindowChannel implements ReadableByteChannel {
+		private final FileChannel fileChannel;
+		private final long limit;
+		private MappedByteBuffer window;
+		private long windowOffset;
+		private long position;
+
+		/**
+		 * Creates a new window channel
+		 * @param fileChannel the given {@link FileChannel channel} of the recording
+		 * @param offset the offset of the beginning of the region
+		 * @param limit the offset of the end of the region
+		 * @throws IOException if the region lies outside of the recording
+		 */
+		public WindowChannel( final FileChannel fileChannel, final long offset, final long limit )
+		throws IOException {
+			if( ( offset < 0 ) || ( offset > limit ) || ( limit > fileChannel.size() ) ) {
+				throw new IOException( format( "Offset %d lies outside of the recording", offset ) );
+			}
+			this.fileChannel	= fileChannel;
+			this.limit			= limit;
+			this.position		= offset;
+		}
+
+		/**
+		 * Returns the offset of the next byte to be read
+		 * @return the offset
+		 */
+		public long position() {
+			return position;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.nio.channels.ReadableByteChannel#read(java.nio.ByteBuffer)
+		 */
+		public int read( final ByteBuffer dst ) 
+		throws IOException {
+			if( position >= limit ) {
+				return -1;
+			}
+			
+			// map the window which begins at the position (once the previous one has been read)
+			if( ( window == null ) || ( position >= windowOffset + window.limit() ) ) {
+				window			= fileChannel.map( FileChannel.MapMode.READ_ONLY, position, Math.min( WINDOW_SIZE, limit - position ) );
+				windowOffset	= position;
+			}
+
+			// transfer as many bytes as will fit
+			final int start = (int)( position - windowOffset );
+			final int count = Math.min( window.limit() - start, dst.remaining() );
+			final ByteBuffer slice = window.duplicate();
+			slice.limit( start + count ).position( start );
+			dst.put( slice );
+			position += count;
+			return count;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.nio.channels.Channel#isOpen()
+		 */
+		public boolean isOpen() {
+			return true;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.nio.channels.Channel#close()
+		 */
+		public void close() {
+			// the mapped windows are released once they are no longer referenced
+			window = null;
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package constellation.tools.demopro.app;
 
+import static java.awt.event.KeyEvent.VK_G;
 import static java.awt.event.KeyEvent.VK_O;
 import static java.lang.String.format;
 import static javax.swing.KeyStroke.getKeyStroke;
@@ -11,12 +12,11 @@ import java.awt.GridBagConstraints;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.swing.Icon;
@@ -32,20 +32,25 @@ import javax.swing.JSplitPane;
 import javax.swing.JTextArea;
 import javax.swing.JTree;
 import javax.swing.UIManager;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeSelectionEvent;
+import javax.swing.event.TreeSelectionListener;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.filechooser.FileFilter;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeCellRenderer;
+import javax.swing.tree.TreePath;
 
 import org.apache.log4j.Logger;
 
 import constellation.CxContentManager;
 import constellation.CxFontManager;
 import constellation.commands.CxCommand;
-import constellation.commands.CxCommandReader;
 import constellation.commands.builtin.AddElementCommand;
 import constellation.commands.builtin.ClearTempElementCommand;
 import constellation.commands.builtin.DeleteElementCommand;
+import constellation.commands.builtin.KeyframeCommand;
 import constellation.commands.builtin.SetTempElementCommand;
 import constellation.commands.builtin.SetTempElementHUDCommand;
 import constellation.commands.builtin.WaitCommand;
@@ -58,13 +63,19 @@ import constellation.drawing.entities.HUDXY;
 import constellation.drawing.entities.LineXY;
 import constellation.drawing.entities.PointXY;
 import constellation.drawing.entities.TextNoteXY;
+import constellation.tools.demopro.RecordingIndex;
+import constellation.tools.demopro.RecordingIndex.Keyframe;
+import constellation.tools.demopro.RecordingReader;
 import constellation.ui.components.CxPanel;
 import constellation.ui.components.choosers.CxFileChooser;
 import constellation.ui.components.menu.CxMenuItem;
 import constellation.util.OSPlatformUtil;
+import constellation.util.StringUtil;
 
 /**
- * Constellation DemoPro Recording Viewer
+ * Constellation DemoPro Recording Viewer. The recording is presented as a
+ * series of segments (one per keyframe); the commands of a segment are read
+ * when the segment is expanded, thus only the segments being viewed are read.
  * @author lawrence.daniels@gmail.com
  */
 @SuppressWarnings("serial")
@@ -80,6 +91,7 @@ public class RecordingViewer extends JFrame {
 	private final CxContentManager cxm = CxContentManager.getInstance();
 	private MyCommandTree tree;
 	private JTextArea messages;
+	private RecordingReader recording;
 	
 	/**
 	 * Default Constructor
@@ -131,51 +143,62 @@ public class RecordingViewer extends JFrame {
 	 * @param recordingFile the given recording {@link File file}
 	 */
 	public void loadRecording( final File recordingFile ) {
-		CxCommandReader reader = null;
-		InputStream in = null;
-
 		try {
 			// open the recording file
-			in = new BufferedInputStream( new FileInputStream( recordingFile ), 8192 );
-			
-			// initialize the command reader
-			reader = new CxCommandReader( in );
+			final RecordingReader reader = new RecordingReader( recordingFile );
+			if( recording != null ) {
+				recording.close();
+			}
+			recording = reader;
 			
 			// create the root tree node
 			final DefaultMutableTreeNode rootNode = new DefaultMutableTreeNode( "ROOT" );
 			
-			// read the commands
-			CxCommand command;
-			int index = 0;
-			while( ( in.available() > 0 ) && ( command = reader.read() ) != null ) {
-				// attach the command to the tree
-				attachCommand( rootNode, command );
-				
-				// set the message
-				messages.append( format( "[%04d] %s\n", ++index, command ) );
+			// create a node per segment (i.e. the commands preceding the first keyframe, and following each keyframe)
+			final RecordingIndex index = reader.getIndex();
+			final List<Keyframe> keyframes = index.getKeyframes();
+			Keyframe previous = null;
+			for( final Keyframe keyframe : keyframes ) {
+				rootNode.add( new SegmentNode( previous, keyframe.getTime(), keyframe.getOffset() ) );
+				previous = keyframe;
 			}
+			rootNode.add( new SegmentNode( previous, index.getDuration(), index.getEndOffset() ) );
 			
 			// populate the tree
 			tree.setModel( new DefaultTreeModel( rootNode ) );
-			
-			// close the command reader
-			reader.close();
+			tree.setSelectionRow( 0 );
+			messages.setText( format( "%s: %s, %d keyframe(s)\n", recordingFile.getName(), 
+					StringUtil.getElapsedTimeString( index.getDuration() ), keyframes.size() ) );
 		}
 		catch( final IOException e ) {
 			logger.error( format( "Error debugging '%s'...", recordingFile.getName() ), e );
 			JOptionPane.showMessageDialog( RecordingViewer.this, e.getMessage(), "File Error", JOptionPane.ERROR_MESSAGE );
 		}
-		finally {
-			// close the reader
-			if( reader != null ) {
-				try { reader.close(); } catch( Exception e ) { }
-			}
-			
-			// close the input stream
-			else if( in != null ) {
-				try { in.close(); } catch( Exception e ) { }
+	}
+	
+	/**
+	 * Selects the command being played at the given time
+	 * @param time the given time (in milliseconds, relative to the beginning of the recording)
+	 */
+	public void goTo( final long time ) {
+		// find the segment containing the given time
+		final DefaultMutableTreeNode rootNode = (DefaultMutableTreeNode)tree.getModel().getRoot();
+		SegmentNode segmentNode = null;
+		for( int n = 0; n < rootNode.getChildCount(); n++ ) {
+			final SegmentNode node = (SegmentNode)rootNode.getChildAt( n );
+			if( ( segmentNode == null ) || ( node.getStartTime() <= time ) ) {
+				segmentNode = node;
 			}
 		}
+		
+		// select the command within the segment
+		if( segmentNode != null ) {
+			final TreePath segmentPath = new TreePath( segmentNode.getPath() );
+			tree.expandPath( segmentPath );
+			final TreePath path = segmentNode.findPath( time );
+			tree.setSelectionPath( ( path != null ) ? path : segmentPath );
+			tree.scrollPathToVisible( tree.getSelectionPath() );
+		}
 	}
 	
 	/** 
@@ -250,7 +273,7 @@ public class RecordingViewer extends JFrame {
 	 * Recording File Viewer Command Tree
 	 * @author lawrence.daniels@gmail.com
 	 */
-	private class MyCommandTree extends JTree {
+	private class MyCommandTree extends JTree implements TreeWillExpandListener, TreeSelectionListener {
 		
 		/**
 		 * Default Constructor
@@ -258,6 +281,157 @@ public class RecordingViewer extends JFrame {
 		public MyCommandTree() {
 			super( new DefaultMutableTreeNode( "ROOT" ) );
 			super.setCellRenderer( new MyTreeCellRenderer( super.getCellRenderer() ) );
+			super.addTreeWillExpandListener( this );
+			super.addTreeSelectionListener( this );
+		}
+
+		/** 
+		 * {@inheritDoc}
+		 */
+		public void treeWillExpand( final TreeExpansionEvent event ) {
+			final Object node = event.getPath().getLastPathComponent();
+			if( node instanceof SegmentNode ) {
+				final SegmentNode segmentNode = (SegmentNode)node;
+				if( !segmentNode.isLoaded() ) {
+					try {
+						segmentNode.load();
+						( (DefaultTreeModel)getModel() ).nodeStructureChanged( segmentNode );
+					}
+					catch( final IOException e ) {
+						logger.error( "Error reading segment", e );
+						JOptionPane.showMessageDialog( RecordingViewer.this, e.getMessage(), "File Error", JOptionPane.ERROR_MESSAGE );
+					}
+				}
+			}
+		}
+
+		/** 
+		 * {@inheritDoc}
+		 */
+		public void treeWillCollapse( final TreeExpansionEvent event ) {
+			// do nothing
+		}
+
+		/** 
+		 * {@inheritDoc}
+		 */
+		public void valueChanged( final TreeSelectionEvent event ) {
+			// display the listing of the selected segment
+			final TreePath path = event.getNewLeadSelectionPath();
+			if( ( path != null ) && ( path.getPathCount() > 1 ) ) {
+				final Object node = path.getPathComponent( 1 );
+				if( ( node instanceof SegmentNode ) && ( (SegmentNode)node ).isLoaded() ) {
+					final String listing = ( (SegmentNode)node ).getListing();
+					if( !listing.equals( messages.getText() ) ) {
+						messages.setText( listing );
+						messages.setCaretPosition( 0 );
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Represents a segment of the recording; i.e. a keyframe, and the
+	 * commands which follow it (up to the next keyframe). The commands 
+	 * are read when the segment is first expanded.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class SegmentNode extends DefaultMutableTreeNode {
+		private final List<Long> times;
+		private final Keyframe keyframe;
+		private final long endTime;
+		private final long endOffset;
+		private String listing;
+		
+		/**
+		 * Creates a new segment node
+		 * @param keyframe the {@link Keyframe keyframe} which begins the segment, or <tt>null</tt> for the beginning of the recording
+		 * @param endTime the time of the end of the segment
+		 * @param endOffset the offset of the end of the segment
+		 */
+		public SegmentNode( final Keyframe keyframe, final long endTime, final long endOffset ) {
+			super( format( "%s - %s", StringUtil.getElapsedTimeString( ( keyframe != null ) ? keyframe.getTime() : 0L ), 
+					StringUtil.getElapsedTimeString( endTime ) ) );
+			this.times		= new ArrayList<Long>();
+			this.keyframe	= keyframe;
+			this.endTime	= endTime;
+			this.endOffset	= endOffset;
+			
+			// the segment is expandable until it is loaded
+			super.add( new DefaultMutableTreeNode( "Loading..." ) );
+		}
+		
+		/**
+		 * Returns the time of the beginning of the segment
+		 * @return the time (in milliseconds)
+		 */
+		public long getStartTime() {
+			return ( keyframe != null ) ? keyframe.getTime() : 0L;
+		}
+		
+		/**
+		 * Indicates whether the commands of the segment have been read
+		 * @return true, if the commands have been read
+		 */
+		public boolean isLoaded() {
+			return listing != null;
+		}
+		
+		/**
+		 * Returns the listing of the segment's commands
+		 * @return the listing
+		 */
+		public String getListing() {
+			return listing;
+		}
+		
+		/**
+		 * Reads the commands of the segment
+		 * @throws IOException
+		 */
+		public void load() 
+		throws IOException {
+			// position the reader at the beginning of the segment
+			if( keyframe != null ) {
+				recording.seek( keyframe );
+			}
+			else {
+				recording.rewind();
+			}
+			
+			// read the commands
+			super.removeAllChildren();
+			final StringBuilder sb = new StringBuilder( format( "Segment %s\n", getUserObject() ) );
+			CxCommand command;
+			int index = 0;
+			while( ( recording.getPosition() < endOffset ) && ( command = recording.read() ) != null ) {
+				// attach the command to the segment
+				attachCommand( this, command );
+				times.add( recording.getTime() );
+				
+				// append the command to the listing
+				sb.append( format( "[%04d] %s %s\n", ++index, StringUtil.getElapsedTimeString( recording.getTime() ), command ) );
+			}
+			listing = sb.toString();
+			messages.setText( listing );
+			messages.setCaretPosition( 0 );
+		}
+		
+		/**
+		 * Returns the path of the first command played at (or after) the given time
+		 * @param time the given time (in milliseconds)
+		 * @return the {@link TreePath path}, or <tt>null</tt> if the segment ends before the given time
+		 */
+		public TreePath findPath( final long time ) {
+			if( isLoaded() && ( time <= endTime ) ) {
+				for( int n = 0; n < times.size(); n++ ) {
+					if( times.get( n ) >= time ) {
+						return new TreePath( ( (DefaultMutableTreeNode)getChildAt( n ) ).getPath() );
+					}
+				}
+			}
+			return null;
 		}
 	}
 	
@@ -324,6 +498,7 @@ public class RecordingViewer extends JFrame {
 			mapping.put( SetTempElementCommand.class, 	cxm.getIcon( "images/extensions/demopro/commands/tempElem.png" ) );
 			mapping.put( SetTempElementHUDCommand.class,cxm.getIcon( "images/extensions/demopro/commands/tempElem.png" ) );
 			mapping.put( WaitCommand.class, 			cxm.getIcon( "images/extensions/demopro/commands/clock.png" ) );
+			mapping.put( KeyframeCommand.class, 		cxm.getIcon( "images/extensions/demopro/tape.png" ) );
 			return mapping;
 		}
 		
@@ -456,9 +631,52 @@ public class RecordingViewer extends JFrame {
 		public FileMenu() {
 			super( "File" );
 			super.add( new CxMenuItem( "Open", cxm.getIcon( "images/extensions/demopro/load.png" ), getKeyStroke( VK_O, META_KEY ), new FileOpenAction() ) );
+			super.add( new CxMenuItem( "Go To...", cxm.getIcon( "images/extensions/demopro/commands/clock.png" ), getKeyStroke( VK_G, META_KEY ), new GoToAction() ) );
 		}	
 	}
 	
+	/**
+	 * File::Go To Action
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class GoToAction implements ActionListener {
+
+		/** 
+		 * {@inheritDoc}
+		 */
+		public void actionPerformed( final ActionEvent event ) {
+			// a recording must be loaded
+			if( recording == null ) {
+				return;
+			}
+			
+			// prompt for the time
+			final String answer = JOptionPane.showInputDialog( RecordingViewer.this, "Go to time (hh:mm:ss)", "00:00:00" );
+			if( answer != null ) {
+				try {
+					goTo( parseTime( answer.trim() ) );
+				}
+				catch( final NumberFormatException e ) {
+					JOptionPane.showMessageDialog( RecordingViewer.this, format( "'%s' is not a valid time", answer ), "Go To", JOptionPane.ERROR_MESSAGE );
+				}
+			}
+		}
+		
+		/**
+		 * Parses the given time (i.e. "hh:mm:ss", "mm:ss" or "ss")
+		 * @param text the given time string
+		 * @return the time (in milliseconds)
+		 * @throws NumberFormatException if the time is malformed
+		 */
+		private long parseTime( final String text ) {
+			long seconds = 0L;
+			for( final String part : text.split( ":" ) ) {
+				seconds = 60L * seconds + Long.parseLong( part.trim() );
+			}
+			return 1000L * seconds;
+		}
+	}
+	
 	/**
 	 * File::Open Action
 	 * @author lawrence.daniels@gmail.com
@@ -10,16 +10,18 @@ import java.awt.GridBagConstraints;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
 import javax.swing.Icon;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
+import javax.swing.JSlider;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.filechooser.FileFilter;
 
 import constellation.ApplicationController;
@@ -34,6 +36,7 @@ import constellation.ui.components.CxPlugIn;
 import constellation.ui.components.buttons.CxIconToggleButton;
 import constellation.ui.components.choosers.CxFileChooser;
 import constellation.ui.components.fields.CxTimerField;
+import constellation.util.StringUtil;
 
 /**
  * Constellation DemoPro Recording/Playback Plug-in
@@ -53,6 +56,9 @@ public class RecordingPlugin extends CxPlugIn {
 	// default recording name
 	private static final String DEFAULT_RECORDING_NAME	= "Untitled.recording";
 	
+	// the maximum play-back speed (forwards or in reverse)
+	private static final double MAX_SPEED = 16d;
+	
 	// get the content manager instance
 	private final CxContentManager contentManager = CxContentManager.getInstance();
 	
@@ -61,6 +67,8 @@ public class RecordingPlugin extends CxPlugIn {
 	private final Icon SAVE_ICON	= contentManager.getIcon( "images/extensions/demopro/save.png" );
 	private final Icon PAUSE_ICON	= contentManager.getIcon( "images/extensions/demopro/pause.png" );
 	private final Icon PLAY_ICON	= contentManager.getIcon( "images/extensions/demopro/play.png" );
+	private final Icon FORWARD_ICON	= contentManager.getIcon( "images/extensions/demopro/seek-forward.png" );
+	private final Icon REVERSE_ICON	= contentManager.getIcon( "images/extensions/demopro/seek-backward.png" );
 	private final Icon RECORD_ICON	= contentManager.getIcon( "images/extensions/demopro/record.png" );	
 	private final Icon SESSION_ICON	= contentManager.getIcon( "images/extensions/demopro/tape.png" );
 	private final Icon STOP_ICON	= contentManager.getIcon( "images/extensions/demopro/stop.png" );
@@ -69,6 +77,8 @@ public class RecordingPlugin extends CxPlugIn {
 	// internal fields
 	private final ApplicationController controller;
 	private final CxIconToggleButton playButton;
+	private final PositionSlider positionS;
+	private PlaybackModel playback;
 	private RecorderStatus status;
 	private File recordingFile;
 	private StatusLine statusLine;
@@ -86,9 +96,12 @@ public class RecordingPlugin extends CxPlugIn {
 		super.gbc.anchor = GridBagConstraints.CENTER;
 		super.attach( ++col, 0, statusLine = new StatusLine() );
 		super.attach( ++col, 0, createBorderlessButton( STOP_ICON, new StopPlaybackOrRecordingAction(), "Stop playback/recording" ) );
+		super.attach( ++col, 0, createBorderlessButton( REVERSE_ICON, new ReversePlaybackAction(), "Play in reverse (faster)" ) );
 		super.attach( ++col, 0, playButton = new PlaybackButton() );
+		super.attach( ++col, 0, createBorderlessButton( FORWARD_ICON, new FastForwardAction(), "Fast forward (faster)" ) );
 		super.attach( ++col, 0, createBorderlessButton( RECORD_ICON, new StartRecordingAction(), "Start recording" ) );
 		super.attach( ++col, 0, timerF = new CxTimerField() ); 
+		super.attach( ++col, 0, positionS = new PositionSlider() ); 
 		super.attach( ++col, 0, createBorderlessButton( LOAD_ICON, new OpenSessionAction(), "Open recording" ) );
 		super.attach( ++col, 0, createBorderlessButton( SAVE_ICON, new SaveSessionAction(), "Save recording" ) );
 		super.attach( ++col, 0, createBorderlessButton( QUIT_ICON, new QuitSessionAction(), "Eject this plugin" ), GridBagConstraints.SOUTHEAST );
@@ -161,6 +174,37 @@ public class RecordingPlugin extends CxPlugIn {
 		statusLine.setToolTipText( format( "Recording '%s' is %s", fileName, STATUS_MAPPING.get( status ) ) );
 	}
 	
+	/**
+	 * Updates the play-back position display; called by the {@link PlaybackModel play-back model}
+	 * @param time the current position (in milliseconds, relative to the beginning of the recording)
+	 * @param duration the duration of the recording (in milliseconds)
+	 */
+	public void updatePlaybackPosition( final long time, final long duration ) {
+		SwingUtilities.invokeLater( new Runnable() {
+			public void run() {
+				timerF.setText( StringUtil.getElapsedTimeString( time ) );
+				positionS.setPosition( time, duration );
+			}
+		} );
+	}
+	
+	/**
+	 * Indicates that the play-back has paused itself (i.e. reverse 
+	 * play-back has reached the beginning of the recording); called 
+	 * by the {@link PlaybackModel play-back model}
+	 */
+	public void playbackPaused() {
+		SwingUtilities.invokeLater( new Runnable() {
+			public void run() {
+				if( status == RecorderStatus.PLAYBACK ) {
+					playButton.setSelected( false );
+					playButton.updateIcon();
+					setStatus( RecorderStatus.PAUSED );
+				}
+			}
+		} );
+	}
+	
 	/**
 	 * Stops any current play-back or recording
 	 */
@@ -173,6 +217,7 @@ public class RecordingPlugin extends CxPlugIn {
 			
 			// switch back to the standard model
 			switchToStandardModel();
+			playback = null;
 			
 			// update the play button
 			playButton.setSelected( false );
@@ -183,6 +228,18 @@ public class RecordingPlugin extends CxPlugIn {
 		}
 	}
 
+	/**
+	 * Resumes a paused play-back
+	 */
+	private void resumePlayback() {
+		if( status == RecorderStatus.PAUSED ) {
+			playback.setPaused( false );
+			playButton.setSelected( true );
+			playButton.updateIcon();
+			setStatus( RecorderStatus.PLAYBACK );
+		}
+	}
+	
 	/**
 	 * Switches the current controller's virtual model to original host model
 	 */
@@ -233,6 +290,49 @@ public class RecordingPlugin extends CxPlugIn {
 		}
 	}
 	
+	/**
+	 * Play-back Position Slider; moves the play-back to the chosen
+	 * point of the recording once the slider is released.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class PositionSlider extends JSlider implements ChangeListener {
+		private boolean positioning;
+		
+		/**
+		 * Default Constructor
+		 */
+		public PositionSlider() {
+			super( 0, 0, 0 );
+			super.setToolTipText( "Play-back position" );
+			super.addChangeListener( this );
+		}
+		
+		/**
+		 * Displays the given play-back position
+		 * @param time the current position (in milliseconds)
+		 * @param duration the duration of the recording (in milliseconds)
+		 */
+		public void setPosition( final long time, final long duration ) {
+			positioning = true;
+			try {
+				super.setMaximum( (int)( duration / 1000L ) );
+				super.setValue( (int)( time / 1000L ) );
+			}
+			finally {
+				positioning = false;
+			}
+		}
+
+		/** 
+		 * {@inheritDoc}
+		 */
+		public void stateChanged( final ChangeEvent event ) {
+			if( !positioning && !getValueIsAdjusting() && ( playback != null ) ) {
+				playback.seek( getValue() * 1000L );
+			}
+		}
+	}
+	
 	/**
 	 * Status Line Component
 	 * @author lawrence.daniels@gmail.com
@@ -312,38 +412,41 @@ public class RecordingPlugin extends CxPlugIn {
 		 * {@inheritDoc}
 		 */
 		public void actionPerformed( final ActionEvent event ) {
+			// get the toggle button
+			final CxIconToggleButton button = (CxIconToggleButton)event.getSource();
+			
 			switch( status ) {
 				// if playing, pause it
 				case PLAYBACK:
-					// set the recorder status
-					// setStatus( RecorderStatus.PAUSED );
-					// TODO pause?
+					button.updateIcon();
+					playback.setPaused( true );
+					setStatus( RecorderStatus.PAUSED );
+					break;
+					
+				// if paused, resume it
+				case PAUSED:
+					button.updateIcon();
+					playback.setPaused( false );
+					setStatus( RecorderStatus.PLAYBACK );
 					break;
 					
 				// if stopped, start it
 				case STOPPED:				
 					try {
 						// update the toggle button
-						final CxIconToggleButton button = (CxIconToggleButton)event.getSource();
 						button.updateIcon();
 						
 						// get the host model
 						final GeometricModel hostModel = controller.getModel();
 						
-						// open the output stream
-						final InputStream in = new FileInputStream( recordingFile );
-						
 						// create the play-back model
-						final PlaybackModel model = new PlaybackModel( hostModel, controller, RecordingPlugin.this, in );
+						playback = new PlaybackModel( hostModel, controller, RecordingPlugin.this, recordingFile );
 						
 						// swap the controller's model instance
-						controller.setModel( model );
+						controller.setModel( playback );
 						
 						// set the recorder status
 						setStatus( RecorderStatus.PLAYBACK );
-						
-						// start the timer
-						timerF.start();
 					}
 					catch( final IOException cause ) {
 						// set status back to stopped
@@ -357,6 +460,45 @@ public class RecordingPlugin extends CxPlugIn {
 		}
 	}
 	
+	/**
+	 * Fast Forward Action; doubles the speed of the play-back (up to
+	 * the maximum speed, after which it returns to normal speed).
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class FastForwardAction implements ActionListener {
+
+		/** 
+		 * {@inheritDoc}
+		 */
+		public void actionPerformed( final ActionEvent event ) {
+			if( playback != null ) {
+				final double speed = playback.getSpeed();
+				playback.setSpeed( ( speed < 1d ) ? 2d : ( ( speed < MAX_SPEED ) ? 2d * speed : 1d ) );
+				resumePlayback();
+			}
+		}
+	}
+	
+	/**
+	 * Reverse Play-back Action; plays the recording in reverse, doubling
+	 * the speed each time (up to the maximum speed, after which it returns 
+	 * to normal speed).
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class ReversePlaybackAction implements ActionListener {
+
+		/** 
+		 * {@inheritDoc}
+		 */
+		public void actionPerformed( final ActionEvent event ) {
+			if( playback != null ) {
+				final double speed = playback.getSpeed();
+				playback.setSpeed( ( speed > -1d ) ? -1d : ( ( speed > -MAX_SPEED ) ? 2d * speed : -1d ) );
+				resumePlayback();
+			}
+		}
+	}
+	
 	/**
 	 * Open Session Action
 	 * @author lawrence.daniels@gmail.com
@@ -4,8 +4,10 @@ import static constellation.preferences.ServerPreferences.*;
 import static java.lang.String.format;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 
 import org.apache.log4j.Logger;
 
@@ -60,7 +62,7 @@ public class ConstellationServer {
 		
 		// startup the listener
 		logger.info( format( "Binding to port %d...", port ) );
-		listener = new ServerSocket( port );
+		listener = ServerSocketChannel.open().bind( new InetSocketAddress( port ) ).socket();
 		
 		// startup the thread manager
 		final PDMThreadManager manager = new PDMThreadManager( 3 );
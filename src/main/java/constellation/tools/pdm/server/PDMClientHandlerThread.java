@@ -9,8 +9,7 @@ import java.util.LinkedList;
 import org.apache.log4j.Logger;
 
 import constellation.commands.CxCommand;
-import constellation.commands.CxCommandReader;
-import constellation.commands.CxCommandWriter;
+import constellation.commands.CxCommandChannel;
 import constellation.tools.pdm.client.commands.PDMCommandFactory;
 import constellation.tools.pdm.client.commands.SendModelsCommand;
 
@@ -79,40 +78,43 @@ public class PDMClientHandlerThread implements Runnable  {
 	 * @param socket the given {@link Socket socket} connection
 	 */
 	private void handleClient( final Socket socket ) {
-		CxCommandReader in = null;
-		CxCommandWriter out = null;
+		CxCommandChannel channel = null;
 		boolean connected = true;
 		
 		try {
 			// notify the operator
 			logger.info( format( "Client connection from %s", socket.getInetAddress().getCanonicalHostName() ) );
 			
-			// open the input/output streams
-			in = new CxCommandReader( socket.getInputStream() );
-			out = new CxCommandWriter( socket.getOutputStream() );
+			// open the command channel
+			channel = new CxCommandChannel( socket );
 			
 			// send the model file
 			// TODO remove this after testing
-			out.write( SendModelsCommand.create( PDMDatabase.getInstance().getFileList() ) );
+			channel.getWriter().write( SendModelsCommand.create( PDMDatabase.getInstance().getFileList() ) );
 			
-			// cycle indefinitely
+			// cycle until the client disconnects
 			while( connected ) {
-				// read a command
-				final CxCommand command = in.read();
-				
-				logger.info( format( "Received command '%s'", command ) );
+				// read a command (blocks until one arrives)
+				final CxCommand command = channel.getReader().read();
+				if( command == null ) {
+					connected = false;
+				}
+				else {
+					logger.info( format( "Received command '%s'", command ) );
+				}
 			}
 		} 
 		catch( final IOException e ) {
 			logger.error( "A client error occurred", e );
 		}
 		finally {
-			// close the streams
-			try { in.close(); } catch( final IOException e ) { }
-			try { out.close(); } catch( final IOException e ) { }
-			
-			// close the socket
-			try { socket.close(); } catch( final IOException e ) { }
+			// close the channel (and the socket)
+			if( channel != null ) {
+				channel.close();
+			}
+			else {
+				try { socket.close(); } catch( final IOException e ) { }
+			}
 		}
 		
 		// notify the operator
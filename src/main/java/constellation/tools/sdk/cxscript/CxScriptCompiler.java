@@ -1,13 +1,438 @@
 package constellation.tools.sdk.cxscript;
 
+import static java.lang.String.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.ldaniels528.tokenizer.Token;
+import com.ldaniels528.tokenizer.Tokenizer;
+import com.ldaniels528.tokenizer.TokenizerContext;
+import com.ldaniels528.tokenizer.parsers.DecimalTokenParser;
+import com.ldaniels528.tokenizer.parsers.DoubleQuotedTextTokenParser;
+import com.ldaniels528.tokenizer.parsers.OperatorTokenParser;
+import com.ldaniels528.tokenizer.parsers.TextTokenParser;
+
+import constellation.tools.sdk.cxscript.opcodes.ADDV;
+import constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode;
+import constellation.tools.sdk.cxscript.opcodes.GOTO;
+import constellation.tools.sdk.cxscript.opcodes.INVOK;
+import constellation.tools.sdk.cxscript.opcodes.JMPLT;
+import constellation.tools.sdk.cxscript.opcodes.MSGINFO;
+import constellation.tools.sdk.cxscript.opcodes.MSGSTAT;
+import constellation.tools.sdk.cxscript.opcodes.MULV;
+import constellation.tools.sdk.cxscript.opcodes.SETV;
+import constellation.tools.sdk.cxscript.opcodes.TERM;
+import constellation.tools.sdk.cxscript.value.ConstantValue;
+import constellation.tools.sdk.cxscript.value.ValueReference;
+import constellation.tools.sdk.cxscript.value.VariableReference;
+
 /**
  * Constellation Script Compiler
+ * <div>
+ * Compiles script source into byte code; one statement per line,
+ * optionally preceded by a label, and optionally followed by a comment:
+ * <pre>
+ *     SETV i, 0                             # i = 0
+ * loop:
+ *     INVOK DOCUMENT::add("POINT", i, 0)
+ *     ADDV i, 1
+ *     JMPLT i, 10000, loop                  # if( i &lt; 10000 ) goto loop
+ *     MSGSTAT "Done"
+ *     TERM
+ * </pre>
+ * Values are numbers, double-quoted strings or variables; variables are
+ * resolved to slots of the runtime context at compile time, and labels
+ * to the byte code offsets of the instructions which follow them.
+ * </div>
  * @author lawrence.daniels@gmail.com
  */
 public class CxScriptCompiler {
-	
-	public byte[] compile() {
-		return null;
+	private final Tokenizer tokenizer;
+	private Map<String,Integer> variables;
+	private Map<String,Integer> labels;
+	private List<Instruction> instructions;
+
+	/**
+	 * Default Constructor
+	 */
+	public CxScriptCompiler() {
+		this.tokenizer = new Tokenizer();
+		this.tokenizer.add( new DoubleQuotedTextTokenParser() );
+		this.tokenizer.add( new DecimalTokenParser() );
+		this.tokenizer.add( new OperatorTokenParser() );
+		this.tokenizer.add( new TextTokenParser() );
+	}
+
+	/**
+	 * Compiles the given script source
+	 * @param source the given script source
+	 * @return the byte code
+	 * @throws IllegalArgumentException if the source contains an error
+	 */
+	public synchronized byte[] compile( final String source ) {
+		this.variables		= new HashMap<String, Integer>();
+		this.labels			= new HashMap<String, Integer>();
+		this.instructions	= new ArrayList<Instruction>();
+
+		// parse each line of the source
+		final String[] lines = source.split( "\n" );
+		for( int n = 0; n < lines.length; n++ ) {
+			try {
+				parseLine( n + 1, tokenize( lines[n] ) );
+			}
+			catch( final IllegalArgumentException e ) {
+				throw new IllegalArgumentException( format( "Line %d: %s", n + 1, e.getMessage() ), e );
+			}
+		}
+
+		// a label may follow the last instruction
+		if( labels.containsValue( instructions.size() ) ) {
+			instructions.add( new Instruction( lines.length, new TERM() ) );
+		}
+
+		// determine the offset of each instruction
+		final int[] offsets = new int[ instructions.size() ];
+		try {
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			final DataOutputStream stream = new DataOutputStream( baos );
+			for( int n = 0; n < offsets.length; n++ ) {
+				offsets[n] = stream.size();
+				instructions.get( n ).getOpCode( 0 ).encode( stream );
+			}
+
+			// encode the instructions, now that the jump offsets are known
+			baos.reset();
+			for( final Instruction instruction : instructions ) {
+				final Integer target = ( instruction.label != null ) ? labels.get( instruction.label ) : null;
+				if( ( instruction.label != null ) && ( target == null ) ) {
+					throw new IllegalArgumentException( format( "Line %d: Label '%s' not found", instruction.lineNo, instruction.label ) );
+				}
+				instruction.getOpCode( ( target != null ) ? offsets[ target ] : 0 ).encode( stream );
+			}
+			stream.flush();
+			return baos.toByteArray();
+		}
+		catch( final IOException e ) {
+			throw new IllegalArgumentException( e.getMessage(), e );
+		}
+	}
+
+	/**
+	 * Parses the given line
+	 * @param lineNo the given line number
+	 * @param tokens the given line's {@link Token tokens}
+	 */
+	private void parseLine( final int lineNo, final LinkedList<Token> tokens ) {
+		// is there a label?
+		if( ( tokens.size() >= 2 ) && tokens.get( 0 ).isText() &&
+			tokens.get( 1 ).getContent().equals( ":" ) ) {
+			final String label = tokens.removeFirst().getContent();
+			tokens.removeFirst();
+			if( labels.put( label, instructions.size() ) != null ) {
+				throw new IllegalArgumentException( format( "Duplicate label '%s'", label ) );
+			}
+		}
+
+		// is there a statement?
+		if( tokens.isEmpty() ) {
+			return;
+		}
+
+		// parse the statement
+		final String mnemonic = mandateText( tokens ).toUpperCase();
+		if( mnemonic.equals( "ADDV" ) ) {
+			final VariableReference variable = parseVariable( tokens );
+			mandate( tokens, "," );
+			instructions.add( new Instruction( lineNo, new ADDV( variable, parseValue( tokens ) ) ) );
+		}
+		else if( mnemonic.equals( "GOTO" ) ) {
+			instructions.add( new Instruction( lineNo, mandateText( tokens ) ) );
+		}
+		else if( mnemonic.equals( "INVOK" ) ) {
+			instructions.add( new Instruction( lineNo, parseInvocation( tokens ) ) );
+		}
+		else if( mnemonic.equals( "JMPLT" ) ) {
+			final ValueReference value1 = parseValue( tokens );
+			mandate( tokens, "," );
+			final ValueReference value2 = parseValue( tokens );
+			mandate( tokens, "," );
+			instructions.add( new Instruction( lineNo, mandateText( tokens ), value1, value2 ) );
+		}
+		else if( mnemonic.equals( "MSGINFO" ) ) {
+			instructions.add( new Instruction( lineNo, new MSGINFO( parseString( tokens ) ) ) );
+		}
+		else if( mnemonic.equals( "MSGSTAT" ) ) {
+			instructions.add( new Instruction( lineNo, new MSGSTAT( parseString( tokens ) ) ) );
+		}
+		else if( mnemonic.equals( "MULV" ) ) {
+			final VariableReference variable = parseVariable( tokens );
+			mandate( tokens, "," );
+			instructions.add( new Instruction( lineNo, new MULV( variable, parseValue( tokens ) ) ) );
+		}
+		else if( mnemonic.equals( "SETV" ) ) {
+			final VariableReference variable = parseVariable( tokens );
+			mandate( tokens, "," );
+			instructions.add( new Instruction( lineNo, new SETV( variable, parseValue( tokens ) ) ) );
+		}
+		else if( mnemonic.equals( "TERM" ) ) {
+			instructions.add( new Instruction( lineNo, new TERM() ) );
+		}
+		else {
+			throw new IllegalArgumentException( format( "Unrecognized instruction '%s'", mnemonic ) );
+		}
+
+		// the statement must end the line
+		if( !tokens.isEmpty() ) {
+			throw new IllegalArgumentException( format( "Unexpected '%s'", tokens.getFirst().getContent() ) );
+		}
+	}
+
+	/**
+	 * Parses a method invocation (e.g. 'DOCUMENT::add("POINT", x, y)')
+	 * @param tokens the given {@link Token tokens}
+	 * @return the {@link INVOK invocation}
+	 */
+	private INVOK parseInvocation( final LinkedList<Token> tokens ) {
+		// get the object and method names
+		final String objectName = mandateText( tokens );
+		mandate( tokens, ":" );
+		mandate( tokens, ":" );
+		final String methodName = mandateText( tokens );
+
+		// get the arguments
+		final List<ValueReference> args = new ArrayList<ValueReference>();
+		mandate( tokens, "(" );
+		if( !isNext( tokens, ")" ) ) {
+			do {
+				args.add( parseValue( tokens ) );
+			}
+			while( accept( tokens, "," ) );
+		}
+		mandate( tokens, ")" );
+		return new INVOK( objectName, methodName, args.toArray( new ValueReference[ args.size() ] ) );
+	}
+
+	/**
+	 * Parses a value; a number, a double-quoted string or a variable
+	 * @param tokens the given {@link Token tokens}
+	 * @return the {@link ValueReference value}
+	 */
+	private ValueReference parseValue( final LinkedList<Token> tokens ) {
+		// is it a negative number?
+		final boolean negative = accept( tokens, "-" );
+
+		// get the value
+		final Token token = mandateToken( tokens );
+		if( token.isNumeric() ) {
+			final double value = Double.parseDouble( token.getContent() );
+			return new ConstantValue( negative ? -value : value );
+		}
+		else if( negative ) {
+			throw new IllegalArgumentException( format( "Number expected near '%s'", token.getContent() ) );
+		}
+		else if( token.isQuotedText() ) {
+			return new ConstantValue( unquote( token ) );
+		}
+		else if( token.isText() ) {
+			return lookupVariable( token.getContent() );
+		}
+		throw new IllegalArgumentException( format( "Value expected near '%s'", token.getContent() ) );
+	}
+
+	/**
+	 * Parses a double-quoted string
+	 * @param tokens the given {@link Token tokens}
+	 * @return the string
+	 */
+	private String parseString( final LinkedList<Token> tokens ) {
+		final Token token = mandateToken( tokens );
+		if( !token.isQuotedText() ) {
+			throw new IllegalArgumentException( format( "String expected near '%s'", token.getContent() ) );
+		}
+		return unquote( token );
+	}
+
+	/**
+	 * Parses a variable
+	 * @param tokens the given {@link Token tokens}
+	 * @return the {@link VariableReference variable}
+	 */
+	private VariableReference parseVariable( final LinkedList<Token> tokens ) {
+		return lookupVariable( mandateText( tokens ) );
+	}
+
+	/**
+	 * Returns the given variable, allocating its slot on first use
+	 * @param name the given variable name
+	 * @return the {@link VariableReference variable}
+	 */
+	private VariableReference lookupVariable( final String name ) {
+		Integer slot = variables.get( name );
+		if( slot == null ) {
+			slot = variables.size();
+			variables.put( name, slot );
+		}
+		return new VariableReference( name, slot );
+	}
+
+	/**
+	 * Tokenizes the given line; a comment ('#' outside of a string) ends the line.
+	 * @param line the given line
+	 * @return the {@link Token tokens}
+	 */
+	private LinkedList<Token> tokenize( final String line ) {
+		// strip the comment (if any)
+		boolean quoted = false;
+		int end = line.length();
+		for( int n = 0; n < line.length(); n++ ) {
+			final char c = line.charAt( n );
+			if( c == '"' ) {
+				quoted = !quoted;
+			}
+			else if( ( c == '#' ) && !quoted ) {
+				end = n;
+				break;
+			}
+		}
+
+		// gather the tokens
+		final LinkedList<Token> tokens = new LinkedList<Token>();
+		final TokenizerContext ctx = tokenizer.parse( line.substring( 0, end ) );
+		Token token;
+		while( ( token = tokenizer.nextToken( ctx ) ) != null ) {
+			tokens.add( token );
+		}
+		return tokens;
+	}
+
+	/**
+	 * Removes the next token, if it matches the given text
+	 * @param tokens the given {@link Token tokens}
+	 * @param text the given text
+	 * @return true, if the token was removed
+	 */
+	private static boolean accept( final LinkedList<Token> tokens, final String text ) {
+		if( isNext( tokens, text ) ) {
+			tokens.removeFirst();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Indicates whether the next token matches the given text
+	 * @param tokens the given {@link Token tokens}
+	 * @param text the given text
+	 * @return true, if the next token matches the given text
+	 */
+	private static boolean isNext( final LinkedList<Token> tokens, final String text ) {
+		return !tokens.isEmpty() && tokens.getFirst().getContent().equals( text );
+	}
+
+	/**
+	 * Removes the next token, which must match the given text
+	 * @param tokens the given {@link Token tokens}
+	 * @param text the given text
+	 */
+	private static void mandate( final LinkedList<Token> tokens, final String text ) {
+		if( !accept( tokens, text ) ) {
+			throw new IllegalArgumentException( format( "'%s' expected", text ) );
+		}
+	}
+
+	/**
+	 * Removes the next token, which must be an identifier
+	 * @param tokens the given {@link Token tokens}
+	 * @return the identifier
+	 */
+	private static String mandateText( final LinkedList<Token> tokens ) {
+		final Token token = mandateToken( tokens );
+		if( !token.isText() ) {
+			throw new IllegalArgumentException( format( "Identifier expected near '%s'", token.getContent() ) );
+		}
+		return token.getContent();
+	}
+
+	/**
+	 * Removes the next token, which must exist
+	 * @param tokens the given {@link Token tokens}
+	 * @return the {@link Token token}
+	 */
+	private static Token mandateToken( final LinkedList<Token> tokens ) {
+		if( tokens.isEmpty() ) {
+			throw new IllegalArgumentException( "Unexpected end of line" );
+		}
+		return tokens.removeFirst();
+	}
+
+	/**
+	 * Returns the content of the given double-quoted text token, without its quotes
+	 * @param token the given {@link Token token}
+	 * @return the unquoted text
+	 */
+	private static String unquote( final Token token ) {
+		final String content = token.getContent();
+		if( ( content.length() < 2 ) || !content.endsWith( "\"" ) ) {
+			throw new IllegalArgumentException( format( "Unterminated string %s", content ) );
+		}
+		return content.substring( 1, content.length() - 1 );
+	}
+
+	/**
+	 * Represents a compiled instruction; jumps are completed
+	 * once the offsets of their target labels are known.
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Instruction {
+		private final CxScriptOpCode opCode;
+		private final ValueReference[] operands;
+		private final String label;
+		private final int lineNo;
+
+		/**
+		 * Creates a new instruction
+		 * @param lineNo the given line number
+		 * @param opCode the given {@link CxScriptOpCode opCode}
+		 */
+		public Instruction( final int lineNo, final CxScriptOpCode opCode ) {
+			this.lineNo		= lineNo;
+			this.opCode		= opCode;
+			this.operands	= null;
+			this.label		= null;
+		}
+
+		/**
+		 * Creates a new jump instruction; an unconditional jump ("GOTO") has no
+		 * operands, while a conditional jump ("JMPLT") compares its two operands.
+		 * @param lineNo the given line number
+		 * @param label the given target label
+		 * @param operands the given {@link ValueReference operands}
+		 */
+		public Instruction( final int lineNo, final String label, final ValueReference ... operands ) {
+			this.lineNo		= lineNo;
+			this.opCode		= null;
+			this.operands	= operands;
+			this.label		= label;
+		}
+
+		/**
+		 * Returns the opCode of the instruction
+		 * @param offset the given byte code offset of the jump target (if any)
+		 * @return the {@link CxScriptOpCode opCode}
+		 */
+		public CxScriptOpCode getOpCode( final int offset ) {
+			if( opCode != null ) {
+				return opCode;
+			}
+			return ( operands.length == 0 ) ? new GOTO( offset ) : new JMPLT( operands[0], operands[1], offset );
+		}
 	}
 
 }
@@ -10,7 +10,9 @@ import constellation.tools.sdk.cxscript.value.ValueReference;
 public interface CxScriptFunction {
 
 	/**
-	 * Executes the function
+	 * Executes the function; the arguments are read as they are needed (numeric
+	 * arguments by way of {@link ValueReference#getNumber(CxScriptRuntimeContext)},
+	 * which does not box them), rather than being gathered into an array.
 	 * @param context the given {@link CxScriptRuntimeContext runtime}
 	 * @param args the given {@link ValueReference function arguments}
 	 */
@@ -0,0 +1,101 @@
+package constellation.tools.sdk.cxscript;
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+
+import constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode;
+
+/**
+ * Constellation Script Linker
+ * <div>
+ * Links a program's decoded instructions together: each instruction is linked
+ * to its successor, jumps are linked to their target instructions, and method
+ * invocations to their {@link CxScriptFunction methods}. Once linked, a program
+ * is executed by following the links alone (i.e. without decoding or look-ups).
+ * </div>
+ * @author lawrence.daniels@gmail.com
+ */
+public class CxScriptLinker {
+	private final CxScriptRuntimeContext context;
+	private final CxScriptOpCode[] instructions;
+	private final int[] offsets;
+	private int index;
+
+	/**
+	 * Creates a new linker
+	 * @param context the given {@link CxScriptRuntimeContext context}
+	 * @param instructions the given decoded {@link CxScriptOpCode instructions}
+	 * @param offsets the given (ascending) byte code offsets of the instructions
+	 */
+	private CxScriptLinker( final CxScriptRuntimeContext context,
+							final CxScriptOpCode[] instructions,
+							final int[] offsets ) {
+		this.context		= context;
+		this.instructions	= instructions;
+		this.offsets		= offsets;
+	}
+
+	/**
+	 * Links the given instructions
+	 * @param context the given {@link CxScriptRuntimeContext context}
+	 * @param instructions the given decoded {@link CxScriptOpCode instructions}
+	 * @param offsets the given (ascending) byte code offsets of the instructions
+	 * @return the first {@link CxScriptOpCode instruction} of the program, or <tt>null</tt> if it is empty
+	 * @throws IllegalArgumentException if a reference can not be resolved
+	 */
+	public static CxScriptOpCode link( final CxScriptRuntimeContext context,
+									   final CxScriptOpCode[] instructions,
+									   final int[] offsets ) {
+		final CxScriptLinker linker = new CxScriptLinker( context, instructions, offsets );
+		for( linker.index = 0; linker.index < instructions.length; linker.index++ ) {
+			instructions[ linker.index ].link( linker );
+		}
+		return ( instructions.length > 0 ) ? instructions[0] : null;
+	}
+
+	/**
+	 * Returns the instruction which follows the instruction being linked
+	 * @return the {@link CxScriptOpCode instruction}, or <tt>null</tt> if it is the last instruction
+	 */
+	public CxScriptOpCode getSuccessor() {
+		return ( index + 1 < instructions.length ) ? instructions[ index + 1 ] : null;
+	}
+
+	/**
+	 * Returns the instruction at the given byte code offset
+	 * @param offset the given byte code offset
+	 * @return the {@link CxScriptOpCode instruction}
+	 * @throws IllegalArgumentException if no instruction begins at the offset
+	 */
+	public CxScriptOpCode lookupInstruction( final int offset ) {
+		final int n = Arrays.binarySearch( offsets, offset );
+		if( n < 0 ) {
+			throw new IllegalArgumentException( format( "Invalid jump offset %04X", offset ) );
+		}
+		return instructions[n];
+	}
+
+	/**
+	 * Returns the method of the given object
+	 * @param objectName the given object name
+	 * @param methodName the given method name
+	 * @return the {@link CxScriptFunction method}
+	 * @throws IllegalArgumentException if the object or method does not exist
+	 */
+	public CxScriptFunction lookupMethod( final String objectName, final String methodName ) {
+		// lookup the object by name
+		final CxScriptObject object = context.lookupObject( objectName );
+		if( object == null ) {
+			throw new IllegalArgumentException( format( "Object '%s' not found", objectName ) );
+		}
+
+		// lookup the method by name
+		final CxScriptFunction method = object.lookupMethod( methodName );
+		if( method == null ) {
+			throw new IllegalArgumentException( format( "Method '%s::%s' not found", objectName, methodName ) );
+		}
+		return method;
+	}
+
+}
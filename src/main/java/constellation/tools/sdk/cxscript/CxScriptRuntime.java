@@ -1,6 +1,8 @@
 package constellation.tools.sdk.cxscript;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 import constellation.ApplicationController;
 import constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode;
@@ -8,12 +10,17 @@ import constellation.tools.sdk.cxscript.opcodes.CxScriptOpCodeDecoder;
 
 /**
  * Constellation Script Runtime
+ * <div>
+ * The byte code is decoded once, and its instructions are {@link CxScriptLinker linked}
+ * together; the program is then executed by following the links from one instruction
+ * to the next (i.e. each instruction returns its successor).
+ * </div>
  * @author lawrence.daniels@gmail.com
  */
 public class CxScriptRuntime {
 	private final ApplicationController controller;
 	private final CxScriptOpCodeDecoder decoder;
-	
+
 	/**
 	 * Creates a new CxScript runtime
 	 * @param controller the given {@link ApplicationController controller}
@@ -23,19 +30,58 @@ public class CxScriptRuntime {
 		this.decoder 	= new CxScriptOpCodeDecoder();
 	}
 
-	/** 
+	/**
 	 * Executes the byte code
 	 * @param buffer the byte code
+	 * @throws IllegalArgumentException if the byte code is invalid
 	 */
 	public void execute( final ByteBuffer buffer ) {
 		// create a new runtime context
 		final CxScriptRuntimeContext context = new CxScriptRuntimeContext( controller );
-		
-		// execute until the end of the buffer
-		while( !context.isTerminate() && buffer.hasRemaining() ) {
-			final CxScriptOpCode opCode = decoder.decode( buffer );
-			opCode.execute( context );
+
+		// load and execute the program
+		execute( context, load( context, buffer ) );
+	}
+
+	/**
+	 * Executes the linked program
+	 * @param context the given {@link CxScriptRuntimeContext context}
+	 * @param program the first {@link CxScriptOpCode instruction} of the linked program
+	 */
+	public void execute( final CxScriptRuntimeContext context, final CxScriptOpCode program ) {
+		// execute until the end of the program
+		CxScriptOpCode opCode = program;
+		while( ( opCode != null ) && !context.isTerminate() ) {
+			opCode = opCode.execute( context );
 		}
+
+		// add the generated elements to the model
+		context.flush();
 	}
-	
+
+	/**
+	 * Decodes and links the byte code
+	 * @param context the given {@link CxScriptRuntimeContext context}
+	 * @param buffer the byte code
+	 * @return the first {@link CxScriptOpCode instruction} of the linked program
+	 * @throws IllegalArgumentException if the byte code is invalid
+	 */
+	public CxScriptOpCode load( final CxScriptRuntimeContext context, final ByteBuffer buffer ) {
+		// decode each instruction, recording its offset
+		final int start = buffer.position();
+		final List<CxScriptOpCode> instructions = new ArrayList<CxScriptOpCode>();
+		final List<Integer> offsets = new ArrayList<Integer>();
+		while( buffer.hasRemaining() ) {
+			offsets.add( buffer.position() - start );
+			instructions.add( decoder.decode( buffer ) );
+		}
+
+		// link the instructions
+		final int[] offsetArray = new int[ offsets.size() ];
+		for( int n = 0; n < offsetArray.length; n++ ) {
+			offsetArray[n] = offsets.get( n );
+		}
+		return CxScriptLinker.link( context, instructions.toArray( new CxScriptOpCode[ instructions.size() ] ), offsetArray );
+	}
+
 }
@@ -1,22 +1,38 @@
 package constellation.tools.sdk.cxscript;
 
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import constellation.ApplicationController;
+import constellation.drawing.elements.ModelElement;
+import constellation.model.GeometricModel;
 import constellation.tools.sdk.cxscript.opcodes.objects.DocumentObject;
 import constellation.tools.sdk.cxscript.opcodes.objects.InstructionObject;
 import constellation.tools.sdk.cxscript.opcodes.objects.MouseObject;
 import constellation.tools.sdk.cxscript.opcodes.objects.StatusObject;
 
 /**
- * Constellation Script Runtime Context
+ * Constellation Script Runtime Context. Numeric variables are held in a
+ * slot array of doubles (i.e. without boxing), and all other values in
+ * a separate slot array of objects.
  * @author lawrence.daniels@gmail.com
  */
 public class CxScriptRuntimeContext {
+	// marks the slots which hold numeric values
+	private static final Object NUMERIC = new Object();
+	
+	// internal fields
 	private final ApplicationController controller;
 	private final Map<String,CxScriptFunction> functions;
 	private final Map<String,CxScriptObject> objects;
+	private final List<ModelElement> elements;
+	private double[] numbers;
+	private Object[] values;
 	private boolean terminate;
 	
 	/**
@@ -27,6 +43,9 @@ public class CxScriptRuntimeContext {
 		this.terminate 	= false;
 		this.functions	= new HashMap<String, CxScriptFunction>();
 		this.objects	= new HashMap<String, CxScriptObject>();
+		this.elements	= new ArrayList<ModelElement>();
+		this.numbers	= new double[ 16 ];
+		this.values		= new Object[ 16 ];
 		
 		// add the built-in "special" functions
 		addObject( new DocumentObject() );
@@ -51,6 +70,102 @@ public class CxScriptRuntimeContext {
 		objects.put( object.getName(), object );
 	}
 	
+	/**
+	 * Queues the given element for addition to the model; the queued
+	 * elements are added (as a single change) once the script has ended.
+	 * @param element the given {@link ModelElement element}
+	 */
+	public void addElement( final ModelElement element ) {
+		elements.add( element );
+	}
+	
+	/**
+	 * Adds the queued elements to the model
+	 */
+	public void flush() {
+		if( !elements.isEmpty() ) {
+			final GeometricModel model = controller.getModel();
+			final List<ModelElement> additions = new ArrayList<ModelElement>( elements );
+			model.resolveLabelConflicts( additions );
+			model.addPhysicalElements( additions );
+			elements.clear();
+			controller.requestRedraw();
+		}
+	}
+	
+	/**
+	 * Indicates whether the variable in the given slot holds a numeric value
+	 * @param slot the given slot
+	 * @return true, if the variable holds a numeric value
+	 */
+	public boolean isNumber( final int slot ) {
+		return ( slot < values.length ) && ( values[ slot ] == NUMERIC );
+	}
+	
+	/**
+	 * Returns the numeric value of the variable in the given slot
+	 * @param slot the given slot
+	 * @return the numeric value
+	 * @throws IllegalArgumentException if the variable does not hold a numeric value
+	 */
+	public double getNumber( final int slot ) {
+		if( !isNumber( slot ) ) {
+			throw new IllegalArgumentException( format( "Numeric value expected, found '%s'", getVariable( slot ) ) );
+		}
+		return numbers[ slot ];
+	}
+	
+	/**
+	 * Sets the numeric value of the variable in the given slot
+	 * @param slot the given slot
+	 * @param value the given numeric value
+	 */
+	public void setNumber( final int slot, final double value ) {
+		insureCapacity( slot );
+		numbers[ slot ]	= value;
+		values[ slot ]	= NUMERIC;
+	}
+	
+	/**
+	 * Returns the value of the variable in the given slot; numeric values are boxed
+	 * (see {@link #getNumber(int)})
+	 * @param slot the given slot
+	 * @return the {@link Object value}, or <tt>null</tt> if the variable has not been set
+	 */
+	public Object getVariable( final int slot ) {
+		if( slot >= values.length ) {
+			return null;
+		}
+		return ( values[ slot ] == NUMERIC ) ? Double.valueOf( numbers[ slot ] ) : values[ slot ];
+	}
+	
+	/**
+	 * Sets the value of the variable in the given slot
+	 * @param slot the given slot
+	 * @param value the given {@link Object value}
+	 */
+	public void setVariable( final int slot, final Object value ) {
+		if( value instanceof Number ) {
+			setNumber( slot, ((Number)value).doubleValue() );
+		}
+		else {
+			insureCapacity( slot );
+			values[ slot ] = value;
+		}
+	}
+	
+	/**
+	 * Insures the slot arrays contain the given slot
+	 * @param slot the given slot
+	 */
+	private void insureCapacity( final int slot ) {
+		if( slot >= values.length ) {
+			final int capacity = Math.max( slot + 1, values.length * 2 );
+			numbers	= Arrays.copyOf( numbers, capacity );
+			values	= Arrays.copyOf( values, capacity );
+		}
+	}
+	
 	/** 
 	 * Looks up an object by name
 	 * @param name the given object name
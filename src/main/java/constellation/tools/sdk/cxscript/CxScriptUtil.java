@@ -1,17 +1,29 @@
 package constellation.tools.sdk.cxscript;
 
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 import constellation.tools.sdk.cxscript.value.ConstantValue;
 import constellation.tools.sdk.cxscript.value.ValueReference;
+import constellation.tools.sdk.cxscript.value.VariableReference;
 
 /**
  * Constellation Script OpCode Utility
  * @author lawrence.daniels@gmail.com
  */
 public class CxScriptUtil {
-	
-	/** 
+	private static final Charset CHARSET = Charset.forName( "UTF-8" );
+
+	// value reference type codes
+	public static final byte VALUE_NUMBER 	= 'N';
+	public static final byte VALUE_STRING 	= 'S';
+	public static final byte VALUE_VARIABLE = 'V';
+
+	/**
 	 * Decodes a string from the buffer
 	 * @param buffer the given {@link ByteBuffer buffer}
 	 * @return a string
@@ -19,33 +31,88 @@ public class CxScriptUtil {
 	public static String decodeString( final ByteBuffer buffer ) {
 		// get the length of the string
 		final short length = buffer.getShort();
-		
+
 		// get the bytes to from a new string
 		final byte[] data = new byte[ length ];
 		buffer.get( data );
-		
+
 		// return the string
-		return new String( data );
+		return new String( data, CHARSET );
 	}
-	
-	/** 
+
+	/**
+	 * Encodes a string to the stream
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param string the given string
+	 * @throws IOException
+	 */
+	public static void encodeString( final DataOutputStream stream, final String string )
+	throws IOException {
+		final byte[] data = string.getBytes( CHARSET );
+		stream.writeShort( data.length );
+		stream.write( data );
+	}
+
+	/**
 	 * Returns the method arguments
 	 * @param buffer the given {@link ByteBuffer buffer}
 	 * @return the array of {@link ValueReference method arguments}
 	 */
 	public static ValueReference[] decodeArguments( final ByteBuffer buffer  ) {
-		// get the length of the string
+		// get the number of arguments
 		final byte count = buffer.get();
-		
-		// get the bytes to from a new string
+
+		// decode each argument
 		final ValueReference[] args = new ValueReference[ count ];
 		for( int n = 0; n < count; n++ ) {
-			args[n] = new ConstantValue( String.format( "%d", n+1 ) );
+			args[n] = decodeValue( buffer );
 		}
-		// return the string
 		return args;
 	}
-	
+
+	/**
+	 * Encodes the method arguments
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @param args the array of {@link ValueReference method arguments}
+	 * @throws IOException
+	 */
+	public static void encodeArguments( final DataOutputStream stream, final ValueReference[] args )
+	throws IOException {
+		stream.writeByte( args.length );
+		for( final ValueReference arg : args ) {
+			arg.encode( stream );
+		}
+	}
+
+	/**
+	 * Decodes a value reference from the buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the {@link ValueReference value reference}
+	 */
+	public static ValueReference decodeValue( final ByteBuffer buffer ) {
+		final byte type = buffer.get();
+		switch( type ) {
+			case VALUE_NUMBER:		return new ConstantValue( buffer.getDouble() );
+			case VALUE_STRING:		return new ConstantValue( decodeString( buffer ) );
+			case VALUE_VARIABLE:	return new VariableReference( decodeString( buffer ), buffer.getShort() );
+			default:
+				throw new IllegalArgumentException( format( "Illegal value type '%02X'", type ) );
+		}
+	}
+
+	/**
+	 * Decodes a variable reference from the buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the {@link VariableReference variable reference}
+	 */
+	public static VariableReference decodeVariable( final ByteBuffer buffer ) {
+		final ValueReference value = decodeValue( buffer );
+		if( !( value instanceof VariableReference ) ) {
+			throw new IllegalArgumentException( format( "Variable expected near '%s'", value ) );
+		}
+		return (VariableReference)value;
+	}
+
 	/**
 	 * Evaluates the values of the given array of value references
 	 * @param context the given {@link CxScriptRuntimeContext context}
@@ -0,0 +1,20 @@
+package constellation.tools.sdk.cxscript.opcodes;
+
+import constellation.tools.sdk.cxscript.CxScriptLinker;
+
+/**
+ * Generic CxScript OpCode; which is linked to the instruction that follows it.
+ * @author lawrence.daniels@gmail.com
+ */
+public abstract class AbstractCxScriptOpCode implements CxScriptOpCode {
+	protected CxScriptOpCode next;
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#link(constellation.tools.sdk.cxscript.CxScriptLinker)
+	 */
+	public void link( final CxScriptLinker linker ) {
+		this.next = linker.getSuccessor();
+	}
+
+}
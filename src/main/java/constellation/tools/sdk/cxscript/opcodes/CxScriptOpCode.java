@@ -1,5 +1,9 @@
 package constellation.tools.sdk.cxscript.opcodes;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import constellation.tools.sdk.cxscript.CxScriptLinker;
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
 
 /**
@@ -8,10 +12,27 @@ import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
  */
 public interface CxScriptOpCode {
 	
+	/**
+	 * Encodes the operational code
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @throws IOException
+	 */
+	void encode( DataOutputStream stream ) throws IOException;
+	
 	/**
 	 * Executes the operational code
 	 * @param context the given {@link CxScriptRuntimeContext context}
+	 * @return the next {@link CxScriptOpCode opCode} to execute, or <tt>null</tt> if the program has ended
+	 */
+	CxScriptOpCode execute( CxScriptRuntimeContext context );
+	
+	/**
+	 * Links the operational code to its successor (and to the instructions,
+	 * objects and methods it references), so that it may be executed without
+	 * any further look-ups.
+	 * @param linker the given {@link CxScriptLinker linker}
+	 * @throws IllegalArgumentException if a reference can not be resolved
 	 */
-	void execute( CxScriptRuntimeContext context );
+	void link( CxScriptLinker linker );
 	
 }
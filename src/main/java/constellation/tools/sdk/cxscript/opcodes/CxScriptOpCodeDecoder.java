@@ -10,9 +10,13 @@ import java.nio.ByteBuffer;
  */
 public class CxScriptOpCodeDecoder {
 	public static final short OP_GOTO 		= 0x0000;
+	public static final short OP_JMPLT 		= 0x0001;
 	public static final short OP_INVOK 		= 0x0100;
 	public static final short OP_MSGSTAT	= 0x0200;
 	public static final short OP_MSGINFO	= 0x0201;
+	public static final short OP_SETV		= 0x0300;
+	public static final short OP_ADDV		= 0x0301;
+	public static final short OP_MULV		= 0x0302;
 	public static final short OP_TERM 		= 0x7FFF;
 	
 	/**
@@ -26,10 +30,14 @@ public class CxScriptOpCodeDecoder {
 		
 		// decode the instruction
 		switch( opCode ) {
+			case OP_ADDV:		return new ADDV( buffer );
 			case OP_GOTO:		return new GOTO( buffer );
 			case OP_INVOK:		return new INVOK( buffer );
+			case OP_JMPLT:		return new JMPLT( buffer );
 			case OP_MSGINFO:	return new MSGINFO( buffer );
 			case OP_MSGSTAT:	return new MSGSTAT( buffer );
+			case OP_MULV:		return new MULV( buffer );
+			case OP_SETV:		return new SETV( buffer );
 			case OP_TERM:		return new TERM();
 			default:		
 				throw new IllegalArgumentException( format( "Illegal instruction code '%04X'", opCode ) );
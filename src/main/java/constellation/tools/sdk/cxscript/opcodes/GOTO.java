@@ -1,21 +1,27 @@
 package constellation.tools.sdk.cxscript.opcodes;
 
+import static constellation.tools.sdk.cxscript.opcodes.CxScriptOpCodeDecoder.OP_GOTO;
 import static java.lang.String.format;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
+import constellation.tools.sdk.cxscript.CxScriptLinker;
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
 
 /**
  * Constellation Script Goto Label (GOTO) OpCode
+ * <br>Syntax: GOTO label
  * @author lawrence.daniels@gmail.com
  */
 public class GOTO implements CxScriptOpCode {
 	private final int offset;
+	private CxScriptOpCode target;
 	
 	/**
 	 * Creates a new "GOTO" opCode
-	 * @param label the given label
+	 * @param offset the given byte code offset of the target instruction
 	 */
 	public GOTO( final int offset ) {
 		this.offset = offset;
@@ -28,14 +34,31 @@ public class GOTO implements CxScriptOpCode {
 	public GOTO( final ByteBuffer buffer ) {
 		this.offset = buffer.getInt();
 	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#encode(java.io.DataOutputStream)
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		stream.writeShort( OP_GOTO );
+		stream.writeInt( offset );
+	}
 
 	/* 
 	 * (non-Javadoc)
 	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#execute(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
 	 */
-	public void execute( final CxScriptRuntimeContext context ) {
-		// TODO Auto-generated method stub
-		
+	public CxScriptOpCode execute( final CxScriptRuntimeContext context ) {
+		return target;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#link(constellation.tools.sdk.cxscript.CxScriptLinker)
+	 */
+	public void link( final CxScriptLinker linker ) {
+		this.target = linker.lookupInstruction( offset );
 	}
 	
 	/* 
@@ -2,12 +2,17 @@ package constellation.tools.sdk.cxscript.opcodes;
 
 import static constellation.tools.sdk.cxscript.CxScriptUtil.decodeArguments;
 import static constellation.tools.sdk.cxscript.CxScriptUtil.decodeString;
+import static constellation.tools.sdk.cxscript.CxScriptUtil.encodeArguments;
+import static constellation.tools.sdk.cxscript.CxScriptUtil.encodeString;
+import static constellation.tools.sdk.cxscript.opcodes.CxScriptOpCodeDecoder.OP_INVOK;
 import static java.lang.String.format;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import constellation.tools.sdk.cxscript.CxScriptFunction;
-import constellation.tools.sdk.cxscript.CxScriptObject;
+import constellation.tools.sdk.cxscript.CxScriptLinker;
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
 import constellation.tools.sdk.cxscript.value.ValueReference;
 
@@ -16,10 +21,11 @@ import constellation.tools.sdk.cxscript.value.ValueReference;
  * <br>Syntax: INVOK object::method(arg1,arg2,..,argN)
  * @author lawrence.daniels@gmail.com
  */
-public class INVOK implements CxScriptOpCode {
+public class INVOK extends AbstractCxScriptOpCode {
 	private final ValueReference[] args;
 	private final String objectName;
 	private final String methodName;
+	private CxScriptFunction method;
 	
 	/**
 	 * Creates a new "INVOK" opCode
@@ -45,20 +51,35 @@ public class INVOK implements CxScriptOpCode {
 		this.args		= decodeArguments( buffer );
 	}
 
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#encode(java.io.DataOutputStream)
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		stream.writeShort( OP_INVOK );
+		encodeString( stream, objectName );
+		encodeString( stream, methodName );
+		encodeArguments( stream, args );
+	}
+
 	/* 
 	 * (non-Javadoc)
 	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#execute(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
 	 */
-	public void execute( final CxScriptRuntimeContext context ) {
-		// lookup the object by name
-		final CxScriptObject object = context.lookupObject( objectName );
-		if( object != null ) {
-			// lookup the method by name
-			final CxScriptFunction method = object.lookupMethod( methodName );
-			if( method != null ) {
-				method.execute( context, args );
-			}
-		}
+	public CxScriptOpCode execute( final CxScriptRuntimeContext context ) {
+		method.execute( context, args );
+		return next;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.AbstractCxScriptOpCode#link(constellation.tools.sdk.cxscript.CxScriptLinker)
+	 */
+	@Override
+	public void link( final CxScriptLinker linker ) {
+		super.link( linker );
+		this.method = linker.lookupMethod( objectName, methodName );
 	}
 	
 	/* 
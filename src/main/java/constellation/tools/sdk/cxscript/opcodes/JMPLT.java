@@ -0,0 +1,88 @@
+package constellation.tools.sdk.cxscript.opcodes;
+
+import static constellation.tools.sdk.cxscript.CxScriptUtil.decodeValue;
+import static constellation.tools.sdk.cxscript.opcodes.CxScriptOpCodeDecoder.OP_JMPLT;
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import constellation.tools.sdk.cxscript.CxScriptLinker;
+import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
+import constellation.tools.sdk.cxscript.value.ValueReference;
+
+/**
+ * Constellation Script Jump if Less Than (JMPLT) OpCode
+ * <br>Syntax: JMPLT value1, value2, label
+ * @author lawrence.daniels@gmail.com
+ */
+public class JMPLT extends AbstractCxScriptOpCode {
+	private final ValueReference value1;
+	private final ValueReference value2;
+	private final int offset;
+	private CxScriptOpCode target;
+	
+	/**
+	 * Creates a new "JMPLT" opCode
+	 * @param value1 the given left-hand {@link ValueReference value}
+	 * @param value2 the given right-hand {@link ValueReference value}
+	 * @param offset the given byte code offset of the target instruction
+	 */
+	public JMPLT( final ValueReference value1, 
+				  final ValueReference value2, 
+				  final int offset ) {
+		this.value1	= value1;
+		this.value2	= value2;
+		this.offset	= offset;
+	}
+	
+	/**
+	 * Creates a new "JMPLT" opCode
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 */
+	public JMPLT( final ByteBuffer buffer ) {
+		this.value1	= decodeValue( buffer );
+		this.value2	= decodeValue( buffer );
+		this.offset	= buffer.getInt();
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#encode(java.io.DataOutputStream)
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		stream.writeShort( OP_JMPLT );
+		value1.encode( stream );
+		value2.encode( stream );
+		stream.writeInt( offset );
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#execute(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
+	 */
+	public CxScriptOpCode execute( final CxScriptRuntimeContext context ) {
+		return ( value1.getNumber( context ) < value2.getNumber( context ) ) ? target : next;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.AbstractCxScriptOpCode#link(constellation.tools.sdk.cxscript.CxScriptLinker)
+	 */
+	@Override
+	public void link( final CxScriptLinker linker ) {
+		super.link( linker );
+		this.target = linker.lookupInstruction( offset );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return format( "JMPLT %s, %s, %04X", value1, value2, offset );
+	}
+
+}
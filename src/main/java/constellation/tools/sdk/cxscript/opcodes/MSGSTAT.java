@@ -1,8 +1,12 @@
 package constellation.tools.sdk.cxscript.opcodes;
 
 import static constellation.tools.sdk.cxscript.CxScriptUtil.decodeString;
+import static constellation.tools.sdk.cxscript.CxScriptUtil.encodeString;
+import static constellation.tools.sdk.cxscript.opcodes.CxScriptOpCodeDecoder.OP_MSGSTAT;
 import static java.lang.String.format;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import constellation.ApplicationController;
@@ -12,7 +16,7 @@ import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
  * Constellation Script Goto Label (MSGSTAT) OpCode
  * @author lawrence.daniels@gmail.com
  */
-public class MSGSTAT implements CxScriptOpCode {
+public class MSGSTAT extends AbstractCxScriptOpCode {
 	private final String message;
 	
 	/**
@@ -31,15 +35,25 @@ public class MSGSTAT implements CxScriptOpCode {
 		this.message = decodeString( buffer );
 	}
 
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#encode(java.io.DataOutputStream)
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		stream.writeShort( OP_MSGSTAT );
+		encodeString( stream, message );
+	}
+
 	/* 
 	 * (non-Javadoc)
 	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#execute(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
 	 */
-	public void execute( final CxScriptRuntimeContext context ) {
+	public CxScriptOpCode execute( final CxScriptRuntimeContext context ) {
 		// get the application controller instance
 		final ApplicationController controller = context.getApplicationController();
 		controller.setStatusMessage( message );
-		
+		return next;
 	}
 	
 	/* 
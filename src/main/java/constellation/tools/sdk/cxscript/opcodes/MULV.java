@@ -0,0 +1,72 @@
+package constellation.tools.sdk.cxscript.opcodes;
+
+import static constellation.tools.sdk.cxscript.CxScriptUtil.decodeValue;
+import static constellation.tools.sdk.cxscript.CxScriptUtil.decodeVariable;
+import static constellation.tools.sdk.cxscript.opcodes.CxScriptOpCodeDecoder.OP_MULV;
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
+import constellation.tools.sdk.cxscript.value.ValueReference;
+import constellation.tools.sdk.cxscript.value.VariableReference;
+
+/**
+ * Constellation Script Multiply Variable (MULV) OpCode
+ * <br>Syntax: MULV variable, value
+ * @author lawrence.daniels@gmail.com
+ */
+public class MULV extends AbstractCxScriptOpCode {
+	private final VariableReference variable;
+	private final ValueReference value;
+	
+	/**
+	 * Creates a new "MULV" opCode
+	 * @param variable the given {@link VariableReference variable}
+	 * @param value the given {@link ValueReference value}
+	 */
+	public MULV( final VariableReference variable, final ValueReference value ) {
+		this.variable	= variable;
+		this.value		= value;
+	}
+	
+	/**
+	 * Creates a new "MULV" opCode
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 */
+	public MULV( final ByteBuffer buffer ) {
+		this.variable	= decodeVariable( buffer );
+		this.value		= decodeValue( buffer );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#encode(java.io.DataOutputStream)
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		stream.writeShort( OP_MULV );
+		variable.encode( stream );
+		value.encode( stream );
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#execute(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
+	 */
+	public CxScriptOpCode execute( final CxScriptRuntimeContext context ) {
+		variable.setNumber( context, variable.getNumber( context ) * value.getNumber( context ) );
+		return next;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return format( "MULV %s, %s", variable, value );
+	}
+
+}
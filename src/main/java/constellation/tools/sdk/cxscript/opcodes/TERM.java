@@ -1,5 +1,11 @@
 package constellation.tools.sdk.cxscript.opcodes;
 
+import static constellation.tools.sdk.cxscript.opcodes.CxScriptOpCodeDecoder.OP_TERM;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import constellation.tools.sdk.cxscript.CxScriptLinker;
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
 
 /**
@@ -7,13 +13,31 @@ import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
  * @author lawrence.daniels@gmail.com
  */
 public class TERM implements CxScriptOpCode {
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#encode(java.io.DataOutputStream)
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		stream.writeShort( OP_TERM );
+	}
 
 	/* 
 	 * (non-Javadoc)
 	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#execute(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
 	 */
-	public void execute( final CxScriptRuntimeContext context ) {
+	public CxScriptOpCode execute( final CxScriptRuntimeContext context ) {
 		context.setTerminate( true );
+		return null;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.opcodes.CxScriptOpCode#link(constellation.tools.sdk.cxscript.CxScriptLinker)
+	 */
+	public void link( final CxScriptLinker linker ) {
+		// a terminated program has no successor
 	}
 	
 	/* 
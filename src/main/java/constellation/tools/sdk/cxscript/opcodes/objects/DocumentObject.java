@@ -1,5 +1,12 @@
 package constellation.tools.sdk.cxscript.opcodes.objects;
 
+import static java.lang.String.format;
+
+import constellation.drawing.EntityRepresentation;
+import constellation.drawing.elements.CxModelElement;
+import constellation.drawing.entities.CircleXY;
+import constellation.drawing.entities.LineXY;
+import constellation.drawing.entities.PointXY;
 import constellation.tools.sdk.cxscript.AbstractCxScriptObject;
 import constellation.tools.sdk.cxscript.CxScriptFunction;
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
@@ -22,6 +29,8 @@ public class DocumentObject extends AbstractCxScriptObject {
 	
 	/** 
 	 * DOCUMENT::add Method
+	 * <br>Syntax: DOCUMENT::add("POINT", x, y), DOCUMENT::add("LINE", x1, y1, x2, y2) 
+	 * or DOCUMENT::add("CIRCLE", x, y, radius)
 	 * @author lawrence.daniels@gmail.com
 	 */
 	private class AddMethod implements CxScriptFunction {
@@ -32,7 +41,26 @@ public class DocumentObject extends AbstractCxScriptObject {
 		 */
 		public void execute( final CxScriptRuntimeContext runtime, 
 							 final ValueReference[] args ) {
-			// TODO Auto-generated method stub
+			// the first argument is the type of entity
+			final String type = ( args.length > 0 ) ? String.valueOf( args[0].getValue( runtime ) ) : null;
+			
+			// create the entity (reading the numeric arguments without boxing them)
+			final EntityRepresentation entity;
+			if( "POINT".equals( type ) && ( args.length == 3 ) ) {
+				entity = new PointXY( args[1].getNumber( runtime ), args[2].getNumber( runtime ) );
+			}
+			else if( "LINE".equals( type ) && ( args.length == 5 ) ) {
+				entity = new LineXY( args[1].getNumber( runtime ), args[2].getNumber( runtime ), args[3].getNumber( runtime ), args[4].getNumber( runtime ) );
+			}
+			else if( "CIRCLE".equals( type ) && ( args.length == 4 ) ) {
+				entity = new CircleXY( args[1].getNumber( runtime ), args[2].getNumber( runtime ), args[3].getNumber( runtime ) );
+			}
+			else {
+				throw new IllegalArgumentException( format( "Invalid arguments for DOCUMENT::add (type '%s', %d arguments)", type, args.length ) );
+			}
+			
+			// queue the entity for addition to the model
+			runtime.addElement( new CxModelElement( entity ) );
 		}
 
 		/* 
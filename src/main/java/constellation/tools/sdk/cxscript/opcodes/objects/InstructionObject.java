@@ -1,5 +1,6 @@
 package constellation.tools.sdk.cxscript.opcodes.objects;
 
+import constellation.functions.Steps;
 import constellation.tools.sdk.cxscript.AbstractCxScriptObject;
 import constellation.tools.sdk.cxscript.CxScriptFunction;
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
@@ -20,7 +21,7 @@ public class InstructionObject extends AbstractCxScriptObject {
 	}
 	
 	/** 
-	 * DOCUMENT::select Method
+	 * INSTRUCTION::set Method
 	 * @author lawrence.daniels@gmail.com
 	 */
 	private class SetMethod implements CxScriptFunction {
@@ -30,7 +31,8 @@ public class InstructionObject extends AbstractCxScriptObject {
 		 * @see constellation.tools.sdk.cxscript.CxScriptFunction#execute(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
 		 */
 		public void execute( final CxScriptRuntimeContext runtime, ValueReference[] args ) {
-			// TODO Auto-generated method stub
+			// set the instructional message
+			runtime.getApplicationController().setInstructionalSteps( new Steps( String.valueOf( args[0].getValue( runtime ) ) ) );
 		}
 
 		/* 
@@ -1,6 +1,5 @@
 package constellation.tools.sdk.cxscript.opcodes.objects;
 
-import static constellation.tools.sdk.cxscript.CxScriptUtil.getValues;
 import constellation.ApplicationController;
 import constellation.tools.sdk.cxscript.AbstractCxScriptFunction;
 import constellation.tools.sdk.cxscript.AbstractCxScriptObject;
@@ -40,11 +39,8 @@ public class StatusObject extends AbstractCxScriptObject {
 		 */
 		public void execute( final CxScriptRuntimeContext context, 
 							 final ValueReference[] args ) {
-			// get the values
-			final Object[] values = getValues( context, args );
-			
 			// the first argument should be a string
-			final String message = (String)values[0];
+			final String message = (String)args[0].getValue( context );
 			
 			// set the status message
 			final ApplicationController controller = context.getApplicationController();
@@ -1,6 +1,13 @@
 package constellation.tools.sdk.cxscript.value;
 
+import static constellation.tools.sdk.cxscript.CxScriptUtil.encodeString;
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
+import constellation.tools.sdk.cxscript.CxScriptUtil;
 
 /**
  * Constellation Constant Value
@@ -8,12 +15,35 @@ import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
  */
 public class ConstantValue implements ValueReference {
 	private final Object value;
+	private final boolean numeric;
+	private final double number;
 	
 	/**
 	 * Default Constructor
 	 */
 	public ConstantValue( final Object value ) {
-		this.value = value;
+		this.value		= value;
+		this.numeric	= ( value instanceof Number );
+		this.number		= numeric ? ((Number)value).doubleValue() : 0d;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.value.ValueReference#encode(java.io.DataOutputStream)
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		if( value instanceof Number ) {
+			stream.writeByte( CxScriptUtil.VALUE_NUMBER );
+			stream.writeDouble( ((Number)value).doubleValue() );
+		}
+		else if( value instanceof String ) {
+			stream.writeByte( CxScriptUtil.VALUE_STRING );
+			encodeString( stream, (String)value );
+		}
+		else {
+			throw new IOException( format( "Constant value '%s' can not be encoded", value ) );
+		}
 	}
 	
 	/* 
@@ -23,13 +53,32 @@ public class ConstantValue implements ValueReference {
 	public Object getValue( final CxScriptRuntimeContext context ) {
 		return value;
 	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.value.ValueReference#isNumber(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
+	 */
+	public boolean isNumber( final CxScriptRuntimeContext context ) {
+		return numeric;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.value.ValueReference#getNumber(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
+	 */
+	public double getNumber( final CxScriptRuntimeContext context ) {
+		if( !numeric ) {
+			throw new IllegalArgumentException( format( "Numeric value expected, found '%s'", value ) );
+		}
+		return number;
+	}
 
 	/* 
 	 * (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
 	public String toString() {
-		return value.toString();
+		return ( value instanceof String ) ? format( "\"%s\"", value ) : value.toString();
 	}
 
 }
@@ -1,5 +1,8 @@
 package constellation.tools.sdk.cxscript.value;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
 
 /**
@@ -7,6 +10,13 @@ import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
  * @author lawrence.daniels@gmail.com
  */
 public interface ValueReference {
+	
+	/**
+	 * Encodes the value reference
+	 * @param stream the given {@link DataOutputStream stream}
+	 * @throws IOException
+	 */
+	void encode( DataOutputStream stream ) throws IOException;
 
 	/**
 	 * Returns the referenced value
@@ -15,4 +25,19 @@ public interface ValueReference {
 	 */
 	Object getValue( CxScriptRuntimeContext context );
 	
+	/**
+	 * Indicates whether the referenced value is numeric
+	 * @param context the given {@link CxScriptRuntimeContext runtime context}
+	 * @return true, if the value is numeric
+	 */
+	boolean isNumber( CxScriptRuntimeContext context );
+	
+	/**
+	 * Returns the referenced numeric value (without boxing it)
+	 * @param context the given {@link CxScriptRuntimeContext runtime context}
+	 * @return the numeric value
+	 * @throws IllegalArgumentException if the value is not numeric
+	 */
+	double getNumber( CxScriptRuntimeContext context );
+	
 }
@@ -1,20 +1,50 @@
 package constellation.tools.sdk.cxscript.value;
 
+import static constellation.tools.sdk.cxscript.CxScriptUtil.encodeString;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import constellation.tools.sdk.cxscript.CxScriptRuntimeContext;
+import constellation.tools.sdk.cxscript.CxScriptUtil;
 
 /**
- * Constellation Variable Reference
+ * Constellation Variable Reference; the variable is resolved (by the 
+ * compiler) to a slot within the runtime context, and is accessed by
+ * its slot alone.
  * @author lawrence.daniels@gmail.com
  */
 public class VariableReference implements ValueReference {
 	private final String name;
+	private final int slot;
 	
 	/** 
 	 * Creates a new variable reference
 	 * @param name the name of the variable
+	 * @param slot the slot of the variable within the runtime context
 	 */
-	public VariableReference( final String name ) {
+	public VariableReference( final String name, final int slot ) {
 		this.name = name;
+		this.slot = slot;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.value.ValueReference#encode(java.io.DataOutputStream)
+	 */
+	public void encode( final DataOutputStream stream ) 
+	throws IOException {
+		stream.writeByte( CxScriptUtil.VALUE_VARIABLE );
+		encodeString( stream, name );
+		stream.writeShort( slot );
+	}
+	
+	/**
+	 * Returns the name of the variable
+	 * @return the name of the variable
+	 */
+	public String getName() {
+		return name;
 	}
 
 	/* 
@@ -22,8 +52,54 @@ public class VariableReference implements ValueReference {
 	 * @see constellation.tools.sdk.cxscript.value.ValueReference#getValue(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
 	 */
 	public Object getValue( final CxScriptRuntimeContext context ) {
-		// TODO Auto-generated method stub
-		return null;
+		return context.getVariable( slot );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.value.ValueReference#isNumber(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
+	 */
+	public boolean isNumber( final CxScriptRuntimeContext context ) {
+		return context.isNumber( slot );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.cxscript.value.ValueReference#getNumber(constellation.tools.sdk.cxscript.CxScriptRuntimeContext)
+	 */
+	public double getNumber( final CxScriptRuntimeContext context ) {
+		return context.getNumber( slot );
+	}
+	
+	/** 
+	 * Sets the value of the variable to the referenced value (numeric values are copied without boxing)
+	 * @param context the given {@link CxScriptRuntimeContext runtime context}
+	 * @param value the given {@link ValueReference value reference}
+	 */
+	public void setValue( final CxScriptRuntimeContext context, final ValueReference value ) {
+		if( value.isNumber( context ) ) {
+			context.setNumber( slot, value.getNumber( context ) );
+		}
+		else {
+			context.setVariable( slot, value.getValue( context ) );
+		}
+	}
+	
+	/** 
+	 * Sets the numeric value of the variable
+	 * @param context the given {@link CxScriptRuntimeContext runtime context}
+	 * @param value the given numeric value
+	 */
+	public void setNumber( final CxScriptRuntimeContext context, final double value ) {
+		context.setNumber( slot, value );
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return name;
 	}
 
 }
@@ -0,0 +1,192 @@
+package constellation.tools.sdk.math.geometric.expressions;
+
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+import java.util.Arrays;
+
+/**
+ * Represents an expression which has been compiled (by the {@link ExpressionCompiler
+ * expression compiler}) into a flat, register-based program over primitive doubles.
+ * <div>
+ * Registers <tt>0..n-1</tt> hold the parameters of the expression, followed by
+ * the constants and the temporaries. Each instruction occupies four slots of the
+ * program: the operation, and the destination and operand registers. When evaluated
+ * over arrays of parameter values, each instruction is applied to a whole block of
+ * values at a time, so that the cost of dispatching the instruction is shared by
+ * the block, and the inner loops are simple enough to be unrolled by the JIT.
+ * </div>
+ * Compiled expressions are immutable, and are therefore thread-safe.
+ * @author lawrence.daniels@gmail.com
+ */
+public class CompiledExpression {
+	private static final Operation[] OPERATIONS = Operation.values();
+	private static final int BLOCK_SIZE = 256;
+	private final String[] parameters;
+	private final double[] registers;
+	private final int[] program;
+	private final int result;
+
+	/**
+	 * Creates a new compiled expression
+	 * @param parameters the given parameter names
+	 * @param registers the given initial register values (i.e. the constants)
+	 * @param program the given program (operation, destination, operand A, operand B)
+	 * @param result the given index of the register which holds the result
+	 */
+	CompiledExpression( final String[] parameters,
+						final double[] registers,
+						final int[] program,
+						final int result ) {
+		this.parameters	= parameters;
+		this.registers	= registers;
+		this.program	= program;
+		this.result		= result;
+	}
+
+	/**
+	 * Returns the parameter names of the expression
+	 * @return the parameter names
+	 */
+	public String[] getParameters() {
+		return parameters.clone();
+	}
+
+	/**
+	 * Returns the number of instructions of the program
+	 * @return the number of instructions
+	 */
+	public int getInstructionCount() {
+		return program.length / 4;
+	}
+
+	/**
+	 * Returns the number of registers used by the program
+	 * @return the number of registers
+	 */
+	public int getRegisterCount() {
+		return registers.length;
+	}
+
+	/**
+	 * Evaluates the expression for the given parameter values
+	 * @param arguments the given parameter values (in the order of the parameters)
+	 * @return the resultant value
+	 * @throws IllegalArgumentException if the number of arguments is incorrect
+	 */
+	public double evaluate( final double ... arguments ) {
+		if( arguments.length != parameters.length ) {
+			throw new IllegalArgumentException( format( "Expected %d arguments, found %d", parameters.length, arguments.length ) );
+		}
+
+		// load the constants and parameters
+		final double[] r = registers.clone();
+		System.arraycopy( arguments, 0, r, 0, arguments.length );
+
+		// execute the program
+		final int[] p = program;
+		for( int pc = 0; pc < p.length; pc += 4 ) {
+			r[ p[pc+1] ] = OPERATIONS[ p[pc] ].apply( r[ p[pc+2] ], r[ p[pc+3] ] );
+		}
+		return r[ result ];
+	}
+
+	/**
+	 * Evaluates the expression of a single parameter over the given array of values
+	 * @param values the given array of parameter values
+	 * @param results the given array to receive the results
+	 * @param count the given number of values to evaluate
+	 */
+	public void evaluate( final double[] values, final double[] results, final int count ) {
+		evaluate( new double[][] { values }, results, count );
+	}
+
+	/**
+	 * Evaluates the expression over the given arrays of parameter values;
+	 * the <i>n</i>th result is computed from the <i>n</i>th value of each array.
+	 * @param arguments the given arrays of parameter values (one array per parameter)
+	 * @param results the given array to receive the results
+	 * @param count the given number of values to evaluate
+	 * @throws IllegalArgumentException if the number of arguments is incorrect
+	 */
+	public void evaluate( final double[][] arguments, final double[] results, final int count ) {
+		if( arguments.length != parameters.length ) {
+			throw new IllegalArgumentException( format( "Expected %d arguments, found %d", parameters.length, arguments.length ) );
+		}
+
+		// allocate the register blocks, and load the constants
+		final double[][] r = new double[ registers.length ][ BLOCK_SIZE ];
+		for( int n = parameters.length; n < registers.length; n++ ) {
+			Arrays.fill( r[n], registers[n] );
+		}
+
+		// evaluate the expression, one block at a time
+		for( int offset = 0; offset < count; offset += BLOCK_SIZE ) {
+			final int length = min( BLOCK_SIZE, count - offset );
+
+			// load the parameters
+			for( int n = 0; n < arguments.length; n++ ) {
+				System.arraycopy( arguments[n], offset, r[n], 0, length );
+			}
+
+			// execute the program
+			execute( r, length );
+
+			// store the results
+			System.arraycopy( r[ result ], 0, results, offset, length );
+		}
+	}
+
+	/**
+	 * Executes the program over a block of register values
+	 * @param r the given register blocks
+	 * @param length the given number of values in each block
+	 */
+	private void execute( final double[][] r, final int length ) {
+		final int[] p = program;
+		for( int pc = 0; pc < p.length; pc += 4 ) {
+			final double[] d = r[ p[pc+1] ];
+			final double[] a = r[ p[pc+2] ];
+			final double[] b = r[ p[pc+3] ];
+			switch( OPERATIONS[ p[pc] ] ) {
+				case ADD:			for( int i = 0; i < length; i++ ) { d[i] = a[i] + b[i]; } break;
+				case SUBTRACT:		for( int i = 0; i < length; i++ ) { d[i] = a[i] - b[i]; } break;
+				case MULTIPLY:		for( int i = 0; i < length; i++ ) { d[i] = a[i] * b[i]; } break;
+				case DIVIDE:		for( int i = 0; i < length; i++ ) { d[i] = a[i] / b[i]; } break;
+				case POWER:			for( int i = 0; i < length; i++ ) { d[i] = Math.pow( a[i], b[i] ); } break;
+				case NEGATE:		for( int i = 0; i < length; i++ ) { d[i] = -a[i]; } break;
+				case SQUARE:		for( int i = 0; i < length; i++ ) { d[i] = a[i] * a[i]; } break;
+				case SQUARE_ROOT:	for( int i = 0; i < length; i++ ) { d[i] = Math.sqrt( a[i] ); } break;
+				case ABS:			for( int i = 0; i < length; i++ ) { d[i] = Math.abs( a[i] ); } break;
+				case EXP:			for( int i = 0; i < length; i++ ) { d[i] = Math.exp( a[i] ); } break;
+				case LOG:			for( int i = 0; i < length; i++ ) { d[i] = Math.log( a[i] ); } break;
+				case LOG10:			for( int i = 0; i < length; i++ ) { d[i] = Math.log10( a[i] ); } break;
+				case SIN:			for( int i = 0; i < length; i++ ) { d[i] = Math.sin( a[i] ); } break;
+				case COS:			for( int i = 0; i < length; i++ ) { d[i] = Math.cos( a[i] ); } break;
+				case TAN:			for( int i = 0; i < length; i++ ) { d[i] = Math.tan( a[i] ); } break;
+				case ASIN:			for( int i = 0; i < length; i++ ) { d[i] = Math.asin( a[i] ); } break;
+				case ACOS:			for( int i = 0; i < length; i++ ) { d[i] = Math.acos( a[i] ); } break;
+				case ATAN:			for( int i = 0; i < length; i++ ) { d[i] = Math.atan( a[i] ); } break;
+				default:
+					throw new IllegalStateException( format( "Unhandled operation '%s'", OPERATIONS[ p[pc] ] ) );
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		final StringBuilder sb = new StringBuilder( 32 + program.length * 8 );
+		sb.append( format( "f(%s) = r%d", Arrays.toString( parameters ).replaceAll( "[\\[\\] ]", "" ), result ) );
+		for( int pc = 0; pc < program.length; pc += 4 ) {
+			final Operation operation = OPERATIONS[ program[pc] ];
+			sb.append( operation.isUnary()
+					? format( "; r%d = %s(r%d)", program[pc+1], operation, program[pc+2] )
+					: format( "; r%d = %s(r%d, r%d)", program[pc+1], operation, program[pc+2], program[pc+3] ) );
+		}
+		return sb.toString();
+	}
+
+}
@@ -23,6 +23,14 @@ public class ConstantValue implements ValueReference {
 		return value;
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#compile(constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler)
+	 */
+	public int compile( final ExpressionCompiler compiler ) {
+		return compiler.constant( value );
+	}
+	
 	/* 
 	 * (non-Javadoc)
 	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#negate()
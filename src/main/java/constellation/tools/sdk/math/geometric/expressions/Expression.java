@@ -25,6 +25,24 @@ public class Expression implements ValueReference {
 		return valueReference.evaluate( scope );
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#compile(constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler)
+	 */
+	public int compile( final ExpressionCompiler compiler ) {
+		return valueReference.compile( compiler );
+	}
+	
+	/**
+	 * Compiles the expression
+	 * @param parameters the given parameter names (e.g. 'x', 'y')
+	 * @return the {@link CompiledExpression compiled expression}
+	 * @throws IllegalArgumentException if the expression references an unknown variable
+	 */
+	public CompiledExpression compile( final String ... parameters ) {
+		return ExpressionCompiler.compile( valueReference, parameters );
+	}
+	
 	/* 
 	 * (non-Javadoc)
 	 * @see java.lang.Object#toString()
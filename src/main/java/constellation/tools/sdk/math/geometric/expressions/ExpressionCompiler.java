@@ -0,0 +1,225 @@
+package constellation.tools.sdk.math.geometric.expressions;
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Constellation Expression Compiler
+ * <div>
+ * Compiles an expression tree (e.g. as produced by the {@link ExpressionParser
+ * expression parser}) into a {@link CompiledExpression compiled expression}.
+ * Each node of the tree emits its instructions by way of {@link ValueReference#compile(ExpressionCompiler)},
+ * and returns the register holding its value. Variables which are not parameters are
+ * bound (by value) to the given scope at compile time; operations whose operands are
+ * all constant are folded, and powers of constant exponent are strength-reduced.
+ * Since each temporary is consumed exactly once, temporaries are recycled as soon
+ * as they have been consumed.
+ * </div>
+ * @author lawrence.daniels@gmail.com
+ */
+public class ExpressionCompiler {
+	private final Map<String, Integer> parameterRegisters;
+	private final Map<Double, Integer> constantRegisters;
+	private final LinkedList<Integer> freeRegisters;
+	private final String[] parameters;
+	private final Scope scope;
+	private double[] registers;
+	private boolean[] temporary;
+	private int[] program;
+	private int registerCount;
+	private int programLength;
+
+	/**
+	 * Creates a new expression compiler
+	 * @param scope the given {@link Scope scope} to which non-parameter variables are bound
+	 * @param parameters the given parameter names
+	 */
+	private ExpressionCompiler( final Scope scope, final String[] parameters ) {
+		this.scope				= scope;
+		this.parameters			= parameters.clone();
+		this.parameterRegisters	= new HashMap<String, Integer>();
+		this.constantRegisters	= new HashMap<Double, Integer>();
+		this.freeRegisters		= new LinkedList<Integer>();
+		this.registers			= new double[ parameters.length + 16 ];
+		this.temporary			= new boolean[ registers.length ];
+		this.program			= new int[ 64 ];
+
+		// the parameters occupy the first registers
+		for( final String name : parameters ) {
+			if( parameterRegisters.containsKey( name ) ) {
+				throw new IllegalArgumentException( format( "Duplicate parameter '%s'", name ) );
+			}
+			parameterRegisters.put( name, registerCount++ );
+		}
+	}
+
+	/**
+	 * Compiles the given expression
+	 * @param expression the given {@link ValueReference expression}
+	 * @param parameters the given parameter names (e.g. 'x', 'y')
+	 * @return the {@link CompiledExpression compiled expression}
+	 * @throws IllegalArgumentException if the expression references an unknown variable
+	 */
+	public static CompiledExpression compile( final ValueReference expression, final String ... parameters ) {
+		return compile( expression, new DefaultScope(), parameters );
+	}
+
+	/**
+	 * Compiles the given expression
+	 * @param expression the given {@link ValueReference expression}
+	 * @param scope the given {@link Scope scope} to which non-parameter variables are bound
+	 * @param parameters the given parameter names (e.g. 'x', 'y')
+	 * @return the {@link CompiledExpression compiled expression}
+	 * @throws IllegalArgumentException if the expression references an unknown variable
+	 */
+	public static CompiledExpression compile( final ValueReference expression,
+											  final Scope scope,
+											  final String ... parameters ) {
+		final ExpressionCompiler compiler = new ExpressionCompiler( scope, parameters );
+		final int result = expression.compile( compiler );
+		return new CompiledExpression(
+				compiler.parameters,
+				Arrays.copyOf( compiler.registers, compiler.registerCount ),
+				Arrays.copyOf( compiler.program, compiler.programLength ),
+				result
+		);
+	}
+
+	/**
+	 * Returns the register holding the given constant value
+	 * @param value the given constant value
+	 * @return the index of the register
+	 */
+	public int constant( final double value ) {
+		Integer register = constantRegisters.get( value );
+		if( register == null ) {
+			register = allocate( false );
+			registers[ register ] = value;
+			constantRegisters.put( value, register );
+		}
+		return register;
+	}
+
+	/**
+	 * Returns the register holding the given variable; a variable which is not
+	 * a parameter is bound to its current value within the scope.
+	 * @param name the given variable name
+	 * @return the index of the register
+	 * @throws IllegalArgumentException if the variable is unknown
+	 */
+	public int variable( final String name ) {
+		final Integer register = parameterRegisters.get( name );
+		if( register != null ) {
+			return register;
+		}
+
+		// bind the variable by value
+		final Double value = scope.getValue( name );
+		if( value == null ) {
+			throw new IllegalArgumentException( format( "No mapping found for '%s'", name ) );
+		}
+		return constant( value );
+	}
+
+	/**
+	 * Emits the given unary operation
+	 * @param operation the given {@link Operation operation}
+	 * @param a the given operand register
+	 * @return the index of the register holding the result
+	 */
+	public int emit( final Operation operation, final int a ) {
+		return emit( operation, a, a );
+	}
+
+	/**
+	 * Emits the given operation
+	 * @param operation the given {@link Operation operation}
+	 * @param a the given left (or only) operand register
+	 * @param b the given right operand register (ignored by unary operations)
+	 * @return the index of the register holding the result
+	 */
+	public int emit( final Operation operation, final int a, final int b ) {
+		// fold the operation, if its operands are constant
+		if( isConstant( a ) && isConstant( b ) ) {
+			return constant( operation.apply( registers[a], registers[b] ) );
+		}
+
+		// reduce powers of constant exponent
+		if( ( operation == Operation.POWER ) && isConstant( b ) ) {
+			final double exponent = registers[b];
+			if( exponent == 1d ) {
+				return a;
+			}
+			if( exponent == 2d ) {
+				return emit( Operation.SQUARE, a );
+			}
+			if( exponent == 0.5d ) {
+				return emit( Operation.SQUARE_ROOT, a );
+			}
+			if( exponent == -1d ) {
+				return emit( Operation.DIVIDE, constant( 1d ), a );
+			}
+		}
+
+		// recycle the operands, and allocate the result
+		release( a );
+		if( b != a ) {
+			release( b );
+		}
+		final int d = allocate( true );
+
+		// append the instruction
+		if( programLength + 4 > program.length ) {
+			program = Arrays.copyOf( program, program.length * 2 );
+		}
+		program[ programLength++ ] = operation.ordinal();
+		program[ programLength++ ] = d;
+		program[ programLength++ ] = a;
+		program[ programLength++ ] = b;
+		return d;
+	}
+
+	/**
+	 * Indicates whether the given register holds a constant
+	 * @param register the given register index
+	 * @return true, if the register holds a constant
+	 */
+	private boolean isConstant( final int register ) {
+		return ( register >= parameters.length ) && !temporary[ register ];
+	}
+
+	/**
+	 * Allocates a register
+	 * @param isTemporary indicates whether the register is to hold a temporary
+	 * @return the index of the register
+	 */
+	private int allocate( final boolean isTemporary ) {
+		// re-use a recycled temporary
+		if( isTemporary && !freeRegisters.isEmpty() ) {
+			return freeRegisters.removeLast();
+		}
+
+		// grow the register file
+		if( registerCount == registers.length ) {
+			registers = Arrays.copyOf( registers, registers.length * 2 );
+			temporary = Arrays.copyOf( temporary, temporary.length * 2 );
+		}
+		temporary[ registerCount ] = isTemporary;
+		return registerCount++;
+	}
+
+	/**
+	 * Recycles the given register, if it holds a temporary
+	 * @param register the given register index
+	 */
+	private void release( final int register ) {
+		if( temporary[ register ] ) {
+			freeRegisters.add( register );
+		}
+	}
+
+}
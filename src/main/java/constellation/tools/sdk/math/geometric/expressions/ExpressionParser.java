@@ -1,7 +1,11 @@
 package constellation.tools.sdk.math.geometric.expressions;
 
+import static java.lang.String.format;
+
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 
@@ -9,23 +13,44 @@ import com.ldaniels528.tokenizer.Token;
 import com.ldaniels528.tokenizer.TokenIterator;
 import com.ldaniels528.tokenizer.Tokenizer;
 import com.ldaniels528.tokenizer.TokenizerContext;
+import com.ldaniels528.tokenizer.parsers.DecimalTokenParser;
+import com.ldaniels528.tokenizer.parsers.OperatorTokenParser;
+import com.ldaniels528.tokenizer.parsers.TextTokenParser;
+
+import constellation.tools.sdk.math.geometric.expressions.operations.AddOp;
+import constellation.tools.sdk.math.geometric.expressions.operations.DivideOp;
+import constellation.tools.sdk.math.geometric.expressions.operations.FunctionOp;
+import constellation.tools.sdk.math.geometric.expressions.operations.MultiplyOp;
+import constellation.tools.sdk.math.geometric.expressions.operations.PowerOp;
+import constellation.tools.sdk.math.geometric.expressions.operations.SubtractOp;
 
 /**
  * Constellation Expression Parser
+ * <div>
+ * Parses expressions of the form 'f(x) = 5x^2 + 3sin(x)/2 [0:10]'. The usual
+ * precedence of the operators applies; exponentiation is right-associative,
+ * and binds more tightly than negation (i.e. '-x^2' is '-(x^2)'). Adjacent
+ * factors are multiplied (e.g. '5x' or '2(x+1)'). The functions are those of
+ * the unary {@link Operation operations} (e.g. 'sin', 'sqrt' or 'ln'), and
+ * 'pi' and 'e' are constants.
+ * </div>
  * @author lawrence.daniels@gmail.com
  */
 public class ExpressionParser {
 	private static final ExpressionParser instance = new ExpressionParser();
 	private final Logger logger = Logger.getLogger( getClass() );
 	private final Tokenizer tokenizer;
-	
+
 	/**
 	 * Default constructor
 	 */
 	private ExpressionParser() {
 		this.tokenizer = new Tokenizer();
+		this.tokenizer.add( new DecimalTokenParser() );
+		this.tokenizer.add( new OperatorTokenParser() );
+		this.tokenizer.add( new TextTokenParser() );
 	}
-	
+
 	/**
 	 * Returns the singleton instance of the class
 	 * @return the singleton instance of the class
@@ -33,66 +58,354 @@ public class ExpressionParser {
 	public static ExpressionParser getInstance() {
 		return instance;
 	}
-	
+
 	/**
-	 * Parses the given data string
+	 * Parses the given data string; the data string contains one or more
+	 * statements (separated by semicolons), each of which may be limited
+	 * to a range (e.g. 'f(x)=x^2+5[1:6]').
 	 * @param dataString the given data string
 	 * @return the the collection of limit expressions
+	 * @throws IllegalArgumentException if the data string is invalid
 	 */
 	public Collection<LimitExpression> parse( final String dataString ) {
 		final Collection<LimitExpression> expressions = new LinkedList<LimitExpression>();
-		
-		// parse the data string
-		final TokenizerContext context = tokenizer.parse( dataString );
-		
-		// get the iteration of tokens
-		final TokenIterator tokens = tokenizer.nextTokens( context );
-		
-		double start = 0;
-		double end = 0;
-		
-		// evaluate each token
-		while( tokens.hasNext() ) {
-			// get the next token
-			final String token = tokens.next();
-			
-			// is the token the start of a limit?
-			if( token.equals( "[" ) ) {
-				// get all elements of the range
-				final TokenIterator it = tokens.upto( "]", true );
-				if( it.elementsRemaining() != 3 )
-					throw new IllegalArgumentException( String.format( "Invalid limit at %d", it.nextToken().getStart() ) );
-				
-				// get the start and end value
-				start = Double.parseDouble( it.next() );
-				mandate( it, ":" );
-				end = Double.parseDouble( it.next() );
-				
-				logger.debug( String.format( "limit: %3.2f .. %3.2f", start, end ) );
-			}
-			
+
+		// split the tokens into statements
+		final List<Token> statement = new ArrayList<Token>();
+		for( final Token token : tokenize( dataString ) ) {
 			// check for end of statement
-			else if( token.equals( ";" ) ) {
-				start = 0;
-				end = 0;
+			if( token.getContent().equals( ";" ) ) {
+				if( !statement.isEmpty() ) {
+					expressions.add( parseStatement( statement ) );
+					statement.clear();
+				}
+			}
+			else {
+				statement.add( token );
 			}
 		}
-		
+
+		// parse the final statement
+		if( !statement.isEmpty() ) {
+			expressions.add( parseStatement( statement ) );
+		}
 		return expressions;
 	}
-	
-	private void mandate( final TokenIterator it, final String expected ) {
-		// there must be at least 1 more element
-		if( !it.hasNext() ) {
-			throw new IllegalArgumentException( "Unexpected end of line" );
-		}
-		
-		// get the next token
-		final Token token = it.nextToken();
-		
-		// must be the expected token
-		if( !expected.equals( token.getContent() ) ) {
-			throw new IllegalArgumentException( String.format( "Invalid limit at %d", token.getStart() ) );
+
+	/**
+	 * Parses the given expression string (e.g. '5x^2 + 3');
+	 * a leading function declaration (e.g. 'f(x) =') is ignored.
+	 * @param expressionString the given expression string
+	 * @return the {@link Expression expression}
+	 * @throws IllegalArgumentException if the expression string is invalid
+	 */
+	public Expression parseExpression( final String expressionString ) {
+		final List<Token> tokens = tokenize( expressionString );
+		final Cursor cursor = new Cursor( tokens, skipDeclaration( tokens ), tokens.size() );
+		final ValueReference value = parseSum( cursor );
+		cursor.mandateEnd();
+		return new Expression( value );
+	}
+
+	/**
+	 * Parses the given statement
+	 * @param tokens the given statement's {@link Token tokens}
+	 * @return the {@link LimitExpression limit expression}
+	 */
+	private LimitExpression parseStatement( final List<Token> tokens ) {
+		double start = 0;
+		double end = 0;
+
+		// is the statement limited to a range?
+		int limit = tokens.size();
+		for( int n = 0; n < tokens.size(); n++ ) {
+			if( tokens.get( n ).getContent().equals( "[" ) ) {
+				limit = n;
+				break;
+			}
+		}
+		if( limit < tokens.size() ) {
+			// get the start and end value
+			final Cursor it = new Cursor( tokens, limit + 1, tokens.size() );
+			start = parseNumber( it );
+			it.mandate( ":" );
+			end = parseNumber( it );
+			it.mandate( "]" );
+			it.mandateEnd();
+
+			logger.debug( format( "limit: %3.2f .. %3.2f", start, end ) );
+		}
+
+		// parse the expression
+		final Cursor cursor = new Cursor( tokens, skipDeclaration( tokens ), limit );
+		final ValueReference value = parseSum( cursor );
+		cursor.mandateEnd();
+		return new LimitExpression( start, end, value );
+	}
+
+	/**
+	 * Parses a sum (or difference) of terms
+	 * @param it the given token {@link Cursor cursor}
+	 * @return the {@link ValueReference value reference}
+	 */
+	private ValueReference parseSum( final Cursor it ) {
+		ValueReference value = parseProduct( it );
+		while( it.hasNext() ) {
+			if( it.accept( "+" ) ) {
+				value = new AddOp( value, parseProduct( it ) );
+			}
+			else if( it.accept( "-" ) ) {
+				value = new SubtractOp( value, parseProduct( it ) );
+			}
+			else {
+				break;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Parses a product (or quotient) of factors; adjacent factors are multiplied
+	 * @param it the given token {@link Cursor cursor}
+	 * @return the {@link ValueReference value reference}
+	 */
+	private ValueReference parseProduct( final Cursor it ) {
+		ValueReference value = parseUnary( it );
+		while( it.hasNext() ) {
+			if( it.accept( "*" ) ) {
+				value = new MultiplyOp( value, parseUnary( it ) );
+			}
+			else if( it.accept( "/" ) ) {
+				value = new DivideOp( value, parseUnary( it ) );
+			}
+			else if( it.peek().isNumeric() || it.peek().isText() || it.peek().getContent().equals( "(" ) ) {
+				value = new MultiplyOp( value, parsePower( it ) );
+			}
+			else {
+				break;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Parses a (possibly negated) factor
+	 * @param it the given token {@link Cursor cursor}
+	 * @return the {@link ValueReference value reference}
+	 */
+	private ValueReference parseUnary( final Cursor it ) {
+		if( it.accept( "-" ) ) {
+			final ValueReference value = parseUnary( it );
+			return ( value instanceof ConstantValue )
+					? ((ConstantValue)value).negate()
+					: new FunctionOp( Operation.NEGATE, value );
+		}
+		if( it.accept( "+" ) ) {
+			return parseUnary( it );
+		}
+		return parsePower( it );
+	}
+
+	/**
+	 * Parses a factor, which may be raised to a power
+	 * @param it the given token {@link Cursor cursor}
+	 * @return the {@link ValueReference value reference}
+	 */
+	private ValueReference parsePower( final Cursor it ) {
+		final Token token = it.peek();
+		final ValueReference base = parsePrimary( it );
+		if( !it.accept( "^" ) ) {
+			return base;
+		}
+
+		// is it a variable raised to a constant power (e.g. 'x^2')?
+		final ValueReference exponent = parseUnary( it );
+		if( ( base instanceof Variable ) && token.isText() && ( exponent instanceof ConstantValue ) ) {
+			return new Variable( token.getContent(), exponent.evaluate( null ) );
+		}
+		return new PowerOp( base, exponent );
+	}
+
+	/**
+	 * Parses a number, variable, function call or parenthesized expression
+	 * @param it the given token {@link Cursor cursor}
+	 * @return the {@link ValueReference value reference}
+	 */
+	private ValueReference parsePrimary( final Cursor it ) {
+		final Token token = it.next();
+		final String content = token.getContent();
+
+		// is it a number?
+		if( token.isNumeric() ) {
+			return new ConstantValue( Double.parseDouble( content ) );
+		}
+
+		// is it a parenthesized expression?
+		if( content.equals( "(" ) ) {
+			final ValueReference value = parseSum( it );
+			it.mandate( ")" );
+			return value;
+		}
+
+		// is it an identifier?
+		if( token.isText() ) {
+			// is it a function call?
+			if( it.hasNext() && it.peek().getContent().equals( "(" ) ) {
+				final Operation function = Operation.lookupFunction( content );
+				if( function == null ) {
+					throw new IllegalArgumentException( format( "Unknown function '%s' at %d", content, token.getStart() ) );
+				}
+				it.next();
+				final ValueReference argument = parseSum( it );
+				it.mandate( ")" );
+				return new FunctionOp( function, argument );
+			}
+
+			// is it a constant?
+			if( content.equalsIgnoreCase( "pi" ) ) {
+				return new ConstantValue( Math.PI );
+			}
+			if( content.equals( "e" ) ) {
+				return new ConstantValue( Math.E );
+			}
+			return new Variable( content );
+		}
+
+		throw new IllegalArgumentException( format( "Unexpected '%s' at %d", content, token.getStart() ) );
+	}
+
+	/**
+	 * Parses a (possibly negative) number
+	 * @param it the given token {@link Cursor cursor}
+	 * @return the number
+	 */
+	private double parseNumber( final Cursor it ) {
+		final boolean negative = it.accept( "-" );
+		final Token token = it.next();
+		if( !token.isNumeric() ) {
+			throw new IllegalArgumentException( format( "Invalid limit at %d", token.getStart() ) );
+		}
+		final double value = Double.parseDouble( token.getContent() );
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Returns the position of the first token following the function
+	 * declaration (e.g. 'f(x) ='), if any
+	 * @param tokens the given {@link Token tokens}
+	 * @return the position of the first token of the expression
+	 */
+	private int skipDeclaration( final List<Token> tokens ) {
+		for( int n = 0; n < tokens.size(); n++ ) {
+			if( tokens.get( n ).getContent().equals( "=" ) ) {
+				return n + 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Tokenizes the given string
+	 * @param string the given string
+	 * @return the list of {@link Token tokens}
+	 */
+	private List<Token> tokenize( final String string ) {
+		// parse the data string
+		final TokenizerContext context = tokenizer.parse( string );
+
+		// get the iteration of tokens
+		final TokenIterator it = tokenizer.nextTokens( context );
+		final List<Token> tokens = new ArrayList<Token>();
+		while( it.hasNext() ) {
+			tokens.add( it.nextToken() );
+		}
+		return tokens;
+	}
+
+	/**
+	 * Represents a position within a range of tokens
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private static class Cursor {
+		private final List<Token> tokens;
+		private final int end;
+		private int position;
+
+		/**
+		 * Creates a new cursor
+		 * @param tokens the given {@link Token tokens}
+		 * @param start the given starting position
+		 * @param end the given ending position (exclusive)
+		 */
+		public Cursor( final List<Token> tokens, final int start, final int end ) {
+			this.tokens		= tokens;
+			this.position	= start;
+			this.end		= end;
+		}
+
+		/**
+		 * Consumes the next token, if it is the expected token
+		 * @param expected the given expected token
+		 * @return true, if the token was consumed
+		 */
+		public boolean accept( final String expected ) {
+			if( hasNext() && expected.equals( tokens.get( position ).getContent() ) ) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Indicates whether there is at least 1 more token
+		 * @return true, if there is at least 1 more token
+		 */
+		public boolean hasNext() {
+			return position < end;
+		}
+
+		/**
+		 * Consumes the expected token
+		 * @param expected the given expected token
+		 */
+		public void mandate( final String expected ) {
+			final Token token = next();
+			if( !expected.equals( token.getContent() ) ) {
+				throw new IllegalArgumentException( format( "Expected '%s' at %d", expected, token.getStart() ) );
+			}
+		}
+
+		/**
+		 * Ensures that all tokens have been consumed
+		 */
+		public void mandateEnd() {
+			if( hasNext() ) {
+				final Token token = peek();
+				throw new IllegalArgumentException( format( "Unexpected '%s' at %d", token.getContent(), token.getStart() ) );
+			}
+		}
+
+		/**
+		 * Consumes the next token
+		 * @return the next {@link Token token}
+		 */
+		public Token next() {
+			// there must be at least 1 more element
+			if( !hasNext() ) {
+				throw new IllegalArgumentException( "Unexpected end of line" );
+			}
+			return tokens.get( position++ );
+		}
+
+		/**
+		 * Returns the next token, without consuming it
+		 * @return the next {@link Token token}
+		 */
+		public Token peek() {
+			if( !hasNext() ) {
+				throw new IllegalArgumentException( "Unexpected end of line" );
+			}
+			return tokens.get( position );
 		}
 	}
 
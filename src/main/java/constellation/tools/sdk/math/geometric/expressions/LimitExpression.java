@@ -43,7 +43,7 @@ public class LimitExpression extends Expression {
 	 * @see java.lang.Object#toString()
 	 */
 	public String toString() {
-		return format( "%s[%3.2d:%3.2d]", super.toString(), start, end );
+		return format( "%s[%3.2f:%3.2f]", super.toString(), start, end );
 	}
 	
 }
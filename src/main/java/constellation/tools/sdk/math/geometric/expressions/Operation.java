@@ -0,0 +1,99 @@
+package constellation.tools.sdk.math.geometric.expressions;
+
+/**
+ * Represents the enumeration of primitive operations; each operation
+ * is both a node of an expression tree, and an instruction of a
+ * {@link CompiledExpression compiled expression}.
+ * @author lawrence.daniels@gmail.com
+ */
+public enum Operation {
+
+	///////////////////////////////////////////
+	// 		Binary Operations
+	///////////////////////////////////////////
+
+	ADD,
+	SUBTRACT,
+	MULTIPLY,
+	DIVIDE,
+	POWER,
+
+	///////////////////////////////////////////
+	// 		Unary Operations
+	///////////////////////////////////////////
+
+	NEGATE,
+	SQUARE,
+	SQUARE_ROOT,
+	ABS,
+	EXP,
+	LOG,
+	LOG10,
+	SIN,
+	COS,
+	TAN,
+	ASIN,
+	ACOS,
+	ATAN;
+
+	/**
+	 * Indicates whether the operation is unary (i.e. a function of one argument)
+	 * @return true, if the operation is unary
+	 */
+	public boolean isUnary() {
+		return ordinal() >= NEGATE.ordinal();
+	}
+
+	/**
+	 * Applies the operation to the given operands
+	 * @param a the given left (or only) operand
+	 * @param b the given right operand (ignored by unary operations)
+	 * @return the resultant value
+	 */
+	public double apply( final double a, final double b ) {
+		switch( this ) {
+			case ADD:			return a + b;
+			case SUBTRACT:		return a - b;
+			case MULTIPLY:		return a * b;
+			case DIVIDE:		return a / b;
+			case POWER:			return Math.pow( a, b );
+			case NEGATE:		return -a;
+			case SQUARE:		return a * a;
+			case SQUARE_ROOT:	return Math.sqrt( a );
+			case ABS:			return Math.abs( a );
+			case EXP:			return Math.exp( a );
+			case LOG:			return Math.log( a );
+			case LOG10:			return Math.log10( a );
+			case SIN:			return Math.sin( a );
+			case COS:			return Math.cos( a );
+			case TAN:			return Math.tan( a );
+			case ASIN:			return Math.asin( a );
+			case ACOS:			return Math.acos( a );
+			case ATAN:			return Math.atan( a );
+			default:
+				throw new IllegalStateException( String.format( "Unhandled operation '%s'", this ) );
+		}
+	}
+
+	/**
+	 * Returns the unary operation (i.e. function) of the given name
+	 * @param name the given function name (e.g. 'sin')
+	 * @return the {@link Operation operation}, or <tt>null</tt> if not found
+	 */
+	public static Operation lookupFunction( final String name ) {
+		final String key = name.toUpperCase();
+		if( key.equals( "SQRT" ) ) {
+			return SQUARE_ROOT;
+		}
+		if( key.equals( "LN" ) ) {
+			return LOG;
+		}
+		for( final Operation operation : values() ) {
+			if( operation.isUnary() && ( operation != NEGATE ) && operation.name().equals( key ) ) {
+				return operation;
+			}
+		}
+		return null;
+	}
+
+}
@@ -12,5 +12,12 @@ public interface ValueReference {
 	 * @return the resultant value
 	 */
 	Double evaluate( Scope scope );
+	
+	/**
+	 * Compiles the value reference
+	 * @param compiler the given {@link ExpressionCompiler compiler}
+	 * @return the index of the register holding the resultant value
+	 */
+	int compile( ExpressionCompiler compiler );
 
 }
@@ -78,6 +78,20 @@ public class Variable implements ValueReference {
 		return ( value != null ) ? coefficient * Math.pow( value, exponent ) : null;
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#compile(constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler)
+	 */
+	public int compile( final ExpressionCompiler compiler ) {
+		// evaluate the power of the variable
+		final int value = compiler.emit( Operation.POWER, compiler.variable( name ), compiler.constant( exponent ) );
+		
+		// apply the coefficient
+		return ( coefficient != 1.0d ) 
+				? compiler.emit( Operation.MULTIPLY, compiler.constant( coefficient ), value ) 
+				: value;
+	}
+	
 	/**
 	 * Returns the exponent order
 	 * @return the exponent order
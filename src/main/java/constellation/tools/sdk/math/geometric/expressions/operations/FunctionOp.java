@@ -0,0 +1,60 @@
+package constellation.tools.sdk.math.geometric.expressions.operations;
+
+import constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler;
+import constellation.tools.sdk.math.geometric.expressions.Operation;
+import constellation.tools.sdk.math.geometric.expressions.Scope;
+import constellation.tools.sdk.math.geometric.expressions.ValueReference;
+
+/**
+ * Represents a function of one argument (e.g. 'SIN(x)'), or a negation
+ * @author lawrence.daniels@gmail.com
+ */
+public class FunctionOp implements ValueReference {
+	private final Operation operation;
+	private final ValueReference argument;
+	
+	/** 
+	 * Creates a new function instance
+	 * @param operation the given unary {@link Operation operation}
+	 * @param argument the given function {@link ValueReference argument}
+	 * @throws IllegalArgumentException if the operation is not unary
+	 */
+	public FunctionOp( final Operation operation, final ValueReference argument ) {
+		if( !operation.isUnary() ) {
+			throw new IllegalArgumentException( String.format( "Operation '%s' is not a function", operation ) );
+		}
+		this.operation	= operation;
+		this.argument	= argument;
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#evaluate(constellation.tools.sdk.math.geometric.expressions.Scope)
+	 */
+	public Double evaluate( final Scope scope ) {
+		// evaluate the value reference
+		final Double value = argument.evaluate( scope );
+		
+		// evaluate the function
+		return ( value != null ) ? operation.apply( value, 0d ) : null;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#compile(constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler)
+	 */
+	public int compile( final ExpressionCompiler compiler ) {
+		return compiler.emit( operation, argument.compile( compiler ) );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return ( operation == Operation.NEGATE )
+				? String.format( "-(%s)", argument )
+				: String.format( "%s(%s)", operation, argument );
+	}
+
+}
@@ -1,5 +1,7 @@
 package constellation.tools.sdk.math.geometric.expressions.operations;
 
+import constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler;
+import constellation.tools.sdk.math.geometric.expressions.Operation;
 import constellation.tools.sdk.math.geometric.expressions.Scope;
 import constellation.tools.sdk.math.geometric.expressions.ValueReference;
 
@@ -31,6 +33,16 @@ public class MultiplyOp implements ValueReference {
 		return ( lvalue == null || rvalue == null ) ? null : ( lvalue * rvalue );
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#compile(constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler)
+	 */
+	public int compile( final ExpressionCompiler compiler ) {
+		final int lvalue = lvar.compile( compiler );
+		final int rvalue = rvar.compile( compiler );
+		return compiler.emit( Operation.MULTIPLY, lvalue, rvalue );
+	}
+	
 	/* 
 	 * (non-Javadoc)
 	 * @see java.lang.Object#toString()
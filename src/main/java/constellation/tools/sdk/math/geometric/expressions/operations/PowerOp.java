@@ -0,0 +1,54 @@
+package constellation.tools.sdk.math.geometric.expressions.operations;
+
+import constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler;
+import constellation.tools.sdk.math.geometric.expressions.Operation;
+import constellation.tools.sdk.math.geometric.expressions.Scope;
+import constellation.tools.sdk.math.geometric.expressions.ValueReference;
+
+/**
+ * Represents an Exponentiation operation
+ * @author lawrence.daniels@gmail.com
+ */
+public class PowerOp implements ValueReference {
+	private final ValueReference base;
+	private final ValueReference exponent;
+	
+	/**
+	 * Creates a new "power" operation
+	 * @param base the base {@link ValueReference value reference}
+	 * @param exponent the exponent {@link ValueReference value reference}
+	 */
+	public PowerOp( final ValueReference base, final ValueReference exponent ) {
+		this.base 		= base;
+		this.exponent	= exponent;
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#evaluate(constellation.tools.sdk.math.geometric.expressions.Scope)
+	 */
+	public Double evaluate( final Scope scope ) {
+		final Double bvalue = base.evaluate( scope );
+		final Double evalue = exponent.evaluate( scope );
+		return ( bvalue == null || evalue == null ) ? null : Math.pow( bvalue, evalue );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#compile(constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler)
+	 */
+	public int compile( final ExpressionCompiler compiler ) {
+		final int bvalue = base.compile( compiler );
+		final int evalue = exponent.compile( compiler );
+		return compiler.emit( Operation.POWER, bvalue, evalue );
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return String.format( "(%s)^(%s)", base, exponent );
+	}
+
+}
@@ -1,5 +1,7 @@
 package constellation.tools.sdk.math.geometric.expressions.operations;
 
+import constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler;
+import constellation.tools.sdk.math.geometric.expressions.Operation;
 import constellation.tools.sdk.math.geometric.expressions.Scope;
 import constellation.tools.sdk.math.geometric.expressions.ValueReference;
 
@@ -27,7 +29,15 @@ public class SquareOp implements ValueReference {
 		final Double value = argument.evaluate( scope );
 		
 		// evaluate the square
-		return ( value != null ) ? Math.sqrt( value ) : null;
+		return ( value != null ) ? value * value : null;
+	}
+	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#compile(constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler)
+	 */
+	public int compile( final ExpressionCompiler compiler ) {
+		return compiler.emit( Operation.SQUARE, argument.compile( compiler ) );
 	}
 	
 	/* 
@@ -1,5 +1,7 @@
 package constellation.tools.sdk.math.geometric.expressions.operations;
 
+import constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler;
+import constellation.tools.sdk.math.geometric.expressions.Operation;
 import constellation.tools.sdk.math.geometric.expressions.Scope;
 import constellation.tools.sdk.math.geometric.expressions.ValueReference;
 
@@ -30,6 +32,14 @@ public class SquareRootOp implements ValueReference {
 		return ( value != null ) ? Math.sqrt( value ) : null;
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see constellation.tools.sdk.math.geometric.expressions.ValueReference#compile(constellation.tools.sdk.math.geometric.expressions.ExpressionCompiler)
+	 */
+	public int compile( final ExpressionCompiler compiler ) {
+		return compiler.emit( Operation.SQUARE_ROOT, argument.compile( compiler ) );
+	}
+	
 	/* 
 	 * (non-Javadoc)
 	 * @see java.lang.Object#toString()